@@ -0,0 +1,173 @@
+package yoan.shopping.infra.config.filter;
+
+import static org.apache.shiro.subject.support.DefaultSubjectContext.SESSION_CREATION_ENABLED;
+import static yoan.shopping.infra.config.filter.Oauth2AccessTokenAuthenticatingFilter.AUTHORIZATION_HEADER;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.realm.Realm;
+import org.apache.shiro.util.ThreadContext;
+import org.apache.shiro.web.mgt.DefaultWebSecurityManager;
+import org.apache.shiro.web.mgt.WebSecurityManager;
+import org.apache.shiro.web.subject.WebSubject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import yoan.shopping.authentication.jwt.AccessTokenDenyList;
+import yoan.shopping.authentication.jwt.JwtAccessTokenCodec;
+import yoan.shopping.authentication.realm.JwtAccessTokenRealm;
+import yoan.shopping.authentication.realm.OAuth2AccessTokenRealm;
+import yoan.shopping.authentication.realm.PasswordCredentialsMatcher;
+import yoan.shopping.authentication.realm.UserRealm;
+import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
+import yoan.shopping.authentication.repository.fake.RevokedAccessTokenFakeRepository;
+import yoan.shopping.authentication.repository.inmemory.OAuth2AccessTokenInMemoryRepository;
+import yoan.shopping.infra.cache.BoundedCacheManager;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.security.PasswordHasher;
+import yoan.shopping.infra.security.StatelessWebSecurityManager;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.SecuredUser;
+import yoan.shopping.user.repository.fake.SecuredUserFakeRepository;
+import yoan.shopping.user.repository.fake.UserFakeRepository;
+
+/**
+ * Cost of authenticating an API request, from the Authorization header to the realm answer
+ * DEFAULT is the Shiro default web security manager, STATELESS the one used by the API
+ * Run with : mvn clean -Pbenchmark test-compile exec:exec -Dbenchmark=Oauth2AccessTokenAuthenticatingFilterBenchmark
+ * @author yoan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Oauth2AccessTokenAuthenticatingFilterBenchmark {
+
+	private static final String OPAQUE_ACCESS_TOKEN = "2d685f0f8b076a2eb161ca6da9ad250e";
+
+	@Param({ "DEFAULT", "STATELESS" })
+	private String securityManagerType;
+
+	private final Oauth2AccessTokenAuthenticatingFilter filter = new Oauth2AccessTokenAuthenticatingFilter();
+	private final HttpServletResponse response = stub(HttpServletResponse.class, null);
+
+	private WebSecurityManager jwtSecurityManager;
+	private WebSecurityManager opaqueSecurityManager;
+	private String jwtAuthorizationHeader;
+	private HttpServletRequest jwtRequest;
+	private HttpServletRequest opaqueRequest;
+	private HttpServletRequest invalidRequest;
+	private HttpServletRequest missingTokenRequest;
+
+	@Setup
+	public void setUp() throws Exception {
+		SecuredUser user = TestHelper.generateRandomSecuredUser();
+		BoundedCacheManager cacheManager = new BoundedCacheManager(Config.DEFAULT);
+		PasswordHasher passwordHasher = TestHelper.createFastPasswordHasher();
+		SecuredUserFakeRepository userRepository = new SecuredUserFakeRepository(passwordHasher) {
+			@Override
+			protected SecuredUser processGetById(UUID userId) {
+				return user;
+			}
+		};
+		//the password realm is bound too, as in the API
+		UserRealm userRealm = new UserRealm(cacheManager, new PasswordCredentialsMatcher(passwordHasher), userRepository, new UserFakeRepository());
+
+		JwtAccessTokenCodec accessTokenCodec = new JwtAccessTokenCodec(Config.DEFAULT);
+		AccessTokenDenyList denyList = new AccessTokenDenyList(new RevokedAccessTokenFakeRepository(), Config.DEFAULT);
+		OAuth2AccessTokenRepository accessTokenRepository = new OAuth2AccessTokenInMemoryRepository(Config.DEFAULT);
+		jwtSecurityManager = createSecurityManager(userRealm, new JwtAccessTokenRealm(cacheManager, accessTokenCodec, denyList, accessTokenRepository));
+		jwtAuthorizationHeader = "Bearer " + accessTokenCodec.encode(user);
+		jwtRequest = stub(HttpServletRequest.class, jwtAuthorizationHeader);
+
+		accessTokenRepository.create(OPAQUE_ACCESS_TOKEN, user.getId());
+		opaqueSecurityManager = createSecurityManager(userRealm, new OAuth2AccessTokenRealm(cacheManager, accessTokenRepository, userRepository, new UserFakeRepository(), Config.DEFAULT));
+		opaqueRequest = stub(HttpServletRequest.class, "Bearer " + OPAQUE_ACCESS_TOKEN);
+		//first login fills the principal cache, the benchmark measures the cached path
+		authenticate(opaqueSecurityManager, opaqueRequest);
+
+		invalidRequest = stub(HttpServletRequest.class, "Bearer not.a.jwt");
+		missingTokenRequest = stub(HttpServletRequest.class, null);
+	}
+
+	private WebSecurityManager createSecurityManager(Realm... realms) {
+		if ("STATELESS".equals(securityManagerType)) {
+			return new StatelessWebSecurityManager(Arrays.asList(realms));
+		}
+		return new DefaultWebSecurityManager(Arrays.asList(realms));
+	}
+
+	@Benchmark
+	public String extractAccessToken() {
+		return Oauth2AccessTokenAuthenticatingFilter.extractAccessToken(jwtAuthorizationHeader);
+	}
+
+	@Benchmark
+	public boolean jwtAccessToken() throws Exception {
+		return authenticate(jwtSecurityManager, jwtRequest);
+	}
+
+	@Benchmark
+	public boolean cachedOpaqueAccessToken() throws Exception {
+		return authenticate(opaqueSecurityManager, opaqueRequest);
+	}
+
+	@Benchmark
+	public boolean invalidAccessToken() throws Exception {
+		return authenticate(jwtSecurityManager, invalidRequest);
+	}
+
+	@Benchmark
+	public boolean missingAccessToken() throws Exception {
+		return authenticate(jwtSecurityManager, missingTokenRequest);
+	}
+
+	private boolean authenticate(WebSecurityManager securityManager, ServletRequest request) throws Exception {
+		//as the Shiro filter does for each request
+		ThreadContext.bind(new WebSubject.Builder(securityManager, request, response).buildWebSubject());
+		try {
+			return filter.onAccessDenied(request, response);
+		} finally {
+			ThreadContext.unbindSubject();
+		}
+	}
+
+	/**
+	 * Servlet request or response answering only what the filters read, cheaper than a mock
+	 * @param authorizationHeader : Authorization header of the request
+	 */
+	private static <T> T stub(Class<T> type, String authorizationHeader) {
+		Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getHeader" :
+					return AUTHORIZATION_HEADER.equals(args[0]) ? authorizationHeader : null;
+				case "getRemoteAddr" :
+					return "127.0.0.1";
+				case "getAttribute" :
+					//set by the noSessionCreation filter of the API chains
+					return SESSION_CREATION_ENABLED.equals(args[0]) ? Boolean.FALSE : null;
+				default :
+					return method.getReturnType() == boolean.class ? Boolean.FALSE : method.getReturnType() == int.class ? Integer.valueOf(0) : null;
+			}
+		});
+		return type.cast(stub);
+	}
+}
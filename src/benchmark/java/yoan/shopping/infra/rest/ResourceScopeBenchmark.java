@@ -0,0 +1,120 @@
+package yoan.shopping.infra.rest;
+
+import static yoan.shopping.infra.config.guice.ShoppingWebModule.CONNECTED_USER;
+import static yoan.shopping.root.repository.properties.BuildInfoPropertiesRepository.BUILD_INFO_DEFAULT_PROPERTIES_FILE_NAME;
+
+import java.net.URISyntaxException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.resteasy.core.Dispatcher;
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.plugins.guice.ModuleProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+import com.google.inject.name.Names;
+
+import yoan.shopping.infra.config.jackson.JacksonConfigProvider;
+import yoan.shopping.infra.security.PasswordHasher;
+import yoan.shopping.root.repository.BuildInfoRepository;
+import yoan.shopping.root.repository.properties.BuildInfoPropertiesRepository;
+import yoan.shopping.root.resource.RootResource;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.User;
+import yoan.shopping.user.repository.SecuredUserRepository;
+import yoan.shopping.user.repository.UserRepository;
+import yoan.shopping.user.repository.fake.SecuredUserFakeRepository;
+import yoan.shopping.user.repository.fake.UserFakeRepository;
+import yoan.shopping.user.resource.UserResource;
+
+/**
+ * Throughput of the API resources under concurrent requests, through the RESTEasy dispatcher and the Guice bindings
+ * PER_REQUEST builds a resource for each request, SINGLETON shares one resource reading the connected user for each request
+ * Run with : mvn clean -Pbenchmark test-compile exec:exec -Dbenchmark=ResourceScopeBenchmark
+ * @author yoan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ResourceScopeBenchmark {
+
+	@Param({ "PER_REQUEST", "SINGLETON" })
+	private String resourceScope;
+
+	private Dispatcher dispatcher;
+	private String userPath;
+
+	@Setup
+	public void setUp() throws URISyntaxException {
+		User connectedUser = TestHelper.generateRandomUser();
+		userPath = "/api/user/" + connectedUser.getId();
+		PasswordHasher passwordHasher = TestHelper.createFastPasswordHasher();
+		UserRepository userRepository = new UserFakeRepository() {
+			@Override
+			protected User processGetById(UUID userId) {
+				return connectedUser;
+			}
+		};
+		com.google.inject.Scope scope = "SINGLETON".equals(resourceScope) ? Scopes.SINGLETON : Scopes.NO_SCOPE;
+
+		Injector injector = Guice.createInjector(binder -> {
+			binder.bind(RootResource.class).in(scope);
+			binder.bind(UserResource.class).in(scope);
+			binder.bind(JacksonConfigProvider.class);
+			//request scoped in the API
+			binder.bind(User.class).annotatedWith(Names.named(CONNECTED_USER)).toProvider((Provider<User>) () -> connectedUser);
+			//unscoped, as in the API
+			binder.bind(BuildInfoRepository.class).toProvider((Provider<BuildInfoRepository>) () -> new BuildInfoPropertiesRepository(BUILD_INFO_DEFAULT_PROPERTIES_FILE_NAME));
+			binder.bind(UserRepository.class).toInstance(userRepository);
+			binder.bind(SecuredUserRepository.class).toInstance(new SecuredUserFakeRepository(passwordHasher));
+		});
+		dispatcher = MockDispatcherFactory.createDispatcher();
+		new ModuleProcessor(dispatcher.getRegistry(), dispatcher.getProviderFactory()).processInjector(injector);
+
+		//an error response would be measured as well
+		if (root() != 200 || getUserById() != 200) {
+			throw new IllegalStateException("The benchmarked requests should succeed");
+		}
+		boolean singleton = injector.getInstance(RootResource.class) == injector.getInstance(RootResource.class);
+		if (singleton != "SINGLETON".equals(resourceScope)) {
+			throw new IllegalStateException("Unexpected resource scope");
+		}
+	}
+
+	@Benchmark
+	public int root() throws URISyntaxException {
+		return invoke(MockHttpRequest.options("/api"));
+	}
+
+	@Benchmark
+	public int getUserById() throws URISyntaxException {
+		return invoke(MockHttpRequest.get(userPath).accept("application/json"));
+	}
+
+	private int invoke(MockHttpRequest request) {
+		MockHttpResponse response = new MockHttpResponse();
+		dispatcher.invoke(request, response);
+		return response.getStatus();
+	}
+}
@@ -0,0 +1,120 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.authentication.jwt.AccessTokenDenyList;
+
+/**
+ * Revoked access token filter state Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "accessTokenRevocation")
+@ApiModel(value = "Access token revocation")
+public class AccessTokenRevocationRepresentation {
+	/** Number of revoked tokens not expired yet */
+	private int revoked;
+	/** Number of revoked tokens the memory budget can hold */
+	private int capacity;
+	private int memoryBudgetInBytes;
+	private int filterSizeInBytes;
+	/** Number of revocation checks */
+	private long checks;
+	/** Number of checks that needed the exact set */
+	private long filterHits;
+	/** Share of the checks on a token not revoked that needed the exact set */
+	private double falsePositiveRate;
+
+	public AccessTokenRevocationRepresentation() {
+		super();
+	}
+
+	public AccessTokenRevocationRepresentation(AccessTokenDenyList denyList) {
+		super();
+		requireNonNull(denyList);
+		this.revoked = denyList.size();
+		this.capacity = denyList.getCapacity();
+		this.memoryBudgetInBytes = denyList.getMemoryBudgetInBytes();
+		this.filterSizeInBytes = denyList.getFilterSizeInBytes();
+		this.checks = denyList.getCheckCount();
+		this.filterHits = denyList.getFilterHitCount();
+		this.falsePositiveRate = denyList.getFalsePositiveRate();
+	}
+
+	@XmlElement(name = "revoked")
+	public int getRevoked() {
+		return revoked;
+	}
+
+	@XmlElement(name = "capacity")
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@XmlElement(name = "memoryBudgetInBytes")
+	public int getMemoryBudgetInBytes() {
+		return memoryBudgetInBytes;
+	}
+
+	@XmlElement(name = "filterSizeInBytes")
+	public int getFilterSizeInBytes() {
+		return filterSizeInBytes;
+	}
+
+	@XmlElement(name = "checks")
+	public long getChecks() {
+		return checks;
+	}
+
+	@XmlElement(name = "filterHits")
+	public long getFilterHits() {
+		return filterHits;
+	}
+
+	@XmlElement(name = "falsePositiveRate")
+	public double getFalsePositiveRate() {
+		return falsePositiveRate;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(revoked, capacity, memoryBudgetInBytes, filterSizeInBytes, checks, filterHits, falsePositiveRate);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        AccessTokenRevocationRepresentation that = (AccessTokenRevocationRepresentation) obj;
+        return Objects.equals(this.revoked, that.revoked)
+                && Objects.equals(this.capacity, that.capacity)
+                && Objects.equals(this.memoryBudgetInBytes, that.memoryBudgetInBytes)
+                && Objects.equals(this.filterSizeInBytes, that.filterSizeInBytes)
+                && Objects.equals(this.checks, that.checks)
+                && Objects.equals(this.filterHits, that.filterHits)
+                && Objects.equals(this.falsePositiveRate, that.falsePositiveRate);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("revoked", revoked)
+											   .add("capacity", capacity)
+											   .add("memoryBudgetInBytes", memoryBudgetInBytes)
+											   .add("filterSizeInBytes", filterSizeInBytes)
+											   .add("checks", checks)
+											   .add("filterHits", filterHits)
+											   .add("falsePositiveRate", falsePositiveRate)
+											   .toString();
+	}
+}
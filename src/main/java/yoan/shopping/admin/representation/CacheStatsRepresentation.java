@@ -0,0 +1,162 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.cache.BoundedCache;
+import yoan.shopping.infra.cache.BoundedCacheManager;
+
+/**
+ * Cache statistics Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "cacheStats")
+@ApiModel(value = "Cache statistics")
+public class CacheStatsRepresentation {
+	private String name;
+	private int size;
+	private int maximumSize;
+	private long expiryInSeconds;
+	private long hits;
+	private long misses;
+	private double hitRate;
+	/** Number of entries removed to respect the maximum size */
+	private long evictions;
+	private long expirations;
+	/** Number of entries put after a miss */
+	private long loads;
+	private double averageLoadTimeInMillis;
+
+	public CacheStatsRepresentation() {
+		super();
+	}
+
+	public CacheStatsRepresentation(BoundedCache<?, ?> cache) {
+		super();
+		requireNonNull(cache);
+		this.name = cache.getName();
+		this.size = cache.size();
+		this.maximumSize = cache.getSettings().getMaximumSize();
+		this.expiryInSeconds = cache.getSettings().getExpireAfterWriteInSeconds();
+		this.hits = cache.getHitCount();
+		this.misses = cache.getMissCount();
+		this.hitRate = cache.getHitRate();
+		this.evictions = cache.getEvictionCount();
+		this.expirations = cache.getExpirationCount();
+		this.loads = cache.getLoadCount();
+		this.averageLoadTimeInMillis = cache.getAverageLoadTimeInNanos() / 1_000_000;
+	}
+
+	public static List<CacheStatsRepresentation> extractCacheStatsRepresentations(BoundedCacheManager cacheManager) {
+		List<CacheStatsRepresentation> representations = new ArrayList<>();
+		cacheManager.getCaches().forEach(cache -> representations.add(new CacheStatsRepresentation(cache)));
+		return representations;
+	}
+
+	@XmlElement(name = "name")
+	public String getName() {
+		return name;
+	}
+
+	@XmlElement(name = "size")
+	public int getSize() {
+		return size;
+	}
+
+	@XmlElement(name = "maximumSize")
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	@XmlElement(name = "expiryInSeconds")
+	public long getExpiryInSeconds() {
+		return expiryInSeconds;
+	}
+
+	@XmlElement(name = "hits")
+	public long getHits() {
+		return hits;
+	}
+
+	@XmlElement(name = "misses")
+	public long getMisses() {
+		return misses;
+	}
+
+	@XmlElement(name = "hitRate")
+	public double getHitRate() {
+		return hitRate;
+	}
+
+	@XmlElement(name = "evictions")
+	public long getEvictions() {
+		return evictions;
+	}
+
+	@XmlElement(name = "expirations")
+	public long getExpirations() {
+		return expirations;
+	}
+
+	@XmlElement(name = "loads")
+	public long getLoads() {
+		return loads;
+	}
+
+	@XmlElement(name = "averageLoadTimeInMillis")
+	public double getAverageLoadTimeInMillis() {
+		return averageLoadTimeInMillis;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, size, maximumSize, expiryInSeconds, hits, misses, hitRate, evictions, expirations, loads, averageLoadTimeInMillis);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        CacheStatsRepresentation that = (CacheStatsRepresentation) obj;
+        return Objects.equals(this.name, that.name)
+                && Objects.equals(this.size, that.size)
+                && Objects.equals(this.maximumSize, that.maximumSize)
+                && Objects.equals(this.expiryInSeconds, that.expiryInSeconds)
+                && Objects.equals(this.hits, that.hits)
+                && Objects.equals(this.misses, that.misses)
+                && Objects.equals(this.hitRate, that.hitRate)
+                && Objects.equals(this.evictions, that.evictions)
+                && Objects.equals(this.expirations, that.expirations)
+                && Objects.equals(this.loads, that.loads)
+                && Objects.equals(this.averageLoadTimeInMillis, that.averageLoadTimeInMillis);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("name", name)
+											   .add("size", size)
+											   .add("maximumSize", maximumSize)
+											   .add("expiryInSeconds", expiryInSeconds)
+											   .add("hits", hits)
+											   .add("misses", misses)
+											   .add("hitRate", hitRate)
+											   .add("evictions", evictions)
+											   .add("expirations", expirations)
+											   .add("loads", loads)
+											   .add("averageLoadTimeInMillis", averageLoadTimeInMillis)
+											   .toString();
+	}
+}
@@ -0,0 +1,114 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker.WindowSnapshot;
+
+/**
+ * Mongo circuit breaker state Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "mongoCircuitBreaker")
+@ApiModel(value = "Mongo circuit breaker")
+public class MongoCircuitBreakerRepresentation {
+	/** CLOSED, OPEN or HALF_OPEN */
+	private String state;
+	/** Number of calls in the rolling window */
+	private long calls;
+	/** Backend failure rate of the rolling window */
+	private double failureRate;
+	/** Slow call rate of the rolling window */
+	private double slowCallRate;
+	/** Number of operations rejected without reaching the database */
+	private long rejected;
+	/** Number of times the circuit opened */
+	private long openings;
+
+	public MongoCircuitBreakerRepresentation() {
+		super();
+	}
+
+	public MongoCircuitBreakerRepresentation(MongoCircuitBreaker circuitBreaker) {
+		super();
+		requireNonNull(circuitBreaker);
+		WindowSnapshot window = circuitBreaker.getWindowSnapshot();
+		this.state = circuitBreaker.getState().name();
+		this.calls = window.getCalls();
+		this.failureRate = window.getFailureRate();
+		this.slowCallRate = window.getSlowCallRate();
+		this.rejected = circuitBreaker.getRejectedCount();
+		this.openings = circuitBreaker.getOpeningCount();
+	}
+
+	@XmlElement(name = "state")
+	public String getState() {
+		return state;
+	}
+
+	@XmlElement(name = "calls")
+	public long getCalls() {
+		return calls;
+	}
+
+	@XmlElement(name = "failureRate")
+	public double getFailureRate() {
+		return failureRate;
+	}
+
+	@XmlElement(name = "slowCallRate")
+	public double getSlowCallRate() {
+		return slowCallRate;
+	}
+
+	@XmlElement(name = "rejected")
+	public long getRejected() {
+		return rejected;
+	}
+
+	@XmlElement(name = "openings")
+	public long getOpenings() {
+		return openings;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(state, calls, failureRate, slowCallRate, rejected, openings);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        MongoCircuitBreakerRepresentation that = (MongoCircuitBreakerRepresentation) obj;
+        return Objects.equals(this.state, that.state)
+                && Objects.equals(this.calls, that.calls)
+                && Objects.equals(this.failureRate, that.failureRate)
+                && Objects.equals(this.slowCallRate, that.slowCallRate)
+                && Objects.equals(this.rejected, that.rejected)
+                && Objects.equals(this.openings, that.openings);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("state", state)
+											   .add("calls", calls)
+											   .add("failureRate", failureRate)
+											   .add("slowCallRate", slowCallRate)
+											   .add("rejected", rejected)
+											   .add("openings", openings)
+											   .toString();
+	}
+}
@@ -0,0 +1,175 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.db.mongo.metrics.MongoCommandKey;
+import yoan.shopping.infra.db.mongo.metrics.MongoCommandStats;
+
+/**
+ * Mongo command statistics Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "mongoCommandStats")
+@ApiModel(value = "Mongo command statistics")
+public class MongoCommandStatsRepresentation {
+	/** Targeted collection */
+	private String collection;
+	/** Command type : find, insert, update... */
+	private String command;
+	/** Calling repository method */
+	private String caller;
+	/** Number of commands, failed ones included */
+	private long count;
+	/** Number of failed commands */
+	private long failures;
+	/** Latency percentiles in microseconds */
+	private long p50;
+	private long p90;
+	private long p99;
+	private long p999;
+	private long p9999;
+	private long max;
+	/** Mean number of documents returned or affected */
+	private double meanReplyDocuments;
+	/** Max number of documents returned or affected */
+	private long maxReplyDocuments;
+
+	public MongoCommandStatsRepresentation() {
+		super();
+	}
+
+	public MongoCommandStatsRepresentation(MongoCommandStats stats) {
+		super();
+		requireNonNull(stats);
+		MongoCommandKey key = stats.getKey();
+		this.collection = key.getCollection();
+		this.command = key.getCommandName();
+		this.caller = key.getCaller();
+		this.count = stats.getCount();
+		this.failures = stats.getFailureCount();
+		this.p50 = stats.getLatencyPercentileInMicros(50);
+		this.p90 = stats.getLatencyPercentileInMicros(90);
+		this.p99 = stats.getLatencyPercentileInMicros(99);
+		this.p999 = stats.getLatencyPercentileInMicros(99.9);
+		this.p9999 = stats.getLatencyPercentileInMicros(99.99);
+		this.max = stats.getMaxLatencyInMicros();
+		this.meanReplyDocuments = stats.getMeanReplyDocuments();
+		this.maxReplyDocuments = stats.getMaxReplyDocuments();
+	}
+
+	public static List<MongoCommandStatsRepresentation> extractStatsRepresentations(ImmutableList<MongoCommandStats> allStats) {
+		List<MongoCommandStatsRepresentation> representations = new ArrayList<>();
+		allStats.forEach(stats -> representations.add(new MongoCommandStatsRepresentation(stats)));
+		return representations;
+	}
+
+	@XmlElement(name = "collection")
+	public String getCollection() {
+		return collection;
+	}
+
+	@XmlElement(name = "command")
+	public String getCommand() {
+		return command;
+	}
+
+	@XmlElement(name = "caller")
+	public String getCaller() {
+		return caller;
+	}
+
+	@XmlElement(name = "count")
+	public long getCount() {
+		return count;
+	}
+
+	@XmlElement(name = "failures")
+	public long getFailures() {
+		return failures;
+	}
+
+	@XmlElement(name = "p50")
+	public long getP50() {
+		return p50;
+	}
+
+	@XmlElement(name = "p90")
+	public long getP90() {
+		return p90;
+	}
+
+	@XmlElement(name = "p99")
+	public long getP99() {
+		return p99;
+	}
+
+	@XmlElement(name = "p999")
+	public long getP999() {
+		return p999;
+	}
+
+	@XmlElement(name = "p9999")
+	public long getP9999() {
+		return p9999;
+	}
+
+	@XmlElement(name = "max")
+	public long getMax() {
+		return max;
+	}
+
+	@XmlElement(name = "meanReplyDocuments")
+	public double getMeanReplyDocuments() {
+		return meanReplyDocuments;
+	}
+
+	@XmlElement(name = "maxReplyDocuments")
+	public long getMaxReplyDocuments() {
+		return maxReplyDocuments;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(collection, command, caller, count, failures);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        MongoCommandStatsRepresentation that = (MongoCommandStatsRepresentation) obj;
+        return Objects.equals(this.collection, that.collection)
+                && Objects.equals(this.command, that.command)
+                && Objects.equals(this.caller, that.caller)
+                && Objects.equals(this.count, that.count)
+                && Objects.equals(this.failures, that.failures);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("collection", collection)
+											   .add("command", command)
+											   .add("caller", caller)
+											   .add("count", count)
+											   .add("failures", failures)
+											   .add("p50", p50)
+											   .add("p99", p99)
+											   .add("max", max)
+											   .toString();
+	}
+}
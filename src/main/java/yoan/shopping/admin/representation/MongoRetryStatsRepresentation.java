@@ -0,0 +1,100 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryMetrics;
+
+/**
+ * Mongo retry counters Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "mongoRetryStats")
+@ApiModel(value = "Mongo retry counters")
+public class MongoRetryStatsRepresentation {
+	/** Calling repository method */
+	private String caller;
+	/** Number of retries after a transient error */
+	private long retries;
+	/** Number of operations succeeding after a retry */
+	private long recoveries;
+	/** Number of operations failing after their last attempt */
+	private long exhaustions;
+
+	public MongoRetryStatsRepresentation() {
+		super();
+	}
+
+	public MongoRetryStatsRepresentation(String caller, MongoRetryMetrics retryMetrics) {
+		super();
+		requireNonNull(retryMetrics);
+		this.caller = requireNonNull(caller);
+		this.retries = retryMetrics.getRetryCount(caller);
+		this.recoveries = retryMetrics.getRecoveryCount(caller);
+		this.exhaustions = retryMetrics.getExhaustionCount(caller);
+	}
+
+	public static List<MongoRetryStatsRepresentation> extractRetryStatsRepresentations(MongoRetryMetrics retryMetrics) {
+		List<MongoRetryStatsRepresentation> representations = new ArrayList<>();
+		retryMetrics.getCallers().forEach(caller -> representations.add(new MongoRetryStatsRepresentation(caller, retryMetrics)));
+		return representations;
+	}
+
+	@XmlElement(name = "caller")
+	public String getCaller() {
+		return caller;
+	}
+
+	@XmlElement(name = "retries")
+	public long getRetries() {
+		return retries;
+	}
+
+	@XmlElement(name = "recoveries")
+	public long getRecoveries() {
+		return recoveries;
+	}
+
+	@XmlElement(name = "exhaustions")
+	public long getExhaustions() {
+		return exhaustions;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(caller, retries, recoveries, exhaustions);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        MongoRetryStatsRepresentation that = (MongoRetryStatsRepresentation) obj;
+        return Objects.equals(this.caller, that.caller)
+                && Objects.equals(this.retries, that.retries)
+                && Objects.equals(this.recoveries, that.recoveries)
+                && Objects.equals(this.exhaustions, that.exhaustions);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("caller", caller)
+											   .add("retries", retries)
+											   .add("recoveries", recoveries)
+											   .add("exhaustions", exhaustions)
+											   .toString();
+	}
+}
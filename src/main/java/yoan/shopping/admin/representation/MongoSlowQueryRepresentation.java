@@ -0,0 +1,139 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.db.mongo.metrics.MongoSlowQuery;
+
+/**
+ * Mongo slow query Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "mongoSlowQuery")
+@ApiModel(value = "Mongo slow query")
+public class MongoSlowQueryRepresentation {
+	/** When the query finished */
+	private LocalDateTime date;
+	/** Targeted collection */
+	private String collection;
+	/** Command type : find, count, update... */
+	private String command;
+	/** Calling repository method */
+	private String caller;
+	/** Query duration in microseconds */
+	private long durationInMicros;
+	/** Query structure with redacted values */
+	private String query;
+	/** Winning plan as JSON, null if not explained */
+	private String winningPlan;
+	/** True if the winning plan scans the whole collection, null if not explained */
+	private Boolean collectionScan;
+
+	public MongoSlowQueryRepresentation() {
+		super();
+	}
+
+	public MongoSlowQueryRepresentation(MongoSlowQuery slowQuery) {
+		super();
+		requireNonNull(slowQuery);
+		this.date = slowQuery.getDate();
+		this.collection = slowQuery.getKey().getCollection();
+		this.command = slowQuery.getKey().getCommandName();
+		this.caller = slowQuery.getKey().getCaller();
+		this.durationInMicros = slowQuery.getDurationInMicros();
+		this.query = slowQuery.getRedactedQuery();
+		this.winningPlan = slowQuery.getWinningPlan();
+		this.collectionScan = slowQuery.isCollectionScan();
+	}
+
+	public static List<MongoSlowQueryRepresentation> extractSlowQueryRepresentations(ImmutableList<MongoSlowQuery> slowQueries) {
+		List<MongoSlowQueryRepresentation> representations = new ArrayList<>();
+		slowQueries.forEach(slowQuery -> representations.add(new MongoSlowQueryRepresentation(slowQuery)));
+		return representations;
+	}
+
+	@XmlElement(name = "date")
+	public LocalDateTime getDate() {
+		return date;
+	}
+
+	@XmlElement(name = "collection")
+	public String getCollection() {
+		return collection;
+	}
+
+	@XmlElement(name = "command")
+	public String getCommand() {
+		return command;
+	}
+
+	@XmlElement(name = "caller")
+	public String getCaller() {
+		return caller;
+	}
+
+	@XmlElement(name = "durationInMicros")
+	public long getDurationInMicros() {
+		return durationInMicros;
+	}
+
+	@XmlElement(name = "query")
+	public String getQuery() {
+		return query;
+	}
+
+	@XmlElement(name = "winningPlan")
+	public String getWinningPlan() {
+		return winningPlan;
+	}
+
+	@XmlElement(name = "collectionScan")
+	public Boolean getCollectionScan() {
+		return collectionScan;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(date, collection, command, caller, durationInMicros, query);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        MongoSlowQueryRepresentation that = (MongoSlowQueryRepresentation) obj;
+        return Objects.equals(this.date, that.date)
+                && Objects.equals(this.collection, that.collection)
+                && Objects.equals(this.command, that.command)
+                && Objects.equals(this.caller, that.caller)
+                && Objects.equals(this.durationInMicros, that.durationInMicros)
+                && Objects.equals(this.query, that.query);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("date", date)
+											   .add("collection", collection)
+											   .add("command", command)
+											   .add("caller", caller)
+											   .add("durationInMicros", durationInMicros)
+											   .add("query", query)
+											   .add("collectionScan", collectionScan)
+											   .toString();
+	}
+}
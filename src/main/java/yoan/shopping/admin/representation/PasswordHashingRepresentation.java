@@ -0,0 +1,161 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.security.PasswordHasher;
+
+/**
+ * Password hashing pool state Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "passwordHashing")
+@ApiModel(value = "Password hashing")
+public class PasswordHashingRepresentation {
+	/** PBKDF2 iterations of new hashes */
+	private int iterations;
+	private int threads;
+	private int activeThreads;
+	/** Number of hashes waiting for a thread */
+	private int queueSize;
+	private int queueCapacity;
+	private long hashes;
+	/** Number of hashes refused because the queue was full */
+	private long rejected;
+	/** Number of logins checked against a legacy hash, each one upgrades it */
+	private long legacyMatches;
+	private double averageHashTimeInMillis;
+	private double maxHashTimeInMillis;
+	/** Average wait for a thread before hashing */
+	private double averageQueueTimeInMillis;
+
+	public PasswordHashingRepresentation() {
+		super();
+	}
+
+	public PasswordHashingRepresentation(PasswordHasher passwordHasher) {
+		super();
+		requireNonNull(passwordHasher);
+		this.iterations = passwordHasher.getIterations();
+		this.threads = passwordHasher.getThreads();
+		this.activeThreads = passwordHasher.getActiveThreads();
+		this.queueSize = passwordHasher.getQueueSize();
+		this.queueCapacity = passwordHasher.getQueueCapacity();
+		this.hashes = passwordHasher.getHashCount();
+		this.rejected = passwordHasher.getRejectedCount();
+		this.legacyMatches = passwordHasher.getLegacyMatchCount();
+		this.averageHashTimeInMillis = toMillis(passwordHasher.getAverageHashTimeInNanos());
+		this.maxHashTimeInMillis = toMillis(passwordHasher.getMaxHashTimeInNanos());
+		this.averageQueueTimeInMillis = toMillis(passwordHasher.getAverageQueueTimeInNanos());
+	}
+
+	private static double toMillis(long nanos) {
+		return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@XmlElement(name = "iterations")
+	public int getIterations() {
+		return iterations;
+	}
+
+	@XmlElement(name = "threads")
+	public int getThreads() {
+		return threads;
+	}
+
+	@XmlElement(name = "activeThreads")
+	public int getActiveThreads() {
+		return activeThreads;
+	}
+
+	@XmlElement(name = "queueSize")
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	@XmlElement(name = "queueCapacity")
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	@XmlElement(name = "hashes")
+	public long getHashes() {
+		return hashes;
+	}
+
+	@XmlElement(name = "rejected")
+	public long getRejected() {
+		return rejected;
+	}
+
+	@XmlElement(name = "legacyMatches")
+	public long getLegacyMatches() {
+		return legacyMatches;
+	}
+
+	@XmlElement(name = "averageHashTimeInMillis")
+	public double getAverageHashTimeInMillis() {
+		return averageHashTimeInMillis;
+	}
+
+	@XmlElement(name = "maxHashTimeInMillis")
+	public double getMaxHashTimeInMillis() {
+		return maxHashTimeInMillis;
+	}
+
+	@XmlElement(name = "averageQueueTimeInMillis")
+	public double getAverageQueueTimeInMillis() {
+		return averageQueueTimeInMillis;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(iterations, threads, activeThreads, queueSize, queueCapacity, hashes, rejected, legacyMatches, averageHashTimeInMillis, maxHashTimeInMillis, averageQueueTimeInMillis);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        PasswordHashingRepresentation that = (PasswordHashingRepresentation) obj;
+        return Objects.equals(this.iterations, that.iterations)
+                && Objects.equals(this.threads, that.threads)
+                && Objects.equals(this.activeThreads, that.activeThreads)
+                && Objects.equals(this.queueSize, that.queueSize)
+                && Objects.equals(this.queueCapacity, that.queueCapacity)
+                && Objects.equals(this.hashes, that.hashes)
+                && Objects.equals(this.rejected, that.rejected)
+                && Objects.equals(this.legacyMatches, that.legacyMatches)
+                && Objects.equals(this.averageHashTimeInMillis, that.averageHashTimeInMillis)
+                && Objects.equals(this.maxHashTimeInMillis, that.maxHashTimeInMillis)
+                && Objects.equals(this.averageQueueTimeInMillis, that.averageQueueTimeInMillis);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("iterations", iterations)
+											   .add("threads", threads)
+											   .add("activeThreads", activeThreads)
+											   .add("queueSize", queueSize)
+											   .add("queueCapacity", queueCapacity)
+											   .add("hashes", hashes)
+											   .add("rejected", rejected)
+											   .add("legacyMatches", legacyMatches)
+											   .add("averageHashTimeInMillis", averageHashTimeInMillis)
+											   .add("maxHashTimeInMillis", maxHashTimeInMillis)
+											   .add("averageQueueTimeInMillis", averageQueueTimeInMillis)
+											   .toString();
+	}
+}
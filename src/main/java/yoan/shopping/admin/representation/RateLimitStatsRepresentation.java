@@ -0,0 +1,101 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+
+/**
+ * Rate limit counters Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "rateLimitStats")
+@ApiModel(value = "Rate limit counters")
+public class RateLimitStatsRepresentation {
+	/** Configured route prefix, or default */
+	private String route;
+	/** Number of requests let through */
+	private long allowed;
+	/** Number of requests rejected with a 429 */
+	private long throttled;
+	/** Ratio of rejected requests */
+	private double throttledRate;
+
+	public RateLimitStatsRepresentation() {
+		super();
+	}
+
+	public RateLimitStatsRepresentation(String route, RateLimiter rateLimiter) {
+		super();
+		requireNonNull(rateLimiter);
+		this.route = requireNonNull(route);
+		this.allowed = rateLimiter.getAllowedCount(route);
+		this.throttled = rateLimiter.getThrottledCount(route);
+		long requests = allowed + throttled;
+		this.throttledRate = requests == 0 ? 0 : (double) throttled / requests;
+	}
+
+	public static List<RateLimitStatsRepresentation> extractRateLimitStatsRepresentations(RateLimiter rateLimiter) {
+		List<RateLimitStatsRepresentation> representations = new ArrayList<>();
+		rateLimiter.getRoutes().forEach(route -> representations.add(new RateLimitStatsRepresentation(route, rateLimiter)));
+		return representations;
+	}
+
+	@XmlElement(name = "route")
+	public String getRoute() {
+		return route;
+	}
+
+	@XmlElement(name = "allowed")
+	public long getAllowed() {
+		return allowed;
+	}
+
+	@XmlElement(name = "throttled")
+	public long getThrottled() {
+		return throttled;
+	}
+
+	@XmlElement(name = "throttledRate")
+	public double getThrottledRate() {
+		return throttledRate;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(route, allowed, throttled, throttledRate);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        RateLimitStatsRepresentation that = (RateLimitStatsRepresentation) obj;
+        return Objects.equals(this.route, that.route)
+                && Objects.equals(this.allowed, that.allowed)
+                && Objects.equals(this.throttled, that.throttled)
+                && Objects.equals(this.throttledRate, that.throttledRate);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("route", route)
+											   .add("allowed", allowed)
+											   .add("throttled", throttled)
+											   .add("throttledRate", throttledRate)
+											   .toString();
+	}
+}
@@ -0,0 +1,100 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.util.deadline.RequestDeadlineMetrics;
+
+/**
+ * Request deadline counters Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "requestDeadlineStats")
+@ApiModel(value = "Request deadline counters")
+public class RequestDeadlineStatsRepresentation {
+	/** Configured route prefix, or default */
+	private String route;
+	/** Number of completed requests */
+	private long requests;
+	/** Number of requests which exceeded their deadline */
+	private long exceeded;
+	/** Ratio of requests which exceeded their deadline */
+	private double exceededRate;
+
+	public RequestDeadlineStatsRepresentation() {
+		super();
+	}
+
+	public RequestDeadlineStatsRepresentation(String route, RequestDeadlineMetrics metrics) {
+		super();
+		requireNonNull(metrics);
+		this.route = requireNonNull(route);
+		this.requests = metrics.getRequestCount(route);
+		this.exceeded = metrics.getExceededCount(route);
+		this.exceededRate = requests == 0 ? 0 : (double) exceeded / requests;
+	}
+
+	public static List<RequestDeadlineStatsRepresentation> extractDeadlineStatsRepresentations(RequestDeadlineMetrics metrics) {
+		List<RequestDeadlineStatsRepresentation> representations = new ArrayList<>();
+		metrics.getRoutes().forEach(route -> representations.add(new RequestDeadlineStatsRepresentation(route, metrics)));
+		return representations;
+	}
+
+	@XmlElement(name = "route")
+	public String getRoute() {
+		return route;
+	}
+
+	@XmlElement(name = "requests")
+	public long getRequests() {
+		return requests;
+	}
+
+	@XmlElement(name = "exceeded")
+	public long getExceeded() {
+		return exceeded;
+	}
+
+	@XmlElement(name = "exceededRate")
+	public double getExceededRate() {
+		return exceededRate;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(route, requests, exceeded, exceededRate);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        RequestDeadlineStatsRepresentation that = (RequestDeadlineStatsRepresentation) obj;
+        return Objects.equals(this.route, that.route)
+                && Objects.equals(this.requests, that.requests)
+                && Objects.equals(this.exceeded, that.exceeded)
+                && Objects.equals(this.exceededRate, that.exceededRate);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("route", route)
+											   .add("requests", requests)
+											   .add("exceeded", exceeded)
+											   .add("exceededRate", exceededRate)
+											   .toString();
+	}
+}
@@ -0,0 +1,104 @@
+package yoan.shopping.admin.representation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.ratelimit.RateLimitKey;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+
+/**
+ * Throttled client app, user or source IP Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "throttledKey")
+@ApiModel(value = "Throttled key")
+public class ThrottledKeyRepresentation {
+	/** Number of keys listed */
+	public static final int MAX_THROTTLED_KEYS = 100;
+
+	/** Configured route prefix, or default */
+	private String route;
+	/** CLIENT, USER or IP */
+	private String dimension;
+	/** Client Id, user Id or IP */
+	private String value;
+	/** Number of requests rejected while the key is tracked */
+	private long throttled;
+
+	public ThrottledKeyRepresentation() {
+		super();
+	}
+
+	public ThrottledKeyRepresentation(RateLimitKey key, long throttled) {
+		super();
+		requireNonNull(key);
+		this.route = key.getRoute();
+		this.dimension = key.getDimension().name();
+		this.value = key.getValue();
+		this.throttled = throttled;
+	}
+
+	public static List<ThrottledKeyRepresentation> extractThrottledKeyRepresentations(RateLimiter rateLimiter) {
+		List<ThrottledKeyRepresentation> representations = new ArrayList<>();
+		rateLimiter.getMostThrottledKeys(MAX_THROTTLED_KEYS).forEach((key, throttled) -> representations.add(new ThrottledKeyRepresentation(key, throttled)));
+		return representations;
+	}
+
+	@XmlElement(name = "route")
+	public String getRoute() {
+		return route;
+	}
+
+	@XmlElement(name = "dimension")
+	public String getDimension() {
+		return dimension;
+	}
+
+	@XmlElement(name = "value")
+	public String getValue() {
+		return value;
+	}
+
+	@XmlElement(name = "throttled")
+	public long getThrottled() {
+		return throttled;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(route, dimension, value, throttled);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        ThrottledKeyRepresentation that = (ThrottledKeyRepresentation) obj;
+        return Objects.equals(this.route, that.route)
+                && Objects.equals(this.dimension, that.dimension)
+                && Objects.equals(this.value, that.value)
+                && Objects.equals(this.throttled, that.throttled);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("route", route)
+											   .add("dimension", dimension)
+											   .add("value", value)
+											   .add("throttled", throttled)
+											   .toString();
+	}
+}
@@ -0,0 +1,197 @@
+package yoan.shopping.admin.resource;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.config.guice.SwaggerModule.SECURITY_DEFINITION_OAUTH2;
+
+import java.net.URI;
+import java.util.List;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.annotations.Authorization;
+import yoan.shopping.admin.representation.AccessTokenRevocationRepresentation;
+import yoan.shopping.admin.representation.CacheStatsRepresentation;
+import yoan.shopping.admin.representation.MongoCommandStatsRepresentation;
+import yoan.shopping.admin.representation.MongoCircuitBreakerRepresentation;
+import yoan.shopping.admin.representation.MongoRetryStatsRepresentation;
+import yoan.shopping.admin.representation.MongoSlowQueryRepresentation;
+import yoan.shopping.admin.representation.PasswordHashingRepresentation;
+import yoan.shopping.admin.representation.RateLimitStatsRepresentation;
+import yoan.shopping.admin.representation.RequestDeadlineStatsRepresentation;
+import yoan.shopping.admin.representation.ThrottledKeyRepresentation;
+import yoan.shopping.authentication.jwt.AccessTokenDenyList;
+import yoan.shopping.infra.cache.BoundedCacheManager;
+import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+import yoan.shopping.infra.db.mongo.metrics.MongoCommandMetrics;
+import yoan.shopping.infra.db.mongo.metrics.MongoSlowQueryLog;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryMetrics;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+import yoan.shopping.infra.rest.Link;
+import yoan.shopping.infra.rest.RestAPI;
+import yoan.shopping.infra.security.PasswordHasher;
+import yoan.shopping.infra.util.deadline.RequestDeadlineMetrics;
+
+/**
+ * Runtime metrics API, reserved to the admin users by the Shiro filter chain
+ * @author yoan
+ */
+@Path("/api/admin/metrics")
+@Api(value = "Metrics", authorizations = { @Authorization(value = SECURITY_DEFINITION_OAUTH2, scopes = {})})
+@Produces({ "application/json", "application/xml" })
+@Singleton
+public class MetricsResource extends RestAPI {
+	private final MongoCommandMetrics mongoCommandMetrics;
+	private final MongoSlowQueryLog mongoSlowQueryLog;
+	private final MongoRetryMetrics mongoRetryMetrics;
+	private final MongoCircuitBreaker mongoCircuitBreaker;
+	private final RequestDeadlineMetrics requestDeadlineMetrics;
+	private final AccessTokenDenyList accessTokenDenyList;
+	private final BoundedCacheManager cacheManager;
+	private final PasswordHasher passwordHasher;
+	private final RateLimiter rateLimiter;
+
+	@Inject
+	public MetricsResource(MongoDbConnectionFactory mongoConnectionFactory, RequestDeadlineMetrics requestDeadlineMetrics, AccessTokenDenyList accessTokenDenyList, BoundedCacheManager cacheManager,
+			PasswordHasher passwordHasher, RateLimiter rateLimiter) {
+		super();
+		this.mongoCommandMetrics = requireNonNull(mongoConnectionFactory.getCommandMetrics());
+		this.mongoSlowQueryLog = requireNonNull(mongoConnectionFactory.getSlowQueryLog());
+		this.mongoRetryMetrics = requireNonNull(mongoConnectionFactory.getRetryMetrics());
+		this.mongoCircuitBreaker = requireNonNull(mongoConnectionFactory.getCircuitBreaker());
+		this.requestDeadlineMetrics = requireNonNull(requestDeadlineMetrics);
+		this.accessTokenDenyList = requireNonNull(accessTokenDenyList);
+		this.cacheManager = requireNonNull(cacheManager);
+		this.passwordHasher = requireNonNull(passwordHasher);
+		this.rateLimiter = requireNonNull(rateLimiter);
+	}
+
+	@Override
+	public List<Link> getRootLinks() {
+		List<Link> links = Lists.newArrayList(Link.self(getUriInfo()));
+
+		URI getMongoMetricsURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getMongoMetrics").build();
+		links.add(new Link("getMongoMetrics", getMongoMetricsURI));
+		URI getMongoSlowQueriesURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getMongoSlowQueries").build();
+		links.add(new Link("getMongoSlowQueries", getMongoSlowQueriesURI));
+		URI getMongoRetriesURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getMongoRetries").build();
+		links.add(new Link("getMongoRetries", getMongoRetriesURI));
+		URI getMongoCircuitBreakerURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getMongoCircuitBreaker").build();
+		links.add(new Link("getMongoCircuitBreaker", getMongoCircuitBreakerURI));
+		URI getRequestDeadlinesURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getRequestDeadlines").build();
+		links.add(new Link("getRequestDeadlines", getRequestDeadlinesURI));
+		URI getRateLimitsURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getRateLimits").build();
+		links.add(new Link("getRateLimits", getRateLimitsURI));
+		URI getThrottledKeysURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getThrottledKeys").build();
+		links.add(new Link("getThrottledKeys", getThrottledKeysURI));
+		URI getAccessTokenRevocationsURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getAccessTokenRevocations").build();
+		links.add(new Link("getAccessTokenRevocations", getAccessTokenRevocationsURI));
+		URI getCachesURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getCaches").build();
+		links.add(new Link("getCaches", getCachesURI));
+		URI getPasswordHashingURI = getUriInfo().getBaseUriBuilder().path(MetricsResource.class, "getPasswordHashing").build();
+		links.add(new Link("getPasswordHashing", getPasswordHashingURI));
+
+		return links;
+	}
+
+	@GET
+	@Path("/mongo")
+	@ApiOperation(value = "Get Mongo command metrics", notes = "Latencies are in microseconds. This can only be done by an admin user.", response = MongoCommandStatsRepresentation.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Mongo command metrics per collection, command and caller") })
+	public Response getMongoMetrics() {
+		List<MongoCommandStatsRepresentation> statsRepresentations = MongoCommandStatsRepresentation.extractStatsRepresentations(mongoCommandMetrics.getAllStats());
+		return Response.ok().entity(statsRepresentations).build();
+	}
+
+	@GET
+	@Path("/mongo/slowQueries")
+	@ApiOperation(value = "Get Mongo slow queries", notes = "Most recent first, query values are redacted. This can only be done by an admin user.", response = MongoSlowQueryRepresentation.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Last Mongo queries slower than the configured threshold") })
+	public Response getMongoSlowQueries() {
+		List<MongoSlowQueryRepresentation> slowQueryRepresentations = MongoSlowQueryRepresentation.extractSlowQueryRepresentations(mongoSlowQueryLog.getSlowQueries());
+		return Response.ok().entity(slowQueryRepresentations).build();
+	}
+
+	@GET
+	@Path("/mongo/retries")
+	@ApiOperation(value = "Get Mongo retry counters", notes = "This can only be done by an admin user.", response = MongoRetryStatsRepresentation.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Mongo retry counters per caller") })
+	public Response getMongoRetries() {
+		List<MongoRetryStatsRepresentation> retryRepresentations = MongoRetryStatsRepresentation.extractRetryStatsRepresentations(mongoRetryMetrics);
+		return Response.ok().entity(retryRepresentations).build();
+	}
+
+	@GET
+	@Path("/mongo/circuitBreaker")
+	@ApiOperation(value = "Get Mongo circuit breaker state", notes = "This can only be done by an admin user.", response = MongoCircuitBreakerRepresentation.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Mongo circuit breaker state") })
+	public Response getMongoCircuitBreaker() {
+		MongoCircuitBreakerRepresentation circuitBreakerRepresentation = new MongoCircuitBreakerRepresentation(mongoCircuitBreaker);
+		return Response.ok().entity(circuitBreakerRepresentation).build();
+	}
+
+	@GET
+	@Path("/requests/deadlines")
+	@ApiOperation(value = "Get request deadline counters", notes = "This can only be done by an admin user.", response = RequestDeadlineStatsRepresentation.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Request deadline counters per route") })
+	public Response getRequestDeadlines() {
+		List<RequestDeadlineStatsRepresentation> deadlineRepresentations = RequestDeadlineStatsRepresentation.extractDeadlineStatsRepresentations(requestDeadlineMetrics);
+		return Response.ok().entity(deadlineRepresentations).build();
+	}
+
+	@GET
+	@Path("/requests/rateLimits")
+	@ApiOperation(value = "Get rate limit counters", notes = "This can only be done by an admin user.", response = RateLimitStatsRepresentation.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Allowed and throttled requests per route") })
+	public Response getRateLimits() {
+		List<RateLimitStatsRepresentation> rateLimitRepresentations = RateLimitStatsRepresentation.extractRateLimitStatsRepresentations(rateLimiter);
+		return Response.ok().entity(rateLimitRepresentations).build();
+	}
+
+	@GET
+	@Path("/requests/rateLimits/throttledKeys")
+	@ApiOperation(value = "Get the most throttled client apps, users and IPs", notes = "Only the keys still tracked are listed. This can only be done by an admin user.", response = ThrottledKeyRepresentation.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Throttled requests per route, client app, user and IP, most throttled first") })
+	public Response getThrottledKeys() {
+		List<ThrottledKeyRepresentation> throttledKeyRepresentations = ThrottledKeyRepresentation.extractThrottledKeyRepresentations(rateLimiter);
+		return Response.ok().entity(throttledKeyRepresentations).build();
+	}
+
+	@GET
+	@Path("/authentication/revocations")
+	@ApiOperation(value = "Get revoked access token filter state", notes = "This can only be done by an admin user.", response = AccessTokenRevocationRepresentation.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Revoked access token filter size and false positive rate") })
+	public Response getAccessTokenRevocations() {
+		AccessTokenRevocationRepresentation revocationRepresentation = new AccessTokenRevocationRepresentation(accessTokenDenyList);
+		return Response.ok().entity(revocationRepresentation).build();
+	}
+
+	@GET
+	@Path("/authentication/caches")
+	@ApiOperation(value = "Get authentication cache statistics", notes = "Load times are in milliseconds. This can only be done by an admin user.", response = CacheStatsRepresentation.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Hit rate, evictions and load time per cache") })
+	public Response getCaches() {
+		List<CacheStatsRepresentation> cacheRepresentations = CacheStatsRepresentation.extractCacheStatsRepresentations(cacheManager);
+		return Response.ok().entity(cacheRepresentations).build();
+	}
+
+	@GET
+	@Path("/authentication/passwordHashing")
+	@ApiOperation(value = "Get password hashing pool state", notes = "This can only be done by an admin user.", response = PasswordHashingRepresentation.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Password hash cost, latency and queue usage") })
+	public Response getPasswordHashing() {
+		PasswordHashingRepresentation passwordHashingRepresentation = new PasswordHashingRepresentation(passwordHasher);
+		return Response.ok().entity(passwordHashingRepresentation).build();
+	}
+}
@@ -0,0 +1,222 @@
+package yoan.shopping.authentication.jwt;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.AUTHENTICATION;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import yoan.shopping.authentication.realm.AccessTokenValidationMode;
+import yoan.shopping.authentication.repository.RevokedAccessToken;
+import yoan.shopping.authentication.repository.RevokedAccessTokenRepository;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.util.CountingBloomFilter;
+
+/**
+ * Ids of the JWT access tokens revoked before their expiration, as after a logout
+ * Revocations are saved in database and mirrored on each node by a counting Bloom filter, answering most lookups without lock,
+ * and an exact set checked only on filter hits. The other nodes revocations are read incrementally.
+ * An entry is only kept until the token expires, the signature check rejects it afterwards.
+ * @author yoan
+ */
+@Singleton
+public class AccessTokenDenyList {
+	/** Estimated heap size of an exact set entry : map node, UUID and Instant */
+	public static final int ESTIMATED_ENTRY_SIZE_IN_BYTES = 96;
+	/** About 1% of false positives with 7 hashes */
+	public static final int COUNTERS_BY_ENTRY = 10;
+	public static final int HASH_COUNT = 7;
+	/** Revocations are read again with this overlap, in case of a node clock late or a slow insert */
+	public static final Duration REFRESH_OVERLAP = Duration.ofSeconds(30);
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(AccessTokenDenyList.class);
+	
+	private final RevokedAccessTokenRepository revokedTokenRepository;
+	private final Clock clock;
+	private final int memoryBudgetInBytes;
+	/** Revoked token count the memory budget can hold at the expected false positive rate */
+	private final int capacity;
+	private final CountingBloomFilter filter;
+	private final ConcurrentMap<UUID, Instant> expirationByTokenId = new ConcurrentHashMap<>();
+	/** Revocation date of the last revocation read from database */
+	private LocalDateTime lastRevocationDate;
+	
+	private final LongAdder checkCount = new LongAdder();
+	private final LongAdder filterHitCount = new LongAdder();
+	private final LongAdder falsePositiveCount = new LongAdder();
+	private volatile Instant lastRefresh;
+	
+	@Inject
+	public AccessTokenDenyList(RevokedAccessTokenRepository revokedTokenRepository, Config config) {
+		this(revokedTokenRepository, config.getRevocationMemoryBudgetInBytes(), Clock.systemUTC());
+		if (config.getAccessTokenValidationMode() == AccessTokenValidationMode.JWT) {
+			refresh();
+			ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("access-token-revocation-refresh").build());
+			long period = config.getRevocationRefreshPeriodInSeconds();
+			scheduler.scheduleWithFixedDelay(this::refresh, period, period, TimeUnit.SECONDS);
+		}
+	}
+	
+	protected AccessTokenDenyList(RevokedAccessTokenRepository revokedTokenRepository, int memoryBudgetInBytes, Clock clock) {
+		this.revokedTokenRepository = requireNonNull(revokedTokenRepository);
+		this.clock = requireNonNull(clock);
+		this.memoryBudgetInBytes = memoryBudgetInBytes;
+		this.capacity = Math.max(1, memoryBudgetInBytes / (ESTIMATED_ENTRY_SIZE_IN_BYTES + COUNTERS_BY_ENTRY));
+		this.filter = new CountingBloomFilter(capacity * COUNTERS_BY_ENTRY, HASH_COUNT);
+	}
+	
+	/**
+	 * Reject a token until its expiration, on every node
+	 * @param tokenId
+	 * @param expiration
+	 */
+	public void revoke(UUID tokenId, Instant expiration) {
+		if (!expiration.isAfter(clock.instant())) {
+			return;
+		}
+		RevokedAccessToken revokedToken = RevokedAccessToken.Builder.createDefault()
+			.withId(tokenId)
+			.withExpirationDate(toLocalDateTime(expiration))
+			.withRevocationDate(toLocalDateTime(clock.instant()))
+			.build();
+		revokedTokenRepository.revoke(revokedToken);
+		addLocally(tokenId, expiration);
+	}
+	
+	/**
+	 * Check if a token was revoked
+	 * Lock free and without allocation for the tokens not in the filter
+	 * @param tokenId
+	 * @return true if the token should be rejected
+	 */
+	public boolean isRevoked(UUID tokenId) {
+		checkCount.increment();
+		if (!filter.mightContain(tokenId)) {
+			return false;
+		}
+		filterHitCount.increment();
+		if (expirationByTokenId.containsKey(tokenId)) {
+			return true;
+		}
+		falsePositiveCount.increment();
+		return false;
+	}
+	
+	/**
+	 * Read the revocations saved since the previous refresh, then forget the expired ones
+	 */
+	public void refresh() {
+		try {
+			LocalDateTime since = getLastRevocationDate() == null ? null : getLastRevocationDate().minus(REFRESH_OVERLAP);
+			for (RevokedAccessToken revokedToken : revokedTokenRepository.findRevokedSince(since)) {
+				addLocally(revokedToken.getId(), toInstant(revokedToken.getExpirationDate()));
+				updateLastRevocationDate(revokedToken.getRevocationDate());
+			}
+			purgeExpired();
+			lastRefresh = clock.instant();
+		} catch (RuntimeException e) {
+			//never let an exception kill the scheduled refresh
+			LOGGER.warn(AUTHENTICATION.getMarker(), "Unable to refresh the revoked access tokens", e);
+		}
+	}
+	
+	private synchronized LocalDateTime getLastRevocationDate() {
+		return lastRevocationDate;
+	}
+	
+	private synchronized void updateLastRevocationDate(LocalDateTime revocationDate) {
+		if (lastRevocationDate == null || revocationDate.isAfter(lastRevocationDate)) {
+			lastRevocationDate = revocationDate;
+		}
+	}
+	
+	private synchronized void addLocally(UUID tokenId, Instant expiration) {
+		if (!expiration.isAfter(clock.instant()) || expirationByTokenId.containsKey(tokenId)) {
+			return;
+		}
+		//filter first, a lookup finding the exact entry must also pass the filter
+		filter.add(tokenId);
+		expirationByTokenId.put(tokenId, expiration);
+		if (expirationByTokenId.size() == capacity + 1) {
+			LOGGER.warn(AUTHENTICATION.getMarker(), "More than {} revoked access tokens, over the memory budget of {} bytes : more false positives expected", capacity, memoryBudgetInBytes);
+		}
+	}
+	
+	private synchronized void purgeExpired() {
+		Instant now = clock.instant();
+		expirationByTokenId.entrySet().removeIf(entry -> {
+			if (entry.getValue().isAfter(now)) {
+				return false;
+			}
+			filter.remove(entry.getKey());
+			return true;
+		});
+	}
+	
+	private static LocalDateTime toLocalDateTime(Instant instant) {
+		return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+	}
+	
+	private static Instant toInstant(LocalDateTime dateTime) {
+		return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+	}
+	
+	public int size() {
+		return expirationByTokenId.size();
+	}
+	
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	public int getMemoryBudgetInBytes() {
+		return memoryBudgetInBytes;
+	}
+	
+	public int getFilterSizeInBytes() {
+		return filter.getSizeInBytes();
+	}
+	
+	public long getCheckCount() {
+		return checkCount.sum();
+	}
+	
+	public long getFilterHitCount() {
+		return filterHitCount.sum();
+	}
+	
+	public long getFalsePositiveCount() {
+		return falsePositiveCount.sum();
+	}
+	
+	/**
+	 * @return share of the lookups on a token not revoked that needed the exact set
+	 */
+	public double getFalsePositiveRate() {
+		long negativeChecks = getCheckCount() - (getFilterHitCount() - getFalsePositiveCount());
+		return negativeChecks <= 0 ? 0 : (double) getFalsePositiveCount() / negativeChecks;
+	}
+	
+	public Instant getLastRefresh() {
+		return lastRefresh;
+	}
+}
@@ -0,0 +1,46 @@
+package yoan.shopping.authentication.jwt;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Verified content of a JWT access token
+ * @author yoan
+ */
+public class JwtAccessToken {
+	/** Unique token id (jti claim), used to revoke the token */
+	private final UUID tokenId;
+	/** User built from the token claims, or client app for an app scoped token */
+	private final Object principal;
+	private final Instant expiration;
+	
+	public JwtAccessToken(UUID tokenId, Object principal, Instant expiration) {
+		this.tokenId = requireNonNull(tokenId);
+		this.principal = requireNonNull(principal);
+		this.expiration = requireNonNull(expiration);
+	}
+	
+	public UUID getTokenId() {
+		return tokenId;
+	}
+	
+	public Object getPrincipal() {
+		return principal;
+	}
+	
+	public Instant getExpiration() {
+		return expiration;
+	}
+	
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("tokenId", tokenId)
+											   .add("principal", principal)
+											   .add("expiration", expiration)
+											   .toString();
+	}
+}
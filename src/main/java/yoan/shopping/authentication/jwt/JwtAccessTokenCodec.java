@@ -0,0 +1,155 @@
+package yoan.shopping.authentication.jwt;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepository.ACCESS_TOKEN_TTL_IN_MINUTES;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.ClientAppPrincipal;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.user.User;
+
+/**
+ * Sign and verify the JWT access tokens
+ * The claims carry everything needed to build the connected user, so that verification needs no database access
+ * @author yoan
+ */
+@Singleton
+public class JwtAccessTokenCodec {
+	public static final String NAME_CLAIM = "name";
+	public static final String EMAIL_CLAIM = "email";
+	public static final String SCOPE_CLAIM = "scope";
+	public static final SignatureAlgorithm SIGNATURE_ALGORITHM = SignatureAlgorithm.HS256;
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(JwtAccessTokenCodec.class);
+	
+	private final JwtKeySet keySet;
+	private final Clock clock;
+	private final SigningKeyResolverAdapter keyResolver = new KeySetResolver();
+	
+	@Inject
+	public JwtAccessTokenCodec(Config config) {
+		this(JwtKeySet.fromConfig(config), Clock.systemUTC());
+	}
+	
+	protected JwtAccessTokenCodec(JwtKeySet keySet, Clock clock) {
+		this.keySet = requireNonNull(keySet);
+		this.clock = requireNonNull(clock);
+	}
+	
+	/**
+	 * Generate a signed access token for a given user
+	 * @param user
+	 * @return JWT as String
+	 */
+	public String encode(User user) {
+		return newToken(user.getId())
+			.claim(NAME_CLAIM, user.getName())
+			.claim(EMAIL_CLAIM, user.getEmail())
+			.compact();
+	}
+	
+	/**
+	 * Generate a signed access token for a client app, with the app scope only
+	 * @param clientApp
+	 * @return JWT as String
+	 */
+	public String encode(ClientApp clientApp) {
+		return newToken(clientApp.getId())
+			.claim(SCOPE_CLAIM, ClientAppPrincipal.APP_SCOPE)
+			.compact();
+	}
+	
+	private JwtBuilder newToken(UUID subjectId) {
+		Instant now = clock.instant();
+		Instant expiration = now.plus(ACCESS_TOKEN_TTL_IN_MINUTES, ChronoUnit.MINUTES);
+		return Jwts.builder()
+			.setHeaderParam(JwsHeader.KEY_ID, keySet.getActiveKeyId())
+			.setId(UUID.randomUUID().toString())
+			.setSubject(subjectId.toString())
+			.setIssuedAt(Date.from(now))
+			.setExpiration(Date.from(expiration))
+			.signWith(SIGNATURE_ALGORITHM, keySet.getActiveKey());
+	}
+	
+	/**
+	 * Verify an access token signature and expiration
+	 * @param accessToken
+	 * @return token content or null if the token is not valid
+	 */
+	public JwtAccessToken decode(String accessToken) {
+		if (StringUtils.isBlank(accessToken)) {
+			return null;
+		}
+		try {
+			Claims claims = Jwts.parser()
+				.setSigningKeyResolver(keyResolver)
+				.parseClaimsJws(accessToken)
+				.getBody();
+			return toAccessToken(claims);
+		} catch (JwtException | IllegalArgumentException e) {
+			LOGGER.debug("Invalid JWT access token : {}", e.getMessage());
+			return null;
+		}
+	}
+	
+	private JwtAccessToken toAccessToken(Claims claims) {
+		Date expiration = claims.getExpiration();
+		if (expiration == null || claims.getId() == null || claims.getSubject() == null) {
+			throw new IllegalArgumentException("Access token without expiration, id or subject");
+		}
+		//jjwt already rejects expired tokens, the check is done again with our clock
+		if (!clock.instant().isBefore(expiration.toInstant())) {
+			throw new IllegalArgumentException("Expired access token");
+		}
+		UUID subjectId = UUID.fromString(claims.getSubject());
+		//an app scoped token never gives the principal of a user
+		Object principal = ClientAppPrincipal.APP_SCOPE.equals(claims.get(SCOPE_CLAIM, String.class))
+			? new ClientAppPrincipal(subjectId)
+			: User.Builder.createDefault()
+				.withId(subjectId)
+				.withName(claims.get(NAME_CLAIM, String.class))
+				.withEmail(claims.get(EMAIL_CLAIM, String.class))
+				.build();
+		return new JwtAccessToken(UUID.fromString(claims.getId()), principal, expiration.toInstant());
+	}
+	
+	/**
+	 * Pick the verification key from the token header key id
+	 */
+	private class KeySetResolver extends SigningKeyResolverAdapter {
+		@Override
+		@SuppressWarnings("rawtypes")
+		public byte[] resolveSigningKeyBytes(JwsHeader header, Claims claims) {
+			//only our own algorithm is accepted, whatever the header claims
+			if (!SIGNATURE_ALGORITHM.getValue().equals(header.getAlgorithm())) {
+				throw new SignatureException("Unexpected JWT algorithm : " + header.getAlgorithm());
+			}
+			byte[] key = keySet.getKey(header.getKeyId());
+			if (key == null) {
+				throw new SignatureException("Unknown JWT key id : " + header.getKeyId());
+			}
+			return key;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package yoan.shopping.authentication.jwt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableMap;
+
+import yoan.shopping.authentication.realm.AccessTokenValidationMode;
+import yoan.shopping.infra.config.api.Config;
+
+/**
+ * HMAC keys used to sign and verify the JWT access tokens, by key id
+ * A single key signs new tokens while the others are kept to verify tokens issued before a rotation
+ * @author yoan
+ */
+public class JwtKeySet {
+	/** Id of the random key used when none is configured */
+	public static final String EPHEMERAL_KEY_ID = "ephemeral";
+	/** HS256 needs at least 256 bits */
+	public static final int MIN_KEY_SIZE_IN_BYTES = 32;
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(JwtKeySet.class);
+	
+	private final ImmutableMap<String, byte[]> keysById;
+	private final String activeKeyId;
+	
+	protected JwtKeySet(Map<String, byte[]> keysById, String activeKeyId) {
+		this.keysById = ImmutableMap.copyOf(requireNonNull(keysById));
+		checkArgument(keysById.containsKey(activeKeyId), "Active key id should match a key : %s", activeKeyId);
+		checkArgument(keysById.values().stream().allMatch(key -> key.length >= MIN_KEY_SIZE_IN_BYTES), "JWT keys should have at least %s bytes", MIN_KEY_SIZE_IN_BYTES);
+		this.activeKeyId = activeKeyId;
+	}
+	
+	/**
+	 * Read the key set from the configuration
+	 * Without configured key, a random key is generated : tokens then only stay valid on this node until restart
+	 * @param config
+	 * @return key set
+	 */
+	public static JwtKeySet fromConfig(Config config) {
+		if (config.getJwtActiveKeyId() == null) {
+			if (config.getAccessTokenValidationMode() == AccessTokenValidationMode.JWT) {
+				LOGGER.warn("No JWT signing key configured, using a random key");
+			}
+			return ephemeral();
+		}
+		ImmutableMap.Builder<String, byte[]> keysById = ImmutableMap.builder();
+		Base64.Decoder decoder = Base64.getDecoder();
+		config.getJwtSigningKeysById().forEach((keyId, key) -> keysById.put(keyId, decoder.decode(key)));
+		return new JwtKeySet(keysById.build(), config.getJwtActiveKeyId());
+	}
+	
+	/**
+	 * Generate a key set with a single random key
+	 * @return key set
+	 */
+	public static JwtKeySet ephemeral() {
+		byte[] key = new byte[MIN_KEY_SIZE_IN_BYTES];
+		new SecureRandom().nextBytes(key);
+		return new JwtKeySet(ImmutableMap.of(EPHEMERAL_KEY_ID, key), EPHEMERAL_KEY_ID);
+	}
+	
+	public String getActiveKeyId() {
+		return activeKeyId;
+	}
+	
+	public byte[] getActiveKey() {
+		return keysById.get(activeKeyId);
+	}
+	
+	/**
+	 * Get a verification key
+	 * @param keyId
+	 * @return key or null if unknown
+	 */
+	public byte[] getKey(String keyId) {
+		return keyId == null ? null : keysById.get(keyId);
+	}
+}
@@ -0,0 +1,138 @@
+package yoan.shopping.authentication.realm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.shiro.cache.Cache;
+import org.apache.shiro.cache.CacheManager;
+
+import yoan.shopping.user.User;
+
+/**
+ * Cache of the principals authenticated by an access token, bounded by the cache manager
+ * A principal entry expires with its access token, an unknown token is remembered for a short time
+ * A principal entry never outlives the maximum lifetime : a token revoked on another node is only removed from this node cache
+ * by its expiry, the token store is read again afterwards
+ * @author yoan
+ */
+public class AccessTokenPrincipalCache {
+	public static final String PRINCIPAL_CACHE = "accessTokenPrincipals";
+	public static final String INVALID_TOKEN_CACHE = "invalidAccessTokens";
+	public static final long INVALID_TOKEN_TTL_IN_SECONDS = 30;
+
+	private final LongSupplier nanoClock;
+	/** Longest time a principal is served without reading the token store again */
+	private final Duration maxLifetime;
+	private final Cache<String, CachedPrincipal> principalsByToken;
+	/** Expiration of the invalid tokens, in nanos */
+	private final Cache<String, Long> invalidTokens;
+
+	public AccessTokenPrincipalCache(CacheManager cacheManager, Duration maxLifetime) {
+		this(cacheManager, maxLifetime, System::nanoTime);
+	}
+
+	protected AccessTokenPrincipalCache(CacheManager cacheManager, Duration maxLifetime, LongSupplier nanoClock) {
+		this.nanoClock = requireNonNull(nanoClock);
+		this.maxLifetime = requireNonNull(maxLifetime);
+		checkArgument(!maxLifetime.isNegative(), "Invalid principal cache max lifetime");
+		//the cache manager bounds the entries, the per entry expiry shortens them to the token remaining lifetime
+		principalsByToken = requireNonNull(cacheManager.getCache(PRINCIPAL_CACHE));
+		invalidTokens = requireNonNull(cacheManager.getCache(INVALID_TOKEN_CACHE));
+	}
+
+	/**
+	 * @param accessToken
+	 * @return principal authenticated by the token, null if unknown or expired
+	 */
+	public User getPrincipal(String accessToken) {
+		CachedPrincipal cachedPrincipal = principalsByToken.get(accessToken);
+		if (cachedPrincipal == null) {
+			return null;
+		}
+		if (nanoClock.getAsLong() - cachedPrincipal.expiresAtInNanos >= 0) {
+			principalsByToken.remove(accessToken);
+			return null;
+		}
+		return cachedPrincipal.principal;
+	}
+
+	/**
+	 * @param accessToken
+	 * @return true if the token was recently found invalid
+	 */
+	public boolean isKnownInvalid(String accessToken) {
+		Long expiresAtInNanos = invalidTokens.get(accessToken);
+		if (expiresAtInNanos == null) {
+			return false;
+		}
+		if (nanoClock.getAsLong() - expiresAtInNanos >= 0) {
+			invalidTokens.remove(accessToken);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Remember the principal of a valid token until the token expires, or at most for the max lifetime
+	 * @param accessToken
+	 * @param principal
+	 * @param remainingLifetime : time before the token expires
+	 */
+	public void putPrincipal(String accessToken, User principal, Duration remainingLifetime) {
+		Duration lifetime = remainingLifetime.compareTo(maxLifetime) > 0 ? maxLifetime : remainingLifetime;
+		if (lifetime.isNegative() || lifetime.isZero()) {
+			return;
+		}
+		long expiresAtInNanos = nanoClock.getAsLong() + lifetime.toNanos();
+		principalsByToken.put(accessToken, new CachedPrincipal(requireNonNull(principal), expiresAtInNanos));
+	}
+
+	/**
+	 * Remember a token found invalid, to spare the database while it is sprayed
+	 * @param accessToken
+	 */
+	public void putInvalid(String accessToken) {
+		invalidTokens.put(accessToken, nanoClock.getAsLong() + TimeUnit.SECONDS.toNanos(INVALID_TOKEN_TTL_IN_SECONDS));
+	}
+
+	/**
+	 * Forget everything about a token
+	 * @param accessToken
+	 */
+	public void invalidate(String accessToken) {
+		principalsByToken.remove(accessToken);
+		invalidTokens.remove(accessToken);
+	}
+
+	/**
+	 * Forget the principals of a user, authenticated by any of its tokens
+	 * @param userId
+	 */
+	public void invalidateUser(UUID userId) {
+		for (String accessToken : principalsByToken.keys()) {
+			CachedPrincipal cachedPrincipal = principalsByToken.get(accessToken);
+			if (cachedPrincipal != null && userId.equals(cachedPrincipal.principal.getId())) {
+				principalsByToken.remove(accessToken);
+			}
+		}
+	}
+
+	public long getPrincipalCount() {
+		return principalsByToken.size();
+	}
+
+	private static class CachedPrincipal {
+		private final User principal;
+		private final long expiresAtInNanos;
+
+		private CachedPrincipal(User principal, long expiresAtInNanos) {
+			this.principal = principal;
+			this.expiresAtInNanos = expiresAtInNanos;
+		}
+	}
+}
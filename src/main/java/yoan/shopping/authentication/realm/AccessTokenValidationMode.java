@@ -0,0 +1,12 @@
+package yoan.shopping.authentication.realm;
+
+/**
+ * How the OAuth2 access tokens are validated on each request
+ * @author yoan
+ */
+public enum AccessTokenValidationMode {
+	/** Token looked up in the access token collection */
+	MONGO,
+	/** Signed JWT verified locally, without database access */
+	JWT;
+}
@@ -0,0 +1,58 @@
+package yoan.shopping.authentication.realm;
+
+import static java.util.Objects.requireNonNull;
+
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.credential.SimpleCredentialsMatcher;
+import org.apache.shiro.cache.CacheManager;
+import org.apache.shiro.realm.AuthenticatingRealm;
+
+import com.google.inject.Inject;
+
+import yoan.shopping.authentication.jwt.AccessTokenDenyList;
+import yoan.shopping.authentication.jwt.JwtAccessToken;
+import yoan.shopping.authentication.jwt.JwtAccessTokenCodec;
+import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
+
+/**
+ * Stateless authentication realm using signed JWT access tokens
+ * Signature, expiration and revocation are checked locally, the connected user is built from the token claims
+ * @author yoan
+ */
+public class JwtAccessTokenRealm extends AuthenticatingRealm {
+	
+	private final JwtAccessTokenCodec accessTokenCodec;
+	private final AccessTokenDenyList denyList;
+	
+	@Inject
+	public JwtAccessTokenRealm(CacheManager cacheManager, JwtAccessTokenCodec accessTokenCodec, AccessTokenDenyList denyList, OAuth2AccessTokenRepository accessTokenRepository) {
+		super(requireNonNull(cacheManager), new SimpleCredentialsMatcher());
+		setAuthenticationTokenClass(Oauth2ShiroAccessToken.class);
+		this.accessTokenCodec = requireNonNull(accessTokenCodec);
+		this.denyList = requireNonNull(denyList);
+		//a token deleted before its expiration is a logout, it should not authenticate anymore
+		accessTokenRepository.addDeletionListener(this::revoke);
+	}
+	
+	@Override
+	protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken token) throws AuthenticationException {
+		Oauth2ShiroAccessToken accessToken = (Oauth2ShiroAccessToken) token;
+		String tokenValue = accessToken.getAccessToken();
+		
+		JwtAccessToken verifiedToken = accessTokenCodec.decode(tokenValue);
+		if (verifiedToken == null || denyList.isRevoked(verifiedToken.getTokenId())) {
+			return null;
+		}
+		return new SimpleAuthenticationInfo(verifiedToken.getPrincipal(), tokenValue, getName());
+	}
+	
+	private void revoke(String tokenValue) {
+		JwtAccessToken verifiedToken = accessTokenCodec.decode(tokenValue);
+		if (verifiedToken != null) {
+			denyList.revoke(verifiedToken.getTokenId(), verifiedToken.getExpiration());
+		}
+	}
+}
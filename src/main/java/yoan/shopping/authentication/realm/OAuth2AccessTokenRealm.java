@@ -1,8 +1,10 @@
 package yoan.shopping.authentication.realm;
 
 import static java.util.Objects.requireNonNull;
+import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepository.ACCESS_TOKEN_TTL_IN_MINUTES;
 
-import java.util.UUID;
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
@@ -14,44 +16,84 @@ import org.apache.shiro.realm.AuthenticatingRealm;
 
 import com.google.inject.Inject;
 
+import yoan.shopping.authentication.repository.OAuth2AccessToken;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
+import yoan.shopping.client.app.ClientAppPrincipal;
+import yoan.shopping.infra.config.api.Config;
 import yoan.shopping.user.SecuredUser;
 import yoan.shopping.user.User;
 import yoan.shopping.user.repository.SecuredUserRepository;
+import yoan.shopping.user.repository.UserRepository;
 
 /**
  * Authentication realm using the OAuth2 access token 
+ * Valid and invalid tokens are cached to avoid the database round trips on each request,
+ * a valid token for no longer than the revocation refresh period
  * @author yoan
  */
 public class OAuth2AccessTokenRealm extends AuthenticatingRealm {
 	
 	private final OAuth2AccessTokenRepository accessTokenRepository;
 	private final SecuredUserRepository userRepository;
+	private final AccessTokenPrincipalCache principalCache;
 	
 	@Inject
-	public OAuth2AccessTokenRealm(CacheManager cacheManager, OAuth2AccessTokenRepository accessTokenRepository, SecuredUserRepository userRepository) {
+	public OAuth2AccessTokenRealm(CacheManager cacheManager, OAuth2AccessTokenRepository accessTokenRepository, SecuredUserRepository userRepository, UserRepository basicUserRepository,
+			Config config) {
+		//a token revoked on another node is seen here once its cached principal expires, as fast as the JWT deny list refresh
+		this(cacheManager, accessTokenRepository, userRepository, basicUserRepository,
+			new AccessTokenPrincipalCache(cacheManager, Duration.ofSeconds(config.getRevocationRefreshPeriodInSeconds())));
+	}
+	
+	protected OAuth2AccessTokenRealm(CacheManager cacheManager, OAuth2AccessTokenRepository accessTokenRepository, SecuredUserRepository userRepository, UserRepository basicUserRepository,
+			AccessTokenPrincipalCache principalCache) {
 		super(requireNonNull(cacheManager), new SimpleCredentialsMatcher());
 		setAuthenticationTokenClass(Oauth2ShiroAccessToken.class);
 		this.accessTokenRepository = requireNonNull(accessTokenRepository);
 		this.userRepository = requireNonNull(userRepository);
+		this.principalCache = requireNonNull(principalCache);
+		//a revoked token should not authenticate anymore, even from the cache
+		accessTokenRepository.addDeletionListener(principalCache::invalidate);
+		//a changed or deleted user should not be served from the cache either, whichever repository changed it
+		userRepository.addChangeListener(principalCache::invalidateUser);
+		requireNonNull(basicUserRepository).addChangeListener(principalCache::invalidateUser);
 	}
 	
 	@Override
 	protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken token) throws AuthenticationException {
 		Oauth2ShiroAccessToken accessToken = (Oauth2ShiroAccessToken) token;
-		UUID userId = extractUserIdFromAccessToken(accessToken);
+		String tokenValue = accessToken.getAccessToken();
+		
+		User cachedUser = principalCache.getPrincipal(tokenValue);
+		if (cachedUser != null) {
+			return new SimpleAuthenticationInfo(cachedUser, tokenValue, getName());
+		}
+		if (principalCache.isKnownInvalid(tokenValue)) {
+			return null;
+		}
 		
-		SecuredUser foundUser = userRepository.getById(userId);
+		OAuth2AccessToken foundAccessToken = accessTokenRepository.getByAccessToken(tokenValue);
+		if (foundAccessToken != null && foundAccessToken.getClientId() != null) {
+			//a client credentials token acts for no user, it is not cached : the app scope only reaches the app own registration
+			return new SimpleAuthenticationInfo(new ClientAppPrincipal(foundAccessToken.getClientId()), tokenValue, getName());
+		}
+		SecuredUser foundUser = foundAccessToken == null ? null : userRepository.getById(foundAccessToken.getuserId());
 		if (foundUser == null) {
+			principalCache.putInvalid(tokenValue);
 			return null;
 		}
 		
 		User user = User.Builder.createFrom(foundUser).build();
-		return new SimpleAuthenticationInfo(user, accessToken.getAccessToken(), getName());
+		principalCache.putPrincipal(tokenValue, user, getRemainingLifetime(foundAccessToken));
+		return new SimpleAuthenticationInfo(user, tokenValue, getName());
 	}
-
-	private UUID extractUserIdFromAccessToken(Oauth2ShiroAccessToken accessToken) {
-		String token = accessToken.getAccessToken();
-		return accessTokenRepository.getUserIdByAccessToken(token);
+	
+	private static Duration getRemainingLifetime(OAuth2AccessToken accessToken) {
+		LocalDateTime expirationDate = accessToken.getCreationDate().plusMinutes(ACCESS_TOKEN_TTL_IN_MINUTES);
+		return Duration.between(LocalDateTime.now(), expirationDate);
+	}
+	
+	public AccessTokenPrincipalCache getPrincipalCache() {
+		return principalCache;
 	}
 }
\ No newline at end of file
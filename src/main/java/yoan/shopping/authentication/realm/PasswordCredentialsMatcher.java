@@ -0,0 +1,43 @@
+package yoan.shopping.authentication.realm;
+
+import static java.util.Objects.requireNonNull;
+
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SaltedAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authc.credential.CredentialsMatcher;
+import org.apache.shiro.codec.CodecSupport;
+import org.apache.shiro.util.ByteSource;
+
+import com.google.inject.Inject;
+
+import yoan.shopping.infra.security.PasswordHasher;
+
+/**
+ * Check the login password against the stored hash through the password hasher
+ * @author yoan
+ */
+public class PasswordCredentialsMatcher implements CredentialsMatcher {
+	
+	private final PasswordHasher passwordHasher;
+	
+	@Inject
+	public PasswordCredentialsMatcher(PasswordHasher passwordHasher) {
+		this.passwordHasher = requireNonNull(passwordHasher);
+	}
+	
+	@Override
+	public boolean doCredentialsMatch(AuthenticationToken token, AuthenticationInfo info) {
+		if (!(token instanceof UsernamePasswordToken) || !(info instanceof SaltedAuthenticationInfo)) {
+			return false;
+		}
+		char[] password = ((UsernamePasswordToken) token).getPassword();
+		ByteSource salt = ((SaltedAuthenticationInfo) info).getCredentialsSalt();
+		Object storedHash = info.getCredentials();
+		if (password == null || salt == null || !(storedHash instanceof String)) {
+			return false;
+		}
+		return passwordHasher.matches(new String(password), CodecSupport.toString(salt.getBytes()), (String) storedHash);
+	}
+}
@@ -4,39 +4,52 @@
 package yoan.shopping.authentication.realm;
 
 import static java.util.Objects.requireNonNull;
-import static yoan.shopping.infra.config.guice.ShiroSecurityModule.SHA256;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SaltedAuthenticationInfo;
 import org.apache.shiro.authc.SimpleAuthenticationInfo;
 import org.apache.shiro.authc.UsernamePasswordToken;
-import org.apache.shiro.authc.credential.HashedCredentialsMatcher;
+import org.apache.shiro.cache.Cache;
 import org.apache.shiro.cache.CacheManager;
-import org.apache.shiro.crypto.hash.Sha256Hash;
+import org.apache.shiro.codec.CodecSupport;
 import org.apache.shiro.realm.AuthenticatingRealm;
+import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.util.SimpleByteSource;
 
 import yoan.shopping.user.SecuredUser;
 import yoan.shopping.user.User;
 import yoan.shopping.user.repository.SecuredUserRepository;
+import yoan.shopping.user.repository.UserRepository;
 
 import com.google.inject.Inject;
-import com.google.inject.name.Named;
 
 /**
  * Authentication realm using the application credentials
+ * The stored credentials are cached by email, the password is still checked against them on each login
+ * A password stored with a legacy or outdated hash is hashed again after a successful login
  * @author yoan
  */
 public class UserRealm extends AuthenticatingRealm {
+	public static final String AUTHENTICATION_CACHE = "userAuthentication";
 	
 	private final SecuredUserRepository userRepository;
 	
 	@Inject
-	public UserRealm(CacheManager cacheManager, @Named(SHA256) HashedCredentialsMatcher credentialsMatcher, SecuredUserRepository userRepository) {
+	public UserRealm(CacheManager cacheManager, PasswordCredentialsMatcher credentialsMatcher, SecuredUserRepository userRepository, UserRepository basicUserRepository) {
 		super(requireNonNull(cacheManager), requireNonNull(credentialsMatcher));
 		setAuthenticationTokenClass(UsernamePasswordToken.class);
+		setAuthenticationCacheName(AUTHENTICATION_CACHE);
+		setAuthenticationCachingEnabled(true);
 		this.userRepository = requireNonNull(userRepository);
+		//a changed password, email or a deleted user should not authenticate anymore from the cache
+		userRepository.addChangeListener(this::evictCachedAuthentication);
+		requireNonNull(basicUserRepository).addChangeListener(this::evictCachedAuthentication);
 	}
 	
 	@Override
@@ -47,19 +60,53 @@ public class UserRealm extends AuthenticatingRealm {
 		if (foundUser == null) {
 			return null;
 		}
-		Sha256Hash hashedPassword = extractHashedPasswordFromUser(foundUser);
+		String hashedPassword = foundUser.getPassword();
 		SimpleByteSource salt = extractSaltFromUser(foundUser);
 		SimpleAuthenticationInfo saltedCredentials = generateSaltedCredentials(foundUser, hashedPassword, salt);
 		return saltedCredentials;
 	}
 	
-	private String extractUserEmailFromToken(UsernamePasswordToken userToken) {
-		return userToken.getUsername();
+	/**
+	 * Once the password is checked, upgrade its hash if it was computed with a legacy algorithm or cost
+	 */
+	@Override
+	protected void assertCredentialsMatch(AuthenticationToken token, AuthenticationInfo info) throws AuthenticationException {
+		super.assertCredentialsMatch(token, info);
+		User user = info.getPrincipals().oneByType(User.class);
+		char[] password = ((UsernamePasswordToken) token).getPassword();
+		if (user != null && password != null) {
+			SecuredUser authenticatedUser = SecuredUser.Builder.createFrom(user)
+				.withPassword((String) info.getCredentials())
+				.withSalt(CodecSupport.toString(((SaltedAuthenticationInfo) info).getCredentialsSalt().getBytes()))
+				.build();
+			userRepository.upgradePasswordHash(authenticatedUser, new String(password));
+		}
 	}
 	
-	private Sha256Hash extractHashedPasswordFromUser(SecuredUser user) {
-		String base64EncodedHashedpassword = user.getPassword();
-		return Sha256Hash.fromBase64String(base64EncodedHashedpassword);
+	/**
+	 * Cached credentials are found by the token email, they should be cleared by the same key
+	 */
+	@Override
+	protected Object getAuthenticationCacheKey(PrincipalCollection principals) {
+		User user = principals == null ? null : principals.oneByType(User.class);
+		return user == null ? super.getAuthenticationCacheKey(principals) : user.getEmail();
+	}
+	
+	private void evictCachedAuthentication(UUID userId) {
+		Cache<Object, AuthenticationInfo> cache = getAuthenticationCache();
+		if (cache == null) {
+			return;
+		}
+		List<String> userEmails = cache.values().stream()
+			.map(info -> info.getPrincipals().oneByType(User.class))
+			.filter(user -> user != null && userId.equals(user.getId()))
+			.map(User::getEmail)
+			.collect(Collectors.toList());
+		userEmails.forEach(cache::remove);
+	}
+	
+	private String extractUserEmailFromToken(UsernamePasswordToken userToken) {
+		return userToken.getUsername();
 	}
 	
 	private SimpleByteSource extractSaltFromUser(SecuredUser user) {
@@ -67,7 +114,7 @@ public class UserRealm extends AuthenticatingRealm {
 		return new SimpleByteSource(stringifiedSalt);
 	}
 	
-	private SimpleAuthenticationInfo generateSaltedCredentials(SecuredUser foundUser, Sha256Hash hashedPassword, SimpleByteSource salt) {
+	private SimpleAuthenticationInfo generateSaltedCredentials(SecuredUser foundUser, String hashedPassword, SimpleByteSource salt) {
 		User user = User.Builder.createFrom(foundUser).build();
 		
 		SimpleAuthenticationInfo saltedCredentials = new SimpleAuthenticationInfo(user, hashedPassword, getName());
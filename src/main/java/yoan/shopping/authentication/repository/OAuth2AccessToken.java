@@ -39,8 +39,14 @@ public class OAuth2AccessToken implements Bson, WithId {
 	private final UUID userId;
 	/** Number of refresh on this token */
 	private final int nbRefresh;
+	/** Client app of a client credentials token, acting for no user : null for a user token */
+	private final UUID clientId;
 	
 	protected OAuth2AccessToken(UUID id, String token, LocalDateTime creationDate, UUID userId, int nbRefresh) {
+		this(id, token, creationDate, userId, nbRefresh, null);
+	}
+	
+	protected OAuth2AccessToken(UUID id, String token, LocalDateTime creationDate, UUID userId, int nbRefresh, UUID clientId) {
 		this.id = requireNonNull(id, "Access token Id is mandatory");
 		checkArgument(StringUtils.isNotBlank(token), "Invalid token");
 		this.token = token;
@@ -48,6 +54,7 @@ public class OAuth2AccessToken implements Bson, WithId {
 		this.userId = requireNonNull(userId, "User ID is mandatory");
 		checkArgument(nbRefresh >= 0, "Invalid number of refresh");
 		this.nbRefresh = nbRefresh;
+		this.clientId = clientId;
 	}
 
 	public static class Builder implements GenericBuilder<OAuth2AccessToken> {
@@ -56,6 +63,7 @@ public class OAuth2AccessToken implements Bson, WithId {
 		private LocalDateTime creationDate = LocalDateTime.now();
 		private UUID userId = User.DEFAULT_ID;
 		private int nbRefresh = 0;
+		private UUID clientId = null;
 		
 		private Builder() { }
 		
@@ -82,6 +90,7 @@ public class OAuth2AccessToken implements Bson, WithId {
             builder.creationDate = otherBuilder.creationDate;
             builder.userId = otherBuilder.userId;
             builder.nbRefresh = otherBuilder.nbRefresh;
+            builder.clientId = otherBuilder.clientId;
             
             return builder;
         }
@@ -100,13 +109,14 @@ public class OAuth2AccessToken implements Bson, WithId {
             builder.creationDate = authCode.creationDate;
             builder.userId = authCode.userId;
             builder.nbRefresh = authCode.nbRefresh;
+            builder.clientId = authCode.clientId;
             
             return builder;
         }
         
 		@Override
 		public OAuth2AccessToken build() {
-			return new OAuth2AccessToken(id, token, creationDate, userId, nbRefresh);
+			return new OAuth2AccessToken(id, token, creationDate, userId, nbRefresh, clientId);
 		}
 		
 		public Builder withId(UUID id) {
@@ -143,6 +153,11 @@ public class OAuth2AccessToken implements Bson, WithId {
             this.nbRefresh = nbRefresh;
             return this;
         }
+        
+        public Builder withClientId(UUID clientId) {
+            this.clientId = clientId;
+            return this;
+        }
 	}
 	
 	@Override
@@ -165,10 +180,14 @@ public class OAuth2AccessToken implements Bson, WithId {
 	public int getNbRefresh() {
 		return nbRefresh;
 	}
+	
+	public UUID getClientId() {
+		return clientId;
+	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(id, token, creationDate, userId, nbRefresh);
+		return Objects.hash(id, token, creationDate, userId, nbRefresh, clientId);
 	}
 
 	@Override
@@ -184,7 +203,8 @@ public class OAuth2AccessToken implements Bson, WithId {
             && Objects.equals(this.token, that.token)
             && Objects.equals(this.creationDate, that.creationDate)
 	        && Objects.equals(this.userId, that.userId)
-	        && Objects.equals(this.nbRefresh, that.nbRefresh);
+	        && Objects.equals(this.nbRefresh, that.nbRefresh)
+	        && Objects.equals(this.clientId, that.clientId);
     }
 	
 	@Override
@@ -194,6 +214,7 @@ public class OAuth2AccessToken implements Bson, WithId {
 			.add("created", creationDate)
 			.add("userId", userId)
 			.add("nbRefresh", nbRefresh)
+			.add("clientId", clientId)
 			.toString();
 	}
 	
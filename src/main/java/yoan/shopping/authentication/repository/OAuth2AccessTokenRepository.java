@@ -1,10 +1,14 @@
 package yoan.shopping.authentication.repository;
 
+import static java.util.Objects.requireNonNull;
 import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepositoryErrorMessage.PROBLEM_INSERT_USER_ID_NULL;
 import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepositoryErrorMessage.PROBLEM_INVALID_ACCESS_TOKEN;
 import static yoan.shopping.infra.logging.Markers.AUTHENTICATION;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -22,6 +26,9 @@ public abstract class OAuth2AccessTokenRepository {
 	private static final Logger LOGGER = LoggerFactory.getLogger(OAuth2AuthorizationCodeRepository.class);
 	private static final Marker AUTH_MARKER = AUTHENTICATION.getMarker();
 	
+	/** Listeners told about each deleted access token */
+	private final List<Consumer<String>> deletionListeners = new CopyOnWriteArrayList<>();
+	
 	public UUID getUserIdByAccessToken(String accessToken) {
 		if (StringUtils.isBlank(accessToken)) {
 			LOGGER.error(AUTH_MARKER, PROBLEM_INVALID_ACCESS_TOKEN.getDevReadableMessage(accessToken, "searching user ID"));
@@ -30,7 +37,30 @@ public abstract class OAuth2AccessTokenRepository {
 		return processGetUserIdByAccessToken(accessToken);
 	};
 	
+	/**
+	 * Get the full access token, with its creation date
+	 * @param accessToken
+	 * @return found access token or null
+	 */
+	public OAuth2AccessToken getByAccessToken(String accessToken) {
+		if (StringUtils.isBlank(accessToken)) {
+			LOGGER.error(AUTH_MARKER, PROBLEM_INVALID_ACCESS_TOKEN.getDevReadableMessage(accessToken, "searching access token"));
+			return null;
+		}
+		return processGetByAccessToken(accessToken);
+	}
+	
 	public void create(String accessToken, UUID userId) {
+		create(accessToken, userId, null);
+	}
+	
+	/**
+	 * Store an access token
+	 * @param accessToken
+	 * @param userId : user of the token, the client app owner for a client credentials token
+	 * @param clientId : client app of a client credentials token, null for a user token
+	 */
+	public void create(String accessToken, UUID userId, UUID clientId) {
 		if (StringUtils.isBlank(accessToken)) {
 			LOGGER.error(AUTH_MARKER, PROBLEM_INVALID_ACCESS_TOKEN.getDevReadableMessage(accessToken, "inserting token for user : " + userId));
 			return;
@@ -41,7 +71,7 @@ public abstract class OAuth2AccessTokenRepository {
 			return;
 		}
 		
-		processCreate(accessToken, userId);
+		processCreate(accessToken, userId, clientId);
 	}
 	
 	public void deleteByAccessToken(String accessToken) {
@@ -51,11 +81,22 @@ public abstract class OAuth2AccessTokenRepository {
 		}
 		
 		processDeleteByAccessToken(accessToken);
+		deletionListeners.forEach(listener -> listener.accept(accessToken));
+	}
+	
+	/**
+	 * Be told about each deleted access token, to evict it from a cache
+	 * @param listener : called with the deleted access token
+	 */
+	public void addDeletionListener(Consumer<String> listener) {
+		deletionListeners.add(requireNonNull(listener));
 	}
 	
 	protected abstract UUID processGetUserIdByAccessToken(String accessToken);
 	
-	protected abstract void processCreate(String accessToken, UUID userId);
+	protected abstract OAuth2AccessToken processGetByAccessToken(String accessToken);
+	
+	protected abstract void processCreate(String accessToken, UUID userId, UUID clientId);
 	
 	protected abstract void processDeleteByAccessToken(String accessToken);
 }
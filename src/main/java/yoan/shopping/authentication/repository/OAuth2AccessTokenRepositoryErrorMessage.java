@@ -19,7 +19,9 @@ public enum OAuth2AccessTokenRepositoryErrorMessage implements ErrorMessage {
 	/** Error while creating access token : %s */
 	PROBLEM_CREATION_ACCESS_TOKEN("Error while creating access token : %s"),
 	/** Error while deleting access token : %s */
-	PROBLEM_DELETE_ACCESS_TOKEN("Error while deleting access token : %s");
+	PROBLEM_DELETE_ACCESS_TOKEN("Error while deleting access token : %s"),
+	/** Error while migrating access tokens to their digest : %s */
+	PROBLEM_MIGRATE_ACCESS_TOKEN("Error while migrating access tokens to their digest : %s");
 	
 	private String message;
 	
@@ -44,6 +44,19 @@ public abstract class OAuth2AuthorizationCodeRepository {
 		processCreate(authzCode, userId);
 	}
 	
+	/**
+	 * Consume an authorization code, only the first caller gets its user
+	 * @param authzCode
+	 * @return user ID of the code, null if the code is unknown, expired or already redeemed
+	 */
+	public UUID redeem(String authzCode) {
+		if (StringUtils.isBlank(authzCode)) {
+			LOGGER.error(AUTH_MARKER, PROBLEM_INVALID_AUTH_CODE.getDevReadableMessage(authzCode, "redeeming auth code"));
+			return null;
+		}
+		return processRedeem(authzCode);
+	}
+	
 	public void deleteByCode(String authzCode) {
 		if (StringUtils.isBlank(authzCode)) {
 			LOGGER.error(AUTH_MARKER, PROBLEM_INVALID_AUTH_CODE.getDevReadableMessage(authzCode, "deleting auth code"));
@@ -57,5 +70,12 @@ public abstract class OAuth2AuthorizationCodeRepository {
 	
 	protected abstract void processCreate(String authzCode, UUID userId);
 	
+	/**
+	 * Find and delete an authorization code at once
+	 * @param authzCode
+	 * @return user ID of the deleted code, null if none
+	 */
+	protected abstract UUID processRedeem(String authzCode);
+	
 	protected abstract void processDeleteByCode(String authzCode);
 }
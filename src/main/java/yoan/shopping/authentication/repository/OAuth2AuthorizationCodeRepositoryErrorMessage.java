@@ -19,7 +19,9 @@ public enum OAuth2AuthorizationCodeRepositoryErrorMessage implements ErrorMessag
 	/** Error while creating authorization code : %s */
 	PROBLEM_CREATION_AUTH_CODE("Error while creating authorization code : %s"),
 	/** Error while deleting authorization code : %s */
-	PROBLEM_DELETE_AUTH_CODE("Error while deleting authorization code : %s");
+	PROBLEM_DELETE_AUTH_CODE("Error while deleting authorization code : %s"),
+	/** Error while redeeming authorization code : %s */
+	PROBLEM_REDEEM_AUTH_CODE("Error while redeeming authorization code : %s");
 	
 	private String message;
 	
@@ -0,0 +1,243 @@
+package yoan.shopping.authentication.repository;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWrapper;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+import com.google.common.base.MoreObjects;
+
+import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.db.WithId;
+import yoan.shopping.infra.util.GenericBuilder;
+import yoan.shopping.user.User;
+
+/**
+ * Oauth2 refresh token value object
+ * Only the token hash is kept, a token is used once then replaced by the next one of its family
+ * @author yoan
+ */
+public class RefreshToken implements Bson, WithId {
+	/** Default refresh token ID */
+	public static final UUID DEFAULT_ID = UUID.fromString("6a9d3c2e-81f4-4b6e-b0d7-5c3e9a1f2d48");
+	/** Default refresh token family ID */
+	public static final UUID DEFAULT_FAMILY_ID = UUID.fromString("d2f7b8a1-3c6e-4e59-a4b0-9e1c7f5d3a26");
+	public static final String DEFAULT_TOKEN_HASH = "default token hash";
+	public static final RefreshToken DEFAULT = Builder.createDefault().build();
+	
+	/** Refresh token unique ID */
+	private final UUID id;
+	/** Refresh token SHA-256 hash */
+	private final String tokenHash;
+	/** Associated user ID */
+	private final UUID userId;
+	/** Client app the token was issued to */
+	private final UUID clientId;
+	/** ID shared by the tokens rotated from the same grant */
+	private final UUID familyId;
+	/** Refresh token creation date */
+	private final LocalDateTime creationDate;
+	/** Refresh token expiration date */
+	private final LocalDateTime expirationDate;
+	/** Date the token was exchanged, null while it is still usable */
+	private final LocalDateTime usedDate;
+	
+	protected RefreshToken(UUID id, String tokenHash, UUID userId, UUID clientId, UUID familyId, LocalDateTime creationDate, LocalDateTime expirationDate, LocalDateTime usedDate) {
+		this.id = requireNonNull(id, "Refresh token Id is mandatory");
+		checkArgument(StringUtils.isNotBlank(tokenHash), "Invalid token hash");
+		this.tokenHash = tokenHash;
+		this.userId = requireNonNull(userId, "User ID is mandatory");
+		this.clientId = requireNonNull(clientId, "Client ID is mandatory");
+		this.familyId = requireNonNull(familyId, "Family ID is mandatory");
+		this.creationDate = requireNonNull(creationDate, "Creation date is mandatory");
+		this.expirationDate = requireNonNull(expirationDate, "Expiration date is mandatory");
+		this.usedDate = usedDate;
+	}
+	
+	public static class Builder implements GenericBuilder<RefreshToken> {
+		private UUID id = DEFAULT_ID;
+		private String tokenHash = DEFAULT_TOKEN_HASH;
+		private UUID userId = User.DEFAULT_ID;
+		private UUID clientId = ClientApp.DEFAULT_ID;
+		private UUID familyId = DEFAULT_FAMILY_ID;
+		private LocalDateTime creationDate = LocalDateTime.now();
+		private LocalDateTime expirationDate = creationDate.plusDays(Config.DEFAULT_REFRESH_TOKEN_TTL_IN_DAYS);
+		private LocalDateTime usedDate = null;
+		
+		private Builder() { }
+		
+		/**
+         * The default refresh token is DEFAULT
+         *
+         * @return DEFAULT refresh token
+         */
+        public static Builder createDefault() {
+            return new Builder();
+        }
+        
+        /**
+         * Get a builder based on an existing RefreshToken instance
+         *
+         * @param refreshToken
+         * @return builder
+         */
+        public static Builder createFrom(final RefreshToken refreshToken) {
+            Builder builder = new Builder();
+
+            builder.id = refreshToken.id;
+            builder.tokenHash = refreshToken.tokenHash;
+            builder.userId = refreshToken.userId;
+            builder.clientId = refreshToken.clientId;
+            builder.familyId = refreshToken.familyId;
+            builder.creationDate = refreshToken.creationDate;
+            builder.expirationDate = refreshToken.expirationDate;
+            builder.usedDate = refreshToken.usedDate;
+            
+            return builder;
+        }
+        
+		@Override
+		public RefreshToken build() {
+			return new RefreshToken(id, tokenHash, userId, clientId, familyId, creationDate, expirationDate, usedDate);
+		}
+		
+		public Builder withId(UUID id) {
+            this.id = requireNonNull(id);
+            return this;
+        }
+		
+		/**
+         * Set a random ID
+         *
+         * @return builder
+         */
+        public Builder withRandomId() {
+            this.id = UUID.randomUUID();
+            return this;
+        }
+        
+        public Builder withTokenHash(String tokenHash) {
+            this.tokenHash = tokenHash;
+            return this;
+        }
+        
+        public Builder withUserId(UUID userId) {
+            this.userId = requireNonNull(userId);
+            return this;
+        }
+        
+        public Builder withClientId(UUID clientId) {
+            this.clientId = requireNonNull(clientId);
+            return this;
+        }
+        
+        public Builder withFamilyId(UUID familyId) {
+            this.familyId = requireNonNull(familyId);
+            return this;
+        }
+        
+        public Builder withCreationDate(LocalDateTime creationDate) {
+            this.creationDate = creationDate;
+            return this;
+        }
+        
+        public Builder withExpirationDate(LocalDateTime expirationDate) {
+            this.expirationDate = expirationDate;
+            return this;
+        }
+        
+        public Builder withUsedDate(LocalDateTime usedDate) {
+            this.usedDate = usedDate;
+            return this;
+        }
+	}
+	
+	@Override
+	public UUID getId() {
+		return id;
+	}
+	
+	public String getTokenHash() {
+		return tokenHash;
+	}
+	
+	public UUID getUserId() {
+		return userId;
+	}
+	
+	public UUID getClientId() {
+		return clientId;
+	}
+	
+	public UUID getFamilyId() {
+		return familyId;
+	}
+	
+	public LocalDateTime getCreationDate() {
+		return creationDate;
+	}
+	
+	public LocalDateTime getExpirationDate() {
+		return expirationDate;
+	}
+	
+	public LocalDateTime getUsedDate() {
+		return usedDate;
+	}
+	
+	public boolean isUsed() {
+		return usedDate != null;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, tokenHash, userId, clientId, familyId, creationDate, expirationDate, usedDate);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        RefreshToken that = (RefreshToken) obj;
+        return Objects.equals(this.id, that.id)
+            && Objects.equals(this.tokenHash, that.tokenHash)
+            && Objects.equals(this.userId, that.userId)
+            && Objects.equals(this.clientId, that.clientId)
+            && Objects.equals(this.familyId, that.familyId)
+            && Objects.equals(this.creationDate, that.creationDate)
+            && Objects.equals(this.expirationDate, that.expirationDate)
+	        && Objects.equals(this.usedDate, that.usedDate);
+    }
+	
+	@Override
+	public final String toString() {
+		//the hash is left out, it identifies a live token
+		return MoreObjects.toStringHelper(this)
+			.add("id", id)
+			.add("userId", userId)
+			.add("clientId", clientId)
+			.add("familyId", familyId)
+			.add("created", creationDate)
+			.add("expiration", expirationDate)
+			.add("used", usedDate)
+			.toString();
+	}
+	
+	@Override
+	public <TDocument> BsonDocument toBsonDocument(Class<TDocument> documentClass, CodecRegistry codecRegistry) {
+		return new BsonDocumentWrapper<RefreshToken>(this, codecRegistry.get(RefreshToken.class));
+	}
+}
@@ -0,0 +1,103 @@
+package yoan.shopping.authentication.repository;
+
+import static yoan.shopping.authentication.repository.RefreshTokenRepositoryErrorMessage.PROBLEM_INSERT_NULL_REFRESH_TOKEN;
+import static yoan.shopping.authentication.repository.RefreshTokenRepositoryErrorMessage.PROBLEM_INVALID_REFRESH_TOKEN;
+import static yoan.shopping.authentication.repository.RefreshTokenRepositoryErrorMessage.REFRESH_TOKEN_REUSED;
+import static yoan.shopping.infra.logging.Markers.AUTHENTICATION;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+
+import yoan.shopping.infra.util.helper.SecurityHelper;
+
+/**
+ * OAuth2 refresh token repository
+ * Tokens are looked up by their hash, a leaked database does not give usable tokens
+ * @author yoan
+ */
+public abstract class RefreshTokenRepository {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(RefreshTokenRepository.class);
+	private static final Marker AUTH_MARKER = AUTHENTICATION.getMarker();
+	
+	/**
+	 * Save a new refresh token
+	 * @param refreshToken : token with the hash of its value
+	 */
+	public void create(RefreshToken refreshToken) {
+		if (refreshToken == null) {
+			LOGGER.error(AUTH_MARKER, PROBLEM_INSERT_NULL_REFRESH_TOKEN.getDevReadableMessage());
+			return;
+		}
+		processCreate(refreshToken);
+	}
+	
+	/**
+	 * Exchange a refresh token : mark it as used if it is still valid for this client, in a single operation
+	 * Presenting an already used token means it leaked, the whole family is revoked
+	 * @param refreshToken : raw token value
+	 * @param clientId : client presenting the token
+	 * @return the redeemed token, null if it is unknown, expired, already used or issued to another client
+	 */
+	public RefreshToken redeem(String refreshToken, UUID clientId) {
+		if (StringUtils.isBlank(refreshToken) || clientId == null) {
+			LOGGER.error(AUTH_MARKER, PROBLEM_INVALID_REFRESH_TOKEN.getDevReadableMessage("redeeming token for client : " + clientId));
+			return null;
+		}
+		String tokenHash = hashToken(refreshToken);
+		RefreshToken redeemedToken = processRedeem(tokenHash, clientId, LocalDateTime.now());
+		if (redeemedToken == null) {
+			revokeFamilyIfReused(tokenHash);
+		}
+		return redeemedToken;
+	}
+	
+	private void revokeFamilyIfReused(String tokenHash) {
+		RefreshToken knownToken = processGetByTokenHash(tokenHash);
+		if (knownToken != null && knownToken.isUsed()) {
+			LOGGER.warn(AUTH_MARKER, REFRESH_TOKEN_REUSED.getDevReadableMessage(knownToken.getId(), knownToken.getFamilyId()));
+			processDeleteByFamilyId(knownToken.getFamilyId());
+		}
+	}
+	
+	/**
+	 * Revoke all the refresh tokens rotated from the same grant
+	 * @param familyId
+	 */
+	public void deleteByFamilyId(UUID familyId) {
+		if (familyId == null) {
+			LOGGER.error(AUTH_MARKER, PROBLEM_INVALID_REFRESH_TOKEN.getDevReadableMessage("deleting a family without ID"));
+			return;
+		}
+		processDeleteByFamilyId(familyId);
+	}
+	
+	/**
+	 * Get the stored form of a refresh token
+	 * @param refreshToken : raw token value
+	 * @return token hash
+	 */
+	public static String hashToken(String refreshToken) {
+		return SecurityHelper.sha256Hex(refreshToken);
+	}
+	
+	protected abstract void processCreate(RefreshToken refreshToken);
+	
+	protected abstract RefreshToken processGetByTokenHash(String tokenHash);
+	
+	/**
+	 * Mark the token as used, atomically, if it is unused, unexpired and issued to the client
+	 * @param tokenHash
+	 * @param clientId
+	 * @param now : redemption date
+	 * @return the token before redemption, null if nothing matched
+	 */
+	protected abstract RefreshToken processRedeem(String tokenHash, UUID clientId, LocalDateTime now);
+	
+	protected abstract void processDeleteByFamilyId(UUID familyId);
+}
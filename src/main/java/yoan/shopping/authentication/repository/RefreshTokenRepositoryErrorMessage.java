@@ -0,0 +1,44 @@
+package yoan.shopping.authentication.repository;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import yoan.shopping.infra.util.error.ErrorMessage;
+
+/**
+ * Error messages specific to the OAuth2 refresh token repository
+ * @author yoan
+ */
+public enum RefreshTokenRepositoryErrorMessage implements ErrorMessage {
+	/** Invalid refresh token while %s */
+	PROBLEM_INVALID_REFRESH_TOKEN("Invalid refresh token while %s"),
+	/** Unable to insert a null refresh token */
+	PROBLEM_INSERT_NULL_REFRESH_TOKEN("Unable to insert a null refresh token"),
+	/** Refresh token %s of family %s used twice, the whole family is revoked */
+	REFRESH_TOKEN_REUSED("Refresh token %s of family %s used twice, the whole family is revoked"),
+	/** Error while reading refresh token : %s */
+	PROBLEM_READ_REFRESH_TOKEN("Error while reading refresh token : %s"),
+	/** Error while creating refresh token : %s */
+	PROBLEM_CREATION_REFRESH_TOKEN("Error while creating refresh token : %s"),
+	/** Error while redeeming refresh token : %s */
+	PROBLEM_REDEEM_REFRESH_TOKEN("Error while redeeming refresh token : %s"),
+	/** Error while deleting refresh tokens : %s */
+	PROBLEM_DELETE_REFRESH_TOKEN("Error while deleting refresh tokens : %s");
+	
+	private String message;
+	
+	private RefreshTokenRepositoryErrorMessage(String message) {
+		checkArgument(isNotBlank(message), "An error message should not be empty");
+		this.message = message;
+	}
+	
+	@Override
+	public String getDevReadableMessage() {
+		return message;
+	}
+
+	@Override
+	public String getDevReadableMessage(Object... params) {
+		return String.format(message, params);
+	}
+}
@@ -0,0 +1,139 @@
+package yoan.shopping.authentication.repository;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWrapper;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+import com.google.common.base.MoreObjects;
+
+import yoan.shopping.infra.db.WithId;
+import yoan.shopping.infra.util.GenericBuilder;
+
+/**
+ * Access token revoked before its expiration value object
+ * @author yoan
+ */
+public class RevokedAccessToken implements Bson, WithId {
+	/** Default revoked token ID */
+	public static final UUID DEFAULT_ID = UUID.fromString("3f0c7a5e-2c1d-4f0b-9a57-0d6b1f3e8c21");
+	public static final RevokedAccessToken DEFAULT = Builder.createDefault().build();
+	
+	/** Revoked token ID, the JWT id claim */
+	private final UUID id;
+	/** Token expiration date, the revocation is useless afterwards */
+	private final LocalDateTime expirationDate;
+	/** Revocation date */
+	private final LocalDateTime revocationDate;
+	
+	protected RevokedAccessToken(UUID id, LocalDateTime expirationDate, LocalDateTime revocationDate) {
+		this.id = requireNonNull(id, "Revoked token Id is mandatory");
+		this.expirationDate = requireNonNull(expirationDate, "Expiration date is mandatory");
+		this.revocationDate = requireNonNull(revocationDate, "Revocation date is mandatory");
+	}
+	
+	public static class Builder implements GenericBuilder<RevokedAccessToken> {
+		private UUID id = DEFAULT_ID;
+		private LocalDateTime expirationDate = LocalDateTime.now().plusMinutes(OAuth2AccessTokenRepository.ACCESS_TOKEN_TTL_IN_MINUTES);
+		private LocalDateTime revocationDate = LocalDateTime.now();
+		
+		private Builder() { }
+		
+		/**
+         * The default revoked token is DEFAULT
+         *
+         * @return DEFAULT revoked token
+         */
+        public static Builder createDefault() {
+            return new Builder();
+        }
+        
+        /**
+         * Get a builder based on an existing RevokedAccessToken instance
+         *
+         * @param revokedToken
+         * @return builder
+         */
+        public static Builder createFrom(final RevokedAccessToken revokedToken) {
+            Builder builder = new Builder();
+
+            builder.id = revokedToken.id;
+            builder.expirationDate = revokedToken.expirationDate;
+            builder.revocationDate = revokedToken.revocationDate;
+            
+            return builder;
+        }
+        
+		@Override
+		public RevokedAccessToken build() {
+			return new RevokedAccessToken(id, expirationDate, revocationDate);
+		}
+		
+		public Builder withId(UUID id) {
+            this.id = requireNonNull(id);
+            return this;
+        }
+        
+        public Builder withExpirationDate(LocalDateTime expirationDate) {
+            this.expirationDate = expirationDate;
+            return this;
+        }
+        
+        public Builder withRevocationDate(LocalDateTime revocationDate) {
+            this.revocationDate = revocationDate;
+            return this;
+        }
+	}
+	
+	@Override
+	public UUID getId() {
+		return id;
+	}
+	
+	public LocalDateTime getExpirationDate() {
+		return expirationDate;
+	}
+	
+	public LocalDateTime getRevocationDate() {
+		return revocationDate;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, expirationDate, revocationDate);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        RevokedAccessToken that = (RevokedAccessToken) obj;
+        return Objects.equals(this.id, that.id)
+            && Objects.equals(this.expirationDate, that.expirationDate)
+	        && Objects.equals(this.revocationDate, that.revocationDate);
+    }
+	
+	@Override
+	public final String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("id", id)
+			.add("expiration", expirationDate)
+			.add("revoked", revocationDate)
+			.toString();
+	}
+	
+	@Override
+	public <TDocument> BsonDocument toBsonDocument(Class<TDocument> documentClass, CodecRegistry codecRegistry) {
+		return new BsonDocumentWrapper<RevokedAccessToken>(this, codecRegistry.get(RevokedAccessToken.class));
+	}
+}
@@ -0,0 +1,48 @@
+package yoan.shopping.authentication.repository;
+
+import static yoan.shopping.authentication.repository.RevokedAccessTokenRepositoryErrorMessage.PROBLEM_REVOKE_NULL_ACCESS_TOKEN;
+import static yoan.shopping.infra.logging.Markers.AUTHENTICATION;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Repository of the access tokens revoked before their expiration, shared by all the nodes
+ * @author yoan
+ */
+public abstract class RevokedAccessTokenRepository {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(RevokedAccessTokenRepository.class);
+	
+	/**
+	 * Save a revocation, kept until the token expiration
+	 * @param revokedToken
+	 */
+	public void revoke(RevokedAccessToken revokedToken) {
+		if (revokedToken == null) {
+			LOGGER.error(AUTHENTICATION.getMarker(), PROBLEM_REVOKE_NULL_ACCESS_TOKEN.getDevReadableMessage());
+			return;
+		}
+		processRevoke(revokedToken);
+	}
+	
+	/**
+	 * Get the revocations saved since a given date, to refresh a local copy incrementally
+	 * @param since : inclusive, all the unexpired revocations if null
+	 * @return revocations ordered by revocation date
+	 */
+	public List<RevokedAccessToken> findRevokedSince(LocalDateTime since) {
+		List<RevokedAccessToken> revokedTokens = processFindRevokedSince(since);
+		return revokedTokens == null ? ImmutableList.of() : ImmutableList.copyOf(revokedTokens.stream().filter(Objects::nonNull).iterator());
+	}
+	
+	protected abstract void processRevoke(RevokedAccessToken revokedToken);
+	
+	protected abstract List<RevokedAccessToken> processFindRevokedSince(LocalDateTime since);
+}
@@ -0,0 +1,36 @@
+package yoan.shopping.authentication.repository;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import yoan.shopping.infra.util.error.ErrorMessage;
+
+/**
+ * Error messages specific to the revoked access token repository
+ * @author yoan
+ */
+public enum RevokedAccessTokenRepositoryErrorMessage implements ErrorMessage {
+	/** Unable to revoke a null access token */
+	PROBLEM_REVOKE_NULL_ACCESS_TOKEN("Unable to revoke a null access token"),
+	/** Error while revoking access token : %s */
+	PROBLEM_REVOKE_ACCESS_TOKEN("Error while revoking access token : %s"),
+	/** Error while reading revoked access tokens : %s */
+	PROBLEM_READ_REVOKED_ACCESS_TOKENS("Error while reading revoked access tokens : %s");
+	
+	private String message;
+	
+	private RevokedAccessTokenRepositoryErrorMessage(String message) {
+		checkArgument(isNotBlank(message), "An error message should not be empty");
+		this.message = message;
+	}
+	
+	@Override
+	public String getDevReadableMessage() {
+		return message;
+	}
+
+	@Override
+	public String getDevReadableMessage(Object... params) {
+		return String.format(message, params);
+	}
+}
@@ -0,0 +1,12 @@
+package yoan.shopping.authentication.repository;
+
+/**
+ * Where the OAuth2 authorization codes and access tokens are stored
+ * @author yoan
+ */
+public enum TokenStorageMode {
+	/** Codes and tokens shared by all the nodes in database */
+	MONGO,
+	/** Codes and tokens kept in the node memory, for a single node deployment */
+	IN_MEMORY;
+}
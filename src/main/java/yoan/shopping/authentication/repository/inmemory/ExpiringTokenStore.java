@@ -0,0 +1,368 @@
+package yoan.shopping.authentication.repository.inmemory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.AUTHENTICATION;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Concurrent in memory store of tokens expiring a fixed time after they were put
+ * Reads are lock free and ignore the expired tokens. Each put also files the token in a timing wheel
+ * whose buckets are swept one tick at a time, so expiring the tokens never scans the whole store.
+ * The store is capped : once full, the tokens closest to their expiration are dropped first.
+ * It can be saved to a file and restored from it, to survive a restart.
+ * @author yoan
+ */
+public class ExpiringTokenStore<V> {
+	public static final long TICK_IN_MILLIS = 1_000;
+	private static final int SNAPSHOT_VERSION = 1;
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(ExpiringTokenStore.class);
+	
+	private final String name;
+	private final long ttlInMillis;
+	private final int maxEntries;
+	private final Function<V, String> encoder;
+	private final BiFunction<String, String, V> decoder;
+	private final Clock clock;
+	private final ConcurrentMap<String, Entry<V>> entriesByKey = new ConcurrentHashMap<>();
+	/** Tokens by expiration tick, modulo the wheel size. A removed token stays in its bucket until it is swept */
+	private final List<Deque<Entry<V>>> wheel;
+	/** Guards the wheel, only taken by the writes and the sweeps */
+	private final ReentrantLock wheelLock = new ReentrantLock();
+	/** Last swept tick */
+	private long sweptTick;
+	
+	private final LongAdder expiredCount = new LongAdder();
+	private final LongAdder evictedCount = new LongAdder();
+	
+	/**
+	 * @param name : store name, for the logs
+	 * @param ttl : token lifetime
+	 * @param unit : token lifetime unit
+	 * @param maxEntries : maximum count of tokens
+	 * @param encoder : turns a value into text, for the snapshots
+	 * @param decoder : turns a key and its text back into a value, for the snapshots
+	 * @param clock
+	 */
+	public ExpiringTokenStore(String name, long ttl, TimeUnit unit, int maxEntries, Function<V, String> encoder, BiFunction<String, String, V> decoder, Clock clock) {
+		checkArgument(ttl > 0, "Invalid token store TTL");
+		checkArgument(maxEntries > 0, "Invalid token store max entries");
+		this.name = requireNonNull(name);
+		this.ttlInMillis = unit.toMillis(ttl);
+		this.maxEntries = maxEntries;
+		this.encoder = requireNonNull(encoder);
+		this.decoder = requireNonNull(decoder);
+		this.clock = requireNonNull(clock);
+		//one revolution covers a whole lifetime, so a bucket only holds tokens of the same tick
+		int bucketCount = (int) ((ttlInMillis + TICK_IN_MILLIS - 1) / TICK_IN_MILLIS) + 1;
+		this.wheel = new ArrayList<>(bucketCount);
+		for (int i = 0; i < bucketCount; i++) {
+			wheel.add(new ArrayDeque<>());
+		}
+		this.sweptTick = clock.millis() / TICK_IN_MILLIS;
+	}
+	
+	/**
+	 * Get a token value
+	 * @param key
+	 * @return value, null if missing or expired
+	 */
+	public V get(String key) {
+		Entry<V> entry = entriesByKey.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired(clock.millis())) {
+			entriesByKey.remove(key, entry);
+			return null;
+		}
+		return entry.value;
+	}
+	
+	/**
+	 * Add a token, expiring after the store TTL
+	 * @param key
+	 * @param value
+	 */
+	public void put(String key, V value) {
+		putUntil(key, value, clock.millis() + ttlInMillis);
+	}
+	
+	private void putUntil(String key, V value, long expiresAtInMillis) {
+		wheelLock.lock();
+		try {
+			long deadlineTick = Math.max((expiresAtInMillis + TICK_IN_MILLIS - 1) / TICK_IN_MILLIS, sweptTick + 1);
+			Entry<V> entry = new Entry<>(key, value, expiresAtInMillis, deadlineTick);
+			if (!entriesByKey.containsKey(key)) {
+				evictIfFull();
+			}
+			entriesByKey.put(key, entry);
+			getBucket(deadlineTick).add(entry);
+		} finally {
+			wheelLock.unlock();
+		}
+	}
+	
+	/**
+	 * Drop the tokens closest to their expiration until there is room for a new one
+	 */
+	private void evictIfFull() {
+		if (entriesByKey.size() < maxEntries) {
+			return;
+		}
+		//once swept, the wheel holds the living tokens in expiration order from the next tick
+		expiredCount.add(sweepUpTo(clock.millis() / TICK_IN_MILLIS));
+		for (int i = 1; i <= wheel.size() && entriesByKey.size() >= maxEntries; i++) {
+			Deque<Entry<V>> bucket = getBucket(sweptTick + i);
+			while (!bucket.isEmpty() && entriesByKey.size() >= maxEntries) {
+				Entry<V> entry = bucket.poll();
+				if (entriesByKey.remove(entry.key, entry)) {
+					evictedCount.increment();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Remove a token
+	 * @param key
+	 * @return removed value, null if missing or expired
+	 */
+	public V remove(String key) {
+		Entry<V> removedEntry = entriesByKey.remove(key);
+		if (removedEntry == null || removedEntry.isExpired(clock.millis())) {
+			return null;
+		}
+		return removedEntry.value;
+	}
+	
+	/**
+	 * Sweep the wheel buckets up to the current tick
+	 * @return count of expired tokens
+	 */
+	public int expire() {
+		int expired;
+		wheelLock.lock();
+		try {
+			expired = sweepUpTo(clock.millis() / TICK_IN_MILLIS);
+		} finally {
+			wheelLock.unlock();
+		}
+		expiredCount.add(expired);
+		return expired;
+	}
+	
+	private int sweepUpTo(long currentTick) {
+		int expired = 0;
+		//after a long pause, sweeping each bucket once is enough
+		long lastTick = Math.min(currentTick, sweptTick + wheel.size());
+		for (long tick = sweptTick + 1; tick <= lastTick; tick++) {
+			expired += sweep(getBucket(tick), currentTick);
+		}
+		sweptTick = Math.max(sweptTick, currentTick);
+		return expired;
+	}
+	
+	private int sweep(Deque<Entry<V>> bucket, long currentTick) {
+		int expired = 0;
+		Iterator<Entry<V>> entries = bucket.iterator();
+		while (entries.hasNext()) {
+			Entry<V> entry = entries.next();
+			if (entry.deadlineTick <= currentTick) {
+				entries.remove();
+				if (entriesByKey.remove(entry.key, entry)) {
+					expired++;
+				}
+			}
+		}
+		return expired;
+	}
+	
+	private Deque<Entry<V>> getBucket(long tick) {
+		return wheel.get((int) (tick % wheel.size()));
+	}
+	
+	/**
+	 * Save the living tokens to a file only readable by its owner, replacing it at once
+	 * @param file
+	 * @throws IOException
+	 */
+	public void saveTo(Path file) throws IOException {
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		createOwnerOnlyFile(tempFile);
+		long now = clock.millis();
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+			output.writeInt(SNAPSHOT_VERSION);
+			for (Entry<V> entry : entriesByKey.values()) {
+				if (!entry.isExpired(now)) {
+					output.writeBoolean(true);
+					output.writeLong(entry.expiresAtInMillis);
+					output.writeUTF(entry.key);
+					output.writeUTF(encoder.apply(entry.value));
+				}
+			}
+			output.writeBoolean(false);
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	private static void createOwnerOnlyFile(Path file) throws IOException {
+		Files.deleteIfExists(file);
+		if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} else {
+			Files.createFile(file);
+		}
+	}
+	
+	/**
+	 * Add the tokens saved in a file, except the expired ones
+	 * @param file
+	 * @return count of restored tokens
+	 * @throws IOException if the file is unreadable
+	 */
+	public int restoreFrom(Path file) throws IOException {
+		if (!Files.exists(file)) {
+			return 0;
+		}
+		long now = clock.millis();
+		int restored = 0;
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			int version = input.readInt();
+			if (version != SNAPSHOT_VERSION) {
+				throw new IOException("Unknown token snapshot version : " + version);
+			}
+			while (input.readBoolean()) {
+				long expiresAtInMillis = input.readLong();
+				String key = input.readUTF();
+				String encodedValue = input.readUTF();
+				if (expiresAtInMillis > now) {
+					//a token saved by a node with a clock ahead still lives one TTL at most
+					putUntil(key, decoder.apply(key, encodedValue), Math.min(expiresAtInMillis, now + ttlInMillis));
+					restored++;
+				}
+			}
+		}
+		return restored;
+	}
+	
+	/**
+	 * Sweep the expired tokens each tick in background
+	 * With a snapshot file, restore the tokens from it first, then save them periodically and on shutdown
+	 * @param snapshotFile : null to keep the tokens in memory only
+	 * @param snapshotPeriodInSeconds
+	 */
+	public void startMaintenance(Path snapshotFile, long snapshotPeriodInSeconds) {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("token-store-" + name).build());
+		scheduler.scheduleWithFixedDelay(this::expireQuietly, TICK_IN_MILLIS, TICK_IN_MILLIS, TimeUnit.MILLISECONDS);
+		if (snapshotFile == null) {
+			return;
+		}
+		
+		try {
+			int restored = restoreFrom(snapshotFile);
+			LOGGER.info(AUTHENTICATION.getMarker(), "{} {} restored from {}", restored, name, snapshotFile);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn(AUTHENTICATION.getMarker(), "Unable to restore the " + name + " from " + snapshotFile + ", starting empty", e);
+		}
+		scheduler.scheduleWithFixedDelay(() -> saveQuietly(snapshotFile), snapshotPeriodInSeconds, snapshotPeriodInSeconds, TimeUnit.SECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> saveQuietly(snapshotFile), "token-store-" + name + "-shutdown"));
+	}
+	
+	private void expireQuietly() {
+		try {
+			expire();
+		} catch (RuntimeException e) {
+			//never let an exception kill the scheduled sweep
+			LOGGER.warn(AUTHENTICATION.getMarker(), "Unable to expire the " + name, e);
+		}
+	}
+	
+	private void saveQuietly(Path snapshotFile) {
+		try {
+			saveTo(snapshotFile);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn(AUTHENTICATION.getMarker(), "Unable to save the " + name + " to " + snapshotFile, e);
+		}
+	}
+	
+	/**
+	 * Get the snapshot file of a store
+	 * @param directory : snapshot directory, null if disabled
+	 * @param fileName
+	 * @return snapshot file, null if disabled
+	 */
+	public static Path getSnapshotFile(String directory, String fileName) {
+		return directory == null ? null : Paths.get(directory, fileName);
+	}
+	
+	public int getSize() {
+		return entriesByKey.size();
+	}
+	
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+	
+	public long getExpiredCount() {
+		return expiredCount.sum();
+	}
+	
+	public long getEvictedCount() {
+		return evictedCount.sum();
+	}
+	
+	/**
+	 * Token value with its expiration
+	 */
+	private static final class Entry<V> {
+		private final String key;
+		private final V value;
+		private final long expiresAtInMillis;
+		/** Tick whose sweep drops the token */
+		private final long deadlineTick;
+		
+		private Entry(String key, V value, long expiresAtInMillis, long deadlineTick) {
+			this.key = key;
+			this.value = value;
+			this.expiresAtInMillis = expiresAtInMillis;
+			this.deadlineTick = deadlineTick;
+		}
+		
+		private boolean isExpired(long nowInMillis) {
+			return nowInMillis >= expiresAtInMillis;
+		}
+	}
+}
@@ -1,37 +1,84 @@
 package yoan.shopping.authentication.repository.inmemory;
 
-import java.util.Map;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
-import com.google.common.collect.Maps;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
+import yoan.shopping.authentication.repository.OAuth2AccessToken;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
+import yoan.shopping.infra.config.api.Config;
 
 /**
- * In memory implementation of the oauth2 access token repository
- * @deprecated very basic implementation
+ * In memory implementation of the oauth2 access token repository, for a single node deployment
+ * Tokens expire after ACCESS_TOKEN_TTL_IN_MINUTES, see {@link ExpiringTokenStore}
  * @author yoan
  */
-@Deprecated
 @Singleton
 public class OAuth2AccessTokenInMemoryRepository extends OAuth2AccessTokenRepository {
-
-	private final Map<String, UUID> userIdByAccessToken = Maps.newHashMap();
+	public static final String SNAPSHOT_FILE_NAME = "accessTokens.snapshot";
+	
+	private final ExpiringTokenStore<OAuth2AccessToken> accessTokensByToken;
+	
+	@Inject
+	public OAuth2AccessTokenInMemoryRepository(Config config) {
+		this(config.getTokenStorageMaxEntries(), Clock.systemUTC());
+		accessTokensByToken.startMaintenance(ExpiringTokenStore.getSnapshotFile(config.getTokenStorageSnapshotDirectory(), SNAPSHOT_FILE_NAME), config.getTokenStorageSnapshotPeriodInSeconds());
+	}
+	
+	protected OAuth2AccessTokenInMemoryRepository(int maxEntries, Clock clock) {
+		accessTokensByToken = new ExpiringTokenStore<>("access tokens", ACCESS_TOKEN_TTL_IN_MINUTES, TimeUnit.MINUTES, maxEntries,
+			OAuth2AccessTokenInMemoryRepository::encode, OAuth2AccessTokenInMemoryRepository::decode, requireNonNull(clock));
+	}
 	
 	@Override
 	protected UUID processGetUserIdByAccessToken(String accessToken) {
-		return userIdByAccessToken.get(accessToken);
+		OAuth2AccessToken foundAccessToken = accessTokensByToken.get(accessToken);
+		return foundAccessToken == null ? null : foundAccessToken.getuserId();
 	}
 
 	@Override
-	protected void processCreate(String accessToken, UUID userId) {
-		userIdByAccessToken.put(accessToken, userId);
+	protected OAuth2AccessToken processGetByAccessToken(String accessToken) {
+		return accessTokensByToken.get(accessToken);
 	}
 
 	@Override
-	protected void processDeleteByAccessToken(String accessToken) {
-		userIdByAccessToken.remove(accessToken);
+	protected void processCreate(String accessToken, UUID userId, UUID clientId) {
+		OAuth2AccessToken accessTokenToCreate = OAuth2AccessToken.Builder.createDefault()
+			.withRandomId()
+			.withToken(accessToken)
+			.withUserId(userId)
+			.withClientId(clientId)
+			.build();
+		accessTokensByToken.put(accessToken, accessTokenToCreate);
 	}
 
+	@Override
+	protected void processDeleteByAccessToken(String accessToken) {
+		accessTokensByToken.remove(accessToken);
+	}
+	
+	static String encode(OAuth2AccessToken accessToken) {
+		String encoded = accessToken.getId() + " " + accessToken.getuserId() + " " + accessToken.getCreationDate() + " " + accessToken.getNbRefresh();
+		return accessToken.getClientId() == null ? encoded : encoded + " " + accessToken.getClientId();
+	}
+	
+	static OAuth2AccessToken decode(String token, String encodedAccessToken) {
+		String[] fields = encodedAccessToken.split(" ");
+		//a user token, or a snapshot written before the client credentials tokens, has no client ID
+		UUID clientId = fields.length > 4 ? UUID.fromString(fields[4]) : null;
+		return OAuth2AccessToken.Builder.createDefault()
+			.withId(UUID.fromString(fields[0]))
+			.withToken(token)
+			.withUserId(UUID.fromString(fields[1]))
+			.withCreationDate(LocalDateTime.parse(fields[2]))
+			.withNbRefresh(Integer.parseInt(fields[3]))
+			.withClientId(clientId)
+			.build();
+	}
 }
@@ -1,23 +1,38 @@
 package yoan.shopping.authentication.repository.inmemory;
 
-import java.util.Map;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Clock;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
-import com.google.common.collect.Maps;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository;
+import yoan.shopping.infra.config.api.Config;
 
 /**
- * In memory implementation of the oauth2 access token repository
- * @deprecated very basic implementation
+ * In memory implementation of the oauth2 authorization code repository, for a single node deployment
+ * Codes expire after AUTH_CODE_TTL_IN_MINUTES, see {@link ExpiringTokenStore}
  * @author yoan
  */
 @Singleton
-@Deprecated
 public class OAuth2AuthorizationCodeInMemoryRepository extends OAuth2AuthorizationCodeRepository {
+	public static final String SNAPSHOT_FILE_NAME = "authorizationCodes.snapshot";
+	
+	private final ExpiringTokenStore<UUID> userIdByAuthorizationCode;
 	
-	private final Map<String, UUID> userIdByAuthorizationCode = Maps.newHashMap();
+	@Inject
+	public OAuth2AuthorizationCodeInMemoryRepository(Config config) {
+		this(config.getTokenStorageMaxEntries(), Clock.systemUTC());
+		userIdByAuthorizationCode.startMaintenance(ExpiringTokenStore.getSnapshotFile(config.getTokenStorageSnapshotDirectory(), SNAPSHOT_FILE_NAME), config.getTokenStorageSnapshotPeriodInSeconds());
+	}
+	
+	protected OAuth2AuthorizationCodeInMemoryRepository(int maxEntries, Clock clock) {
+		userIdByAuthorizationCode = new ExpiringTokenStore<>("authorization codes", AUTH_CODE_TTL_IN_MINUTES, TimeUnit.MINUTES, maxEntries,
+			UUID::toString, (code, encodedUserId) -> UUID.fromString(encodedUserId), requireNonNull(clock));
+	}
 	
 	@Override
 	protected UUID processGetUserIdByAuthorizationCode(String authzCode) {
@@ -29,9 +44,13 @@ public class OAuth2AuthorizationCodeInMemoryRepository extends OAuth2Authorizati
 		userIdByAuthorizationCode.put(authzCode, userId);
 	}
 
+	@Override
+	protected UUID processRedeem(String authzCode) {
+		return userIdByAuthorizationCode.remove(authzCode);
+	}
+	
 	@Override
 	protected void processDeleteByCode(String authzCode) {
 		userIdByAuthorizationCode.remove(authzCode);
 	}
-
 }
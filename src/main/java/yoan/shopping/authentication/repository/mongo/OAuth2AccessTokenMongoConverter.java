@@ -13,16 +13,23 @@ import com.mongodb.client.model.Filters;
 import yoan.shopping.authentication.repository. OAuth2AccessToken;
 import yoan.shopping.infra.db.mongo.MongoDocumentConverter;
 import yoan.shopping.infra.util.helper.DateHelper;
+import yoan.shopping.infra.util.helper.SecurityHelper;
 
 /**
  * MongoDb codec to convert OAuth2 access token to BSON
  * @author yoan
  */
 public class OAuth2AccessTokenMongoConverter extends MongoDocumentConverter<OAuth2AccessToken> {
+	/** Full token value, only found in the documents written before the digest */
 	public static final String FIELD_TOKEN = "token";
+	public static final String FIELD_TOKEN_DIGEST = "tokenDigest";
+    /** 128 bits are enough against collisions between random tokens and keep the index small */
+    public static final int TOKEN_DIGEST_SIZE_IN_BYTES = 16;
     public static final String FIELD_CREATED = "created";
     public static final String FIELD_USER_ID = "userId";
     public static final String FIELD_NB_REFRESH = "nbRefresh";
+    /** Only in the client credentials tokens */
+    public static final String FIELD_CLIENT_ID = "clientId";
     
     public OAuth2AccessTokenMongoConverter() {
 		super();
@@ -34,23 +41,34 @@ public class OAuth2AccessTokenMongoConverter extends MongoDocumentConverter<OAut
     
     @Override
    	public OAuth2AccessToken fromDocument(Document doc) {
+   		return doc == null ? null : fromDocument(doc, doc.getString(FIELD_TOKEN));
+   	}
+    
+    /**
+     * Read a stored access token, the token value is not stored and comes from the lookup
+     * @param doc
+     * @param accessToken : token value matching the document digest
+     * @return access token
+     */
+   	public OAuth2AccessToken fromDocument(Document doc, String accessToken) {
    		if (doc == null) {
    			return null;
    		}
    		
        UUID id = doc.get(FIELD_ID, UUID.class);
-       String token = doc.getString(FIELD_TOKEN);
        UUID userId = doc.get(FIELD_USER_ID, UUID.class);
        Date created = doc.getDate(FIELD_CREATED);
        LocalDateTime creationDate = DateHelper.toLocalDateTime(created);
        int nbRefresh = doc.getInteger(FIELD_NB_REFRESH);
+       UUID clientId = doc.get(FIELD_CLIENT_ID, UUID.class);
        
        return OAuth2AccessToken.Builder.createDefault()
        				   .withId(id)
        				   .withCreationDate(creationDate)
-       				   .withToken(token)
+       				   .withToken(accessToken)
        				   .withUserId(userId)
        				   .withNbRefresh(nbRefresh)
+       				   .withClientId(clientId)
        				   .build();
    	}
 
@@ -60,11 +78,15 @@ public class OAuth2AccessTokenMongoConverter extends MongoDocumentConverter<OAut
    			return new Document();
    		}
    		
-   		return new Document(FIELD_ID, authCode.getId())
-   				.append(FIELD_TOKEN, authCode.getToken())
+   		Document doc = new Document(FIELD_ID, authCode.getId())
+   				.append(FIELD_TOKEN_DIGEST, digest(authCode.getToken()))
    				.append(FIELD_CREATED, DateHelper.toDate(authCode.getCreationDate()))
    				.append(FIELD_USER_ID, authCode.getuserId())
    				.append(FIELD_NB_REFRESH, authCode.getNbRefresh());
+   		if (authCode.getClientId() != null) {
+   			doc.append(FIELD_CLIENT_ID, authCode.getClientId());
+   		}
+   		return doc;
    	}
        
    	@Override
@@ -77,7 +99,24 @@ public class OAuth2AccessTokenMongoConverter extends MongoDocumentConverter<OAut
    		return documentHasId(accessToken) ? accessToken : OAuth2AccessToken.Builder.createFrom(accessToken).withRandomId().build();
    	}
    	
+   	public static byte[] digest(String accessToken) {
+   		return SecurityHelper.sha256Truncated(accessToken, TOKEN_DIGEST_SIZE_IN_BYTES);
+   	}
+   	
    	public Bson filterByToken(String accessToken) {
+   		return Filters.eq(FIELD_TOKEN_DIGEST, digest(accessToken));
+   	}
+   	
+   	public Bson filterByLegacyToken(String accessToken) {
    		return Filters.eq(FIELD_TOKEN, accessToken);
    	}
+   	
+   	public Bson filterLegacyTokens() {
+   		return Filters.exists(FIELD_TOKEN);
+   	}
+   	
+   	public Document getMigrateToDigestUpdate(String accessToken) {
+   		return new Document("$set", new Document(FIELD_TOKEN_DIGEST, digest(accessToken)))
+   				.append("$unset", new Document(FIELD_TOKEN, ""));
+   	}
 }
\ No newline at end of file
@@ -4,14 +4,24 @@ import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepositoryErrorMessage.PROBLEM_CREATION_ACCESS_TOKEN;
 import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepositoryErrorMessage.PROBLEM_DELETE_ACCESS_TOKEN;
+import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepositoryErrorMessage.PROBLEM_MIGRATE_ACCESS_TOKEN;
 import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepositoryErrorMessage.PROBLEM_READ_ACCESS_TOKEN;
 import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoConverter.FIELD_CREATED;
 import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoConverter.FIELD_TOKEN;
+import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoConverter.FIELD_TOKEN_DIGEST;
+import static yoan.shopping.infra.db.mongo.MongoDocumentConverter.FIELD_ID;
 import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.ASCENDING;
 import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.DESCENDING;
+import static yoan.shopping.infra.logging.Markers.AUTHENTICATION;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,78 +30,162 @@ import yoan.shopping.authentication.repository.OAuth2AccessToken;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
 import yoan.shopping.infra.db.Dbs;
 import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
 import yoan.shopping.infra.db.mongo.MongoIndexEnsurer;
-import yoan.shopping.infra.util.helper.MongoRepositoryHelper;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 
 /**
- * Mongo implementation of the OAuth2 access token repository	
+ * Mongo implementation of the OAuth2 access token repository
+ * Tokens are stored and indexed by a truncated SHA-256 digest instead of the full JWT, keeping the index small enough to stay in RAM.
+ * The tokens written before are migrated in background, they are still found by value until the migration ends.
  * @author yoan
  */
 @Singleton
 public class OAuth2AccessTokenMongoRepository extends OAuth2AccessTokenRepository {
 public static final String ACCESS_TOKEN_COLLECTION = "accessToken";
+	/** Legacy tokens migrated by update batch */
+	public static final int MIGRATION_BATCH_SIZE = 500;
+	/** Delay before the migration, and between two attempts if it fails */
+	public static final long MIGRATION_DELAY_IN_SECONDS = 30;
+	/** Name of the legacy token index once rebuilt as sparse */
+	public static final String LEGACY_TOKEN_SPARSE_INDEX = "token_sparse";
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(OAuth2AccessTokenMongoRepository.class);
 	
 	private final MongoCollection<OAuth2AccessToken> accessTokenCollection;
+	private final MongoCollection<Document> accessTokenDocuments;
 	private final OAuth2AccessTokenMongoConverter accessTokenConverter;
-	
-	private static final Logger LOGGER = LoggerFactory.getLogger(OAuth2AccessTokenMongoRepository.class);
+	private final MongoOperationExecutor executor;
+	/** False while tokens stored by value may remain */
+	private volatile boolean legacyTokensMigrated;
 	
 	@Inject
 	public OAuth2AccessTokenMongoRepository(MongoDbConnectionFactory mongoConnectionFactory) {
 		requireNonNull(mongoConnectionFactory);
 		accessTokenCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING, ACCESS_TOKEN_COLLECTION, OAuth2AccessToken.class);
+		accessTokenDocuments = accessTokenCollection.withDocumentClass(Document.class);
 		accessTokenConverter = new OAuth2AccessTokenMongoConverter();
+		executor = mongoConnectionFactory.createOperationExecutor(OAuth2AccessTokenMongoRepository.class);
 		ensureIndexes();
 	}
-
+	
 	private void ensureIndexes() {
 		MongoIndexEnsurer indexEnsurer = new MongoIndexEnsurer(accessTokenCollection);
 		indexEnsurer.logStartEnsuringIndexes();
-		
-		indexEnsurer.ensureUniqueIndex(FIELD_TOKEN, ASCENDING);
+	
+		indexEnsurer.ensureUniqueSparseIndex(FIELD_TOKEN_DIGEST, ASCENDING);
 		indexEnsurer.ensureTTLIndex(FIELD_CREATED, DESCENDING, ACCESS_TOKEN_TTL_IN_MINUTES, MINUTES);
-		
+		//the index on the token value was always created with the legacy tokens, it stays until they are migrated
+		legacyTokensMigrated = !indexEnsurer.hasIndex(FIELD_TOKEN, ASCENDING);
+		if (!legacyTokensMigrated) {
+			//it was created unique but not sparse : the tokens stored by digest only, and the migrated ones, would all collide on a null value
+			//so it is rebuilt sparse before any of them is written
+			indexEnsurer.rebuildUniqueIndexAsSparse(FIELD_TOKEN, ASCENDING, LEGACY_TOKEN_SPARSE_INDEX);
+			startLegacyTokensMigration();
+		}
+	
 		indexEnsurer.logEndEnsuringIndexes();
 	}
-
+	
+	private void startLegacyTokensMigration() {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("access-token-digest-migration").build());
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				migrateLegacyTokens();
+				scheduler.shutdown();
+			} catch (RuntimeException e) {
+				//never let an exception kill the scheduled migration, it is tried again later
+				LOGGER.warn(AUTHENTICATION.getMarker(), "Unable to migrate the access tokens to their digest", e);
+			}
+		}, MIGRATION_DELAY_IN_SECONDS, MIGRATION_DELAY_IN_SECONDS, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * Replace the value of the tokens stored by value with its digest, then drop the index on the value
+	 * @return number of migrated tokens
+	 */
+	public int migrateLegacyTokens() {
+		int migratedCount = migrateLegacyTokenValues();
+		executor.runIdempotent("migrateLegacyTokens", PROBLEM_MIGRATE_ACCESS_TOKEN, () -> new MongoIndexEnsurer(accessTokenCollection).dropIndexIfExists(FIELD_TOKEN, ASCENDING));
+		legacyTokensMigrated = true;
+		LOGGER.info(AUTHENTICATION.getMarker(), "{} access tokens migrated to their digest", migratedCount);
+		return migratedCount;
+	}
+	
+	protected int migrateLegacyTokenValues() {
+		int migratedCount = 0;
+		int batchCount;
+		do {
+			batchCount = migrateLegacyTokensBatch();
+			migratedCount += batchCount;
+		} while (batchCount == MIGRATION_BATCH_SIZE);
+		return migratedCount;
+	}
+	
+	private int migrateLegacyTokensBatch() {
+		Bson filter = accessTokenConverter.filterLegacyTokens();
+		return executor.executeIdempotent("migrateLegacyTokens", PROBLEM_MIGRATE_ACCESS_TOKEN, () -> {
+			List<WriteModel<Document>> updates = new ArrayList<>(MIGRATION_BATCH_SIZE);
+			for (Document legacyToken : accessTokenDocuments.find(filter).projection(Projections.include(FIELD_TOKEN)).limit(MIGRATION_BATCH_SIZE)) {
+				Bson sameLegacyToken = Filters.and(Filters.eq(FIELD_ID, legacyToken.get(FIELD_ID)), filter);
+				updates.add(new UpdateOneModel<>(sameLegacyToken, accessTokenConverter.getMigrateToDigestUpdate(legacyToken.getString(FIELD_TOKEN))));
+			}
+			if (!updates.isEmpty()) {
+				accessTokenDocuments.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+			}
+			return updates.size();
+		});
+	}
+	
+	public boolean isLegacyTokensMigrated() {
+		return legacyTokensMigrated;
+	}
+	
 	@Override
 	protected UUID processGetUserIdByAccessToken(String accessToken) {
+		OAuth2AccessToken foundAccessToken = processGetByAccessToken(accessToken);
+		return foundAccessToken == null ? null : foundAccessToken.getuserId();
+	}
+	
+	@Override
+	protected OAuth2AccessToken processGetByAccessToken(String accessToken) {
 		Bson filter = accessTokenConverter.filterByToken(accessToken);
-		OAuth2AccessToken foundAccessToken= null;
-		try {
-			foundAccessToken = accessTokenCollection.find().filter(filter).first();
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_ACCESS_TOKEN);
+		Document foundDoc = executor.executeIdempotent("processGetByAccessToken", PROBLEM_READ_ACCESS_TOKEN, () -> executor.withRemainingTime(accessTokenDocuments.find().filter(filter)).first());
+		if (foundDoc == null && !legacyTokensMigrated) {
+			Bson legacyFilter = accessTokenConverter.filterByLegacyToken(accessToken);
+			foundDoc = executor.executeIdempotent("processGetByAccessToken", PROBLEM_READ_ACCESS_TOKEN, () -> executor.withRemainingTime(accessTokenDocuments.find().filter(legacyFilter)).first());
 		}
-		return foundAccessToken == null ? null : foundAccessToken.getuserId();
+		return accessTokenConverter.fromDocument(foundDoc, accessToken);
 	}
-
+	
 	@Override
-	protected void processCreate(String accessToken, UUID userId) {
+	protected void processCreate(String accessToken, UUID userId, UUID clientId) {
 		OAuth2AccessToken accessTokenToCreate = OAuth2AccessToken.Builder.createDefault()
 			.withRandomId()
 			.withToken(accessToken)
 			.withUserId(userId)
+			.withClientId(clientId)
 			.build();
-		try {
-			accessTokenCollection.insertOne(accessTokenToCreate);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_CREATION_ACCESS_TOKEN);
-		}
+		executor.run("processCreate", PROBLEM_CREATION_ACCESS_TOKEN, () -> accessTokenCollection.insertOne(accessTokenToCreate));
 	}
-
+	
 	@Override
 	protected void processDeleteByAccessToken(String accessToken) {
 		Bson filter = accessTokenConverter.filterByToken(accessToken);
-		try {
-			accessTokenCollection.deleteOne(filter);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_DELETE_ACCESS_TOKEN);
+		executor.runIdempotent("processDeleteByAccessToken", PROBLEM_DELETE_ACCESS_TOKEN, () -> accessTokenDocuments.deleteOne(filter));
+		if (!legacyTokensMigrated) {
+			Bson legacyFilter = accessTokenConverter.filterByLegacyToken(accessToken);
+			executor.runIdempotent("processDeleteByAccessToken", PROBLEM_DELETE_ACCESS_TOKEN, () -> accessTokenDocuments.deleteOne(legacyFilter));
 		}
 	}
 }
@@ -1,5 +1,7 @@
 package yoan.shopping.authentication.repository.mongo;
 
+import static yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository.AUTH_CODE_TTL_IN_MINUTES;
+
 import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.UUID;
@@ -76,4 +78,16 @@ public class OAuth2AuthorizationCodeMongoConverter extends MongoDocumentConverte
    	public Bson filterByCode(String authzCode) {
    		return Filters.eq(FIELD_CODE, authzCode);
    	}
+   	
+   	/**
+   	 * The TTL index only drops the expired codes once a minute, the filter rejects them at once
+   	 * @param authzCode
+   	 * @param now
+   	 * @return filter on a code still valid
+   	 */
+   	public Bson filterRedeemable(String authzCode, LocalDateTime now) {
+   		return Filters.and(
+   			Filters.eq(FIELD_CODE, authzCode),
+   			Filters.gt(FIELD_CREATED, DateHelper.toDate(now.minusMinutes(AUTH_CODE_TTL_IN_MINUTES))));
+   	}
 }
@@ -5,28 +5,28 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepositoryErrorMessage.PROBLEM_CREATION_AUTH_CODE;
 import static yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepositoryErrorMessage.PROBLEM_DELETE_AUTH_CODE;
 import static yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepositoryErrorMessage.PROBLEM_READ_AUTH_CODE;
+import static yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepositoryErrorMessage.PROBLEM_REDEEM_AUTH_CODE;
 import static yoan.shopping.authentication.repository.mongo.OAuth2AuthorizationCodeMongoConverter.FIELD_CODE;
 import static yoan.shopping.authentication.repository.mongo.OAuth2AuthorizationCodeMongoConverter.FIELD_CREATED;
 import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.ASCENDING;
 import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.DESCENDING;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import org.bson.conversions.Bson;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
 
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCode;
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository;
 import yoan.shopping.infra.db.Dbs;
 import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
 import yoan.shopping.infra.db.mongo.MongoIndexEnsurer;
-import yoan.shopping.infra.util.helper.MongoRepositoryHelper;
 
 /**
  * Mongo implementation of the OAuth2 authorization code repository
@@ -39,14 +39,14 @@ public class OAuth2AuthorizationCodeMongoRepository extends OAuth2AuthorizationC
 	
 	private final MongoCollection<OAuth2AuthorizationCode> authCodeCollection;
 	private final OAuth2AuthorizationCodeMongoConverter authCodeConverter;
-	
-	private static final Logger LOGGER = LoggerFactory.getLogger(OAuth2AuthorizationCodeMongoRepository.class);
+	private final MongoOperationExecutor executor;
 	
 	@Inject
 	public OAuth2AuthorizationCodeMongoRepository(MongoDbConnectionFactory mongoConnectionFactory) {
 		requireNonNull(mongoConnectionFactory);
 		authCodeCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING, AUTHZ_CODE_COLLECTION, OAuth2AuthorizationCode.class);
 		authCodeConverter = new OAuth2AuthorizationCodeMongoConverter();
+		executor = mongoConnectionFactory.createOperationExecutor(OAuth2AuthorizationCodeMongoRepository.class);
 		ensureIndexes();
 	}
 	
@@ -63,12 +63,7 @@ public class OAuth2AuthorizationCodeMongoRepository extends OAuth2AuthorizationC
 	@Override
 	protected UUID processGetUserIdByAuthorizationCode(String authzCode) {
 		Bson filter = authCodeConverter.filterByCode(authzCode);
-		OAuth2AuthorizationCode foundAuthCode= null;
-		try {
-			foundAuthCode = authCodeCollection.find().filter(filter).first();
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_AUTH_CODE);
-		}
+		OAuth2AuthorizationCode foundAuthCode = executor.executeIdempotent("processGetUserIdByAuthorizationCode", PROBLEM_READ_AUTH_CODE, () -> executor.withRemainingTime(authCodeCollection.find().filter(filter)).first());
 		return foundAuthCode == null ? null : foundAuthCode.getuserId();
 	}
 
@@ -79,20 +74,21 @@ public class OAuth2AuthorizationCodeMongoRepository extends OAuth2AuthorizationC
 			.withCode(authzCode)
 			.withUserId(userId)
 			.build();
-		try {
-			authCodeCollection.insertOne(authCodeToCreate);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_CREATION_AUTH_CODE);
-		}
+		executor.run("processCreate", PROBLEM_CREATION_AUTH_CODE, () -> authCodeCollection.insertOne(authCodeToCreate));
 	}
 
+	@Override
+	protected UUID processRedeem(String authzCode) {
+		Bson filter = authCodeConverter.filterRedeemable(authzCode, LocalDateTime.now());
+		FindOneAndDeleteOptions options = executor.withRemainingTime(new FindOneAndDeleteOptions());
+		//not retried : the code may be gone already after a lost answer
+		OAuth2AuthorizationCode redeemedAuthCode = executor.execute("processRedeem", PROBLEM_REDEEM_AUTH_CODE, () -> authCodeCollection.findOneAndDelete(filter, options));
+		return redeemedAuthCode == null ? null : redeemedAuthCode.getuserId();
+	}
+	
 	@Override
 	protected void processDeleteByCode(String authzCode) {
 		Bson filter = authCodeConverter.filterByCode(authzCode);
-		try {
-			authCodeCollection.deleteOne(filter);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_DELETE_AUTH_CODE);
-		}
+		executor.runIdempotent("processDeleteByCode", PROBLEM_DELETE_AUTH_CODE, () -> authCodeCollection.deleteOne(filter));
 	}
 }
@@ -0,0 +1,107 @@
+package yoan.shopping.authentication.repository.mongo;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.conversions.Bson;
+
+import com.mongodb.client.model.Filters;
+
+import yoan.shopping.authentication.repository.RefreshToken;
+import yoan.shopping.infra.db.mongo.MongoDocumentConverter;
+import yoan.shopping.infra.util.helper.DateHelper;
+
+/**
+ * MongoDb codec to convert OAuth2 refresh token to BSON
+ * @author yoan
+ */
+public class RefreshTokenMongoConverter extends MongoDocumentConverter<RefreshToken> {
+	public static final String FIELD_TOKEN_HASH = "tokenHash";
+	public static final String FIELD_USER_ID = "userId";
+	public static final String FIELD_CLIENT_ID = "clientId";
+	public static final String FIELD_FAMILY_ID = "familyId";
+	public static final String FIELD_CREATED = "created";
+	public static final String FIELD_EXPIRATION = "expiration";
+	public static final String FIELD_USED = "used";
+	
+	public RefreshTokenMongoConverter() {
+		super();
+	}
+	
+	public RefreshTokenMongoConverter(Codec<Document> codec) {
+		super(codec);
+	}
+	
+	@Override
+	public RefreshToken fromDocument(Document doc) {
+		if (doc == null) {
+			return null;
+		}
+		
+		return RefreshToken.Builder.createDefault()
+			.withId(doc.get(FIELD_ID, UUID.class))
+			.withTokenHash(doc.getString(FIELD_TOKEN_HASH))
+			.withUserId(doc.get(FIELD_USER_ID, UUID.class))
+			.withClientId(doc.get(FIELD_CLIENT_ID, UUID.class))
+			.withFamilyId(doc.get(FIELD_FAMILY_ID, UUID.class))
+			.withCreationDate(DateHelper.toLocalDateTime(doc.getDate(FIELD_CREATED)))
+			.withExpirationDate(DateHelper.toLocalDateTime(doc.getDate(FIELD_EXPIRATION)))
+			.withUsedDate(DateHelper.toLocalDateTime(doc.getDate(FIELD_USED)))
+			.build();
+	}
+	
+	@Override
+	public Document toDocument(RefreshToken refreshToken) {
+		if (refreshToken == null) {
+			return new Document();
+		}
+		
+		return new Document(FIELD_ID, refreshToken.getId())
+			.append(FIELD_TOKEN_HASH, refreshToken.getTokenHash())
+			.append(FIELD_USER_ID, refreshToken.getUserId())
+			.append(FIELD_CLIENT_ID, refreshToken.getClientId())
+			.append(FIELD_FAMILY_ID, refreshToken.getFamilyId())
+			.append(FIELD_CREATED, DateHelper.toDate(refreshToken.getCreationDate()))
+			.append(FIELD_EXPIRATION, DateHelper.toDate(refreshToken.getExpirationDate()))
+			.append(FIELD_USED, DateHelper.toDate(refreshToken.getUsedDate()));
+	}
+	
+	@Override
+	public Class<RefreshToken> getEncoderClass() {
+		return RefreshToken.class;
+	}
+	
+	@Override
+	public RefreshToken generateIdIfAbsentFromDocument(RefreshToken refreshToken) {
+		return documentHasId(refreshToken) ? refreshToken : RefreshToken.Builder.createFrom(refreshToken).withRandomId().build();
+	}
+	
+	public Bson filterByTokenHash(String tokenHash) {
+		return Filters.eq(FIELD_TOKEN_HASH, tokenHash);
+	}
+	
+	/**
+	 * Match the token only while it can be exchanged
+	 * @param tokenHash
+	 * @param clientId : client presenting the token
+	 * @param now
+	 * @return filter on the unused and unexpired token of the client
+	 */
+	public Bson filterRedeemable(String tokenHash, UUID clientId, LocalDateTime now) {
+		return Filters.and(
+			Filters.eq(FIELD_TOKEN_HASH, tokenHash),
+			Filters.eq(FIELD_CLIENT_ID, clientId),
+			Filters.eq(FIELD_USED, null),
+			Filters.gt(FIELD_EXPIRATION, DateHelper.toDate(now)));
+	}
+	
+	public Bson filterByFamilyId(UUID familyId) {
+		return Filters.eq(FIELD_FAMILY_ID, familyId);
+	}
+	
+	public Document getRedeemUpdate(LocalDateTime usedDate) {
+		return new Document("$set", new Document(FIELD_USED, DateHelper.toDate(usedDate)));
+	}
+}
@@ -0,0 +1,91 @@
+package yoan.shopping.authentication.repository.mongo;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static yoan.shopping.authentication.repository.RefreshTokenRepositoryErrorMessage.PROBLEM_CREATION_REFRESH_TOKEN;
+import static yoan.shopping.authentication.repository.RefreshTokenRepositoryErrorMessage.PROBLEM_DELETE_REFRESH_TOKEN;
+import static yoan.shopping.authentication.repository.RefreshTokenRepositoryErrorMessage.PROBLEM_READ_REFRESH_TOKEN;
+import static yoan.shopping.authentication.repository.RefreshTokenRepositoryErrorMessage.PROBLEM_REDEEM_REFRESH_TOKEN;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_EXPIRATION;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_FAMILY_ID;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_TOKEN_HASH;
+import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.ASCENDING;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.bson.conversions.Bson;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+
+import yoan.shopping.authentication.repository.RefreshToken;
+import yoan.shopping.authentication.repository.RefreshTokenRepository;
+import yoan.shopping.infra.db.Dbs;
+import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+import yoan.shopping.infra.db.mongo.MongoIndexEnsurer;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
+
+/**
+ * Mongo implementation of the OAuth2 refresh token repository
+ * Used tokens are kept until their expiration to detect a replay, then removed by a TTL index
+ * @author yoan
+ */
+@Singleton
+public class RefreshTokenMongoRepository extends RefreshTokenRepository {
+	public static final String REFRESH_TOKEN_COLLECTION = "refreshToken";
+	
+	private final MongoCollection<RefreshToken> refreshTokenCollection;
+	private final RefreshTokenMongoConverter refreshTokenConverter;
+	private final MongoOperationExecutor executor;
+	
+	@Inject
+	public RefreshTokenMongoRepository(MongoDbConnectionFactory mongoConnectionFactory) {
+		requireNonNull(mongoConnectionFactory);
+		refreshTokenCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING, REFRESH_TOKEN_COLLECTION, RefreshToken.class);
+		refreshTokenConverter = new RefreshTokenMongoConverter();
+		executor = mongoConnectionFactory.createOperationExecutor(RefreshTokenMongoRepository.class);
+		ensureIndexes();
+	}
+	
+	private void ensureIndexes() {
+		MongoIndexEnsurer indexEnsurer = new MongoIndexEnsurer(refreshTokenCollection);
+		indexEnsurer.logStartEnsuringIndexes();
+		
+		indexEnsurer.ensureUniqueIndex(FIELD_TOKEN_HASH, ASCENDING);
+		indexEnsurer.ensureIndex(FIELD_FAMILY_ID, ASCENDING);
+		//expire the document at the token expiration date
+		indexEnsurer.ensureTTLIndex(FIELD_EXPIRATION, ASCENDING, 0, SECONDS);
+		
+		indexEnsurer.logEndEnsuringIndexes();
+	}
+	
+	@Override
+	protected void processCreate(RefreshToken refreshToken) {
+		executor.run("processCreate", PROBLEM_CREATION_REFRESH_TOKEN, () -> refreshTokenCollection.insertOne(refreshToken));
+	}
+	
+	@Override
+	protected RefreshToken processGetByTokenHash(String tokenHash) {
+		Bson filter = refreshTokenConverter.filterByTokenHash(tokenHash);
+		return executor.executeIdempotent("processGetByTokenHash", PROBLEM_READ_REFRESH_TOKEN, () -> executor.withRemainingTime(refreshTokenCollection.find().filter(filter)).first());
+	}
+	
+	@Override
+	protected RefreshToken processRedeem(String tokenHash, UUID clientId, LocalDateTime now) {
+		Bson filter = refreshTokenConverter.filterRedeemable(tokenHash, clientId, now);
+		Bson update = refreshTokenConverter.getRedeemUpdate(now);
+		FindOneAndUpdateOptions options = executor.withRemainingTime(new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE));
+		//not retried : a replay after a lost answer would look like a reused token
+		return executor.execute("processRedeem", PROBLEM_REDEEM_REFRESH_TOKEN, () -> refreshTokenCollection.findOneAndUpdate(filter, update, options));
+	}
+	
+	@Override
+	protected void processDeleteByFamilyId(UUID familyId) {
+		Bson filter = refreshTokenConverter.filterByFamilyId(familyId);
+		executor.runIdempotent("processDeleteByFamilyId", PROBLEM_DELETE_REFRESH_TOKEN, () -> refreshTokenCollection.deleteMany(filter));
+	}
+}
@@ -0,0 +1,83 @@
+package yoan.shopping.authentication.repository.mongo;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.conversions.Bson;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+
+import yoan.shopping.authentication.repository.RevokedAccessToken;
+import yoan.shopping.infra.db.mongo.MongoDocumentConverter;
+import yoan.shopping.infra.util.helper.DateHelper;
+
+/**
+ * MongoDb codec to convert revoked access token to BSON
+ * @author yoan
+ */
+public class RevokedAccessTokenMongoConverter extends MongoDocumentConverter<RevokedAccessToken> {
+	public static final String FIELD_EXPIRATION = "expiration";
+	public static final String FIELD_REVOKED = "revoked";
+	
+	public RevokedAccessTokenMongoConverter() {
+		super();
+	}
+	
+	public RevokedAccessTokenMongoConverter(Codec<Document> codec) {
+		super(codec);
+	}
+	
+	@Override
+	public RevokedAccessToken fromDocument(Document doc) {
+		if (doc == null) {
+			return null;
+		}
+		
+		UUID id = doc.get(FIELD_ID, UUID.class);
+		LocalDateTime expirationDate = DateHelper.toLocalDateTime(doc.getDate(FIELD_EXPIRATION));
+		LocalDateTime revocationDate = DateHelper.toLocalDateTime(doc.getDate(FIELD_REVOKED));
+		
+		return RevokedAccessToken.Builder.createDefault()
+			.withId(id)
+			.withExpirationDate(expirationDate)
+			.withRevocationDate(revocationDate)
+			.build();
+	}
+	
+	@Override
+	public Document toDocument(RevokedAccessToken revokedToken) {
+		if (revokedToken == null) {
+			return new Document();
+		}
+		
+		return new Document(FIELD_ID, revokedToken.getId())
+			.append(FIELD_EXPIRATION, DateHelper.toDate(revokedToken.getExpirationDate()))
+			.append(FIELD_REVOKED, DateHelper.toDate(revokedToken.getRevocationDate()));
+	}
+	
+	@Override
+	public Class<RevokedAccessToken> getEncoderClass() {
+		return RevokedAccessToken.class;
+	}
+	
+	@Override
+	public RevokedAccessToken generateIdIfAbsentFromDocument(RevokedAccessToken revokedToken) {
+		//the id is the revoked token id, it can not be generated
+		return revokedToken;
+	}
+	
+	public Bson filterById(UUID tokenId) {
+		return Filters.eq(FIELD_ID, tokenId);
+	}
+	
+	public Bson filterByRevokedSince(LocalDateTime since) {
+		return since == null ? new Document() : Filters.gte(FIELD_REVOKED, DateHelper.toDate(since));
+	}
+	
+	public Bson sortByRevocationDate() {
+		return Sorts.ascending(FIELD_REVOKED);
+	}
+}
@@ -0,0 +1,76 @@
+package yoan.shopping.authentication.repository.mongo;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static yoan.shopping.authentication.repository.RevokedAccessTokenRepositoryErrorMessage.PROBLEM_READ_REVOKED_ACCESS_TOKENS;
+import static yoan.shopping.authentication.repository.RevokedAccessTokenRepositoryErrorMessage.PROBLEM_REVOKE_ACCESS_TOKEN;
+import static yoan.shopping.authentication.repository.mongo.RevokedAccessTokenMongoConverter.FIELD_EXPIRATION;
+import static yoan.shopping.authentication.repository.mongo.RevokedAccessTokenMongoConverter.FIELD_REVOKED;
+import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.ASCENDING;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.conversions.Bson;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOptions;
+
+import yoan.shopping.authentication.repository.RevokedAccessToken;
+import yoan.shopping.authentication.repository.RevokedAccessTokenRepository;
+import yoan.shopping.infra.db.Dbs;
+import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+import yoan.shopping.infra.db.mongo.MongoIndexEnsurer;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
+
+/**
+ * Mongo implementation of the revoked access token repository
+ * Revocations are removed by a TTL index once the token expires
+ * @author yoan
+ */
+@Singleton
+public class RevokedAccessTokenMongoRepository extends RevokedAccessTokenRepository {
+	public static final String REVOKED_ACCESS_TOKEN_COLLECTION = "revokedAccessToken";
+	
+	private final MongoCollection<RevokedAccessToken> revokedTokenCollection;
+	private final RevokedAccessTokenMongoConverter revokedTokenConverter;
+	private final MongoOperationExecutor executor;
+	
+	@Inject
+	public RevokedAccessTokenMongoRepository(MongoDbConnectionFactory mongoConnectionFactory) {
+		requireNonNull(mongoConnectionFactory);
+		revokedTokenCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING, REVOKED_ACCESS_TOKEN_COLLECTION, RevokedAccessToken.class);
+		revokedTokenConverter = new RevokedAccessTokenMongoConverter();
+		executor = mongoConnectionFactory.createOperationExecutor(RevokedAccessTokenMongoRepository.class);
+		ensureIndexes();
+	}
+	
+	private void ensureIndexes() {
+		MongoIndexEnsurer indexEnsurer = new MongoIndexEnsurer(revokedTokenCollection);
+		indexEnsurer.logStartEnsuringIndexes();
+		
+		//expire the document at the token expiration date
+		indexEnsurer.ensureTTLIndex(FIELD_EXPIRATION, ASCENDING, 0, SECONDS);
+		indexEnsurer.ensureIndex(FIELD_REVOKED, ASCENDING);
+		
+		indexEnsurer.logEndEnsuringIndexes();
+	}
+	
+	@Override
+	protected void processRevoke(RevokedAccessToken revokedToken) {
+		Bson filter = revokedTokenConverter.filterById(revokedToken.getId());
+		UpdateOptions upsert = new UpdateOptions().upsert(true);
+		executor.runIdempotent("processRevoke", PROBLEM_REVOKE_ACCESS_TOKEN, () -> revokedTokenCollection.replaceOne(filter, revokedToken, upsert));
+	}
+	
+	@Override
+	protected List<RevokedAccessToken> processFindRevokedSince(LocalDateTime since) {
+		Bson filter = revokedTokenConverter.filterByRevokedSince(since);
+		Bson sort = revokedTokenConverter.sortByRevocationDate();
+		return executor.executeIdempotent("processFindRevokedSince", PROBLEM_READ_REVOKED_ACCESS_TOKENS,
+			() -> executor.withRemainingTime(revokedTokenCollection.find().filter(filter).sort(sort)).into(new ArrayList<>()));
+	}
+}
@@ -15,6 +15,8 @@ import java.net.URISyntaxException;
 import java.util.UUID;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -42,13 +44,13 @@ import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import yoan.shopping.authentication.jwt.JwtAccessTokenCodec;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository;
 import yoan.shopping.client.app.ClientApp;
 import yoan.shopping.client.app.repository.ClientAppRepository;
 import yoan.shopping.infra.rest.error.WebApiException;
 import yoan.shopping.infra.util.ResourceUtil;
-import yoan.shopping.infra.util.helper.SecurityHelper;
 import yoan.shopping.user.User;
 
 /**
@@ -57,20 +59,23 @@ import yoan.shopping.user.User;
  */
 @Path("/auth/authorization")
 @Api(value = "Oauth2 Authorization")
+@Singleton
 public class AuthorizationResource {
 	
-	/** Currently connected user */
-	private final User authenticatedUser;
+	/** Currently connected user, resolved for each request */
+	private final Provider<User> authenticatedUserProvider;
 	private final OAuth2AuthorizationCodeRepository authzCodeRepository;
 	private final OAuth2AccessTokenRepository accessTokenRepository;
 	private final ClientAppRepository clientAppRepository;
+	private final JwtAccessTokenCodec accessTokenCodec;
 	
 	@Inject
-	public AuthorizationResource(@Named(CONNECTED_USER) User authenticatedUser, OAuth2AuthorizationCodeRepository authzCodeRepository, OAuth2AccessTokenRepository accessTokenRepository, ClientAppRepository clientAppRepository) {
-		this.authenticatedUser = requireNonNull(authenticatedUser);
+	public AuthorizationResource(@Named(CONNECTED_USER) Provider<User> authenticatedUserProvider, OAuth2AuthorizationCodeRepository authzCodeRepository, OAuth2AccessTokenRepository accessTokenRepository, ClientAppRepository clientAppRepository, JwtAccessTokenCodec accessTokenCodec) {
+		this.authenticatedUserProvider = requireNonNull(authenticatedUserProvider);
 		this.authzCodeRepository = requireNonNull(authzCodeRepository);
 		this.accessTokenRepository = requireNonNull(accessTokenRepository);
 		this.clientAppRepository = requireNonNull(clientAppRepository);
+		this.accessTokenCodec = requireNonNull(accessTokenCodec);
 	}
 	
 	@GET
@@ -134,12 +139,13 @@ public class AuthorizationResource {
 	protected String generateAuthorizationCode() throws OAuthSystemException {
 		OAuthIssuer oauthIssuer = new OAuthIssuerImpl(new MD5Generator());
 		String authorizationCode = oauthIssuer.authorizationCode();
-		authzCodeRepository.create(authorizationCode, authenticatedUser.getId());
+		authzCodeRepository.create(authorizationCode, authenticatedUserProvider.get().getId());
 		return authorizationCode;
 	}
 	
 	protected String generateAccessToken() {
-		String accessToken = SecurityHelper.generateJWT(authenticatedUser.getId());
+		User authenticatedUser = authenticatedUserProvider.get();
+		String accessToken = accessTokenCodec.encode(authenticatedUser);
 		accessTokenRepository.create(accessToken, authenticatedUser.getId());
 		return accessToken;
 	}
@@ -155,11 +161,12 @@ public class AuthorizationResource {
 	}
 	
 	private void ensureRedirectURI(ClientApp clientApp, String redirectUriStr) {
-		URI redirectURI = ensureValidRedirectURI(redirectUriStr);
-		
-		if (!clientApp.getRedirectURI().equals(redirectURI)) {
-			throw new WebApiException(BAD_REQUEST, WARNING, API_RESPONSE, INVALID_REDIRECT_URI.getDevReadableMessage(redirectUriStr));
+		if (clientAppRepository.getRegisteredRedirectURI(clientApp).matches(redirectUriStr)) {
+			return;
 		}
+		//tell a missing or unreadable redirect URI apart from another one
+		ensureValidRedirectURI(redirectUriStr);
+		throw new WebApiException(BAD_REQUEST, WARNING, API_RESPONSE, INVALID_REDIRECT_URI.getDevReadableMessage(redirectUriStr));
 	}
 	
 	private URI ensureValidRedirectURI(String redirectURI) {
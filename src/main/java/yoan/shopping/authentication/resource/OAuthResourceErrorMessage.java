@@ -10,6 +10,8 @@ import yoan.shopping.infra.util.error.ErrorMessage;
  * @author yoan
  */
 public enum OAuthResourceErrorMessage implements ErrorMessage {
+	/** Too many token requests from client with id : %s */
+	CLIENT_THROTTLED("Too many token requests from client with id : %s"),
 	/** Grant type %s is not implemented */
 	GRANT_TYPE_NOT_IMPLEMENTED("Grant type %s is not implemented"),
 	/** Invalid authorization code : %s */
@@ -18,12 +20,16 @@ public enum OAuthResourceErrorMessage implements ErrorMessage {
 	INVALID_CLIENT_SECRET("Invalid secret for client with id : %s"),
 	/** Invalid OAuth callback URL provided by client : %s */
 	INVALID_REDIRECT_URI("Invalid OAuth callback URL provided by client : %s"),
+	/** Invalid refresh token : unknown, expired, already used or issued to another client */
+	INVALID_REFRESH_TOKEN("Invalid refresh token : unknown, expired, already used or issued to another client"),
 	/** OAuth client secret needs to be provided by client! */
 	MISSING_CLIENT_SECRET("OAuth client secret needs to be provided by client!"),
 	/** OAuth callback url needs to be provided by client! */
 	MISSING_REDIRECT_URI("OAuth callback URL needs to be provided by client!"),
 	/** Client with id %s is unknown */
-	UNKNOWN_CLIENT("Client with id %s is unknown");
+	UNKNOWN_CLIENT("Client with id %s is unknown"),
+	/** Owner of client with id %s is unknown */
+	UNKNOWN_CLIENT_OWNER("Owner of client with id %s is unknown");
 	
 	private String message;
 	
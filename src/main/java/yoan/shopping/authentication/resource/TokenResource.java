@@ -2,14 +2,18 @@ package yoan.shopping.authentication.resource;
 
 import static java.util.Objects.requireNonNull;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.CLIENT_THROTTLED;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.GRANT_TYPE_NOT_IMPLEMENTED;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.INVALID_AUTHZ_CODE;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.INVALID_CLIENT_SECRET;
+import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.INVALID_REFRESH_TOKEN;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.MISSING_CLIENT_SECRET;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.UNKNOWN_CLIENT;
+import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.UNKNOWN_CLIENT_OWNER;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.rest.error.Level.WARNING;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.CommonErrorCode.TOO_MANY_REQUESTS;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
@@ -17,9 +21,11 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.Consumes;
@@ -30,6 +36,8 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.oltu.oauth2.as.issuer.MD5Generator;
+import org.apache.oltu.oauth2.as.issuer.OAuthIssuerImpl;
 import org.apache.oltu.oauth2.as.request.OAuthTokenRequest;
 import org.apache.oltu.oauth2.as.response.OAuthASResponse;
 import org.apache.oltu.oauth2.common.OAuth;
@@ -39,33 +47,59 @@ import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
 import org.apache.oltu.oauth2.common.message.OAuthResponse;
 import org.apache.oltu.oauth2.common.message.types.GrantType;
 
+import yoan.shopping.authentication.jwt.JwtAccessTokenCodec;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository;
+import yoan.shopping.authentication.repository.RefreshToken;
+import yoan.shopping.authentication.repository.RefreshTokenRepository;
 import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.ClientAppPrincipal;
 import yoan.shopping.client.app.repository.ClientAppRepository;
+import yoan.shopping.client.app.repository.ClientSecretVerifier;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.config.filter.RateLimitFilter;
+import yoan.shopping.infra.ratelimit.RateLimitDecision;
+import yoan.shopping.infra.ratelimit.RateLimitKey.Dimension;
+import yoan.shopping.infra.ratelimit.RateLimiter;
 import yoan.shopping.infra.rest.error.WebApiException;
+import yoan.shopping.infra.security.LoginAttemptTracker;
 import yoan.shopping.infra.util.ResourceUtil;
-import yoan.shopping.infra.util.helper.SecurityHelper;
+import yoan.shopping.infra.util.error.RetryLaterException;
 import yoan.shopping.user.SecuredUser;
+import yoan.shopping.user.User;
 import yoan.shopping.user.repository.SecuredUserRepository;
 
 @Path("/auth/token")
 @Api(value = "Oauth2 Token")
+@Singleton
 public class TokenResource {
 
 	private final OAuth2AuthorizationCodeRepository authzCodeRepository;
 	private final OAuth2AccessTokenRepository accessTokenRepository;
 	private final ClientAppRepository clientAppRepository;
+	private final ClientSecretVerifier clientSecretVerifier;
 	private final SecuredUserRepository userRepository;
+	private final JwtAccessTokenCodec accessTokenCodec;
+	private final RefreshTokenRepository refreshTokenRepository;
+	private final LoginAttemptTracker loginAttemptTracker;
+	private final RateLimiter rateLimiter;
+	private final Config config;
 
 	public static final String INVALID_CLIENT_DESCRIPTION = "Client authentication failed (e.g., unknown client, no client authentication included, or unsupported authentication method).";
 	
 	@Inject
-	public TokenResource(OAuth2AuthorizationCodeRepository authzCodeRepository, OAuth2AccessTokenRepository accessTokenRepository, ClientAppRepository clientAppRepository, SecuredUserRepository userRepository) {
+	public TokenResource(OAuth2AuthorizationCodeRepository authzCodeRepository, OAuth2AccessTokenRepository accessTokenRepository, ClientAppRepository clientAppRepository, SecuredUserRepository userRepository, JwtAccessTokenCodec accessTokenCodec,
+			RefreshTokenRepository refreshTokenRepository, ClientSecretVerifier clientSecretVerifier, LoginAttemptTracker loginAttemptTracker, RateLimiter rateLimiter, Config config) {
 		this.authzCodeRepository = requireNonNull(authzCodeRepository);
 		this.accessTokenRepository = requireNonNull(accessTokenRepository);
 		this.clientAppRepository = requireNonNull(clientAppRepository);
 		this.userRepository = requireNonNull(userRepository);
+		this.accessTokenCodec = requireNonNull(accessTokenCodec);
+		this.refreshTokenRepository = requireNonNull(refreshTokenRepository);
+		this.clientSecretVerifier = requireNonNull(clientSecretVerifier);
+		this.loginAttemptTracker = requireNonNull(loginAttemptTracker);
+		this.rateLimiter = requireNonNull(rateLimiter);
+		this.config = requireNonNull(config);
 	}
 
 	@POST
@@ -80,12 +114,14 @@ public class TokenResource {
 	    @ApiImplicitParam(name = "code", value = "Authorization code", required = false, dataType = "string", paramType = "form"),
 	    @ApiImplicitParam(name = "username", value = "User email adress", required = false, dataType = "string", paramType = "form"),
 	    @ApiImplicitParam(name = "password", value = "User password", required = false, dataType = "string", paramType = "form"),
+	    @ApiImplicitParam(name = "refresh_token", value = "Refresh token", required = false, dataType = "string", paramType = "form"),
 	  })
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Response with access token in payload"), @ApiResponse(code = 401, message = "Not authenticated") })
 	public Response authorize(@Context HttpServletRequest request) throws OAuthSystemException {
 		try {
 			OAuthTokenRequest oauthRequest = new OAuthTokenRequest(request);
-			OAuthResponse response = handleTokenRequest(oauthRequest);
+			String route = rateLimiter.getRoute(RateLimitFilter.getPath(request));
+			OAuthResponse response = handleTokenRequest(oauthRequest, request.getRemoteAddr(), route);
 			return Response.status(response.getResponseStatus()).entity(response.getBody()).build();
 		} catch(OAuthProblemException problem) {
 			return handleOAuthProblem(problem);
@@ -94,30 +130,54 @@ public class TokenResource {
 		}
 	}
 
-	protected OAuthResponse handleTokenRequest(OAuthTokenRequest oauthRequest) throws OAuthSystemException {
-		ClientApp clientApp = ensureClientExists(oauthRequest);
-		
-		UUID userId;
+	protected OAuthResponse handleTokenRequest(OAuthTokenRequest oauthRequest, String remoteAddress, String route) throws OAuthSystemException {
 		GrantType grantType = extractGrantType(oauthRequest);
+		ClientApp clientApp = grantType == GrantType.CLIENT_CREDENTIALS ? ensureAuthenticatedClient(oauthRequest) : ensureClientExists(oauthRequest);
+		
+		User user;
+		//a new grant starts a new rotation chain
+		UUID refreshTokenFamilyId = UUID.randomUUID();
 		switch (grantType) {
 			case AUTHORIZATION_CODE :
-				userId = authorizeWithCode(oauthRequest, clientApp);
+				user = authorizeWithCode(oauthRequest, clientApp, route, remoteAddress);
 				break;
 			case PASSWORD :
-				userId = authorizeWithPassword(oauthRequest);
+				user = authorizeWithPassword(oauthRequest, remoteAddress);
 				break;
 			case REFRESH_TOKEN :
-				//TODO implement OAuth2 refresh token grant
+				RefreshToken redeemedToken = redeemRefreshToken(oauthRequest, clientApp);
+				user = findRefreshTokenOwner(redeemedToken);
+				refreshTokenFamilyId = redeemedToken.getFamilyId();
+				break;
 			case CLIENT_CREDENTIALS :
-				//TODO implement OAuth2 client credentials grant
+				chargeClient(clientApp, route, remoteAddress);
+				return issueClientToken(clientApp);
 			default:
 				throw new WebApiException(BAD_REQUEST, WARNING, API_RESPONSE, GRANT_TYPE_NOT_IMPLEMENTED.getDevReadableMessage(grantType.toString()));
 		}
 		
-		String accessToken = generateAccessToken(userId);
+		String accessToken = generateAccessToken(user);
 
-		OAuthResponse response = OAuthASResponse.tokenResponse(HttpServletResponse.SC_OK).setAccessToken(accessToken).setExpiresIn("3600").buildJSONMessage();
-		return response;
+		return OAuthASResponse.tokenResponse(HttpServletResponse.SC_OK).setAccessToken(accessToken).setExpiresIn("3600")
+			.setRefreshToken(generateRefreshToken(user, clientApp, refreshTokenFamilyId))
+			.buildJSONMessage();
+	}
+	
+	/**
+	 * Issue the token of the client credentials grant : its principal is the app itself, with the app scope only
+	 * The app never gets the rights of its owner, it would act for the owner without the owner consent
+	 * The client authenticates again with its own credentials, it gets no refresh token
+	 * @param clientApp : authenticated client
+	 * @return token response
+	 * @throws OAuthSystemException
+	 */
+	private OAuthResponse issueClientToken(ClientApp clientApp) throws OAuthSystemException {
+		//an app whose owner was deleted gets nothing
+		User owner = findClientOwner(clientApp);
+		String accessToken = generateClientAccessToken(clientApp, owner);
+		return OAuthASResponse.tokenResponse(HttpServletResponse.SC_OK).setAccessToken(accessToken).setExpiresIn("3600")
+			.setScope(ClientAppPrincipal.APP_SCOPE)
+			.buildJSONMessage();
 	}
 
 	private GrantType extractGrantType(OAuthTokenRequest oauthRequest) {
@@ -125,8 +185,12 @@ public class TokenResource {
 		return GrantType.valueOf(grantTypeParam.toUpperCase());
 	}
 	
+	private UUID extractClientId(OAuthTokenRequest oauthRequest) {
+		return ResourceUtil.getIdfromParam(OAuth.OAUTH_CLIENT_ID, oauthRequest.getParam(OAuth.OAUTH_CLIENT_ID));
+	}
+	
 	private ClientApp ensureClientExists(OAuthTokenRequest oauthRequest) {
-		UUID clientId = ResourceUtil.getIdfromParam(OAuth.OAUTH_CLIENT_ID, oauthRequest.getParam(OAuth.OAUTH_CLIENT_ID));
+		UUID clientId = extractClientId(oauthRequest);
 		ClientApp clientApp = clientAppRepository.getById(clientId);
 		if (clientApp == null) {
 			throw new WebApiException(BAD_REQUEST, WARNING, API_RESPONSE, UNKNOWN_CLIENT.getDevReadableMessage(clientId.toString()));
@@ -138,19 +202,63 @@ public class TokenResource {
 		if (StringUtils.isBlank(secret)) {
 			throw new WebApiException(BAD_REQUEST, INFO, API_RESPONSE, MISSING_CLIENT_SECRET);
 		}
-		String hashedSecret  = clientAppRepository.hashSecret(secret, clientApp.getSalt());
-		return clientApp.getSecret().equals(hashedSecret);
+		return clientSecretVerifier.verify(clientApp, secret);
+	}
+	
+	/**
+	 * Authenticate the client with its secret, a recently verified client is not read again
+	 * @param oauthRequest
+	 * @return authenticated client app
+	 * @throws OAuthSystemException
+	 */
+	private ClientApp ensureAuthenticatedClient(OAuthTokenRequest oauthRequest) throws OAuthSystemException {
+		String clientSecret = oauthRequest.getParam(OAuth.OAUTH_CLIENT_SECRET);
+		ClientApp verifiedClient = clientSecretVerifier.getVerifiedClient(extractClientId(oauthRequest), clientSecret);
+		if (verifiedClient != null) {
+			return verifiedClient;
+		}
+		ClientApp clientApp = ensureClientExists(oauthRequest);
+		ensureTrustedClient(oauthRequest, clientApp);
+		return clientApp;
+	}
+	
+	private User findClientOwner(ClientApp clientApp) throws OAuthSystemException {
+		SecuredUser owner = userRepository.getById(clientApp.getOwnerId());
+		if (owner == null) {
+			throw new OAuthException(buildUnknownClientOwnerResponse(clientApp));
+		}
+		return owner;
 	}
 
-	private UUID authorizeWithCode(OAuthTokenRequest oauthRequest, ClientApp clientApp) throws OAuthSystemException {
+	private User authorizeWithCode(OAuthTokenRequest oauthRequest, ClientApp clientApp, String route, String remoteAddress) throws OAuthSystemException {
 		ensureTrustedClient(oauthRequest, clientApp);
+		chargeClient(clientApp, route, remoteAddress);
 		String authzCode = oauthRequest.getCode();
-		UUID userId = findUserIdByAuthCode(authzCode);
-		if (userId == null) {
+		//single use : a concurrent exchange of the same code gets nothing
+		UUID userId = authzCodeRepository.redeem(authzCode);
+		//the token claims carry the user details
+		SecuredUser foundUser = userId == null ? null : userRepository.getById(userId);
+		if (foundUser == null) {
 			throw new OAuthException(buildBadAuthCodeResponse(authzCode));
 		}
-		authzCodeRepository.deleteByCode(authzCode);
-		return userId;
+		return foundUser;
+	}
+	
+	/**
+	 * Take a token from the bucket of an authenticated client app, whatever source IPs it uses
+	 * Only a client proven by its secret is charged, a bare client Id could drain the bucket of another app
+	 * The source IP gets its token back when the client is throttled, a rejected request costs nothing
+	 * @param clientApp : authenticated client
+	 * @param route : rate limit route group of the request
+	 * @param remoteAddress : source IP
+	 * @throws RetryLaterException if the client app sent too many requests
+	 */
+	private void chargeClient(ClientApp clientApp, String route, String remoteAddress) {
+		RateLimitDecision decision = rateLimiter.tryAcquire(route, Dimension.CLIENT, clientApp.getId().toString());
+		if (!decision.isAllowed()) {
+			rateLimiter.release(route, Dimension.IP, StringUtils.defaultString(remoteAddress));
+			throw new RetryLaterException(INFO, TOO_MANY_REQUESTS, CLIENT_THROTTLED.getDevReadableMessage(clientApp.getId().toString()), decision.getRetryAfterInSeconds());
+		}
 	}
 	
 	private void ensureTrustedClient(OAuthTokenRequest oauthRequest, ClientApp clientApp) throws OAuthSystemException {
@@ -160,31 +268,87 @@ public class TokenResource {
 		}
 	}
 	
-	private UUID findUserIdByAuthCode(String authCode) {
-		return authzCodeRepository.getUserIdByAuthorizationCode(authCode);
-	}
-
-	private UUID authorizeWithPassword(OAuthTokenRequest oauthRequest) throws OAuthSystemException {
+	/**
+	 * Authenticate the user by email and password, unless the email or the source IP is locked out after too many failures
+	 * @param oauthRequest
+	 * @param remoteAddress : source IP
+	 * @return authenticated user
+	 * @throws OAuthSystemException
+	 */
+	private User authorizeWithPassword(OAuthTokenRequest oauthRequest, String remoteAddress) throws OAuthSystemException {
 		String userEmail = oauthRequest.getUsername();
 		String password =  oauthRequest.getPassword();
+		loginAttemptTracker.checkAllowed(userEmail, remoteAddress);
 		SecuredUser foundUser = userRepository.getByEmail(userEmail);
-		if (foundUser == null || !checkUserPassword(foundUser, password)) {
+		if (foundUser == null || !userRepository.checkPassword(foundUser, password)) {
+			loginAttemptTracker.recordFailure(userEmail, remoteAddress);
 			throw new OAuthException(buildInvalidUserPassResponse());
 		}
-		return foundUser.getId();
+		loginAttemptTracker.recordSuccess(userEmail);
+		return foundUser;
+	}
+	
+	/**
+	 * Exchange the refresh token, it can not be used again
+	 * @param oauthRequest
+	 * @param clientApp : client presenting the token
+	 * @return redeemed token
+	 * @throws OAuthSystemException
+	 */
+	private RefreshToken redeemRefreshToken(OAuthTokenRequest oauthRequest, ClientApp clientApp) throws OAuthSystemException {
+		RefreshToken redeemedToken = refreshTokenRepository.redeem(oauthRequest.getRefreshToken(), clientApp.getId());
+		if (redeemedToken == null) {
+			throw new OAuthException(buildInvalidRefreshTokenResponse());
+		}
+		return redeemedToken;
 	}
 	
-	private boolean checkUserPassword(SecuredUser foundUser, String password) {
-		String hashedPassword = userRepository.hashPassword(password, foundUser.getSalt());
-		return foundUser.getPassword().equals(hashedPassword);
+	private User findRefreshTokenOwner(RefreshToken redeemedToken) throws OAuthSystemException {
+		//the token claims carry the user details
+		SecuredUser foundUser = userRepository.getById(redeemedToken.getUserId());
+		if (foundUser == null) {
+			throw new OAuthException(buildInvalidRefreshTokenResponse());
+		}
+		return foundUser;
+	}
+	
+	protected String generateAccessToken(User user) {
+		String accessToken = accessTokenCodec.encode(user);
+		accessTokenRepository.create(accessToken, user.getId());
+		return accessToken;
 	}
 	
-	protected String generateAccessToken(UUID userId) {
-		String accessToken = SecurityHelper.generateJWT(userId);
-		accessTokenRepository.create(accessToken, userId);
+	protected String generateClientAccessToken(ClientApp clientApp, User owner) {
+		String accessToken = accessTokenCodec.encode(clientApp);
+		//stored with the owner ID too : a token always belongs to a user in the store
+		accessTokenRepository.create(accessToken, owner.getId(), clientApp.getId());
 		return accessToken;
 	}
 	
+	/**
+	 * Issue a refresh token, only its hash is stored
+	 * @param user
+	 * @param clientApp : client the token is bound to
+	 * @param familyId : rotation chain of the token
+	 * @return refresh token
+	 * @throws OAuthSystemException
+	 */
+	protected String generateRefreshToken(User user, ClientApp clientApp, UUID familyId) throws OAuthSystemException {
+		String refreshToken = new OAuthIssuerImpl(new MD5Generator()).refreshToken();
+		LocalDateTime now = LocalDateTime.now();
+		RefreshToken refreshTokenToCreate = RefreshToken.Builder.createDefault()
+			.withRandomId()
+			.withTokenHash(RefreshTokenRepository.hashToken(refreshToken))
+			.withUserId(user.getId())
+			.withClientId(clientApp.getId())
+			.withFamilyId(familyId)
+			.withCreationDate(now)
+			.withExpirationDate(now.plusDays(config.getRefreshTokenTtlInDays()))
+			.build();
+		refreshTokenRepository.create(refreshTokenToCreate);
+		return refreshToken;
+	}
+	
 	private Response handleOAuthProblem(OAuthProblemException problem) throws OAuthSystemException {
 		OAuthResponse response = OAuthASResponse.errorResponse(HttpServletResponse.SC_BAD_REQUEST).error(problem).buildJSONMessage();
 		return handleOAuthProblemResponse(response);
@@ -200,6 +364,18 @@ public class TokenResource {
 							  .buildJSONMessage();
 	}
 
+	private OAuthResponse buildUnknownClientOwnerResponse(ClientApp clientApp) throws OAuthSystemException {
+		return OAuthASResponse.errorResponse(HttpServletResponse.SC_BAD_REQUEST)
+							  .setError(OAuthError.TokenResponse.UNAUTHORIZED_CLIENT).setErrorDescription(UNKNOWN_CLIENT_OWNER.getDevReadableMessage(clientApp.getId()))
+							  .buildJSONMessage();
+	}
+
+	private OAuthResponse buildInvalidRefreshTokenResponse() throws OAuthSystemException {
+		return OAuthASResponse.errorResponse(HttpServletResponse.SC_BAD_REQUEST)
+							  .setError(OAuthError.TokenResponse.INVALID_GRANT).setErrorDescription(INVALID_REFRESH_TOKEN.getDevReadableMessage())
+							  .buildJSONMessage();
+	}
+
 	private OAuthResponse buildInvalidUserPassResponse() throws OAuthSystemException {
 		return OAuthASResponse.errorResponse(HttpServletResponse.SC_BAD_REQUEST)
 							  .setError(OAuthError.TokenResponse.INVALID_GRANT).setErrorDescription("invalid username or password")
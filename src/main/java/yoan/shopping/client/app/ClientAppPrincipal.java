@@ -0,0 +1,51 @@
+package yoan.shopping.client.app;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Client application authenticated by an access token of the client credentials grant
+ * It acts on behalf of no user : the token has the app scope only, see {@link #APP_SCOPE}
+ * @author yoan
+ */
+public class ClientAppPrincipal {
+	/** Scope of the client credentials tokens : the app reads its own registration, no user resource */
+	public static final String APP_SCOPE = "app";
+
+	/** Authenticated client app ID */
+	private final UUID clientId;
+
+	public ClientAppPrincipal(UUID clientId) {
+		this.clientId = requireNonNull(clientId, "Client app Id is mandatory");
+	}
+
+	public UUID getClientId() {
+		return clientId;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(clientId);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		ClientAppPrincipal that = (ClientAppPrincipal) obj;
+		return Objects.equals(this.clientId, that.clientId);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("clientId", clientId).add("scope", APP_SCOPE).toString();
+	}
+}
@@ -0,0 +1,46 @@
+package yoan.shopping.client.app;
+
+import static java.util.Objects.requireNonNull;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Oauth2 redirect URI registered by a client app, ready to be matched against the asked redirect URIs
+ * The asked URI is compared as a string first and only parsed when it is written differently
+ * @author yoan
+ */
+public final class RegisteredRedirectURI {
+	/** Registered redirect URI */
+	private final URI redirectURI;
+	/** Registered redirect URI as written */
+	private final String redirectURIString;
+	
+	public RegisteredRedirectURI(URI redirectURI) {
+		this.redirectURI = requireNonNull(redirectURI, "Oauth2 redirect URI is mandatory");
+		this.redirectURIString = redirectURI.toString();
+	}
+	
+	/**
+	 * Check if an asked redirect URI is the registered one
+	 * @param askedRedirectURI
+	 * @return true if it matches, false if it is missing, unreadable or different
+	 */
+	public boolean matches(String askedRedirectURI) {
+		if (askedRedirectURI == null) {
+			return false;
+		}
+		if (redirectURIString.equals(askedRedirectURI)) {
+			return true;
+		}
+		try {
+			return redirectURI.equals(new URI(askedRedirectURI));
+		} catch (URISyntaxException e) {
+			return false;
+		}
+	}
+	
+	public URI getRedirectURI() {
+		return redirectURI;
+	}
+}
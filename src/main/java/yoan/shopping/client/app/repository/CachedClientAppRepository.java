@@ -0,0 +1,162 @@
+package yoan.shopping.client.app.repository;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.RegisteredRedirectURI;
+import yoan.shopping.client.app.repository.mongo.ClientAppMongoRepository;
+import yoan.shopping.infra.config.api.Config;
+
+/**
+ * Client application repository keeping the client apps read by Id, with their parsed redirect URI
+ * The Oauth2 endpoints read the client app on each request while it rarely changes
+ * An update, a secret change or a deletion evicts the client app at once on this node, the TTL bounds the staleness on the others
+ * Unknown client Ids are not kept, so a created client app is read on its first use
+ * @author yoan
+ */
+@Singleton
+public class CachedClientAppRepository extends ClientAppRepository {
+	protected static final int MAX_CACHED_CLIENT_APPS = 10_000;
+	
+	private final ClientAppRepository delegate;
+	private final Cache<UUID, CachedClientApp> clientApps;
+	/** Guards the cache filling against a concurrent eviction, so an app read before a change is not kept */
+	private final Object evictionLock = new Object();
+	/** Count of evictions, to know if one happened while a client app was read */
+	private long evictionCount = 0;
+	
+	@Inject
+	public CachedClientAppRepository(ClientAppMongoRepository delegate, Config config) {
+		this(delegate, config.getClientAppCacheTtlInSeconds(), Ticker.systemTicker());
+	}
+	
+	protected CachedClientAppRepository(ClientAppRepository delegate, long ttlInSeconds, Ticker ticker) {
+		checkArgument(ttlInSeconds >= 0, "Client app cache TTL should not be negative");
+		this.delegate = requireNonNull(delegate);
+		this.clientApps = CacheBuilder.newBuilder()
+			.maximumSize(MAX_CACHED_CLIENT_APPS)
+			.expireAfterWrite(ttlInSeconds, TimeUnit.SECONDS)
+			.ticker(requireNonNull(ticker))
+			.build();
+	}
+	
+	@Override
+	public String hashSecret(String secret, Object salt) {
+		return delegate.hashSecret(secret, salt);
+	}
+	
+	@Override
+	public RegisteredRedirectURI getRegisteredRedirectURI(ClientApp clientApp) {
+		CachedClientApp cachedClientApp = clientApps.getIfPresent(clientApp.getId());
+		if (cachedClientApp != null && cachedClientApp.clientApp == clientApp) {
+			return cachedClientApp.redirectURI;
+		}
+		return super.getRegisteredRedirectURI(clientApp);
+	}
+	
+	@Override
+	protected void processCreate(ClientApp appToCreate) {
+		delegate.processCreate(appToCreate);
+	}
+	
+	@Override
+	protected ClientApp processGetById(UUID clientId) {
+		CachedClientApp cachedClientApp = clientApps.getIfPresent(clientId);
+		if (cachedClientApp != null) {
+			return cachedClientApp.clientApp;
+		}
+		
+		long evictionCountBeforeRead = getEvictionCount();
+		ClientApp foundApp = delegate.processGetById(clientId);
+		if (foundApp != null) {
+			cacheIfUnchanged(foundApp, evictionCountBeforeRead);
+		}
+		return foundApp;
+	}
+	
+	private long getEvictionCount() {
+		synchronized (evictionLock) {
+			return evictionCount;
+		}
+	}
+	
+	private void cacheIfUnchanged(ClientApp foundApp, long evictionCountBeforeRead) {
+		CachedClientApp cachedClientApp = new CachedClientApp(foundApp);
+		synchronized (evictionLock) {
+			if (evictionCount == evictionCountBeforeRead) {
+				clientApps.put(foundApp.getId(), cachedClientApp);
+			}
+		}
+	}
+	
+	@Override
+	protected ImmutableList<ClientApp> processGetByOwner(UUID ownerId) {
+		return delegate.processGetByOwner(ownerId);
+	}
+	
+	@Override
+	protected void processChangeSecret(ClientApp clientAppToUpdate) {
+		try {
+			delegate.processChangeSecret(clientAppToUpdate);
+		} finally {
+			invalidate(clientAppToUpdate.getId());
+		}
+	}
+	
+	@Override
+	protected boolean processUpdate(ClientApp clientAppToUpdate) {
+		try {
+			return delegate.processUpdate(clientAppToUpdate);
+		} finally {
+			invalidate(clientAppToUpdate.getId());
+		}
+	}
+	
+	@Override
+	protected boolean processDeleteById(UUID clientId) {
+		try {
+			return delegate.processDeleteById(clientId);
+		} finally {
+			invalidate(clientId);
+		}
+	}
+	
+	/**
+	 * Forget a client app, the next read gets it from the delegate
+	 * @param clientId
+	 */
+	public void invalidate(UUID clientId) {
+		synchronized (evictionLock) {
+			evictionCount++;
+			clientApps.invalidate(clientId);
+		}
+	}
+	
+	public long getSize() {
+		return clientApps.size();
+	}
+	
+	/**
+	 * Client app with its redirect URI parsed once
+	 */
+	private static final class CachedClientApp {
+		private final ClientApp clientApp;
+		private final RegisteredRedirectURI redirectURI;
+		
+		private CachedClientApp(ClientApp clientApp) {
+			this.clientApp = clientApp;
+			this.redirectURI = new RegisteredRedirectURI(clientApp.getRedirectURI());
+		}
+	}
+}
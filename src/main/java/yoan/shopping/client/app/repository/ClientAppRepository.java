@@ -1,5 +1,6 @@
 package yoan.shopping.client.app.repository;
 
+import static java.util.Objects.requireNonNull;
 import static yoan.shopping.client.app.repository.ClientAppRepositoryErrorCode.UNSECURE_SECRET;
 import static yoan.shopping.client.app.repository.ClientAppRepositoryErrorMessage.PROBLEM_SECRET_VALIDITY;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
@@ -7,13 +8,17 @@ import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorMessage.NOT_FOUND;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.RegisteredRedirectURI;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.infra.util.error.RepositoryErrorCode;
 import yoan.shopping.infra.util.helper.SecurityHelper;
@@ -28,6 +33,9 @@ public abstract class ClientAppRepository {
 	
 	public static final Logger LOGGER = LoggerFactory.getLogger(ClientAppRepository.class);
 	
+	/** Listeners told about each client app whose secret is no longer valid */
+	private final List<Consumer<UUID>> secretChangeListeners = new CopyOnWriteArrayList<>();
+	
 	/**
 	 * Create a new client app
 	 * @param userToCreate
@@ -117,12 +125,25 @@ public abstract class ClientAppRepository {
 		return processGetByOwner(ownerId);
 	}
 	
+	/**
+	 * Get the redirect URI registered by a client app, ready to be matched
+	 * @param clientApp
+	 * @return registered redirect URI
+	 */
+	public RegisteredRedirectURI getRegisteredRedirectURI(ClientApp clientApp) {
+		return new RegisteredRedirectURI(clientApp.getRedirectURI());
+	}
+	
 	private void ensureAppfound(ClientApp foundApp) {
 		if (foundApp == null) {
-			throw new ApplicationException(INFO, RepositoryErrorCode.NOT_FOUND, NOT_FOUND.getDevReadableMessage("Client app"));
+			throw clientAppNotFound();
 		}
 	}
 	
+	private ApplicationException clientAppNotFound() {
+		return new ApplicationException(INFO, RepositoryErrorCode.NOT_FOUND, NOT_FOUND.getDevReadableMessage("Client app"));
+	}
+	
 	/**
 	 * Change client app secret
 	 * @param clientId
@@ -139,6 +160,7 @@ public abstract class ClientAppRepository {
 		existingClientApp = forceLastUpdateDate(existingClientApp);
 		ClientApp clientAppToUpdate = forceClientSecret(existingClientApp, newSecret);
 		processChangeSecret(clientAppToUpdate);
+		notifySecretChange(clientId);
 	}
 	
 	private ClientApp forceLastUpdateDate(ClientApp app) {
@@ -150,36 +172,45 @@ public abstract class ClientAppRepository {
 	/**
 	 * Delete a client app by its Id
 	 * @param listId
+	 * @return true if the client app was deleted, false if not found
 	 */
-	public final void deleteById(UUID listId) {
+	public final boolean deleteById(UUID listId) {
 		if (listId == null) {
 			LOGGER.warn("Client app deletion asked with null Id");
-			return;
+			return false;
 		}
-		processDeleteById(listId);
+		boolean deleted = processDeleteById(listId);
+		notifySecretChange(listId);
+		return deleted;
+	}
+	
+	/**
+	 * Be told about each client app whose secret changed or which was deleted, to evict it from a cache
+	 * @param listener : called with the client app Id
+	 */
+	public void addSecretChangeListener(Consumer<UUID> listener) {
+		secretChangeListeners.add(requireNonNull(listener));
+	}
+	
+	protected void notifySecretChange(UUID clientId) {
+		secretChangeListeners.forEach(listener -> listener.accept(clientId));
 	}
 	
 	/**
 	 * Update a Client app
+	 * The client app is written without being read first : the write tells if it was found
 	 * @param askedClientAppToUpdate
+	 * @throws ApplicationException if client app not found
 	 */
 	public final void update(ClientApp askedClientAppToUpdate) {
 		if (askedClientAppToUpdate == null) {
 			LOGGER.warn("Client app update asked with null client app");
 			return;
 		}
-		ClientApp existingClientApp = findClientAppById(askedClientAppToUpdate.getId());
-		
-		ClientApp clientAppToUpdate = mergeUpdatesInExistingClientApp(existingClientApp, askedClientAppToUpdate);
-		processUpdate(clientAppToUpdate);
-	}
-	
-	private ClientApp mergeUpdatesInExistingClientApp(ClientApp existingClientApp, ClientApp askedClientAppToUpdate) {
-		return ClientApp.Builder.createFrom(existingClientApp)
-				.withLastUpdate(LocalDateTime.now())
-				.withName(askedClientAppToUpdate.getName())
-				.withRedirectURI(askedClientAppToUpdate.getRedirectURI())
-				.build();
+		ClientApp clientAppToUpdate = forceLastUpdateDate(askedClientAppToUpdate);
+		if (!processUpdate(clientAppToUpdate)) {
+			throw clientAppNotFound();
+		}
 	}
 	
 	/**
@@ -210,12 +241,14 @@ public abstract class ClientAppRepository {
 	/**
 	 * Update an existing client app
 	 * @param clientAppToUpdate
+	 * @return true if the client app was found
 	 */
-	protected abstract void processUpdate(ClientApp clientAppToUpdate);
+	protected abstract boolean processUpdate(ClientApp clientAppToUpdate);
 	
 	/**
 	 * Delete a client app by its Id
 	 * @param userId
+	 * @return true if the client app was deleted
 	 */
-	protected abstract void processDeleteById(UUID clientId);
+	protected abstract boolean processDeleteById(UUID clientId);
 }
@@ -0,0 +1,131 @@
+package yoan.shopping.client.app.repository;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.util.helper.SecurityHelper;
+
+/**
+ * Check client app secrets, remembering the successful checks for a short time
+ * A service client asking for tokens in a loop does not pay a hash and a client app read each time
+ * The cache is keyed by client and secret digest, the raw secret is never kept, and a secret change or a deletion evicts the client
+ * @author yoan
+ */
+@Singleton
+public class ClientSecretVerifier {
+	protected static final int MAX_VERIFIED_SECRETS = 10_000;
+	
+	private final ClientAppRepository clientAppRepository;
+	/** Client app as it was when the secret was verified, by client and secret digest */
+	private final Cache<VerifiedSecretKey, ClientApp> verifiedClients;
+	
+	@Inject
+	public ClientSecretVerifier(ClientAppRepository clientAppRepository, Config config) {
+		this(clientAppRepository, config.getClientSecretCacheTtlInSeconds(), Ticker.systemTicker());
+	}
+	
+	protected ClientSecretVerifier(ClientAppRepository clientAppRepository, long ttlInSeconds, Ticker ticker) {
+		checkArgument(ttlInSeconds >= 0, "Client secret cache TTL should not be negative");
+		this.clientAppRepository = requireNonNull(clientAppRepository);
+		this.verifiedClients = CacheBuilder.newBuilder()
+			.maximumSize(MAX_VERIFIED_SECRETS)
+			.expireAfterWrite(ttlInSeconds, TimeUnit.SECONDS)
+			.ticker(requireNonNull(ticker))
+			.build();
+		clientAppRepository.addSecretChangeListener(this::invalidate);
+	}
+	
+	/**
+	 * Get a client app whose secret was recently verified, without reading it
+	 * @param clientId
+	 * @param secret
+	 * @return verified client app, null if the secret has not been verified lately
+	 */
+	public ClientApp getVerifiedClient(UUID clientId, String secret) {
+		if (clientId == null || StringUtils.isBlank(secret)) {
+			return null;
+		}
+		return verifiedClients.getIfPresent(new VerifiedSecretKey(clientId, secret));
+	}
+	
+	/**
+	 * Check a client app secret
+	 * @param clientApp
+	 * @param secret
+	 * @return true if the secret matches
+	 */
+	public boolean verify(ClientApp clientApp, String secret) {
+		if (clientApp == null || StringUtils.isBlank(secret)) {
+			return false;
+		}
+		VerifiedSecretKey key = new VerifiedSecretKey(clientApp.getId(), secret);
+		ClientApp verifiedClient = verifiedClients.getIfPresent(key);
+		//the stored hash is compared too, in case the secret changed on another node
+		if (verifiedClient != null && verifiedClient.getSecret().equals(clientApp.getSecret())) {
+			return true;
+		}
+		
+		String hashedSecret = clientAppRepository.hashSecret(secret, clientApp.getSalt());
+		boolean matching = hashedSecret != null && MessageDigest.isEqual(hashedSecret.getBytes(UTF_8), clientApp.getSecret().getBytes(UTF_8));
+		if (matching) {
+			verifiedClients.put(key, clientApp);
+		}
+		return matching;
+	}
+	
+	/**
+	 * Forget all the verified secrets of a client app
+	 * @param clientId
+	 */
+	public void invalidate(UUID clientId) {
+		verifiedClients.asMap().keySet().removeIf(key -> key.clientId.equals(clientId));
+	}
+	
+	public long getSize() {
+		return verifiedClients.size();
+	}
+	
+	/**
+	 * Client and digest of the verified secret
+	 */
+	private static final class VerifiedSecretKey {
+		private final UUID clientId;
+		private final String secretDigest;
+		
+		private VerifiedSecretKey(UUID clientId, String secret) {
+			this.clientId = clientId;
+			this.secretDigest = SecurityHelper.sha256Hex(secret);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(clientId, secretDigest);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			VerifiedSecretKey that = (VerifiedSecretKey) obj;
+			return Objects.equals(this.clientId, that.clientId)
+				&& Objects.equals(this.secretDigest, that.secretDigest);
+		}
+	}
+}
@@ -13,22 +13,21 @@ import java.util.List;
 import java.util.UUID;
 
 import org.bson.conversions.Bson;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import yoan.shopping.client.app.ClientApp;
 import yoan.shopping.client.app.repository.ClientAppRepository;
 import yoan.shopping.infra.db.Dbs;
 import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
-import yoan.shopping.infra.util.helper.MongoRepositoryHelper;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
 
 /**
  * Mongo implementation of the client application repository
@@ -41,77 +40,52 @@ public class ClientAppMongoRepository extends ClientAppRepository {
 	
 	private final MongoCollection<ClientApp> clientAppCollection;
 	private final ClientAppMongoConverter appConverter;
-	
-	private static final Logger LOGGER = LoggerFactory.getLogger(ClientAppMongoRepository.class);
+	private final MongoOperationExecutor executor;
 	
 	@Inject
 	public ClientAppMongoRepository(MongoDbConnectionFactory mongoConnectionFactory) {
 		clientAppCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING, CLIENT_APP_COLLECTION, ClientApp.class);
 		appConverter = new ClientAppMongoConverter();
+		executor = mongoConnectionFactory.createOperationExecutor(ClientAppMongoRepository.class);
 	}
 	
 	@Override
 	protected void processCreate(ClientApp appToCreate) {
-		try {
-			clientAppCollection.insertOne(appToCreate);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_CREATION_CLIENT_APP);
-		}
+		executor.run("processCreate", PROBLEM_CREATION_CLIENT_APP, () -> clientAppCollection.insertOne(appToCreate));
 	}
 
 	@Override
 	protected ClientApp processGetById(UUID clientAppId) {
 		Bson filter = Filters.eq(FIELD_ID, clientAppId);
-		ClientApp foundApp = null;
-		try {
-			foundApp = clientAppCollection.find().filter(filter).first();
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_CLIENT_APP);
-		}
-		return foundApp;
+		return executor.executeIdempotent("processGetById", PROBLEM_READ_CLIENT_APP, () -> executor.withRemainingTime(clientAppCollection.find().filter(filter)).first());
 	}
 	
 	@Override
 	protected ImmutableList<ClientApp> processGetByOwner(UUID ownerId) {
 		Bson filter = Filters.eq(FIELD_OWNER_ID, ownerId);
-		List<ClientApp> foundApps = Lists.newArrayList();
-		try {
-			foundApps = clientAppCollection.find().filter(filter).into(foundApps);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_USER_CLIENT_APPS);
-		}
+		List<ClientApp> foundApps = executor.executeIdempotent("processGetByOwner", PROBLEM_READ_USER_CLIENT_APPS, () -> executor.withRemainingTime(clientAppCollection.find().filter(filter)).into(Lists.<ClientApp>newArrayList()));
 		return ImmutableList.<ClientApp>copyOf(foundApps);
 	}
 	
 	@Override
-	protected void processUpdate(ClientApp clientApp) {
+	protected boolean processUpdate(ClientApp clientApp) {
 		Bson filter = Filters.eq(FIELD_ID, clientApp.getId());
 		Bson update = ClientAppMongoConverter.getClientAppUpdate(clientApp);
-		try {
-			clientAppCollection.updateOne(filter, update);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_UPDATE_CLIENT_APP);
-		}
+		UpdateResult result = executor.executeIdempotent("processUpdate", PROBLEM_UPDATE_CLIENT_APP, () -> clientAppCollection.updateOne(filter, update));
+		return result.getMatchedCount() > 0;
 	}
 
 	@Override
-	protected void processDeleteById(UUID listId) {
+	protected boolean processDeleteById(UUID listId) {
 		Bson filter = Filters.eq(FIELD_ID, listId);
-		try {
-			clientAppCollection.deleteOne(filter);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_DELETE_CLIENT_APP);
-		}
+		DeleteResult result = executor.execute("processDeleteById", PROBLEM_DELETE_CLIENT_APP, () -> clientAppCollection.deleteOne(filter));
+		return result.getDeletedCount() > 0;
 	}
 
 	@Override
 	protected void processChangeSecret(ClientApp clientAppToUpdate) {
 		Bson filter = Filters.eq(FIELD_ID, clientAppToUpdate.getId());
 		Bson update = appConverter.getChangeSecretUpdate(clientAppToUpdate);
-		try {
-			clientAppCollection.updateOne(filter, update);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_UPDATE_CLIENT_APP_SECRET);
-		}
+		executor.runIdempotent("processChangeSecret", PROBLEM_UPDATE_CLIENT_APP_SECRET, () -> clientAppCollection.updateOne(filter, update));
 	}
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static yoan.shopping.client.app.repository.ClientAppRepositoryErrorCode.UNSECURE_SECRET;
 import static yoan.shopping.client.app.resource.ClientAppResourceErrorMessage.CLIENT_APPS_NOT_FOUND;
 import static yoan.shopping.client.app.resource.ClientAppResourceErrorMessage.CLIENT_APP_NOT_FOUND;
-import static yoan.shopping.infra.config.guice.ShoppingWebModule.CONNECTED_USER;
 import static yoan.shopping.infra.config.guice.SwaggerModule.SECURITY_DEFINITION_OAUTH2;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
 import static yoan.shopping.infra.rest.error.Level.INFO;
@@ -30,7 +29,7 @@ import javax.ws.rs.core.UriBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
-import com.google.inject.name.Named;
+import com.google.inject.Singleton;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -48,7 +47,6 @@ import yoan.shopping.infra.rest.error.WebApiException;
 import yoan.shopping.infra.util.ResourceUtil;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.list.representation.ShoppingListRepresentation;
-import yoan.shopping.user.User;
 
 /**
  * Client application API
@@ -57,15 +55,13 @@ import yoan.shopping.user.User;
 @Path("/api/client/app")
 @Api(value = "Client App", authorizations = { @Authorization(value = SECURITY_DEFINITION_OAUTH2, scopes = {})})
 @Produces({ "application/json", "application/xml" })
+@Singleton
 public class ClientAppResource extends RestAPI {
-	/** Currently connected user */
-	//private final User connectedUser;
 	private final ClientAppRepository clientAppRepo;
 	
 	@Inject
-	public ClientAppResource(@Named(CONNECTED_USER) User connectedUser, ClientAppRepository clientAppRepo) {
+	public ClientAppResource(ClientAppRepository clientAppRepo) {
 		super();
-		//this.connectedUser = requireNonNull(connectedUser);
 		this.clientAppRepo = Objects.requireNonNull(clientAppRepo);
 	}
 	
@@ -188,8 +184,10 @@ public class ClientAppResource extends RestAPI {
 		@ApiResponse(code = 400, message = "Invalid client application Id"),
 		@ApiResponse(code = 404, message = "Client application not found") })
 	public Response deleteById(@PathParam("appId") @ApiParam(value = "Id of the client app to delete", required = true) String appIdStr) {
-		ClientApp foundApp = findClientAppById(appIdStr);
-		clientAppRepo.deleteById(foundApp.getId());
+		UUID appId = ResourceUtil.getIdfromParam("appId", appIdStr);
+		if (!clientAppRepo.deleteById(appId)) {
+			throw new WebApiException(NOT_FOUND, INFO, API_RESPONSE, CLIENT_APP_NOT_FOUND);
+		}
 		return Response.ok().build();
 	}
 	
@@ -0,0 +1,336 @@
+package yoan.shopping.infra.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.apache.shiro.cache.Cache;
+
+/**
+ * Shiro cache bounded in size and time, with a W-TinyLFU eviction policy
+ * New entries go through a small LRU window, then have to be accessed more often than the main LRU victim to stay.
+ * A burst of one time keys can not flush the frequently used ones.
+ * Reads are lock free : the access order and frequency are only updated when the eviction lock is free.
+ * The time between a miss and the put of the same key by the same thread is recorded as the load time.
+ * @author yoan
+ */
+public class BoundedCache<K, V> implements Cache<K, V> {
+	/** Share of the maximum size given to the admission window */
+	private static final double WINDOW_RATIO = 0.01;
+
+	private final String name;
+	private final BoundedCacheSettings settings;
+	private final LongSupplier nanoClock;
+	private final ConcurrentMap<K, Node<K, V>> nodesByKey = new ConcurrentHashMap<>();
+
+	/** Guards the window, the main space and the sketch */
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private final FrequencySketch sketch;
+	private final int windowCapacity;
+	private final int mainCapacity;
+	/** Recently added entries, least recently used first */
+	private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>(16, 0.75f, true);
+	/** Entries admitted from the window, least recently used first */
+	private final LinkedHashMap<K, Node<K, V>> main = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** Miss waiting for its put, by thread */
+	private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder expirationCount = new LongAdder();
+	private final LongAdder loadCount = new LongAdder();
+	private final LongAdder totalLoadTimeInNanos = new LongAdder();
+
+	public BoundedCache(String name, BoundedCacheSettings settings) {
+		this(name, settings, System::nanoTime);
+	}
+
+	protected BoundedCache(String name, BoundedCacheSettings settings, LongSupplier nanoClock) {
+		this.name = requireNonNull(name);
+		this.settings = requireNonNull(settings);
+		this.nanoClock = requireNonNull(nanoClock);
+		int maximumSize = settings.getMaximumSize();
+		windowCapacity = Math.max(1, (int) (maximumSize * WINDOW_RATIO));
+		mainCapacity = maximumSize - windowCapacity;
+		sketch = new FrequencySketch(maximumSize);
+	}
+
+	@Override
+	public V get(K key) {
+		if (key == null) {
+			return null;
+		}
+		long now = nanoClock.getAsLong();
+		Node<K, V> node = nodesByKey.get(key);
+		if (node != null && isExpired(node, now)) {
+			expire(node);
+			node = null;
+		}
+		if (node == null) {
+			missCount.increment();
+			pendingLoad.set(new PendingLoad(key, now));
+			return null;
+		}
+		hitCount.increment();
+		pendingLoad.remove();
+		afterRead(node);
+		return node.value;
+	}
+
+	private void afterRead(Node<K, V> node) {
+		//a busy lock means an other thread maintains the policy, losing this access is cheaper than waiting
+		if (!evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			sketch.increment(node.key);
+			//access ordered maps : the lookup moves the entry to the most recently used end
+			if (node.inWindow) {
+				window.get(node.key);
+			} else {
+				main.get(node.key);
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public V put(K key, V value) {
+		if (key == null || value == null) {
+			return value == null ? remove(key) : null;
+		}
+		long now = nanoClock.getAsLong();
+		recordLoad(key, now);
+		Node<K, V> node = new Node<>(key, value, now);
+		Node<K, V> previous = nodesByKey.put(key, node);
+		evictionLock.lock();
+		try {
+			sketch.increment(key);
+			//a later write or a removal of the same key already took over
+			if (nodesByKey.get(key) != node) {
+				return getLiveValue(previous, now);
+			}
+			window.remove(key);
+			boolean wasInMain = main.remove(key) != null;
+			if (wasInMain) {
+				main.put(key, node);
+			} else {
+				node.inWindow = true;
+				window.put(key, node);
+				evict(now);
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+		return getLiveValue(previous, now);
+	}
+
+	private void recordLoad(K key, long now) {
+		PendingLoad load = pendingLoad.get();
+		if (load != null && load.key.equals(key)) {
+			loadCount.increment();
+			totalLoadTimeInNanos.add(now - load.missTimeInNanos);
+			pendingLoad.remove();
+		}
+	}
+
+	/** Move the window overflow to the main space, keeping the most frequently used of the candidate and the main victim */
+	private void evict(long now) {
+		while (window.size() > windowCapacity) {
+			Node<K, V> candidate = pollFirst(window);
+			candidate.inWindow = false;
+			main.put(candidate.key, candidate);
+			if (main.size() > mainCapacity) {
+				Node<K, V> victim = main.values().iterator().next();
+				Node<K, V> evicted = admit(candidate, victim, now) ? victim : candidate;
+				main.remove(evicted.key);
+				discard(evicted, now);
+			}
+		}
+	}
+
+	private boolean admit(Node<K, V> candidate, Node<K, V> victim, long now) {
+		if (candidate == victim || isExpired(candidate, now)) {
+			return false;
+		}
+		return isExpired(victim, now) || sketch.frequency(candidate.key) > sketch.frequency(victim.key);
+	}
+
+	private void discard(Node<K, V> node, long now) {
+		//the node may already be replaced by a newer write
+		if (nodesByKey.remove(node.key, node)) {
+			if (isExpired(node, now)) {
+				expirationCount.increment();
+			} else {
+				evictionCount.increment();
+			}
+		}
+	}
+
+	private static <K, V> Node<K, V> pollFirst(LinkedHashMap<K, Node<K, V>> nodes) {
+		Iterator<Node<K, V>> iterator = nodes.values().iterator();
+		Node<K, V> first = iterator.next();
+		iterator.remove();
+		return first;
+	}
+
+	private void expire(Node<K, V> node) {
+		if (!nodesByKey.remove(node.key, node)) {
+			return;
+		}
+		expirationCount.increment();
+		removeFromPolicy(node);
+	}
+
+	private void removeFromPolicy(Node<K, V> node) {
+		evictionLock.lock();
+		try {
+			window.remove(node.key, node);
+			main.remove(node.key, node);
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public V remove(K key) {
+		if (key == null) {
+			return null;
+		}
+		Node<K, V> node = nodesByKey.remove(key);
+		if (node == null) {
+			return null;
+		}
+		removeFromPolicy(node);
+		return getLiveValue(node, nanoClock.getAsLong());
+	}
+
+	@Override
+	public void clear() {
+		evictionLock.lock();
+		try {
+			nodesByKey.clear();
+			window.clear();
+			main.clear();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		return nodesByKey.size();
+	}
+
+	@Override
+	public Set<K> keys() {
+		long now = nanoClock.getAsLong();
+		Set<K> keys = new HashSet<>();
+		nodesByKey.values().stream().filter(node -> !isExpired(node, now)).forEach(node -> keys.add(node.key));
+		return Collections.unmodifiableSet(keys);
+	}
+
+	@Override
+	public Collection<V> values() {
+		long now = nanoClock.getAsLong();
+		List<V> values = new ArrayList<>();
+		nodesByKey.values().stream().filter(node -> !isExpired(node, now)).forEach(node -> values.add(node.value));
+		return Collections.unmodifiableList(values);
+	}
+
+	private boolean isExpired(Node<K, V> node, long now) {
+		return now - node.writeTimeInNanos >= settings.getExpireAfterWriteInNanos();
+	}
+
+	private V getLiveValue(Node<K, V> node, long now) {
+		return node == null || isExpired(node, now) ? null : node.value;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public BoundedCacheSettings getSettings() {
+		return settings;
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * @return share of the lookups finding a live entry
+	 */
+	public double getHitRate() {
+		long hits = getHitCount();
+		long requests = hits + getMissCount();
+		return requests == 0 ? 1.0 : (double) hits / requests;
+	}
+
+	/**
+	 * @return number of entries removed to respect the maximum size
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	public long getExpirationCount() {
+		return expirationCount.sum();
+	}
+
+	public long getLoadCount() {
+		return loadCount.sum();
+	}
+
+	public long getTotalLoadTimeInNanos() {
+		return totalLoadTimeInNanos.sum();
+	}
+
+	public double getAverageLoadTimeInNanos() {
+		long loads = getLoadCount();
+		return loads == 0 ? 0 : (double) getTotalLoadTimeInNanos() / loads;
+	}
+
+	private static class Node<K, V> {
+		private final K key;
+		private final V value;
+		private final long writeTimeInNanos;
+		/** Guarded by the eviction lock */
+		private boolean inWindow;
+
+		private Node(K key, V value, long writeTimeInNanos) {
+			this.key = key;
+			this.value = value;
+			this.writeTimeInNanos = writeTimeInNanos;
+		}
+	}
+
+	private static class PendingLoad {
+		private final Object key;
+		private final long missTimeInNanos;
+
+		private PendingLoad(Object key, long missTimeInNanos) {
+			this.key = key;
+			this.missTimeInNanos = missTimeInNanos;
+		}
+	}
+}
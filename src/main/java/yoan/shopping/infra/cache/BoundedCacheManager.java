@@ -0,0 +1,75 @@
+package yoan.shopping.infra.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.shiro.cache.Cache;
+import org.apache.shiro.cache.CacheException;
+import org.apache.shiro.cache.CacheManager;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import yoan.shopping.infra.config.api.Config;
+
+/**
+ * Shiro cache manager creating bounded caches, sized and expired by cache name
+ * @author yoan
+ */
+@Singleton
+public class BoundedCacheManager implements CacheManager {
+	private final BoundedCacheSettings defaultSettings;
+	private final ImmutableMap<String, Integer> maximumSizesByName;
+	private final ImmutableMap<String, Integer> expiriesInSecondsByName;
+	private final ConcurrentMap<String, BoundedCache<?, ?>> cachesByName = new ConcurrentHashMap<>();
+
+	@Inject
+	public BoundedCacheManager(Config config) {
+		this(new BoundedCacheSettings(config.getCacheMaximumSize(), config.getCacheExpiryInSeconds()),
+			config.getCacheMaximumSizesByName(), config.getCacheExpiriesInSecondsByName());
+	}
+
+	protected BoundedCacheManager(BoundedCacheSettings defaultSettings, Map<String, Integer> maximumSizesByName, Map<String, Integer> expiriesInSecondsByName) {
+		this.defaultSettings = requireNonNull(defaultSettings);
+		this.maximumSizesByName = ImmutableMap.copyOf(maximumSizesByName);
+		this.expiriesInSecondsByName = ImmutableMap.copyOf(expiriesInSecondsByName);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <K, V> Cache<K, V> getCache(String name) throws CacheException {
+		if (name == null) {
+			throw new CacheException("Cache name is mandatory");
+		}
+		return (Cache<K, V>) cachesByName.computeIfAbsent(name, cacheName -> new BoundedCache<>(cacheName, getSettings(cacheName)));
+	}
+
+	/**
+	 * @param name : cache name
+	 * @return cache bounds, the default ones overridden by those set for this name
+	 */
+	public BoundedCacheSettings getSettings(String name) {
+		int maximumSize = maximumSizesByName.getOrDefault(name, defaultSettings.getMaximumSize());
+		Integer expiryInSeconds = expiriesInSecondsByName.get(name);
+		if (expiryInSeconds == null) {
+			return new BoundedCacheSettings(maximumSize, defaultSettings.getExpireAfterWriteInSeconds());
+		}
+		return new BoundedCacheSettings(maximumSize, expiryInSeconds);
+	}
+
+	/**
+	 * @return created caches, ordered by name
+	 */
+	public ImmutableList<BoundedCache<?, ?>> getCaches() {
+		return ImmutableList.copyOf(cachesByName.values().stream()
+			.sorted(Comparator.comparing(BoundedCache::getName))
+			.iterator());
+	}
+}
@@ -0,0 +1,63 @@
+package yoan.shopping.infra.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Bounds of a cache
+ * @author yoan
+ */
+public class BoundedCacheSettings {
+	/** Maximum number of entries */
+	private final int maximumSize;
+	/** Time an entry is kept after being written */
+	private final long expireAfterWriteInNanos;
+
+	public BoundedCacheSettings(int maximumSize, long expireAfterWriteInSeconds) {
+		checkArgument(maximumSize >= 1, "Invalid cache maximum size");
+		checkArgument(expireAfterWriteInSeconds >= 1, "Invalid cache expiry");
+		this.maximumSize = maximumSize;
+		this.expireAfterWriteInNanos = TimeUnit.SECONDS.toNanos(expireAfterWriteInSeconds);
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public long getExpireAfterWriteInNanos() {
+		return expireAfterWriteInNanos;
+	}
+
+	public long getExpireAfterWriteInSeconds() {
+		return TimeUnit.NANOSECONDS.toSeconds(expireAfterWriteInNanos);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(maximumSize, expireAfterWriteInNanos);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		BoundedCacheSettings that = (BoundedCacheSettings) obj;
+		return this.maximumSize == that.maximumSize
+			&& this.expireAfterWriteInNanos == that.expireAfterWriteInNanos;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("maximumSize", maximumSize)
+											   .add("expireAfterWriteInSeconds", getExpireAfterWriteInSeconds())
+											   .toString();
+	}
+}
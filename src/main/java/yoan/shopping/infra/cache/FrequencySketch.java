@@ -0,0 +1,96 @@
+package yoan.shopping.infra.cache;
+
+/**
+ * Approximate access frequency of the cache keys, a count-min sketch of 4 bits counters
+ * Counters are halved once enough accesses were recorded, so that old popularity fades away
+ * Not thread safe, guarded by the cache eviction lock
+ * @author yoan
+ */
+public class FrequencySketch {
+	/** Frequencies are capped at 15 */
+	public static final int MAX_FREQUENCY = 15;
+	private static final int MAX_TABLE_SIZE = 1 << 30;
+	private static final long[] SEEDS = { 0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L };
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final long ONE_MASK = 0x1111111111111111L;
+
+	/** Each long holds 16 counters, each key uses one counter in 4 of them */
+	private final long[] table;
+	private final int tableMask;
+	/** Number of recorded accesses triggering the aging */
+	private final int sampleSize;
+	private int additions;
+
+	public FrequencySketch(int maximumSize) {
+		int expectedSize = Math.min(Math.max(maximumSize, 1), MAX_TABLE_SIZE);
+		int tableSize = Integer.highestOneBit(expectedSize - 1) << 1;
+		table = new long[Math.max(tableSize, 1)];
+		tableMask = table.length - 1;
+		sampleSize = expectedSize > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : expectedSize * 10;
+	}
+
+	/**
+	 * @param key
+	 * @return estimated number of recent accesses, at most MAX_FREQUENCY
+	 */
+	public int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = MAX_FREQUENCY;
+		for (int i = 0; i < 4; i++) {
+			int index = indexOf(hash, i);
+			int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xFL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Record an access
+	 * @param key
+	 */
+	public void increment(Object key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		if (added && ++additions >= sampleSize) {
+			reset();
+		}
+	}
+
+	private boolean incrementAt(int index, int counter) {
+		int offset = counter << 2;
+		long mask = 0xFL << offset;
+		if ((table[index] & mask) != mask) {
+			table[index] += 1L << offset;
+			return true;
+		}
+		return false;
+	}
+
+	/** Halve every counter */
+	private void reset() {
+		int oddCount = 0;
+		for (int i = 0; i < table.length; i++) {
+			oddCount += Long.bitCount(table[i] & ONE_MASK);
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		additions = (additions >>> 1) - (oddCount >>> 2);
+	}
+
+	private int indexOf(int hash, int i) {
+		long hashed = (hash + SEEDS[i]) * SEEDS[i];
+		hashed += hashed >>> 32;
+		return ((int) hashed) & tableMask;
+	}
+
+	/** Protect against the poor quality hash codes */
+	private static int spread(int hashCode) {
+		int spread = ((hashCode >>> 16) ^ hashCode) * 0x45D9F3B;
+		spread = ((spread >>> 16) ^ spread) * 0x45D9F3B;
+		return (spread >>> 16) ^ spread;
+	}
+}
@@ -3,13 +3,20 @@ package yoan.shopping.infra.config.api;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 
+import yoan.shopping.authentication.realm.AccessTokenValidationMode;
+import yoan.shopping.authentication.repository.TokenStorageMode;
 import yoan.shopping.infra.util.GenericBuilder;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Application configuration
@@ -18,6 +25,36 @@ import com.google.common.base.MoreObjects;
 public class Config {
 	
 	public static final Config DEFAULT = Builder.createDefault().build();
+	public static final int DEFAULT_MONGO_SLOW_QUERY_THRESHOLD_IN_MILLIS = 100;
+	public static final int DEFAULT_MONGO_CIRCUIT_BREAKER_WINDOW_IN_SECONDS = 10;
+	public static final int DEFAULT_MONGO_CIRCUIT_BREAKER_MINIMUM_CALLS = 20;
+	public static final int DEFAULT_MONGO_CIRCUIT_BREAKER_FAILURE_RATE_IN_PERCENT = 50;
+	public static final int DEFAULT_MONGO_CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD_IN_MILLIS = 2_000;
+	public static final int DEFAULT_MONGO_CIRCUIT_BREAKER_SLOW_CALL_RATE_IN_PERCENT = 80;
+	public static final int DEFAULT_MONGO_CIRCUIT_BREAKER_OPEN_DURATION_IN_SECONDS = 10;
+	public static final int DEFAULT_MONGO_CIRCUIT_BREAKER_HALF_OPEN_PROBES = 3;
+	public static final int DEFAULT_REQUEST_DEADLINE_IN_MILLIS = 10_000;
+	public static final int DEFAULT_REVOCATION_MEMORY_BUDGET_IN_BYTES = 1_048_576;
+	public static final int DEFAULT_REVOCATION_REFRESH_PERIOD_IN_SECONDS = 5;
+	public static final int DEFAULT_CACHE_MAXIMUM_SIZE = 10_000;
+	public static final int DEFAULT_CACHE_EXPIRY_IN_SECONDS = 600;
+	public static final int DEFAULT_PASSWORD_HASH_ITERATIONS = 100_000;
+	public static final int DEFAULT_PASSWORD_HASH_THREADS = 4;
+	public static final int DEFAULT_PASSWORD_HASH_QUEUE_CAPACITY = 64;
+	public static final int DEFAULT_REFRESH_TOKEN_TTL_IN_DAYS = 30;
+	public static final int DEFAULT_CLIENT_SECRET_CACHE_TTL_IN_SECONDS = 300;
+	public static final int DEFAULT_CLIENT_APP_CACHE_TTL_IN_SECONDS = 60;
+	public static final int DEFAULT_TOKEN_STORAGE_MAX_ENTRIES = 100_000;
+	public static final int DEFAULT_TOKEN_STORAGE_SNAPSHOT_PERIOD_IN_SECONDS = 60;
+	public static final int DEFAULT_RATE_LIMIT_REQUESTS_PER_MINUTE = 600;
+	public static final int DEFAULT_RATE_LIMIT_MAX_KEYS = 100_000;
+	public static final int DEFAULT_LOGIN_FAILURE_WINDOW_IN_SECONDS = 900;
+	public static final int DEFAULT_LOGIN_MAX_FAILURES_BY_EMAIL = 5;
+	public static final int DEFAULT_LOGIN_MAX_FAILURES_BY_IP = 50;
+	public static final int DEFAULT_LOGIN_LOCKOUT_IN_SECONDS = 30;
+	public static final int DEFAULT_LOGIN_MAX_LOCKOUT_IN_SECONDS = 3600;
+	public static final int DEFAULT_LOGIN_MAX_TRACKED_KEYS = 100_000;
+	
 	private final String apiScheme;
 	private final String apiHost;
 	private final Integer apiPort;
@@ -26,10 +63,106 @@ public class Config {
 	private final Integer mongoPort;
 	private final String mongoUser;
 	private final String mongoPass;
+	private final Integer mongoSlowQueryThresholdInMillis;
+	/** Length of the Mongo circuit breaker rolling window */
+	private final Integer mongoCircuitBreakerWindowInSeconds;
+	/** Calls in the window before the rates are considered */
+	private final Integer mongoCircuitBreakerMinimumCalls;
+	/** Backend failure rate opening the circuit */
+	private final Integer mongoCircuitBreakerFailureRateInPercent;
+	/** Duration above which a call is slow for the circuit breaker */
+	private final Integer mongoCircuitBreakerSlowCallThresholdInMillis;
+	/** Slow call rate opening the circuit */
+	private final Integer mongoCircuitBreakerSlowCallRateInPercent;
+	/** Time spent rejecting calls before probing the database again */
+	private final Integer mongoCircuitBreakerOpenDurationInSeconds;
+	/** Successful probes needed to close the circuit */
+	private final Integer mongoCircuitBreakerHalfOpenProbes;
+	
+	private final Integer requestDeadlineInMillis;
+	/** Deadline overrides by route prefix */
+	private final ImmutableMap<String, Integer> requestDeadlinesInMillisByRoute;
+	
+	private final AccessTokenValidationMode accessTokenValidationMode;
+	/** Base 64 encoded JWT signing keys by key id, old keys are kept to verify tokens issued before a rotation */
+	private final ImmutableMap<String, String> jwtSigningKeysById;
+	/** Key id used to sign new JWT */
+	private final String jwtActiveKeyId;
+	/** Memory a node may use to mirror the revoked access tokens */
+	private final Integer revocationMemoryBudgetInBytes;
+	/** Delay before a revocation is seen by the other nodes : deny list refresh, or opaque token principal cache lifetime */
+	private final Integer revocationRefreshPeriodInSeconds;
+	
+	private final Integer cacheMaximumSize;
+	/** Maximum size overrides by cache name */
+	private final ImmutableMap<String, Integer> cacheMaximumSizesByName;
+	private final Integer cacheExpiryInSeconds;
+	/** Expiry overrides by cache name */
+	private final ImmutableMap<String, Integer> cacheExpiriesInSecondsByName;
+	
+	/** PBKDF2 iterations of new password hashes, older hashes are upgraded on login */
+	private final Integer passwordHashIterations;
+	private final Integer passwordHashThreads;
+	private final Integer passwordHashQueueCapacity;
+	
+	/** Refresh token lifetime, each rotated token gets a full one */
+	private final Integer refreshTokenTtlInDays;
+	
+	/** Lifetime of a cached client secret verification */
+	private final Integer clientSecretCacheTtlInSeconds;
+	
+	/** Lifetime of a cached client app */
+	private final Integer clientAppCacheTtlInSeconds;
+	
+	/** Where the authorization codes and access tokens are stored */
+	private final TokenStorageMode tokenStorageMode;
+	/** Maximum count of codes or tokens kept in memory by each store */
+	private final Integer tokenStorageMaxEntries;
+	/** Directory where the in memory codes and tokens are saved, null to keep them in memory only */
+	private final String tokenStorageSnapshotDirectory;
+	/** Period between two saves of the in memory codes and tokens */
+	private final Integer tokenStorageSnapshotPeriodInSeconds;
+	
+	/** Requests per minute allowed to each source IP, authenticated user and authenticated client app, 0 for no limit */
+	private final Integer rateLimitRequestsPerMinute;
+	/** Rate limits by route prefix */
+	private final ImmutableMap<String, Integer> rateLimitRequestsPerMinuteByRoute;
+	/** Maximum count of rate limited keys kept in memory */
+	private final Integer rateLimitMaxKeys;
+	
+	/** Sliding window over which the failed logins are counted */
+	private final Integer loginFailureWindowInSeconds;
+	/** Failed logins on an email before its lockout */
+	private final Integer loginMaxFailuresByEmail;
+	/** Failed logins from a source IP before its lockout */
+	private final Integer loginMaxFailuresByIp;
+	/** First lockout duration, doubled on each new failure */
+	private final Integer loginLockoutInSeconds;
+	private final Integer loginMaxLockoutInSeconds;
+	/** Emails and IPs whose failures are counted exactly, the others are estimated */
+	private final Integer loginMaxTrackedKeys;
+	
+	/** Users allowed to read the admin API */
+	private final ImmutableSet<UUID> adminUserIds;
 	
 	private final String swaggerBasePath;
 
-	protected Config(String apiScheme, String apiHost, Integer apiPort, String mongoHost, Integer mongoPort, String mongoUser, String mongoPass, String swaggerBasePath) {
+	protected Config(String apiScheme, String apiHost, Integer apiPort, String mongoHost, Integer mongoPort, String mongoUser, String mongoPass, Integer mongoSlowQueryThresholdInMillis,
+			Integer mongoCircuitBreakerWindowInSeconds, Integer mongoCircuitBreakerMinimumCalls, Integer mongoCircuitBreakerFailureRateInPercent, Integer mongoCircuitBreakerSlowCallThresholdInMillis,
+			Integer mongoCircuitBreakerSlowCallRateInPercent, Integer mongoCircuitBreakerOpenDurationInSeconds, Integer mongoCircuitBreakerHalfOpenProbes,
+			Integer requestDeadlineInMillis, Map<String, Integer> requestDeadlinesInMillisByRoute,
+			AccessTokenValidationMode accessTokenValidationMode, Map<String, String> jwtSigningKeysById, String jwtActiveKeyId,
+			Integer revocationMemoryBudgetInBytes, Integer revocationRefreshPeriodInSeconds,
+			Integer cacheMaximumSize, Map<String, Integer> cacheMaximumSizesByName, Integer cacheExpiryInSeconds, Map<String, Integer> cacheExpiriesInSecondsByName,
+			Integer passwordHashIterations, Integer passwordHashThreads, Integer passwordHashQueueCapacity,
+			Integer refreshTokenTtlInDays,
+			Integer clientSecretCacheTtlInSeconds,
+			Integer clientAppCacheTtlInSeconds,
+			TokenStorageMode tokenStorageMode, Integer tokenStorageMaxEntries, String tokenStorageSnapshotDirectory, Integer tokenStorageSnapshotPeriodInSeconds,
+			Integer rateLimitRequestsPerMinute, Map<String, Integer> rateLimitRequestsPerMinuteByRoute, Integer rateLimitMaxKeys,
+			Integer loginFailureWindowInSeconds, Integer loginMaxFailuresByEmail, Integer loginMaxFailuresByIp, Integer loginLockoutInSeconds, Integer loginMaxLockoutInSeconds, Integer loginMaxTrackedKeys,
+			Set<UUID> adminUserIds,
+			String swaggerBasePath) {
 		checkArgument(StringUtils.isNotBlank(apiScheme), "API scheme is mandatory");
 		this.apiScheme = apiScheme;
 		checkArgument(StringUtils.isNotBlank(apiHost), "API host is mandatory");
@@ -40,6 +173,80 @@ public class Config {
 		this.mongoPort = requireNonNull(mongoPort);
 		this.mongoUser = mongoUser;
 		this.mongoPass = mongoPass;
+		this.mongoSlowQueryThresholdInMillis = requireNonNull(mongoSlowQueryThresholdInMillis, "Mongo slow query threshold is mandatory");
+		checkArgument(mongoSlowQueryThresholdInMillis >= 0, "Mongo slow query threshold should be positive");
+		this.mongoCircuitBreakerWindowInSeconds = requireNonNull(mongoCircuitBreakerWindowInSeconds, "Mongo circuit breaker window is mandatory");
+		checkArgument(mongoCircuitBreakerWindowInSeconds > 0, "Invalid Mongo circuit breaker window");
+		this.mongoCircuitBreakerMinimumCalls = requireNonNull(mongoCircuitBreakerMinimumCalls, "Mongo circuit breaker minimum calls is mandatory");
+		checkArgument(mongoCircuitBreakerMinimumCalls > 0, "Invalid Mongo circuit breaker minimum calls");
+		this.mongoCircuitBreakerFailureRateInPercent = requireNonNull(mongoCircuitBreakerFailureRateInPercent, "Mongo circuit breaker failure rate is mandatory");
+		checkArgument(mongoCircuitBreakerFailureRateInPercent > 0 && mongoCircuitBreakerFailureRateInPercent <= 100, "Invalid Mongo circuit breaker failure rate");
+		this.mongoCircuitBreakerSlowCallThresholdInMillis = requireNonNull(mongoCircuitBreakerSlowCallThresholdInMillis, "Mongo circuit breaker slow call threshold is mandatory");
+		checkArgument(mongoCircuitBreakerSlowCallThresholdInMillis > 0, "Invalid Mongo circuit breaker slow call threshold");
+		this.mongoCircuitBreakerSlowCallRateInPercent = requireNonNull(mongoCircuitBreakerSlowCallRateInPercent, "Mongo circuit breaker slow call rate is mandatory");
+		checkArgument(mongoCircuitBreakerSlowCallRateInPercent > 0 && mongoCircuitBreakerSlowCallRateInPercent <= 100, "Invalid Mongo circuit breaker slow call rate");
+		this.mongoCircuitBreakerOpenDurationInSeconds = requireNonNull(mongoCircuitBreakerOpenDurationInSeconds, "Mongo circuit breaker open duration is mandatory");
+		checkArgument(mongoCircuitBreakerOpenDurationInSeconds > 0, "Invalid Mongo circuit breaker open duration");
+		this.mongoCircuitBreakerHalfOpenProbes = requireNonNull(mongoCircuitBreakerHalfOpenProbes, "Mongo circuit breaker probes is mandatory");
+		checkArgument(mongoCircuitBreakerHalfOpenProbes > 0, "Invalid Mongo circuit breaker probes");
+		this.requestDeadlineInMillis = requireNonNull(requestDeadlineInMillis, "Request deadline is mandatory");
+		checkArgument(requestDeadlineInMillis > 0, "Request deadline should be positive");
+		this.requestDeadlinesInMillisByRoute = ImmutableMap.copyOf(requireNonNull(requestDeadlinesInMillisByRoute));
+		checkArgument(requestDeadlinesInMillisByRoute.values().stream().allMatch(deadline -> deadline > 0), "Route deadlines should be positive");
+		this.accessTokenValidationMode = requireNonNull(accessTokenValidationMode, "Access token validation mode is mandatory");
+		this.jwtSigningKeysById = ImmutableMap.copyOf(requireNonNull(jwtSigningKeysById));
+		checkArgument(jwtActiveKeyId == null || jwtSigningKeysById.containsKey(jwtActiveKeyId), "JWT active key id should match a signing key");
+		checkArgument(accessTokenValidationMode != AccessTokenValidationMode.JWT || jwtActiveKeyId != null, "JWT validation mode requires an active signing key");
+		this.jwtActiveKeyId = jwtActiveKeyId;
+		this.revocationMemoryBudgetInBytes = requireNonNull(revocationMemoryBudgetInBytes, "Revocation memory budget is mandatory");
+		checkArgument(revocationMemoryBudgetInBytes > 0, "Revocation memory budget should be positive");
+		this.revocationRefreshPeriodInSeconds = requireNonNull(revocationRefreshPeriodInSeconds, "Revocation refresh period is mandatory");
+		checkArgument(revocationRefreshPeriodInSeconds > 0, "Revocation refresh period should be positive");
+		this.cacheMaximumSize = requireNonNull(cacheMaximumSize, "Cache maximum size is mandatory");
+		checkArgument(cacheMaximumSize > 0, "Cache maximum size should be positive");
+		this.cacheMaximumSizesByName = ImmutableMap.copyOf(requireNonNull(cacheMaximumSizesByName));
+		checkArgument(cacheMaximumSizesByName.values().stream().allMatch(size -> size > 0), "Cache maximum sizes should be positive");
+		this.cacheExpiryInSeconds = requireNonNull(cacheExpiryInSeconds, "Cache expiry is mandatory");
+		checkArgument(cacheExpiryInSeconds > 0, "Cache expiry should be positive");
+		this.cacheExpiriesInSecondsByName = ImmutableMap.copyOf(requireNonNull(cacheExpiriesInSecondsByName));
+		checkArgument(cacheExpiriesInSecondsByName.values().stream().allMatch(expiry -> expiry > 0), "Cache expiries should be positive");
+		this.passwordHashIterations = requireNonNull(passwordHashIterations, "Password hash iterations is mandatory");
+		checkArgument(passwordHashIterations > 0, "Password hash iterations should be positive");
+		this.passwordHashThreads = requireNonNull(passwordHashThreads, "Password hash threads is mandatory");
+		checkArgument(passwordHashThreads > 0, "Password hash threads should be positive");
+		this.passwordHashQueueCapacity = requireNonNull(passwordHashQueueCapacity, "Password hash queue capacity is mandatory");
+		checkArgument(passwordHashQueueCapacity > 0, "Password hash queue capacity should be positive");
+		this.refreshTokenTtlInDays = requireNonNull(refreshTokenTtlInDays, "Refresh token TTL is mandatory");
+		checkArgument(refreshTokenTtlInDays > 0, "Refresh token TTL should be positive");
+		this.clientSecretCacheTtlInSeconds = requireNonNull(clientSecretCacheTtlInSeconds, "Client secret cache TTL is mandatory");
+		checkArgument(clientSecretCacheTtlInSeconds >= 0, "Client secret cache TTL should not be negative");
+		this.clientAppCacheTtlInSeconds = requireNonNull(clientAppCacheTtlInSeconds, "Client app cache TTL is mandatory");
+		checkArgument(clientAppCacheTtlInSeconds >= 0, "Client app cache TTL should not be negative");
+		this.tokenStorageMode = requireNonNull(tokenStorageMode, "Token storage mode is mandatory");
+		this.tokenStorageMaxEntries = requireNonNull(tokenStorageMaxEntries, "Token storage max entries is mandatory");
+		checkArgument(tokenStorageMaxEntries > 0, "Invalid token storage max entries");
+		this.tokenStorageSnapshotDirectory = StringUtils.trimToNull(tokenStorageSnapshotDirectory);
+		this.tokenStorageSnapshotPeriodInSeconds = requireNonNull(tokenStorageSnapshotPeriodInSeconds, "Token storage snapshot period is mandatory");
+		checkArgument(tokenStorageSnapshotPeriodInSeconds > 0, "Invalid token storage snapshot period");
+		this.rateLimitRequestsPerMinute = requireNonNull(rateLimitRequestsPerMinute, "Rate limit is mandatory");
+		checkArgument(rateLimitRequestsPerMinute >= 0, "Invalid rate limit");
+		this.rateLimitRequestsPerMinuteByRoute = ImmutableMap.copyOf(requireNonNull(rateLimitRequestsPerMinuteByRoute));
+		checkArgument(rateLimitRequestsPerMinuteByRoute.values().stream().allMatch(limit -> limit >= 0), "Route rate limits should not be negative");
+		this.rateLimitMaxKeys = requireNonNull(rateLimitMaxKeys, "Rate limit max keys is mandatory");
+		checkArgument(rateLimitMaxKeys > 0, "Invalid rate limit max keys");
+		this.loginFailureWindowInSeconds = requireNonNull(loginFailureWindowInSeconds, "Login failure window is mandatory");
+		checkArgument(loginFailureWindowInSeconds > 0, "Invalid login failure window");
+		this.loginMaxFailuresByEmail = requireNonNull(loginMaxFailuresByEmail, "Login max failures by email is mandatory");
+		checkArgument(loginMaxFailuresByEmail > 0, "Invalid login max failures by email");
+		this.loginMaxFailuresByIp = requireNonNull(loginMaxFailuresByIp, "Login max failures by IP is mandatory");
+		checkArgument(loginMaxFailuresByIp > 0, "Invalid login max failures by IP");
+		this.loginLockoutInSeconds = requireNonNull(loginLockoutInSeconds, "Login lockout is mandatory");
+		checkArgument(loginLockoutInSeconds > 0, "Invalid login lockout");
+		this.loginMaxLockoutInSeconds = requireNonNull(loginMaxLockoutInSeconds, "Login max lockout is mandatory");
+		checkArgument(loginMaxLockoutInSeconds >= loginLockoutInSeconds, "Login max lockout should not be shorter than the first lockout");
+		this.loginMaxTrackedKeys = requireNonNull(loginMaxTrackedKeys, "Login max tracked keys is mandatory");
+		checkArgument(loginMaxTrackedKeys > 0, "Invalid login max tracked keys");
+		this.adminUserIds = ImmutableSet.copyOf(requireNonNull(adminUserIds));
 		checkArgument(StringUtils.isNotBlank(swaggerBasePath), "Swagger base path is mandatory");
 		this.swaggerBasePath = swaggerBasePath;
 	}
@@ -52,6 +259,45 @@ public class Config {
 		private Integer mongoPort = 27017;
 		private String mongoUser = null;
 		private String mongoPass = null;
+		private Integer mongoSlowQueryThresholdInMillis = DEFAULT_MONGO_SLOW_QUERY_THRESHOLD_IN_MILLIS;
+		private Integer mongoCircuitBreakerWindowInSeconds = DEFAULT_MONGO_CIRCUIT_BREAKER_WINDOW_IN_SECONDS;
+		private Integer mongoCircuitBreakerMinimumCalls = DEFAULT_MONGO_CIRCUIT_BREAKER_MINIMUM_CALLS;
+		private Integer mongoCircuitBreakerFailureRateInPercent = DEFAULT_MONGO_CIRCUIT_BREAKER_FAILURE_RATE_IN_PERCENT;
+		private Integer mongoCircuitBreakerSlowCallThresholdInMillis = DEFAULT_MONGO_CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD_IN_MILLIS;
+		private Integer mongoCircuitBreakerSlowCallRateInPercent = DEFAULT_MONGO_CIRCUIT_BREAKER_SLOW_CALL_RATE_IN_PERCENT;
+		private Integer mongoCircuitBreakerOpenDurationInSeconds = DEFAULT_MONGO_CIRCUIT_BREAKER_OPEN_DURATION_IN_SECONDS;
+		private Integer mongoCircuitBreakerHalfOpenProbes = DEFAULT_MONGO_CIRCUIT_BREAKER_HALF_OPEN_PROBES;
+		private Integer requestDeadlineInMillis = DEFAULT_REQUEST_DEADLINE_IN_MILLIS;
+		private Map<String, Integer> requestDeadlinesInMillisByRoute = ImmutableMap.of();
+		private AccessTokenValidationMode accessTokenValidationMode = AccessTokenValidationMode.MONGO;
+		private Map<String, String> jwtSigningKeysById = ImmutableMap.of();
+		private String jwtActiveKeyId = null;
+		private Integer revocationMemoryBudgetInBytes = DEFAULT_REVOCATION_MEMORY_BUDGET_IN_BYTES;
+		private Integer revocationRefreshPeriodInSeconds = DEFAULT_REVOCATION_REFRESH_PERIOD_IN_SECONDS;
+		private Integer cacheMaximumSize = DEFAULT_CACHE_MAXIMUM_SIZE;
+		private Map<String, Integer> cacheMaximumSizesByName = ImmutableMap.of();
+		private Integer cacheExpiryInSeconds = DEFAULT_CACHE_EXPIRY_IN_SECONDS;
+		private Map<String, Integer> cacheExpiriesInSecondsByName = ImmutableMap.of();
+		private Integer passwordHashIterations = DEFAULT_PASSWORD_HASH_ITERATIONS;
+		private Integer passwordHashThreads = DEFAULT_PASSWORD_HASH_THREADS;
+		private Integer passwordHashQueueCapacity = DEFAULT_PASSWORD_HASH_QUEUE_CAPACITY;
+		private Integer refreshTokenTtlInDays = DEFAULT_REFRESH_TOKEN_TTL_IN_DAYS;
+		private Integer clientSecretCacheTtlInSeconds = DEFAULT_CLIENT_SECRET_CACHE_TTL_IN_SECONDS;
+		private Integer clientAppCacheTtlInSeconds = DEFAULT_CLIENT_APP_CACHE_TTL_IN_SECONDS;
+		private TokenStorageMode tokenStorageMode = TokenStorageMode.MONGO;
+		private Integer tokenStorageMaxEntries = DEFAULT_TOKEN_STORAGE_MAX_ENTRIES;
+		private String tokenStorageSnapshotDirectory = null;
+		private Integer tokenStorageSnapshotPeriodInSeconds = DEFAULT_TOKEN_STORAGE_SNAPSHOT_PERIOD_IN_SECONDS;
+		private Integer rateLimitRequestsPerMinute = DEFAULT_RATE_LIMIT_REQUESTS_PER_MINUTE;
+		private Map<String, Integer> rateLimitRequestsPerMinuteByRoute = ImmutableMap.of();
+		private Integer rateLimitMaxKeys = DEFAULT_RATE_LIMIT_MAX_KEYS;
+		private Integer loginFailureWindowInSeconds = DEFAULT_LOGIN_FAILURE_WINDOW_IN_SECONDS;
+		private Integer loginMaxFailuresByEmail = DEFAULT_LOGIN_MAX_FAILURES_BY_EMAIL;
+		private Integer loginMaxFailuresByIp = DEFAULT_LOGIN_MAX_FAILURES_BY_IP;
+		private Integer loginLockoutInSeconds = DEFAULT_LOGIN_LOCKOUT_IN_SECONDS;
+		private Integer loginMaxLockoutInSeconds = DEFAULT_LOGIN_MAX_LOCKOUT_IN_SECONDS;
+		private Integer loginMaxTrackedKeys = DEFAULT_LOGIN_MAX_TRACKED_KEYS;
+		private Set<UUID> adminUserIds = ImmutableSet.of();
 		private String swaggerBasePath = "/shopping/rest";
 		
 		private Builder() { }
@@ -81,6 +327,45 @@ public class Config {
             builder.mongoPort = otherBuilder.mongoPort;
             builder.mongoUser = otherBuilder.mongoUser;
             builder.mongoPass = otherBuilder.mongoPass;
+            builder.mongoSlowQueryThresholdInMillis = otherBuilder.mongoSlowQueryThresholdInMillis;
+            builder.mongoCircuitBreakerWindowInSeconds = otherBuilder.mongoCircuitBreakerWindowInSeconds;
+            builder.mongoCircuitBreakerMinimumCalls = otherBuilder.mongoCircuitBreakerMinimumCalls;
+            builder.mongoCircuitBreakerFailureRateInPercent = otherBuilder.mongoCircuitBreakerFailureRateInPercent;
+            builder.mongoCircuitBreakerSlowCallThresholdInMillis = otherBuilder.mongoCircuitBreakerSlowCallThresholdInMillis;
+            builder.mongoCircuitBreakerSlowCallRateInPercent = otherBuilder.mongoCircuitBreakerSlowCallRateInPercent;
+            builder.mongoCircuitBreakerOpenDurationInSeconds = otherBuilder.mongoCircuitBreakerOpenDurationInSeconds;
+            builder.mongoCircuitBreakerHalfOpenProbes = otherBuilder.mongoCircuitBreakerHalfOpenProbes;
+            builder.requestDeadlineInMillis = otherBuilder.requestDeadlineInMillis;
+            builder.requestDeadlinesInMillisByRoute = otherBuilder.requestDeadlinesInMillisByRoute;
+            builder.accessTokenValidationMode = otherBuilder.accessTokenValidationMode;
+            builder.jwtSigningKeysById = otherBuilder.jwtSigningKeysById;
+            builder.jwtActiveKeyId = otherBuilder.jwtActiveKeyId;
+            builder.revocationMemoryBudgetInBytes = otherBuilder.revocationMemoryBudgetInBytes;
+            builder.revocationRefreshPeriodInSeconds = otherBuilder.revocationRefreshPeriodInSeconds;
+            builder.cacheMaximumSize = otherBuilder.cacheMaximumSize;
+            builder.cacheMaximumSizesByName = otherBuilder.cacheMaximumSizesByName;
+            builder.cacheExpiryInSeconds = otherBuilder.cacheExpiryInSeconds;
+            builder.cacheExpiriesInSecondsByName = otherBuilder.cacheExpiriesInSecondsByName;
+            builder.passwordHashIterations = otherBuilder.passwordHashIterations;
+            builder.passwordHashThreads = otherBuilder.passwordHashThreads;
+            builder.passwordHashQueueCapacity = otherBuilder.passwordHashQueueCapacity;
+            builder.refreshTokenTtlInDays = otherBuilder.refreshTokenTtlInDays;
+            builder.clientSecretCacheTtlInSeconds = otherBuilder.clientSecretCacheTtlInSeconds;
+            builder.clientAppCacheTtlInSeconds = otherBuilder.clientAppCacheTtlInSeconds;
+            builder.tokenStorageMode = otherBuilder.tokenStorageMode;
+            builder.tokenStorageMaxEntries = otherBuilder.tokenStorageMaxEntries;
+            builder.tokenStorageSnapshotDirectory = otherBuilder.tokenStorageSnapshotDirectory;
+            builder.tokenStorageSnapshotPeriodInSeconds = otherBuilder.tokenStorageSnapshotPeriodInSeconds;
+            builder.rateLimitRequestsPerMinute = otherBuilder.rateLimitRequestsPerMinute;
+            builder.rateLimitRequestsPerMinuteByRoute = otherBuilder.rateLimitRequestsPerMinuteByRoute;
+            builder.rateLimitMaxKeys = otherBuilder.rateLimitMaxKeys;
+            builder.loginFailureWindowInSeconds = otherBuilder.loginFailureWindowInSeconds;
+            builder.loginMaxFailuresByEmail = otherBuilder.loginMaxFailuresByEmail;
+            builder.loginMaxFailuresByIp = otherBuilder.loginMaxFailuresByIp;
+            builder.loginLockoutInSeconds = otherBuilder.loginLockoutInSeconds;
+            builder.loginMaxLockoutInSeconds = otherBuilder.loginMaxLockoutInSeconds;
+            builder.loginMaxTrackedKeys = otherBuilder.loginMaxTrackedKeys;
+            builder.adminUserIds = otherBuilder.adminUserIds;
             builder.swaggerBasePath = otherBuilder.swaggerBasePath;
 
             return builder;
@@ -101,12 +386,62 @@ public class Config {
 	            	.withMongoPass(config.mongoPass)
 	            	.withMongoPort(config.mongoPort)
 	            	.withMongoUser(config.mongoUser)
+	            	.withMongoSlowQueryThresholdInMillis(config.mongoSlowQueryThresholdInMillis)
+	            	.withMongoCircuitBreakerWindowInSeconds(config.mongoCircuitBreakerWindowInSeconds)
+	            	.withMongoCircuitBreakerMinimumCalls(config.mongoCircuitBreakerMinimumCalls)
+	            	.withMongoCircuitBreakerFailureRateInPercent(config.mongoCircuitBreakerFailureRateInPercent)
+	            	.withMongoCircuitBreakerSlowCallThresholdInMillis(config.mongoCircuitBreakerSlowCallThresholdInMillis)
+	            	.withMongoCircuitBreakerSlowCallRateInPercent(config.mongoCircuitBreakerSlowCallRateInPercent)
+	            	.withMongoCircuitBreakerOpenDurationInSeconds(config.mongoCircuitBreakerOpenDurationInSeconds)
+	            	.withMongoCircuitBreakerHalfOpenProbes(config.mongoCircuitBreakerHalfOpenProbes)
+	            	.withRequestDeadlineInMillis(config.requestDeadlineInMillis)
+	            	.withRequestDeadlinesInMillisByRoute(config.requestDeadlinesInMillisByRoute)
+	            	.withAccessTokenValidationMode(config.accessTokenValidationMode)
+	            	.withJwtSigningKeysById(config.jwtSigningKeysById)
+	            	.withJwtActiveKeyId(config.jwtActiveKeyId)
+	            	.withRevocationMemoryBudgetInBytes(config.revocationMemoryBudgetInBytes)
+	            	.withRevocationRefreshPeriodInSeconds(config.revocationRefreshPeriodInSeconds)
+	            	.withCacheMaximumSize(config.cacheMaximumSize)
+	            	.withCacheMaximumSizesByName(config.cacheMaximumSizesByName)
+	            	.withCacheExpiryInSeconds(config.cacheExpiryInSeconds)
+	            	.withCacheExpiriesInSecondsByName(config.cacheExpiriesInSecondsByName)
+	            	.withPasswordHashIterations(config.passwordHashIterations)
+	            	.withPasswordHashThreads(config.passwordHashThreads)
+	            	.withPasswordHashQueueCapacity(config.passwordHashQueueCapacity)
+	            	.withRefreshTokenTtlInDays(config.refreshTokenTtlInDays)
+	            	.withClientSecretCacheTtlInSeconds(config.clientSecretCacheTtlInSeconds)
+	            	.withClientAppCacheTtlInSeconds(config.clientAppCacheTtlInSeconds)
+	            	.withTokenStorageMode(config.tokenStorageMode)
+	            	.withTokenStorageMaxEntries(config.tokenStorageMaxEntries)
+	            	.withTokenStorageSnapshotDirectory(config.tokenStorageSnapshotDirectory)
+	            	.withTokenStorageSnapshotPeriodInSeconds(config.tokenStorageSnapshotPeriodInSeconds)
+	            	.withRateLimitRequestsPerMinute(config.rateLimitRequestsPerMinute)
+	            	.withRateLimitRequestsPerMinuteByRoute(config.rateLimitRequestsPerMinuteByRoute)
+	            	.withRateLimitMaxKeys(config.rateLimitMaxKeys)
+	            	.withLoginFailureWindowInSeconds(config.loginFailureWindowInSeconds)
+	            	.withLoginMaxFailuresByEmail(config.loginMaxFailuresByEmail)
+	            	.withLoginMaxFailuresByIp(config.loginMaxFailuresByIp)
+	            	.withLoginLockoutInSeconds(config.loginLockoutInSeconds)
+	            	.withLoginMaxLockoutInSeconds(config.loginMaxLockoutInSeconds)
+	            	.withLoginMaxTrackedKeys(config.loginMaxTrackedKeys)
+	            	.withAdminUserIds(config.adminUserIds)
 	            	.withSwaggerBasePath(config.swaggerBasePath);
         }
         
         @Override
         public Config build() {
-            return new Config(apiScheme, apiHost, apiPort, mongoHost, mongoPort, mongoUser, mongoPass, swaggerBasePath);
+            return new Config(apiScheme, apiHost, apiPort, mongoHost, mongoPort, mongoUser, mongoPass, mongoSlowQueryThresholdInMillis,
+            		mongoCircuitBreakerWindowInSeconds, mongoCircuitBreakerMinimumCalls, mongoCircuitBreakerFailureRateInPercent, mongoCircuitBreakerSlowCallThresholdInMillis, mongoCircuitBreakerSlowCallRateInPercent, mongoCircuitBreakerOpenDurationInSeconds, mongoCircuitBreakerHalfOpenProbes,
+            		requestDeadlineInMillis, requestDeadlinesInMillisByRoute,
+            		accessTokenValidationMode, jwtSigningKeysById, jwtActiveKeyId, revocationMemoryBudgetInBytes, revocationRefreshPeriodInSeconds,
+            		cacheMaximumSize, cacheMaximumSizesByName, cacheExpiryInSeconds, cacheExpiriesInSecondsByName,
+            		passwordHashIterations, passwordHashThreads, passwordHashQueueCapacity,
+            		refreshTokenTtlInDays,
+            		clientSecretCacheTtlInSeconds,
+            		clientAppCacheTtlInSeconds,
+            		tokenStorageMode, tokenStorageMaxEntries, tokenStorageSnapshotDirectory, tokenStorageSnapshotPeriodInSeconds,
+            		rateLimitRequestsPerMinute, rateLimitRequestsPerMinuteByRoute, rateLimitMaxKeys,
+            		loginFailureWindowInSeconds, loginMaxFailuresByEmail, loginMaxFailuresByIp, loginLockoutInSeconds, loginMaxLockoutInSeconds, loginMaxTrackedKeys, adminUserIds, swaggerBasePath);
         }
         
         public Builder withApiScheme(String apiScheme) {
@@ -144,6 +479,201 @@ public class Config {
 			return this;
 		}
 
+		public Builder withMongoSlowQueryThresholdInMillis(Integer mongoSlowQueryThresholdInMillis) {
+			this.mongoSlowQueryThresholdInMillis = mongoSlowQueryThresholdInMillis;
+			return this;
+		}
+
+		public Builder withMongoCircuitBreakerWindowInSeconds(Integer mongoCircuitBreakerWindowInSeconds) {
+			this.mongoCircuitBreakerWindowInSeconds = mongoCircuitBreakerWindowInSeconds;
+			return this;
+		}
+
+		public Builder withMongoCircuitBreakerMinimumCalls(Integer mongoCircuitBreakerMinimumCalls) {
+			this.mongoCircuitBreakerMinimumCalls = mongoCircuitBreakerMinimumCalls;
+			return this;
+		}
+
+		public Builder withMongoCircuitBreakerFailureRateInPercent(Integer mongoCircuitBreakerFailureRateInPercent) {
+			this.mongoCircuitBreakerFailureRateInPercent = mongoCircuitBreakerFailureRateInPercent;
+			return this;
+		}
+
+		public Builder withMongoCircuitBreakerSlowCallThresholdInMillis(Integer mongoCircuitBreakerSlowCallThresholdInMillis) {
+			this.mongoCircuitBreakerSlowCallThresholdInMillis = mongoCircuitBreakerSlowCallThresholdInMillis;
+			return this;
+		}
+
+		public Builder withMongoCircuitBreakerSlowCallRateInPercent(Integer mongoCircuitBreakerSlowCallRateInPercent) {
+			this.mongoCircuitBreakerSlowCallRateInPercent = mongoCircuitBreakerSlowCallRateInPercent;
+			return this;
+		}
+
+		public Builder withMongoCircuitBreakerOpenDurationInSeconds(Integer mongoCircuitBreakerOpenDurationInSeconds) {
+			this.mongoCircuitBreakerOpenDurationInSeconds = mongoCircuitBreakerOpenDurationInSeconds;
+			return this;
+		}
+
+		public Builder withMongoCircuitBreakerHalfOpenProbes(Integer mongoCircuitBreakerHalfOpenProbes) {
+			this.mongoCircuitBreakerHalfOpenProbes = mongoCircuitBreakerHalfOpenProbes;
+			return this;
+		}
+
+		public Builder withRequestDeadlineInMillis(Integer requestDeadlineInMillis) {
+			this.requestDeadlineInMillis = requestDeadlineInMillis;
+			return this;
+		}
+
+		public Builder withRequestDeadlinesInMillisByRoute(Map<String, Integer> requestDeadlinesInMillisByRoute) {
+			this.requestDeadlinesInMillisByRoute = requestDeadlinesInMillisByRoute;
+			return this;
+		}
+
+		public Builder withAccessTokenValidationMode(AccessTokenValidationMode accessTokenValidationMode) {
+			this.accessTokenValidationMode = accessTokenValidationMode;
+			return this;
+		}
+
+		public Builder withJwtSigningKeysById(Map<String, String> jwtSigningKeysById) {
+			this.jwtSigningKeysById = jwtSigningKeysById;
+			return this;
+		}
+
+		public Builder withJwtActiveKeyId(String jwtActiveKeyId) {
+			this.jwtActiveKeyId = jwtActiveKeyId;
+			return this;
+		}
+
+		public Builder withRevocationMemoryBudgetInBytes(Integer revocationMemoryBudgetInBytes) {
+			this.revocationMemoryBudgetInBytes = revocationMemoryBudgetInBytes;
+			return this;
+		}
+
+		public Builder withRevocationRefreshPeriodInSeconds(Integer revocationRefreshPeriodInSeconds) {
+			this.revocationRefreshPeriodInSeconds = revocationRefreshPeriodInSeconds;
+			return this;
+		}
+
+		public Builder withCacheMaximumSize(Integer cacheMaximumSize) {
+			this.cacheMaximumSize = cacheMaximumSize;
+			return this;
+		}
+
+		public Builder withCacheMaximumSizesByName(Map<String, Integer> cacheMaximumSizesByName) {
+			this.cacheMaximumSizesByName = cacheMaximumSizesByName;
+			return this;
+		}
+
+		public Builder withCacheExpiryInSeconds(Integer cacheExpiryInSeconds) {
+			this.cacheExpiryInSeconds = cacheExpiryInSeconds;
+			return this;
+		}
+
+		public Builder withCacheExpiriesInSecondsByName(Map<String, Integer> cacheExpiriesInSecondsByName) {
+			this.cacheExpiriesInSecondsByName = cacheExpiriesInSecondsByName;
+			return this;
+		}
+
+		public Builder withPasswordHashIterations(Integer passwordHashIterations) {
+			this.passwordHashIterations = passwordHashIterations;
+			return this;
+		}
+
+		public Builder withPasswordHashThreads(Integer passwordHashThreads) {
+			this.passwordHashThreads = passwordHashThreads;
+			return this;
+		}
+
+		public Builder withPasswordHashQueueCapacity(Integer passwordHashQueueCapacity) {
+			this.passwordHashQueueCapacity = passwordHashQueueCapacity;
+			return this;
+		}
+
+		public Builder withRefreshTokenTtlInDays(Integer refreshTokenTtlInDays) {
+			this.refreshTokenTtlInDays = refreshTokenTtlInDays;
+			return this;
+		}
+
+		public Builder withClientSecretCacheTtlInSeconds(Integer clientSecretCacheTtlInSeconds) {
+			this.clientSecretCacheTtlInSeconds = clientSecretCacheTtlInSeconds;
+			return this;
+		}
+
+		public Builder withClientAppCacheTtlInSeconds(Integer clientAppCacheTtlInSeconds) {
+			this.clientAppCacheTtlInSeconds = clientAppCacheTtlInSeconds;
+			return this;
+		}
+
+		public Builder withTokenStorageMode(TokenStorageMode tokenStorageMode) {
+			this.tokenStorageMode = tokenStorageMode;
+			return this;
+		}
+
+		public Builder withTokenStorageMaxEntries(Integer tokenStorageMaxEntries) {
+			this.tokenStorageMaxEntries = tokenStorageMaxEntries;
+			return this;
+		}
+
+		public Builder withTokenStorageSnapshotDirectory(String tokenStorageSnapshotDirectory) {
+			this.tokenStorageSnapshotDirectory = tokenStorageSnapshotDirectory;
+			return this;
+		}
+
+		public Builder withTokenStorageSnapshotPeriodInSeconds(Integer tokenStorageSnapshotPeriodInSeconds) {
+			this.tokenStorageSnapshotPeriodInSeconds = tokenStorageSnapshotPeriodInSeconds;
+			return this;
+		}
+
+		public Builder withRateLimitRequestsPerMinute(Integer rateLimitRequestsPerMinute) {
+			this.rateLimitRequestsPerMinute = rateLimitRequestsPerMinute;
+			return this;
+		}
+
+		public Builder withRateLimitRequestsPerMinuteByRoute(Map<String, Integer> rateLimitRequestsPerMinuteByRoute) {
+			this.rateLimitRequestsPerMinuteByRoute = rateLimitRequestsPerMinuteByRoute;
+			return this;
+		}
+
+		public Builder withRateLimitMaxKeys(Integer rateLimitMaxKeys) {
+			this.rateLimitMaxKeys = rateLimitMaxKeys;
+			return this;
+		}
+
+		public Builder withLoginFailureWindowInSeconds(Integer loginFailureWindowInSeconds) {
+			this.loginFailureWindowInSeconds = loginFailureWindowInSeconds;
+			return this;
+		}
+
+		public Builder withLoginMaxFailuresByEmail(Integer loginMaxFailuresByEmail) {
+			this.loginMaxFailuresByEmail = loginMaxFailuresByEmail;
+			return this;
+		}
+
+		public Builder withLoginMaxFailuresByIp(Integer loginMaxFailuresByIp) {
+			this.loginMaxFailuresByIp = loginMaxFailuresByIp;
+			return this;
+		}
+
+		public Builder withLoginLockoutInSeconds(Integer loginLockoutInSeconds) {
+			this.loginLockoutInSeconds = loginLockoutInSeconds;
+			return this;
+		}
+
+		public Builder withLoginMaxLockoutInSeconds(Integer loginMaxLockoutInSeconds) {
+			this.loginMaxLockoutInSeconds = loginMaxLockoutInSeconds;
+			return this;
+		}
+
+		public Builder withLoginMaxTrackedKeys(Integer loginMaxTrackedKeys) {
+			this.loginMaxTrackedKeys = loginMaxTrackedKeys;
+			return this;
+		}
+
+		public Builder withAdminUserIds(Set<UUID> adminUserIds) {
+			this.adminUserIds = adminUserIds;
+			return this;
+		}
+
 		public Builder withSwaggerBasePath(String swaggerBasePath) {
 			this.swaggerBasePath = swaggerBasePath;
 			return this;
@@ -179,13 +709,180 @@ public class Config {
 		return mongoPass;
 	}
 
+	public Integer getMongoSlowQueryThresholdInMillis() {
+		return mongoSlowQueryThresholdInMillis;
+	}
+
+	public Integer getMongoCircuitBreakerWindowInSeconds() {
+		return mongoCircuitBreakerWindowInSeconds;
+	}
+
+	public Integer getMongoCircuitBreakerMinimumCalls() {
+		return mongoCircuitBreakerMinimumCalls;
+	}
+
+	public Integer getMongoCircuitBreakerFailureRateInPercent() {
+		return mongoCircuitBreakerFailureRateInPercent;
+	}
+
+	public Integer getMongoCircuitBreakerSlowCallThresholdInMillis() {
+		return mongoCircuitBreakerSlowCallThresholdInMillis;
+	}
+
+	public Integer getMongoCircuitBreakerSlowCallRateInPercent() {
+		return mongoCircuitBreakerSlowCallRateInPercent;
+	}
+
+	public Integer getMongoCircuitBreakerOpenDurationInSeconds() {
+		return mongoCircuitBreakerOpenDurationInSeconds;
+	}
+
+	public Integer getMongoCircuitBreakerHalfOpenProbes() {
+		return mongoCircuitBreakerHalfOpenProbes;
+	}
+
+	public Integer getRequestDeadlineInMillis() {
+		return requestDeadlineInMillis;
+	}
+
+	public ImmutableMap<String, Integer> getRequestDeadlinesInMillisByRoute() {
+		return requestDeadlinesInMillisByRoute;
+	}
+
+	public AccessTokenValidationMode getAccessTokenValidationMode() {
+		return accessTokenValidationMode;
+	}
+
+	public ImmutableMap<String, String> getJwtSigningKeysById() {
+		return jwtSigningKeysById;
+	}
+
+	public String getJwtActiveKeyId() {
+		return jwtActiveKeyId;
+	}
+
+	public Integer getRevocationMemoryBudgetInBytes() {
+		return revocationMemoryBudgetInBytes;
+	}
+
+	public Integer getRevocationRefreshPeriodInSeconds() {
+		return revocationRefreshPeriodInSeconds;
+	}
+
+	public Integer getCacheMaximumSize() {
+		return cacheMaximumSize;
+	}
+
+	public ImmutableMap<String, Integer> getCacheMaximumSizesByName() {
+		return cacheMaximumSizesByName;
+	}
+
+	public Integer getCacheExpiryInSeconds() {
+		return cacheExpiryInSeconds;
+	}
+
+	public ImmutableMap<String, Integer> getCacheExpiriesInSecondsByName() {
+		return cacheExpiriesInSecondsByName;
+	}
+
+	public Integer getPasswordHashIterations() {
+		return passwordHashIterations;
+	}
+
+	public Integer getPasswordHashThreads() {
+		return passwordHashThreads;
+	}
+
+	public Integer getPasswordHashQueueCapacity() {
+		return passwordHashQueueCapacity;
+	}
+
+	public Integer getRefreshTokenTtlInDays() {
+		return refreshTokenTtlInDays;
+	}
+
+	public Integer getClientSecretCacheTtlInSeconds() {
+		return clientSecretCacheTtlInSeconds;
+	}
+
+	public Integer getClientAppCacheTtlInSeconds() {
+		return clientAppCacheTtlInSeconds;
+	}
+
+	public TokenStorageMode getTokenStorageMode() {
+		return tokenStorageMode;
+	}
+
+	public Integer getTokenStorageMaxEntries() {
+		return tokenStorageMaxEntries;
+	}
+
+	public String getTokenStorageSnapshotDirectory() {
+		return tokenStorageSnapshotDirectory;
+	}
+
+	public Integer getTokenStorageSnapshotPeriodInSeconds() {
+		return tokenStorageSnapshotPeriodInSeconds;
+	}
+
+	public Integer getRateLimitRequestsPerMinute() {
+		return rateLimitRequestsPerMinute;
+	}
+
+	public ImmutableMap<String, Integer> getRateLimitRequestsPerMinuteByRoute() {
+		return rateLimitRequestsPerMinuteByRoute;
+	}
+
+	public Integer getRateLimitMaxKeys() {
+		return rateLimitMaxKeys;
+	}
+
+	public Integer getLoginFailureWindowInSeconds() {
+		return loginFailureWindowInSeconds;
+	}
+
+	public Integer getLoginMaxFailuresByEmail() {
+		return loginMaxFailuresByEmail;
+	}
+
+	public Integer getLoginMaxFailuresByIp() {
+		return loginMaxFailuresByIp;
+	}
+
+	public Integer getLoginLockoutInSeconds() {
+		return loginLockoutInSeconds;
+	}
+
+	public Integer getLoginMaxLockoutInSeconds() {
+		return loginMaxLockoutInSeconds;
+	}
+
+	public Integer getLoginMaxTrackedKeys() {
+		return loginMaxTrackedKeys;
+	}
+
+	public ImmutableSet<UUID> getAdminUserIds() {
+		return adminUserIds;
+	}
+
 	public String getSwaggerBasePath() {
 		return swaggerBasePath;
 	}
 	
 	@Override
 	public int hashCode() {
-		return Objects.hash(apiScheme, apiHost, apiPort, mongoHost, mongoPort, mongoUser, mongoPass, swaggerBasePath);
+		return Objects.hash(apiScheme, apiHost, apiPort, mongoHost, mongoPort, mongoUser, mongoPass, mongoSlowQueryThresholdInMillis,
+			mongoCircuitBreakerWindowInSeconds, mongoCircuitBreakerMinimumCalls, mongoCircuitBreakerFailureRateInPercent, mongoCircuitBreakerSlowCallThresholdInMillis, mongoCircuitBreakerSlowCallRateInPercent, mongoCircuitBreakerOpenDurationInSeconds, mongoCircuitBreakerHalfOpenProbes,
+			requestDeadlineInMillis, requestDeadlinesInMillisByRoute,
+			accessTokenValidationMode, jwtSigningKeysById, jwtActiveKeyId, revocationMemoryBudgetInBytes, revocationRefreshPeriodInSeconds,
+			cacheMaximumSize, cacheMaximumSizesByName, cacheExpiryInSeconds, cacheExpiriesInSecondsByName,
+			passwordHashIterations, passwordHashThreads, passwordHashQueueCapacity,
+			refreshTokenTtlInDays,
+			clientSecretCacheTtlInSeconds,
+			clientAppCacheTtlInSeconds,
+			tokenStorageMode, tokenStorageMaxEntries, tokenStorageSnapshotDirectory, tokenStorageSnapshotPeriodInSeconds,
+			rateLimitRequestsPerMinute, rateLimitRequestsPerMinuteByRoute, rateLimitMaxKeys,
+			loginFailureWindowInSeconds, loginMaxFailuresByEmail, loginMaxFailuresByIp, loginLockoutInSeconds, loginMaxLockoutInSeconds, loginMaxTrackedKeys, adminUserIds, swaggerBasePath);
 	}
 
 	@Override
@@ -204,6 +901,45 @@ public class Config {
                 && Objects.equals(this.mongoPort, that.mongoPort)
                 && Objects.equals(this.mongoUser, that.mongoUser)
                 && Objects.equals(this.mongoPass, that.mongoPass)
+                && Objects.equals(this.mongoSlowQueryThresholdInMillis, that.mongoSlowQueryThresholdInMillis)
+                && Objects.equals(this.mongoCircuitBreakerWindowInSeconds, that.mongoCircuitBreakerWindowInSeconds)
+                && Objects.equals(this.mongoCircuitBreakerMinimumCalls, that.mongoCircuitBreakerMinimumCalls)
+                && Objects.equals(this.mongoCircuitBreakerFailureRateInPercent, that.mongoCircuitBreakerFailureRateInPercent)
+                && Objects.equals(this.mongoCircuitBreakerSlowCallThresholdInMillis, that.mongoCircuitBreakerSlowCallThresholdInMillis)
+                && Objects.equals(this.mongoCircuitBreakerSlowCallRateInPercent, that.mongoCircuitBreakerSlowCallRateInPercent)
+                && Objects.equals(this.mongoCircuitBreakerOpenDurationInSeconds, that.mongoCircuitBreakerOpenDurationInSeconds)
+                && Objects.equals(this.mongoCircuitBreakerHalfOpenProbes, that.mongoCircuitBreakerHalfOpenProbes)
+                && Objects.equals(this.requestDeadlineInMillis, that.requestDeadlineInMillis)
+                && Objects.equals(this.requestDeadlinesInMillisByRoute, that.requestDeadlinesInMillisByRoute)
+                && Objects.equals(this.accessTokenValidationMode, that.accessTokenValidationMode)
+                && Objects.equals(this.jwtSigningKeysById, that.jwtSigningKeysById)
+                && Objects.equals(this.jwtActiveKeyId, that.jwtActiveKeyId)
+                && Objects.equals(this.revocationMemoryBudgetInBytes, that.revocationMemoryBudgetInBytes)
+                && Objects.equals(this.revocationRefreshPeriodInSeconds, that.revocationRefreshPeriodInSeconds)
+                && Objects.equals(this.cacheMaximumSize, that.cacheMaximumSize)
+                && Objects.equals(this.cacheMaximumSizesByName, that.cacheMaximumSizesByName)
+                && Objects.equals(this.cacheExpiryInSeconds, that.cacheExpiryInSeconds)
+                && Objects.equals(this.cacheExpiriesInSecondsByName, that.cacheExpiriesInSecondsByName)
+                && Objects.equals(this.passwordHashIterations, that.passwordHashIterations)
+                && Objects.equals(this.passwordHashThreads, that.passwordHashThreads)
+                && Objects.equals(this.passwordHashQueueCapacity, that.passwordHashQueueCapacity)
+                && Objects.equals(this.refreshTokenTtlInDays, that.refreshTokenTtlInDays)
+                && Objects.equals(this.clientSecretCacheTtlInSeconds, that.clientSecretCacheTtlInSeconds)
+                && Objects.equals(this.clientAppCacheTtlInSeconds, that.clientAppCacheTtlInSeconds)
+                && Objects.equals(this.tokenStorageMode, that.tokenStorageMode)
+                && Objects.equals(this.tokenStorageMaxEntries, that.tokenStorageMaxEntries)
+                && Objects.equals(this.tokenStorageSnapshotDirectory, that.tokenStorageSnapshotDirectory)
+                && Objects.equals(this.tokenStorageSnapshotPeriodInSeconds, that.tokenStorageSnapshotPeriodInSeconds)
+                && Objects.equals(this.rateLimitRequestsPerMinute, that.rateLimitRequestsPerMinute)
+                && Objects.equals(this.rateLimitRequestsPerMinuteByRoute, that.rateLimitRequestsPerMinuteByRoute)
+                && Objects.equals(this.rateLimitMaxKeys, that.rateLimitMaxKeys)
+                && Objects.equals(this.loginFailureWindowInSeconds, that.loginFailureWindowInSeconds)
+                && Objects.equals(this.loginMaxFailuresByEmail, that.loginMaxFailuresByEmail)
+                && Objects.equals(this.loginMaxFailuresByIp, that.loginMaxFailuresByIp)
+                && Objects.equals(this.loginLockoutInSeconds, that.loginLockoutInSeconds)
+                && Objects.equals(this.loginMaxLockoutInSeconds, that.loginMaxLockoutInSeconds)
+                && Objects.equals(this.loginMaxTrackedKeys, that.loginMaxTrackedKeys)
+                && Objects.equals(this.adminUserIds, that.adminUserIds)
                 && Objects.equals(this.swaggerBasePath, that.swaggerBasePath);
     }
 	
@@ -216,6 +952,46 @@ public class Config {
 											   .add("mongoPort", mongoPort)
 											   .add("mongoUser", mongoUser)
 											   .add("mongoPass", mongoPass)
+											   .add("mongoSlowQueryThresholdInMillis", mongoSlowQueryThresholdInMillis)
+											   .add("mongoCircuitBreakerWindowInSeconds", mongoCircuitBreakerWindowInSeconds)
+											   .add("mongoCircuitBreakerMinimumCalls", mongoCircuitBreakerMinimumCalls)
+											   .add("mongoCircuitBreakerFailureRateInPercent", mongoCircuitBreakerFailureRateInPercent)
+											   .add("mongoCircuitBreakerSlowCallThresholdInMillis", mongoCircuitBreakerSlowCallThresholdInMillis)
+											   .add("mongoCircuitBreakerSlowCallRateInPercent", mongoCircuitBreakerSlowCallRateInPercent)
+											   .add("mongoCircuitBreakerOpenDurationInSeconds", mongoCircuitBreakerOpenDurationInSeconds)
+											   .add("mongoCircuitBreakerHalfOpenProbes", mongoCircuitBreakerHalfOpenProbes)
+											   .add("requestDeadlineInMillis", requestDeadlineInMillis)
+											   .add("requestDeadlinesInMillisByRoute", requestDeadlinesInMillisByRoute)
+											   .add("accessTokenValidationMode", accessTokenValidationMode)
+											   //keys are secrets, only their ids are shown
+											   .add("jwtSigningKeyIds", jwtSigningKeysById.keySet())
+											   .add("jwtActiveKeyId", jwtActiveKeyId)
+											   .add("revocationMemoryBudgetInBytes", revocationMemoryBudgetInBytes)
+											   .add("revocationRefreshPeriodInSeconds", revocationRefreshPeriodInSeconds)
+											   .add("cacheMaximumSize", cacheMaximumSize)
+											   .add("cacheMaximumSizesByName", cacheMaximumSizesByName)
+											   .add("cacheExpiryInSeconds", cacheExpiryInSeconds)
+											   .add("cacheExpiriesInSecondsByName", cacheExpiriesInSecondsByName)
+											   .add("passwordHashIterations", passwordHashIterations)
+											   .add("passwordHashThreads", passwordHashThreads)
+											   .add("passwordHashQueueCapacity", passwordHashQueueCapacity)
+											   .add("refreshTokenTtlInDays", refreshTokenTtlInDays)
+											   .add("clientSecretCacheTtlInSeconds", clientSecretCacheTtlInSeconds)
+											   .add("clientAppCacheTtlInSeconds", clientAppCacheTtlInSeconds)
+											   .add("tokenStorageMode", tokenStorageMode)
+											   .add("tokenStorageMaxEntries", tokenStorageMaxEntries)
+											   .add("tokenStorageSnapshotDirectory", tokenStorageSnapshotDirectory)
+											   .add("tokenStorageSnapshotPeriodInSeconds", tokenStorageSnapshotPeriodInSeconds)
+											   .add("rateLimitRequestsPerMinute", rateLimitRequestsPerMinute)
+											   .add("rateLimitRequestsPerMinuteByRoute", rateLimitRequestsPerMinuteByRoute)
+											   .add("rateLimitMaxKeys", rateLimitMaxKeys)
+											   .add("loginFailureWindowInSeconds", loginFailureWindowInSeconds)
+											   .add("loginMaxFailuresByEmail", loginMaxFailuresByEmail)
+											   .add("loginMaxFailuresByIp", loginMaxFailuresByIp)
+											   .add("loginLockoutInSeconds", loginLockoutInSeconds)
+											   .add("loginMaxLockoutInSeconds", loginMaxLockoutInSeconds)
+											   .add("loginMaxTrackedKeys", loginMaxTrackedKeys)
+											   .add("adminUserIds", adminUserIds)
 											   .add("swaggerBasePath", swaggerBasePath)
 											   .toString();
 	}
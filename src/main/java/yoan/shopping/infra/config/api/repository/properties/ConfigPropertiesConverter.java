@@ -6,9 +6,18 @@ package yoan.shopping.infra.config.api.repository.properties;
 import static yoan.shopping.infra.util.helper.PropertiesConverterHelper.getMandatoryIntegerProperty;
 import static yoan.shopping.infra.util.helper.PropertiesConverterHelper.getMandatoryProperty;
 import static yoan.shopping.infra.util.helper.PropertiesConverterHelper.getOptionalProperty;
+import static yoan.shopping.infra.util.helper.PropertiesConverterHelper.getOptionnalIntegerMapProperty;
+import static yoan.shopping.infra.util.helper.PropertiesConverterHelper.getOptionnalIntegerProperty;
+import static yoan.shopping.infra.util.helper.PropertiesConverterHelper.getOptionnalMapProperty;
+import static yoan.shopping.infra.util.helper.PropertiesConverterHelper.getOptionnalUUIDSetProperty;
 
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
 
+import yoan.shopping.authentication.realm.AccessTokenValidationMode;
+import yoan.shopping.authentication.repository.TokenStorageMode;
 import yoan.shopping.infra.config.api.Config;
 
 /**
@@ -24,6 +33,47 @@ public class ConfigPropertiesConverter {
 	protected static final String MONGO_PORT_FIELD = "mongo.port";
 	protected static final String MONGO_USER_FIELD = "mongo.user";
 	protected static final String MONGO_PASS_FIELD = "mongo.pass";
+	protected static final String MONGO_SLOW_QUERY_THRESHOLD_FIELD = "mongo.slowQuery.thresholdInMillis";
+	protected static final String MONGO_CIRCUIT_BREAKER_WINDOW_FIELD = "mongo.circuitBreaker.windowInSeconds";
+	protected static final String MONGO_CIRCUIT_BREAKER_MINIMUM_CALLS_FIELD = "mongo.circuitBreaker.minimumCalls";
+	protected static final String MONGO_CIRCUIT_BREAKER_FAILURE_RATE_FIELD = "mongo.circuitBreaker.failureRateInPercent";
+	protected static final String MONGO_CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD_FIELD = "mongo.circuitBreaker.slowCallThresholdInMillis";
+	protected static final String MONGO_CIRCUIT_BREAKER_SLOW_CALL_RATE_FIELD = "mongo.circuitBreaker.slowCallRateInPercent";
+	protected static final String MONGO_CIRCUIT_BREAKER_OPEN_DURATION_FIELD = "mongo.circuitBreaker.openDurationInSeconds";
+	protected static final String MONGO_CIRCUIT_BREAKER_HALF_OPEN_PROBES_FIELD = "mongo.circuitBreaker.halfOpenProbes";
+	
+	protected static final String REQUEST_DEADLINE_FIELD = "request.deadline.defaultInMillis";
+	protected static final String REQUEST_DEADLINES_BY_ROUTE_FIELD = "request.deadline.routesInMillis";
+	
+	protected static final String ACCESS_TOKEN_VALIDATION_MODE_FIELD = "security.accessToken.validationMode";
+	protected static final String JWT_SIGNING_KEYS_FIELD = "security.jwt.signingKeys";
+	protected static final String JWT_ACTIVE_KEY_ID_FIELD = "security.jwt.activeKeyId";
+	protected static final String REVOCATION_MEMORY_BUDGET_FIELD = "security.revocation.memoryBudgetInBytes";
+	protected static final String REVOCATION_REFRESH_PERIOD_FIELD = "security.revocation.refreshPeriodInSeconds";
+	protected static final String CACHE_MAXIMUM_SIZE_FIELD = "security.cache.maximumSize";
+	protected static final String CACHE_MAXIMUM_SIZES_BY_NAME_FIELD = "security.cache.maximumSizesByName";
+	protected static final String CACHE_EXPIRY_FIELD = "security.cache.expiryInSeconds";
+	protected static final String CACHE_EXPIRIES_BY_NAME_FIELD = "security.cache.expiriesInSecondsByName";
+	protected static final String PASSWORD_HASH_ITERATIONS_FIELD = "security.password.hashIterations";
+	protected static final String PASSWORD_HASH_THREADS_FIELD = "security.password.hashThreads";
+	protected static final String PASSWORD_HASH_QUEUE_CAPACITY_FIELD = "security.password.hashQueueCapacity";
+	protected static final String REFRESH_TOKEN_TTL_FIELD = "security.refreshToken.ttlInDays";
+	protected static final String CLIENT_SECRET_CACHE_TTL_FIELD = "security.clientSecret.cacheTtlInSeconds";
+	protected static final String CLIENT_APP_CACHE_TTL_FIELD = "security.clientApp.cacheTtlInSeconds";
+	protected static final String TOKEN_STORAGE_MODE_FIELD = "security.tokenStorage.mode";
+	protected static final String TOKEN_STORAGE_MAX_ENTRIES_FIELD = "security.tokenStorage.maxEntries";
+	protected static final String TOKEN_STORAGE_SNAPSHOT_DIRECTORY_FIELD = "security.tokenStorage.snapshotDirectory";
+	protected static final String TOKEN_STORAGE_SNAPSHOT_PERIOD_FIELD = "security.tokenStorage.snapshotPeriodInSeconds";
+	protected static final String RATE_LIMIT_FIELD = "rateLimit.defaultRequestsPerMinute";
+	protected static final String RATE_LIMITS_BY_ROUTE_FIELD = "rateLimit.routesRequestsPerMinute";
+	protected static final String RATE_LIMIT_MAX_KEYS_FIELD = "rateLimit.maxKeys";
+	protected static final String LOGIN_FAILURE_WINDOW_FIELD = "security.login.failureWindowInSeconds";
+	protected static final String LOGIN_MAX_FAILURES_BY_EMAIL_FIELD = "security.login.maxFailuresByEmail";
+	protected static final String LOGIN_MAX_FAILURES_BY_IP_FIELD = "security.login.maxFailuresByIp";
+	protected static final String LOGIN_LOCKOUT_FIELD = "security.login.lockoutInSeconds";
+	protected static final String LOGIN_MAX_LOCKOUT_FIELD = "security.login.maxLockoutInSeconds";
+	protected static final String LOGIN_MAX_TRACKED_KEYS_FIELD = "security.login.maxTrackedKeys";
+	protected static final String ADMIN_USER_IDS_FIELD = "security.admin.userIds";
 	
 	protected static final String SWAGGER_BASE_PATH_FIELD = "swagger.basePath";
 	
@@ -36,6 +86,47 @@ public class ConfigPropertiesConverter {
 		Integer mongoPort = getMandatoryIntegerProperty(properties, MONGO_PORT_FIELD);
 		String mongoUser = getOptionalProperty(properties, MONGO_USER_FIELD);
 		String mongoPass = getOptionalProperty(properties, MONGO_PASS_FIELD);
+		Integer mongoSlowQueryThreshold = getOptionnalIntegerProperty(properties, MONGO_SLOW_QUERY_THRESHOLD_FIELD, Config.DEFAULT_MONGO_SLOW_QUERY_THRESHOLD_IN_MILLIS);
+		Integer mongoCircuitBreakerWindowInSeconds = getOptionnalIntegerProperty(properties, MONGO_CIRCUIT_BREAKER_WINDOW_FIELD, Config.DEFAULT_MONGO_CIRCUIT_BREAKER_WINDOW_IN_SECONDS);
+		Integer mongoCircuitBreakerMinimumCalls = getOptionnalIntegerProperty(properties, MONGO_CIRCUIT_BREAKER_MINIMUM_CALLS_FIELD, Config.DEFAULT_MONGO_CIRCUIT_BREAKER_MINIMUM_CALLS);
+		Integer mongoCircuitBreakerFailureRateInPercent = getOptionnalIntegerProperty(properties, MONGO_CIRCUIT_BREAKER_FAILURE_RATE_FIELD, Config.DEFAULT_MONGO_CIRCUIT_BREAKER_FAILURE_RATE_IN_PERCENT);
+		Integer mongoCircuitBreakerSlowCallThresholdInMillis = getOptionnalIntegerProperty(properties, MONGO_CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD_FIELD, Config.DEFAULT_MONGO_CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD_IN_MILLIS);
+		Integer mongoCircuitBreakerSlowCallRateInPercent = getOptionnalIntegerProperty(properties, MONGO_CIRCUIT_BREAKER_SLOW_CALL_RATE_FIELD, Config.DEFAULT_MONGO_CIRCUIT_BREAKER_SLOW_CALL_RATE_IN_PERCENT);
+		Integer mongoCircuitBreakerOpenDurationInSeconds = getOptionnalIntegerProperty(properties, MONGO_CIRCUIT_BREAKER_OPEN_DURATION_FIELD, Config.DEFAULT_MONGO_CIRCUIT_BREAKER_OPEN_DURATION_IN_SECONDS);
+		Integer mongoCircuitBreakerHalfOpenProbes = getOptionnalIntegerProperty(properties, MONGO_CIRCUIT_BREAKER_HALF_OPEN_PROBES_FIELD, Config.DEFAULT_MONGO_CIRCUIT_BREAKER_HALF_OPEN_PROBES);
+		
+		Integer requestDeadline = getOptionnalIntegerProperty(properties, REQUEST_DEADLINE_FIELD, Config.DEFAULT_REQUEST_DEADLINE_IN_MILLIS);
+		Map<String, Integer> requestDeadlinesByRoute = getOptionnalIntegerMapProperty(properties, REQUEST_DEADLINES_BY_ROUTE_FIELD);
+		
+		String accessTokenValidationMode = getOptionalProperty(properties, ACCESS_TOKEN_VALIDATION_MODE_FIELD);
+		Map<String, String> jwtSigningKeys = getOptionnalMapProperty(properties, JWT_SIGNING_KEYS_FIELD);
+		String jwtActiveKeyId = getOptionalProperty(properties, JWT_ACTIVE_KEY_ID_FIELD);
+		Integer revocationMemoryBudget = getOptionnalIntegerProperty(properties, REVOCATION_MEMORY_BUDGET_FIELD, Config.DEFAULT_REVOCATION_MEMORY_BUDGET_IN_BYTES);
+		Integer revocationRefreshPeriod = getOptionnalIntegerProperty(properties, REVOCATION_REFRESH_PERIOD_FIELD, Config.DEFAULT_REVOCATION_REFRESH_PERIOD_IN_SECONDS);
+		Integer cacheMaximumSize = getOptionnalIntegerProperty(properties, CACHE_MAXIMUM_SIZE_FIELD, Config.DEFAULT_CACHE_MAXIMUM_SIZE);
+		Map<String, Integer> cacheMaximumSizesByName = getOptionnalIntegerMapProperty(properties, CACHE_MAXIMUM_SIZES_BY_NAME_FIELD);
+		Integer cacheExpiry = getOptionnalIntegerProperty(properties, CACHE_EXPIRY_FIELD, Config.DEFAULT_CACHE_EXPIRY_IN_SECONDS);
+		Map<String, Integer> cacheExpiriesByName = getOptionnalIntegerMapProperty(properties, CACHE_EXPIRIES_BY_NAME_FIELD);
+		Integer passwordHashIterations = getOptionnalIntegerProperty(properties, PASSWORD_HASH_ITERATIONS_FIELD, Config.DEFAULT_PASSWORD_HASH_ITERATIONS);
+		Integer passwordHashThreads = getOptionnalIntegerProperty(properties, PASSWORD_HASH_THREADS_FIELD, Config.DEFAULT_PASSWORD_HASH_THREADS);
+		Integer passwordHashQueueCapacity = getOptionnalIntegerProperty(properties, PASSWORD_HASH_QUEUE_CAPACITY_FIELD, Config.DEFAULT_PASSWORD_HASH_QUEUE_CAPACITY);
+		Integer refreshTokenTtlInDays = getOptionnalIntegerProperty(properties, REFRESH_TOKEN_TTL_FIELD, Config.DEFAULT_REFRESH_TOKEN_TTL_IN_DAYS);
+		Integer clientSecretCacheTtlInSeconds = getOptionnalIntegerProperty(properties, CLIENT_SECRET_CACHE_TTL_FIELD, Config.DEFAULT_CLIENT_SECRET_CACHE_TTL_IN_SECONDS);
+		Integer clientAppCacheTtlInSeconds = getOptionnalIntegerProperty(properties, CLIENT_APP_CACHE_TTL_FIELD, Config.DEFAULT_CLIENT_APP_CACHE_TTL_IN_SECONDS);
+		String tokenStorageMode = getOptionalProperty(properties, TOKEN_STORAGE_MODE_FIELD);
+		Integer tokenStorageMaxEntries = getOptionnalIntegerProperty(properties, TOKEN_STORAGE_MAX_ENTRIES_FIELD, Config.DEFAULT_TOKEN_STORAGE_MAX_ENTRIES);
+		String tokenStorageSnapshotDirectory = getOptionalProperty(properties, TOKEN_STORAGE_SNAPSHOT_DIRECTORY_FIELD);
+		Integer tokenStorageSnapshotPeriodInSeconds = getOptionnalIntegerProperty(properties, TOKEN_STORAGE_SNAPSHOT_PERIOD_FIELD, Config.DEFAULT_TOKEN_STORAGE_SNAPSHOT_PERIOD_IN_SECONDS);
+		Integer rateLimitRequestsPerMinute = getOptionnalIntegerProperty(properties, RATE_LIMIT_FIELD, Config.DEFAULT_RATE_LIMIT_REQUESTS_PER_MINUTE);
+		Map<String, Integer> rateLimitRequestsPerMinuteByRoute = getOptionnalIntegerMapProperty(properties, RATE_LIMITS_BY_ROUTE_FIELD);
+		Integer rateLimitMaxKeys = getOptionnalIntegerProperty(properties, RATE_LIMIT_MAX_KEYS_FIELD, Config.DEFAULT_RATE_LIMIT_MAX_KEYS);
+		Integer loginFailureWindowInSeconds = getOptionnalIntegerProperty(properties, LOGIN_FAILURE_WINDOW_FIELD, Config.DEFAULT_LOGIN_FAILURE_WINDOW_IN_SECONDS);
+		Integer loginMaxFailuresByEmail = getOptionnalIntegerProperty(properties, LOGIN_MAX_FAILURES_BY_EMAIL_FIELD, Config.DEFAULT_LOGIN_MAX_FAILURES_BY_EMAIL);
+		Integer loginMaxFailuresByIp = getOptionnalIntegerProperty(properties, LOGIN_MAX_FAILURES_BY_IP_FIELD, Config.DEFAULT_LOGIN_MAX_FAILURES_BY_IP);
+		Integer loginLockoutInSeconds = getOptionnalIntegerProperty(properties, LOGIN_LOCKOUT_FIELD, Config.DEFAULT_LOGIN_LOCKOUT_IN_SECONDS);
+		Integer loginMaxLockoutInSeconds = getOptionnalIntegerProperty(properties, LOGIN_MAX_LOCKOUT_FIELD, Config.DEFAULT_LOGIN_MAX_LOCKOUT_IN_SECONDS);
+		Integer loginMaxTrackedKeys = getOptionnalIntegerProperty(properties, LOGIN_MAX_TRACKED_KEYS_FIELD, Config.DEFAULT_LOGIN_MAX_TRACKED_KEYS);
+		Set<UUID> adminUserIds = getOptionnalUUIDSetProperty(properties, ADMIN_USER_IDS_FIELD);
 		
 		String swaggerBasePath = getMandatoryProperty(properties, SWAGGER_BASE_PATH_FIELD);
 		
@@ -44,6 +135,45 @@ public class ConfigPropertiesConverter {
 							.withApiHost(apiHost).withApiPort(apiPort)
 							.withMongoHost(mongoHost).withMongoPort(mongoPort)
 							.withMongoUser(mongoUser).withMongoPass(mongoPass)
+							.withMongoSlowQueryThresholdInMillis(mongoSlowQueryThreshold)
+							.withMongoCircuitBreakerWindowInSeconds(mongoCircuitBreakerWindowInSeconds)
+							.withMongoCircuitBreakerMinimumCalls(mongoCircuitBreakerMinimumCalls)
+							.withMongoCircuitBreakerFailureRateInPercent(mongoCircuitBreakerFailureRateInPercent)
+							.withMongoCircuitBreakerSlowCallThresholdInMillis(mongoCircuitBreakerSlowCallThresholdInMillis)
+							.withMongoCircuitBreakerSlowCallRateInPercent(mongoCircuitBreakerSlowCallRateInPercent)
+							.withMongoCircuitBreakerOpenDurationInSeconds(mongoCircuitBreakerOpenDurationInSeconds)
+							.withMongoCircuitBreakerHalfOpenProbes(mongoCircuitBreakerHalfOpenProbes)
+							.withRequestDeadlineInMillis(requestDeadline)
+							.withRequestDeadlinesInMillisByRoute(requestDeadlinesByRoute)
+							.withAccessTokenValidationMode(accessTokenValidationMode == null ? AccessTokenValidationMode.MONGO : AccessTokenValidationMode.valueOf(accessTokenValidationMode.trim().toUpperCase()))
+							.withJwtSigningKeysById(jwtSigningKeys)
+							.withJwtActiveKeyId(jwtActiveKeyId)
+							.withRevocationMemoryBudgetInBytes(revocationMemoryBudget)
+							.withRevocationRefreshPeriodInSeconds(revocationRefreshPeriod)
+							.withCacheMaximumSize(cacheMaximumSize)
+							.withCacheMaximumSizesByName(cacheMaximumSizesByName)
+							.withCacheExpiryInSeconds(cacheExpiry)
+							.withCacheExpiriesInSecondsByName(cacheExpiriesByName)
+							.withPasswordHashIterations(passwordHashIterations)
+							.withPasswordHashThreads(passwordHashThreads)
+							.withPasswordHashQueueCapacity(passwordHashQueueCapacity)
+							.withRefreshTokenTtlInDays(refreshTokenTtlInDays)
+							.withClientSecretCacheTtlInSeconds(clientSecretCacheTtlInSeconds)
+							.withClientAppCacheTtlInSeconds(clientAppCacheTtlInSeconds)
+							.withTokenStorageMode(tokenStorageMode == null ? TokenStorageMode.MONGO : TokenStorageMode.valueOf(tokenStorageMode.trim().toUpperCase()))
+							.withTokenStorageMaxEntries(tokenStorageMaxEntries)
+							.withTokenStorageSnapshotDirectory(tokenStorageSnapshotDirectory)
+							.withTokenStorageSnapshotPeriodInSeconds(tokenStorageSnapshotPeriodInSeconds)
+							.withRateLimitRequestsPerMinute(rateLimitRequestsPerMinute)
+							.withRateLimitRequestsPerMinuteByRoute(rateLimitRequestsPerMinuteByRoute)
+							.withRateLimitMaxKeys(rateLimitMaxKeys)
+							.withLoginFailureWindowInSeconds(loginFailureWindowInSeconds)
+							.withLoginMaxFailuresByEmail(loginMaxFailuresByEmail)
+							.withLoginMaxFailuresByIp(loginMaxFailuresByIp)
+							.withLoginLockoutInSeconds(loginLockoutInSeconds)
+							.withLoginMaxLockoutInSeconds(loginMaxLockoutInSeconds)
+							.withLoginMaxTrackedKeys(loginMaxTrackedKeys)
+							.withAdminUserIds(adminUserIds)
 							.withSwaggerBasePath(swaggerBasePath)
 							.build();
 	}
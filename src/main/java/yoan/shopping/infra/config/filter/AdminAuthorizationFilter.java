@@ -0,0 +1,53 @@
+package yoan.shopping.infra.config.filter;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.SECURITY;
+
+import java.util.Set;
+import java.util.UUID;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.web.filter.authz.AuthorizationFilter;
+import org.apache.shiro.web.util.WebUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.user.User;
+
+/**
+ * Shiro filter letting only the configured admin users through, after the authentication filter
+ * @author yoan
+ */
+public class AdminAuthorizationFilter extends AuthorizationFilter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AdminAuthorizationFilter.class);
+
+	private final Set<UUID> adminUserIds;
+
+	@Inject
+	public AdminAuthorizationFilter(Config config) {
+		this.adminUserIds = requireNonNull(config.getAdminUserIds());
+	}
+
+	@Override
+	protected boolean isAccessAllowed(ServletRequest request, ServletResponse response, Object mappedValue) {
+		Object principal = getSubject(request, response).getPrincipal();
+		return principal instanceof User && adminUserIds.contains(((User) principal).getId());
+	}
+
+	/**
+	 * The user is already authenticated : reject with a HTTP 403 (Forbidden) status, without redirecting to any login page
+	 */
+	@Override
+	protected boolean onAccessDenied(ServletRequest request, ServletResponse response) {
+		LOGGER.warn(SECURITY.getMarker(), "Admin API refused to a non admin user");
+		WebUtils.toHttp(response).setStatus(HttpServletResponse.SC_FORBIDDEN);
+		return false;
+	}
+}
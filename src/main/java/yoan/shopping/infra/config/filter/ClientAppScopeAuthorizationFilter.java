@@ -0,0 +1,69 @@
+package yoan.shopping.infra.config.filter;
+
+import static yoan.shopping.infra.logging.Markers.SECURITY;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.oltu.oauth2.common.OAuth;
+import org.apache.oltu.oauth2.common.error.OAuthError;
+import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
+import org.apache.oltu.oauth2.rs.response.OAuthRSResponse;
+import org.apache.shiro.web.filter.authz.AuthorizationFilter;
+import org.apache.shiro.web.util.WebUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import yoan.shopping.client.app.ClientAppPrincipal;
+
+/**
+ * Shiro filter enforcing the app scope of the client credentials tokens, after the authentication filter
+ * A client app only reads its own registration, every other API acts for a user and is refused
+ * @author yoan
+ */
+public class ClientAppScopeAuthorizationFilter extends AuthorizationFilter {
+	/** Path of the client app registrations, below the application context */
+	protected static final String CLIENT_APP_PATH = "/rest/api/client/app/";
+	/** WWW-Authenticate header value of the 403 answer, the same for all */
+	protected static final String INSUFFICIENT_SCOPE_CHALLENGE = buildInsufficientScopeChallenge();
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClientAppScopeAuthorizationFilter.class);
+
+	private static String buildInsufficientScopeChallenge() {
+		try {
+			return OAuthRSResponse.errorResponse(HttpServletResponse.SC_FORBIDDEN)
+				.setRealm(Oauth2AccessTokenAuthenticatingFilter.APPLICATION_NAME)
+				.setError(OAuthError.ResourceResponse.INSUFFICIENT_SCOPE)
+				.setScope(ClientAppPrincipal.APP_SCOPE)
+				.buildHeaderMessage()
+				.getHeader(OAuth.HeaderType.WWW_AUTHENTICATE);
+		} catch (OAuthSystemException e) {
+			throw new IllegalStateException("Unable to build the insufficient scope challenge", e);
+		}
+	}
+
+	@Override
+	protected boolean isAccessAllowed(ServletRequest request, ServletResponse response, Object mappedValue) {
+		Object principal = getSubject(request, response).getPrincipal();
+		if (!(principal instanceof ClientAppPrincipal)) {
+			return true;
+		}
+		HttpServletRequest httpRequest = WebUtils.toHttp(request);
+		String ownRegistrationPath = CLIENT_APP_PATH + ((ClientAppPrincipal) principal).getClientId();
+		return "GET".equals(httpRequest.getMethod()) && ownRegistrationPath.equals(WebUtils.getPathWithinApplication(httpRequest));
+	}
+
+	/**
+	 * The client app is already authenticated : reject with a HTTP 403 (Forbidden) status and the insufficient scope error
+	 */
+	@Override
+	protected boolean onAccessDenied(ServletRequest request, ServletResponse response) {
+		LOGGER.warn(SECURITY.getMarker(), "User API refused to a client app token");
+		HttpServletResponse httpResponse = WebUtils.toHttp(response);
+		httpResponse.setStatus(HttpServletResponse.SC_FORBIDDEN);
+		httpResponse.setHeader(Oauth2AccessTokenAuthenticatingFilter.AUTHENTICATE_HEADER, INSUFFICIENT_SCOPE_CHALLENGE);
+		return false;
+	}
+}
@@ -0,0 +1,51 @@
+package yoan.shopping.infra.config.filter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.infra.ratelimit.RateLimitDecision;
+import yoan.shopping.infra.ratelimit.RateLimitKey.Dimension;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+
+/**
+ * Filter which limits the requests of each source IP, by route group
+ * It runs before the Shiro filter, so the requests failing authentication are limited too
+ * @author yoan
+ */
+@Singleton
+public class IpRateLimitFilter extends RateLimitFilter {
+
+	@Inject
+	public IpRateLimitFilter(RateLimiter rateLimiter) {
+		super(rateLimiter);
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		HttpServletRequest httpRequest = (HttpServletRequest) request;
+		HttpServletResponse httpResponse = (HttpServletResponse) response;
+		String route = rateLimiter.getRoute(getPath(httpRequest));
+		if (rateLimiter.getRequestsPerMinute(route) == 0) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		RateLimitDecision decision = rateLimiter.tryAcquire(route, Dimension.IP, getRemoteAddress(httpRequest));
+		if (!decision.isAllowed()) {
+			complete(route, decision, httpRequest, httpResponse, chain);
+			return;
+		}
+		//the user filter completes the request once authenticated
+		httpRequest.setAttribute(IP_DECISION_ATTRIBUTE, decision);
+		chain.doFilter(request, response);
+	}
+}
@@ -1,22 +1,19 @@
 package yoan.shopping.infra.config.filter;
 
-import static java.util.Locale.ENGLISH;
-
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.oltu.oauth2.common.OAuth;
 import org.apache.oltu.oauth2.common.error.OAuthError;
 import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
 import org.apache.oltu.oauth2.common.message.OAuthResponse;
 import org.apache.oltu.oauth2.rs.response.OAuthRSResponse;
 import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.subject.Subject;
 import org.apache.shiro.web.filter.authc.AuthenticatingFilter;
 import org.apache.shiro.web.util.WebUtils;
-import org.jboss.resteasy.spi.ApplicationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +21,8 @@ import yoan.shopping.authentication.realm.Oauth2ShiroAccessToken;
 
 /**
  * Shiro filter to extract access token from HTTP request or sending challenge if not fond
+ * It runs on every API request : the header is parsed in place, without lowercasing nor splitting it,
+ * and the challenge is built once
  * @author yoan
  */
 public class Oauth2AccessTokenAuthenticatingFilter extends AuthenticatingFilter {
@@ -36,8 +35,22 @@ public class Oauth2AccessTokenAuthenticatingFilter extends AuthenticatingFilter
     protected static final String APPLICATION_NAME = "ShoppingAPI";
     /** Scheme in the Authorization header */
     protected static final String AUTH_SCHEME = "Bearer";
+    /** WWW-Authenticate header value of the 401 challenge, the same for all */
+    protected static final String CHALLENGE = buildChallenge();
     
     private static final Logger LOGGER = LoggerFactory.getLogger(Oauth2AccessTokenAuthenticatingFilter.class);
+    
+    private static String buildChallenge() {
+		try {
+			OAuthResponse oauthResponse = OAuthRSResponse.errorResponse(HttpServletResponse.SC_UNAUTHORIZED)
+								           .setRealm(APPLICATION_NAME)
+								           .setError(OAuthError.ResourceResponse.INVALID_TOKEN)
+								           .buildHeaderMessage();
+			return oauthResponse.getHeader(OAuth.HeaderType.WWW_AUTHENTICATE);
+		} catch (OAuthSystemException e) {
+			throw new IllegalStateException("Unable to build the authentication challenge", e);
+		}
+    }
 
     /**
      * Processes unauthenticated requests. It handles the two-stage request/challenge authentication protocol.
@@ -57,6 +70,12 @@ public class Oauth2AccessTokenAuthenticatingFilter extends AuthenticatingFilter
         return loggedIn;
     }
 
+    @Override
+    protected boolean onLoginSuccess(AuthenticationToken token, Subject subject, ServletRequest request, ServletResponse response) throws Exception {
+    	RequestScopeFilter.setConnectedUser(request, subject.getPrincipal());
+    	return super.onLoginSuccess(token, subject, request, response);
+    }
+
     @Override
     protected final boolean isLoginRequest(ServletRequest request, ServletResponse response) {
         return isLoginAttempt(request, response);
@@ -89,8 +108,7 @@ public class Oauth2AccessTokenAuthenticatingFilter extends AuthenticatingFilter
      * @return true if the authzHeader value matches the AUTH_SCHEME
      */
     protected boolean isLoginAttempt(String authzHeader) {
-        String authzScheme = AUTH_SCHEME.toLowerCase(ENGLISH);
-        return authzHeader.toLowerCase(ENGLISH).startsWith(authzScheme);
+        return authzHeader.regionMatches(true, 0, AUTH_SCHEME, 0, AUTH_SCHEME.length());
     }
 
     /**
@@ -102,16 +120,7 @@ public class Oauth2AccessTokenAuthenticatingFilter extends AuthenticatingFilter
         
     	HttpServletResponse httpResponse = WebUtils.toHttp(response);
         httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        OAuthResponse oauthResponse;
-		try {
-			oauthResponse = OAuthRSResponse.errorResponse(HttpServletResponse.SC_UNAUTHORIZED)
-								           .setRealm(APPLICATION_NAME)
-								           .setError(OAuthError.ResourceResponse.INVALID_TOKEN)
-								           .buildHeaderMessage();
-			 httpResponse.setHeader(AUTHENTICATE_HEADER, oauthResponse.getHeader(OAuth.HeaderType.WWW_AUTHENTICATE));
-		} catch (OAuthSystemException e) {
-			throw new ApplicationException(e);
-		}
+        httpResponse.setHeader(AUTHENTICATE_HEADER, CHALLENGE);
     }
 
     /**
@@ -122,34 +131,48 @@ public class Oauth2AccessTokenAuthenticatingFilter extends AuthenticatingFilter
      */
     @Override
     protected AuthenticationToken createToken(ServletRequest request, ServletResponse response) {
-        String authorizationHeader = getAuthzHeader(request);
+        String accessToken = extractAccessToken(getAuthzHeader(request));
         String host = getHost(request);
-        if (StringUtils.isBlank(authorizationHeader)) {
+        if (accessToken == null) {
             // Create an empty authentication token since there is no
-            // Authorization header.
+            // Bearer access token in the Authorization header.
         	return new Oauth2ShiroAccessToken("", host);
         }
 
-    	LOGGER.debug("Attempting to execute login with headers [" + authorizationHeader + "]");
-
-        String accessToken = extractAccessToken(authorizationHeader);
+    	LOGGER.debug("Attempting to execute login with a Bearer access token");
 
         return new Oauth2ShiroAccessToken(accessToken, host);
     }
 
     /**
-     * Extract the access token from header value
+     * Source IP of the request, the remote host would need a reverse DNS lookup on some containers
+     */
+    @Override
+    protected String getHost(ServletRequest request) {
+    	return request.getRemoteAddr();
+    }
+
+    /**
+     * Extract the access token from header value : Bearer scheme, whatever the case, then spaces, then the token
      * @param authorizationHeader the authorization header obtained from the request.
      * @return the token value or null
      */
     protected static String extractAccessToken(String authorizationHeader) {
-        if (authorizationHeader == null) {
+        if (authorizationHeader == null || !authorizationHeader.regionMatches(true, 0, AUTH_SCHEME, 0, AUTH_SCHEME.length())) {
             return null;
         }
-        String[] authTokens = authorizationHeader.split(" ");
-        if (authTokens == null || authTokens.length < 2) {
+        int length = authorizationHeader.length();
+        int start = AUTH_SCHEME.length();
+        if (start == length || authorizationHeader.charAt(start) != ' ') {
             return null;
         }
-        return authTokens[1];
+        while (start < length && authorizationHeader.charAt(start) == ' ') {
+            start++;
+        }
+        int end = start;
+        while (end < length && authorizationHeader.charAt(end) != ' ') {
+            end++;
+        }
+        return start == end ? null : authorizationHeader.substring(start, end);
     }
 }
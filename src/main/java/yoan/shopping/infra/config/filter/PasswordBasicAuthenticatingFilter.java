@@ -0,0 +1,134 @@
+package yoan.shopping.infra.config.filter;
+
+import static java.util.Objects.requireNonNull;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.web.filter.authc.BasicHttpAuthenticationFilter;
+import org.apache.shiro.web.util.WebUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+
+import yoan.shopping.infra.rest.error.ExtendedStatus;
+import yoan.shopping.infra.rest.error.GlobalExceptionMapper;
+import yoan.shopping.infra.security.LoginAttemptTracker;
+import yoan.shopping.infra.security.PasswordHasher;
+import yoan.shopping.infra.util.deadline.DeadlineExceededException;
+import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.error.RetryLaterException;
+
+/**
+ * Shiro basic authentication filter turning logins down with a 429 while the password hashing queue is full,
+ * or while the email or the source IP is locked out after too many failed logins
+ * A login that could not be checked is answered with its own status, without counting as a failed login
+ * The rejection happens before any database read or hash, a saturated node sheds the logins instead of queuing them
+ * @author yoan
+ */
+public class PasswordBasicAuthenticatingFilter extends BasicHttpAuthenticationFilter {
+	/** HTTP header telling when to try again : Retry-After */
+	protected static final String RETRY_AFTER_HEADER = "Retry-After";
+	protected static final String RETRY_AFTER_IN_SECONDS = "1";
+	/** Request attribute set once a login that could not be checked is answered, so that no challenge overrides the answer */
+	protected static final String LOGIN_UNAVAILABLE_ATTRIBUTE = PasswordBasicAuthenticatingFilter.class.getName() + ".loginUnavailable";
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(PasswordBasicAuthenticatingFilter.class);
+	
+	private final PasswordHasher passwordHasher;
+	private final LoginAttemptTracker loginAttemptTracker;
+	
+	@Inject
+	public PasswordBasicAuthenticatingFilter(PasswordHasher passwordHasher, LoginAttemptTracker loginAttemptTracker) {
+		super();
+		this.passwordHasher = requireNonNull(passwordHasher);
+		this.loginAttemptTracker = requireNonNull(loginAttemptTracker);
+	}
+	
+	@Override
+	protected boolean onAccessDenied(ServletRequest request, ServletResponse response) throws Exception {
+		if (isLoginAttempt(request, response)) {
+			if (passwordHasher.isSaturated()) {
+				sendTooManyRequests(response);
+				return false;
+			}
+			String email = getEmail(createToken(request, response));
+			long lockoutInSeconds = loginAttemptTracker.getLockoutInSeconds(email, request.getRemoteAddr());
+			if (lockoutInSeconds > 0) {
+				LOGGER.debug("Login locked out: sending 429 response.");
+				sendTooManyRequests(response, Long.toString(lockoutInSeconds));
+				return false;
+			}
+		}
+		return super.onAccessDenied(request, response);
+	}
+	
+	@Override
+	protected boolean onLoginSuccess(AuthenticationToken token, Subject subject, ServletRequest request, ServletResponse response) throws Exception {
+		loginAttemptTracker.recordSuccess(getEmail(token));
+		RequestScopeFilter.setConnectedUser(request, subject.getPrincipal());
+		return super.onLoginSuccess(token, subject, request, response);
+	}
+	
+	/**
+	 * Shiro wraps the errors raised while checking the login : a full hashing queue, an unavailable database
+	 * or a spent deadline are answered as such, and are not counted as a wrong password
+	 */
+	@Override
+	protected boolean onLoginFailure(AuthenticationToken token, AuthenticationException e, ServletRequest request, ServletResponse response) {
+		if (e.getCause() instanceof ApplicationException) {
+			sendLoginUnavailable(request, response, (ApplicationException) e.getCause());
+			return false;
+		}
+		//a wrong password or an unknown email are raised by Shiro itself, without cause
+		if (e.getCause() == null) {
+			loginAttemptTracker.recordFailure(getEmail(token), request.getRemoteAddr());
+		}
+		return super.onLoginFailure(token, e, request, response);
+	}
+	
+	@Override
+	protected boolean sendChallenge(ServletRequest request, ServletResponse response) {
+		if (request.getAttribute(LOGIN_UNAVAILABLE_ATTRIBUTE) != null) {
+			return false;
+		}
+		return super.sendChallenge(request, response);
+	}
+	
+	private static String getEmail(AuthenticationToken token) {
+		Object principal = token == null ? null : token.getPrincipal();
+		return principal instanceof String ? (String) principal : null;
+	}
+	
+	/**
+	 * Reject the login with a HTTP 429 (Too Many Requests) status and a Retry-After header
+	 * @param response outgoing ServletResponse
+	 */
+	protected void sendTooManyRequests(ServletResponse response) {
+		LOGGER.debug("Password hashing saturated: sending 429 response.");
+		sendTooManyRequests(response, RETRY_AFTER_IN_SECONDS);
+	}
+	
+	private static void sendLoginUnavailable(ServletRequest request, ServletResponse response, ApplicationException cause) {
+		LOGGER.warn("Login could not be checked : {}", cause.getMessage());
+		request.setAttribute(LOGIN_UNAVAILABLE_ATTRIBUTE, Boolean.TRUE);
+		HttpServletResponse httpResponse = WebUtils.toHttp(response);
+		httpResponse.setStatus(GlobalExceptionMapper.getStatusFromErroCode(cause.getErrorCode()).getStatusCode());
+		if (cause instanceof RetryLaterException) {
+			httpResponse.setHeader(RETRY_AFTER_HEADER, Long.toString(((RetryLaterException) cause).getRetryAfterInSeconds()));
+		} else if (cause instanceof DeadlineExceededException) {
+			httpResponse.setHeader(RETRY_AFTER_HEADER, RETRY_AFTER_IN_SECONDS);
+		}
+	}
+	
+	private static void sendTooManyRequests(ServletResponse response, String retryAfterInSeconds) {
+		HttpServletResponse httpResponse = WebUtils.toHttp(response);
+		httpResponse.setStatus(ExtendedStatus.TOO_MANY_REQUESTS.getStatusCode());
+		httpResponse.setHeader(RETRY_AFTER_HEADER, retryAfterInSeconds);
+	}
+}
@@ -0,0 +1,130 @@
+package yoan.shopping.infra.config.filter;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.SECURITY;
+import static yoan.shopping.infra.rest.error.Level.WARNING;
+import static yoan.shopping.infra.util.error.CommonErrorCode.TOO_MANY_REQUESTS;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import yoan.shopping.infra.ratelimit.RateLimitDecision;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+import yoan.shopping.infra.rest.error.ErrorRepresentation;
+import yoan.shopping.infra.rest.error.ExtendedStatus;
+
+/**
+ * Base of the filters limiting the requests by route group, a throttled request gets a 429 before reaching the resources
+ * @author yoan
+ */
+public abstract class RateLimitFilter implements Filter {
+	/** HTTP header telling when to try again, in seconds : Retry-After */
+	public static final String RETRY_AFTER_HEADER = "Retry-After";
+	public static final String RATE_LIMIT_LIMIT_HEADER = "RateLimit-Limit";
+	public static final String RATE_LIMIT_REMAINING_HEADER = "RateLimit-Remaining";
+	/** Seconds until the limit is fully available again */
+	public static final String RATE_LIMIT_RESET_HEADER = "RateLimit-Reset";
+	public static final String TOO_MANY_REQUESTS_MESSAGE = "Too many requests, retry later";
+
+	/** Request attribute holding the source IP decision, for the filters after authentication */
+	protected static final String IP_DECISION_ATTRIBUTE = RateLimitFilter.class.getName() + ".ipDecision";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RateLimitFilter.class);
+
+	protected final RateLimiter rateLimiter;
+	/** Error body of the throttled requests, the same for all */
+	private final byte[] tooManyRequestsBody;
+
+	protected RateLimitFilter(RateLimiter rateLimiter) {
+		this.rateLimiter = requireNonNull(rateLimiter);
+		this.tooManyRequestsBody = toJson(new ErrorRepresentation(WARNING, TOO_MANY_REQUESTS.getCode(), TOO_MANY_REQUESTS_MESSAGE));
+	}
+
+	private static byte[] toJson(ErrorRepresentation error) {
+		try {
+			return new ObjectMapper().writeValueAsBytes(error);
+		} catch(JsonProcessingException e) {
+			throw new IllegalStateException("Unable to write the too many requests error", e);
+		}
+	}
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException { }
+
+	/**
+	 * Count the final decision of a request, then let it through or reject it
+	 * @param route
+	 * @param decision
+	 * @param request
+	 * @param response
+	 * @param chain
+	 * @throws IOException
+	 * @throws ServletException
+	 */
+	protected void complete(String route, RateLimitDecision decision, HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+		rateLimiter.record(route, decision);
+		if (!decision.isUnlimited()) {
+			setRateLimitHeaders(response, decision);
+		}
+		if (!decision.isAllowed()) {
+			sendTooManyRequests(response, route, decision);
+			return;
+		}
+		chain.doFilter(request, response);
+	}
+
+	protected static String getRemoteAddress(HttpServletRequest request) {
+		return StringUtils.defaultString(request.getRemoteAddr());
+	}
+
+	private static void setRateLimitHeaders(HttpServletResponse response, RateLimitDecision decision) {
+		response.setHeader(RATE_LIMIT_LIMIT_HEADER, Integer.toString(decision.getLimit()));
+		response.setHeader(RATE_LIMIT_REMAINING_HEADER, Integer.toString(decision.getRemaining()));
+		response.setHeader(RATE_LIMIT_RESET_HEADER, Long.toString(decision.getResetInSeconds()));
+	}
+
+	/**
+	 * Reject the request with a HTTP 429 (Too Many Requests) status and a Retry-After header
+	 * @param response
+	 * @param route
+	 * @param decision
+	 * @throws IOException
+	 */
+	protected void sendTooManyRequests(HttpServletResponse response, String route, RateLimitDecision decision) throws IOException {
+		LOGGER.debug(SECURITY.getMarker(), "Rate limit reached on route {} : sending 429 response.", route);
+		response.setStatus(ExtendedStatus.TOO_MANY_REQUESTS.getStatusCode());
+		response.setHeader(RETRY_AFTER_HEADER, Long.toString(Math.max(1, decision.getRetryAfterInSeconds())));
+		response.setContentType("application/json");
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.setContentLength(tooManyRequestsBody.length);
+		response.getOutputStream().write(tooManyRequestsBody);
+	}
+
+	/**
+	 * @param request
+	 * @return request path without the context path
+	 */
+	public static String getPath(HttpServletRequest request) {
+		String uri = StringUtils.defaultString(request.getRequestURI());
+		String contextPath = StringUtils.defaultString(request.getContextPath());
+		return uri.startsWith(contextPath) ? uri.substring(contextPath.length()) : uri;
+	}
+
+	@Override
+	public void destroy() { }
+
+}
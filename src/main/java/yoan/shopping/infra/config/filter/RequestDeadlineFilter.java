@@ -0,0 +1,116 @@
+package yoan.shopping.infra.config.filter;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.util.deadline.RequestDeadline;
+import yoan.shopping.infra.util.deadline.RequestDeadlineMetrics;
+
+/**
+ * Filter which gives each request a deadline
+ * The budget comes from the configuration of the longest matching route, a client can only shorten it with the request timeout header
+ * @author yoan
+ */
+@Singleton
+public class RequestDeadlineFilter implements Filter {
+	/** Client request timeout, in milliseconds */
+	public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+	public static final String DEFAULT_ROUTE = "default";
+
+	private final long defaultBudgetInMillis;
+	/** Configured routes, longest prefix first */
+	private final List<Map.Entry<String, Integer>> budgetsByRoute;
+	private final RequestDeadlineMetrics metrics;
+
+	@Inject
+	public RequestDeadlineFilter(Config config, RequestDeadlineMetrics metrics) {
+		requireNonNull(config);
+		this.defaultBudgetInMillis = config.getRequestDeadlineInMillis();
+		this.budgetsByRoute = config.getRequestDeadlinesInMillisByRoute().entrySet().stream()
+			.sorted(Comparator.comparing((Map.Entry<String, Integer> entry) -> entry.getKey().length()).reversed())
+			.collect(Collectors.toList());
+		this.metrics = requireNonNull(metrics);
+	}
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException { }
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		HttpServletRequest httpRequest = (HttpServletRequest) request;
+		RequestDeadline deadline = startDeadline(httpRequest);
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			RequestDeadline.clear();
+			metrics.record(deadline);
+		}
+	}
+
+	protected RequestDeadline startDeadline(HttpServletRequest request) {
+		String path = getPath(request);
+		String route = DEFAULT_ROUTE;
+		long budgetInMillis = defaultBudgetInMillis;
+		for (Map.Entry<String, Integer> routeBudget : budgetsByRoute) {
+			if (path.startsWith(routeBudget.getKey())) {
+				route = routeBudget.getKey();
+				budgetInMillis = routeBudget.getValue();
+				break;
+			}
+		}
+		long clientTimeout = getClientTimeoutInMillis(request);
+		if (clientTimeout > 0) {
+			budgetInMillis = Math.min(budgetInMillis, clientTimeout);
+		}
+		return RequestDeadline.start(route, budgetInMillis);
+	}
+
+	/**
+	 * @param request
+	 * @return request path without the context path
+	 */
+	private static String getPath(HttpServletRequest request) {
+		String uri = StringUtils.defaultString(request.getRequestURI());
+		String contextPath = StringUtils.defaultString(request.getContextPath());
+		return uri.startsWith(contextPath) ? uri.substring(contextPath.length()) : uri;
+	}
+
+	/**
+	 * @param request
+	 * @return client timeout in milliseconds, zero if absent or invalid
+	 */
+	private static long getClientTimeoutInMillis(HttpServletRequest request) {
+		String header = request.getHeader(REQUEST_TIMEOUT_HEADER);
+		if (StringUtils.isBlank(header)) {
+			return 0;
+		}
+		try {
+			return Math.max(0, Long.parseLong(header.trim()));
+		} catch(NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	@Override
+	public void destroy() { }
+
+}
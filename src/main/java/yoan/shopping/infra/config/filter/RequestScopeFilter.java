@@ -25,6 +25,7 @@ import org.apache.shiro.SecurityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import yoan.shopping.client.app.ClientAppPrincipal;
 import yoan.shopping.infra.rest.error.WebApiException;
 import yoan.shopping.user.User;
 
@@ -34,10 +35,15 @@ import com.google.inject.name.Names;
 
 /**
  * Filter which authenticate the currently connected user
+ * The authenticating filters hand the user over in a request attribute, the Shiro subject is only read as a fallback
  * @author yoan
  */
 @Singleton
 public class RequestScopeFilter implements Filter {
+	/** Request attribute seeding the request scoped connected user binding */
+	public static final String CONNECTED_USER_ATTRIBUTE = Key.get(User.class, Names.named(CONNECTED_USER)).toString();
+	/** Request attribute set for a client credentials token, acting for no user */
+	public static final String CONNECTED_CLIENT_APP_ATTRIBUTE = ClientAppPrincipal.class.getName();
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(RequestScopeFilter.class);
 	
@@ -48,6 +54,11 @@ public class RequestScopeFilter implements Filter {
 	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
 		HttpServletRequest httpRequest = (HttpServletRequest) request;
 		HttpServletResponse httpResponse = (HttpServletResponse) response;
+		//the app scope filter only lets a client app reach the endpoints which need no connected user
+		if (httpRequest.getAttribute(CONNECTED_USER_ATTRIBUTE) instanceof User || httpRequest.getAttribute(CONNECTED_CLIENT_APP_ATTRIBUTE) instanceof ClientAppPrincipal) {
+			chain.doFilter(httpRequest, httpResponse);
+			return;
+		}
 		User connectedUser = User.DEFAULT;
 		try {
 			connectedUser = extractUserFromShiroSession();
@@ -55,11 +66,24 @@ public class RequestScopeFilter implements Filter {
 			httpResponse.sendError(wae.getStatus().getStatusCode(), wae.getMessage());
 		} finally {
 			//we add the authenticated user infos to the request
-			httpRequest.setAttribute(Key.get(User.class, Names.named(CONNECTED_USER)).toString(), connectedUser);
+			setConnectedUser(httpRequest, connectedUser);
 			chain.doFilter(httpRequest, httpResponse);
 		}
 	}
 	
+	/**
+	 * Hand the authenticated user over to the request scoped connected user binding
+	 * @param request
+	 * @param principal : authenticated principal, a client app seeds no user
+	 */
+	public static void setConnectedUser(ServletRequest request, Object principal) {
+		if (principal instanceof User) {
+			request.setAttribute(CONNECTED_USER_ATTRIBUTE, principal);
+		} else if (principal instanceof ClientAppPrincipal) {
+			request.setAttribute(CONNECTED_CLIENT_APP_ATTRIBUTE, principal);
+		}
+	}
+	
 	protected User extractUserFromShiroSession() {
 		Object principal = SecurityUtils.getSubject().getPrincipal();
 		
@@ -0,0 +1,70 @@
+package yoan.shopping.infra.config.filter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.infra.ratelimit.RateLimitDecision;
+import yoan.shopping.infra.ratelimit.RateLimitKey.Dimension;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+import yoan.shopping.user.User;
+
+/**
+ * Filter which limits the requests of each authenticated user, by route group
+ * It runs after the Shiro filter to know the authenticated user, and after the source IP filter.
+ * Only authenticated keys are charged : the client_id parameter is not, anyone can send it.
+ * @author yoan
+ */
+@Singleton
+public class UserRateLimitFilter extends RateLimitFilter {
+
+	@Inject
+	public UserRateLimitFilter(RateLimiter rateLimiter) {
+		super(rateLimiter);
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		HttpServletRequest httpRequest = (HttpServletRequest) request;
+		HttpServletResponse httpResponse = (HttpServletResponse) response;
+		Object ipDecision = httpRequest.getAttribute(IP_DECISION_ATTRIBUTE);
+		if (!(ipDecision instanceof RateLimitDecision)) {
+			//unlimited route
+			chain.doFilter(request, response);
+			return;
+		}
+
+		String route = rateLimiter.getRoute(getPath(httpRequest));
+		RateLimitDecision decision = (RateLimitDecision) ipDecision;
+		User connectedUser = getConnectedUser();
+		if (connectedUser != null) {
+			RateLimitDecision userDecision = rateLimiter.tryAcquire(route, Dimension.USER, connectedUser.getId().toString());
+			if (!userDecision.isAllowed()) {
+				//the rejected request should not use the source IP limit
+				rateLimiter.release(route, Dimension.IP, getRemoteAddress(httpRequest));
+			}
+			decision = decision.mostRestrictive(userDecision);
+		}
+		complete(route, decision, httpRequest, httpResponse, chain);
+	}
+
+	/**
+	 * @return user authenticated by the Shiro filter, null if none
+	 */
+	protected User getConnectedUser() {
+		Subject subject = ThreadContext.getSubject();
+		Object principal = subject == null ? null : subject.getPrincipal();
+		return principal instanceof User ? (User) principal : null;
+	}
+}
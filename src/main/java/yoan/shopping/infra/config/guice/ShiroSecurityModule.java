@@ -3,21 +3,31 @@
  */
 package yoan.shopping.infra.config.guice;
 
+import static java.util.Objects.requireNonNull;
+
 import javax.servlet.ServletContext;
 
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
 import org.apache.shiro.authc.credential.HashedCredentialsMatcher;
 import org.apache.shiro.cache.CacheManager;
-import org.apache.shiro.cache.MemoryConstrainedCacheManager;
 import org.apache.shiro.guice.web.ShiroWebModule;
+import org.apache.shiro.web.mgt.WebSecurityManager;
 
 import com.google.inject.Key;
+import com.google.inject.binder.AnnotatedBindingBuilder;
 import com.google.inject.name.Names;
 
+import yoan.shopping.authentication.realm.AccessTokenValidationMode;
+import yoan.shopping.authentication.realm.JwtAccessTokenRealm;
 import yoan.shopping.authentication.realm.OAuth2AccessTokenRealm;
 import yoan.shopping.authentication.realm.UserRealm;
+import yoan.shopping.infra.cache.BoundedCacheManager;
+import yoan.shopping.infra.config.filter.AdminAuthorizationFilter;
+import yoan.shopping.infra.config.filter.ClientAppScopeAuthorizationFilter;
 import yoan.shopping.infra.config.filter.Oauth2AccessTokenAuthenticatingFilter;
+import yoan.shopping.infra.config.filter.PasswordBasicAuthenticatingFilter;
+import yoan.shopping.infra.security.StatelessWebSecurityManager;
 
 /**
  * Guice module to configure Shiro
@@ -26,42 +36,63 @@ import yoan.shopping.infra.config.filter.Oauth2AccessTokenAuthenticatingFilter;
 public class ShiroSecurityModule extends ShiroWebModule {
 	public static final String NO_SECURITY = "NO_SECURITY";
 	public static final String SHA256 = "SHA-256";
-	public static final int NB_HASH_ITERATION = 2;
 	
 	private static final Key<Oauth2AccessTokenAuthenticatingFilter> OAUTH2 = Key.get(Oauth2AccessTokenAuthenticatingFilter.class);
+	private static final Key<PasswordBasicAuthenticatingFilter> PASSWORD_BASIC = Key.get(PasswordBasicAuthenticatingFilter.class);
+	private static final Key<AdminAuthorizationFilter> ADMIN = Key.get(AdminAuthorizationFilter.class);
+	private static final Key<ClientAppScopeAuthorizationFilter> APP_SCOPE = Key.get(ClientAppScopeAuthorizationFilter.class);
+	
+	private final AccessTokenValidationMode accessTokenValidationMode;
 	
-	public ShiroSecurityModule(ServletContext servletContext) {
+	public ShiroSecurityModule(ServletContext servletContext, AccessTokenValidationMode accessTokenValidationMode) {
 		super(servletContext);
+		this.accessTokenValidationMode = requireNonNull(accessTokenValidationMode);
 	}
 
 	@Override
 	@SuppressWarnings("unchecked")
 	protected void configureShiroWeb() {
-		bind(CacheManager.class).to(MemoryConstrainedCacheManager.class);
+		bind(BoundedCacheManager.class);
+		bind(CacheManager.class).to(BoundedCacheManager.class);
 		//using expose because it is a private module
 		expose(CacheManager.class);
-		
-		bind(HashedCredentialsMatcher.class).annotatedWith(Names.named(SHA256)).toInstance(getHashedCredentialsMatcher(SHA256));
-		expose(HashedCredentialsMatcher.class).annotatedWith(Names.named(SHA256));
+		expose(BoundedCacheManager.class);
 		
 		bind(HashedCredentialsMatcher.class).annotatedWith(Names.named(NO_SECURITY)).toInstance(getNoSecurityCredentialsMatcher());
 		expose(HashedCredentialsMatcher.class).annotatedWith(Names.named(NO_SECURITY));
 		
 		bindRealm().to(UserRealm.class);
-		bindRealm().to(OAuth2AccessTokenRealm.class);
+		bindAccessTokenRealm();
 		
 		//TODO ajouter SSL au début de la filter chain
-		addFilterChain("/rest/auth/authorization", config(NO_SESSION_CREATION, "true"), AUTHC_BASIC);
+		addFilterChain("/rest/auth/authorization", config(NO_SESSION_CREATION, "true"), PASSWORD_BASIC);
 		//TODO ajouter SSL au début de la filter chain
 		//addFilterChain("/rest/auth/token", config(NO_SESSION_CREATION, "true"), SSL);
 		//TODO ajouter un filter (custom ou default user) pour le token endpoint
-		addFilterChain("/rest/api/**", config(NO_SESSION_CREATION, "true"), OAUTH2);
+		//the admin API exposes callers, query shapes and throttled keys : admin users only, first matching chain wins
+		addFilterChain("/rest/api/admin/**", config(NO_SESSION_CREATION, "true"), OAUTH2, ADMIN);
+		//a client credentials token acts for no user : it only reads its app registration
+		addFilterChain("/rest/api/**", config(NO_SESSION_CREATION, "true"), OAUTH2, APP_SCOPE);
 	}
 	
-	private HashedCredentialsMatcher getHashedCredentialsMatcher(String algorithmName) {
-		HashedCredentialsMatcher credentialMatcher = new HashedCredentialsMatcher(algorithmName);
-		credentialMatcher.setHashIterations(NB_HASH_ITERATION);
-		return credentialMatcher;
+	/**
+	 * The API is stateless : no session is ever looked up nor created
+	 */
+	@Override
+	protected void bindWebSecurityManager(AnnotatedBindingBuilder<? super WebSecurityManager> bind) {
+		bind.to(StatelessWebSecurityManager.class).asEagerSingleton();
+	}
+	
+	private void bindAccessTokenRealm() {
+		switch (accessTokenValidationMode) {
+			case JWT :
+				bindRealm().to(JwtAccessTokenRealm.class);
+				break;
+			case MONGO :
+			default :
+				bindRealm().to(OAuth2AccessTokenRealm.class);
+				break;
+		}
 	}
 	
 	/**
@@ -7,20 +7,29 @@ import javax.servlet.ServletContext;
 
 import org.reflections.Reflections;
 
+import yoan.shopping.admin.resource.MetricsResource;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository;
+import yoan.shopping.authentication.repository.RefreshTokenRepository;
+import yoan.shopping.authentication.repository.RevokedAccessTokenRepository;
+import yoan.shopping.authentication.repository.TokenStorageMode;
+import yoan.shopping.authentication.repository.inmemory.OAuth2AccessTokenInMemoryRepository;
+import yoan.shopping.authentication.repository.inmemory.OAuth2AuthorizationCodeInMemoryRepository;
 import yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoRepository;
 import yoan.shopping.authentication.repository.mongo.OAuth2AuthorizationCodeMongoRepository;
+import yoan.shopping.authentication.repository.mongo.RefreshTokenMongoRepository;
+import yoan.shopping.authentication.repository.mongo.RevokedAccessTokenMongoRepository;
 import yoan.shopping.authentication.resource.AuthorizationResource;
 import yoan.shopping.authentication.resource.RedirectResource;
 import yoan.shopping.authentication.resource.TokenResource;
+import yoan.shopping.client.app.repository.CachedClientAppRepository;
 import yoan.shopping.client.app.repository.ClientAppRepository;
-import yoan.shopping.client.app.repository.mongo.ClientAppMongoRepository;
 import yoan.shopping.client.app.resource.ClientAppResource;
 import yoan.shopping.infra.config.api.Config;
 import yoan.shopping.infra.config.api.repository.ConfigRepository;
 import yoan.shopping.infra.config.api.repository.properties.ConfigPropertiesRepository;
 import yoan.shopping.infra.config.jackson.JacksonConfigProvider;
+import yoan.shopping.infra.db.mongo.metrics.MongoCommandMetricsReporter;
 import yoan.shopping.infra.rest.error.GlobalExceptionMapper;
 import yoan.shopping.list.repository.ShoppingItemRepository;
 import yoan.shopping.list.repository.ShoppingListRepository;
@@ -67,7 +76,7 @@ public class ShoppingModule extends AbstractModule {
 	protected void configure() {
 		install(new SwaggerModule(servletContext, new Reflections("yoan.shopping"), configAppli, buildInfo));
 		
-		//resources
+		//resources, singletons reading the connected user through a provider
 		bind(RootResource.class);
 		bind(UserResource.class);
 		bind(ShoppingListResource.class);
@@ -76,6 +85,7 @@ public class ShoppingModule extends AbstractModule {
 		bind(TokenResource.class);
 		bind(ClientAppResource.class);
 		bind(RegisterUserResource.class);
+		bind(MetricsResource.class);
 		
 		//providers
 		bind(GlobalExceptionMapper.class);
@@ -88,19 +98,44 @@ public class ShoppingModule extends AbstractModule {
 		bind(ConfigRepository.class).to(ConfigPropertiesRepository.class);
 		bind(ShoppingListRepository.class).to(ShoppingListMongoRepository.class);
 		bind(ShoppingItemRepository.class).to(ShoppingItemMongoRepository.class);
-		bind(ClientAppRepository.class).to(ClientAppMongoRepository.class);
+		bind(ClientAppRepository.class).to(CachedClientAppRepository.class);
 		
-		bind(OAuth2AuthorizationCodeRepository.class).to(OAuth2AuthorizationCodeMongoRepository.class);
-		bind(OAuth2AccessTokenRepository.class).to(OAuth2AccessTokenMongoRepository.class);
+		bindTokenRepositories();
+		bind(RevokedAccessTokenRepository.class).to(RevokedAccessTokenMongoRepository.class);
+		bind(RefreshTokenRepository.class).to(RefreshTokenMongoRepository.class);
+		
+		//background tasks
+		bind(MongoCommandMetricsReporter.class).asEagerSingleton();
 		
 		bindForLocalHostOnly();
 	}
 	
+	/**
+	 * Application configuration, also needed by the other modules to pick their bindings
+	 * @return config
+	 */
+	public static Config getConfig() {
+		return configAppli;
+	}
+	
 	@Provides
 	BuildInfoRepository provideBuildInfoRepository() {
 		return new BuildInfoPropertiesRepository(BUILD_INFO_DEFAULT_PROPERTIES_FILE_NAME);
 	}
 	
+	/**
+	 * Authorization codes and access tokens in database, or in memory for a single node
+	 */
+	private void bindTokenRepositories() {
+		if (configAppli.getTokenStorageMode() == TokenStorageMode.IN_MEMORY) {
+			bind(OAuth2AuthorizationCodeRepository.class).to(OAuth2AuthorizationCodeInMemoryRepository.class);
+			bind(OAuth2AccessTokenRepository.class).to(OAuth2AccessTokenInMemoryRepository.class);
+		} else {
+			bind(OAuth2AuthorizationCodeRepository.class).to(OAuth2AuthorizationCodeMongoRepository.class);
+			bind(OAuth2AccessTokenRepository.class).to(OAuth2AccessTokenMongoRepository.class);
+		}
+	}
+	
 	/**
 	 * Binding only for development purpose
 	 */
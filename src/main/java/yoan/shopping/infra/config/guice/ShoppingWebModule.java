@@ -17,7 +17,10 @@ import com.google.inject.servlet.RequestScoped;
 import com.google.inject.servlet.ServletModule;
 import com.thetransactioncompany.cors.CORSFilter;
 
+import yoan.shopping.infra.config.filter.IpRateLimitFilter;
+import yoan.shopping.infra.config.filter.RequestDeadlineFilter;
 import yoan.shopping.infra.config.filter.RequestScopeFilter;
+import yoan.shopping.infra.config.filter.UserRateLimitFilter;
 import yoan.shopping.user.User;
 
 /**
@@ -37,11 +40,20 @@ public class ShoppingWebModule extends ServletModule {
 		
 		//allow CORS
 		bind(CORSFilter.class).in(Singleton.class);
-		Map<String, String> corsInitParams = ImmutableMap.of("cors.supportedMethods", "GET, POST, HEAD, PUT, DELETE, OPTIONS");
+		Map<String, String> corsInitParams = ImmutableMap.of("cors.supportedMethods", "GET, POST, HEAD, PUT, PATCH, DELETE, OPTIONS");
 		filter("/", "/*").through(CORSFilter.class, corsInitParams);
 		
+		//giving each request a deadline, before any database access
+		filter("/rest", "/rest/*").through(RequestDeadlineFilter.class);
+		
+		//limiting each source IP, before authentication to limit the rejected requests too
+		filter("/rest", "/rest/*").through(IpRateLimitFilter.class);
+		
 		filter("/rest/api", "/rest/api/*", "/rest/auth", "/rest/auth/*", "/rest/public", "/rest/public/*").through(GuiceShiroFilter.class);
 		
+		//limiting each user, once authenticated
+		filter("/rest", "/rest/*").through(UserRateLimitFilter.class);
+		
 		//filtering to authenticate the current user
 		filter("/rest/api", "/rest/api/*", "/rest/auth/authorization").through(RequestScopeFilter.class);
 	}
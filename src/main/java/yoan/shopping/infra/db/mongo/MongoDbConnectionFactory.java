@@ -25,9 +25,20 @@ import com.mongodb.client.MongoDatabase;
 
 import yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoConverter;
 import yoan.shopping.authentication.repository.mongo.OAuth2AuthorizationCodeMongoConverter;
+import yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter;
+import yoan.shopping.authentication.repository.mongo.RevokedAccessTokenMongoConverter;
 import yoan.shopping.client.app.repository.mongo.ClientAppMongoConverter;
 import yoan.shopping.infra.config.api.Config;
 import yoan.shopping.infra.db.Dbs;
+import yoan.shopping.infra.db.mongo.metrics.MongoCommandMetrics;
+import yoan.shopping.infra.db.mongo.metrics.MongoCommandMetricsListener;
+import yoan.shopping.infra.db.mongo.metrics.MongoQueryExplainer;
+import yoan.shopping.infra.db.mongo.metrics.MongoSlowQueryListener;
+import yoan.shopping.infra.db.mongo.metrics.MongoSlowQueryLog;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreakerSettings;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryMetrics;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryPolicy;
 import yoan.shopping.list.repository.mongo.ShoppingItemMongoConverter;
 import yoan.shopping.list.repository.mongo.ShoppingListMongoConverter;
 import yoan.shopping.user.repository.mongo.SecuredUserMongoConverter;
@@ -37,6 +48,10 @@ import yoan.shopping.user.repository.mongo.UserMongoConverter;
 public class MongoDbConnectionFactory {
 	
 	private final Config config;
+	private final MongoCommandMetrics commandMetrics;
+	private final MongoSlowQueryLog slowQueryLog;
+	private final MongoRetryMetrics retryMetrics;
+	private final MongoCircuitBreaker circuitBreaker;
 	private final MongoClient mongoClient;
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbConnectionFactory.class);
@@ -44,6 +59,10 @@ public class MongoDbConnectionFactory {
 	@Inject
 	public MongoDbConnectionFactory(Config config) {
 		this.config = requireNonNull(config);
+		commandMetrics = new MongoCommandMetrics();
+		retryMetrics = new MongoRetryMetrics();
+		circuitBreaker = new MongoCircuitBreaker(getCircuitBreakerSettings(config));
+		slowQueryLog = new MongoSlowQueryLog(config.getMongoSlowQueryThresholdInMillis(), new MongoQueryExplainer(this::getDatabase));
 		mongoClient = new MongoClient(getServerAdress(), getCredentials(), getOptions());
 	}
 	
@@ -51,6 +70,10 @@ public class MongoDbConnectionFactory {
 		return mongoClient.getDatabase(db.getDbName());
 	}
 	
+	private MongoDatabase getDatabase(String databaseName) {
+		return mongoClient.getDatabase(databaseName);
+	}
+	
 	public MongoCollection<Document> getCollection(Dbs db, String collectionName) {
 		return getDB(db).getCollection(collectionName);
 	}
@@ -59,6 +82,37 @@ public class MongoDbConnectionFactory {
 		return getDB(db).getCollection(collectionName, documentClass);
 	}
 	
+	/**
+	 * Create the operation executor a mongo repository should use to run its operations
+	 * @param repositoryClass
+	 * @return operation executor
+	 */
+	public MongoOperationExecutor createOperationExecutor(Class<?> repositoryClass) {
+		return new MongoOperationExecutor(repositoryClass.getSimpleName(), LoggerFactory.getLogger(repositoryClass), MongoRetryPolicy.DEFAULT, retryMetrics, circuitBreaker);
+	}
+	
+	public MongoCommandMetrics getCommandMetrics() {
+		return commandMetrics;
+	}
+	
+	public MongoSlowQueryLog getSlowQueryLog() {
+		return slowQueryLog;
+	}
+	
+	public MongoRetryMetrics getRetryMetrics() {
+		return retryMetrics;
+	}
+	
+	public MongoCircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+	
+	protected static MongoCircuitBreakerSettings getCircuitBreakerSettings(Config config) {
+		return new MongoCircuitBreakerSettings(config.getMongoCircuitBreakerWindowInSeconds(), config.getMongoCircuitBreakerMinimumCalls(),
+			config.getMongoCircuitBreakerFailureRateInPercent() / 100.0, config.getMongoCircuitBreakerSlowCallThresholdInMillis(),
+			config.getMongoCircuitBreakerSlowCallRateInPercent() / 100.0, config.getMongoCircuitBreakerOpenDurationInSeconds(), config.getMongoCircuitBreakerHalfOpenProbes());
+	}
+	
 	private ServerAddress getServerAdress() {
 		String host = config.getMongoHost();
 		int port = config.getMongoPort();
@@ -79,6 +133,8 @@ public class MongoDbConnectionFactory {
 	private MongoClientOptions getOptions() {
 		MongoClientOptions.Builder optionsBuilder = MongoClientOptions.builder();
 		addCodecsToOptions(optionsBuilder);
+		optionsBuilder.addCommandListener(new MongoCommandMetricsListener(commandMetrics));
+		optionsBuilder.addCommandListener(new MongoSlowQueryListener(slowQueryLog));
 		return optionsBuilder.build();
 	}
 	
@@ -102,7 +158,9 @@ public class MongoDbConnectionFactory {
 		ClientAppMongoConverter clientAppCodec = new ClientAppMongoConverter(defaultDocumentCodec);
 		OAuth2AuthorizationCodeMongoConverter authCodeCodec = new OAuth2AuthorizationCodeMongoConverter(defaultDocumentCodec);
 		OAuth2AccessTokenMongoConverter accessTokenCodec = new OAuth2AccessTokenMongoConverter(defaultDocumentCodec);
+		RevokedAccessTokenMongoConverter revokedAccessTokenCodec = new RevokedAccessTokenMongoConverter(defaultDocumentCodec);
+		RefreshTokenMongoConverter refreshTokenCodec = new RefreshTokenMongoConverter(defaultDocumentCodec);
 		
-		return CodecRegistries.fromCodecs(userCodec, securedUserCodec, listCodec, itemCodec, clientAppCodec, authCodeCodec, accessTokenCodec);
+		return CodecRegistries.fromCodecs(userCodec, securedUserCodec, listCodec, itemCodec, clientAppCodec, authCodeCodec, accessTokenCodec, revokedAccessTokenCodec, refreshTokenCodec);
 	}
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package yoan.shopping.infra.db.mongo;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import java.util.concurrent.TimeUnit;
@@ -72,4 +73,82 @@ public class MongoIndexEnsurer {
 		Document indexKey = new Document(fieldName, sortOrder.getOrder());
 		collection.createIndex(indexKey);
 	}
+	
+	/**
+	 * Index on several fields, the first ones also serve the queries on them alone
+	 * @param sortOrder
+	 * @param fieldNames : indexed fields, in order
+	 */
+	public void ensureCompoundIndex(SortOrder sortOrder, String... fieldNames) {
+		checkArgument(fieldNames.length > 1, "A compound index needs several fields");
+		Document indexKey = new Document();
+		for (String fieldName : fieldNames) {
+			indexKey.append(fieldName, sortOrder.getOrder());
+		}
+		collection.createIndex(indexKey);
+	}
+	
+	/**
+	 * Unique index ignoring the documents without the field, as the ones written before it was added
+	 * @param fieldName
+	 * @param sortOrder
+	 */
+	public void ensureUniqueSparseIndex(String fieldName, SortOrder sortOrder) {
+		Document indexKey = new Document(fieldName, sortOrder.getOrder());
+		IndexOptions options = new IndexOptions();
+		options.unique(true);
+		options.sparse(true);
+		collection.createIndex(indexKey, options);
+	}
+	
+	/**
+	 * Rebuild a unique index as sparse, the documents without the field would collide on null otherwise
+	 * The sparse index gets its own name, so that an index already rebuilt is recognized
+	 * @param fieldName
+	 * @param sortOrder
+	 * @param sparseIndexName : name of the rebuilt index
+	 */
+	public void rebuildUniqueIndexAsSparse(String fieldName, SortOrder sortOrder, String sparseIndexName) {
+		Document index = getIndex(fieldName, sortOrder);
+		if (index == null || sparseIndexName.equals(index.getString("name"))) {
+			return;
+		}
+		LOGGER.info(CONFIG, String.format("Rebuilding index on %s from %s collection as sparse", fieldName, collectionName));
+		collection.dropIndex(index.getString("name"));
+		Document indexKey = new Document(fieldName, sortOrder.getOrder());
+		IndexOptions options = new IndexOptions();
+		options.unique(true);
+		options.sparse(true);
+		options.name(sparseIndexName);
+		collection.createIndex(indexKey, options);
+	}
+	
+	public boolean hasIndex(String fieldName, SortOrder sortOrder) {
+		return getIndex(fieldName, sortOrder) != null;
+	}
+	
+	/**
+	 * @param fieldName
+	 * @param sortOrder
+	 * @return description of the index on the field alone, null if there is none
+	 */
+	public Document getIndex(String fieldName, SortOrder sortOrder) {
+		for (Document index : collection.listIndexes()) {
+			Document indexKey = (Document) index.get("key");
+			//the server may give back the order as a double
+			Object order = indexKey.get(fieldName);
+			if (indexKey.size() == 1 && order instanceof Number && ((Number) order).intValue() == sortOrder.getOrder()) {
+				return index;
+			}
+		}
+		return null;
+	}
+	
+	public void dropIndexIfExists(String fieldName, SortOrder sortOrder) {
+		Document index = getIndex(fieldName, sortOrder);
+		if (index != null) {
+			LOGGER.info(CONFIG, String.format("Dropping index on %s from %s collection", fieldName, collectionName));
+			collection.dropIndex(index.getString("name"));
+		}
+	}
 }
@@ -0,0 +1,265 @@
+package yoan.shopping.infra.db.mongo;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.rest.error.Level.WARNING;
+import static yoan.shopping.infra.util.error.RepositoryErrorCode.UNAVAILABLE;
+import static yoan.shopping.infra.util.error.RepositoryErrorMessage.DATABASE_UNAVAILABLE;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+
+import yoan.shopping.infra.db.mongo.metrics.MongoCallerContext;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryMetrics;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryPolicy;
+import yoan.shopping.infra.util.deadline.DeadlineExceededException;
+import yoan.shopping.infra.util.deadline.RequestDeadline;
+import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.error.ErrorMessage;
+import yoan.shopping.infra.util.error.RetryLaterException;
+import yoan.shopping.infra.util.helper.MongoRepositoryHelper;
+
+/**
+ * Single entry point of a mongo repository to run its operations
+ * Tag the operation with its calling repository method, fail fast while the circuit breaker is open or the request deadline is spent,
+ * retry idempotent operations within the request deadline and handle mongo errors
+ * @author yoan
+ */
+public class MongoOperationExecutor {
+	private final String repositoryName;
+	private final Logger logger;
+	private final MongoRetryPolicy retryPolicy;
+	private final MongoRetryMetrics retryMetrics;
+	private final MongoCircuitBreaker circuitBreaker;
+
+	protected MongoOperationExecutor(String repositoryName, Logger logger, MongoRetryPolicy retryPolicy, MongoRetryMetrics retryMetrics, MongoCircuitBreaker circuitBreaker) {
+		this.repositoryName = requireNonNull(repositoryName);
+		this.logger = requireNonNull(logger);
+		this.retryPolicy = requireNonNull(retryPolicy);
+		this.retryMetrics = requireNonNull(retryMetrics);
+		this.circuitBreaker = requireNonNull(circuitBreaker);
+	}
+
+	/**
+	 * Run a mongo operation returning a result, without retry
+	 * Use it for writes whose result drives the answer : a retried delete already applied would find nothing and answer not found
+	 * @param operationName : name of the calling repository method
+	 * @param errorMessage : message used if the operation fails
+	 * @param operation
+	 * @return operation result
+	 * @throws ApplicationException if the operation fails
+	 * @throws RetryLaterException if the circuit breaker is open
+	 * @throws DeadlineExceededException if the request deadline is spent
+	 */
+	public <T> T execute(String operationName, ErrorMessage errorMessage, Supplier<T> operation) {
+		return execute(operationName, errorMessage, MongoRetryPolicy.NO_RETRY, operation);
+	}
+
+	/**
+	 * Run a mongo operation without result, without retry
+	 * @param operationName : name of the calling repository method
+	 * @param errorMessage : message used if the operation fails
+	 * @param operation
+	 * @throws ApplicationException if the operation fails
+	 */
+	public void run(String operationName, ErrorMessage errorMessage, Runnable operation) {
+		execute(operationName, errorMessage, toSupplier(operation));
+	}
+
+	/**
+	 * Run an idempotent mongo operation returning a result, retried on transient errors
+	 * @param operationName : name of the calling repository method
+	 * @param errorMessage : message used if the operation fails
+	 * @param operation : a read or a write giving the same result when applied twice
+	 * @return operation result
+	 * @throws ApplicationException if the operation fails
+	 * @throws RetryLaterException if the circuit breaker is open
+	 * @throws DeadlineExceededException if the request deadline is spent
+	 */
+	public <T> T executeIdempotent(String operationName, ErrorMessage errorMessage, Supplier<T> operation) {
+		return execute(operationName, errorMessage, retryPolicy, operation);
+	}
+
+	/**
+	 * Run an idempotent mongo operation without result, retried on transient errors
+	 * @param operationName : name of the calling repository method
+	 * @param errorMessage : message used if the operation fails
+	 * @param operation : a write giving the same result when applied twice
+	 * @throws ApplicationException if the operation fails
+	 */
+	public void runIdempotent(String operationName, ErrorMessage errorMessage, Runnable operation) {
+		executeIdempotent(operationName, errorMessage, toSupplier(operation));
+	}
+
+	private static Supplier<Void> toSupplier(Runnable operation) {
+		return () -> {
+			operation.run();
+			return null;
+		};
+	}
+
+	private <T> T execute(String operationName, ErrorMessage errorMessage, MongoRetryPolicy policy, Supplier<T> operation) {
+		String caller = repositoryName + "." + operationName;
+		String previousCaller = MongoCallerContext.setCaller(caller);
+		try {
+			return executeWithRetry(caller, policy, operation);
+		} catch(MongoException e) {
+			MongoRepositoryHelper.handleMongoError(logger, e, errorMessage);
+			//unreachable, handleMongoError always throws
+			return null;
+		} finally {
+			MongoCallerContext.setCaller(previousCaller);
+		}
+	}
+
+	private <T> T executeWithRetry(String caller, MongoRetryPolicy policy, Supplier<T> operation) {
+		RequestDeadline deadline = RequestDeadline.current();
+		int attempt = 1;
+		while (true) {
+			checkDeadline(deadline, caller);
+			acquireCircuitPermission(caller);
+			long start = System.nanoTime();
+			try {
+				T result = operation.get();
+				circuitBreaker.recordSuccess(System.nanoTime() - start);
+				if (attempt > 1) {
+					retryMetrics.recordRecovery(caller);
+				}
+				return result;
+			} catch(MongoExecutionTimeoutException e) {
+				if (deadline == null) {
+					circuitBreaker.recordFailure(e, System.nanoTime() - start);
+					throw e;
+				}
+				//maxTimeMS came from the request budget, its latency is accounted but it is not a backend failure
+				circuitBreaker.recordSuccess(System.nanoTime() - start);
+				throw deadline.exceeded(caller);
+			} catch(MongoException e) {
+				circuitBreaker.recordFailure(e, System.nanoTime() - start);
+				if (!policy.isTransient(e)) {
+					throw e;
+				}
+				if (attempt >= policy.getMaxAttempts()) {
+					if (policy.getMaxAttempts() > 1) {
+						retryMetrics.recordExhaustion(caller);
+					}
+					throw e;
+				}
+				long delay = policy.getBackoffDelayInMillis(attempt);
+				if (deadline != null && delay >= deadline.getRemainingInMillis()) {
+					retryMetrics.recordExhaustion(caller);
+					throw deadline.exceeded(caller);
+				}
+				logger.warn("Transient Mongo error on {} attempt {}, retrying in {} ms : {}", caller, attempt, delay, e.getMessage());
+				retryMetrics.recordRetry(caller);
+				if (!sleep(delay)) {
+					throw e;
+				}
+				attempt++;
+			} catch(RuntimeException e) {
+				//not a database failure, release the permission
+				circuitBreaker.recordSuccess(System.nanoTime() - start);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Bound a find by the remaining time of the request deadline
+	 * @param find
+	 * @return find with maxTimeMS when a deadline is set
+	 */
+	public <T> FindIterable<T> withRemainingTime(FindIterable<T> find) {
+		RequestDeadline deadline = RequestDeadline.current();
+		return deadline == null ? find : find.maxTime(getMaxTimeInMillis(deadline), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Bound an aggregation by the remaining time of the request deadline
+	 * @param aggregate
+	 * @return aggregation with maxTimeMS when a deadline is set
+	 */
+	public <T> AggregateIterable<T> withRemainingTime(AggregateIterable<T> aggregate) {
+		RequestDeadline deadline = RequestDeadline.current();
+		return deadline == null ? aggregate : aggregate.maxTime(getMaxTimeInMillis(deadline), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Bound a count by the remaining time of the request deadline
+	 * @param options
+	 * @return count options with maxTimeMS when a deadline is set
+	 */
+	public CountOptions withRemainingTime(CountOptions options) {
+		RequestDeadline deadline = RequestDeadline.current();
+		return deadline == null ? options : options.maxTime(getMaxTimeInMillis(deadline), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Bound a find and update by the remaining time of the request deadline
+	 * @param options
+	 * @return find and update options with maxTimeMS when a deadline is set
+	 */
+	public FindOneAndUpdateOptions withRemainingTime(FindOneAndUpdateOptions options) {
+		RequestDeadline deadline = RequestDeadline.current();
+		return deadline == null ? options : options.maxTime(getMaxTimeInMillis(deadline), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Bound a find and delete by the remaining time of the request deadline
+	 * @param options
+	 * @return find and delete options with maxTimeMS when a deadline is set
+	 */
+	public FindOneAndDeleteOptions withRemainingTime(FindOneAndDeleteOptions options) {
+		RequestDeadline deadline = RequestDeadline.current();
+		return deadline == null ? options : options.maxTime(getMaxTimeInMillis(deadline), TimeUnit.MILLISECONDS);
+	}
+
+	private static long getMaxTimeInMillis(RequestDeadline deadline) {
+		//maxTimeMS 0 means no limit, the expired case is already rejected before the operation starts
+		return Math.max(1, deadline.getRemainingInMillis());
+	}
+
+	private static void checkDeadline(RequestDeadline deadline, String caller) {
+		if (deadline != null && deadline.isExpired()) {
+			throw deadline.exceeded(caller);
+		}
+	}
+
+	private void acquireCircuitPermission(String caller) {
+		if (!circuitBreaker.tryAcquirePermission()) {
+			long retryAfterInSeconds = circuitBreaker.getRetryAfterInSeconds();
+			logger.debug("Mongo circuit breaker open, {} rejected", caller);
+			String message = DATABASE_UNAVAILABLE.getDevReadableMessage(retryAfterInSeconds);
+			throw new RetryLaterException(WARNING, UNAVAILABLE, message, retryAfterInSeconds);
+		}
+	}
+
+	/**
+	 * Wait before the next attempt
+	 * @param delayInMillis
+	 * @return false if interrupted
+	 */
+	protected boolean sleep(long delayInMillis) {
+		try {
+			Thread.sleep(delayInMillis);
+			return true;
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	public String getRepositoryName() {
+		return repositoryName;
+	}
+}
@@ -0,0 +1,35 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+/**
+ * Keep track of the repository method currently talking to Mongo on this thread
+ * The synchronous driver fires command events on the calling thread, so listeners can read it back
+ * @author yoan
+ */
+public final class MongoCallerContext {
+	private static final ThreadLocal<String> CURRENT_CALLER = new ThreadLocal<>();
+
+	private MongoCallerContext() { }
+
+	/**
+	 * Set the current caller
+	 * @param caller : new caller, null to clear it
+	 * @return the previous caller, to be restored once the operation is over
+	 */
+	public static String setCaller(String caller) {
+		String previousCaller = CURRENT_CALLER.get();
+		if (caller == null) {
+			CURRENT_CALLER.remove();
+		} else {
+			CURRENT_CALLER.set(caller);
+		}
+		return previousCaller;
+	}
+
+	/**
+	 * Get the current caller
+	 * @return current caller or null if none
+	 */
+	public static String getCaller() {
+		return CURRENT_CALLER.get();
+	}
+}
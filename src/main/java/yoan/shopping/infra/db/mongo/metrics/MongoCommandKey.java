@@ -0,0 +1,65 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Identify a family of Mongo commands : collection, command type and calling repository method
+ * @author yoan
+ */
+public final class MongoCommandKey {
+	/** Used when the collection or the caller can not be identified */
+	public static final String UNKNOWN = "unknown";
+
+	private final String collection;
+	private final String commandName;
+	private final String caller;
+
+	public MongoCommandKey(String collection, String commandName, String caller) {
+		this.collection = requireNonNull(collection);
+		this.commandName = requireNonNull(commandName);
+		this.caller = requireNonNull(caller);
+	}
+
+	public String getCollection() {
+		return collection;
+	}
+
+	public String getCommandName() {
+		return commandName;
+	}
+
+	public String getCaller() {
+		return caller;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(collection, commandName, caller);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        MongoCommandKey that = (MongoCommandKey) obj;
+        return Objects.equals(this.collection, that.collection)
+                && Objects.equals(this.commandName, that.commandName)
+                && Objects.equals(this.caller, that.caller);
+    }
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("collection", collection)
+											   .add("commandName", commandName)
+											   .add("caller", caller)
+											   .toString();
+	}
+}
@@ -0,0 +1,43 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Registry of the Mongo command statistics, one entry per collection, command type and caller
+ * @author yoan
+ */
+public class MongoCommandMetrics {
+	private static final Comparator<MongoCommandStats> BY_KEY = Comparator.comparing((MongoCommandStats stats) -> stats.getKey().getCollection())
+		.thenComparing(stats -> stats.getKey().getCommandName())
+		.thenComparing(stats -> stats.getKey().getCaller());
+
+	private final ConcurrentMap<MongoCommandKey, MongoCommandStats> statsByKey = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the statistics of a command family, creating them if needed
+	 * @param key
+	 * @return statistics
+	 */
+	public MongoCommandStats getStats(MongoCommandKey key) {
+		return statsByKey.computeIfAbsent(key, MongoCommandStats::new);
+	}
+
+	public void recordSuccess(MongoCommandKey key, long latencyInMicros, long nbReplyDocuments) {
+		getStats(key).recordSuccess(latencyInMicros, nbReplyDocuments);
+	}
+
+	public void recordFailure(MongoCommandKey key, long latencyInMicros) {
+		getStats(key).recordFailure(latencyInMicros);
+	}
+
+	/**
+	 * @return all the recorded statistics ordered by collection, command and caller
+	 */
+	public ImmutableList<MongoCommandStats> getAllStats() {
+		return ImmutableList.copyOf(statsByKey.values().stream().sorted(BY_KEY).iterator());
+	}
+}
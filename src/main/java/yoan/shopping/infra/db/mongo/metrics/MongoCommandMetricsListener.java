@@ -0,0 +1,92 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static yoan.shopping.infra.db.mongo.metrics.MongoCommandKey.UNKNOWN;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Mongo command listener feeding the command metrics
+ * @author yoan
+ */
+public class MongoCommandMetricsListener implements CommandListener {
+	private static final String GET_MORE_COMMAND = "getMore";
+	private static final String GET_MORE_COLLECTION_FIELD = "collection";
+
+	private final MongoCommandMetrics metrics;
+	/** Keys of the commands started but not finished yet, by request Id */
+	private final ConcurrentMap<Integer, MongoCommandKey> inFlightCommands = new ConcurrentHashMap<>();
+
+	public MongoCommandMetricsListener(MongoCommandMetrics metrics) {
+		this.metrics = requireNonNull(metrics);
+	}
+
+	@Override
+	public void commandStarted(CommandStartedEvent event) {
+		String caller = MongoCallerContext.getCaller();
+		MongoCommandKey key = new MongoCommandKey(extractCollection(event), event.getCommandName(), caller == null ? UNKNOWN : caller);
+		inFlightCommands.put(event.getRequestId(), key);
+	}
+
+	@Override
+	public void commandSucceeded(CommandSucceededEvent event) {
+		MongoCommandKey key = getFinishedCommandKey(event.getRequestId(), event.getCommandName());
+		metrics.recordSuccess(key, event.getElapsedTime(MICROSECONDS), countReplyDocuments(event.getResponse()));
+	}
+
+	@Override
+	public void commandFailed(CommandFailedEvent event) {
+		MongoCommandKey key = getFinishedCommandKey(event.getRequestId(), event.getCommandName());
+		metrics.recordFailure(key, event.getElapsedTime(MICROSECONDS));
+	}
+
+	private MongoCommandKey getFinishedCommandKey(int requestId, String commandName) {
+		MongoCommandKey key = inFlightCommands.remove(requestId);
+		return key != null ? key : new MongoCommandKey(UNKNOWN, commandName, UNKNOWN);
+	}
+
+	/**
+	 * Find the targeted collection : it is the value of the command name field, except for getMore
+	 * @param event
+	 * @return collection name or unknown
+	 */
+	protected static String extractCollection(CommandStartedEvent event) {
+		BsonDocument command = event.getCommand();
+		String fieldName = GET_MORE_COMMAND.equals(event.getCommandName()) ? GET_MORE_COLLECTION_FIELD : event.getCommandName();
+		BsonValue collection = command == null ? null : command.get(fieldName);
+		return collection != null && collection.isString() ? collection.asString().getValue() : UNKNOWN;
+	}
+
+	/**
+	 * Count the documents returned or affected by a command
+	 * @param response
+	 * @return number of documents in the cursor batch, affected documents count or found document
+	 */
+	protected static long countReplyDocuments(BsonDocument response) {
+		if (response == null) {
+			return 0;
+		}
+		BsonValue cursor = response.get("cursor");
+		if (cursor != null && cursor.isDocument()) {
+			BsonDocument cursorDocument = cursor.asDocument();
+			BsonValue batch = cursorDocument.containsKey("firstBatch") ? cursorDocument.get("firstBatch") : cursorDocument.get("nextBatch");
+			return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+		}
+		BsonValue affected = response.get("n");
+		if (affected != null && affected.isNumber()) {
+			return affected.asNumber().longValue();
+		}
+		BsonValue value = response.get("value");
+		return value != null && value.isDocument() ? 1 : 0;
+	}
+}
@@ -0,0 +1,73 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.PERFORMANCE;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+
+/**
+ * Periodically log a summary of the Mongo command metrics
+ * @author yoan
+ */
+@Singleton
+public class MongoCommandMetricsReporter {
+	public static final long REPORT_PERIOD_IN_SECONDS = 60;
+
+	private final MongoCommandMetrics metrics;
+	/** Command count at the previous report, to log only active command families */
+	private final Map<MongoCommandKey, Long> previousCounts = new ConcurrentHashMap<>();
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MongoCommandMetricsReporter.class);
+
+	@Inject
+	public MongoCommandMetricsReporter(MongoDbConnectionFactory mongoConnectionFactory) {
+		this(mongoConnectionFactory.getCommandMetrics());
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("mongo-metrics-reporter").build());
+		scheduler.scheduleAtFixedRate(this::report, REPORT_PERIOD_IN_SECONDS, REPORT_PERIOD_IN_SECONDS, TimeUnit.SECONDS);
+	}
+
+	protected MongoCommandMetricsReporter(MongoCommandMetrics metrics) {
+		this.metrics = requireNonNull(metrics);
+	}
+
+	/**
+	 * Log one line per command family that ran since the previous report
+	 */
+	public void report() {
+		try {
+			for (MongoCommandStats stats : metrics.getAllStats()) {
+				long count = stats.getCount();
+				Long previousCount = previousCounts.put(stats.getKey(), count);
+				if (previousCount == null || previousCount != count) {
+					LOGGER.info(PERFORMANCE.getMarker(), formatSummary(stats));
+				}
+			}
+		} catch (RuntimeException e) {
+			//never let an exception kill the scheduled report
+			LOGGER.warn(PERFORMANCE.getMarker(), "Unable to report Mongo command metrics", e);
+		}
+	}
+
+	protected static String formatSummary(MongoCommandStats stats) {
+		MongoCommandKey key = stats.getKey();
+		return String.format("Mongo %s.%s by %s : count=%d failures=%d latency(us) p50=%d p90=%d p99=%d p99.9=%d p99.99=%d max=%d replyDocs mean=%.1f max=%d",
+			key.getCollection(), key.getCommandName(), key.getCaller(), stats.getCount(), stats.getFailureCount(),
+			stats.getLatencyPercentileInMicros(50), stats.getLatencyPercentileInMicros(90), stats.getLatencyPercentileInMicros(99),
+			stats.getLatencyPercentileInMicros(99.9), stats.getLatencyPercentileInMicros(99.99), stats.getMaxLatencyInMicros(),
+			stats.getMeanReplyDocuments(), stats.getMaxReplyDocuments());
+	}
+}
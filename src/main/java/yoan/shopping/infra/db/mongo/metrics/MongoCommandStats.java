@@ -0,0 +1,104 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Latency, failure and reply size statistics of a family of Mongo commands
+ * @author yoan
+ */
+public class MongoCommandStats {
+	/** Highest recordable latency, slower commands are clamped to it */
+	public static final long MAX_TRACKABLE_LATENCY_IN_MICROS = TimeUnit.MINUTES.toMicros(10);
+	/** Highest recordable number of documents in a reply */
+	public static final long MAX_TRACKABLE_REPLY_DOCUMENTS = 1_000_000;
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final MongoCommandKey key;
+	private final ConcurrentHistogram latencyInMicros;
+	private final ConcurrentHistogram replyDocuments;
+	private final LongAdder failureCount;
+
+	public MongoCommandStats(MongoCommandKey key) {
+		this.key = requireNonNull(key);
+		latencyInMicros = new ConcurrentHistogram(MAX_TRACKABLE_LATENCY_IN_MICROS, SIGNIFICANT_DIGITS);
+		replyDocuments = new ConcurrentHistogram(MAX_TRACKABLE_REPLY_DOCUMENTS, SIGNIFICANT_DIGITS);
+		failureCount = new LongAdder();
+	}
+
+	/**
+	 * Record a successful command
+	 * @param latencyInMicros
+	 * @param nbReplyDocuments : number of documents returned or affected by the command
+	 */
+	public void recordSuccess(long latencyInMicros, long nbReplyDocuments) {
+		this.latencyInMicros.recordValue(clamp(latencyInMicros, MAX_TRACKABLE_LATENCY_IN_MICROS));
+		this.replyDocuments.recordValue(clamp(nbReplyDocuments, MAX_TRACKABLE_REPLY_DOCUMENTS));
+	}
+
+	/**
+	 * Record a failed command
+	 * @param latencyInMicros
+	 */
+	public void recordFailure(long latencyInMicros) {
+		this.latencyInMicros.recordValue(clamp(latencyInMicros, MAX_TRACKABLE_LATENCY_IN_MICROS));
+		failureCount.increment();
+	}
+
+	private static long clamp(long value, long max) {
+		return Math.max(0, Math.min(value, max));
+	}
+
+	public MongoCommandKey getKey() {
+		return key;
+	}
+
+	/**
+	 * @return number of commands, failed ones included
+	 */
+	public long getCount() {
+		return latencyInMicros.getTotalCount();
+	}
+
+	public long getFailureCount() {
+		return failureCount.sum();
+	}
+
+	/**
+	 * Get the latency at a given percentile
+	 * @param percentile : between 0 and 100
+	 * @return latency in microseconds
+	 */
+	public long getLatencyPercentileInMicros(double percentile) {
+		return latencyInMicros.getValueAtPercentile(percentile);
+	}
+
+	public long getMaxLatencyInMicros() {
+		return latencyInMicros.getMaxValue();
+	}
+
+	public double getMeanReplyDocuments() {
+		return replyDocuments.getTotalCount() == 0 ? 0 : replyDocuments.getMean();
+	}
+
+	public long getMaxReplyDocuments() {
+		return replyDocuments.getMaxValue();
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("key", key)
+											   .add("count", getCount())
+											   .add("failures", getFailureCount())
+											   .add("p50", getLatencyPercentileInMicros(50))
+											   .add("p99", getLatencyPercentileInMicros(99))
+											   .add("max", getMaxLatencyInMicros())
+											   .toString();
+	}
+}
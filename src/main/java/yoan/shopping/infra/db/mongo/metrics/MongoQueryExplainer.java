@@ -0,0 +1,45 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Function;
+
+import org.bson.BsonDocument;
+
+import com.mongodb.client.MongoDatabase;
+
+/**
+ * Run the explain of a slow query to find its winning plan
+ * @author yoan
+ */
+public class MongoQueryExplainer {
+	/** Caller used by the explain commands, so that they are not explained again */
+	public static final String EXPLAIN_CALLER = "MongoQueryExplainer.explain";
+
+	private final Function<String, MongoDatabase> databaseProvider;
+
+	public MongoQueryExplainer(Function<String, MongoDatabase> databaseProvider) {
+		this.databaseProvider = requireNonNull(databaseProvider);
+	}
+
+	/**
+	 * Explain a slow query
+	 * @param slowQuery
+	 * @return winning plan, null if the query can not be explained
+	 */
+	public BsonDocument explain(MongoSlowQuery slowQuery) {
+		BsonDocument query = slowQuery.getQueryToExplain();
+		if (query == null) {
+			return null;
+		}
+		BsonDocument explainCommand = MongoQueryShape.toExplainCommand(slowQuery.getKey().getCollection(), query);
+		String previousCaller = MongoCallerContext.setCaller(EXPLAIN_CALLER);
+		try {
+			MongoDatabase database = databaseProvider.apply(slowQuery.getDatabaseName());
+			BsonDocument explainResult = database.runCommand(explainCommand, BsonDocument.class);
+			return MongoQueryShape.findWinningPlan(explainResult);
+		} finally {
+			MongoCallerContext.setCaller(previousCaller);
+		}
+	}
+}
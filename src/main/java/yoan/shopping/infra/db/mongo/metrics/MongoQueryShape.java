@@ -0,0 +1,212 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import java.util.Map.Entry;
+
+import org.bson.BsonArray;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+/**
+ * Utility methods to extract, redact and explain the query part of a Mongo command
+ * @author yoan
+ */
+public final class MongoQueryShape {
+	public static final String FIELD_FILTER = "filter";
+	public static final String FIELD_SORT = "sort";
+	public static final String FIELD_PIPELINE = "pipeline";
+	public static final String FIELD_WINNING_PLAN = "winningPlan";
+	public static final String COLLSCAN_STAGE = "COLLSCAN";
+	private static final BsonString REDACTED_VALUE = new BsonString("?");
+
+	private MongoQueryShape() { }
+
+	/**
+	 * Copy the query part of a command, the driver releases the command buffer once it is sent
+	 * @param commandName
+	 * @param command
+	 * @return query part with a filter and a sort, or with a pipeline. Null if the command has no query part
+	 */
+	public static BsonDocument extractQuery(String commandName, BsonDocument command) {
+		return copy(selectQuery(commandName, command));
+	}
+
+	/**
+	 * Select the query part of a command without copying it.
+	 * Values read from the driver command buffer are decoded on read, so the selection outlives the buffer
+	 * @param commandName
+	 * @param command
+	 * @return query part sharing the command values. Null if the command has no query part
+	 */
+	public static BsonDocument selectQuery(String commandName, BsonDocument command) {
+		if (command == null) {
+			return null;
+		}
+		switch (commandName) {
+			case "find" :
+				return query(command.get("filter"), command.get("sort"));
+			case "count" :
+			case "distinct" :
+			case "findandmodify" :
+			case "findAndModify" :
+				return query(command.get("query"), command.get("sort"));
+			case "update" :
+				return query(firstStatementFilter(command.get("updates")), null);
+			case "delete" :
+				return query(firstStatementFilter(command.get("deletes")), null);
+			case "aggregate" :
+				BsonValue pipeline = command.get(FIELD_PIPELINE);
+				return pipeline == null ? null : new BsonDocument(FIELD_PIPELINE, pipeline);
+			default :
+				return null;
+		}
+	}
+
+	/**
+	 * Detach a selected query from the command it was selected from
+	 * @param query : query selected from a command
+	 * @return deep copy of the query, null if there is no query
+	 */
+	public static BsonDocument copy(BsonDocument query) {
+		return query == null ? null : deepCopy(query).asDocument();
+	}
+
+	private static BsonValue firstStatementFilter(BsonValue statements) {
+		if (statements == null || !statements.isArray() || statements.asArray().isEmpty()) {
+			return null;
+		}
+		BsonValue firstStatement = statements.asArray().get(0);
+		return firstStatement.isDocument() ? firstStatement.asDocument().get("q") : null;
+	}
+
+	private static BsonDocument query(BsonValue filter, BsonValue sort) {
+		BsonDocument query = new BsonDocument(FIELD_FILTER, filter == null ? new BsonDocument() : filter);
+		if (sort != null) {
+			query.append(FIELD_SORT, sort);
+		}
+		return query;
+	}
+
+	private static BsonValue deepCopy(BsonValue value) {
+		if (value.isDocument()) {
+			BsonDocument copy = new BsonDocument();
+			for (Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+				copy.append(entry.getKey(), deepCopy(entry.getValue()));
+			}
+			return copy;
+		}
+		if (value.isArray()) {
+			BsonArray copy = new BsonArray();
+			for (BsonValue element : value.asArray()) {
+				copy.add(deepCopy(element));
+			}
+			return copy;
+		}
+		return value;
+	}
+
+	/**
+	 * Keep the structure of a query but hide its values
+	 * @param query : query extracted from a command
+	 * @return redacted query
+	 */
+	public static BsonDocument redact(BsonDocument query) {
+		BsonDocument redacted = new BsonDocument();
+		for (Entry<String, BsonValue> entry : query.entrySet()) {
+			//sort only contains field names and directions
+			BsonValue value = FIELD_SORT.equals(entry.getKey()) ? entry.getValue() : redactValue(entry.getValue());
+			redacted.append(entry.getKey(), value);
+		}
+		return redacted;
+	}
+
+	private static BsonValue redactValue(BsonValue value) {
+		if (value.isDocument()) {
+			BsonDocument redacted = new BsonDocument();
+			for (Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+				redacted.append(entry.getKey(), redactValue(entry.getValue()));
+			}
+			return redacted;
+		}
+		if (value.isArray()) {
+			BsonArray redacted = new BsonArray();
+			for (BsonValue element : value.asArray()) {
+				BsonValue redactedElement = redactValue(element);
+				//lists of values are collapsed, lists of sub queries are kept
+				if (element.isDocument() || !redacted.contains(redactedElement)) {
+					redacted.add(redactedElement);
+				}
+			}
+			return redacted;
+		}
+		return REDACTED_VALUE;
+	}
+
+	/**
+	 * Build the explain command of a query
+	 * @param collection
+	 * @param query : query extracted from a command
+	 * @return explain command
+	 */
+	public static BsonDocument toExplainCommand(String collection, BsonDocument query) {
+		if (query.containsKey(FIELD_PIPELINE)) {
+			return new BsonDocument("aggregate", new BsonString(collection))
+				.append(FIELD_PIPELINE, query.get(FIELD_PIPELINE))
+				.append("explain", BsonBoolean.TRUE);
+		}
+		BsonDocument find = new BsonDocument("find", new BsonString(collection)).append(FIELD_FILTER, query.get(FIELD_FILTER));
+		if (query.containsKey(FIELD_SORT)) {
+			find.append(FIELD_SORT, query.get(FIELD_SORT));
+		}
+		return new BsonDocument("explain", find).append("verbosity", new BsonString("queryPlanner"));
+	}
+
+	/**
+	 * Find the winning plan in an explain result
+	 * @param explainResult
+	 * @return winning plan or null if not found
+	 */
+	public static BsonDocument findWinningPlan(BsonValue explainResult) {
+		if (explainResult.isDocument()) {
+			BsonDocument document = explainResult.asDocument();
+			BsonValue winningPlan = document.get(FIELD_WINNING_PLAN);
+			if (winningPlan != null && winningPlan.isDocument()) {
+				return winningPlan.asDocument();
+			}
+			for (BsonValue value : document.values()) {
+				BsonDocument found = findWinningPlan(value);
+				if (found != null) {
+					return found;
+				}
+			}
+		} else if (explainResult.isArray()) {
+			for (BsonValue value : explainResult.asArray()) {
+				BsonDocument found = findWinningPlan(value);
+				if (found != null) {
+					return found;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Check if a plan contains a collection scan stage
+	 * @param plan
+	 * @return true if one of the plan stages is a COLLSCAN
+	 */
+	public static boolean isCollectionScan(BsonValue plan) {
+		if (plan.isDocument()) {
+			BsonValue stage = plan.asDocument().get("stage");
+			if (stage != null && stage.isString() && COLLSCAN_STAGE.equals(stage.asString().getValue())) {
+				return true;
+			}
+			return plan.asDocument().values().stream().anyMatch(MongoQueryShape::isCollectionScan);
+		}
+		if (plan.isArray()) {
+			return plan.asArray().stream().anyMatch(MongoQueryShape::isCollectionScan);
+		}
+		return false;
+	}
+}
@@ -0,0 +1,100 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.LocalDateTime;
+
+import org.bson.BsonDocument;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Mongo command slower than the configured threshold
+ * @author yoan
+ */
+public class MongoSlowQuery {
+	private final LocalDateTime date;
+	private final String databaseName;
+	private final MongoCommandKey key;
+	private final long durationInMicros;
+	/** Query structure with redacted values, null if the command has no query part */
+	private final String redactedQuery;
+	/** Query with its values kept to run the explain, dropped once explained */
+	private volatile BsonDocument queryToExplain;
+	private volatile String winningPlan;
+	private volatile Boolean collectionScan;
+
+	public MongoSlowQuery(LocalDateTime date, String databaseName, MongoCommandKey key, long durationInMicros, BsonDocument query) {
+		this.date = requireNonNull(date);
+		this.databaseName = requireNonNull(databaseName);
+		this.key = requireNonNull(key);
+		this.durationInMicros = durationInMicros;
+		this.redactedQuery = query == null ? null : MongoQueryShape.redact(query).toJson();
+		this.queryToExplain = query;
+	}
+
+	/**
+	 * Attach the explain result to the slow query
+	 * @param winningPlan
+	 */
+	public void setWinningPlan(BsonDocument winningPlan) {
+		this.winningPlan = winningPlan.toJson();
+		this.collectionScan = MongoQueryShape.isCollectionScan(winningPlan);
+		this.queryToExplain = null;
+	}
+
+	/**
+	 * Forget the query values once explain is no longer possible
+	 */
+	public void discardQueryToExplain() {
+		this.queryToExplain = null;
+	}
+
+	public LocalDateTime getDate() {
+		return date;
+	}
+
+	public String getDatabaseName() {
+		return databaseName;
+	}
+
+	public MongoCommandKey getKey() {
+		return key;
+	}
+
+	public long getDurationInMicros() {
+		return durationInMicros;
+	}
+
+	public String getRedactedQuery() {
+		return redactedQuery;
+	}
+
+	public BsonDocument getQueryToExplain() {
+		return queryToExplain;
+	}
+
+	/**
+	 * @return winning plan as JSON or null if not explained
+	 */
+	public String getWinningPlan() {
+		return winningPlan;
+	}
+
+	/**
+	 * @return true if the winning plan scans the whole collection, null if not explained
+	 */
+	public Boolean isCollectionScan() {
+		return collectionScan;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("date", date)
+											   .add("key", key)
+											   .add("durationInMicros", durationInMicros)
+											   .add("redactedQuery", redactedQuery)
+											   .add("collectionScan", collectionScan)
+											   .toString();
+	}
+}
@@ -0,0 +1,68 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static yoan.shopping.infra.db.mongo.metrics.MongoCommandKey.UNKNOWN;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.bson.BsonDocument;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Mongo command listener feeding the slow query log
+ * @author yoan
+ */
+public class MongoSlowQueryListener implements CommandListener {
+	private final MongoSlowQueryLog slowQueryLog;
+	/** Commands started but not finished yet, by request Id */
+	private final ConcurrentMap<Integer, StartedCommand> inFlightCommands = new ConcurrentHashMap<>();
+
+	public MongoSlowQueryListener(MongoSlowQueryLog slowQueryLog) {
+		this.slowQueryLog = requireNonNull(slowQueryLog);
+	}
+
+	@Override
+	public void commandStarted(CommandStartedEvent event) {
+		String caller = MongoCallerContext.getCaller();
+		if (MongoQueryExplainer.EXPLAIN_CALLER.equals(caller)) {
+			return;
+		}
+		MongoCommandKey key = new MongoCommandKey(MongoCommandMetricsListener.extractCollection(event), event.getCommandName(), caller == null ? UNKNOWN : caller);
+		//only select the query now, it is copied if the command turns out to be slow
+		BsonDocument query = MongoQueryShape.selectQuery(event.getCommandName(), event.getCommand());
+		inFlightCommands.put(event.getRequestId(), new StartedCommand(event.getDatabaseName(), key, query));
+	}
+
+	@Override
+	public void commandSucceeded(CommandSucceededEvent event) {
+		StartedCommand startedCommand = inFlightCommands.remove(event.getRequestId());
+		long durationInMicros = event.getElapsedTime(MICROSECONDS);
+		if (startedCommand != null && slowQueryLog.isSlow(durationInMicros)) {
+			slowQueryLog.record(new MongoSlowQuery(LocalDateTime.now(), startedCommand.databaseName, startedCommand.key, durationInMicros, MongoQueryShape.copy(startedCommand.query)));
+		}
+	}
+
+	@Override
+	public void commandFailed(CommandFailedEvent event) {
+		inFlightCommands.remove(event.getRequestId());
+	}
+
+	private static class StartedCommand {
+		private final String databaseName;
+		private final MongoCommandKey key;
+		private final BsonDocument query;
+
+		private StartedCommand(String databaseName, MongoCommandKey key, BsonDocument query) {
+			this.databaseName = databaseName;
+			this.key = key;
+			this.query = query;
+		}
+	}
+}
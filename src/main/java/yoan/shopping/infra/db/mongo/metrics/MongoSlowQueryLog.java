@@ -0,0 +1,147 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.PERFORMANCE;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.bson.BsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Bounded log of the slowest Mongo queries, explained asynchronously
+ * @author yoan
+ */
+public class MongoSlowQueryLog {
+	/** Number of slow queries kept in memory, older ones are overwritten */
+	public static final int CAPACITY = 200;
+	/** Global explain rate, explains are extra load on the database */
+	public static final double EXPLAINS_PER_SECOND = 1;
+	/** A query shape is explained again only after this delay */
+	public static final long SAME_QUERY_EXPLAIN_DELAY_IN_MINUTES = 10;
+	private static final int EXPLAIN_QUEUE_SIZE = 16;
+	private static final int MAX_EXPLAINED_QUERIES = 1_000;
+
+	private final long thresholdInMicros;
+	private final MongoQueryExplainer explainer;
+	private final Executor explainExecutor;
+	private final RateLimiter explainRateLimiter;
+	private final Cache<String, Boolean> recentlyExplainedQueries;
+	private final AtomicReferenceArray<MongoSlowQuery> ring = new AtomicReferenceArray<>(CAPACITY);
+	private final AtomicLong nextRingIndex = new AtomicLong();
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MongoSlowQueryLog.class);
+
+	public MongoSlowQueryLog(long thresholdInMillis, MongoQueryExplainer explainer) {
+		this(thresholdInMillis, explainer, createExplainExecutor(), RateLimiter.create(EXPLAINS_PER_SECOND));
+	}
+
+	protected MongoSlowQueryLog(long thresholdInMillis, MongoQueryExplainer explainer, Executor explainExecutor, RateLimiter explainRateLimiter) {
+		checkArgument(thresholdInMillis >= 0, "Slow query threshold should be positive");
+		this.thresholdInMicros = TimeUnit.MILLISECONDS.toMicros(thresholdInMillis);
+		this.explainer = requireNonNull(explainer);
+		this.explainExecutor = requireNonNull(explainExecutor);
+		this.explainRateLimiter = requireNonNull(explainRateLimiter);
+		this.recentlyExplainedQueries = CacheBuilder.newBuilder()
+			.maximumSize(MAX_EXPLAINED_QUERIES)
+			.expireAfterWrite(SAME_QUERY_EXPLAIN_DELAY_IN_MINUTES, TimeUnit.MINUTES)
+			.build();
+	}
+
+	private static Executor createExplainExecutor() {
+		//single daemon thread, created on first slow query
+		return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE),
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("mongo-slow-query-explain").build());
+	}
+
+	/**
+	 * Check if a command duration crosses the slow query threshold
+	 * @param durationInMicros
+	 * @return true if the command is slow
+	 */
+	public boolean isSlow(long durationInMicros) {
+		return durationInMicros >= thresholdInMicros;
+	}
+
+	/**
+	 * Keep a slow query and schedule its explain
+	 * @param slowQuery
+	 */
+	public void record(MongoSlowQuery slowQuery) {
+		int index = (int) (nextRingIndex.getAndIncrement() % CAPACITY);
+		MongoSlowQuery overwritten = ring.getAndSet(index, slowQuery);
+		if (overwritten != null) {
+			overwritten.discardQueryToExplain();
+		}
+		LOGGER.warn(PERFORMANCE.getMarker(), "Slow Mongo query on {}.{} by {} : {} ms, query {}", slowQuery.getKey().getCollection(),
+			slowQuery.getKey().getCommandName(), slowQuery.getKey().getCaller(), TimeUnit.MICROSECONDS.toMillis(slowQuery.getDurationInMicros()), slowQuery.getRedactedQuery());
+		scheduleExplain(slowQuery);
+	}
+
+	private void scheduleExplain(MongoSlowQuery slowQuery) {
+		if (slowQuery.getQueryToExplain() == null) {
+			return;
+		}
+		String explainKey = slowQuery.getKey().getCollection() + slowQuery.getRedactedQuery();
+		if (recentlyExplainedQueries.asMap().putIfAbsent(explainKey, Boolean.TRUE) != null || !explainRateLimiter.tryAcquire()) {
+			slowQuery.discardQueryToExplain();
+			return;
+		}
+		try {
+			explainExecutor.execute(() -> explain(slowQuery));
+		} catch (RejectedExecutionException e) {
+			recentlyExplainedQueries.invalidate(explainKey);
+			slowQuery.discardQueryToExplain();
+		}
+	}
+
+	private void explain(MongoSlowQuery slowQuery) {
+		try {
+			BsonDocument winningPlan = explainer.explain(slowQuery);
+			if (winningPlan == null) {
+				slowQuery.discardQueryToExplain();
+				return;
+			}
+			slowQuery.setWinningPlan(winningPlan);
+			if (Boolean.TRUE.equals(slowQuery.isCollectionScan())) {
+				LOGGER.warn(PERFORMANCE.getMarker(), "Slow Mongo query on {} by {} is a collection scan, query {}", slowQuery.getKey().getCollection(),
+					slowQuery.getKey().getCaller(), slowQuery.getRedactedQuery());
+			}
+		} catch (RuntimeException e) {
+			slowQuery.discardQueryToExplain();
+			LOGGER.warn(PERFORMANCE.getMarker(), "Unable to explain slow Mongo query : " + slowQuery, e);
+		}
+	}
+
+	/**
+	 * @return kept slow queries, the most recent first
+	 */
+	public ImmutableList<MongoSlowQuery> getSlowQueries() {
+		List<MongoSlowQuery> slowQueries = new ArrayList<>(CAPACITY);
+		for (int index = 0; index < CAPACITY; index++) {
+			MongoSlowQuery slowQuery = ring.get(index);
+			if (slowQuery != null) {
+				slowQueries.add(slowQuery);
+			}
+		}
+		slowQueries.sort(Comparator.comparing(MongoSlowQuery::getDate).reversed());
+		return ImmutableList.copyOf(slowQueries);
+	}
+}
@@ -0,0 +1,296 @@
+package yoan.shopping.infra.db.mongo.resilience;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.PERFORMANCE;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoTimeoutException;
+
+/**
+ * Circuit breaker shared by all the Mongo operations
+ * Opens when the error or slow call rate of the rolling window is too high, then lets a few probes through once the open delay is over
+ * Lock free while closed : the window is counted with adders, only the state transitions and the probes are synchronized.
+ * A call recorded while its bucket is reset for a new second may be lost, the rates are estimates.
+ * @author yoan
+ */
+public class MongoCircuitBreaker {
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MongoCircuitBreaker.class);
+
+	private final MongoCircuitBreakerSettings settings;
+	private final LongSupplier nanoClock;
+	/** One bucket by second of the rolling window */
+	private final Bucket[] buckets;
+
+	private volatile State state = State.CLOSED;
+	private volatile long openedAtNanos;
+	private int halfOpenPermits;
+	private int halfOpenSuccesses;
+
+	private final LongAdder rejectedCount = new LongAdder();
+	private final LongAdder openingCount = new LongAdder();
+
+	public MongoCircuitBreaker(MongoCircuitBreakerSettings settings) {
+		this(settings, System::nanoTime);
+	}
+
+	protected MongoCircuitBreaker(MongoCircuitBreakerSettings settings, LongSupplier nanoClock) {
+		this.settings = requireNonNull(settings);
+		this.nanoClock = requireNonNull(nanoClock);
+		buckets = new Bucket[settings.getWindowInSeconds()];
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new Bucket();
+		}
+	}
+
+	/**
+	 * Check if an operation can reach the database
+	 * Lock free while the circuit is closed
+	 * @return true if the operation can go on
+	 */
+	public boolean tryAcquirePermission() {
+		if (state == State.CLOSED) {
+			return true;
+		}
+		boolean permitted = tryAcquireSlowPath();
+		if (!permitted) {
+			rejectedCount.increment();
+		}
+		return permitted;
+	}
+
+	private synchronized boolean tryAcquireSlowPath() {
+		long now = nanoClock.getAsLong();
+		switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (now - openedAtNanos < settings.getOpenDurationInNanos()) {
+					return false;
+				}
+				transitionTo(State.HALF_OPEN, now);
+				halfOpenPermits = 1;
+				return true;
+			case HALF_OPEN:
+			default:
+				if (halfOpenPermits >= settings.getHalfOpenProbes()) {
+					return false;
+				}
+				halfOpenPermits++;
+				return true;
+		}
+	}
+
+	/**
+	 * Record a successful operation
+	 * @param durationInNanos
+	 */
+	public void recordSuccess(long durationInNanos) {
+		record(false, durationInNanos >= settings.getSlowCallThresholdInNanos());
+	}
+
+	/**
+	 * Record a failed operation, only backend failures are counted against the database
+	 * @param error
+	 * @param durationInNanos
+	 */
+	public void recordFailure(MongoException error, long durationInNanos) {
+		if (isBackendFailure(error)) {
+			record(true, durationInNanos >= settings.getSlowCallThresholdInNanos());
+		} else {
+			recordSuccess(durationInNanos);
+		}
+	}
+
+	/**
+	 * Check if an error shows a database in trouble, as opposed to a rejected request like a duplicate key
+	 * @param error
+	 * @return true if the error should count in the error rate
+	 */
+	public static boolean isBackendFailure(MongoException error) {
+		return MongoRetryPolicy.DEFAULT.isTransient(error)
+			|| error instanceof MongoTimeoutException
+			|| error instanceof MongoExecutionTimeoutException;
+	}
+
+	private void record(boolean failure, boolean slow) {
+		long now = nanoClock.getAsLong();
+		switch (state) {
+			case CLOSED:
+				long second = TimeUnit.NANOSECONDS.toSeconds(now);
+				buckets[(int) Math.floorMod(second, (long) buckets.length)].add(second, failure, slow);
+				//only a failed or slow call can make the window unhealthy
+				if ((failure || slow) && isWindowUnhealthy(now)) {
+					openIfClosed(now);
+				}
+				break;
+			case HALF_OPEN:
+				recordProbe(failure || slow, now);
+				break;
+			case OPEN:
+			default:
+				//operation started before the opening, its outcome is already accounted
+				break;
+		}
+	}
+
+	private synchronized void openIfClosed(long now) {
+		if (state == State.CLOSED) {
+			transitionTo(State.OPEN, now);
+		}
+	}
+
+	private synchronized void recordProbe(boolean failed, long now) {
+		if (state != State.HALF_OPEN) {
+			return;
+		}
+		if (failed) {
+			transitionTo(State.OPEN, now);
+		} else if (++halfOpenSuccesses >= settings.getHalfOpenProbes()) {
+			transitionTo(State.CLOSED, now);
+		}
+	}
+
+	private boolean isWindowUnhealthy(long now) {
+		WindowSnapshot window = getWindow(now);
+		if (window.calls < settings.getMinimumCalls()) {
+			return false;
+		}
+		return window.getFailureRate() >= settings.getFailureRateThreshold()
+			|| window.getSlowCallRate() >= settings.getSlowCallRateThreshold();
+	}
+
+	private WindowSnapshot getWindow(long now) {
+		long currentSecond = TimeUnit.NANOSECONDS.toSeconds(now);
+		WindowSnapshot window = new WindowSnapshot();
+		for (Bucket bucket : buckets) {
+			if (currentSecond - bucket.second.get() < buckets.length) {
+				window.calls += bucket.calls.sum();
+				window.failures += bucket.failures.sum();
+				window.slowCalls += bucket.slowCalls.sum();
+			}
+		}
+		return window;
+	}
+
+	private void transitionTo(State newState, long now) {
+		LOGGER.warn(PERFORMANCE.getMarker(), "Mongo circuit breaker {} -> {}", state, newState);
+		state = newState;
+		if (newState == State.OPEN) {
+			openedAtNanos = now;
+			openingCount.increment();
+		}
+		halfOpenPermits = 0;
+		halfOpenSuccesses = 0;
+		if (newState == State.CLOSED) {
+			for (Bucket bucket : buckets) {
+				bucket.reset(-1);
+			}
+		}
+	}
+
+	/**
+	 * Get the delay a rejected client should wait before trying again
+	 * @return delay in seconds, at least one
+	 */
+	public long getRetryAfterInSeconds() {
+		if (state != State.OPEN) {
+			return 1;
+		}
+		long remainingNanos = settings.getOpenDurationInNanos() - (nanoClock.getAsLong() - openedAtNanos);
+		long remainingSeconds = (remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+		return Math.max(1, remainingSeconds);
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public WindowSnapshot getWindowSnapshot() {
+		return getWindow(nanoClock.getAsLong());
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	public long getOpeningCount() {
+		return openingCount.sum();
+	}
+
+	public MongoCircuitBreakerSettings getSettings() {
+		return settings;
+	}
+
+	private static class Bucket {
+		private final AtomicLong second = new AtomicLong(-1);
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder slowCalls = new LongAdder();
+
+		private void reset(long newSecond) {
+			second.set(newSecond);
+			calls.reset();
+			failures.reset();
+			slowCalls.reset();
+		}
+
+		/**
+		 * Count a call, the first call of a new second resets the bucket
+		 */
+		private void add(long currentSecond, boolean failure, boolean slow) {
+			long bucketSecond = second.get();
+			if (bucketSecond < currentSecond && second.compareAndSet(bucketSecond, currentSecond)) {
+				calls.reset();
+				failures.reset();
+				slowCalls.reset();
+			}
+			calls.increment();
+			if (failure) {
+				failures.increment();
+			}
+			if (slow) {
+				slowCalls.increment();
+			}
+		}
+	}
+
+	/**
+	 * Call counts of the rolling window
+	 */
+	public static class WindowSnapshot {
+		private long calls;
+		private long failures;
+		private long slowCalls;
+
+		public long getCalls() {
+			return calls;
+		}
+
+		public long getFailures() {
+			return failures;
+		}
+
+		public long getSlowCalls() {
+			return slowCalls;
+		}
+
+		public double getFailureRate() {
+			return calls == 0 ? 0 : (double) failures / calls;
+		}
+
+		public double getSlowCallRate() {
+			return calls == 0 ? 0 : (double) slowCalls / calls;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package yoan.shopping.infra.db.mongo.resilience;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Thresholds of the Mongo circuit breaker
+ * @author yoan
+ */
+public class MongoCircuitBreakerSettings {
+	public static final MongoCircuitBreakerSettings DEFAULT = new MongoCircuitBreakerSettings(10, 20, 0.5, 2_000, 0.8, 10, 3);
+
+	/** Length of the rolling window */
+	private final int windowInSeconds;
+	/** Number of calls in the window before the rates are considered */
+	private final int minimumCalls;
+	/** Backend failure rate opening the circuit */
+	private final double failureRateThreshold;
+	/** Duration above which a call is slow */
+	private final long slowCallThresholdInNanos;
+	/** Slow call rate opening the circuit */
+	private final double slowCallRateThreshold;
+	/** Time spent rejecting calls before probing the database again */
+	private final long openDurationInNanos;
+	/** Number of successful probes needed to close the circuit */
+	private final int halfOpenProbes;
+
+	public MongoCircuitBreakerSettings(int windowInSeconds, int minimumCalls, double failureRateThreshold, long slowCallThresholdInMillis,
+			double slowCallRateThreshold, long openDurationInSeconds, int halfOpenProbes) {
+		checkArgument(windowInSeconds >= 1, "Invalid window length");
+		checkArgument(minimumCalls >= 1, "Invalid minimum number of calls");
+		checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 1, "Invalid failure rate threshold");
+		checkArgument(slowCallThresholdInMillis > 0, "Invalid slow call threshold");
+		checkArgument(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1, "Invalid slow call rate threshold");
+		checkArgument(openDurationInSeconds >= 1, "Invalid open duration");
+		checkArgument(halfOpenProbes >= 1, "Invalid number of probes");
+		this.windowInSeconds = windowInSeconds;
+		this.minimumCalls = minimumCalls;
+		this.failureRateThreshold = failureRateThreshold;
+		this.slowCallThresholdInNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdInMillis);
+		this.slowCallRateThreshold = slowCallRateThreshold;
+		this.openDurationInNanos = TimeUnit.SECONDS.toNanos(openDurationInSeconds);
+		this.halfOpenProbes = halfOpenProbes;
+	}
+
+	public int getWindowInSeconds() {
+		return windowInSeconds;
+	}
+
+	public int getMinimumCalls() {
+		return minimumCalls;
+	}
+
+	public double getFailureRateThreshold() {
+		return failureRateThreshold;
+	}
+
+	public long getSlowCallThresholdInNanos() {
+		return slowCallThresholdInNanos;
+	}
+
+	public double getSlowCallRateThreshold() {
+		return slowCallRateThreshold;
+	}
+
+	public long getOpenDurationInNanos() {
+		return openDurationInNanos;
+	}
+
+	public int getHalfOpenProbes() {
+		return halfOpenProbes;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("windowInSeconds", windowInSeconds)
+											   .add("minimumCalls", minimumCalls)
+											   .add("failureRateThreshold", failureRateThreshold)
+											   .add("slowCallThresholdInNanos", slowCallThresholdInNanos)
+											   .add("slowCallRateThreshold", slowCallRateThreshold)
+											   .add("openDurationInNanos", openDurationInNanos)
+											   .add("halfOpenProbes", halfOpenProbes)
+											   .toString();
+	}
+}
@@ -0,0 +1,71 @@
+package yoan.shopping.infra.db.mongo.resilience;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableSortedSet;
+
+/**
+ * Retry counters of the Mongo operations, by calling repository method
+ * @author yoan
+ */
+public class MongoRetryMetrics {
+	private final ConcurrentMap<String, Counters> countersByCaller = new ConcurrentHashMap<>();
+
+	/**
+	 * Count a retry of an operation after a transient error
+	 * @param caller
+	 */
+	public void recordRetry(String caller) {
+		getCounters(caller).retries.increment();
+	}
+
+	/**
+	 * Count an operation that succeeded after at least one retry
+	 * @param caller
+	 */
+	public void recordRecovery(String caller) {
+		getCounters(caller).recoveries.increment();
+	}
+
+	/**
+	 * Count an operation that still failed after its last attempt
+	 * @param caller
+	 */
+	public void recordExhaustion(String caller) {
+		getCounters(caller).exhaustions.increment();
+	}
+
+	private Counters getCounters(String caller) {
+		return countersByCaller.computeIfAbsent(caller, key -> new Counters());
+	}
+
+	public long getRetryCount(String caller) {
+		Counters counters = countersByCaller.get(caller);
+		return counters == null ? 0 : counters.retries.sum();
+	}
+
+	public long getRecoveryCount(String caller) {
+		Counters counters = countersByCaller.get(caller);
+		return counters == null ? 0 : counters.recoveries.sum();
+	}
+
+	public long getExhaustionCount(String caller) {
+		Counters counters = countersByCaller.get(caller);
+		return counters == null ? 0 : counters.exhaustions.sum();
+	}
+
+	/**
+	 * @return callers with at least one retried operation, ordered by name
+	 */
+	public ImmutableSortedSet<String> getCallers() {
+		return ImmutableSortedSet.copyOf(countersByCaller.keySet());
+	}
+
+	private static class Counters {
+		private final LongAdder retries = new LongAdder();
+		private final LongAdder recoveries = new LongAdder();
+		private final LongAdder exhaustions = new LongAdder();
+	}
+}
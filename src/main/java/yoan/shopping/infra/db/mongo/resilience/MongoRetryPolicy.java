@@ -0,0 +1,85 @@
+package yoan.shopping.infra.db.mongo.resilience;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.mongodb.MongoException;
+import com.mongodb.MongoNodeIsRecoveringException;
+import com.mongodb.MongoNotPrimaryException;
+import com.mongodb.MongoServerException;
+import com.mongodb.MongoSocketException;
+
+/**
+ * Retry policy of the idempotent Mongo operations : transient errors only, jittered exponential backoff
+ * @author yoan
+ */
+public class MongoRetryPolicy {
+	public static final MongoRetryPolicy DEFAULT = new MongoRetryPolicy(3, 50, 1_000);
+	public static final MongoRetryPolicy NO_RETRY = new MongoRetryPolicy(1, 0, 0);
+
+	/** Server error codes raised during a replica set election or a node shutdown */
+	private static final ImmutableSet<Integer> TRANSIENT_ERROR_CODES = ImmutableSet.of(
+		6,		//HostUnreachable
+		7,		//HostNotFound
+		89,		//NetworkTimeout
+		91,		//ShutdownInProgress
+		189,	//PrimarySteppedDown
+		9001,	//SocketException
+		10107,	//NotMaster
+		11600,	//InterruptedAtShutdown
+		11602,	//InterruptedDueToReplStateChange
+		13435,	//NotMasterNoSlaveOk
+		13436	//NotMasterOrSecondary
+	);
+
+	private final int maxAttempts;
+	private final long baseDelayInMillis;
+	private final long maxDelayInMillis;
+
+	public MongoRetryPolicy(int maxAttempts, long baseDelayInMillis, long maxDelayInMillis) {
+		checkArgument(maxAttempts >= 1, "At least one attempt is needed");
+		checkArgument(baseDelayInMillis >= 0 && maxDelayInMillis >= baseDelayInMillis, "Invalid retry delays");
+		this.maxAttempts = maxAttempts;
+		this.baseDelayInMillis = baseDelayInMillis;
+		this.maxDelayInMillis = maxDelayInMillis;
+	}
+
+	/**
+	 * Check if an error is worth a retry : network failure or primary change
+	 * Timeouts are not retried, they already consumed their time budget
+	 * @param error
+	 * @return true if the error is transient
+	 */
+	public boolean isTransient(MongoException error) {
+		if (error instanceof MongoSocketException || error instanceof MongoNotPrimaryException || error instanceof MongoNodeIsRecoveringException) {
+			return true;
+		}
+		return error instanceof MongoServerException && TRANSIENT_ERROR_CODES.contains(error.getCode());
+	}
+
+	/**
+	 * Get the delay before the next attempt, with full jitter to spread the retries of concurrent requests
+	 * @param failedAttempt : number of the attempt that just failed, starting at 1
+	 * @return delay in milliseconds
+	 */
+	public long getBackoffDelayInMillis(int failedAttempt) {
+		long exponentialDelay = baseDelayInMillis << Math.min(failedAttempt - 1, 20);
+		long cappedDelay = Math.min(maxDelayInMillis, exponentialDelay);
+		return cappedDelay == 0 ? 0 : ThreadLocalRandom.current().nextLong(cappedDelay + 1);
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("maxAttempts", maxAttempts)
+											   .add("baseDelayInMillis", baseDelayInMillis)
+											   .add("maxDelayInMillis", maxDelayInMillis)
+											   .toString();
+	}
+}
@@ -18,6 +18,8 @@ public enum Markers {
 	AUTHENTICATION("Auth"),
 	/** Configuration trace */
 	CONFIG("Config"),
+	/** Performance and metrics trace */
+	PERFORMANCE("Perf"),
 	/** Security related trace */
 	SECURITY("Security");
 	
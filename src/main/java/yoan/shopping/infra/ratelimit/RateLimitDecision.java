@@ -0,0 +1,99 @@
+package yoan.shopping.infra.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Outcome of a request against a token bucket, with what the RateLimit-* headers tell the client
+ * @author yoan
+ */
+public class RateLimitDecision {
+	/** Decision for the requests without limit or untracked */
+	public static final RateLimitDecision UNLIMITED = new RateLimitDecision(true, 0, 0, 0, 0);
+
+	private final boolean allowed;
+	private final int limit;
+	private final int remaining;
+	private final long retryAfterInNanos;
+	private final long resetInNanos;
+
+	private RateLimitDecision(boolean allowed, int limit, int remaining, long retryAfterInNanos, long resetInNanos) {
+		this.allowed = allowed;
+		this.limit = limit;
+		this.remaining = remaining;
+		this.retryAfterInNanos = retryAfterInNanos;
+		this.resetInNanos = resetInNanos;
+	}
+
+	public static RateLimitDecision allowed(int limit, int remaining, long resetInNanos) {
+		return new RateLimitDecision(true, limit, remaining, 0, resetInNanos);
+	}
+
+	public static RateLimitDecision throttled(int limit, long retryAfterInNanos, long resetInNanos) {
+		return new RateLimitDecision(false, limit, 0, retryAfterInNanos, resetInNanos);
+	}
+
+	/**
+	 * Keep the decision telling the client to slow down the most
+	 * @param other
+	 * @return most restrictive decision
+	 */
+	public RateLimitDecision mostRestrictive(RateLimitDecision other) {
+		if (allowed != other.allowed) {
+			return allowed ? other : this;
+		}
+		if (!allowed) {
+			return retryAfterInNanos >= other.retryAfterInNanos ? this : other;
+		}
+		if (isUnlimited() || other.isUnlimited()) {
+			return isUnlimited() ? other : this;
+		}
+		return remaining <= other.remaining ? this : other;
+	}
+
+	public boolean isAllowed() {
+		return allowed;
+	}
+
+	public boolean isUnlimited() {
+		return limit == 0;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public int getRemaining() {
+		return remaining;
+	}
+
+	/**
+	 * @return seconds to wait for a token, rounded up
+	 */
+	public long getRetryAfterInSeconds() {
+		return toSecondsRoundedUp(retryAfterInNanos);
+	}
+
+	/**
+	 * @return seconds until the bucket is full again, rounded up
+	 */
+	public long getResetInSeconds() {
+		return toSecondsRoundedUp(resetInNanos);
+	}
+
+	private static long toSecondsRoundedUp(long nanos) {
+		long oneSecond = TimeUnit.SECONDS.toNanos(1);
+		return (nanos + oneSecond - 1) / oneSecond;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("allowed", allowed)
+											   .add("limit", limit)
+											   .add("remaining", remaining)
+											   .add("retryAfterInNanos", retryAfterInNanos)
+											   .add("resetInNanos", resetInNanos)
+											   .toString();
+	}
+}
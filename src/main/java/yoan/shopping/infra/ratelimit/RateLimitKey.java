@@ -0,0 +1,72 @@
+package yoan.shopping.infra.ratelimit;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Who a token bucket limits, on which route group
+ * @author yoan
+ */
+public class RateLimitKey {
+	/** What the limited value identifies */
+	public enum Dimension {
+		/** Client app authenticated by its secret on the token endpoint */
+		CLIENT,
+		USER,
+		IP;
+	}
+
+	private final String route;
+	private final Dimension dimension;
+	private final String value;
+	private final int hash;
+
+	public RateLimitKey(String route, Dimension dimension, String value) {
+		this.route = requireNonNull(route);
+		this.dimension = requireNonNull(dimension);
+		this.value = requireNonNull(value);
+		this.hash = Objects.hash(route, dimension, value);
+	}
+
+	public String getRoute() {
+		return route;
+	}
+
+	public Dimension getDimension() {
+		return dimension;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		RateLimitKey that = (RateLimitKey) obj;
+		return Objects.equals(this.route, that.route)
+				&& Objects.equals(this.dimension, that.dimension)
+				&& Objects.equals(this.value, that.value);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("route", route)
+											   .add("dimension", dimension)
+											   .add("value", value)
+											   .toString();
+	}
+}
@@ -0,0 +1,287 @@
+package yoan.shopping.infra.ratelimit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.SECURITY;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.ratelimit.RateLimitKey.Dimension;
+
+/**
+ * Token buckets of the source IPs, users and client apps, by route group
+ * The buckets are spread over stripes of concurrent maps, a request never takes a lock.
+ * A bucket full again is forgotten by the periodic sweep, a key comes back with a full bucket so nothing is lost.
+ * When a stripe is still full after a sweep, new keys are let through untracked rather than rejected,
+ * a flood of new IPs must not lock out the known clients.
+ * @author yoan
+ */
+@Singleton
+public class RateLimiter {
+	public static final String DEFAULT_ROUTE = "default";
+	/** Power of two, the stripe is picked with a mask */
+	public static final int STRIPE_COUNT = 16;
+	public static final long SWEEP_PERIOD_IN_SECONDS = 30;
+	/** A full stripe is swept on the request path at most once per interval */
+	public static final long MIN_STRIPE_SWEEP_INTERVAL_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RateLimiter.class);
+
+	private final int defaultRequestsPerMinute;
+	/** Configured routes, longest prefix first */
+	private final List<Map.Entry<String, Integer>> limitsByRoute;
+	private final List<ConcurrentMap<RateLimitKey, TokenBucket>> stripes;
+	private final int maxKeysByStripe;
+	private final AtomicLongArray lastStripeSweepInNanos;
+	private final Ticker ticker;
+
+	private final ConcurrentMap<String, Counters> countersByRoute = new ConcurrentHashMap<>();
+	private final LongAdder untrackedCount = new LongAdder();
+	private final LongAdder evictedCount = new LongAdder();
+
+	@Inject
+	public RateLimiter(Config config) {
+		this(config.getRateLimitRequestsPerMinute(), config.getRateLimitRequestsPerMinuteByRoute(), config.getRateLimitMaxKeys(), Ticker.systemTicker());
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("rate-limit-sweep").build());
+		scheduler.scheduleWithFixedDelay(this::sweep, SWEEP_PERIOD_IN_SECONDS, SWEEP_PERIOD_IN_SECONDS, TimeUnit.SECONDS);
+	}
+
+	protected RateLimiter(int defaultRequestsPerMinute, Map<String, Integer> requestsPerMinuteByRoute, int maxKeys, Ticker ticker) {
+		checkArgument(defaultRequestsPerMinute >= 0, "Invalid rate limit");
+		checkArgument(maxKeys > 0, "Invalid rate limit max keys");
+		this.defaultRequestsPerMinute = defaultRequestsPerMinute;
+		this.limitsByRoute = requestsPerMinuteByRoute.entrySet().stream()
+			.sorted(Comparator.comparing((Map.Entry<String, Integer> entry) -> entry.getKey().length()).reversed())
+			.collect(Collectors.toList());
+		this.maxKeysByStripe = Math.max(1, maxKeys / STRIPE_COUNT);
+		this.stripes = new ArrayList<>(STRIPE_COUNT);
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			stripes.add(new ConcurrentHashMap<>());
+		}
+		this.ticker = requireNonNull(ticker);
+		this.lastStripeSweepInNanos = new AtomicLongArray(STRIPE_COUNT);
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			lastStripeSweepInNanos.set(i, ticker.read() - MIN_STRIPE_SWEEP_INTERVAL_IN_NANOS);
+		}
+	}
+
+	/**
+	 * @param path : request path without the context path
+	 * @return longest configured route prefix of the path, or default
+	 */
+	public String getRoute(String path) {
+		for (Map.Entry<String, Integer> routeLimit : limitsByRoute) {
+			if (path.startsWith(routeLimit.getKey())) {
+				return routeLimit.getKey();
+			}
+		}
+		return DEFAULT_ROUTE;
+	}
+
+	/**
+	 * @param route
+	 * @return requests per minute allowed on the route, 0 for no limit
+	 */
+	public int getRequestsPerMinute(String route) {
+		for (Map.Entry<String, Integer> routeLimit : limitsByRoute) {
+			if (routeLimit.getKey().equals(route)) {
+				return routeLimit.getValue();
+			}
+		}
+		return defaultRequestsPerMinute;
+	}
+
+	/**
+	 * Take a token from the bucket of a client app, user or source IP
+	 * @param route : route group, from getRoute
+	 * @param dimension
+	 * @param value : client Id, user Id or IP
+	 * @return decision
+	 */
+	public RateLimitDecision tryAcquire(String route, Dimension dimension, String value) {
+		int requestsPerMinute = getRequestsPerMinute(route);
+		if (requestsPerMinute == 0) {
+			return RateLimitDecision.UNLIMITED;
+		}
+		RateLimitKey key = new RateLimitKey(route, dimension, value);
+		int stripeIndex = getStripeIndex(key);
+		ConcurrentMap<RateLimitKey, TokenBucket> stripe = stripes.get(stripeIndex);
+		while (true) {
+			long now = ticker.read();
+			TokenBucket bucket = stripe.get(key);
+			if (bucket == null) {
+				if (isFull(stripeIndex, now)) {
+					untrackedCount.increment();
+					return RateLimitDecision.UNLIMITED;
+				}
+				bucket = stripe.computeIfAbsent(key, newKey -> new TokenBucket(requestsPerMinute, now));
+			}
+			RateLimitDecision decision = bucket.tryAcquire(now);
+			if (decision != null) {
+				return decision;
+			}
+			//evicted since it was read, the sweep removes it from the stripe
+			stripe.remove(key, bucket);
+		}
+	}
+
+	/**
+	 * Give back the token taken by a request finally rejected on another dimension
+	 * @param route : route group, from getRoute
+	 * @param dimension
+	 * @param value : client Id, user Id or IP
+	 */
+	public void release(String route, Dimension dimension, String value) {
+		RateLimitKey key = new RateLimitKey(route, dimension, value);
+		TokenBucket bucket = stripes.get(getStripeIndex(key)).get(key);
+		if (bucket != null) {
+			bucket.release(ticker.read());
+		}
+	}
+
+	private static int getStripeIndex(RateLimitKey key) {
+		int hash = key.hashCode();
+		return (hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1);
+	}
+
+	private boolean isFull(int stripeIndex, long now) {
+		if (stripes.get(stripeIndex).size() < maxKeysByStripe) {
+			return false;
+		}
+		long lastSweep = lastStripeSweepInNanos.get(stripeIndex);
+		if (now - lastSweep >= MIN_STRIPE_SWEEP_INTERVAL_IN_NANOS && lastStripeSweepInNanos.compareAndSet(stripeIndex, lastSweep, now)) {
+			sweepStripe(stripeIndex, now);
+		}
+		return stripes.get(stripeIndex).size() >= maxKeysByStripe;
+	}
+
+	/**
+	 * Count a request decision on its route group
+	 * @param route
+	 * @param decision
+	 */
+	public void record(String route, RateLimitDecision decision) {
+		Counters counters = countersByRoute.computeIfAbsent(route, key -> new Counters());
+		if (decision.isAllowed()) {
+			counters.allowed.increment();
+		} else {
+			counters.throttled.increment();
+		}
+	}
+
+	/**
+	 * Forget the buckets full again
+	 * @return number of forgotten buckets
+	 */
+	public int sweep() {
+		try {
+			long now = ticker.read();
+			int swept = 0;
+			for (int stripeIndex = 0; stripeIndex < STRIPE_COUNT; stripeIndex++) {
+				swept += sweepStripe(stripeIndex, now);
+			}
+			return swept;
+		} catch (RuntimeException e) {
+			//never let an exception kill the scheduled sweep
+			LOGGER.warn(SECURITY.getMarker(), "Unable to sweep the rate limit buckets", e);
+			return 0;
+		}
+	}
+
+	private int sweepStripe(int stripeIndex, long now) {
+		int[] swept = new int[1];
+		stripes.get(stripeIndex).values().removeIf(bucket -> {
+			if (!bucket.evictIfIdle(now)) {
+				return false;
+			}
+			swept[0]++;
+			return true;
+		});
+		evictedCount.add(swept[0]);
+		return swept[0];
+	}
+
+	/**
+	 * @param max
+	 * @return tracked keys which were throttled, most throttled first
+	 */
+	public ImmutableMap<RateLimitKey, Long> getMostThrottledKeys(int max) {
+		List<Map.Entry<RateLimitKey, Long>> throttledKeys = new ArrayList<>();
+		for (ConcurrentMap<RateLimitKey, TokenBucket> stripe : stripes) {
+			stripe.forEach((key, bucket) -> {
+				long throttled = bucket.getThrottledCount();
+				if (throttled > 0) {
+					throttledKeys.add(new SimpleImmutableEntry<>(key, throttled));
+				}
+			});
+		}
+		ImmutableMap.Builder<RateLimitKey, Long> mostThrottledKeys = ImmutableMap.builder();
+		throttledKeys.stream()
+			.sorted(Comparator.comparing((Map.Entry<RateLimitKey, Long> entry) -> entry.getValue()).reversed())
+			.limit(max)
+			.forEach(mostThrottledKeys::put);
+		return mostThrottledKeys.build();
+	}
+
+	/**
+	 * @return route groups with at least one limited request, ordered by name
+	 */
+	public ImmutableSortedSet<String> getRoutes() {
+		return ImmutableSortedSet.copyOf(countersByRoute.keySet());
+	}
+
+	public long getAllowedCount(String route) {
+		Counters counters = countersByRoute.get(route);
+		return counters == null ? 0 : counters.allowed.sum();
+	}
+
+	public long getThrottledCount(String route) {
+		Counters counters = countersByRoute.get(route);
+		return counters == null ? 0 : counters.throttled.sum();
+	}
+
+	public int getSize() {
+		return stripes.stream().mapToInt(Map::size).sum();
+	}
+
+	public int getMaxKeys() {
+		return maxKeysByStripe * STRIPE_COUNT;
+	}
+
+	public long getUntrackedCount() {
+		return untrackedCount.sum();
+	}
+
+	public long getEvictedCount() {
+		return evictedCount.sum();
+	}
+
+	private static class Counters {
+		private final LongAdder allowed = new LongAdder();
+		private final LongAdder throttled = new LongAdder();
+	}
+}
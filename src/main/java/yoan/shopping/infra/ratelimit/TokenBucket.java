@@ -0,0 +1,93 @@
+package yoan.shopping.infra.ratelimit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free token bucket, refilled continuously at the limit rate up to a full minute of requests
+ * The whole state is the instant the bucket will be full again, updated by compare and set.
+ * @author yoan
+ */
+public class TokenBucket {
+	/** Marks a bucket removed from its table, a request finding it should get a new one */
+	private static final long EVICTED = Long.MIN_VALUE;
+
+	private final int capacity;
+	/** Time to get back one token */
+	private final long refillIntervalInNanos;
+	/** Time to refill an empty bucket */
+	private final long fullRefillInNanos;
+	/** Instant when the bucket is full again, in System.nanoTime() scale */
+	private final AtomicLong fullAtInNanos;
+	private final LongAdder throttledCount = new LongAdder();
+
+	public TokenBucket(int requestsPerMinute, long nowInNanos) {
+		checkArgument(requestsPerMinute > 0, "Invalid requests per minute");
+		this.capacity = requestsPerMinute;
+		this.refillIntervalInNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+		this.fullRefillInNanos = refillIntervalInNanos * requestsPerMinute;
+		this.fullAtInNanos = new AtomicLong(nowInNanos);
+	}
+
+	/**
+	 * Take a token if there is one left
+	 * @param nowInNanos
+	 * @return decision, null if the bucket was evicted meanwhile
+	 */
+	public RateLimitDecision tryAcquire(long nowInNanos) {
+		while (true) {
+			long fullAt = fullAtInNanos.get();
+			if (fullAt == EVICTED) {
+				return null;
+			}
+			long newFullAt = Math.max(fullAt, nowInNanos) + refillIntervalInNanos;
+			long newRefillTime = newFullAt - nowInNanos;
+			if (newRefillTime > fullRefillInNanos) {
+				throttledCount.increment();
+				return RateLimitDecision.throttled(capacity, newRefillTime - fullRefillInNanos, newRefillTime - refillIntervalInNanos);
+			}
+			if (fullAtInNanos.compareAndSet(fullAt, newFullAt)) {
+				int remaining = (int) ((fullRefillInNanos - newRefillTime) / refillIntervalInNanos);
+				return RateLimitDecision.allowed(capacity, remaining, newRefillTime);
+			}
+		}
+	}
+
+	/**
+	 * Give back a token taken by a request rejected afterwards
+	 * @param nowInNanos
+	 */
+	public void release(long nowInNanos) {
+		while (true) {
+			long fullAt = fullAtInNanos.get();
+			if (fullAt == EVICTED || fullAt - nowInNanos <= 0) {
+				return;
+			}
+			long newFullAt = Math.max(nowInNanos, fullAt - refillIntervalInNanos);
+			if (fullAtInNanos.compareAndSet(fullAt, newFullAt)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Mark the bucket evicted if it is full, forgetting it then loses nothing
+	 * @param nowInNanos
+	 * @return true if the bucket is evicted
+	 */
+	public boolean evictIfIdle(long nowInNanos) {
+		long fullAt = fullAtInNanos.get();
+		return fullAt != EVICTED && fullAt - nowInNanos <= 0 && fullAtInNanos.compareAndSet(fullAt, EVICTED);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getThrottledCount() {
+		return throttledCount.sum();
+	}
+}
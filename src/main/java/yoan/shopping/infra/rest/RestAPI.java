@@ -20,6 +20,7 @@ import io.swagger.annotations.ResponseHeader;
  * @author yoan
  */
 public abstract class RestAPI {
+	/** Proxy to the UriInfo of the current request, so that a singleton resource can use it */
 	@Context
 	private UriInfo uriInfo;
 	
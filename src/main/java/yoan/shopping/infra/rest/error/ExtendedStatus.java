@@ -0,0 +1,41 @@
+package yoan.shopping.infra.rest.error;
+
+import javax.ws.rs.core.Response.Status.Family;
+import javax.ws.rs.core.Response.StatusType;
+
+/**
+ * HTTP status missing from the JAX-RS 2.0 Status enum
+ * @author yoan
+ */
+public enum ExtendedStatus implements StatusType {
+	/** 429 Too Many Requests, see RFC 6585 */
+	TOO_MANY_REQUESTS(429, "Too Many Requests");
+
+	private final int code;
+	private final String reason;
+
+	private ExtendedStatus(int code, String reason) {
+		this.code = code;
+		this.reason = reason;
+	}
+
+	@Override
+	public int getStatusCode() {
+		return code;
+	}
+
+	@Override
+	public Family getFamily() {
+		return Family.familyOf(code);
+	}
+
+	@Override
+	public String getReasonPhrase() {
+		return reason;
+	}
+
+	@Override
+	public String toString() {
+		return reason;
+	}
+}
@@ -5,10 +5,15 @@ package yoan.shopping.infra.rest.error;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static javax.ws.rs.core.Response.Status.GATEWAY_TIMEOUT;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
 import static yoan.shopping.infra.util.error.CommonErrorCode.APPLICATION_ERROR;
+import static yoan.shopping.infra.util.error.CommonErrorCode.DEADLINE_EXCEEDED;
+import static yoan.shopping.infra.util.error.CommonErrorCode.TOO_MANY_REQUESTS;
 
 import java.util.Map;
 
@@ -18,6 +23,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.Response.StatusType;
 import javax.ws.rs.ext.ExceptionMapper;
 import javax.ws.rs.ext.Provider;
 
@@ -25,9 +31,11 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import yoan.shopping.infra.util.deadline.DeadlineExceededException;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.infra.util.error.ErrorCode;
 import yoan.shopping.infra.util.error.RepositoryErrorCode;
+import yoan.shopping.infra.util.error.RetryLaterException;
 
 import com.google.common.collect.ImmutableMap;
 
@@ -39,11 +47,17 @@ import com.google.common.collect.ImmutableMap;
 public class GlobalExceptionMapper implements ExceptionMapper<Throwable> {
 	
 	/** associate each error code that does not go with status 500 to the specified HTTP status */
-	private static final Map<ErrorCode, Status> CUSTOM_STATUS_BY_ERROR_CODE = ImmutableMap.<ErrorCode, Response.Status>builder()
+	private static final Map<ErrorCode, StatusType> CUSTOM_STATUS_BY_ERROR_CODE = ImmutableMap.<ErrorCode, StatusType>builder()
 			.put(APPLICATION_ERROR, INTERNAL_SERVER_ERROR)
+			.put(DEADLINE_EXCEEDED, GATEWAY_TIMEOUT)
+			.put(TOO_MANY_REQUESTS, ExtendedStatus.TOO_MANY_REQUESTS)
 			.put(RepositoryErrorCode.NOT_FOUND, NOT_FOUND)
+			.put(RepositoryErrorCode.CONFLICT, CONFLICT)
+			.put(RepositoryErrorCode.UNAVAILABLE, SERVICE_UNAVAILABLE)
 			.build();
 	
+	private static final String RETRY_AFTER = "Retry-After";
+	
 	private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionMapper.class);
 	
 	/** The current HTTP request **/
@@ -54,7 +68,13 @@ public class GlobalExceptionMapper implements ExceptionMapper<Throwable> {
 	public Response toResponse(Throwable exception) {
 		ResponseBuilder apiResponse = null;
 		
-		if (exception instanceof WebApiException) {
+		if (exception instanceof RetryLaterException) {
+			RetryLaterException retryLaterException = (RetryLaterException) exception;
+			apiResponse = toResponse(retryLaterException);
+		} else if (exception instanceof DeadlineExceededException) {
+			DeadlineExceededException deadlineException = (DeadlineExceededException) exception;
+			apiResponse = toResponse(deadlineException);
+		} else if (exception instanceof WebApiException) {
 			WebApiException webApiException = (WebApiException) exception;
 			apiResponse = toResponse(webApiException);
 		} else if (exception instanceof ApplicationException) {
@@ -85,6 +105,34 @@ public class GlobalExceptionMapper implements ExceptionMapper<Throwable> {
 		return Response.status(status).entity(error);
 	}
 	
+	/**
+	 * Convert a RetryLaterException to a response in the API format, telling the client when to try again
+	 * Expected under load, logged without stack trace
+	 * @param retryLaterException
+	 * @return API formated response
+	 */
+	private ResponseBuilder toResponse(RetryLaterException retryLaterException) {
+		String errorCode = retryLaterException.getErrorCode().getCode();
+		LOGGER.warn("RetryLaterException : " + errorCode + " : " + retryLaterException.getMessage());
+		StatusType status = getStatusFromErroCode(retryLaterException.getErrorCode());
+		ErrorRepresentation error = new ErrorRepresentation(retryLaterException.getLevel(), errorCode, retryLaterException.getMessage());
+		return Response.status(status).entity(error).header(RETRY_AFTER, retryLaterException.getRetryAfterInSeconds());
+	}
+	
+	/**
+	 * Convert a DeadlineExceededException to a response in the API format
+	 * Expected under load, logged without stack trace
+	 * @param deadlineException
+	 * @return API formated response
+	 */
+	private ResponseBuilder toResponse(DeadlineExceededException deadlineException) {
+		String errorCode = deadlineException.getErrorCode().getCode();
+		LOGGER.warn("DeadlineExceededException : " + deadlineException.getMessage());
+		ErrorRepresentation error = new ErrorRepresentation(deadlineException.getLevel(), errorCode, deadlineException.getMessage());
+		StatusType status = getStatusFromErroCode(deadlineException.getErrorCode());
+		return Response.status(status).entity(error);
+	}
+	
 	/**
 	 * Convert an ApplicationException to a response in the API format
 	 * @param appException
@@ -93,7 +141,7 @@ public class GlobalExceptionMapper implements ExceptionMapper<Throwable> {
 	private ResponseBuilder toResponse(ApplicationException appException) {
 		String errorCode = appException.getErrorCode().getCode();
 		LOGGER.error("ApplicationException : " + errorCode, appException);
-		Status status = getStatusFromErroCode(appException.getErrorCode());
+		StatusType status = getStatusFromErroCode(appException.getErrorCode());
 		ErrorRepresentation error = new ErrorRepresentation(appException.getLevel(), errorCode, appException.getMessage());
 		return Response.status(status).entity(error);
 	}
@@ -147,7 +195,7 @@ public class GlobalExceptionMapper implements ExceptionMapper<Throwable> {
 	 * @param code
 	 * @return HTTP status
 	 */
-	private static Status getStatusFromErroCode(ErrorCode code) {
+	public static StatusType getStatusFromErroCode(ErrorCode code) {
 		if (CUSTOM_STATUS_BY_ERROR_CODE.containsKey(code)) {
 			return CUSTOM_STATUS_BY_ERROR_CODE.get(code);
 		}
@@ -0,0 +1,313 @@
+package yoan.shopping.infra.security;
+
+import static java.util.Objects.requireNonNull;
+import static yoan.shopping.infra.logging.Markers.SECURITY;
+import static yoan.shopping.infra.rest.error.Level.WARNING;
+import static yoan.shopping.infra.security.LoginAttemptTrackerErrorMessage.LOGIN_LOCKED_OUT;
+import static yoan.shopping.infra.util.error.CommonErrorCode.TOO_MANY_REQUESTS;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.util.CountMinSketch;
+import yoan.shopping.infra.util.error.RetryLaterException;
+
+/**
+ * Count the failed logins by email and by source IP over a sliding window, and lock a key out once it has too many
+ * Each new failure after a lockout locks the key again for twice as long, up to the max lockout
+ * Checking a key is a map lookup, so the locked out logins are turned down before any database read or password hash
+ * Most keys fail once or twice : their failures are only counted in a fixed size sketch,
+ * a key gets exact counters once the sketch has seen it fail a few times, and the exact counters are bounded in number
+ * @author yoan
+ */
+@Singleton
+public class LoginAttemptTracker {
+	/** Estimated failures before a key gets exact counters */
+	protected static final int PROMOTION_THRESHOLD = 2;
+	private static final String EMAIL_PREFIX = "email:";
+	private static final String IP_PREFIX = "ip:";
+	private static final int SKETCH_DEPTH = 4;
+	private static final int MIN_SKETCH_WIDTH = 1 << 10;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LoginAttemptTracker.class);
+
+	private final long windowInNanos;
+	private final int maxFailuresByEmail;
+	private final int maxFailuresByIp;
+	private final long lockoutInNanos;
+	private final long maxLockoutInNanos;
+	private final int maxTrackedKeys;
+	private final int sketchWidth;
+	private final Ticker ticker;
+
+	/** Keys with exact counters */
+	private final Cache<String, LoginAttempts> trackedKeys;
+	/** Failures of the current and previous windows, replaced when the window changes */
+	private volatile SketchWindow sketches;
+
+	private final LongAdder lockoutCount = new LongAdder();
+	private final LongAdder rejectedCount = new LongAdder();
+
+	@Inject
+	public LoginAttemptTracker(Config config) {
+		this(config, Ticker.systemTicker());
+	}
+
+	protected LoginAttemptTracker(Config config, Ticker ticker) {
+		this.windowInNanos = TimeUnit.SECONDS.toNanos(config.getLoginFailureWindowInSeconds());
+		this.maxFailuresByEmail = config.getLoginMaxFailuresByEmail();
+		this.maxFailuresByIp = config.getLoginMaxFailuresByIp();
+		this.lockoutInNanos = TimeUnit.SECONDS.toNanos(config.getLoginLockoutInSeconds());
+		this.maxLockoutInNanos = TimeUnit.SECONDS.toNanos(config.getLoginMaxLockoutInSeconds());
+		this.maxTrackedKeys = config.getLoginMaxTrackedKeys();
+		this.sketchWidth = Math.max(MIN_SKETCH_WIDTH, maxTrackedKeys);
+		this.ticker = requireNonNull(ticker);
+		//an entry can be forgotten once its window and its longest lockout are over
+		this.trackedKeys = CacheBuilder.newBuilder()
+			.maximumSize(maxTrackedKeys)
+			.expireAfterAccess(2 * windowInNanos + maxLockoutInNanos, TimeUnit.NANOSECONDS)
+			.ticker(ticker)
+			.build();
+		long windowIndex = Math.floorDiv(ticker.read(), windowInNanos);
+		this.sketches = new SketchWindow(windowIndex, newSketch(), newSketch());
+	}
+
+	/**
+	 * Turn the login down if its email or source IP is locked out
+	 * @param email : login email, may be null
+	 * @param ip : source IP, may be null
+	 * @throws RetryLaterException if the email or the source IP is locked out
+	 */
+	public void checkAllowed(String email, String ip) {
+		long retryAfterInSeconds = getLockoutInSeconds(email, ip);
+		if (retryAfterInSeconds > 0) {
+			String message = LOGIN_LOCKED_OUT.getDevReadableMessage(retryAfterInSeconds);
+			throw new RetryLaterException(WARNING, TOO_MANY_REQUESTS, message, retryAfterInSeconds);
+		}
+	}
+
+	/**
+	 * @param email : login email, may be null
+	 * @param ip : source IP, may be null
+	 * @return seconds until the email and the source IP are both allowed again, 0 if none is locked out
+	 */
+	public long getLockoutInSeconds(String email, String ip) {
+		long now = ticker.read();
+		long lockoutInNanos = Math.max(getLockoutInNanos(toEmailKey(email), now), getLockoutInNanos(toIpKey(ip), now));
+		if (lockoutInNanos == 0) {
+			return 0;
+		}
+		rejectedCount.increment();
+		//rounded up so that a client retrying right on time is let in
+		return (lockoutInNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+	}
+
+	private long getLockoutInNanos(String key, long now) {
+		if (key == null) {
+			return 0;
+		}
+		LoginAttempts attempts = trackedKeys.getIfPresent(key);
+		return attempts == null ? 0 : attempts.getLockoutInNanos(now);
+	}
+
+	/**
+	 * Count a failed login against its email and its source IP
+	 * @param email : login email, may be null
+	 * @param ip : source IP, may be null
+	 */
+	public void recordFailure(String email, String ip) {
+		long now = ticker.read();
+		recordFailure(toEmailKey(email), maxFailuresByEmail, now);
+		recordFailure(toIpKey(ip), maxFailuresByIp, now);
+	}
+
+	private void recordFailure(String key, int maxFailures, long now) {
+		if (key == null) {
+			return;
+		}
+		LoginAttempts attempts = trackedKeys.getIfPresent(key);
+		if (attempts == null) {
+			attempts = promote(key, maxFailures, now);
+			if (attempts == null) {
+				return;
+			}
+		}
+		if (attempts.recordFailure(now, maxFailures)) {
+			lockoutCount.increment();
+			LOGGER.info(SECURITY.getMarker(), "Too many failed logins for {} : locked out for {} seconds", key, TimeUnit.NANOSECONDS.toSeconds(attempts.getLockoutInNanos(now)));
+		}
+	}
+
+	/**
+	 * Count the failure in the sketch, and give exact counters to the key if it failed often enough
+	 * @return exact counters of the key, null if it stays in the sketch only
+	 */
+	private LoginAttempts promote(String key, int maxFailures, long now) {
+		SketchWindow window = getSketches(now);
+		int currentFailures = window.current.add(key);
+		int previousFailures = window.previous.estimate(key);
+		if (currentFailures + weightPrevious(previousFailures, now) < PROMOTION_THRESHOLD) {
+			return null;
+		}
+		//the sketch may overestimate : the seed stays under the limit, so that only an exact count locks a key out
+		//the failure being recorded is counted by the exact counters, not in the seed
+		int seedCurrent = Math.min(currentFailures - 1, maxFailures - 1);
+		int seedPrevious = Math.min(previousFailures, maxFailures - 1);
+		return trackedKeys.asMap().computeIfAbsent(key, k -> new LoginAttempts(window.index, seedCurrent, seedPrevious, now));
+	}
+
+	private SketchWindow getSketches(long now) {
+		long windowIndex = Math.floorDiv(now, windowInNanos);
+		SketchWindow window = sketches;
+		if (window.index == windowIndex) {
+			return window;
+		}
+		synchronized (this) {
+			window = sketches;
+			if (window.index != windowIndex) {
+				CountMinSketch previous = window.index == windowIndex - 1 ? window.current : newSketch();
+				window = new SketchWindow(windowIndex, newSketch(), previous);
+				sketches = window;
+			}
+			return window;
+		}
+	}
+
+	private CountMinSketch newSketch() {
+		return new CountMinSketch(sketchWidth, SKETCH_DEPTH);
+	}
+
+	/**
+	 * Count a successful login : the email failures are forgotten, the source IP ones are kept
+	 * @param email : login email
+	 */
+	public void recordSuccess(String email) {
+		String key = toEmailKey(email);
+		if (key != null) {
+			trackedKeys.invalidate(key);
+		}
+	}
+
+	/**
+	 * The previous window failures count for the part of it still in the sliding window, rounded up
+	 */
+	private long weightPrevious(long previousFailures, long now) {
+		long elapsedInWindow = Math.floorMod(now, windowInNanos);
+		return (previousFailures * (windowInNanos - elapsedInWindow) + windowInNanos - 1) / windowInNanos;
+	}
+
+	private static String toEmailKey(String email) {
+		return StringUtils.isBlank(email) ? null : EMAIL_PREFIX + email.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static String toIpKey(String ip) {
+		return StringUtils.isBlank(ip) ? null : IP_PREFIX + ip.trim();
+	}
+
+	public long getTrackedKeyCount() {
+		return trackedKeys.size();
+	}
+
+	public int getMaxTrackedKeys() {
+		return maxTrackedKeys;
+	}
+
+	public long getLockoutCount() {
+		return lockoutCount.sum();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	/**
+	 * Sketches of the current and previous windows
+	 */
+	private static class SketchWindow {
+		private final long index;
+		private final CountMinSketch current;
+		private final CountMinSketch previous;
+
+		private SketchWindow(long index, CountMinSketch current, CountMinSketch previous) {
+			this.index = index;
+			this.current = current;
+			this.previous = previous;
+		}
+	}
+
+	/**
+	 * Exact failure counters and lockout of a key
+	 */
+	private class LoginAttempts {
+		private long windowIndex;
+		private int currentFailures;
+		private int previousFailures;
+		/** Lockouts since the key stopped failing for a whole window */
+		private int lockouts;
+		private long lockedUntilInNanos;
+
+		private LoginAttempts(long windowIndex, int currentFailures, int previousFailures, long now) {
+			this.windowIndex = windowIndex;
+			this.currentFailures = currentFailures;
+			this.previousFailures = previousFailures;
+			this.lockedUntilInNanos = now;
+		}
+
+		private synchronized long getLockoutInNanos(long now) {
+			return Math.max(0, lockedUntilInNanos - now);
+		}
+
+		/**
+		 * @return true if this failure locks the key out
+		 */
+		private synchronized boolean recordFailure(long now, int maxFailures) {
+			slide(now);
+			currentFailures++;
+			//a login checked just before the lockout does not extend it
+			if (lockedUntilInNanos - now > 0) {
+				return false;
+			}
+			if (currentFailures + weightPrevious(previousFailures, now) < maxFailures) {
+				return false;
+			}
+			lockedUntilInNanos = now + getLockoutDurationInNanos();
+			lockouts++;
+			return true;
+		}
+
+		private void slide(long now) {
+			long index = Math.floorDiv(now, windowInNanos);
+			if (index == windowIndex) {
+				return;
+			}
+			if (index == windowIndex + 1) {
+				previousFailures = currentFailures;
+			} else {
+				previousFailures = 0;
+				lockouts = 0;
+			}
+			currentFailures = 0;
+			windowIndex = index;
+		}
+
+		private long getLockoutDurationInNanos() {
+			long duration = lockoutInNanos;
+			for (int i = 0; i < lockouts && duration < maxLockoutInNanos; i++) {
+				duration *= 2;
+			}
+			return Math.min(duration, maxLockoutInNanos);
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package yoan.shopping.infra.security;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import yoan.shopping.infra.util.error.ErrorMessage;
+
+/**
+ * Login throttling error messages
+ * @author yoan
+ */
+public enum LoginAttemptTrackerErrorMessage implements ErrorMessage {
+	/** Too many failed logins, retry in %s seconds */
+	LOGIN_LOCKED_OUT("Too many failed logins, retry in %s seconds");
+
+	private String message;
+
+	private LoginAttemptTrackerErrorMessage(String message) {
+		checkArgument(isNotBlank(message), "An error message should not be empty");
+		this.message = message;
+	}
+
+	@Override
+	public String getDevReadableMessage() {
+		return message;
+	}
+
+	@Override
+	public String getDevReadableMessage(Object... params) {
+		return String.format(message, params);
+	}
+}
@@ -0,0 +1,290 @@
+package yoan.shopping.infra.security;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static yoan.shopping.infra.logging.Markers.PERFORMANCE;
+import static yoan.shopping.infra.rest.error.Level.ERROR;
+import static yoan.shopping.infra.rest.error.Level.WARNING;
+import static yoan.shopping.infra.security.PasswordHasherErrorMessage.PASSWORD_HASHING_SATURATED;
+import static yoan.shopping.infra.security.PasswordHasherErrorMessage.PROBLEM_PASSWORD_HASHING;
+import static yoan.shopping.infra.util.error.CommonErrorCode.APPLICATION_ERROR;
+import static yoan.shopping.infra.util.error.CommonErrorCode.TOO_MANY_REQUESTS;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.util.deadline.DeadlineExceededException;
+import yoan.shopping.infra.util.deadline.RequestDeadline;
+import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.error.RetryLaterException;
+import yoan.shopping.infra.util.helper.SecurityHelper;
+
+/**
+ * Compute and verify the password hashes with PBKDF2, on a dedicated bounded pool
+ * A hash is stored as $pbkdf2-sha256$iterations$hash so the cost can be raised without breaking the existing ones,
+ * a hash without prefix is a legacy SHA-256 hash, checked inline as it is cheap
+ * The request threads wait for the pool, a full queue rejects the request right away instead of piling up logins
+ * @author yoan
+ */
+@Singleton
+public class PasswordHasher {
+	public static final String PBKDF2_PREFIX = "$pbkdf2-sha256$";
+	private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+	private static final int KEY_LENGTH_IN_BITS = 256;
+	private static final long RETRY_AFTER_IN_SECONDS = 1;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PasswordHasher.class);
+
+	private final int iterations;
+	private final int queueCapacity;
+	private final ThreadPoolExecutor executor;
+
+	private final LongAdder hashCount = new LongAdder();
+	private final LongAdder totalHashTimeInNanos = new LongAdder();
+	private final LongAccumulator maxHashTimeInNanos = new LongAccumulator(Math::max, 0);
+	private final LongAdder totalQueueTimeInNanos = new LongAdder();
+	private final LongAdder rejectedCount = new LongAdder();
+	private final LongAdder legacyMatchCount = new LongAdder();
+
+	@Inject
+	public PasswordHasher(Config config) {
+		this(config.getPasswordHashIterations(), config.getPasswordHashThreads(), config.getPasswordHashQueueCapacity());
+	}
+
+	protected PasswordHasher(int iterations, int threads, int queueCapacity) {
+		checkArgument(iterations > 0, "Invalid password hash iterations");
+		checkArgument(threads > 0, "Invalid password hash threads");
+		checkArgument(queueCapacity > 0, "Invalid password hash queue capacity");
+		this.iterations = iterations;
+		this.queueCapacity = queueCapacity;
+		executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("password-hasher-%d").build());
+		//idle threads are released between login bursts
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Hash a password with the current cost
+	 * @param password
+	 * @param salt
+	 * @return encoded hash, with its algorithm and cost
+	 * @throws RetryLaterException if the hashing queue is full
+	 * @throws DeadlineExceededException if the request deadline is spent while waiting for the hash
+	 */
+	public String hash(String password, Object salt) {
+		byte[] hash = computeOnPool(password, salt, iterations);
+		return encode(iterations, hash);
+	}
+
+	/**
+	 * Check a password against a stored hash, legacy or not
+	 * @param password
+	 * @param salt
+	 * @param storedHash
+	 * @return true if the password matches
+	 * @throws RetryLaterException if the hashing queue is full
+	 * @throws DeadlineExceededException if the request deadline is spent while waiting for the hash
+	 */
+	public boolean matches(String password, Object salt, String storedHash) {
+		if (password == null || salt == null || StringUtils.isBlank(storedHash)) {
+			return false;
+		}
+		if (isLegacy(storedHash)) {
+			boolean matching = constantTimeEquals(SecurityHelper.hash(password, salt.toString()), storedHash);
+			if (matching) {
+				legacyMatchCount.increment();
+			}
+			return matching;
+		}
+		String[] parts = storedHash.substring(PBKDF2_PREFIX.length()).split("\\$");
+		if (parts.length != 2 || !StringUtils.isNumeric(parts[0])) {
+			LOGGER.warn("Unreadable password hash format");
+			return false;
+		}
+		int storedIterations;
+		byte[] expected;
+		try {
+			storedIterations = Integer.parseInt(parts[0]);
+			expected = Base64.getDecoder().decode(parts[1]);
+		} catch (IllegalArgumentException e) {
+			//NumberFormatException is an IllegalArgumentException too
+			LOGGER.warn("Unreadable password hash format");
+			return false;
+		}
+		if (storedIterations <= 0 || expected.length == 0) {
+			LOGGER.warn("Unreadable password hash format");
+			return false;
+		}
+		byte[] actual = computeOnPool(password, salt, storedIterations);
+		return MessageDigest.isEqual(expected, actual);
+	}
+
+	/**
+	 * Check if a stored hash should be computed again with the current algorithm and cost
+	 * @param storedHash
+	 * @return true for a legacy hash or a hash with another cost
+	 */
+	public boolean needsRehash(String storedHash) {
+		if (StringUtils.isBlank(storedHash) || isLegacy(storedHash)) {
+			return true;
+		}
+		return !storedHash.startsWith(PBKDF2_PREFIX + iterations + "$");
+	}
+
+	/**
+	 * Check if new hashes would be rejected, to turn a login down before any work
+	 * @return true if the hashing queue is full
+	 */
+	public boolean isSaturated() {
+		return executor.getQueue().remainingCapacity() == 0;
+	}
+
+	private static boolean isLegacy(String storedHash) {
+		return !storedHash.startsWith(PBKDF2_PREFIX);
+	}
+
+	private static boolean constantTimeEquals(String expected, String actual) {
+		return MessageDigest.isEqual(expected.getBytes(UTF_8), actual.getBytes(UTF_8));
+	}
+
+	private static String encode(int iterations, byte[] hash) {
+		return PBKDF2_PREFIX + iterations + "$" + Base64.getEncoder().encodeToString(hash);
+	}
+
+	private byte[] computeOnPool(String password, Object salt, int hashIterations) {
+		checkArgument(password != null, "Invalid password");
+		checkArgument(salt != null, "Invalid salt");
+		long submittedAt = System.nanoTime();
+		Callable<byte[]> task = () -> {
+			long start = System.nanoTime();
+			totalQueueTimeInNanos.add(start - submittedAt);
+			byte[] hash = computeHash(password, salt.toString(), hashIterations);
+			recordHash(System.nanoTime() - start);
+			return hash;
+		};
+		Future<byte[]> futureHash = submit(task);
+		return await(futureHash);
+	}
+
+	private Future<byte[]> submit(Callable<byte[]> task) {
+		try {
+			return executor.submit(task);
+		} catch (RejectedExecutionException ree) {
+			rejectedCount.increment();
+			LOGGER.warn(PERFORMANCE.getMarker(), "Password hashing queue full, {} hashes waiting", queueCapacity);
+			String message = PASSWORD_HASHING_SATURATED.getDevReadableMessage(RETRY_AFTER_IN_SECONDS);
+			throw new RetryLaterException(WARNING, TOO_MANY_REQUESTS, message, RETRY_AFTER_IN_SECONDS);
+		}
+	}
+
+	private byte[] await(Future<byte[]> futureHash) {
+		RequestDeadline deadline = RequestDeadline.current();
+		try {
+			if (deadline == null) {
+				return futureHash.get();
+			}
+			return futureHash.get(Math.max(0, deadline.getRemainingInMillis()), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException te) {
+			futureHash.cancel(true);
+			throw deadline.exceeded("PasswordHasher.hash");
+		} catch (InterruptedException ie) {
+			futureHash.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new ApplicationException(ERROR, APPLICATION_ERROR, PROBLEM_PASSWORD_HASHING.getDevReadableMessage(ie.getMessage()), ie);
+		} catch (ExecutionException ee) {
+			throw new ApplicationException(ERROR, APPLICATION_ERROR, PROBLEM_PASSWORD_HASHING.getDevReadableMessage(ee.getCause().getMessage()), ee.getCause());
+		}
+	}
+
+	/**
+	 * Compute a PBKDF2 hash, on a thread of the hashing pool
+	 * @param password
+	 * @param salt
+	 * @param hashIterations
+	 * @return raw hash
+	 * @throws GeneralSecurityException if PBKDF2 is not available
+	 */
+	protected byte[] computeHash(String password, String salt, int hashIterations) throws GeneralSecurityException {
+		PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(UTF_8), hashIterations, KEY_LENGTH_IN_BITS);
+		try {
+			return SecretKeyFactory.getInstance(PBKDF2_ALGORITHM).generateSecret(spec).getEncoded();
+		} finally {
+			spec.clearPassword();
+		}
+	}
+
+	private void recordHash(long durationInNanos) {
+		hashCount.increment();
+		totalHashTimeInNanos.add(durationInNanos);
+		maxHashTimeInNanos.accumulate(durationInNanos);
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public int getThreads() {
+		return executor.getMaximumPoolSize();
+	}
+
+	public int getActiveThreads() {
+		return executor.getActiveCount();
+	}
+
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public long getHashCount() {
+		return hashCount.sum();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	public long getLegacyMatchCount() {
+		return legacyMatchCount.sum();
+	}
+
+	public long getAverageHashTimeInNanos() {
+		long count = hashCount.sum();
+		return count == 0 ? 0 : totalHashTimeInNanos.sum() / count;
+	}
+
+	public long getMaxHashTimeInNanos() {
+		return maxHashTimeInNanos.get();
+	}
+
+	public long getAverageQueueTimeInNanos() {
+		long count = hashCount.sum();
+		return count == 0 ? 0 : totalQueueTimeInNanos.sum() / count;
+	}
+}
@@ -0,0 +1,34 @@
+package yoan.shopping.infra.security;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import yoan.shopping.infra.util.error.ErrorMessage;
+
+/**
+ * Password hashing error messages
+ * @author yoan
+ */
+public enum PasswordHasherErrorMessage implements ErrorMessage {
+	/** Too many passwords waiting to be hashed, retry in %s seconds */
+	PASSWORD_HASHING_SATURATED("Too many passwords waiting to be hashed, retry in %s seconds"),
+	/** Error while hashing password : %s */
+	PROBLEM_PASSWORD_HASHING("Error while hashing password : %s");
+
+	private String message;
+
+	private PasswordHasherErrorMessage(String message) {
+		checkArgument(isNotBlank(message), "An error message should not be empty");
+		this.message = message;
+	}
+
+	@Override
+	public String getDevReadableMessage() {
+		return message;
+	}
+
+	@Override
+	public String getDevReadableMessage(Object... params) {
+		return String.format(message, params);
+	}
+}
@@ -0,0 +1,40 @@
+package yoan.shopping.infra.security;
+
+import java.util.Collection;
+
+import org.apache.shiro.mgt.DefaultSessionStorageEvaluator;
+import org.apache.shiro.mgt.DefaultSubjectDAO;
+import org.apache.shiro.realm.Realm;
+import org.apache.shiro.subject.SubjectContext;
+import org.apache.shiro.web.mgt.DefaultWebSecurityManager;
+
+import com.google.inject.Inject;
+
+/**
+ * Shiro security manager of a stateless REST API : every request carries its credentials
+ * No session is looked up, created nor stored, there is no remember me cookie,
+ * and a login only goes through the realm supporting its token type
+ * @author yoan
+ */
+public class StatelessWebSecurityManager extends DefaultWebSecurityManager {
+	
+	@Inject
+	public StatelessWebSecurityManager(Collection<Realm> realms) {
+		super();
+		setAuthenticator(new TokenTypeRealmAuthenticator());
+		setSubjectFactory(new StatelessWebSubjectFactory());
+		setRememberMeManager(null);
+		DefaultSessionStorageEvaluator sessionStorageEvaluator = (DefaultSessionStorageEvaluator) ((DefaultSubjectDAO) getSubjectDAO()).getSessionStorageEvaluator();
+		sessionStorageEvaluator.setSessionStorageEnabled(false);
+		//set last so that the authenticator gets the realms
+		setRealms(realms);
+	}
+	
+	/**
+	 * No session to resolve, the container session is never read
+	 */
+	@Override
+	protected SubjectContext resolveSession(SubjectContext context) {
+		return context;
+	}
+}
@@ -0,0 +1,19 @@
+package yoan.shopping.infra.security;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.SubjectContext;
+import org.apache.shiro.web.mgt.DefaultWebSubjectFactory;
+
+/**
+ * Web subject factory building subjects which can never create a session
+ * Each request is authenticated from its own credentials, nothing is kept between requests
+ * @author yoan
+ */
+public class StatelessWebSubjectFactory extends DefaultWebSubjectFactory {
+	
+	@Override
+	public Subject createSubject(SubjectContext context) {
+		context.setSessionCreationEnabled(false);
+		return super.createSubject(context);
+	}
+}
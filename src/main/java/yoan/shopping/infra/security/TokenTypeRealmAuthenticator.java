@@ -0,0 +1,47 @@
+package yoan.shopping.infra.security;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.pam.ModularRealmAuthenticator;
+import org.apache.shiro.realm.Realm;
+
+/**
+ * Authenticator handing each token to the single realm supporting its type
+ * Each filter chain creates its own token type, so a login never goes through the other realms
+ * @author yoan
+ */
+public class TokenTypeRealmAuthenticator extends ModularRealmAuthenticator {
+	/** Realm found for each token type, none if no realm supports it */
+	private final Map<Class<?>, Realm> realmByTokenType = new ConcurrentHashMap<>();
+	
+	@Override
+	public void setRealms(Collection<Realm> realms) {
+		super.setRealms(realms);
+		realmByTokenType.clear();
+	}
+	
+	@Override
+	protected AuthenticationInfo doAuthenticate(AuthenticationToken authenticationToken) throws AuthenticationException {
+		assertRealmsConfigured();
+		Realm realm = realmByTokenType.computeIfAbsent(authenticationToken.getClass(), tokenType -> findRealm(authenticationToken));
+		if (realm == null) {
+			//no realm supports it, the default handling builds the usual error
+			return super.doAuthenticate(authenticationToken);
+		}
+		return doSingleRealmAuthentication(realm, authenticationToken);
+	}
+	
+	private Realm findRealm(AuthenticationToken authenticationToken) {
+		for (Realm realm : getRealms()) {
+			if (realm.supports(authenticationToken)) {
+				return realm;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,103 @@
+package yoan.shopping.infra.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Count-min sketch of strings : approximate counters in a fixed amount of memory, whatever the number of keys
+ * An estimate is never below the real count, collisions can only make it higher
+ * Additions and lookups are lock free
+ * @author yoan
+ */
+public class CountMinSketch {
+
+	private final AtomicIntegerArray counters;
+	private final int width;
+	private final int depth;
+
+	public CountMinSketch(int width, int depth) {
+		checkArgument(width > 0, "Width should be positive");
+		checkArgument(depth > 0, "Depth should be positive");
+		checkArgument((long) width * depth <= Integer.MAX_VALUE, "Too many counters");
+		this.counters = new AtomicIntegerArray(width * depth);
+		this.width = width;
+		this.depth = depth;
+	}
+
+	/**
+	 * Count an occurrence of the key
+	 * @param key
+	 * @return estimated count of the key, including this occurrence
+	 */
+	public int add(String key) {
+		long hash1 = getHash1(key);
+		long hash2 = getHash2(hash1);
+		int estimate = Integer.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			int index = getIndex(hash1, hash2, row);
+			int count = counters.incrementAndGet(index);
+			//a saturated counter stays saturated instead of wrapping around
+			if (count < 0) {
+				counters.set(index, Integer.MAX_VALUE);
+				count = Integer.MAX_VALUE;
+			}
+			estimate = Math.min(estimate, count);
+		}
+		return estimate;
+	}
+
+	/**
+	 * @param key
+	 * @return estimated count of the key, 0 if it was surely never added
+	 */
+	public int estimate(String key) {
+		long hash1 = getHash1(key);
+		long hash2 = getHash2(hash1);
+		int estimate = Integer.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counters.get(getIndex(hash1, hash2, row)));
+		}
+		return estimate;
+	}
+
+	private int getIndex(long hash1, long hash2, int row) {
+		//double hashing gives a column by row from two hashes
+		return row * width + (int) Long.remainderUnsigned(hash1 + row * hash2, width);
+	}
+
+	private static long getHash1(String key) {
+		return Hashing.murmur3_128().hashString(key, UTF_8).asLong();
+	}
+
+	private static long getHash2(long hash1) {
+		//odd so that the columns do not repeat
+		return mix(hash1 + 0x9E3779B97F4A7C15L) | 1;
+	}
+
+	/** Murmur3 64 bits finalizer */
+	private static long mix(long value) {
+		long hash = value;
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	public int getSizeInBytes() {
+		return counters.length() * Integer.BYTES;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+}
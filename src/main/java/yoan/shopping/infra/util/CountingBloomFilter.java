@@ -0,0 +1,113 @@
+package yoan.shopping.infra.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.UUID;
+
+/**
+ * Bloom filter of UUID with one byte counter by slot, so that elements can be removed
+ * Lookups are lock free, additions and removals are serialized
+ * @author yoan
+ */
+public class CountingBloomFilter {
+	private static final int MAX_COUNT = 0xFF;
+	
+	private final byte[] counters;
+	private final int hashCount;
+	/** Written after each change so that lock free lookups see the updated counters */
+	private volatile int version;
+	
+	public CountingBloomFilter(int counterCount, int hashCount) {
+		checkArgument(counterCount > 0, "Counter count should be positive");
+		checkArgument(hashCount > 0, "Hash count should be positive");
+		this.counters = new byte[counterCount];
+		this.hashCount = hashCount;
+	}
+	
+	/**
+	 * Add an element, to be added only once
+	 * @param element
+	 */
+	public synchronized void add(UUID element) {
+		long hash1 = getHash1(element);
+		long hash2 = getHash2(element);
+		for (int i = 0; i < hashCount; i++) {
+			int index = getIndex(hash1, hash2, i);
+			int count = counters[index] & MAX_COUNT;
+			//a saturated counter is frozen, decrementing it could create false negatives
+			if (count < MAX_COUNT) {
+				counters[index] = (byte) (count + 1);
+			}
+		}
+		version++;
+	}
+	
+	/**
+	 * Remove an element previously added
+	 * @param element
+	 */
+	public synchronized void remove(UUID element) {
+		long hash1 = getHash1(element);
+		long hash2 = getHash2(element);
+		for (int i = 0; i < hashCount; i++) {
+			int index = getIndex(hash1, hash2, i);
+			int count = counters[index] & MAX_COUNT;
+			if (count > 0 && count < MAX_COUNT) {
+				counters[index] = (byte) (count - 1);
+			}
+		}
+		version++;
+	}
+	
+	/**
+	 * Check if an element may have been added
+	 * @param element
+	 * @return false if the element was surely not added
+	 */
+	public boolean mightContain(UUID element) {
+		if (version == 0) {
+			return false;
+		}
+		long hash1 = getHash1(element);
+		long hash2 = getHash2(element);
+		for (int i = 0; i < hashCount; i++) {
+			if (counters[getIndex(hash1, hash2, i)] == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private int getIndex(long hash1, long hash2, int i) {
+		//double hashing gives the k indexes from two hashes
+		return (int) Long.remainderUnsigned(hash1 + i * hash2, counters.length);
+	}
+	
+	private static long getHash1(UUID element) {
+		return mix(element.getMostSignificantBits() ^ Long.rotateLeft(element.getLeastSignificantBits(), 32));
+	}
+	
+	private static long getHash2(UUID element) {
+		//odd so that the indexes do not repeat
+		return mix(element.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+	}
+	
+	/** Murmur3 64 bits finalizer */
+	private static long mix(long value) {
+		long hash = value;
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+	
+	public int getSizeInBytes() {
+		return counters.length;
+	}
+	
+	public int getHashCount() {
+		return hashCount;
+	}
+}
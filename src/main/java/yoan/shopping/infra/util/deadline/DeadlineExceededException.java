@@ -0,0 +1,20 @@
+package yoan.shopping.infra.util.deadline;
+
+import static yoan.shopping.infra.rest.error.Level.WARNING;
+import static yoan.shopping.infra.util.error.CommonErrorCode.DEADLINE_EXCEEDED;
+
+import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.error.CommonErrorMessage;
+
+/**
+ * Exception to throw when the request time budget is spent
+ * Handled as a 504 response
+ * @author yoan
+ */
+public class DeadlineExceededException extends ApplicationException {
+	private static final long serialVersionUID = -3106424589771432518L;
+
+	public DeadlineExceededException(long budgetInMillis, String operation) {
+		super(WARNING, DEADLINE_EXCEEDED, CommonErrorMessage.DEADLINE_EXCEEDED.getDevReadableMessage(budgetInMillis, operation));
+	}
+}
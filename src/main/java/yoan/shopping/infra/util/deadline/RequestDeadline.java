@@ -0,0 +1,98 @@
+package yoan.shopping.infra.util.deadline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Time budget of the request handled by the current thread
+ * Established by the RequestDeadlineFilter, consumed by the operations reaching the database
+ * @author yoan
+ */
+public class RequestDeadline {
+	private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+	/** Route group the budget was configured for */
+	private final String route;
+	private final long budgetInMillis;
+	private final long deadlineInNanos;
+	private final LongSupplier nanoClock;
+	/** Set when an operation was stopped because of the deadline */
+	private volatile boolean exceeded = false;
+
+	protected RequestDeadline(String route, long budgetInMillis, LongSupplier nanoClock) {
+		this.route = requireNonNull(route);
+		checkArgument(budgetInMillis > 0, "Invalid request budget");
+		this.budgetInMillis = budgetInMillis;
+		this.nanoClock = requireNonNull(nanoClock);
+		this.deadlineInNanos = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(budgetInMillis);
+	}
+
+	/**
+	 * Start the deadline of the request handled by the current thread
+	 * @param route
+	 * @param budgetInMillis
+	 * @return started deadline
+	 */
+	public static RequestDeadline start(String route, long budgetInMillis) {
+		RequestDeadline deadline = new RequestDeadline(route, budgetInMillis, System::nanoTime);
+		CURRENT.set(deadline);
+		return deadline;
+	}
+
+	/**
+	 * @return the deadline of the request handled by the current thread, null outside of a request
+	 */
+	public static RequestDeadline current() {
+		return CURRENT.get();
+	}
+
+	public static void clear() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * @return remaining time in milliseconds, zero or negative once expired
+	 */
+	public long getRemainingInMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(deadlineInNanos - nanoClock.getAsLong());
+	}
+
+	public boolean isExpired() {
+		return deadlineInNanos - nanoClock.getAsLong() <= 0;
+	}
+
+	/**
+	 * Flag the request as stopped by its deadline
+	 * @param operation : name of the operation which was not done
+	 * @return exception to throw
+	 */
+	public DeadlineExceededException exceeded(String operation) {
+		exceeded = true;
+		return new DeadlineExceededException(budgetInMillis, operation);
+	}
+
+	public boolean isExceeded() {
+		return exceeded;
+	}
+
+	public String getRoute() {
+		return route;
+	}
+
+	public long getBudgetInMillis() {
+		return budgetInMillis;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("route", route)
+											   .add("budgetInMillis", budgetInMillis)
+											   .add("remainingInMillis", getRemainingInMillis())
+											   .toString();
+	}
+}
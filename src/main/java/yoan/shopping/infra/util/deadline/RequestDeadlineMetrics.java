@@ -0,0 +1,51 @@
+package yoan.shopping.infra.util.deadline;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.inject.Singleton;
+
+/**
+ * Deadline counters of the requests, by route group
+ * @author yoan
+ */
+@Singleton
+public class RequestDeadlineMetrics {
+	private final ConcurrentMap<String, Counters> countersByRoute = new ConcurrentHashMap<>();
+
+	/**
+	 * Count a completed request
+	 * @param deadline : deadline of the request
+	 */
+	public void record(RequestDeadline deadline) {
+		Counters counters = countersByRoute.computeIfAbsent(deadline.getRoute(), key -> new Counters());
+		counters.requests.increment();
+		if (deadline.isExceeded() || deadline.isExpired()) {
+			counters.exceeded.increment();
+		}
+	}
+
+	public long getRequestCount(String route) {
+		Counters counters = countersByRoute.get(route);
+		return counters == null ? 0 : counters.requests.sum();
+	}
+
+	public long getExceededCount(String route) {
+		Counters counters = countersByRoute.get(route);
+		return counters == null ? 0 : counters.exceeded.sum();
+	}
+
+	/**
+	 * @return route groups with at least one request, ordered by name
+	 */
+	public ImmutableSortedSet<String> getRoutes() {
+		return ImmutableSortedSet.copyOf(countersByRoute.keySet());
+	}
+
+	private static class Counters {
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder exceeded = new LongAdder();
+	}
+}
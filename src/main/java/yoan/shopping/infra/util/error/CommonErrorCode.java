@@ -12,7 +12,9 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
  */
 public enum CommonErrorCode implements ErrorCode {
 	APPLICATION_ERROR("APP-ERR"),
-	API_RESPONSE("API-RESP");
+	API_RESPONSE("API-RESP"),
+	DEADLINE_EXCEEDED("DEADLINE"),
+	TOO_MANY_REQUESTS("TOO-MANY-REQ");
 
 	private String code;
 	
@@ -11,6 +11,8 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
  * @author yoan
  */
 public enum CommonErrorMessage implements ErrorMessage {
+	/** Request deadline of %s ms exceeded before %s */
+	DEADLINE_EXCEEDED("Request deadline of %s ms exceeded before %s"),
 	/** Invalid %s */
 	INVALID("Invalid %s"),
 	/** Missing %s */
@@ -12,7 +12,9 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
  */
 public enum RepositoryErrorCode implements ErrorCode {
 	ALREADY_EXISTING("ALREADY_EXISTING"),
-	NOT_FOUND("NOT_FOUND");
+	CONFLICT("CONFLICT"),
+	NOT_FOUND("NOT_FOUND"),
+	UNAVAILABLE("UNAVAILABLE");
 
 	private String code;
 	
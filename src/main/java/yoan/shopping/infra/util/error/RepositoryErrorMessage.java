@@ -9,7 +9,9 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
  */
 public enum RepositoryErrorMessage implements ErrorMessage {
 	/** The document does not contain an _id */
-	MONGO_DOCUMENT_WITHOUT_ID("The document does not contain an _id");
+	MONGO_DOCUMENT_WITHOUT_ID("The document does not contain an _id"),
+	/** Database temporarily unavailable, retry in %s seconds */
+	DATABASE_UNAVAILABLE("Database temporarily unavailable, retry in %s seconds");
 	
 	private String message;
 	
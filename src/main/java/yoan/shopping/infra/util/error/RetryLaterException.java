@@ -0,0 +1,27 @@
+package yoan.shopping.infra.util.error;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import yoan.shopping.infra.rest.error.Level;
+
+/**
+ * Exception to throw when a request is refused for a known duration
+ * Handled with a Retry-After header
+ * @author yoan
+ */
+public class RetryLaterException extends ApplicationException {
+	private static final long serialVersionUID = 2318436519752861042L;
+
+	/** Delay before the client should try again */
+	private final long retryAfterInSeconds;
+
+	public RetryLaterException(Level level, ErrorCode errorCode, String message, long retryAfterInSeconds) {
+		super(level, errorCode, message);
+		checkArgument(retryAfterInSeconds >= 0, "Invalid retry delay");
+		this.retryAfterInSeconds = retryAfterInSeconds;
+	}
+
+	public long getRetryAfterInSeconds() {
+		return retryAfterInSeconds;
+	}
+}
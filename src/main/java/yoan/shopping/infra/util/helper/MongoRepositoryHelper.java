@@ -5,6 +5,7 @@ import static yoan.shopping.infra.util.error.CommonErrorCode.APPLICATION_ERROR;
 
 import org.slf4j.Logger;
 
+import com.mongodb.ErrorCategory;
 import com.mongodb.MongoException;
 
 import yoan.shopping.infra.util.error.ApplicationException;
@@ -30,4 +31,13 @@ public class MongoRepositoryHelper {
 		logger.error(message, exception);
 		throw new ApplicationException(ERROR, APPLICATION_ERROR, message, exception);
 	}
+	
+	/**
+	 * Check if a write was rejected by a unique index
+	 * @param exception
+	 * @return true if the error is a duplicate key
+	 */
+	public static boolean isDuplicateKey(MongoException exception) {
+		return ErrorCategory.fromErrorCode(exception.getCode()) == ErrorCategory.DUPLICATE_KEY;
+	}
 }
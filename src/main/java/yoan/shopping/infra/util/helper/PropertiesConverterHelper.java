@@ -6,12 +6,20 @@ package yoan.shopping.infra.util.helper;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
 import static yoan.shopping.infra.util.error.CommonErrorCode.APPLICATION_ERROR;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
 import yoan.shopping.infra.util.error.ApplicationException;
 
 /**
@@ -69,4 +77,87 @@ public class PropertiesConverterHelper {
 		}
 		return property;
 	}
+	
+	public static Integer getOptionnalIntegerProperty(Properties properties, String fieldName, int defaultValue) {
+		Integer property = getOptionnalIntegerProperty(properties, fieldName);
+		return property == null ? defaultValue : property;
+	}
+	
+	/**
+	 * Read an optionnal map of integers written as key1:value1,key2:value2
+	 * Invalid entries are skipped
+	 * @param properties
+	 * @param fieldName
+	 * @return map of integers, empty if the property is missing
+	 */
+	public static Map<String, Integer> getOptionnalIntegerMapProperty(Properties properties, String fieldName) {
+		String propertyStr = getOptionalProperty(properties, fieldName);
+		if (propertyStr == null)
+			return ImmutableMap.of();
+		
+		Map<String, Integer> property = new LinkedHashMap<>();
+		for (String entry : propertyStr.split(",")) {
+			int separatorIndex = entry.lastIndexOf(':');
+			String key = separatorIndex < 0 ? null : entry.substring(0, separatorIndex).trim();
+			if (StringUtils.isBlank(key)) {
+				LOGGER.warn("Invalid entry for optionnal property : " + fieldName + " : " + entry + " => skipping it");
+				continue;
+			}
+			try {
+				property.put(key, Integer.parseInt(entry.substring(separatorIndex + 1).trim()));
+			} catch(NumberFormatException e) {
+				LOGGER.warn("Invalid integer format for optionnal property : " + fieldName + " : " + entry + " => skipping it", e);
+			}
+		}
+		return ImmutableMap.copyOf(property);
+	}
+	
+	/**
+	 * Read an optionnal map of strings written as key1:value1,key2:value2
+	 * Invalid entries are skipped
+	 * @param properties
+	 * @param fieldName
+	 * @return map of strings, empty if the property is missing
+	 */
+	public static Map<String, String> getOptionnalMapProperty(Properties properties, String fieldName) {
+		String propertyStr = getOptionalProperty(properties, fieldName);
+		if (propertyStr == null)
+			return ImmutableMap.of();
+		
+		Map<String, String> property = new LinkedHashMap<>();
+		for (String entry : propertyStr.split(",")) {
+			int separatorIndex = entry.lastIndexOf(':');
+			String key = separatorIndex < 0 ? null : entry.substring(0, separatorIndex).trim();
+			String value = separatorIndex < 0 ? null : entry.substring(separatorIndex + 1).trim();
+			if (StringUtils.isBlank(key) || StringUtils.isBlank(value)) {
+				LOGGER.warn("Invalid entry for optionnal property : " + fieldName + " => skipping it");
+				continue;
+			}
+			property.put(key, value);
+		}
+		return ImmutableMap.copyOf(property);
+	}
+	
+	/**
+	 * Read an optionnal set of ids written as id1,id2
+	 * Invalid entries are skipped
+	 * @param properties
+	 * @param fieldName
+	 * @return set of ids, empty if the property is missing
+	 */
+	public static Set<UUID> getOptionnalUUIDSetProperty(Properties properties, String fieldName) {
+		String propertyStr = getOptionalProperty(properties, fieldName);
+		if (propertyStr == null)
+			return ImmutableSet.of();
+		
+		Set<UUID> property = new LinkedHashSet<>();
+		for (String entry : propertyStr.split(",")) {
+			try {
+				property.add(UUID.fromString(entry.trim()));
+			} catch(IllegalArgumentException e) {
+				LOGGER.warn("Invalid id format for optionnal property : " + fieldName + " : " + entry + " => skipping it", e);
+			}
+		}
+		return ImmutableSet.copyOf(property);
+	}
 }
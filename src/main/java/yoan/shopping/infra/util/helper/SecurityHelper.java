@@ -1,45 +1,51 @@
 package yoan.shopping.infra.util.helper;
 
-import io.jsonwebtoken.Jwts;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
-import java.util.Date;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
 
 import org.apache.shiro.crypto.hash.Sha256Hash;
 
-import yoan.shopping.infra.config.guice.ShiroSecurityModule;
+import com.google.common.hash.Hashing;
 
 /**
  * Utility methods related to security
  * @author yoan
  */
 public final class SecurityHelper {
+	/** Iterations of the legacy SHA-256 hashes */
+	public static final int NB_HASH_ITERATION = 2;
 	
 	private SecurityHelper() { }
 	
 	/**
 	 * Basic way to get a salted hash
+	 * Legacy password hashes are still checked with it, new passwords go through the PasswordHasher
 	 * @param password
 	 * @param salt
 	 * @return salted hash base 64 encoded
 	 */
 	public static String hash(String password, Object salt) {
-		return new Sha256Hash(password, salt, ShiroSecurityModule.NB_HASH_ITERATION).toBase64();
+		return new Sha256Hash(password, salt, NB_HASH_ITERATION).toBase64();
 	}
 	
 	/**
-	 * Generate a JSON Web Token for a given user
-	 * @param userId
-	 * @return JWT as String
+	 * Unsalted digest of a random token, enough to store it without keeping its value
+	 * Not suited to passwords, they need a salt and a slow hash
+	 * @param token
+	 * @return SHA-256 hex encoded
 	 */
-	public static String generateJWT(UUID userId) {
-		Date now = new Date();
-		Date expiration = new Date(now.getTime() + TimeUnit.SECONDS.toMillis(3600));
-		return Jwts.builder()
-			.setSubject(userId.toString())
-			.setIssuedAt(now)
-			.setExpiration(expiration)
-			.compact();
+	public static String sha256Hex(String token) {
+		return Hashing.sha256().hashString(token, UTF_8).toString();
+	}
+	
+	/**
+	 * Fixed size unsalted digest of a random token, to index it in a few bytes
+	 * @param token
+	 * @param nbBytes : number of leading SHA-256 bytes kept
+	 * @return truncated SHA-256
+	 */
+	public static byte[] sha256Truncated(String token, int nbBytes) {
+		return Arrays.copyOf(Hashing.sha256().hashString(token, UTF_8).asBytes(), nbBytes);
 	}
 }
@@ -1,6 +1,7 @@
 package yoan.shopping.list.repository;
 
 import static yoan.shopping.infra.rest.error.Level.INFO;
+import static yoan.shopping.list.repository.ShoppingItemRepositoryErrorMessage.PROBLEM_UPDATE_ITEM_QUANTITY_TOO_LOW;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -11,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.infra.util.error.CommonErrorMessage;
 import yoan.shopping.infra.util.error.RepositoryErrorCode;
+import yoan.shopping.list.ItemState;
 import yoan.shopping.list.ShoppingItem;
 
 /**
@@ -24,20 +26,25 @@ public abstract class ShoppingItemRepository {
 	/**
 	 * Create a new shopping item
 	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
 	 * @param shoppingListToCreate
 	 */
-	public final void create(UUID listId, ShoppingItem shoppingListToCreate) {
+	public final void create(UUID listId, UUID ownerId, ShoppingItem shoppingListToCreate) {
 		if (listId == null) {
 			LOGGER.warn("Shopping item creation asked with null list ID");
 			return;
 		}
+		if (ownerId == null) {
+			LOGGER.warn("Shopping item creation asked with null owner ID");
+			return;
+		}
 		if (shoppingListToCreate == null) {
 			LOGGER.warn("Shopping item creation asked with null item");
 			return;
 		}
 		
 		ShoppingItem itemToCreate = forceCreationDate(shoppingListToCreate);
-		processCreate(listId, itemToCreate);
+		processCreate(listId, ownerId, itemToCreate);
 	}
 	
 	private ShoppingItem forceCreationDate(ShoppingItem item) {
@@ -51,111 +58,201 @@ public abstract class ShoppingItemRepository {
 	/**
 	 * Get a shopping item by its Id
 	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
 	 * @param itemId
 	 * @return found item or null if not found
 	 */
-	public final ShoppingItem getById(UUID listId, UUID itemId) {
+	public final ShoppingItem getById(UUID listId, UUID ownerId, UUID itemId) {
 		if (listId == null) {
 			LOGGER.warn("Shopping item asked with null list ID");
 			return null;
 		}
+		if (ownerId == null) {
+			LOGGER.warn("Shopping item asked with null owner ID");
+			return null;
+		}
 		if (itemId == null) {
 			LOGGER.warn("Shopping item asked with null id");
 			return null;
 		}
-		return processGetById(listId, itemId);
+		return processGetById(listId, ownerId, itemId);
 	}
 	
 	/**
 	 * Update a shopping item
+	 * The item is written without being read first : the write tells if it was found
 	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
 	 * @param askedListToUpdate
+	 * @throws ApplicationException if item not found
 	 */
-	public final void update(UUID listId, ShoppingItem askedListToUpdate) {
+	public final void update(UUID listId, UUID ownerId, ShoppingItem askedListToUpdate) {
 		if (listId == null) {
 			LOGGER.warn("Shopping item update asked with null list ID");
 			return;
 		}
+		if (ownerId == null) {
+			LOGGER.warn("Shopping item update asked with null owner ID");
+			return;
+		}
 		if (askedListToUpdate == null) {
 			LOGGER.warn("Shopping item update asked with null item");
 			return;
 		}
-		ShoppingItem existingShoppingItem = findItem(listId, askedListToUpdate.getId());
-		
-		ShoppingItem itemToUpdate = mergeUpdatesInExistingShoppingItem(existingShoppingItem, askedListToUpdate);
-		processUpdate(listId, itemToUpdate);
+		ShoppingItem itemToUpdate = forceLastUpdate(askedListToUpdate);
+		if (!processUpdate(listId, ownerId, itemToUpdate)) {
+			throw itemNotFound();
+		}
 	}
 	
-	ShoppingItem mergeUpdatesInExistingShoppingItem(ShoppingItem existingShoppingItem, ShoppingItem askedShoppingItemToUpdate) {
-		return ShoppingItem.Builder.createFrom(existingShoppingItem)
+	private ShoppingItem forceLastUpdate(ShoppingItem item) {
+		return ShoppingItem.Builder.createFrom(item)
 				.withLastUpdate(LocalDateTime.now())
-				.withQuantity(askedShoppingItemToUpdate.getQuantity())
-				.withName(askedShoppingItemToUpdate.getName())
-				.withState(askedShoppingItemToUpdate.getState())
 				.build();
 	}
 	
+	/**
+	 * Change the state of a shopping item, its other fields are left untouched
+	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
+	 * @param itemId
+	 * @param state : new item state
+	 * @throws ApplicationException if item not found
+	 */
+	public final void changeState(UUID listId, UUID ownerId, UUID itemId, ItemState state) {
+		if (listId == null || ownerId == null || itemId == null) {
+			LOGGER.warn("Shopping item state change asked with null list, owner or item ID");
+			return;
+		}
+		if (state == null) {
+			LOGGER.warn("Shopping item state change asked with null state");
+			return;
+		}
+		if (!processChangeState(listId, ownerId, itemId, state)) {
+			throw itemNotFound();
+		}
+	}
+	
+	/**
+	 * Add to the quantity of a shopping item, concurrent changes add up
+	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
+	 * @param itemId
+	 * @param increment : quantity to add, negative to remove
+	 * @throws ApplicationException if item not found, or if its quantity is lower than the quantity to remove
+	 */
+	public final void incrementQuantity(UUID listId, UUID ownerId, UUID itemId, int increment) {
+		if (listId == null || ownerId == null || itemId == null) {
+			LOGGER.warn("Shopping item quantity change asked with null list, owner or item ID");
+			return;
+		}
+		if (!processIncrementQuantity(listId, ownerId, itemId, increment)) {
+			//the write does not tell a missing item from a quantity too low, only that second case needs a read
+			if (increment < 0 && processGetById(listId, ownerId, itemId) != null) {
+				throw new ApplicationException(INFO, RepositoryErrorCode.CONFLICT, PROBLEM_UPDATE_ITEM_QUANTITY_TOO_LOW.getDevReadableMessage(itemId, -(long) increment));
+			}
+			throw itemNotFound();
+		}
+	}
+	
 	/**
 	 * Get a item by its Id and fail if it does not exist
 	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
 	 * @param itemId
 	 * @return found item
 	 * @throws ApplicationException if item not found
 	 */
-	public final ShoppingItem findItem(UUID listId, UUID itemId) {
-		ShoppingItem foundList = getById(listId, itemId);
+	public final ShoppingItem findItem(UUID listId, UUID ownerId, UUID itemId) {
+		ShoppingItem foundList = getById(listId, ownerId, itemId);
 		
 		if (foundList == null) {
-			throw new ApplicationException(INFO, RepositoryErrorCode.NOT_FOUND, CommonErrorMessage.NOT_FOUND.getDevReadableMessage("Item"));
+			throw itemNotFound();
 		}
 		
 		return foundList;
 	}
 	
+	private ApplicationException itemNotFound() {
+		return new ApplicationException(INFO, RepositoryErrorCode.NOT_FOUND, CommonErrorMessage.NOT_FOUND.getDevReadableMessage("Item"));
+	}
+	
 	
 	/**
-	 * Delete a user by its Id
+	 * Delete an item by its Id
 	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
 	 * @param itemId
+	 * @return true if the item was deleted, false if not found
 	 */
-	public final void deleteById(UUID listId, UUID itemId) {
+	public final boolean deleteById(UUID listId, UUID ownerId, UUID itemId) {
 		if (listId == null) {
 			LOGGER.warn("Shopping item deletion asked with null list ID");
-			return;
+			return false;
+		}
+		if (ownerId == null) {
+			LOGGER.warn("Shopping item deletion asked with null owner ID");
+			return false;
 		}
 		if (itemId == null) {
 			LOGGER.warn("Shopping item deletion asked with null Id");
-			return;
+			return false;
 		}
-		processDeleteById(listId, itemId);
+		return processDeleteById(listId, ownerId, itemId);
 	}
 	
 	/**
 	 * Create a new item
 	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
 	 * @param itemToCreate
 	 */
-	protected abstract void processCreate(UUID listId, ShoppingItem itemToCreate);
+	protected abstract void processCreate(UUID listId, UUID ownerId, ShoppingItem itemToCreate);
 	
 	/**
 	 * Get a item by its Id
 	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
 	 * @param itemId
 	 * @return found item
 	 */
-	protected abstract ShoppingItem processGetById(UUID listId, UUID itemId);
+	protected abstract ShoppingItem processGetById(UUID listId, UUID ownerId, UUID itemId);
 	
 	/**
 	 * Update a item
 	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
 	 * @param itemToUpdate
+	 * @return true if the item was found
 	 */
-	protected abstract void processUpdate(UUID listId, ShoppingItem itemToUpdate);
+	protected abstract boolean processUpdate(UUID listId, UUID ownerId, ShoppingItem itemToUpdate);
+	
+	/**
+	 * Change the state of an item
+	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
+	 * @param itemId
+	 * @param state
+	 * @return true if the item was found
+	 */
+	protected abstract boolean processChangeState(UUID listId, UUID ownerId, UUID itemId, ItemState state);
+	
+	/**
+	 * Add to the quantity of an item
+	 * @param listId : id of the list which the item is belonging
+	 * @param ownerId : id of the list owner
+	 * @param itemId
+	 * @param increment : quantity to add, negative to remove
+	 * @return true if the item was found with at least the quantity to remove
+	 */
+	protected abstract boolean processIncrementQuantity(UUID listId, UUID ownerId, UUID itemId, int increment);
 	
 	/**
 	 * Delete a item by its Id
 	 * @param listId : id of the list which the item is belonging
-	 * @param userId
+	 * @param ownerId : id of the list owner
+	 * @param itemId
+	 * @return true if the item was deleted
 	 */
-	protected abstract void processDeleteById(UUID listId, UUID itemId);
+	protected abstract boolean processDeleteById(UUID listId, UUID ownerId, UUID itemId);
 }
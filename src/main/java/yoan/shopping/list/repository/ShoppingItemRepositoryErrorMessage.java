@@ -17,6 +17,8 @@ public enum ShoppingItemRepositoryErrorMessage implements ErrorMessage {
 	PROBLEM_CREATION_ITEM_ALREADY_EXISTS("Error while creating item : %s already exists"),
 	/** Error while updating item : %s */
 	PROBLEM_UPDATE_ITEM("Error while updating item : %s"),
+	/** Error while updating item : %s quantity is lower than %s */
+	PROBLEM_UPDATE_ITEM_QUANTITY_TOO_LOW("Error while updating item : %s quantity is lower than %s"),
 	/** Error while deleting item : %s */
 	PROBLEM_DELETE_ITEM("Error while deleting item : %s");
 	
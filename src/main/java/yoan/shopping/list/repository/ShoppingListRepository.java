@@ -49,16 +49,21 @@ public abstract class ShoppingListRepository {
 	}
 	
 	/**
-	 * Get a shopping list by its Id
+	 * Get a shopping list by its Id, if owned by the given user
 	 * @param listId
-	 * @return found list or null if not found
+	 * @param ownerId
+	 * @return found list or null if not found or owned by another user
 	 */
-	public final ShoppingList getById(UUID listId) {
+	public final ShoppingList getById(UUID listId, UUID ownerId) {
 		if (listId == null) {
 			LOGGER.warn("Shopping list asked with null id");
 			return null;
 		}
-		return processGetById(listId);
+		if (ownerId == null) {
+			LOGGER.warn("Shopping list asked with null owner id");
+			return null;
+		}
+		return processGetById(listId, ownerId);
 	}
 	
 	/**
@@ -75,55 +80,66 @@ public abstract class ShoppingListRepository {
 	}
 	
 	/**
-	 * Update a shopping list
+	 * Update a shopping list, if it belongs to the owner set in the list
+	 * The list is written without being read first : the write tells if it was found
 	 * @param askedListToUpdate
+	 * @throws ApplicationException if list not found or owned by another user
 	 */
 	public final void update(ShoppingList askedListToUpdate) {
 		if (askedListToUpdate == null) {
 			LOGGER.warn("Shopping list update asked with null list");
 			return;
 		}
-		ShoppingList existingShoppingList = findList(askedListToUpdate.getId());
-		
-		ShoppingList ListToUpdate = mergeUpdatesInExistingShoppingList(existingShoppingList, askedListToUpdate);
-		processUpdate(ListToUpdate);
+		ShoppingList listToUpdate = forceLastUpdate(askedListToUpdate);
+		if (!processUpdate(listToUpdate)) {
+			throw listNotFound();
+		}
 	}
 	
-	private ShoppingList mergeUpdatesInExistingShoppingList(ShoppingList existingShoppingList, ShoppingList askedShoppingListToUpdate) {
-		return ShoppingList.Builder.createFrom(existingShoppingList)
+	private ShoppingList forceLastUpdate(ShoppingList list) {
+		return ShoppingList.Builder.createFrom(list)
 				.withLastUpdate(LocalDateTime.now())
-				.withItemList(askedShoppingListToUpdate.getItemList())
-				.withName(askedShoppingListToUpdate.getName())
 				.build();
 	}
 	
 	/**
 	 * Get a list by its Id and fail if it does not exist
 	 * @param listId
+	 * @param ownerId
 	 * @return found list
-	 * @throws ApplicationException if list not found
+	 * @throws ApplicationException if list not found or owned by another user
 	 */
-	public final ShoppingList findList(UUID listId) {
-		ShoppingList foundList = getById(listId);
+	public final ShoppingList findList(UUID listId, UUID ownerId) {
+		ShoppingList foundList = getById(listId, ownerId);
 		
 		if (foundList == null) {
-			throw new ApplicationException(INFO, RepositoryErrorCode.NOT_FOUND, CommonErrorMessage.NOT_FOUND.getDevReadableMessage("List"));
+			throw listNotFound();
 		}
 		
 		return foundList;
 	}
 	
+	private ApplicationException listNotFound() {
+		return new ApplicationException(INFO, RepositoryErrorCode.NOT_FOUND, CommonErrorMessage.NOT_FOUND.getDevReadableMessage("List"));
+	}
+	
 	
 	/**
-	 * Delete a user by its Id
+	 * Delete a list by its Id, if owned by the given user
 	 * @param listId
+	 * @param ownerId
+	 * @return true if the list was deleted, false if not found or owned by another user
 	 */
-	public final void deleteById(UUID listId) {
+	public final boolean deleteById(UUID listId, UUID ownerId) {
 		if (listId == null) {
 			LOGGER.warn("Shopping list deletion asked with null Id");
-			return;
+			return false;
+		}
+		if (ownerId == null) {
+			LOGGER.warn("Shopping list deletion asked with null owner Id");
+			return false;
 		}
-		processDeleteById(listId);
+		return processDeleteById(listId, ownerId);
 	}
 	
 	/**
@@ -133,23 +149,27 @@ public abstract class ShoppingListRepository {
 	protected abstract void processCreate(ShoppingList listToCreate);
 	
 	/**
-	 * Get a list by its Id
+	 * Get a list by its Id, if owned by the given user
 	 * @param listId
+	 * @param ownerId
 	 * @return found list
 	 */
-	protected abstract ShoppingList processGetById(UUID listId);
+	protected abstract ShoppingList processGetById(UUID listId, UUID ownerId);
 	
 	/**
-	 * Update a list
+	 * Update a list, if it belongs to the owner set in the list
 	 * @param listToUpdate
+	 * @return true if the list was found
 	 */
-	protected abstract void processUpdate(ShoppingList listToUpdate);
+	protected abstract boolean processUpdate(ShoppingList listToUpdate);
 	
 	/**
-	 * Delete a list by its Id
-	 * @param userId
+	 * Delete a list by its Id, if owned by the given user
+	 * @param listId
+	 * @param ownerId
+	 * @return true if the list was deleted
 	 */
-	protected abstract void processDeleteById(UUID listId);
+	protected abstract boolean processDeleteById(UUID listId, UUID ownerId);
 	
 	/**
 	 * Get all shopping list from an user
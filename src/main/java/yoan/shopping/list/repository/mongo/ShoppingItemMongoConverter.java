@@ -71,6 +71,19 @@ public class ShoppingItemMongoConverter extends MongoDocumentConverter<ShoppingI
 				.append(FIELD_LAST_UPDATE, DateHelper.toDate(item.getLastUpdate()));
 	}
 	
+	/**
+	 * Fields of an item changed by an update, its creation date is left out
+	 * @param fieldPrefix : path of the item in the list document
+	 * @param itemToUpdate
+	 * @return fields to set
+	 */
+	public Document getItemUpdate(String fieldPrefix, ShoppingItem itemToUpdate) {
+		return new Document(fieldPrefix + FIELD_NAME, itemToUpdate.getName())
+				.append(fieldPrefix + FIELD_QUANTITY, itemToUpdate.getQuantity())
+				.append(fieldPrefix + FIELD_STATE, itemToUpdate.getState().name())
+				.append(fieldPrefix + FIELD_LAST_UPDATE, DateHelper.toDate(itemToUpdate.getLastUpdate()));
+	}
+	
 	@Override
 	public Class<ShoppingItem> getEncoderClass() {
 		return ShoppingItem.class;
@@ -7,30 +7,33 @@ import static yoan.shopping.list.repository.ShoppingItemRepositoryErrorMessage.P
 import static yoan.shopping.list.repository.ShoppingItemRepositoryErrorMessage.PROBLEM_CREATION_ITEM_ALREADY_EXISTS;
 import static yoan.shopping.list.repository.ShoppingItemRepositoryErrorMessage.PROBLEM_DELETE_ITEM;
 import static yoan.shopping.list.repository.ShoppingItemRepositoryErrorMessage.PROBLEM_UPDATE_ITEM;
+import static yoan.shopping.list.repository.mongo.ShoppingItemMongoConverter.FIELD_QUANTITY;
+import static yoan.shopping.list.repository.mongo.ShoppingItemMongoConverter.FIELD_STATE;
 import static yoan.shopping.list.repository.mongo.ShoppingListMongoConverter.FIELD_ITEM_LIST;
 import static yoan.shopping.list.repository.mongo.ShoppingListMongoConverter.FIELD_LAST_UPDATE;
 import static yoan.shopping.list.repository.mongo.ShoppingListMongoRepository.LIST_COLLECTION;
+import static yoan.shopping.list.repository.mongo.ShoppingListMongoRepository.ownedListFilter;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.UUID;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
 
 import yoan.shopping.infra.db.Dbs;
 import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.infra.util.error.RepositoryErrorCode;
 import yoan.shopping.infra.util.helper.DateHelper;
-import yoan.shopping.infra.util.helper.MongoRepositoryHelper;
+import yoan.shopping.list.ItemState;
 import yoan.shopping.list.ShoppingItem;
 import yoan.shopping.list.ShoppingList;
 import yoan.shopping.list.repository.ShoppingItemRepository;
@@ -46,9 +49,11 @@ public class ShoppingItemMongoRepository extends ShoppingItemRepository {
 	private final MongoCollection<ShoppingList> listCollection;
 	private final ShoppingItemMongoConverter itemConverter;
 	private final ShoppingListRepository listRepository;
+	private final MongoOperationExecutor executor;
 	
-	private static final Logger LOGGER = LoggerFactory.getLogger(ShoppingItemMongoRepository.class);
 	private static final String FIELD_ITEM_ID_IN_LIST = FIELD_ITEM_LIST + '.' + FIELD_ID;
+	/** Prefix of the fields of the item matched by the filter */
+	private static final String MATCHED_ITEM_PREFIX = FIELD_ITEM_LIST + ".$.";
 	
 	@Inject
 	public ShoppingItemMongoRepository(MongoDbConnectionFactory mongoConnectionFactory, ShoppingListRepository listRepository) {
@@ -56,34 +61,35 @@ public class ShoppingItemMongoRepository extends ShoppingItemRepository {
 		listCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING, LIST_COLLECTION, ShoppingList.class);
 		this.listRepository = requireNonNull(listRepository);
 		itemConverter = new ShoppingItemMongoConverter();
+		executor = mongoConnectionFactory.createOperationExecutor(ShoppingItemMongoRepository.class);
 	}
 	
 	@Override
-	protected void processCreate(UUID listId, ShoppingItem itemToCreate) {
-		//ensure list exists before updating it
-		listRepository.findList(listId);
-		ensureItemNotExists(listId, itemToCreate);
+	protected void processCreate(UUID listId, UUID ownerId, ShoppingItem itemToCreate) {
+		//ensure the user list exists before updating it
+		ShoppingList list = listRepository.findList(listId, ownerId);
+		ensureItemNotExists(list, itemToCreate);
 		
-		Bson filter = Filters.eq(FIELD_ID, listId);
+		Bson filter = ownedListFilter(listId, ownerId);
 		Document addItem = new Document("$addToSet", new Document(FIELD_ITEM_LIST, itemConverter.toDocument(itemToCreate)));
 		addItem.append("$set", new Document(FIELD_LAST_UPDATE, DateHelper.toDate(itemToCreate.getCreationDate())));
-		try {
-			listCollection.updateOne(filter, addItem);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_CREATION_ITEM);
-		}
+		executor.runIdempotent("processCreate", PROBLEM_CREATION_ITEM, () -> listCollection.updateOne(filter, addItem));
 	}
 
-	private void ensureItemNotExists(UUID listId, ShoppingItem itemToCreate) {
-		ShoppingItem item = getById(listId, itemToCreate.getId());
+	private void ensureItemNotExists(ShoppingList list, ShoppingItem itemToCreate) {
+		ShoppingItem item = findInList(list, itemToCreate.getId());
 		if (item != null) {
 			throw new ApplicationException(INFO, RepositoryErrorCode.ALREADY_EXISTING, PROBLEM_CREATION_ITEM_ALREADY_EXISTS.getDevReadableMessage(itemToCreate.getId()));
 		}
 	}
 
 	@Override
-	protected ShoppingItem processGetById(UUID listId, UUID itemId) {
-		ShoppingList list = listRepository.findList(listId);
+	protected ShoppingItem processGetById(UUID listId, UUID ownerId, UUID itemId) {
+		ShoppingList list = listRepository.findList(listId, ownerId);
+		return findInList(list, itemId);
+	}
+	
+	private static ShoppingItem findInList(ShoppingList list, UUID itemId) {
 		for (ShoppingItem item : list.getItemList()) {
 			if (item.getId().equals(itemId)) {
 				return item;
@@ -93,27 +99,57 @@ public class ShoppingItemMongoRepository extends ShoppingItemRepository {
 	}
 
 	@Override
-	protected void processUpdate(UUID listId, ShoppingItem itemToUpdate) {
-		Bson filter = Filters.and(Filters.eq(FIELD_ITEM_ID_IN_LIST, itemToUpdate.getId()), Filters.eq(FIELD_ITEM_ID_IN_LIST, itemToUpdate.getId()));
-		Bson updatedItem = itemConverter.toDocument(itemToUpdate);
-		Document set = new Document(FIELD_ITEM_LIST + ".$", updatedItem).append(ShoppingListMongoConverter.FIELD_LAST_UPDATE, DateHelper.toDate(itemToUpdate.getLastUpdate()));
+	protected boolean processUpdate(UUID listId, UUID ownerId, ShoppingItem itemToUpdate) {
+		Bson filter = ownedItemFilter(listId, ownerId, itemToUpdate.getId());
+		//the item fields are set one by one, so that its creation date is kept without reading it
+		Document set = itemConverter.getItemUpdate(MATCHED_ITEM_PREFIX, itemToUpdate)
+			.append(FIELD_LAST_UPDATE, DateHelper.toDate(itemToUpdate.getLastUpdate()));
 		Document update = new Document("$set", set);
-		try {
-			listCollection.updateOne(filter, update);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_UPDATE_ITEM);
-		}
+		UpdateResult result = executor.executeIdempotent("processUpdate", PROBLEM_UPDATE_ITEM, () -> listCollection.updateOne(filter, update));
+		return result.getMatchedCount() > 0;
+	}
+
+	@Override
+	protected boolean processChangeState(UUID listId, UUID ownerId, UUID itemId, ItemState state) {
+		Bson filter = ownedItemFilter(listId, ownerId, itemId);
+		Document set = getLastUpdates().append(MATCHED_ITEM_PREFIX + FIELD_STATE, state.name());
+		Document update = new Document("$set", set);
+		UpdateResult result = executor.executeIdempotent("processChangeState", PROBLEM_UPDATE_ITEM, () -> listCollection.updateOne(filter, update));
+		return result.getMatchedCount() > 0;
 	}
 
 	@Override
-	protected void processDeleteById(UUID listId, UUID itemId) {
-		Bson filter = Filters.eq(FIELD_ID, listId);
+	protected boolean processIncrementQuantity(UUID listId, UUID ownerId, UUID itemId, int increment) {
+		//a removal only matches an item holding enough quantity, so that it never goes negative
+		Bson filter = increment >= 0 ? ownedItemFilter(listId, ownerId, itemId) : Filters.and(ownedListFilter(listId, ownerId),
+			Filters.elemMatch(FIELD_ITEM_LIST, Filters.and(Filters.eq(FIELD_ID, itemId), Filters.gte(FIELD_QUANTITY, -(long) increment))));
+		Document update = new Document("$inc", new Document(MATCHED_ITEM_PREFIX + FIELD_QUANTITY, increment))
+			.append("$set", getLastUpdates());
+		//not retried : an increment applied twice would count twice
+		UpdateResult result = executor.execute("processIncrementQuantity", PROBLEM_UPDATE_ITEM, () -> listCollection.updateOne(filter, update));
+		return result.getMatchedCount() > 0;
+	}
+	
+	/**
+	 * Last update of the matched item and of its list
+	 */
+	private static Document getLastUpdates() {
+		Date now = DateHelper.toDate(LocalDateTime.now());
+		return new Document(MATCHED_ITEM_PREFIX + ShoppingItemMongoConverter.FIELD_LAST_UPDATE, now).append(FIELD_LAST_UPDATE, now);
+	}
+
+	@Override
+	protected boolean processDeleteById(UUID listId, UUID ownerId, UUID itemId) {
+		//matching the item too, so that a missing item is not counted as deleted
+		Bson filter = ownedItemFilter(listId, ownerId, itemId);
 		Document pullItem = new Document("$pull", new Document(FIELD_ITEM_LIST, new Document(FIELD_ID, itemId)));
-		pullItem.append("$set", new Document(ShoppingListMongoConverter.FIELD_LAST_UPDATE, DateHelper.toDate(LocalDateTime.now())));
-		try {
-			listCollection.updateOne(filter, pullItem);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_DELETE_ITEM);
-		}
+		pullItem.append("$set", new Document(FIELD_LAST_UPDATE, DateHelper.toDate(LocalDateTime.now())));
+		//not retried : the item matched by the filter is pulled, a retried pull would not match it anymore
+		UpdateResult result = executor.execute("processDeleteById", PROBLEM_DELETE_ITEM, () -> listCollection.updateOne(filter, pullItem));
+		return result.getMatchedCount() > 0;
+	}
+	
+	private static Bson ownedItemFilter(UUID listId, UUID ownerId, UUID itemId) {
+		return Filters.and(ownedListFilter(listId, ownerId), Filters.eq(FIELD_ITEM_ID_IN_LIST, itemId));
 	}
 }
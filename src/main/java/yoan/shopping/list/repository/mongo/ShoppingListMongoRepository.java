@@ -4,6 +4,7 @@
 package yoan.shopping.list.repository.mongo;
 
 import static yoan.shopping.infra.db.mongo.MongoDocumentConverter.FIELD_ID;
+import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.ASCENDING;
 import static yoan.shopping.list.repository.ShoppingListRepositoryErrorMessage.PROBLEM_CREATION_LIST;
 import static yoan.shopping.list.repository.ShoppingListRepositoryErrorMessage.PROBLEM_DELETE_LIST;
 import static yoan.shopping.list.repository.ShoppingListRepositoryErrorMessage.PROBLEM_READ_LIST;
@@ -15,20 +16,20 @@ import java.util.List;
 import java.util.UUID;
 
 import org.bson.conversions.Bson;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
 
 import yoan.shopping.infra.db.Dbs;
 import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
-import yoan.shopping.infra.util.helper.MongoRepositoryHelper;
+import yoan.shopping.infra.db.mongo.MongoIndexEnsurer;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
 import yoan.shopping.list.ShoppingList;
 import yoan.shopping.list.repository.ShoppingListRepository;
 
@@ -42,66 +43,66 @@ public class ShoppingListMongoRepository extends ShoppingListRepository {
 	
 	private final MongoCollection<ShoppingList> listCollection;
 	private final ShoppingListMongoConverter listConverter;
-	
-	private static final Logger LOGGER = LoggerFactory.getLogger(ShoppingListMongoRepository.class);
+	private final MongoOperationExecutor executor;
 	
 	@Inject
 	public ShoppingListMongoRepository(MongoDbConnectionFactory mongoConnectionFactory) {
 		listCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING, LIST_COLLECTION, ShoppingList.class);
 		listConverter = new ShoppingListMongoConverter();
+		executor = mongoConnectionFactory.createOperationExecutor(ShoppingListMongoRepository.class);
+		ensureIndexes();
+	}
+	
+	private void ensureIndexes() {
+		MongoIndexEnsurer indexEnsurer = new MongoIndexEnsurer(listCollection);
+		indexEnsurer.logStartEnsuringIndexes();
+		
+		//lists of an owner, and a list checked against its owner from the index alone
+		indexEnsurer.ensureCompoundIndex(ASCENDING, FIELD_OWNER_ID, FIELD_ID);
+		
+		indexEnsurer.logEndEnsuringIndexes();
+	}
+	
+	/**
+	 * Filter on a list, matching only if it belongs to the given owner
+	 * @param listId
+	 * @param ownerId
+	 * @return filter
+	 */
+	public static Bson ownedListFilter(UUID listId, UUID ownerId) {
+		return Filters.and(Filters.eq(FIELD_ID, listId), Filters.eq(FIELD_OWNER_ID, ownerId));
 	}
 	
 	@Override
 	protected void processCreate(ShoppingList listToCreate) {
-		try {
-			listCollection.insertOne(listToCreate);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_CREATION_LIST);
-		}
+		executor.run("processCreate", PROBLEM_CREATION_LIST, () -> listCollection.insertOne(listToCreate));
 	}
 
 	@Override
-	protected ShoppingList processGetById(UUID listId) {
-		Bson filter = Filters.eq(FIELD_ID, listId);
-		ShoppingList foundList = null;
-		try {
-			foundList = listCollection.find().filter(filter).first();
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_LIST);
-		}
-		return foundList;
+	protected ShoppingList processGetById(UUID listId, UUID ownerId) {
+		Bson filter = ownedListFilter(listId, ownerId);
+		return executor.executeIdempotent("processGetById", PROBLEM_READ_LIST, () -> executor.withRemainingTime(listCollection.find().filter(filter)).first());
 	}
 
 	@Override
-	protected void processUpdate(ShoppingList listToUpdate) {
-		Bson filter = Filters.eq(FIELD_ID, listToUpdate.getId());
+	protected boolean processUpdate(ShoppingList listToUpdate) {
+		Bson filter = ownedListFilter(listToUpdate.getId(), listToUpdate.getOwnerId());
 		Bson update = listConverter.getListUpdate(listToUpdate);
-		try {
-			listCollection.updateOne(filter, update);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_UPDATE_LIST);
-		}
+		UpdateResult result = executor.executeIdempotent("processUpdate", PROBLEM_UPDATE_LIST, () -> listCollection.updateOne(filter, update));
+		return result.getMatchedCount() > 0;
 	}
 
 	@Override
-	protected void processDeleteById(UUID listId) {
-		Bson filter = Filters.eq(FIELD_ID, listId);
-		try {
-			listCollection.deleteOne(filter);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_DELETE_LIST);
-		}
+	protected boolean processDeleteById(UUID listId, UUID ownerId) {
+		Bson filter = ownedListFilter(listId, ownerId);
+		DeleteResult result = executor.execute("processDeleteById", PROBLEM_DELETE_LIST, () -> listCollection.deleteOne(filter));
+		return result.getDeletedCount() > 0;
 	}
 
 	@Override
 	protected ImmutableList<ShoppingList> processGetByOwner(UUID ownerId) {
 		Bson filter = Filters.eq(FIELD_OWNER_ID, ownerId);
-		List<ShoppingList> lists = Lists.newArrayList();
-		try {
-			lists = listCollection.find().filter(filter).into(lists);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_USER_LISTS);
-		}
+		List<ShoppingList> lists = executor.executeIdempotent("processGetByOwner", PROBLEM_READ_USER_LISTS, () -> executor.withRemainingTime(listCollection.find().filter(filter)).into(Lists.<ShoppingList>newArrayList()));
 		return ImmutableList.<ShoppingList>copyOf(lists);
 	}
 
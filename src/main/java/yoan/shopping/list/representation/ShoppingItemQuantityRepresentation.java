@@ -0,0 +1,62 @@
+package yoan.shopping.list.representation;
+
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * Shopping item quantity change Rest Representation
+ * The change is relative, so that concurrent changes add up instead of overwriting each other
+ * @author yoan
+ */
+@XmlRootElement(name = "itemQuantity")
+@ApiModel(value = "Shopping item quantity")
+public class ShoppingItemQuantityRepresentation {
+	/** Quantity to add to the item, negative to remove */
+	private Integer increment;
+	
+	public ShoppingItemQuantityRepresentation() {
+		super();
+	}
+	
+	public ShoppingItemQuantityRepresentation(int increment) {
+		super();
+		this.increment = increment;
+	}
+	
+	@XmlElement(name = "increment")
+	public Integer getIncrement() {
+		return increment;
+	}
+	
+	public void setIncrement(Integer increment) {
+		this.increment = increment;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(increment);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        ShoppingItemQuantityRepresentation that = (ShoppingItemQuantityRepresentation) obj;
+        return Objects.equals(this.increment, that.increment);
+    }
+	
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("increment", increment).toString();
+	}
+}
@@ -0,0 +1,81 @@
+package yoan.shopping.list.representation;
+
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static yoan.shopping.infra.rest.error.Level.ERROR;
+import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.CommonErrorMessage.INVALID;
+
+import java.util.Objects;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.google.common.base.MoreObjects;
+
+import io.swagger.annotations.ApiModel;
+import yoan.shopping.infra.rest.error.WebApiException;
+import yoan.shopping.list.ItemState;
+
+/**
+ * Shopping item state change Rest Representation
+ * @author yoan
+ */
+@XmlRootElement(name = "itemState")
+@ApiModel(value = "Shopping item state")
+public class ShoppingItemStateRepresentation {
+	/** New item state */
+	private String state;
+	
+	public ShoppingItemStateRepresentation() {
+		super();
+	}
+	
+	public ShoppingItemStateRepresentation(String state) {
+		super();
+		this.state = state;
+	}
+	
+	/**
+	 * @param representation
+	 * @return asked item state
+	 * @throws WebApiException if the state is missing or unknown
+	 */
+	public static ItemState toItemState(ShoppingItemStateRepresentation representation) {
+		ItemState state = representation == null || representation.state == null ? null : ItemState.of(representation.state);
+		if (state == null) {
+			throw new WebApiException(BAD_REQUEST, ERROR, API_RESPONSE, INVALID.getDevReadableMessage("item state"));
+		}
+		return state;
+	}
+	
+	@XmlElement(name = "state")
+	public String getState() {
+		return state;
+	}
+	
+	public void setState(String state) {
+		this.state = state;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(state);
+	}
+
+	@Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        ShoppingItemStateRepresentation that = (ShoppingItemStateRepresentation) obj;
+        return Objects.equals(this.state, that.state);
+    }
+	
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("state", state).toString();
+	}
+}
@@ -1,11 +1,14 @@
 package yoan.shopping.list.resource;
 
 import static java.util.Objects.requireNonNull;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static yoan.shopping.infra.config.guice.ShoppingWebModule.CONNECTED_USER;
 import static yoan.shopping.infra.config.guice.SwaggerModule.SECURITY_DEFINITION_OAUTH2;
+import static yoan.shopping.infra.rest.error.Level.ERROR;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.CommonErrorMessage.INVALID;
 import static yoan.shopping.list.resource.ShoppingItemResourceErrorMessage.ITEM_NOT_FOUND;
 
 import java.net.URI;
@@ -25,6 +28,8 @@ import javax.ws.rs.core.UriBuilder;
 
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 
 import io.swagger.annotations.Api;
@@ -34,12 +39,16 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 import yoan.shopping.infra.rest.Link;
+import yoan.shopping.infra.rest.PATCH;
 import yoan.shopping.infra.rest.RestAPI;
 import yoan.shopping.infra.rest.error.WebApiException;
 import yoan.shopping.infra.util.ResourceUtil;
+import yoan.shopping.list.ItemState;
 import yoan.shopping.list.ShoppingItem;
 import yoan.shopping.list.repository.ShoppingItemRepository;
+import yoan.shopping.list.representation.ShoppingItemQuantityRepresentation;
 import yoan.shopping.list.representation.ShoppingItemRepresentation;
+import yoan.shopping.list.representation.ShoppingItemStateRepresentation;
 import yoan.shopping.list.representation.ShoppingItemWriteRepresentation;
 import yoan.shopping.user.User;
 
@@ -50,16 +59,16 @@ import yoan.shopping.user.User;
 @Path("/api/list/{listId}/item")
 @Api(value = "Shopping Item", authorizations = { @Authorization(value = SECURITY_DEFINITION_OAUTH2, scopes = {})})
 @Produces({ "application/json", "application/xml" })
+@Singleton
 public class ShoppingItemResource extends RestAPI {
-	/** Currently connected user */
-	@SuppressWarnings("unused")
-	private final User connectedUser;
+	/** Currently connected user, resolved for each request */
+	private final Provider<User> connectedUserProvider;
 	private final ShoppingItemRepository itemRepo;
 	
 	@Inject
-	public ShoppingItemResource(@Named(CONNECTED_USER) User connectedUser, ShoppingItemRepository itemRepo) {
+	public ShoppingItemResource(@Named(CONNECTED_USER) Provider<User> connectedUserProvider, ShoppingItemRepository itemRepo) {
 		super();
-		this.connectedUser = requireNonNull(connectedUser);
+		this.connectedUserProvider = requireNonNull(connectedUserProvider);
 		this.itemRepo = Objects.requireNonNull(itemRepo);
 	}
 	
@@ -73,6 +82,10 @@ public class ShoppingItemResource extends RestAPI {
 		links.add(new Link("getById", getByIdURI));
 		URI updateURI = getUriInfo().getAbsolutePathBuilder().path(ShoppingItemResource.class, "update").build("{itemId}");
 		links.add(new Link("update", updateURI));
+		URI changeStateURI = getUriInfo().getAbsolutePathBuilder().path(ShoppingItemResource.class, "changeState").build("{itemId}");
+		links.add(new Link("changeState", changeStateURI));
+		URI incrementQuantityURI = getUriInfo().getAbsolutePathBuilder().path(ShoppingItemResource.class, "incrementQuantity").build("{itemId}");
+		links.add(new Link("incrementQuantity", incrementQuantityURI));
 		URI deleteByIdURI = getUriInfo().getAbsolutePathBuilder().path(ShoppingItemResource.class, "deleteById").build("{itemId}");
 		links.add(new Link("deleteById", deleteByIdURI));
 		
@@ -91,7 +104,7 @@ public class ShoppingItemResource extends RestAPI {
 		UUID newItemId = UUID.randomUUID();
 		ShoppingItem createdItem = ShoppingItemWriteRepresentation.toShoppingItem(itemToCreate, newItemId);
 		
-		itemRepo.create(listId, createdItem);
+		itemRepo.create(listId, getConnectedUserId(), createdItem);
 		ShoppingItemRepresentation createdShoppingItemRepresentation = new ShoppingItemRepresentation(createdItem);
 		UriBuilder ub = getUriInfo().getAbsolutePathBuilder();
         URI location = ub.path(createdItem.getId().toString()).build();
@@ -126,13 +139,59 @@ public class ShoppingItemResource extends RestAPI {
 		UUID listId = extractListId(listIdStr);
 		UUID itemId = ResourceUtil.getIdfromParam("itemId", itemIdStr);
 		ShoppingItem updatedItem = ShoppingItemWriteRepresentation.toShoppingItem(itemToUpdate, itemId);
-		itemRepo.update(listId, updatedItem);
+		itemRepo.update(listId, getConnectedUserId(), updatedItem);
 
 		UriBuilder ub = getUriInfo().getAbsolutePathBuilder();
         URI location = ub.path(updatedItem.getId().toString()).build();
 		return Response.noContent().location(location).build();
 	}
 	
+	@PATCH
+	@Path("/{itemId}/state")
+	@ApiOperation(value = "Change item state", notes = "This can only be done by the logged in user. Only the state is written.")
+	@ApiResponses(value = {
+		@ApiResponse(code = 204, message = "Item state changed"),
+		@ApiResponse(code = 400, message = "Invalid item Id or state"),
+		@ApiResponse(code = 404, message = "Item not found") })
+	public Response changeState(@PathParam("listId") @ApiParam(value = "Shopping list identifier", required = true) String listIdStr,
+								@PathParam("itemId") @ApiParam(value = "Shopping item identifier", required = true) String itemIdStr,
+								@ApiParam(value = "New item state", required = true) ShoppingItemStateRepresentation stateChange) {
+		UUID listId = extractListId(listIdStr);
+		UUID itemId = ResourceUtil.getIdfromParam("itemId", itemIdStr);
+		ItemState state = ShoppingItemStateRepresentation.toItemState(stateChange);
+		itemRepo.changeState(listId, getConnectedUserId(), itemId, state);
+		return noContentWithItemLocation(listId, itemId);
+	}
+	
+	@PATCH
+	@Path("/{itemId}/quantity")
+	@ApiOperation(value = "Change item quantity", notes = "This can only be done by the logged in user. The increment is added to the current quantity, so that concurrent changes add up.")
+	@ApiResponses(value = {
+		@ApiResponse(code = 204, message = "Item quantity changed"),
+		@ApiResponse(code = 400, message = "Invalid item Id or quantity"),
+		@ApiResponse(code = 404, message = "Item not found"),
+		@ApiResponse(code = 409, message = "Item quantity lower than the quantity to remove") })
+	public Response incrementQuantity(@PathParam("listId") @ApiParam(value = "Shopping list identifier", required = true) String listIdStr,
+									  @PathParam("itemId") @ApiParam(value = "Shopping item identifier", required = true) String itemIdStr,
+									  @ApiParam(value = "Quantity to add, negative to remove", required = true) ShoppingItemQuantityRepresentation quantityChange) {
+		UUID listId = extractListId(listIdStr);
+		UUID itemId = ResourceUtil.getIdfromParam("itemId", itemIdStr);
+		//a missing or zero increment would be a silent no-op
+		if (quantityChange == null || quantityChange.getIncrement() == null || quantityChange.getIncrement() == 0) {
+			throw new WebApiException(BAD_REQUEST, ERROR, API_RESPONSE, INVALID.getDevReadableMessage("item quantity"));
+		}
+		itemRepo.incrementQuantity(listId, getConnectedUserId(), itemId, quantityChange.getIncrement());
+		return noContentWithItemLocation(listId, itemId);
+	}
+	
+	/**
+	 * The PATCH paths end with the changed field : the location is the item itself
+	 */
+	private Response noContentWithItemLocation(UUID listId, UUID itemId) {
+		URI location = getUriInfo().getBaseUriBuilder().path(ShoppingItemResource.class).path(itemId.toString()).build(listId);
+		return Response.noContent().location(location).build();
+	}
+	
 	@DELETE
 	@Path("/{itemId}")
 	@ApiOperation(value = "Delete item by Id", notes = "This can only be done by the logged in user.")
@@ -143,14 +202,16 @@ public class ShoppingItemResource extends RestAPI {
 	public Response deleteById(@PathParam("listId") @ApiParam(value = "Shopping list identifier", required = true) String listIdStr,
 							   @PathParam("itemId") @ApiParam(value = "Shopping item identifier", required = true) String itemIdStr) {
 		UUID listId = extractListId(listIdStr);
-		ShoppingItem foundItem = findShoppingItemById(listId, itemIdStr);
-		itemRepo.deleteById(listId, foundItem.getId());
+		UUID itemId = ResourceUtil.getIdfromParam("itemId", itemIdStr);
+		if (!itemRepo.deleteById(listId, getConnectedUserId(), itemId)) {
+			throw new WebApiException(NOT_FOUND, INFO, API_RESPONSE, ITEM_NOT_FOUND);
+		}
 		return Response.ok().build();
 	}
 	
 	private ShoppingItem findShoppingItemById(UUID listId, String itemIdStr) {
 		UUID itemId = ResourceUtil.getIdfromParam("itemId", itemIdStr);
-		ShoppingItem foundShoppingItem = itemRepo.getById(listId, itemId);
+		ShoppingItem foundShoppingItem = itemRepo.getById(listId, getConnectedUserId(), itemId);
 		
 		if (foundShoppingItem == null) {
 			throw new WebApiException(NOT_FOUND, INFO, API_RESPONSE, ITEM_NOT_FOUND);
@@ -162,4 +223,11 @@ public class ShoppingItemResource extends RestAPI {
 	private UUID extractListId(String listIdStr) {
 		return ResourceUtil.getIdfromParam("listId", listIdStr);
 	}
+	
+	/**
+	 * The items are only found in the lists of the connected user
+	 */
+	private UUID getConnectedUserId() {
+		return connectedUserProvider.get().getId();
+	}
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package yoan.shopping.list.resource;
 
+import static javax.ws.rs.core.Response.Status.FORBIDDEN;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static yoan.shopping.infra.config.guice.ShoppingWebModule.CONNECTED_USER;
 import static yoan.shopping.infra.config.guice.SwaggerModule.SECURITY_DEFINITION_OAUTH2;
@@ -7,6 +8,7 @@ import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
 import static yoan.shopping.list.resource.ShoppingListResourceErrorMessage.LISTS_NOT_FOUND;
 import static yoan.shopping.list.resource.ShoppingListResourceErrorMessage.LIST_NOT_FOUND;
+import static yoan.shopping.list.resource.ShoppingListResourceErrorMessage.NOT_LIST_OWNER;
 
 import java.net.URI;
 import java.util.ArrayList;
@@ -27,6 +29,8 @@ import javax.ws.rs.core.UriBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 
 import io.swagger.annotations.Api;
@@ -52,15 +56,16 @@ import yoan.shopping.user.User;
 @Path("/api/list")
 @Api(value = "Shopping List", authorizations = { @Authorization(value = SECURITY_DEFINITION_OAUTH2, scopes = {})})
 @Produces({ "application/json", "application/xml" })
+@Singleton
 public class ShoppingListResource extends RestAPI {
-	/** Currently connected user */
-	//private final User connectedUser;
+	/** Currently connected user, resolved for each request */
+	private final Provider<User> connectedUserProvider;
 	private final ShoppingListRepository listRepo;
 	
 	@Inject
-	public ShoppingListResource(@Named(CONNECTED_USER) User connectedUser, ShoppingListRepository listRepo) {
+	public ShoppingListResource(@Named(CONNECTED_USER) Provider<User> connectedUserProvider, ShoppingListRepository listRepo) {
 		super();
-		//this.connectedUser = requireNonNull(connectedUser);
+		this.connectedUserProvider = Objects.requireNonNull(connectedUserProvider);
 		this.listRepo = Objects.requireNonNull(listRepo);
 	}
 	
@@ -86,10 +91,12 @@ public class ShoppingListResource extends RestAPI {
 	@ApiOperation(value = "Create shopping list", notes = "This can only be done by the logged in user.")
 	@ApiResponses(value = {
 		@ApiResponse(code = 201, message = "List created"),
-		@ApiResponse(code = 400, message = "Invalid list")})
+		@ApiResponse(code = 400, message = "Invalid list"),
+		@ApiResponse(code = 403, message = "List of another user")})
 	public Response create(@ApiParam(value = "List to create", required = true) ShoppingListWriteRepresentation listToCreate) {
 		UUID newListId = UUID.randomUUID();
 		ShoppingList createdList = ShoppingListWriteRepresentation.toShoppingList(listToCreate, newListId);
+		ensureConnectedUserIsOwner(createdList.getOwnerId());
 		
 		listRepo.create(createdList);
 		ShoppingListRepresentation createdShoppingListRepresentation = new ShoppingListRepresentation(createdList, getUriInfo());
@@ -117,6 +124,7 @@ public class ShoppingListResource extends RestAPI {
 	@ApiResponses(value = {
 		@ApiResponse(code = 200, message = "Found lists"),
 		@ApiResponse(code = 400, message = "Invalid owner Id"),
+		@ApiResponse(code = 403, message = "Lists of another user"),
 		@ApiResponse(code = 404, message = "Owner not found") })
 	public Response getByOwnerId(@PathParam("ownerId") @ApiParam(value = "Owner identifier", required = true) String ownerIdStr) {
 		ImmutableList<ShoppingList> foundLists = findShoppingListByOwnerId(ownerIdStr);
@@ -131,11 +139,13 @@ public class ShoppingListResource extends RestAPI {
 	@ApiResponses(value = {
 		@ApiResponse(code = 204, message = "Shopping list updated"),
 		@ApiResponse(code = 400, message = "Invalid list Id"),
+		@ApiResponse(code = 403, message = "List of another user"),
 		@ApiResponse(code = 404, message = "List not found") })
 	public Response update(@PathParam("listId") @ApiParam(value = "Shopping list identifier", required = true) String listIdStr, 
 						   @ApiParam(value = "List to update", required = true) ShoppingListWriteRepresentation listToUpdate) {
 		UUID listId = ResourceUtil.getIdfromParam("listId", listIdStr);
 		ShoppingList updatedList = ShoppingListWriteRepresentation.toShoppingList(listToUpdate, listId);
+		ensureConnectedUserIsOwner(updatedList.getOwnerId());
 		listRepo.update(updatedList);
 
 		UriBuilder ub = getUriInfo().getAbsolutePathBuilder();
@@ -151,14 +161,19 @@ public class ShoppingListResource extends RestAPI {
 		@ApiResponse(code = 400, message = "Invalid list Id"),
 		@ApiResponse(code = 404, message = "List not found") })
 	public Response deleteById(@PathParam("listId") @ApiParam(value = "Shopping list identifier", required = true) String listIdStr) {
-		ShoppingList foundList = findShoppingListById(listIdStr);
-		listRepo.deleteById(foundList.getId());
+		UUID listId = ResourceUtil.getIdfromParam("listId", listIdStr);
+		if (!listRepo.deleteById(listId, connectedUserProvider.get().getId())) {
+			throw new WebApiException(NOT_FOUND, INFO, API_RESPONSE, LIST_NOT_FOUND);
+		}
 		return Response.ok().build();
 	}
 	
+	/**
+	 * Get a list of the connected user, the lists of the other users are not found either
+	 */
 	private ShoppingList findShoppingListById(String listIdStr) {
 		UUID listId = ResourceUtil.getIdfromParam("listId", listIdStr);
-		ShoppingList foundShoppingList = listRepo.getById(listId);
+		ShoppingList foundShoppingList = listRepo.getById(listId, connectedUserProvider.get().getId());
 		
 		if (foundShoppingList == null) {
 			throw new WebApiException(NOT_FOUND, INFO, API_RESPONSE, LIST_NOT_FOUND);
@@ -169,6 +184,7 @@ public class ShoppingListResource extends RestAPI {
 	
 	private ImmutableList<ShoppingList> findShoppingListByOwnerId(String ownerIdStr) {
 		UUID ownerId = ResourceUtil.getIdfromParam("ownerId", ownerIdStr);
+		ensureConnectedUserIsOwner(ownerId);
 		ImmutableList<ShoppingList> foundLists = listRepo.getByOwner(ownerId);
 		
 		if (foundLists.isEmpty()) {
@@ -177,4 +193,13 @@ public class ShoppingListResource extends RestAPI {
 		
 		return foundLists;
 	}
+	
+	/**
+	 * The owner is given by the request : no need to query the lists to know they are forbidden
+	 */
+	private void ensureConnectedUserIsOwner(UUID ownerId) {
+		if (!connectedUserProvider.get().getId().equals(ownerId)) {
+			throw new WebApiException(FORBIDDEN, INFO, API_RESPONSE, NOT_LIST_OWNER);
+		}
+	}
 }
\ No newline at end of file
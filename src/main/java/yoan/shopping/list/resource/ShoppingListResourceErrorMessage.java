@@ -13,7 +13,9 @@ public enum ShoppingListResourceErrorMessage implements ErrorMessage {
 	/** List not found */
 	LIST_NOT_FOUND("List not found"),
 	/** Lists not found */
-	LISTS_NOT_FOUND("Lists not found for owner id : %s");
+	LISTS_NOT_FOUND("Lists not found for owner id : %s"),
+	/** Lists of another user */
+	NOT_LIST_OWNER("Lists of another user can not be read or written");
 
 	private String message;
 	
@@ -20,6 +20,8 @@ import javax.ws.rs.core.Response;
 
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 
 import io.swagger.annotations.Api;
@@ -42,17 +44,18 @@ import yoan.shopping.user.User;
 @Path("/api")
 @Api(value = "Root", authorizations = { @Authorization(value = SECURITY_DEFINITION_OAUTH2, scopes = {})})
 @Produces({ "application/json", "application/xml" })
+@Singleton
 public class RootResource extends RestAPI {
-	/** Currently connected user */
-	private final User connectedUser;
+	/** Currently connected user, resolved for each request */
+	private final Provider<User> connectedUserProvider;
 	/** Repository to get the build informations */
 	private final BuildInfoRepository buildInfoRepository;
 	
 	@Inject
-	public RootResource(@Named(CONNECTED_USER) User connectedUser, BuildInfoRepository buildInfoRepo) {
+	public RootResource(@Named(CONNECTED_USER) Provider<User> connectedUserProvider, BuildInfoRepository buildInfoRepo) {
 		super();
 		this.buildInfoRepository = requireNonNull(buildInfoRepo);
-		this.connectedUser = requireNonNull(connectedUser);
+		this.connectedUserProvider = requireNonNull(connectedUserProvider);
 	}
 	
 	@OPTIONS
@@ -63,7 +66,7 @@ public class RootResource extends RestAPI {
 		List<Link> links = getRootLinks();
 		BuildInfo buildInfo = buildInfoRepository.getCurrentBuildInfos();
 		
-		RootRepresentation root = new RootRepresentation(buildInfo, connectedUser.getId(), links);
+		RootRepresentation root = new RootRepresentation(buildInfo, connectedUserProvider.get().getId(), links);
 		
 		return Response.ok(root).build();
 	}
@@ -4,15 +4,13 @@ import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.RepositoryErrorCode.ALREADY_EXISTING;
 import static yoan.shopping.user.repository.UserRepositoryErrorCode.UNSECURE_PASSWORD;
 import static yoan.shopping.user.resource.UserResourceErrorMessage.ALREADY_EXISTING_USER_WITH_EMAIL;
 
-import java.util.UUID;
-
 import yoan.shopping.infra.rest.error.WebApiException;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.user.repository.SecuredUserRepository;
-import yoan.shopping.user.repository.UserRepository;
 
 /**
  * Helper for user creation
@@ -20,14 +18,13 @@ import yoan.shopping.user.repository.UserRepository;
  */
 public final class UserCreationHelper {
 
-	public static void ensureUserNotExists(UserRepository userRepo, UUID userId, String email) {
-		boolean userExists = userRepo.checkUserExistsByIdOrEmail(userId, email);
-		
-		if (userExists) {
-			throw new WebApiException(CONFLICT, ERROR, API_RESPONSE, ALREADY_EXISTING_USER_WITH_EMAIL.getDevReadableMessage(email));
-		}
-	}
-	
+	/**
+	 * Create the user without checking first if it exists : the repository rejects an already used id or email
+	 * @param securedUserRepo
+	 * @param userCreated
+	 * @param password
+	 * @throws WebApiException with 409 if a user already exists with the same email
+	 */
 	public static void createUser(SecuredUserRepository securedUserRepo, User userCreated, String password) {
 		try {
 			securedUserRepo.create(userCreated, password);
@@ -35,6 +32,9 @@ public final class UserCreationHelper {
 			if (ae.getErrorCode() == UNSECURE_PASSWORD) {
 				throw new WebApiException(BAD_REQUEST, ERROR, API_RESPONSE, ae.getMessage());
 			}
+			if (ae.getErrorCode() == ALREADY_EXISTING) {
+				throw new WebApiException(CONFLICT, ERROR, API_RESPONSE, ALREADY_EXISTING_USER_WITH_EMAIL.getDevReadableMessage(userCreated.getEmail()));
+			}
 			throw ae;
 		}
 	}
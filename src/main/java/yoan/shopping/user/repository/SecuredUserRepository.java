@@ -3,6 +3,7 @@
  */
 package yoan.shopping.user.repository;
 
+import static java.util.Objects.requireNonNull;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.RepositoryErrorCode.NOT_FOUND;
@@ -11,14 +12,18 @@ import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_P
 import static yoan.shopping.user.resource.UserResourceErrorMessage.USER_NOT_FOUND;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import yoan.shopping.infra.security.PasswordHasher;
 import yoan.shopping.infra.util.error.ApplicationException;
-import yoan.shopping.infra.util.helper.SecurityHelper;
+import yoan.shopping.infra.util.error.RetryLaterException;
 import yoan.shopping.user.SecuredUser;
 import yoan.shopping.user.User;
 
@@ -30,6 +35,13 @@ public abstract class SecuredUserRepository {
 	
 	public static final Logger LOGGER = LoggerFactory.getLogger(SecuredUserRepository.class);
 	
+	private final List<Consumer<UUID>> changeListeners = new CopyOnWriteArrayList<>();
+	private final PasswordHasher passwordHasher;
+	
+	protected SecuredUserRepository(PasswordHasher passwordHasher) {
+		this.passwordHasher = requireNonNull(passwordHasher);
+	}
+	
 	/**
 	 * Create a new User
 	 * @param userToCreate
@@ -80,7 +92,47 @@ public abstract class SecuredUserRepository {
 	}
 	
 	public String hashPassword(String password, Object salt) {
-		return SecurityHelper.hash(password, salt);
+		return passwordHasher.hash(password, salt);
+	}
+	
+	/**
+	 * Check a user password, and upgrade its hash if it was computed with a legacy algorithm or cost
+	 * @param user : user with security infos
+	 * @param password : raw password
+	 * @return true if the password matches
+	 * @throws RetryLaterException if too many passwords are waiting to be hashed
+	 */
+	public boolean checkPassword(SecuredUser user, String password) {
+		if (user == null || !passwordHasher.matches(password, user.getSalt(), user.getPassword())) {
+			return false;
+		}
+		upgradePasswordHash(user, password);
+		return true;
+	}
+	
+	/**
+	 * Hash again an already checked password if its stored hash is outdated
+	 * Skipped while the hashing pool is saturated, the next login will try again
+	 * @param user : user with the stored hash
+	 * @param password : raw password matching the stored hash
+	 */
+	public void upgradePasswordHash(SecuredUser user, String password) {
+		if (user == null || !passwordHasher.needsRehash(user.getPassword())) {
+			return;
+		}
+		String upgradedHash;
+		try {
+			upgradedHash = hashPassword(password, user.getSalt());
+		} catch(RetryLaterException rle) {
+			LOGGER.debug("Password hash upgrade of user {} postponed : {}", user.getId(), rle.getMessage());
+			return;
+		}
+		SecuredUser upgradedUser = SecuredUser.Builder.createFrom(user)
+			.withPassword(upgradedHash)
+			.withSalt(user.getSalt())
+			.build();
+		processUpgradePasswordHash(upgradedUser, user.getPassword());
+		notifyChange(user.getId());
 	}
 	
 	/**
@@ -139,6 +191,19 @@ public abstract class SecuredUserRepository {
 		existingUser = forceLastUpdateDate(existingUser);
 		SecuredUser securedUserToUpdate = generateSecuredUser(existingUser, newPassword);
 		processChangePassword(securedUserToUpdate);
+		notifyChange(userId);
+	}
+	
+	/**
+	 * Be told about each password change, to evict the user from a cache
+	 * @param listener : called with the user id
+	 */
+	public void addChangeListener(Consumer<UUID> listener) {
+		changeListeners.add(requireNonNull(listener));
+	}
+	
+	protected void notifyChange(UUID userId) {
+		changeListeners.forEach(listener -> listener.accept(userId));
 	}
 	
 	private User forceLastUpdateDate(User user) {
@@ -170,4 +235,11 @@ public abstract class SecuredUserRepository {
 	 * @param userToUpdate
 	 */
 	protected abstract void processChangePassword(SecuredUser userToUpdate);
+	
+	/**
+	 * Replace the password hash, only if it was not changed since it was read
+	 * @param userToUpdate : user with the upgraded hash
+	 * @param previousHash : hash the password was checked against
+	 */
+	protected abstract void processUpgradePasswordHash(SecuredUser userToUpdate, String previousHash);
 }
@@ -1,11 +1,15 @@
 package yoan.shopping.user.repository;
 
+import static java.util.Objects.requireNonNull;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.RepositoryErrorCode.NOT_FOUND;
 import static yoan.shopping.user.resource.UserResourceErrorMessage.USER_NOT_FOUND;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -22,6 +26,8 @@ public abstract class UserRepository {
 	
 	public static final Logger LOGGER = LoggerFactory.getLogger(UserRepository.class);
 	
+	private final List<Consumer<UUID>> changeListeners = new CopyOnWriteArrayList<>();
+	
 	/**
 	 * Create a new User
 	 * @param askedUserToCreate
@@ -70,24 +76,25 @@ public abstract class UserRepository {
 	
 	/**
 	 * Update a User
+	 * The user is written without being read first : the write tells if it was found
 	 * @param askedUserToUpdate
+	 * @throws ApplicationException if user not found
 	 */
 	public final void update(User askedUserToUpdate) {
 		if (askedUserToUpdate == null) {
 			LOGGER.warn("User update asked with null user");
 			return;
 		}
-		User existingUser = findUser(askedUserToUpdate.getId());
-		
-		User userToUpdate = mergeUpdatesInExistingUser(existingUser, askedUserToUpdate);
-		processUpdate(userToUpdate);
+		User userToUpdate = forceLastUpdate(askedUserToUpdate);
+		if (!processUpdate(userToUpdate)) {
+			throw new ApplicationException(INFO, NOT_FOUND, USER_NOT_FOUND);
+		}
+		notifyChange(userToUpdate.getId());
 	}
 	
-	private User mergeUpdatesInExistingUser(User existingUser, User askedUserToUpdate) {
-		return User.Builder.createFrom(existingUser)
+	private User forceLastUpdate(User user) {
+		return User.Builder.createFrom(user)
 				.withLastUpdate(LocalDateTime.now())
-				.withName(askedUserToUpdate.getName())
-				.withEmail(askedUserToUpdate.getEmail())
 				.build();
 	}
 	
@@ -111,27 +118,28 @@ public abstract class UserRepository {
 	/**
 	 * Delete a user by its Id
 	 * @param userId
+	 * @return true if the user was deleted, false if not found
 	 */
-	public final void deleteById(UUID userId) {
+	public final boolean deleteById(UUID userId) {
 		if (userId == null) {
 			LOGGER.warn("User deletion asked with null Id");
-			return;
+			return false;
 		}
-		processDeleteById(userId);
+		boolean deleted = processDeleteById(userId);
+		notifyChange(userId);
+		return deleted;
 	}
 	
 	/**
-	 * Check if a user exists with given id or email
-	 * @param userId
-	 * @param email
-	 * @return boolean
+	 * Be told about each updated or deleted user, to evict it from a cache
+	 * @param listener : called with the user id
 	 */
-	public boolean checkUserExistsByIdOrEmail(UUID userId, String email) {
-		if (userId == null && StringUtils.isBlank(email)) {
-			LOGGER.warn("Checking user existence with null Id or email");
-			return false;
-		}
-		return countByIdOrEmail(userId, email) > 0;
+	public void addChangeListener(Consumer<UUID> listener) {
+		changeListeners.add(requireNonNull(listener));
+	}
+	
+	protected void notifyChange(UUID userId) {
+		changeListeners.forEach(listener -> listener.accept(userId));
 	}
 	
 	/**
@@ -155,20 +163,14 @@ public abstract class UserRepository {
 	/**
 	 * Update an existing user
 	 * @param userToUpdate
+	 * @return true if the user was found
 	 */
-	protected abstract void processUpdate(User userToUpdate);
+	protected abstract boolean processUpdate(User userToUpdate);
 	
 	/**
 	 * Delete a user by its Id
 	 * @param userId
+	 * @return true if the user was deleted
 	 */
-	protected abstract void processDeleteById(UUID userId);
-	
-	/**
-	 * Count users whit id or email
-	 * @param userId
-	 * @param email
-	 * @return number of user with id or email
-	 */
-	protected abstract long countByIdOrEmail(UUID userId, String email);
+	protected abstract boolean processDeleteById(UUID userId);
 }
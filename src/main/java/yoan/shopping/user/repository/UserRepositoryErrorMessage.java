@@ -16,6 +16,8 @@ public enum UserRepositoryErrorMessage implements ErrorMessage {
 	PROBLEM_READ_USER("Error while reading user : %s"),
 	/** Error while creating user : %s */
 	PROBLEM_CREATION_USER("Error while creating user : %s"),
+	/** Error while creating user : %s already exists */
+	PROBLEM_CREATION_USER_ALREADY_EXISTS("Error while creating user : %s already exists"),
 	/** Error while updating user : %s */
 	PROBLEM_UPDATE_USER("Error while updating user : %s"),
 	/** Error while deleting user : %s */
@@ -90,6 +90,15 @@ public class SecuredUserMongoConverter extends MongoDocumentConverter<SecuredUse
 		return new Document("$set", updateDoc);
 	}
 	
+	/**
+	 * Replace the password hash only, the user did not change
+	 * @param userToUpdate
+	 * @return update
+	 */
+	public Document getUpgradePasswordHashUpdate(SecuredUser userToUpdate) {
+		return new Document("$set", new Document(FIELD_SECURITY + "." + FIELD_PASSWORD, userToUpdate.getPassword()));
+	}
+	
 	@Override
 	public Class<SecuredUser> getEncoderClass() {
 		return SecuredUser.class;
@@ -6,24 +6,24 @@ package yoan.shopping.user.repository.mongo;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_CREATION_USER;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_READ_USER;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_UPDATE_USER_PASSWORD;
+import static yoan.shopping.user.repository.mongo.SecuredUserMongoConverter.FIELD_PASSWORD;
+import static yoan.shopping.user.repository.mongo.SecuredUserMongoConverter.FIELD_SECURITY;
 import static yoan.shopping.user.repository.mongo.UserMongoConverter.*;
 import static yoan.shopping.user.repository.mongo.UserMongoRepository.USER_COLLECTION;
 
 import java.util.UUID;
 
 import org.bson.conversions.Bson;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 
 import yoan.shopping.infra.db.Dbs;
 import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
-import yoan.shopping.infra.util.helper.MongoRepositoryHelper;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
+import yoan.shopping.infra.security.PasswordHasher;
 import yoan.shopping.user.SecuredUser;
 import yoan.shopping.user.repository.SecuredUserRepository;
 
@@ -36,58 +36,46 @@ public class SecuredUserMongoRepository extends SecuredUserRepository {
 
 	private final SecuredUserMongoConverter userConverter;
 	private final MongoCollection<SecuredUser> userCollection;
-	
-	private static final Logger LOGGER = LoggerFactory.getLogger(SecuredUserMongoRepository.class);
+	private final MongoOperationExecutor executor;
 	
 	@Inject
-	public SecuredUserMongoRepository(MongoDbConnectionFactory mongoConnectionFactory) {
+	public SecuredUserMongoRepository(MongoDbConnectionFactory mongoConnectionFactory, PasswordHasher passwordHasher) {
+		super(passwordHasher);
 		userCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING , USER_COLLECTION, SecuredUser.class);
 		userConverter = new SecuredUserMongoConverter();
+		executor = mongoConnectionFactory.createOperationExecutor(SecuredUserMongoRepository.class);
+		//the user creation relies on the unique indexes
+		UserMongoRepository.ensureIndexes(userCollection);
 	}
 	
 	@Override
 	protected void processCreate(SecuredUser user) {
-		try {
-			userCollection.insertOne(user);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_CREATION_USER);
-		}
+		executor.run("processCreate", PROBLEM_CREATION_USER, () -> UserMongoRepository.insertUser(userCollection, user));
 	}
 
 	@Override
 	protected SecuredUser processGetById(UUID userId) {
 		Bson filter = Filters.eq(FIELD_ID, userId);
-		SecuredUser foundUser = null;
-		try {
-			foundUser = userCollection.find().filter(filter).first();
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_USER);
-		}
-		
-		return foundUser;
+		return executor.executeIdempotent("processGetById", PROBLEM_READ_USER, () -> executor.withRemainingTime(userCollection.find().filter(filter)).first());
 	}
 
 	@Override
 	protected void processChangePassword(SecuredUser userToUpdate) {
 		Bson filter = Filters.eq("_id", userToUpdate.getId());
 		Bson update = userConverter.getChangePasswordUpdate(userToUpdate);
-		try {
-			userCollection.updateOne(filter, update);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_UPDATE_USER_PASSWORD);
-		}
+		executor.runIdempotent("processChangePassword", PROBLEM_UPDATE_USER_PASSWORD, () -> userCollection.updateOne(filter, update));
+	}
+
+	@Override
+	protected void processUpgradePasswordHash(SecuredUser userToUpdate, String previousHash) {
+		Bson filter = Filters.and(Filters.eq("_id", userToUpdate.getId()), Filters.eq(FIELD_SECURITY + "." + FIELD_PASSWORD, previousHash));
+		Bson update = userConverter.getUpgradePasswordHashUpdate(userToUpdate);
+		executor.runIdempotent("processUpgradePasswordHash", PROBLEM_UPDATE_USER_PASSWORD, () -> userCollection.updateOne(filter, update));
 	}
 
 	@Override
 	protected SecuredUser processGetByEmail(String userEmail) {
 		Bson filter = Filters.eq(FIELD_EMAIL, userEmail);
-		SecuredUser foundUser = null;
-		try {
-			foundUser = userCollection.find().filter(filter).first();
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_USER);
-		}
-		
-		return foundUser;
+		return executor.executeIdempotent("processGetByEmail", PROBLEM_READ_USER, () -> executor.withRemainingTime(userCollection.find().filter(filter)).first());
 	}
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package yoan.shopping.user.repository.mongo;
 
 import static yoan.shopping.infra.db.mongo.MongoDocumentConverter.FIELD_ID;
 import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.ASCENDING;
+import static yoan.shopping.infra.rest.error.Level.INFO;
+import static yoan.shopping.infra.util.error.RepositoryErrorCode.ALREADY_EXISTING;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_CREATION_USER;
+import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_CREATION_USER_ALREADY_EXISTS;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_DELETE_USER;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_READ_USER;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_UPDATE_USER;
@@ -11,12 +14,12 @@ import static yoan.shopping.user.repository.mongo.UserMongoConverter.FIELD_EMAIL
 import java.util.UUID;
 
 import org.bson.conversions.Bson;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import yoan.shopping.infra.db.Dbs;
 import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+import yoan.shopping.infra.db.mongo.MongoOperationExecutor;
 import yoan.shopping.infra.db.mongo.MongoIndexEnsurer;
+import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.infra.util.helper.MongoRepositoryHelper;
 import yoan.shopping.user.User;
 import yoan.shopping.user.repository.UserRepository;
@@ -26,6 +29,8 @@ import com.google.inject.Singleton;
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
 
 /**
  * Mongo implementation of the user repository
@@ -36,16 +41,20 @@ public class UserMongoRepository extends UserRepository {
 	public static final String USER_COLLECTION = "users";
 	
 	private final MongoCollection<User> userCollection;
-	
-	private static final Logger LOGGER = LoggerFactory.getLogger(UserMongoRepository.class);
+	private final MongoOperationExecutor executor;
 	
 	@Inject
 	public UserMongoRepository(MongoDbConnectionFactory mongoConnectionFactory) {
 		userCollection = mongoConnectionFactory.getCollection(Dbs.SHOPPING, USER_COLLECTION, User.class);
-		ensureIndexes();
+		executor = mongoConnectionFactory.createOperationExecutor(UserMongoRepository.class);
+		ensureIndexes(userCollection);
 	}
 	
-	private void ensureIndexes() {
+	/**
+	 * The unique email index is what rejects a registration with an already used email
+	 * @param userCollection
+	 */
+	static void ensureIndexes(MongoCollection<?> userCollection) {
 		MongoIndexEnsurer indexEnsurer = new MongoIndexEnsurer(userCollection);
 		indexEnsurer.logStartEnsuringIndexes();
 		
@@ -56,69 +65,51 @@ public class UserMongoRepository extends UserRepository {
 	
 	@Override
 	protected void processCreate(User user) {
+		executor.run("processCreate", PROBLEM_CREATION_USER, () -> insertUser(userCollection, user));
+	}
+	
+	/**
+	 * Insert a user without looking for an existing one first : the unique indexes on id and email reject a duplicate,
+	 * even between concurrent registrations
+	 * @param userCollection
+	 * @param user
+	 * @throws ApplicationException if a user already exists with the same id or email
+	 */
+	static <T extends User> void insertUser(MongoCollection<T> userCollection, T user) {
 		try {
 			userCollection.insertOne(user);
 		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_CREATION_USER);
+			if (MongoRepositoryHelper.isDuplicateKey(e)) {
+				throw new ApplicationException(INFO, ALREADY_EXISTING, PROBLEM_CREATION_USER_ALREADY_EXISTS.getDevReadableMessage(user.getEmail()));
+			}
+			throw e;
 		}
 	}
 
 	@Override
 	protected User processGetById(UUID userId) {
 		Bson filter = Filters.eq(FIELD_ID, userId);
-		User foundUser = null;
-		try {
-			foundUser = userCollection.find().filter(filter).first();
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_USER);
-		}
-		return foundUser;
+		return executor.executeIdempotent("processGetById", PROBLEM_READ_USER, () -> executor.withRemainingTime(userCollection.find().filter(filter)).first());
 	}
 	
 	@Override
-	protected void processUpdate(User user) {
+	protected boolean processUpdate(User user) {
 		Bson filter = Filters.eq(FIELD_ID, user.getId());
 		Bson update = UserMongoConverter.getUserUpdate(user);
-		try {
-			userCollection.updateOne(filter, update);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_UPDATE_USER);
-		}
+		UpdateResult result = executor.executeIdempotent("processUpdate", PROBLEM_UPDATE_USER, () -> userCollection.updateOne(filter, update));
+		return result.getMatchedCount() > 0;
 	}
 	
 	@Override
-	protected void processDeleteById(UUID userId) {
+	protected boolean processDeleteById(UUID userId) {
 		Bson filter = Filters.eq(FIELD_ID, userId);
-		try {
-			userCollection.deleteOne(filter);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_DELETE_USER);
-		}
+		DeleteResult result = executor.execute("processDeleteById", PROBLEM_DELETE_USER, () -> userCollection.deleteOne(filter));
+		return result.getDeletedCount() > 0;
 	}
 
 	@Override
 	protected User processGetByEmail(String email) {
 		Bson filter = Filters.eq(FIELD_EMAIL, email);
-		User foundUser = null;
-		try {
-			foundUser = userCollection.find().filter(filter).first();
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_USER);
-		}
-		return foundUser;
-	}
-
-	@Override
-	protected long countByIdOrEmail(UUID userId, String email) {
-		Bson filter = Filters.or(Filters.eq(FIELD_ID, userId), Filters.eq(FIELD_EMAIL, email));
-//		Bson filter = Filters.eq(FIELD_ID, userId);
-		long count = 0;
-		try {
-			
-			count = userCollection.count(filter);
-		} catch(MongoException e) {
-			MongoRepositoryHelper.handleMongoError(LOGGER, e, PROBLEM_READ_USER);
-		}
-		return count;
+		return executor.executeIdempotent("processGetByEmail", PROBLEM_READ_USER, () -> executor.withRemainingTime(userCollection.find().filter(filter)).first());
 	}
 }
@@ -14,6 +14,7 @@ import javax.ws.rs.core.UriBuilder;
 
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -26,7 +27,6 @@ import yoan.shopping.infra.rest.error.ErrorRepresentation;
 import yoan.shopping.user.User;
 import yoan.shopping.user.UserCreationHelper;
 import yoan.shopping.user.repository.SecuredUserRepository;
-import yoan.shopping.user.repository.UserRepository;
 import yoan.shopping.user.representation.SecuredUserWriteRepresentation;
 import yoan.shopping.user.representation.UserRepresentation;
 import yoan.shopping.user.representation.UserWriteRepresentation;
@@ -38,15 +38,14 @@ import yoan.shopping.user.representation.UserWriteRepresentation;
 @Path("/public/user")
 @Api(value = "User registration")
 @Produces({ "application/json", "application/xml" })
+@Singleton
 public class RegisterUserResource extends RestAPI {
 	
-	private final UserRepository userRepo;
 	private final SecuredUserRepository securedUserRepo;
 	
 	@Inject
-	public RegisterUserResource(UserRepository userRepo, SecuredUserRepository securedUserRepo) {
+	public RegisterUserResource(SecuredUserRepository securedUserRepo) {
 		super();
-		this.userRepo = requireNonNull(userRepo);
 		this.securedUserRepo = requireNonNull(securedUserRepo);
 	}
 	
@@ -71,7 +70,6 @@ public class RegisterUserResource extends RestAPI {
 		UUID newUserId = UUID.randomUUID();
 		User userCreated = UserWriteRepresentation.toUser(userToCreate, newUserId);
 		
-		UserCreationHelper.ensureUserNotExists(userRepo, userCreated.getId(), userCreated.getEmail());
 		UserCreationHelper.createUser(securedUserRepo, userCreated, password);
 		UserRepresentation createdUserRepresentation = new UserRepresentation(userCreated, getUriInfo());
 		UriBuilder ub = getUriInfo().getBaseUriBuilder();
@@ -2,7 +2,6 @@ package yoan.shopping.user.resource;
 
 import static java.util.Objects.requireNonNull;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
-import static yoan.shopping.infra.config.guice.ShoppingWebModule.CONNECTED_USER;
 import static yoan.shopping.infra.config.guice.SwaggerModule.SECURITY_DEFINITION_OAUTH2;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
@@ -24,7 +23,7 @@ import javax.ws.rs.core.UriBuilder;
 
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
-import com.google.inject.name.Named;
+import com.google.inject.Singleton;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -52,16 +51,14 @@ import yoan.shopping.user.representation.UserWriteRepresentation;
 @Path("/api/user")
 @Api(value = "User", authorizations = { @Authorization(value = SECURITY_DEFINITION_OAUTH2, scopes = {})})
 @Produces({ "application/json", "application/xml" })
+@Singleton
 public class UserResource extends RestAPI {
-	/** Currently connected user */
-	//private final User connectedUser;
 	private final UserRepository userRepo;
 	private final SecuredUserRepository securedUserRepo;
 	
 	@Inject
-	public UserResource(@Named(CONNECTED_USER) User connectedUser, UserRepository userRepo, SecuredUserRepository securedUserRepo) {
+	public UserResource(UserRepository userRepo, SecuredUserRepository securedUserRepo) {
 		super();
-		//this.connectedUser = requireNonNull(connectedUser);
 		this.userRepo = requireNonNull(userRepo);
 		this.securedUserRepo = requireNonNull(securedUserRepo);
 	}
@@ -97,7 +94,6 @@ public class UserResource extends RestAPI {
 		UUID newUserId = UUID.randomUUID();
 		User userCreated = UserWriteRepresentation.toUser(userToCreate, newUserId);
 		
-		UserCreationHelper.ensureUserNotExists(userRepo, userCreated.getId(), userCreated.getEmail());
 		UserCreationHelper.createUser(securedUserRepo, userCreated, password);
 		UserRepresentation createdUserRepresentation = new UserRepresentation(userCreated, getUriInfo());
 		UriBuilder ub = getUriInfo().getAbsolutePathBuilder();
@@ -175,8 +171,10 @@ public class UserResource extends RestAPI {
 		@ApiResponse(code = 400, message = "Invalid user Id"),
 		@ApiResponse(code = 404, message = "User not found") })
 	public Response deleteById(@PathParam("userId") @ApiParam(value = "User identifier", required = true) String userIdStr) {
-		User foundUser = findUserById(userIdStr);
-		userRepo.deleteById(foundUser.getId());
+		UUID userId = ResourceUtil.getIdfromParam("userId", userIdStr);
+		if (!userRepo.deleteById(userId)) {
+			throw new WebApiException(NOT_FOUND, INFO, API_RESPONSE, USER_NOT_FOUND);
+		}
 		return Response.ok().build();
 	}
 	
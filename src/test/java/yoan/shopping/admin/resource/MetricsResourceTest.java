@@ -0,0 +1,358 @@
+package yoan.shopping.admin.resource;
+
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.shiro.cache.Cache;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.Test;
+
+import yoan.shopping.admin.representation.AccessTokenRevocationRepresentation;
+import yoan.shopping.admin.representation.CacheStatsRepresentation;
+import yoan.shopping.admin.representation.MongoCircuitBreakerRepresentation;
+import yoan.shopping.admin.representation.MongoCommandStatsRepresentation;
+import yoan.shopping.admin.representation.MongoRetryStatsRepresentation;
+import yoan.shopping.admin.representation.MongoSlowQueryRepresentation;
+import yoan.shopping.admin.representation.PasswordHashingRepresentation;
+import yoan.shopping.admin.representation.RateLimitStatsRepresentation;
+import yoan.shopping.admin.representation.RequestDeadlineStatsRepresentation;
+import yoan.shopping.admin.representation.ThrottledKeyRepresentation;
+import yoan.shopping.authentication.jwt.AccessTokenDenyList;
+import yoan.shopping.authentication.repository.RevokedAccessTokenRepository;
+import yoan.shopping.infra.cache.BoundedCacheManager;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
+import yoan.shopping.infra.db.mongo.metrics.MongoCommandKey;
+import yoan.shopping.infra.db.mongo.metrics.MongoCommandMetrics;
+import yoan.shopping.infra.db.mongo.metrics.MongoQueryExplainer;
+import yoan.shopping.infra.db.mongo.metrics.MongoSlowQuery;
+import yoan.shopping.infra.db.mongo.metrics.MongoSlowQueryLog;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreakerSettings;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryMetrics;
+import yoan.shopping.infra.ratelimit.RateLimitKey.Dimension;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+import yoan.shopping.infra.rest.Link;
+import yoan.shopping.infra.security.PasswordHasher;
+import yoan.shopping.infra.util.deadline.RequestDeadline;
+import yoan.shopping.infra.util.deadline.RequestDeadlineMetrics;
+import yoan.shopping.test.TestHelper;
+
+public class MetricsResourceTest {
+
+	@Test
+	public void getRootLinks_should_contains_self_link() {
+		//given
+		String expectedURL = "http://test";
+		UriInfo mockedUriInfo = TestHelper.mockUriInfo(expectedURL);
+		MetricsResource testedResource = getMetricsResource(new MongoCommandMetrics());
+		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
+
+		//when
+		List<Link> links = testedResource.getRootLinks();
+
+		//then
+		assertThat(links).isNotNull();
+		assertThat(links).contains(Link.self(expectedURL));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getMongoMetrics_should_return_recorded_stats() {
+		//given
+		MongoCommandMetrics metrics = new MongoCommandMetrics();
+		MongoCommandKey key = new MongoCommandKey("list", "find", "ShoppingListMongoRepository.processGetById");
+		metrics.recordSuccess(key, 1500, 1);
+		metrics.recordFailure(key, 500);
+		MetricsResource testedResource = getMetricsResource(metrics);
+
+		//when
+		Response response = testedResource.getMongoMetrics();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		List<MongoCommandStatsRepresentation> representations = (List<MongoCommandStatsRepresentation>) response.getEntity();
+		assertThat(representations).hasSize(1);
+		MongoCommandStatsRepresentation representation = representations.get(0);
+		assertThat(representation.getCollection()).isEqualTo("list");
+		assertThat(representation.getCommand()).isEqualTo("find");
+		assertThat(representation.getCaller()).isEqualTo("ShoppingListMongoRepository.processGetById");
+		assertThat(representation.getCount()).isEqualTo(2);
+		assertThat(representation.getFailures()).isEqualTo(1);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getMongoSlowQueries_should_return_redacted_slow_queries() {
+		//given
+		MongoSlowQueryLog slowQueryLog = new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class));
+		MongoCommandKey key = new MongoCommandKey("list", "find", "ShoppingListMongoRepository.processGetByOwner");
+		BsonDocument query = new BsonDocument("filter", new BsonDocument("ownerId", new BsonString("secret")));
+		slowQueryLog.record(new MongoSlowQuery(LocalDateTime.now(), "shopping", key, 150_000, query));
+		MetricsResource testedResource = getMetricsResource(new MongoCommandMetrics(), slowQueryLog);
+
+		//when
+		Response response = testedResource.getMongoSlowQueries();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		List<MongoSlowQueryRepresentation> representations = (List<MongoSlowQueryRepresentation>) response.getEntity();
+		assertThat(representations).hasSize(1);
+		MongoSlowQueryRepresentation representation = representations.get(0);
+		assertThat(representation.getCollection()).isEqualTo("list");
+		assertThat(representation.getCaller()).isEqualTo("ShoppingListMongoRepository.processGetByOwner");
+		assertThat(representation.getDurationInMicros()).isEqualTo(150_000);
+		assertThat(representation.getQuery()).contains("ownerId").doesNotContain("secret");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getMongoRetries_should_return_counters_by_caller() {
+		//given
+		MongoRetryMetrics retryMetrics = new MongoRetryMetrics();
+		String caller = "UserMongoRepository.processGetById";
+		retryMetrics.recordRetry(caller);
+		retryMetrics.recordRetry(caller);
+		retryMetrics.recordRecovery(caller);
+		MetricsResource testedResource = getMetricsResource(new MongoCommandMetrics(), new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class)), retryMetrics);
+
+		//when
+		Response response = testedResource.getMongoRetries();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		List<MongoRetryStatsRepresentation> representations = (List<MongoRetryStatsRepresentation>) response.getEntity();
+		assertThat(representations).hasSize(1);
+		assertThat(representations.get(0).getCaller()).isEqualTo(caller);
+		assertThat(representations.get(0).getRetries()).isEqualTo(2);
+		assertThat(representations.get(0).getRecoveries()).isEqualTo(1);
+		assertThat(representations.get(0).getExhaustions()).isEqualTo(0);
+	}
+
+	@Test
+	public void getMongoCircuitBreaker_should_return_closed_circuit_by_default() {
+		//given
+		MetricsResource testedResource = getMetricsResource(new MongoCommandMetrics());
+
+		//when
+		Response response = testedResource.getMongoCircuitBreaker();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		MongoCircuitBreakerRepresentation representation = (MongoCircuitBreakerRepresentation) response.getEntity();
+		assertThat(representation.getState()).isEqualTo("CLOSED");
+		assertThat(representation.getCalls()).isEqualTo(0);
+		assertThat(representation.getRejected()).isEqualTo(0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getRequestDeadlines_should_return_counters_by_route() {
+		//given
+		RequestDeadlineMetrics deadlineMetrics = new RequestDeadlineMetrics();
+		RequestDeadline completedRequest = RequestDeadline.start("/rest/auth", 60_000);
+		RequestDeadline stoppedRequest = RequestDeadline.start("/rest/auth", 60_000);
+		stoppedRequest.exceeded("processGetById");
+		RequestDeadline.clear();
+		deadlineMetrics.record(completedRequest);
+		deadlineMetrics.record(stoppedRequest);
+		MetricsResource testedResource = getMetricsResource(new MongoCommandMetrics(), new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class)), new MongoRetryMetrics(), deadlineMetrics);
+
+		//when
+		Response response = testedResource.getRequestDeadlines();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		List<RequestDeadlineStatsRepresentation> representations = (List<RequestDeadlineStatsRepresentation>) response.getEntity();
+		assertThat(representations).hasSize(1);
+		assertThat(representations.get(0).getRoute()).isEqualTo("/rest/auth");
+		assertThat(representations.get(0).getRequests()).isEqualTo(2);
+		assertThat(representations.get(0).getExceeded()).isEqualTo(1);
+		assertThat(representations.get(0).getExceededRate()).isEqualTo(0.5);
+	}
+
+	@Test
+	public void getAccessTokenRevocations_should_return_filter_state() {
+		//given
+		AccessTokenDenyList denyList = new AccessTokenDenyList(mock(RevokedAccessTokenRepository.class), Config.DEFAULT);
+		UUID revokedTokenId = UUID.randomUUID();
+		denyList.revoke(revokedTokenId, Instant.now().plusSeconds(60));
+		denyList.isRevoked(revokedTokenId);
+		MetricsResource testedResource = getMetricsResource(new MongoCommandMetrics(), new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class)), new MongoRetryMetrics(), new RequestDeadlineMetrics(), denyList);
+
+		//when
+		Response response = testedResource.getAccessTokenRevocations();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		AccessTokenRevocationRepresentation representation = (AccessTokenRevocationRepresentation) response.getEntity();
+		assertThat(representation.getRevoked()).isEqualTo(1);
+		assertThat(representation.getChecks()).isEqualTo(1);
+		assertThat(representation.getFilterHits()).isEqualTo(1);
+		assertThat(representation.getFalsePositiveRate()).isEqualTo(0.0);
+		assertThat(representation.getMemoryBudgetInBytes()).isEqualTo(Config.DEFAULT.getRevocationMemoryBudgetInBytes());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getCaches_should_return_stats_by_cache() {
+		//given
+		BoundedCacheManager cacheManager = new BoundedCacheManager(Config.DEFAULT);
+		Cache<String, String> cache = cacheManager.getCache("userAuthentication");
+		cache.get("user@mail.com");
+		cache.put("user@mail.com", "credentials");
+		cache.get("user@mail.com");
+		MetricsResource testedResource = getMetricsResource(new MongoCommandMetrics(), new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class)), new MongoRetryMetrics(), new RequestDeadlineMetrics(),
+			new AccessTokenDenyList(mock(RevokedAccessTokenRepository.class), Config.DEFAULT), cacheManager);
+
+		//when
+		Response response = testedResource.getCaches();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		List<CacheStatsRepresentation> representations = (List<CacheStatsRepresentation>) response.getEntity();
+		assertThat(representations).hasSize(1);
+		assertThat(representations.get(0).getName()).isEqualTo("userAuthentication");
+		assertThat(representations.get(0).getSize()).isEqualTo(1);
+		assertThat(representations.get(0).getHits()).isEqualTo(1);
+		assertThat(representations.get(0).getMisses()).isEqualTo(1);
+		assertThat(representations.get(0).getLoads()).isEqualTo(1);
+		assertThat(representations.get(0).getMaximumSize()).isEqualTo(Config.DEFAULT_CACHE_MAXIMUM_SIZE);
+	}
+
+	@Test
+	public void getPasswordHashing_should_return_pool_state() {
+		//given
+		PasswordHasher passwordHasher = TestHelper.createFastPasswordHasher();
+		passwordHasher.hash("password", "salt");
+		MetricsResource testedResource = getMetricsResource(new MongoCommandMetrics(), new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class)), new MongoRetryMetrics(), new RequestDeadlineMetrics(),
+			new AccessTokenDenyList(mock(RevokedAccessTokenRepository.class), Config.DEFAULT), new BoundedCacheManager(Config.DEFAULT), passwordHasher);
+
+		//when
+		Response response = testedResource.getPasswordHashing();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		PasswordHashingRepresentation representation = (PasswordHashingRepresentation) response.getEntity();
+		assertThat(representation.getIterations()).isEqualTo(1_000);
+		assertThat(representation.getHashes()).isEqualTo(1);
+		assertThat(representation.getRejected()).isEqualTo(0);
+		assertThat(representation.getQueueCapacity()).isEqualTo(Config.DEFAULT_PASSWORD_HASH_QUEUE_CAPACITY);
+		assertThat(representation.getAverageHashTimeInMillis()).isGreaterThan(0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getRateLimits_should_return_counters_by_route() {
+		//given
+		RateLimiter rateLimiter = givenThrottledIp("10.0.0.1");
+		MetricsResource testedResource = getMetricsResource(rateLimiter);
+
+		//when
+		Response response = testedResource.getRateLimits();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		List<RateLimitStatsRepresentation> representations = (List<RateLimitStatsRepresentation>) response.getEntity();
+		assertThat(representations).hasSize(1);
+		assertThat(representations.get(0).getRoute()).isEqualTo(RateLimiter.DEFAULT_ROUTE);
+		assertThat(representations.get(0).getAllowed()).isEqualTo(1);
+		assertThat(representations.get(0).getThrottled()).isEqualTo(1);
+		assertThat(representations.get(0).getThrottledRate()).isEqualTo(0.5);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getThrottledKeys_should_return_throttled_ips() {
+		//given
+		RateLimiter rateLimiter = givenThrottledIp("10.0.0.1");
+		MetricsResource testedResource = getMetricsResource(rateLimiter);
+
+		//when
+		Response response = testedResource.getThrottledKeys();
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		List<ThrottledKeyRepresentation> representations = (List<ThrottledKeyRepresentation>) response.getEntity();
+		assertThat(representations).hasSize(1);
+		assertThat(representations.get(0).getDimension()).isEqualTo(Dimension.IP.name());
+		assertThat(representations.get(0).getValue()).isEqualTo("10.0.0.1");
+		assertThat(representations.get(0).getThrottled()).isEqualTo(1);
+	}
+
+	private RateLimiter givenThrottledIp(String ip) {
+		RateLimiter rateLimiter = new RateLimiter(Config.Builder.createDefault().withRateLimitRequestsPerMinute(1).build());
+		for (int i = 0; i < 2; i++) {
+			String route = rateLimiter.getRoute("/rest/api/user");
+			rateLimiter.record(route, rateLimiter.tryAcquire(route, Dimension.IP, ip));
+		}
+		return rateLimiter;
+	}
+
+	private MetricsResource getMetricsResource(RateLimiter rateLimiter) {
+		return getMetricsResource(new MongoCommandMetrics(), new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class)), new MongoRetryMetrics(), new RequestDeadlineMetrics(),
+			new AccessTokenDenyList(mock(RevokedAccessTokenRepository.class), Config.DEFAULT), new BoundedCacheManager(Config.DEFAULT), TestHelper.createFastPasswordHasher(), rateLimiter);
+	}
+
+	private MetricsResource getMetricsResource(MongoCommandMetrics metrics) {
+		return getMetricsResource(metrics, new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class)));
+	}
+
+	private MetricsResource getMetricsResource(MongoCommandMetrics metrics, MongoSlowQueryLog slowQueryLog) {
+		return getMetricsResource(metrics, slowQueryLog, new MongoRetryMetrics());
+	}
+
+	private MetricsResource getMetricsResource(MongoCommandMetrics metrics, MongoSlowQueryLog slowQueryLog, MongoRetryMetrics retryMetrics) {
+		return getMetricsResource(metrics, slowQueryLog, retryMetrics, new RequestDeadlineMetrics());
+	}
+
+	private MetricsResource getMetricsResource(MongoCommandMetrics metrics, MongoSlowQueryLog slowQueryLog, MongoRetryMetrics retryMetrics, RequestDeadlineMetrics deadlineMetrics) {
+		return getMetricsResource(metrics, slowQueryLog, retryMetrics, deadlineMetrics, new AccessTokenDenyList(mock(RevokedAccessTokenRepository.class), Config.DEFAULT));
+	}
+
+	private MetricsResource getMetricsResource(MongoCommandMetrics metrics, MongoSlowQueryLog slowQueryLog, MongoRetryMetrics retryMetrics, RequestDeadlineMetrics deadlineMetrics, AccessTokenDenyList denyList) {
+		return getMetricsResource(metrics, slowQueryLog, retryMetrics, deadlineMetrics, denyList, new BoundedCacheManager(Config.DEFAULT));
+	}
+
+	private MetricsResource getMetricsResource(MongoCommandMetrics metrics, MongoSlowQueryLog slowQueryLog, MongoRetryMetrics retryMetrics, RequestDeadlineMetrics deadlineMetrics, AccessTokenDenyList denyList, BoundedCacheManager cacheManager) {
+		return getMetricsResource(metrics, slowQueryLog, retryMetrics, deadlineMetrics, denyList, cacheManager, TestHelper.createFastPasswordHasher());
+	}
+
+	private MetricsResource getMetricsResource(MongoCommandMetrics metrics, MongoSlowQueryLog slowQueryLog, MongoRetryMetrics retryMetrics, RequestDeadlineMetrics deadlineMetrics, AccessTokenDenyList denyList, BoundedCacheManager cacheManager,
+			PasswordHasher passwordHasher) {
+		return getMetricsResource(metrics, slowQueryLog, retryMetrics, deadlineMetrics, denyList, cacheManager, passwordHasher, new RateLimiter(Config.DEFAULT));
+	}
+
+	private MetricsResource getMetricsResource(MongoCommandMetrics metrics, MongoSlowQueryLog slowQueryLog, MongoRetryMetrics retryMetrics, RequestDeadlineMetrics deadlineMetrics, AccessTokenDenyList denyList, BoundedCacheManager cacheManager,
+			PasswordHasher passwordHasher, RateLimiter rateLimiter) {
+		MongoDbConnectionFactory mockedConnectionFactory = mock(MongoDbConnectionFactory.class);
+		when(mockedConnectionFactory.getCommandMetrics()).thenReturn(metrics);
+		when(mockedConnectionFactory.getSlowQueryLog()).thenReturn(slowQueryLog);
+		when(mockedConnectionFactory.getRetryMetrics()).thenReturn(retryMetrics);
+		when(mockedConnectionFactory.getCircuitBreaker()).thenReturn(new MongoCircuitBreaker(MongoCircuitBreakerSettings.DEFAULT));
+		MetricsResource testedResource = new MetricsResource(mockedConnectionFactory, deadlineMetrics, denyList, cacheManager, passwordHasher, rateLimiter);
+		return spy(testedResource);
+	}
+}
@@ -0,0 +1,175 @@
+package yoan.shopping.authentication.jwt;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import yoan.shopping.authentication.repository.RevokedAccessTokenRepository;
+import yoan.shopping.authentication.repository.fake.RevokedAccessTokenFakeRepository;
+
+public class AccessTokenDenyListTest {
+	
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2016-01-01T10:00:00Z"));
+	private final Clock clock = new Clock() {
+		@Override
+		public Instant instant() {
+			return now.get();
+		}
+		
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+		
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	};
+	private final RevokedAccessTokenRepository revokedTokenRepository = new RevokedAccessTokenFakeRepository();
+	private final AccessTokenDenyList testedDenyList = new AccessTokenDenyList(revokedTokenRepository, 1_048_576, clock);
+	
+	@Test
+	public void isRevoked_should_return_true_for_revoked_token() {
+		//given
+		UUID revokedTokenId = UUID.randomUUID();
+		testedDenyList.revoke(revokedTokenId, now.get().plusSeconds(60));
+		
+		//when
+		boolean revoked = testedDenyList.isRevoked(revokedTokenId);
+		boolean other = testedDenyList.isRevoked(UUID.randomUUID());
+		
+		//then
+		assertThat(revoked).isTrue();
+		assertThat(other).isFalse();
+		assertThat(testedDenyList.getCheckCount()).isEqualTo(2);
+	}
+	
+	@Test
+	public void revoke_should_save_revocation() {
+		//given
+		UUID revokedTokenId = UUID.randomUUID();
+		
+		//when
+		testedDenyList.revoke(revokedTokenId, now.get().plusSeconds(60));
+		
+		//then
+		assertThat(revokedTokenRepository.findRevokedSince(null)).hasSize(1);
+		assertThat(revokedTokenRepository.findRevokedSince(null).get(0).getId()).isEqualTo(revokedTokenId);
+	}
+	
+	@Test
+	public void revoke_should_ignore_expired_token() {
+		//given
+		UUID expiredTokenId = UUID.randomUUID();
+		
+		//when
+		testedDenyList.revoke(expiredTokenId, now.get().minusSeconds(1));
+		
+		//then
+		assertThat(testedDenyList.isRevoked(expiredTokenId)).isFalse();
+		assertThat(testedDenyList.size()).isEqualTo(0);
+		assertThat(revokedTokenRepository.findRevokedSince(null)).isEmpty();
+	}
+	
+	@Test
+	public void refresh_should_read_revocations_of_other_nodes() {
+		//given
+		AccessTokenDenyList otherNodeDenyList = new AccessTokenDenyList(revokedTokenRepository, 1_048_576, clock);
+		UUID firstTokenId = UUID.randomUUID();
+		otherNodeDenyList.revoke(firstTokenId, now.get().plusSeconds(60));
+		testedDenyList.refresh();
+		now.set(now.get().plusSeconds(10));
+		UUID secondTokenId = UUID.randomUUID();
+		otherNodeDenyList.revoke(secondTokenId, now.get().plusSeconds(60));
+		
+		//when
+		testedDenyList.refresh();
+		
+		//then
+		assertThat(testedDenyList.isRevoked(firstTokenId)).isTrue();
+		assertThat(testedDenyList.isRevoked(secondTokenId)).isTrue();
+		assertThat(testedDenyList.size()).isEqualTo(2);
+		assertThat(testedDenyList.getLastRefresh()).isEqualTo(now.get());
+	}
+	
+	@Test
+	public void refresh_should_purge_tokens_once_expired() {
+		//given
+		UUID shortLivedTokenId = UUID.randomUUID();
+		testedDenyList.revoke(shortLivedTokenId, now.get().plusSeconds(60));
+		now.set(now.get().plusSeconds(120));
+		UUID longLivedTokenId = UUID.randomUUID();
+		testedDenyList.revoke(longLivedTokenId, now.get().plusSeconds(60));
+		
+		//when
+		testedDenyList.refresh();
+		
+		//then
+		assertThat(testedDenyList.isRevoked(shortLivedTokenId)).isFalse();
+		assertThat(testedDenyList.isRevoked(longLivedTokenId)).isTrue();
+		assertThat(testedDenyList.size()).isEqualTo(1);
+	}
+	
+	@Test
+	public void refresh_should_keep_local_copy_when_database_fails() {
+		//given
+		RevokedAccessTokenRepository mockedRepository = mock(RevokedAccessTokenRepository.class);
+		when(mockedRepository.findRevokedSince(null)).thenThrow(new IllegalStateException("database down"));
+		AccessTokenDenyList denyList = new AccessTokenDenyList(mockedRepository, 1_048_576, clock);
+		UUID revokedTokenId = UUID.randomUUID();
+		denyList.revoke(revokedTokenId, now.get().plusSeconds(60));
+		
+		//when
+		denyList.refresh();
+		
+		//then
+		assertThat(denyList.isRevoked(revokedTokenId)).isTrue();
+		assertThat(denyList.getLastRefresh()).isNull();
+	}
+	
+	@Test
+	public void isRevoked_should_count_false_positives_over_the_memory_budget() {
+		//given
+		AccessTokenDenyList tinyDenyList = new AccessTokenDenyList(revokedTokenRepository, 1, clock);
+		for (int i = 0; i < 50; i++) {
+			tinyDenyList.revoke(UUID.randomUUID(), now.get().plusSeconds(60));
+		}
+		
+		//when
+		for (int i = 0; i < 1_000; i++) {
+			tinyDenyList.isRevoked(UUID.randomUUID());
+		}
+		
+		//then
+		assertThat(tinyDenyList.getCapacity()).isEqualTo(1);
+		assertThat(tinyDenyList.getFalsePositiveCount()).isGreaterThan(0);
+		assertThat(tinyDenyList.getFalsePositiveCount()).isEqualTo(tinyDenyList.getFilterHitCount());
+		assertThat(tinyDenyList.getFalsePositiveRate()).isGreaterThan(0.0).isLessThanOrEqualTo(1.0);
+	}
+	
+	@Test
+	public void getFalsePositiveRate_should_stay_low_within_the_memory_budget() {
+		//given
+		for (int i = 0; i < 1_000; i++) {
+			testedDenyList.revoke(UUID.randomUUID(), now.get().plusSeconds(60));
+		}
+		
+		//when
+		for (int i = 0; i < 10_000; i++) {
+			testedDenyList.isRevoked(UUID.randomUUID());
+		}
+		
+		//then
+		assertThat(testedDenyList.getFalsePositiveRate()).isLessThan(0.01);
+	}
+}
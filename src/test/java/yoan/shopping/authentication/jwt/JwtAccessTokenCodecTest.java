@@ -0,0 +1,171 @@
+package yoan.shopping.authentication.jwt;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
+import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.ClientAppPrincipal;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.User;
+
+public class JwtAccessTokenCodecTest {
+	
+	private static final byte[] OLD_KEY = key('o');
+	private static final byte[] NEW_KEY = key('n');
+	
+	private static byte[] key(char filler) {
+		byte[] key = new byte[JwtKeySet.MIN_KEY_SIZE_IN_BYTES];
+		Arrays.fill(key, (byte) filler);
+		return key;
+	}
+	
+	private static JwtAccessTokenCodec codec(ImmutableMap<String, byte[]> keysById, String activeKeyId) {
+		return new JwtAccessTokenCodec(new JwtKeySet(keysById, activeKeyId), Clock.systemUTC());
+	}
+	
+	@Test
+	public void decode_should_return_principal_from_claims() {
+		//given
+		User user = TestHelper.generateRandomUser();
+		JwtAccessTokenCodec testedCodec = codec(ImmutableMap.of("new", NEW_KEY), "new");
+		String accessToken = testedCodec.encode(user);
+		
+		//when
+		JwtAccessToken result = testedCodec.decode(accessToken);
+		
+		//then
+		assertThat(result).isNotNull();
+		assertThat(result.getTokenId()).isNotNull();
+		assertThat(result.getPrincipal()).isInstanceOf(User.class);
+		User principal = (User) result.getPrincipal();
+		assertThat(principal.getId()).isEqualTo(user.getId());
+		assertThat(principal.getName()).isEqualTo(user.getName());
+		assertThat(principal.getEmail()).isEqualTo(user.getEmail());
+	}
+	
+	@Test
+	public void decode_should_return_client_app_principal_from_app_scoped_token() {
+		//given
+		ClientApp clientApp = TestHelper.generateRandomClientApp();
+		JwtAccessTokenCodec testedCodec = codec(ImmutableMap.of("new", NEW_KEY), "new");
+		String accessToken = testedCodec.encode(clientApp);
+		
+		//when
+		JwtAccessToken result = testedCodec.decode(accessToken);
+		
+		//then
+		assertThat(result).isNotNull();
+		assertThat(result.getPrincipal()).isEqualTo(new ClientAppPrincipal(clientApp.getId()));
+	}
+	
+	@Test
+	public void decode_should_accept_token_signed_with_a_rotated_key() {
+		//given
+		String oldAccessToken = codec(ImmutableMap.of("old", OLD_KEY), "old").encode(TestHelper.generateRandomUser());
+		JwtAccessTokenCodec testedCodec = codec(ImmutableMap.of("old", OLD_KEY, "new", NEW_KEY), "new");
+		
+		//when
+		JwtAccessToken result = testedCodec.decode(oldAccessToken);
+		
+		//then
+		assertThat(result).isNotNull();
+	}
+	
+	@Test
+	public void decode_should_reject_token_signed_with_a_removed_key() {
+		//given
+		String oldAccessToken = codec(ImmutableMap.of("old", OLD_KEY), "old").encode(TestHelper.generateRandomUser());
+		JwtAccessTokenCodec testedCodec = codec(ImmutableMap.of("new", NEW_KEY), "new");
+		
+		//when
+		JwtAccessToken result = testedCodec.decode(oldAccessToken);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void decode_should_reject_token_signed_with_another_key_under_the_same_id() {
+		//given
+		String forgedAccessToken = codec(ImmutableMap.of("new", OLD_KEY), "new").encode(TestHelper.generateRandomUser());
+		JwtAccessTokenCodec testedCodec = codec(ImmutableMap.of("new", NEW_KEY), "new");
+		
+		//when
+		JwtAccessToken result = testedCodec.decode(forgedAccessToken);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void decode_should_reject_expired_token() {
+		//given
+		Duration tokenLifetime = Duration.ofMinutes(OAuth2AccessTokenRepository.ACCESS_TOKEN_TTL_IN_MINUTES);
+		Clock issuingClock = Clock.offset(Clock.systemUTC(), tokenLifetime.plusMinutes(1).negated());
+		JwtKeySet keySet = new JwtKeySet(ImmutableMap.of("new", NEW_KEY), "new");
+		String expiredAccessToken = new JwtAccessTokenCodec(keySet, issuingClock).encode(TestHelper.generateRandomUser());
+		JwtAccessTokenCodec testedCodec = new JwtAccessTokenCodec(keySet, Clock.systemUTC());
+		
+		//when
+		JwtAccessToken result = testedCodec.decode(expiredAccessToken);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void decode_should_reject_unsigned_token() {
+		//given
+		User user = TestHelper.generateRandomUser();
+		String unsignedAccessToken = Jwts.builder().setId("id").setSubject(user.getId().toString()).compact();
+		JwtAccessTokenCodec testedCodec = codec(ImmutableMap.of("new", NEW_KEY), "new");
+		
+		//when
+		JwtAccessToken result = testedCodec.decode(unsignedAccessToken);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void decode_should_reject_token_signed_with_another_algorithm() {
+		//given
+		User user = TestHelper.generateRandomUser();
+		String otherAlgorithmAccessToken = Jwts.builder().setHeaderParam("kid", "new").setId("id").setSubject(user.getId().toString())
+			.signWith(SignatureAlgorithm.HS512, NEW_KEY).compact();
+		JwtAccessTokenCodec testedCodec = codec(ImmutableMap.of("new", NEW_KEY), "new");
+		
+		//when
+		JwtAccessToken result = testedCodec.decode(otherAlgorithmAccessToken);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void decode_should_reject_garbage() {
+		//given
+		JwtAccessTokenCodec testedCodec = codec(ImmutableMap.of("new", NEW_KEY), "new");
+		
+		//when
+		JwtAccessToken result = testedCodec.decode("not a token");
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void new_key_set_should_fail_with_short_key() {
+		new JwtKeySet(ImmutableMap.of("short", new byte[16]), "short");
+	}
+}
@@ -0,0 +1,111 @@
+package yoan.shopping.authentication.realm;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import yoan.shopping.infra.cache.BoundedCacheManager;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.User;
+
+public class AccessTokenPrincipalCacheTest {
+
+	private final AtomicLong time = new AtomicLong(0);
+	private final BoundedCacheManager cacheManager = new BoundedCacheManager(Config.Builder.createDefault().withCacheMaximumSize(2).build());
+	private final AccessTokenPrincipalCache testedCache = new AccessTokenPrincipalCache(cacheManager, Duration.ofHours(1), time::get);
+
+	private void advance(long duration, TimeUnit unit) {
+		time.addAndGet(unit.toNanos(duration));
+	}
+
+	@Test
+	public void getPrincipal_should_return_principal_until_token_expiry() {
+		//given
+		User principal = TestHelper.generateRandomUser();
+		testedCache.putPrincipal("token", principal, Duration.ofMinutes(2));
+
+		//when
+		advance(119, TimeUnit.SECONDS);
+		User beforeExpiry = testedCache.getPrincipal("token");
+		advance(1, TimeUnit.SECONDS);
+		User afterExpiry = testedCache.getPrincipal("token");
+
+		//then
+		assertThat(beforeExpiry).isEqualTo(principal);
+		assertThat(afterExpiry).isNull();
+	}
+
+	@Test
+	public void getPrincipal_should_not_return_principal_after_max_lifetime() {
+		//given
+		AccessTokenPrincipalCache boundedCache = new AccessTokenPrincipalCache(cacheManager, Duration.ofSeconds(5), time::get);
+		User principal = TestHelper.generateRandomUser();
+		boundedCache.putPrincipal("token", principal, Duration.ofMinutes(10));
+
+		//when
+		advance(4, TimeUnit.SECONDS);
+		User beforeMaxLifetime = boundedCache.getPrincipal("token");
+		advance(1, TimeUnit.SECONDS);
+		User afterMaxLifetime = boundedCache.getPrincipal("token");
+
+		//then
+		assertThat(beforeMaxLifetime).isEqualTo(principal);
+		assertThat(afterMaxLifetime).isNull();
+	}
+
+	@Test
+	public void putPrincipal_should_ignore_expired_token() {
+		//when
+		testedCache.putPrincipal("token", TestHelper.generateRandomUser(), Duration.ofSeconds(-1));
+
+		//then
+		assertThat(testedCache.getPrincipal("token")).isNull();
+		assertThat(testedCache.getPrincipalCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void putPrincipal_should_stay_within_maximum_size() {
+		//when
+		for (int i = 0; i < 10; i++) {
+			testedCache.putPrincipal("token" + i, TestHelper.generateRandomUser(), Duration.ofMinutes(5));
+		}
+
+		//then
+		assertThat(testedCache.getPrincipalCount()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	public void isKnownInvalid_should_expire_after_short_delay() {
+		//given
+		testedCache.putInvalid("sprayed token");
+
+		//when
+		boolean rightAfter = testedCache.isKnownInvalid("sprayed token");
+		advance(AccessTokenPrincipalCache.INVALID_TOKEN_TTL_IN_SECONDS, TimeUnit.SECONDS);
+		boolean later = testedCache.isKnownInvalid("sprayed token");
+
+		//then
+		assertThat(rightAfter).isTrue();
+		assertThat(later).isFalse();
+	}
+
+	@Test
+	public void invalidate_should_forget_token() {
+		//given
+		testedCache.putPrincipal("token", TestHelper.generateRandomUser(), Duration.ofMinutes(5));
+		testedCache.putInvalid("other token");
+
+		//when
+		testedCache.invalidate("token");
+		testedCache.invalidate("other token");
+
+		//then
+		assertThat(testedCache.getPrincipal("token")).isNull();
+		assertThat(testedCache.isKnownInvalid("other token")).isFalse();
+	}
+}
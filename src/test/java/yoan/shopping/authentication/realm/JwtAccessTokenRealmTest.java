@@ -0,0 +1,97 @@
+package yoan.shopping.authentication.realm;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.cache.CacheManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import yoan.shopping.authentication.jwt.AccessTokenDenyList;
+import yoan.shopping.authentication.jwt.JwtAccessTokenCodec;
+import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
+import yoan.shopping.authentication.repository.fake.OAuth2AccessTokenFakeRepository;
+import yoan.shopping.authentication.repository.fake.RevokedAccessTokenFakeRepository;
+import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.ClientAppPrincipal;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.User;
+import yoan.shopping.user.repository.SecuredUserRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JwtAccessTokenRealmTest {
+	
+	@Mock
+	CacheManager mockedCacheManager;
+	@Mock
+	SecuredUserRepository mockedUserRepository;
+	
+	JwtAccessTokenCodec accessTokenCodec;
+	OAuth2AccessTokenRepository accessTokenRepository;
+	JwtAccessTokenRealm testedRealm;
+	
+	@Before
+	public void setUpRealm() {
+		accessTokenCodec = new JwtAccessTokenCodec(Config.DEFAULT);
+		accessTokenRepository = new OAuth2AccessTokenFakeRepository();
+		testedRealm = new JwtAccessTokenRealm(mockedCacheManager, accessTokenCodec, new AccessTokenDenyList(new RevokedAccessTokenFakeRepository(), Config.DEFAULT), accessTokenRepository);
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_return_principal_from_valid_token_without_database() {
+		//given
+		User user = TestHelper.generateRandomUser();
+		String validAccessToken = accessTokenCodec.encode(user);
+		
+		//when
+		AuthenticationInfo result = testedRealm.doGetAuthenticationInfo(new Oauth2ShiroAccessToken(validAccessToken, "host"));
+		
+		//then
+		assertThat(result).isNotNull();
+		User principal = (User) result.getPrincipals().getPrimaryPrincipal();
+		assertThat(principal.getId()).isEqualTo(user.getId());
+		assertThat(principal.getEmail()).isEqualTo(user.getEmail());
+		verifyZeroInteractions(mockedUserRepository);
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_return_client_app_principal_from_app_scoped_token() {
+		//given
+		ClientApp clientApp = TestHelper.generateRandomClientApp();
+		String validAccessToken = accessTokenCodec.encode(clientApp);
+		
+		//when
+		AuthenticationInfo result = testedRealm.doGetAuthenticationInfo(new Oauth2ShiroAccessToken(validAccessToken, "host"));
+		
+		//then
+		assertThat(result).isNotNull();
+		assertThat(result.getPrincipals().getPrimaryPrincipal()).isEqualTo(new ClientAppPrincipal(clientApp.getId()));
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_return_null_with_invalid_token() {
+		//when
+		AuthenticationInfo result = testedRealm.doGetAuthenticationInfo(new Oauth2ShiroAccessToken("invalid token", "host"));
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_return_null_once_token_is_deleted() {
+		//given
+		String validAccessToken = accessTokenCodec.encode(TestHelper.generateRandomUser());
+		
+		//when
+		accessTokenRepository.deleteByAccessToken(validAccessToken);
+		AuthenticationInfo result = testedRealm.doGetAuthenticationInfo(new Oauth2ShiroAccessToken(validAccessToken, "host"));
+		
+		//then
+		assertThat(result).isNull();
+	}
+}
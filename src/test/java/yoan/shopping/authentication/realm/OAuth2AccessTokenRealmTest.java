@@ -1,47 +1,65 @@
 package yoan.shopping.authentication.realm;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.apache.shiro.authc.AuthenticationInfo;
-import org.apache.shiro.authc.credential.HashedCredentialsMatcher;
-import org.apache.shiro.cache.CacheManager;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import yoan.shopping.authentication.repository.OAuth2AccessToken;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
+import yoan.shopping.authentication.repository.fake.OAuth2AccessTokenFakeRepository;
+import yoan.shopping.client.app.ClientAppPrincipal;
+import yoan.shopping.infra.cache.BoundedCacheManager;
+import yoan.shopping.infra.config.api.Config;
 import yoan.shopping.test.TestHelper;
 import yoan.shopping.user.SecuredUser;
 import yoan.shopping.user.User;
 import yoan.shopping.user.repository.SecuredUserRepository;
+import yoan.shopping.user.repository.UserRepository;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OAuth2AccessTokenRealmTest {
 	
-	@Mock
-	CacheManager mockedCacheManager;
-	@Mock
-	HashedCredentialsMatcher mockedCredentialsMatcher;
 	@Mock
 	SecuredUserRepository mockedUserRepository;
 	@Mock
-	OAuth2AccessTokenRepository mockedAccessTokenRepository;
-	@InjectMocks
+	UserRepository mockedBasicUserRepository;
+	
+	OAuth2AccessTokenRepository spiedAccessTokenRepository;
 	OAuth2AccessTokenRealm testedRealm;
 	
+	@Before
+	public void setUpRealm() {
+		spiedAccessTokenRepository = spy(new OAuth2AccessTokenFakeRepository());
+		testedRealm = new OAuth2AccessTokenRealm(new BoundedCacheManager(Config.DEFAULT), spiedAccessTokenRepository, mockedUserRepository, mockedBasicUserRepository, Config.DEFAULT);
+	}
+	
 	@Test
 	public void doGetAuthenticationInfo_should_return_infos_with_valid_access_token() {
 		//given
 		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
 		User expectedPrincipal = User.Builder.createFrom(existingUser).build();
-		when(mockedUserRepository.getById(existingUser.getId())).thenReturn(existingUser);
-		String validAccessToken = UUID.randomUUID().toString();
-		when(mockedAccessTokenRepository.getUserIdByAccessToken(validAccessToken)).thenReturn(existingUser.getId());
+		String validAccessToken = givenValidAccessToken(existingUser, LocalDateTime.now());
 		Oauth2ShiroAccessToken accessToken = new Oauth2ShiroAccessToken(validAccessToken, "host");
 		
 		//when
@@ -63,4 +81,200 @@ public class OAuth2AccessTokenRealmTest {
 		//then
 		assertThat(result).isNull();
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void doGetAuthenticationInfo_should_return_client_app_principal_with_client_credentials_token() {
+		//given
+		SecuredUser owner = TestHelper.generateRandomSecuredUser();
+		UUID clientId = UUID.randomUUID();
+		OAuth2AccessToken clientAccessToken = OAuth2AccessToken.Builder.createDefault()
+			.withRandomId()
+			.withToken("client token")
+			.withUserId(owner.getId())
+			.withClientId(clientId)
+			.build();
+		doReturn(clientAccessToken).when(spiedAccessTokenRepository).getByAccessToken("client token");
+		
+		//when
+		AuthenticationInfo result = testedRealm.doGetAuthenticationInfo(new Oauth2ShiroAccessToken("client token", "host"));
+		
+		//then
+		assertThat(result).isNotNull();
+		assertThat(result.getPrincipals().getPrimaryPrincipal()).isEqualTo(new ClientAppPrincipal(clientId));
+		verify(mockedUserRepository).addChangeListener(any());
+		verifyNoMoreInteractions(mockedUserRepository);
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_serve_valid_access_token_from_cache() {
+		//given
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		String validAccessToken = givenValidAccessToken(existingUser, LocalDateTime.now());
+		Oauth2ShiroAccessToken accessToken = new Oauth2ShiroAccessToken(validAccessToken, "host");
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//when
+		AuthenticationInfo result = testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//then
+		assertThat(result).isNotNull();
+		assertThat(result.getPrincipals().getPrimaryPrincipal()).isEqualTo(User.Builder.createFrom(existingUser).build());
+		verify(spiedAccessTokenRepository, times(1)).getByAccessToken(validAccessToken);
+		verify(mockedUserRepository, times(1)).getById(existingUser.getId());
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_not_cache_expired_access_token() {
+		//given
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		LocalDateTime expiredCreationDate = LocalDateTime.now().minusMinutes(OAuth2AccessTokenRepository.ACCESS_TOKEN_TTL_IN_MINUTES + 1);
+		String expiredAccessToken = givenValidAccessToken(existingUser, expiredCreationDate);
+		Oauth2ShiroAccessToken accessToken = new Oauth2ShiroAccessToken(expiredAccessToken, "host");
+		
+		//when
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//then
+		verify(spiedAccessTokenRepository, times(2)).getByAccessToken(expiredAccessToken);
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_remember_invalid_access_token() {
+		//given
+		Oauth2ShiroAccessToken accessToken = new Oauth2ShiroAccessToken("invalid token", "host");
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//when
+		AuthenticationInfo result = testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//then
+		assertThat(result).isNull();
+		verify(spiedAccessTokenRepository, times(1)).getByAccessToken("invalid token");
+		verify(mockedUserRepository).addChangeListener(any());
+		verifyNoMoreInteractions(mockedUserRepository);
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_not_serve_deleted_access_token_from_cache() {
+		//given
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		String validAccessToken = givenValidAccessToken(existingUser, LocalDateTime.now());
+		Oauth2ShiroAccessToken accessToken = new Oauth2ShiroAccessToken(validAccessToken, "host");
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//when
+		spiedAccessTokenRepository.deleteByAccessToken(validAccessToken);
+		doReturn(null).when(spiedAccessTokenRepository).getByAccessToken(validAccessToken);
+		AuthenticationInfo result = testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_reject_access_token_revoked_on_another_node() {
+		//given
+		Map<String, OAuth2AccessToken> sharedTokens = new HashMap<>();
+		OAuth2AccessTokenRepository nodeARepository = new SharedOAuth2AccessTokenRepository(sharedTokens);
+		OAuth2AccessTokenRepository nodeBRepository = new SharedOAuth2AccessTokenRepository(sharedTokens);
+		AtomicLong time = new AtomicLong(0);
+		BoundedCacheManager cacheManager = new BoundedCacheManager(Config.DEFAULT);
+		Duration refreshPeriod = Duration.ofSeconds(Config.DEFAULT.getRevocationRefreshPeriodInSeconds());
+		new OAuth2AccessTokenRealm(cacheManager, nodeARepository, mockedUserRepository, mockedBasicUserRepository,
+			new AccessTokenPrincipalCache(cacheManager, refreshPeriod, time::get));
+		OAuth2AccessTokenRealm nodeBRealm = new OAuth2AccessTokenRealm(cacheManager, nodeBRepository, mockedUserRepository, mockedBasicUserRepository,
+			new AccessTokenPrincipalCache(cacheManager, refreshPeriod, time::get));
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		String validAccessToken = givenValidAccessToken(existingUser, LocalDateTime.now());
+		sharedTokens.put(validAccessToken, spiedAccessTokenRepository.getByAccessToken(validAccessToken));
+		Oauth2ShiroAccessToken accessToken = new Oauth2ShiroAccessToken(validAccessToken, "host");
+		AuthenticationInfo beforeRevocation = nodeBRealm.doGetAuthenticationInfo(accessToken);
+		
+		//when
+		nodeARepository.deleteByAccessToken(validAccessToken);
+		time.addAndGet(refreshPeriod.toNanos());
+		AuthenticationInfo result = nodeBRealm.doGetAuthenticationInfo(accessToken);
+		
+		//then
+		assertThat(beforeRevocation).isNotNull();
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_not_serve_changed_user_from_cache() {
+		//given
+		ArgumentCaptor<Consumer<UUID>> changeListener = listenerCaptor();
+		verify(mockedUserRepository).addChangeListener(changeListener.capture());
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		String validAccessToken = givenValidAccessToken(existingUser, LocalDateTime.now());
+		Oauth2ShiroAccessToken accessToken = new Oauth2ShiroAccessToken(validAccessToken, "host");
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//when
+		changeListener.getValue().accept(existingUser.getId());
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//then
+		verify(spiedAccessTokenRepository, times(2)).getByAccessToken(validAccessToken);
+	}
+	
+	@Test
+	public void doGetAuthenticationInfo_should_not_serve_user_changed_by_basic_repository_from_cache() {
+		//given
+		ArgumentCaptor<Consumer<UUID>> changeListener = listenerCaptor();
+		verify(mockedBasicUserRepository).addChangeListener(changeListener.capture());
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		SecuredUser otherUser = TestHelper.generateRandomSecuredUser();
+		String validAccessToken = givenValidAccessToken(existingUser, LocalDateTime.now());
+		String otherAccessToken = givenValidAccessToken(otherUser, LocalDateTime.now());
+		Oauth2ShiroAccessToken accessToken = new Oauth2ShiroAccessToken(validAccessToken, "host");
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		testedRealm.doGetAuthenticationInfo(new Oauth2ShiroAccessToken(otherAccessToken, "host"));
+		
+		//when
+		changeListener.getValue().accept(existingUser.getId());
+		testedRealm.doGetAuthenticationInfo(accessToken);
+		
+		//then
+		verify(spiedAccessTokenRepository, times(2)).getByAccessToken(validAccessToken);
+		assertThat(testedRealm.getPrincipalCache().getPrincipal(otherAccessToken)).isNotNull();
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static ArgumentCaptor<Consumer<UUID>> listenerCaptor() {
+		return (ArgumentCaptor) ArgumentCaptor.forClass(Consumer.class);
+	}
+	
+	/** Each node has its own repository and deletion listeners, the tokens are stored in the same database */
+	private static class SharedOAuth2AccessTokenRepository extends OAuth2AccessTokenFakeRepository {
+		private final Map<String, OAuth2AccessToken> sharedTokens;
+		
+		SharedOAuth2AccessTokenRepository(Map<String, OAuth2AccessToken> sharedTokens) {
+			this.sharedTokens = sharedTokens;
+		}
+		
+		@Override
+		protected OAuth2AccessToken processGetByAccessToken(String accessToken) {
+			return sharedTokens.get(accessToken);
+		}
+		
+		@Override
+		protected void processDeleteByAccessToken(String accessToken) {
+			sharedTokens.remove(accessToken);
+		}
+	}
+	
+	private String givenValidAccessToken(SecuredUser existingUser, LocalDateTime creationDate) {
+		String validAccessToken = UUID.randomUUID().toString();
+		OAuth2AccessToken existingAccessToken = OAuth2AccessToken.Builder.createDefault()
+			.withRandomId()
+			.withToken(validAccessToken)
+			.withUserId(existingUser.getId())
+			.withCreationDate(creationDate)
+			.build();
+		doReturn(existingAccessToken).when(spiedAccessTokenRepository).getByAccessToken(validAccessToken);
+		when(mockedUserRepository.getById(existingUser.getId())).thenReturn(existingUser);
+		return validAccessToken;
+	}
+}
@@ -0,0 +1,62 @@
+package yoan.shopping.authentication.realm;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.util.SimpleByteSource;
+import org.junit.Test;
+
+import yoan.shopping.infra.security.PasswordHasher;
+import yoan.shopping.infra.util.helper.SecurityHelper;
+import yoan.shopping.test.TestHelper;
+
+public class PasswordCredentialsMatcherTest {
+	
+	private final PasswordHasher passwordHasher = TestHelper.createFastPasswordHasher();
+	private final PasswordCredentialsMatcher testedMatcher = new PasswordCredentialsMatcher(passwordHasher);
+	
+	@Test
+	public void doCredentialsMatch_should_check_password_against_stored_hash() {
+		//given
+		SimpleAuthenticationInfo info = getAuthenticationInfo(passwordHasher.hash("password", "salt"), "salt");
+		
+		//when
+		boolean matching = testedMatcher.doCredentialsMatch(new UsernamePasswordToken("user@mail.com", "password"), info);
+		boolean wrongPassword = testedMatcher.doCredentialsMatch(new UsernamePasswordToken("user@mail.com", "wrong password"), info);
+		
+		//then
+		assertThat(matching).isTrue();
+		assertThat(wrongPassword).isFalse();
+	}
+	
+	@Test
+	public void doCredentialsMatch_should_accept_legacy_hash() {
+		//given
+		SimpleAuthenticationInfo info = getAuthenticationInfo(SecurityHelper.hash("password", "salt"), "salt");
+		
+		//when
+		boolean result = testedMatcher.doCredentialsMatch(new UsernamePasswordToken("user@mail.com", "password"), info);
+		
+		//then
+		assertThat(result).isTrue();
+	}
+	
+	@Test
+	public void doCredentialsMatch_should_reject_info_without_salt() {
+		//given
+		SimpleAuthenticationInfo info = new SimpleAuthenticationInfo("user@mail.com", passwordHasher.hash("password", "salt"), "realm");
+		
+		//when
+		boolean result = testedMatcher.doCredentialsMatch(new UsernamePasswordToken("user@mail.com", "password"), info);
+		
+		//then
+		assertThat(result).isFalse();
+	}
+	
+	private static SimpleAuthenticationInfo getAuthenticationInfo(String storedHash, String salt) {
+		SimpleAuthenticationInfo info = new SimpleAuthenticationInfo("user@mail.com", storedHash, "realm");
+		info.setCredentialsSalt(new SimpleByteSource(salt));
+		return info;
+	}
+}
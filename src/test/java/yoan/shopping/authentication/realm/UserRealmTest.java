@@ -1,22 +1,35 @@
 package yoan.shopping.authentication.realm;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.UUID;
+import java.util.function.Consumer;
+
 import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.IncorrectCredentialsException;
 import org.apache.shiro.authc.UsernamePasswordToken;
-import org.apache.shiro.authc.credential.HashedCredentialsMatcher;
 import org.apache.shiro.cache.CacheManager;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import yoan.shopping.infra.cache.BoundedCache;
+import yoan.shopping.infra.cache.BoundedCacheManager;
+import yoan.shopping.infra.config.api.Config;
 import yoan.shopping.test.TestHelper;
 import yoan.shopping.user.SecuredUser;
 import yoan.shopping.user.User;
 import yoan.shopping.user.repository.SecuredUserRepository;
+import yoan.shopping.user.repository.UserRepository;
 
 @RunWith(MockitoJUnitRunner.class)
 public class UserRealmTest {
@@ -24,9 +37,11 @@ public class UserRealmTest {
 	@Mock
 	CacheManager mockedCacheManager;
 	@Mock
-	HashedCredentialsMatcher mockedCredentialsMatcher;
+	PasswordCredentialsMatcher mockedCredentialsMatcher;
 	@Mock
 	SecuredUserRepository mockedUserRepository;
+	@Mock
+	UserRepository mockedBasicUserRepository;
 	@InjectMocks
 	UserRealm testedRealm;
 	
@@ -57,4 +72,89 @@ public class UserRealmTest {
 		//then
 		assertThat(result).isNull();
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void getAuthenticationInfo_should_use_cached_credentials() {
+		//given
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		when(mockedUserRepository.getByEmail(existingUser.getEmail())).thenReturn(existingUser);
+		when(mockedCredentialsMatcher.doCredentialsMatch(any(AuthenticationToken.class), any(AuthenticationInfo.class))).thenReturn(true);
+		BoundedCacheManager cacheManager = new BoundedCacheManager(Config.DEFAULT);
+		UserRealm realm = new UserRealm(cacheManager, mockedCredentialsMatcher, mockedUserRepository, mockedBasicUserRepository);
+		UsernamePasswordToken userToken = new UsernamePasswordToken(existingUser.getEmail(), "password");
+		
+		//when
+		realm.getAuthenticationInfo(userToken);
+		AuthenticationInfo result = realm.getAuthenticationInfo(userToken);
+		
+		//then
+		assertThat(result.getPrincipals().getPrimaryPrincipal()).isEqualTo(User.Builder.createFrom(existingUser).build());
+		BoundedCache<?, ?> cache = cacheManager.getCaches().get(0);
+		assertThat(cache.getName()).isEqualTo(UserRealm.AUTHENTICATION_CACHE);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void getAuthenticationInfo_should_forget_cached_credentials_after_user_change() {
+		//given
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		when(mockedUserRepository.getByEmail(existingUser.getEmail())).thenReturn(existingUser);
+		when(mockedCredentialsMatcher.doCredentialsMatch(any(AuthenticationToken.class), any(AuthenticationInfo.class))).thenReturn(true);
+		ArgumentCaptor<Consumer<UUID>> changeListener = listenerCaptor();
+		BoundedCacheManager cacheManager = new BoundedCacheManager(Config.DEFAULT);
+		UserRealm realm = new UserRealm(cacheManager, mockedCredentialsMatcher, mockedUserRepository, mockedBasicUserRepository);
+		verify(mockedBasicUserRepository, atLeastOnce()).addChangeListener(changeListener.capture());
+		UsernamePasswordToken userToken = new UsernamePasswordToken(existingUser.getEmail(), "password");
+		realm.getAuthenticationInfo(userToken);
+		
+		//when
+		changeListener.getValue().accept(existingUser.getId());
+		realm.getAuthenticationInfo(userToken);
+		
+		//then
+		BoundedCache<?, ?> cache = cacheManager.getCaches().get(0);
+		assertThat(cache.getMissCount()).isEqualTo(2);
+		assertThat(cache.getHitCount()).isEqualTo(0);
+		assertThat(cache.size()).isEqualTo(1);
+	}
+	
+	@Test
+	public void getAuthenticationInfo_should_upgrade_password_hash_once_checked() {
+		//given
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		when(mockedUserRepository.getByEmail(existingUser.getEmail())).thenReturn(existingUser);
+		when(mockedCredentialsMatcher.doCredentialsMatch(any(AuthenticationToken.class), any(AuthenticationInfo.class))).thenReturn(true);
+		UserRealm realm = new UserRealm(new BoundedCacheManager(Config.DEFAULT), mockedCredentialsMatcher, mockedUserRepository, mockedBasicUserRepository);
+		UsernamePasswordToken userToken = new UsernamePasswordToken(existingUser.getEmail(), "password");
+		
+		//when
+		realm.getAuthenticationInfo(userToken);
+		
+		//then
+		verify(mockedUserRepository).upgradePasswordHash(existingUser, "password");
+	}
+	
+	@Test(expected = IncorrectCredentialsException.class)
+	public void getAuthenticationInfo_should_not_upgrade_password_hash_with_wrong_password() {
+		//given
+		SecuredUser existingUser = TestHelper.generateRandomSecuredUser();
+		when(mockedUserRepository.getByEmail(existingUser.getEmail())).thenReturn(existingUser);
+		when(mockedCredentialsMatcher.doCredentialsMatch(any(AuthenticationToken.class), any(AuthenticationInfo.class))).thenReturn(false);
+		UserRealm realm = new UserRealm(new BoundedCacheManager(Config.DEFAULT), mockedCredentialsMatcher, mockedUserRepository, mockedBasicUserRepository);
+		UsernamePasswordToken userToken = new UsernamePasswordToken(existingUser.getEmail(), "wrong password");
+		
+		//when
+		try {
+			realm.getAuthenticationInfo(userToken);
+		} finally {
+		//then
+			verify(mockedUserRepository, never()).upgradePasswordHash(any(), any());
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static ArgumentCaptor<Consumer<UUID>> listenerCaptor() {
+		return (ArgumentCaptor) ArgumentCaptor.forClass(Consumer.class);
+	}
+}
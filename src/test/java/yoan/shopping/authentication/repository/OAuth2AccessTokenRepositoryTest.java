@@ -5,6 +5,8 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.Test;
@@ -59,7 +61,7 @@ public class OAuth2AccessTokenRepositoryTest {
 		testedRepo.create(nullToken, null);
 		
 		//then
-		verify(testedRepo, never()).processCreate(any(), any());
+		verify(testedRepo, never()).processCreate(any(), any(), any());
 	}
 	
 	@Test
@@ -71,7 +73,7 @@ public class OAuth2AccessTokenRepositoryTest {
 		testedRepo.create(blankToken, UUID.randomUUID());
 		
 		//then
-		verify(testedRepo, never()).processCreate(any(), any());
+		verify(testedRepo, never()).processCreate(any(), any(), any());
 	}
 	
 	@Test
@@ -83,7 +85,7 @@ public class OAuth2AccessTokenRepositoryTest {
 		testedRepo.create("token", nullUserId);
 		
 		//then
-		verify(testedRepo, never()).processCreate(any(), any());
+		verify(testedRepo, never()).processCreate(any(), any(), any());
 	}
 	
 	@Test
@@ -109,4 +111,45 @@ public class OAuth2AccessTokenRepositoryTest {
 		//then
 		verify(testedRepo, never()).processDeleteByAccessToken(any());
 	}
+	
+	@Test
+	public void getByAccessToken_should_return_null_with_blank_token() {
+		//given
+		String blankToken = "  ";
+
+		//when
+		OAuth2AccessToken result = testedRepo.getByAccessToken(blankToken);
+		
+		//then
+		assertThat(result).isNull();
+		verify(testedRepo, never()).processGetByAccessToken(any());
+	}
+	
+	@Test
+	public void deleteByAccessToken_should_notify_deletion_listeners() {
+		//given
+		String token = "token";
+		List<String> deletedTokens = new ArrayList<>();
+		testedRepo.addDeletionListener(deletedTokens::add);
+
+		//when
+		testedRepo.deleteByAccessToken(token);
+		
+		//then
+		verify(testedRepo).processDeleteByAccessToken(token);
+		assertThat(deletedTokens).containsExactly(token);
+	}
+	
+	@Test
+	public void deleteByAccessToken_should_not_notify_deletion_listeners_with_blank_token() {
+		//given
+		List<String> deletedTokens = new ArrayList<>();
+		testedRepo.addDeletionListener(deletedTokens::add);
+
+		//when
+		testedRepo.deleteByAccessToken("  ");
+		
+		//then
+		assertThat(deletedTokens).isEmpty();
+	}
 }
@@ -0,0 +1,136 @@
+package yoan.shopping.authentication.repository;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import yoan.shopping.authentication.repository.fake.RefreshTokenFakeRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RefreshTokenRepositoryTest {
+	
+	@Spy
+	RefreshTokenRepository testedRepo = new RefreshTokenFakeRepository();
+	
+	@Test
+	public void create_should_do_nothing_with_null_token() {
+		//given
+		RefreshToken nullToken = null;
+		
+		//when
+		testedRepo.create(nullToken);
+		
+		//then
+		verify(testedRepo, never()).processCreate(any());
+	}
+	
+	@Test
+	public void redeem_should_return_null_with_blank_token() {
+		//given
+		String blankToken = "  ";
+		
+		//when
+		RefreshToken result = testedRepo.redeem(blankToken, UUID.randomUUID());
+		
+		//then
+		assertThat(result).isNull();
+		verify(testedRepo, never()).processRedeem(any(), any(), any());
+	}
+	
+	@Test
+	public void redeem_should_return_token_once() {
+		//given
+		String token = "token";
+		RefreshToken refreshToken = generateRefreshToken(token, LocalDateTime.now().plusDays(1));
+		testedRepo.create(refreshToken);
+		
+		//when
+		RefreshToken result = testedRepo.redeem(token, refreshToken.getClientId());
+		
+		//then
+		assertThat(result).isEqualTo(refreshToken);
+		assertThat(testedRepo.processGetByTokenHash(refreshToken.getTokenHash()).isUsed()).isTrue();
+	}
+	
+	@Test
+	public void redeem_should_revoke_the_family_of_a_reused_token() {
+		//given
+		String token = "token";
+		RefreshToken refreshToken = generateRefreshToken(token, LocalDateTime.now().plusDays(1));
+		RefreshToken rotatedToken = RefreshToken.Builder.createFrom(generateRefreshToken("rotated token", LocalDateTime.now().plusDays(1)))
+			.withFamilyId(refreshToken.getFamilyId())
+			.build();
+		testedRepo.create(refreshToken);
+		testedRepo.redeem(token, refreshToken.getClientId());
+		testedRepo.create(rotatedToken);
+		
+		//when
+		RefreshToken result = testedRepo.redeem(token, refreshToken.getClientId());
+		
+		//then
+		assertThat(result).isNull();
+		verify(testedRepo).processDeleteByFamilyId(refreshToken.getFamilyId());
+		assertThat(testedRepo.redeem("rotated token", rotatedToken.getClientId())).isNull();
+	}
+	
+	@Test
+	public void redeem_should_not_accept_token_of_another_client() {
+		//given
+		String token = "token";
+		RefreshToken refreshToken = generateRefreshToken(token, LocalDateTime.now().plusDays(1));
+		testedRepo.create(refreshToken);
+		
+		//when
+		RefreshToken result = testedRepo.redeem(token, UUID.randomUUID());
+		
+		//then
+		assertThat(result).isNull();
+		verify(testedRepo, never()).processDeleteByFamilyId(any());
+		assertThat(testedRepo.redeem(token, refreshToken.getClientId())).isEqualTo(refreshToken);
+	}
+	
+	@Test
+	public void redeem_should_not_accept_expired_token() {
+		//given
+		String token = "token";
+		RefreshToken expiredToken = generateRefreshToken(token, LocalDateTime.now().minusMinutes(1));
+		testedRepo.create(expiredToken);
+		
+		//when
+		RefreshToken result = testedRepo.redeem(token, expiredToken.getClientId());
+		
+		//then
+		assertThat(result).isNull();
+		verify(testedRepo, never()).processDeleteByFamilyId(any());
+	}
+	
+	@Test
+	public void hashToken_should_not_keep_the_token_value() {
+		//when
+		String result = RefreshTokenRepository.hashToken("token");
+		
+		//then
+		assertThat(result).isNotEqualTo("token").hasSize(64);
+		assertThat(result).isEqualTo(RefreshTokenRepository.hashToken("token"));
+	}
+	
+	private static RefreshToken generateRefreshToken(String token, LocalDateTime expirationDate) {
+		return RefreshToken.Builder.createDefault()
+			.withRandomId()
+			.withTokenHash(RefreshTokenRepository.hashToken(token))
+			.withUserId(UUID.randomUUID())
+			.withClientId(UUID.randomUUID())
+			.withFamilyId(UUID.randomUUID())
+			.withExpirationDate(expirationDate)
+			.build();
+	}
+}
@@ -0,0 +1,76 @@
+package yoan.shopping.authentication.repository;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class RefreshTokenTest {
+	
+	@Test(expected = NullPointerException.class)
+	public void refreshToken_should_fail_without_Id() {
+		//given
+		UUID nullId = null;
+		
+		//when
+		try {
+			new RefreshToken(nullId, "hash", UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), LocalDateTime.now(), LocalDateTime.now(), null);
+		} catch(NullPointerException npe) {
+		//then
+			assertThat(npe.getMessage()).isEqualTo("Refresh token Id is mandatory");
+			throw npe;
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void refreshToken_should_fail_with_blank_hash() {
+		//given
+		String blankHash = "  ";
+		
+		//when
+		try {
+			new RefreshToken(UUID.randomUUID(), blankHash, UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), LocalDateTime.now(), LocalDateTime.now(), null);
+		} catch(IllegalArgumentException iae) {
+		//then
+			assertThat(iae.getMessage()).isEqualTo("Invalid token hash");
+			throw iae;
+		}
+	}
+	
+	@Test(expected = NullPointerException.class)
+	public void refreshToken_should_fail_without_family_Id() {
+		//given
+		UUID nullFamilyId = null;
+		
+		//when
+		try {
+			new RefreshToken(UUID.randomUUID(), "hash", UUID.randomUUID(), UUID.randomUUID(), nullFamilyId, LocalDateTime.now(), LocalDateTime.now(), null);
+		} catch(NullPointerException npe) {
+		//then
+			assertThat(npe.getMessage()).isEqualTo("Family ID is mandatory");
+			throw npe;
+		}
+	}
+	
+	@Test
+	public void isUsed_should_depend_on_used_date() {
+		//given
+		RefreshToken unusedToken = RefreshToken.DEFAULT;
+		RefreshToken usedToken = RefreshToken.Builder.createFrom(unusedToken).withUsedDate(LocalDateTime.now()).build();
+		
+		//then
+		assertThat(unusedToken.isUsed()).isFalse();
+		assertThat(usedToken.isUsed()).isTrue();
+	}
+	
+	@Test
+	public void toString_should_not_show_token_hash() {
+		//when
+		String result = RefreshToken.DEFAULT.toString();
+		
+		//then
+		assertThat(result).doesNotContain(RefreshToken.DEFAULT_TOKEN_HASH);
+	}
+}
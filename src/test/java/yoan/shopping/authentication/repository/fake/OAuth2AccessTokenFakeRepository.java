@@ -2,6 +2,7 @@ package yoan.shopping.authentication.repository.fake;
 
 import java.util.UUID;
 
+import yoan.shopping.authentication.repository.OAuth2AccessToken;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
 
 /**
@@ -16,7 +17,12 @@ public class OAuth2AccessTokenFakeRepository extends OAuth2AccessTokenRepository
 	}
 
 	@Override
-	protected void processCreate(String accessToken, UUID userId) { }
+	protected OAuth2AccessToken processGetByAccessToken(String accessToken) {
+		return null;
+	}
+
+	@Override
+	protected void processCreate(String accessToken, UUID userId, UUID clientId) { }
 
 	@Override
 	protected void processDeleteByAccessToken(String accessToken) { }
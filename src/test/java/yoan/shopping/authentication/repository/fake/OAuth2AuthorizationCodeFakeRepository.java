@@ -18,6 +18,11 @@ public class OAuth2AuthorizationCodeFakeRepository extends OAuth2AuthorizationCo
 	@Override
 	protected void processCreate(String authzCode, UUID userId) { }
 
+	@Override
+	protected UUID processRedeem(String authzCode) {
+		return null;
+	}
+
 	@Override
 	protected void processDeleteByCode(String authzCode) { }
 }
\ No newline at end of file
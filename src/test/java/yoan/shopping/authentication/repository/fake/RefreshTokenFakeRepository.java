@@ -0,0 +1,43 @@
+package yoan.shopping.authentication.repository.fake;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import yoan.shopping.authentication.repository.RefreshToken;
+import yoan.shopping.authentication.repository.RefreshTokenRepository;
+
+/**
+ * Fake in memory implementation of refresh token repository
+ * Test purpose only
+ * @author yoan
+ */
+public class RefreshTokenFakeRepository extends RefreshTokenRepository {
+	private final Map<String, RefreshToken> refreshTokensByHash = new ConcurrentHashMap<>();
+	
+	@Override
+	protected void processCreate(RefreshToken refreshToken) {
+		refreshTokensByHash.put(refreshToken.getTokenHash(), refreshToken);
+	}
+	
+	@Override
+	protected RefreshToken processGetByTokenHash(String tokenHash) {
+		return refreshTokensByHash.get(tokenHash);
+	}
+	
+	@Override
+	protected synchronized RefreshToken processRedeem(String tokenHash, UUID clientId, LocalDateTime now) {
+		RefreshToken foundToken = refreshTokensByHash.get(tokenHash);
+		if (foundToken == null || foundToken.isUsed() || !foundToken.getClientId().equals(clientId) || !foundToken.getExpirationDate().isAfter(now)) {
+			return null;
+		}
+		refreshTokensByHash.put(tokenHash, RefreshToken.Builder.createFrom(foundToken).withUsedDate(now).build());
+		return foundToken;
+	}
+	
+	@Override
+	protected void processDeleteByFamilyId(UUID familyId) {
+		refreshTokensByHash.values().removeIf(refreshToken -> refreshToken.getFamilyId().equals(familyId));
+	}
+}
@@ -0,0 +1,32 @@
+package yoan.shopping.authentication.repository.fake;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import yoan.shopping.authentication.repository.RevokedAccessToken;
+import yoan.shopping.authentication.repository.RevokedAccessTokenRepository;
+
+/**
+ * Fake in memory implementation of revoked access token repository
+ * Test purpose only
+ * @author yoan
+ */
+public class RevokedAccessTokenFakeRepository extends RevokedAccessTokenRepository {
+	private final List<RevokedAccessToken> revokedTokens = new CopyOnWriteArrayList<>();
+	
+	@Override
+	protected void processRevoke(RevokedAccessToken revokedToken) {
+		revokedTokens.add(revokedToken);
+	}
+
+	@Override
+	protected List<RevokedAccessToken> processFindRevokedSince(LocalDateTime since) {
+		return revokedTokens.stream()
+			.filter(revokedToken -> since == null || !revokedToken.getRevocationDate().isBefore(since))
+			.sorted(Comparator.comparing(RevokedAccessToken::getRevocationDate))
+			.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,245 @@
+package yoan.shopping.authentication.repository.inmemory;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import yoan.shopping.test.ManualClock;
+
+public class ExpiringTokenStoreTest {
+	
+	@Rule
+	public TemporaryFolder snapshotFolder = new TemporaryFolder();
+	
+	private final ManualClock clock = new ManualClock(Instant.parse("2016-03-01T10:00:00.500Z"));
+	private final ExpiringTokenStore<String> testedStore = createStore(100);
+	
+	private ExpiringTokenStore<String> createStore(int maxEntries) {
+		return new ExpiringTokenStore<>("test tokens", 10, TimeUnit.MINUTES, maxEntries, Function.identity(), (key, value) -> value, clock);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_max_entries() {
+		createStore(0);
+	}
+	
+	@Test
+	public void get_should_return_living_token() {
+		//given
+		testedStore.put("token", "value");
+		
+		//when
+		String result = testedStore.get("token");
+		String unknown = testedStore.get("unknown");
+		
+		//then
+		assertThat(result).isEqualTo("value");
+		assertThat(unknown).isNull();
+	}
+	
+	@Test
+	public void get_should_ignore_expired_token_before_it_is_swept() {
+		//given
+		testedStore.put("token", "value");
+		clock.advance(Duration.ofMinutes(10));
+		
+		//when
+		String result = testedStore.get("token");
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void expire_should_drop_tokens_whose_tick_passed() {
+		//given
+		testedStore.put("old token", "value");
+		clock.advance(Duration.ofMinutes(5));
+		testedStore.put("new token", "value");
+		
+		//when
+		clock.advance(Duration.ofMinutes(5).plusSeconds(1));
+		int result = testedStore.expire();
+		
+		//then
+		assertThat(result).isEqualTo(1);
+		assertThat(testedStore.getSize()).isEqualTo(1);
+		assertThat(testedStore.get("new token")).isEqualTo("value");
+		assertThat(testedStore.getExpiredCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void expire_should_drop_all_tokens_after_a_long_pause() {
+		//given
+		testedStore.put("token1", "value");
+		clock.advance(Duration.ofMinutes(3));
+		testedStore.put("token2", "value");
+		
+		//when
+		clock.advance(Duration.ofHours(5));
+		int result = testedStore.expire();
+		
+		//then
+		assertThat(result).isEqualTo(2);
+		assertThat(testedStore.getSize()).isEqualTo(0);
+	}
+	
+	@Test
+	public void expire_should_not_count_removed_tokens() {
+		//given
+		testedStore.put("token", "value");
+		String removedValue = testedStore.remove("token");
+		
+		//when
+		clock.advance(Duration.ofMinutes(11));
+		int result = testedStore.expire();
+		
+		//then
+		assertThat(removedValue).isEqualTo("value");
+		assertThat(result).isEqualTo(0);
+	}
+	
+	@Test
+	public void put_should_evict_tokens_closest_to_expiration_once_full() {
+		//given
+		ExpiringTokenStore<String> smallStore = createStore(2);
+		smallStore.put("token1", "value");
+		clock.advance(Duration.ofSeconds(5));
+		smallStore.put("token2", "value");
+		clock.advance(Duration.ofSeconds(5));
+		
+		//when
+		smallStore.put("token3", "value");
+		
+		//then
+		assertThat(smallStore.getSize()).isEqualTo(2);
+		assertThat(smallStore.get("token1")).isNull();
+		assertThat(smallStore.get("token2")).isEqualTo("value");
+		assertThat(smallStore.get("token3")).isEqualTo("value");
+		assertThat(smallStore.getEvictedCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void put_should_replace_existing_token_without_eviction() {
+		//given
+		ExpiringTokenStore<String> smallStore = createStore(1);
+		smallStore.put("token", "value");
+		
+		//when
+		smallStore.put("token", "new value");
+		
+		//then
+		assertThat(smallStore.get("token")).isEqualTo("new value");
+		assertThat(smallStore.getEvictedCount()).isEqualTo(0);
+	}
+	
+	@Test
+	public void put_should_be_thread_safe() throws InterruptedException {
+		//given
+		ExpiringTokenStore<String> bigStore = createStore(10_000);
+		ExecutorService writers = Executors.newFixedThreadPool(4);
+		
+		//when
+		for (int thread = 0; thread < 4; thread++) {
+			int threadIndex = thread;
+			writers.submit(() -> {
+				for (int i = 0; i < 1_000; i++) {
+					String token = threadIndex + "-" + i;
+					bigStore.put(token, token);
+					bigStore.get(token);
+				}
+			});
+		}
+		writers.shutdown();
+		writers.awaitTermination(10, TimeUnit.SECONDS);
+		
+		//then
+		assertThat(bigStore.getSize()).isEqualTo(4_000);
+		assertThat(bigStore.get("3-999")).isEqualTo("3-999");
+	}
+	
+	@Test
+	public void restoreFrom_should_get_back_living_tokens_with_their_expiration() throws IOException {
+		//given
+		Path snapshotFile = snapshotFolder.getRoot().toPath().resolve("tokens.snapshot");
+		testedStore.put("old token", "old value");
+		clock.advance(Duration.ofMinutes(5));
+		testedStore.put("new token", "new value");
+		testedStore.saveTo(snapshotFile);
+		ExpiringTokenStore<String> restartedStore = createStore(100);
+		clock.advance(Duration.ofMinutes(6));
+		
+		//when
+		int result = restartedStore.restoreFrom(snapshotFile);
+		
+		//then
+		assertThat(result).isEqualTo(1);
+		assertThat(restartedStore.get("old token")).isNull();
+		assertThat(restartedStore.get("new token")).isEqualTo("new value");
+		clock.advance(Duration.ofMinutes(4));
+		assertThat(restartedStore.get("new token")).isNull();
+	}
+	
+	@Test
+	public void restoreFrom_should_ignore_missing_file() throws IOException {
+		//given
+		Path missingFile = snapshotFolder.getRoot().toPath().resolve("missing.snapshot");
+		
+		//when
+		int result = testedStore.restoreFrom(missingFile);
+		
+		//then
+		assertThat(result).isEqualTo(0);
+	}
+	
+	@Test(expected = IOException.class)
+	public void restoreFrom_should_fail_with_unknown_snapshot_version() throws IOException {
+		//given
+		Path snapshotFile = snapshotFolder.newFile("unknown.snapshot").toPath();
+		try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(snapshotFile))) {
+			output.writeInt(-1);
+		}
+		
+		//when
+		testedStore.restoreFrom(snapshotFile);
+	}
+	
+	@Test
+	public void saveTo_should_keep_the_snapshot_for_its_owner_only() throws IOException {
+		//given
+		Path snapshotFile = snapshotFolder.getRoot().toPath().resolve("tokens.snapshot");
+		testedStore.put("token", "value");
+		
+		//when
+		testedStore.saveTo(snapshotFile);
+		
+		//then
+		assertThat(Files.exists(snapshotFile)).isTrue();
+		if (snapshotFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(snapshotFile))).isEqualTo("rw-------");
+		}
+	}
+	
+	@Test
+	public void getSnapshotFile_should_be_null_without_directory() {
+		//when
+		Path result = ExpiringTokenStore.getSnapshotFile(null, "tokens.snapshot");
+		
+		//then
+		assertThat(result).isNull();
+	}
+}
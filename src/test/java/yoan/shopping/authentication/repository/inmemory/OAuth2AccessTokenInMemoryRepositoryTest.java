@@ -0,0 +1,97 @@
+package yoan.shopping.authentication.repository.inmemory;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepository.ACCESS_TOKEN_TTL_IN_MINUTES;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import yoan.shopping.authentication.repository.OAuth2AccessToken;
+import yoan.shopping.test.ManualClock;
+
+public class OAuth2AccessTokenInMemoryRepositoryTest {
+	
+	private final ManualClock clock = new ManualClock(Instant.now());
+	private final OAuth2AccessTokenInMemoryRepository testedRepo = new OAuth2AccessTokenInMemoryRepository(100, clock);
+	
+	@Test
+	public void create_should_work() {
+		//given
+		String token = "token";
+		UUID userId = UUID.randomUUID();
+		
+		//when
+		testedRepo.create(token, userId);
+		
+		//then
+		OAuth2AccessToken result = testedRepo.getByAccessToken(token);
+		assertThat(result).isNotNull();
+		assertThat(result.getToken()).isEqualTo(token);
+		assertThat(result.getuserId()).isEqualTo(userId);
+		assertThat(testedRepo.getUserIdByAccessToken(token)).isEqualTo(userId);
+	}
+	
+	@Test
+	public void getUserIdByAccessToken_should_ignore_expired_token() {
+		//given
+		String token = "token";
+		testedRepo.create(token, UUID.randomUUID());
+		
+		//when
+		clock.advance(Duration.ofMinutes(ACCESS_TOKEN_TTL_IN_MINUTES));
+		UUID result = testedRepo.getUserIdByAccessToken(token);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void deleteByAccessToken_should_work() {
+		//given
+		String token = "token";
+		testedRepo.create(token, UUID.randomUUID());
+		
+		//when
+		testedRepo.deleteByAccessToken(token);
+		
+		//then
+		assertThat(testedRepo.getByAccessToken(token)).isNull();
+	}
+	
+	@Test
+	public void decode_should_read_encoded_access_token() {
+		//given
+		OAuth2AccessToken accessToken = OAuth2AccessToken.Builder.createDefault()
+			.withRandomId()
+			.withToken("token")
+			.withUserId(UUID.randomUUID())
+			.withNbRefresh(2)
+			.build();
+		
+		//when
+		OAuth2AccessToken result = OAuth2AccessTokenInMemoryRepository.decode(accessToken.getToken(), OAuth2AccessTokenInMemoryRepository.encode(accessToken));
+		
+		//then
+		assertThat(result).isEqualTo(accessToken);
+	}
+	
+	@Test
+	public void decode_should_read_encoded_client_credentials_token() {
+		//given
+		OAuth2AccessToken accessToken = OAuth2AccessToken.Builder.createDefault()
+			.withRandomId()
+			.withToken("token")
+			.withUserId(UUID.randomUUID())
+			.withClientId(UUID.randomUUID())
+			.build();
+		
+		//when
+		OAuth2AccessToken result = OAuth2AccessTokenInMemoryRepository.decode(accessToken.getToken(), OAuth2AccessTokenInMemoryRepository.encode(accessToken));
+		
+		//then
+		assertThat(result).isEqualTo(accessToken);
+	}
+}
@@ -0,0 +1,74 @@
+package yoan.shopping.authentication.repository.inmemory;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository.AUTH_CODE_TTL_IN_MINUTES;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import yoan.shopping.test.ManualClock;
+
+public class OAuth2AuthorizationCodeInMemoryRepositoryTest {
+	
+	private final ManualClock clock = new ManualClock(Instant.now());
+	private final OAuth2AuthorizationCodeInMemoryRepository testedRepo = new OAuth2AuthorizationCodeInMemoryRepository(100, clock);
+	
+	@Test
+	public void create_should_work() {
+		//given
+		String code = "code";
+		UUID userId = UUID.randomUUID();
+		
+		//when
+		testedRepo.create(code, userId);
+		
+		//then
+		assertThat(testedRepo.getUserIdByAuthorizationCode(code)).isEqualTo(userId);
+	}
+	
+	@Test
+	public void getUserIdByAuthorizationCode_should_ignore_expired_code() {
+		//given
+		String code = "code";
+		testedRepo.create(code, UUID.randomUUID());
+		
+		//when
+		clock.advance(Duration.ofMinutes(AUTH_CODE_TTL_IN_MINUTES));
+		UUID result = testedRepo.getUserIdByAuthorizationCode(code);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void deleteByCode_should_work() {
+		//given
+		String code = "code";
+		testedRepo.create(code, UUID.randomUUID());
+		
+		//when
+		testedRepo.deleteByCode(code);
+		
+		//then
+		assertThat(testedRepo.getUserIdByAuthorizationCode(code)).isNull();
+	}
+	
+	@Test
+	public void redeem_should_return_user_id_only_once() {
+		//given
+		String code = "code";
+		UUID userId = UUID.randomUUID();
+		testedRepo.create(code, userId);
+		
+		//when
+		UUID firstResult = testedRepo.redeem(code);
+		UUID secondResult = testedRepo.redeem(code);
+		
+		//then
+		assertThat(firstResult).isEqualTo(userId);
+		assertThat(secondResult).isNull();
+	}
+}
@@ -77,9 +77,36 @@ public class OAuth2AccessTokenMongoConverterTest {
 		//then
 		assertThat(result).isNotNull();
 		assertThat(result.get(FIELD_ID, UUID.class)).isEqualTo(clientApp.getId());
-		assertThat(result.getString(FIELD_TOKEN)).isEqualTo(clientApp.getToken());
+		assertThat(result.containsKey(FIELD_TOKEN)).isFalse();
+		assertThat(result.get(FIELD_TOKEN_DIGEST)).isEqualTo(OAuth2AccessTokenMongoConverter.digest(clientApp.getToken()));
 		assertThat(result.get(FIELD_USER_ID, UUID.class)).isEqualTo(clientApp.getuserId());
 		assertThat(DateHelper.toLocalDateTime(result.getDate(FIELD_CREATED))).isEqualTo(clientApp.getCreationDate());
 		assertThat(result.getInteger(FIELD_NB_REFRESH)).isEqualTo(clientApp.getNbRefresh());
 	}
+	
+	@Test
+	public void fromDocument_should_take_the_looked_up_token() {
+		//given
+		OAuth2AccessToken expectedToken = TestHelper.generateRandomOAuth2AccessToken();
+		OAuth2AccessTokenMongoConverter testedConverter = new OAuth2AccessTokenMongoConverter();
+		Document doc = testedConverter.toDocument(expectedToken);
+		
+		//when
+		OAuth2AccessToken result = testedConverter.fromDocument(doc, expectedToken.getToken());
+		
+		//then
+		assertThat(result).isEqualTo(expectedToken);
+	}
+	
+	@Test
+	public void digest_should_have_a_fixed_size() {
+		//when
+		byte[] shortTokenDigest = OAuth2AccessTokenMongoConverter.digest("a");
+		byte[] longTokenDigest = OAuth2AccessTokenMongoConverter.digest(UUID.randomUUID().toString() + UUID.randomUUID());
+		
+		//then
+		assertThat(shortTokenDigest).hasSize(TOKEN_DIGEST_SIZE_IN_BYTES);
+		assertThat(longTokenDigest).hasSize(TOKEN_DIGEST_SIZE_IN_BYTES);
+		assertThat(OAuth2AccessTokenMongoConverter.digest("a")).isEqualTo(shortTokenDigest);
+	}
 }
@@ -3,8 +3,16 @@ package yoan.shopping.authentication.repository.mongo;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static yoan.shopping.authentication.repository.OAuth2AccessTokenRepositoryErrorMessage.PROBLEM_CREATION_ACCESS_TOKEN;
 import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoRepository.ACCESS_TOKEN_COLLECTION;
+import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoRepository.LEGACY_TOKEN_SPARSE_INDEX;
+import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoConverter.FIELD_CREATED;
+import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoConverter.FIELD_NB_REFRESH;
+import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoConverter.FIELD_TOKEN;
+import static yoan.shopping.authentication.repository.mongo.OAuth2AccessTokenMongoConverter.FIELD_USER_ID;
 import static yoan.shopping.infra.db.Dbs.SHOPPING;
+import static yoan.shopping.infra.db.mongo.MongoDocumentConverter.FIELD_ID;
+import static yoan.shopping.infra.db.mongo.MongoIndexEnsurer.SortOrder.ASCENDING;
 
+import java.util.Date;
 import java.util.UUID;
 
 import org.bson.Document;
@@ -14,10 +22,12 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 
 import yoan.shopping.authentication.repository.OAuth2AccessToken;
+import yoan.shopping.infra.db.mongo.MongoIndexEnsurer;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.test.fongo.FongoBackedTest;
 
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
 
 public class OAuth2AccessTokenMongoRepositoryTest extends FongoBackedTest {
 	
@@ -39,12 +49,13 @@ public class OAuth2AccessTokenMongoRepositoryTest extends FongoBackedTest {
 		//then
 		Bson filter = converter.filterByToken(accessToken);
 		Document result = accessTokenCollection.find().filter(filter).first();
-		OAuth2AccessToken found = converter.fromDocument(result);
+		OAuth2AccessToken found = converter.fromDocument(result, accessToken);
 		
 		String foundToken = found.getToken();
 		UUID foundUserId = found.getuserId();
 		assertThat(foundToken).isEqualTo(accessToken);
 		assertThat(foundUserId).isEqualTo(userId);
+		assertThat(result.containsKey(FIELD_TOKEN)).isFalse();
 	}
 	
 	@Ignore //Fongo does not use the indexes
@@ -57,7 +68,7 @@ public class OAuth2AccessTokenMongoRepositoryTest extends FongoBackedTest {
 		testedRepo.create(accessToken, userId);
 		Bson filter = converter.filterByToken(accessToken);
 		Document foundDoc = accessTokenCollection.find().filter(filter).first();
-		OAuth2AccessToken existing = converter.fromDocument(foundDoc);
+		OAuth2AccessToken existing = converter.fromDocument(foundDoc, accessToken);
 		
 		//when
 		try {
@@ -69,7 +80,7 @@ public class OAuth2AccessTokenMongoRepositoryTest extends FongoBackedTest {
 		} finally {
 			//existing should still exists with the initial userId
 			Document result = accessTokenCollection.find().filter(filter).first();
-			OAuth2AccessToken found = converter.fromDocument(result);
+			OAuth2AccessToken found = converter.fromDocument(result, accessToken);
 			assertThat(found).isEqualTo(existing);
 		}
 	}
@@ -126,4 +137,149 @@ public class OAuth2AccessTokenMongoRepositoryTest extends FongoBackedTest {
 		UUID result = testedRepo.getUserIdByAccessToken(existingAuthCode);
 		assertThat(result).isNull();
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void getByAccessToken_should_return_token_with_creation_date() {
+		//given
+		String existingToken = "token";
+		UUID expectedUserId = UUID.randomUUID();
+		testedRepo.create(existingToken, expectedUserId);
+
+		//when
+		OAuth2AccessToken result = testedRepo.getByAccessToken(existingToken);
+		
+		//then
+		assertThat(result).isNotNull();
+		assertThat(result.getToken()).isEqualTo(existingToken);
+		assertThat(result.getuserId()).isEqualTo(expectedUserId);
+		assertThat(result.getCreationDate()).isNotNull();
+		assertThat(result.getClientId()).isNull();
+	}
+	
+	@Test
+	public void getByAccessToken_should_return_client_id_of_client_credentials_token() {
+		//given
+		String existingToken = "token";
+		UUID expectedClientId = UUID.randomUUID();
+		testedRepo.create(existingToken, UUID.randomUUID(), expectedClientId);
+
+		//when
+		OAuth2AccessToken result = testedRepo.getByAccessToken(existingToken);
+		
+		//then
+		assertThat(result).isNotNull();
+		assertThat(result.getClientId()).isEqualTo(expectedClientId);
+	}
+	
+	@Test
+	public void getUserIdByAccessToken_should_find_legacy_token_until_migrated() {
+		//given
+		UUID expectedUserId = UUID.randomUUID();
+		OAuth2AccessTokenMongoRepository repoWithLegacyTokens = givenLegacyToken("legacy token", expectedUserId);
+		
+		//when
+		UUID result = repoWithLegacyTokens.getUserIdByAccessToken("legacy token");
+		
+		//then
+		assertThat(repoWithLegacyTokens.isLegacyTokensMigrated()).isFalse();
+		assertThat(result).isEqualTo(expectedUserId);
+	}
+	
+	@Test
+	public void deleteByAccessToken_should_delete_legacy_token() {
+		//given
+		OAuth2AccessTokenMongoRepository repoWithLegacyTokens = givenLegacyToken("legacy token", UUID.randomUUID());
+		
+		//when
+		repoWithLegacyTokens.deleteByAccessToken("legacy token");
+		
+		//then
+		assertThat(repoWithLegacyTokens.getUserIdByAccessToken("legacy token")).isNull();
+	}
+	
+	@Test
+	public void migrateLegacyTokenValues_should_store_legacy_tokens_by_digest() {
+		//given
+		UUID expectedUserId = UUID.randomUUID();
+		OAuth2AccessTokenMongoRepository repoWithLegacyTokens = givenLegacyToken("legacy token", expectedUserId);
+		repoWithLegacyTokens.create("new token", UUID.randomUUID());
+		
+		//when
+		int result = repoWithLegacyTokens.migrateLegacyTokenValues();
+		
+		//then
+		assertThat(result).isEqualTo(1);
+		assertThat(accessTokenCollection.find().filter(converter.filterLegacyTokens()).first()).isNull();
+		Document migratedDoc = accessTokenCollection.find().filter(converter.filterByToken("legacy token")).first();
+		assertThat(converter.fromDocument(migratedDoc, "legacy token").getuserId()).isEqualTo(expectedUserId);
+	}
+	
+	@Test
+	public void migrateLegacyTokens_should_drop_legacy_index() {
+		//given
+		OAuth2AccessTokenMongoRepository repoWithLegacyTokens = givenLegacyToken("legacy token", UUID.randomUUID());
+		
+		//when
+		repoWithLegacyTokens.migrateLegacyTokens();
+		
+		//then
+		assertThat(repoWithLegacyTokens.isLegacyTokensMigrated()).isTrue();
+		assertThat(new MongoIndexEnsurer(accessTokenCollection).hasIndex(FIELD_TOKEN, ASCENDING)).isFalse();
+	}
+	
+	@Test
+	public void new_should_rebuild_the_unique_legacy_index_as_sparse() {
+		//given
+		UUID expectedUserId = UUID.randomUUID();
+		
+		//when
+		OAuth2AccessTokenMongoRepository repoWithLegacyTokens = givenLegacyToken("legacy token", expectedUserId);
+		
+		//then
+		Document legacyIndex = new MongoIndexEnsurer(accessTokenCollection).getIndex(FIELD_TOKEN, ASCENDING);
+		assertThat(legacyIndex).isNotNull();
+		assertThat(legacyIndex.getString("name")).isEqualTo(LEGACY_TOKEN_SPARSE_INDEX);
+		assertThat(legacyIndex.getBoolean("unique")).isTrue();
+		assertThat(repoWithLegacyTokens.getUserIdByAccessToken("legacy token")).isEqualTo(expectedUserId);
+	}
+	
+	@Test
+	public void create_should_work_with_several_tokens_before_and_after_migration() {
+		//given
+		OAuth2AccessTokenMongoRepository repoWithLegacyTokens = givenLegacyToken("legacy token", UUID.randomUUID());
+		UUID firstUserId = UUID.randomUUID();
+		UUID secondUserId = UUID.randomUUID();
+		UUID thirdUserId = UUID.randomUUID();
+		
+		//when
+		repoWithLegacyTokens.create("first token", firstUserId);
+		repoWithLegacyTokens.create("second token", secondUserId);
+		repoWithLegacyTokens.migrateLegacyTokens();
+		repoWithLegacyTokens.create("third token", thirdUserId);
+		
+		//then
+		assertThat(repoWithLegacyTokens.getUserIdByAccessToken("first token")).isEqualTo(firstUserId);
+		assertThat(repoWithLegacyTokens.getUserIdByAccessToken("second token")).isEqualTo(secondUserId);
+		assertThat(repoWithLegacyTokens.getUserIdByAccessToken("third token")).isEqualTo(thirdUserId);
+	}
+	
+	@Test
+	public void new_should_not_look_for_legacy_tokens_without_legacy_index() {
+		//when
+		boolean result = testedRepo.isLegacyTokensMigrated();
+		
+		//then
+		assertThat(result).isTrue();
+	}
+	
+	private OAuth2AccessTokenMongoRepository givenLegacyToken(String accessToken, UUID userId) {
+		//as the legacy repository created it
+		accessTokenCollection.createIndex(new Document(FIELD_TOKEN, ASCENDING.getOrder()), new IndexOptions().unique(true));
+		accessTokenCollection.insertOne(new Document(FIELD_ID, UUID.randomUUID())
+			.append(FIELD_TOKEN, accessToken)
+			.append(FIELD_CREATED, new Date())
+			.append(FIELD_USER_ID, userId)
+			.append(FIELD_NB_REFRESH, 0));
+		return new OAuth2AccessTokenMongoRepository(getFongoDbConnectionFactory());
+	}
+}
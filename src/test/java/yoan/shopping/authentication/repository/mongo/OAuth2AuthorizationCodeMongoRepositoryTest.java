@@ -1,10 +1,12 @@
 package yoan.shopping.authentication.repository.mongo;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository.AUTH_CODE_TTL_IN_MINUTES;
 import static yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepositoryErrorMessage.PROBLEM_CREATION_AUTH_CODE;
 import static yoan.shopping.authentication.repository.mongo.OAuth2AuthorizationCodeMongoRepository.AUTHZ_CODE_COLLECTION;
 import static yoan.shopping.infra.db.Dbs.SHOPPING;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import org.bson.Document;
@@ -126,4 +128,38 @@ public class OAuth2AuthorizationCodeMongoRepositoryTest extends FongoBackedTest
 		UUID result = testedRepo.getUserIdByAuthorizationCode(existingAuthCode);
 		assertThat(result).isNull();
 	}
+	
+	@Test
+	public void redeem_should_return_user_id_only_once() {
+		//given
+		String existingAuthCode = "code";
+		UUID expectedUserId = UUID.randomUUID();
+		testedRepo.create(existingAuthCode, expectedUserId);
+		
+		//when
+		UUID firstResult = testedRepo.redeem(existingAuthCode);
+		UUID secondResult = testedRepo.redeem(existingAuthCode);
+		
+		//then
+		assertThat(firstResult).isEqualTo(expectedUserId);
+		assertThat(secondResult).isNull();
+		assertThat(testedRepo.getUserIdByAuthorizationCode(existingAuthCode)).isNull();
+	}
+	
+	@Test
+	public void redeem_should_reject_expired_auth_code() {
+		//given
+		OAuth2AuthorizationCode expiredAuthCode = OAuth2AuthorizationCode.Builder.createDefault()
+			.withRandomId()
+			.withCode("expired code")
+			.withCreationDate(LocalDateTime.now().minusMinutes(AUTH_CODE_TTL_IN_MINUTES + 1))
+			.build();
+		authCodeCollection.insertOne(converter.toDocument(expiredAuthCode));
+		
+		//when
+		UUID result = testedRepo.redeem(expiredAuthCode.getCode());
+		
+		//then
+		assertThat(result).isNull();
+	}
 }
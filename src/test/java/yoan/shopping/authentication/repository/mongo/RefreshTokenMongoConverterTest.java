@@ -0,0 +1,99 @@
+package yoan.shopping.authentication.repository.mongo;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_CLIENT_ID;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_CREATED;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_EXPIRATION;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_FAMILY_ID;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_TOKEN_HASH;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_USED;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoConverter.FIELD_USER_ID;
+import static yoan.shopping.infra.db.mongo.MongoDocumentConverter.FIELD_ID;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import yoan.shopping.authentication.repository.RefreshToken;
+import yoan.shopping.infra.util.helper.DateHelper;
+
+public class RefreshTokenMongoConverterTest {
+	@Test
+	public void fromDocument_should_return_null_with_null_document() {
+		//given
+		Document nullDoc = null;
+		RefreshTokenMongoConverter testedConverter = new RefreshTokenMongoConverter();
+		
+		//when
+		RefreshToken result = testedConverter.fromDocument(nullDoc);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void fromDocument_should_work_with_valid_doc() {
+		//given
+		RefreshToken expectedToken = generateRefreshToken();
+		RefreshTokenMongoConverter testedConverter = new RefreshTokenMongoConverter();
+		Document doc = new Document(FIELD_ID, expectedToken.getId())
+							.append(FIELD_TOKEN_HASH, expectedToken.getTokenHash())
+							.append(FIELD_USER_ID, expectedToken.getUserId())
+							.append(FIELD_CLIENT_ID, expectedToken.getClientId())
+							.append(FIELD_FAMILY_ID, expectedToken.getFamilyId())
+							.append(FIELD_CREATED, DateHelper.toDate(expectedToken.getCreationDate()))
+							.append(FIELD_EXPIRATION, DateHelper.toDate(expectedToken.getExpirationDate()))
+							.append(FIELD_USED, DateHelper.toDate(expectedToken.getUsedDate()));
+		//when
+		RefreshToken result = testedConverter.fromDocument(doc);
+		
+		//then
+		assertThat(result).isEqualTo(expectedToken);
+	}
+	
+	@Test
+	public void toDocument_should_return_empty_doc_with_null_token() {
+		//given
+		RefreshToken nullToken = null;
+		RefreshTokenMongoConverter testedConverter = new RefreshTokenMongoConverter();
+		
+		//when
+		Document result = testedConverter.toDocument(nullToken);
+		
+		//then
+		assertThat(result).isEqualTo(new Document());
+	}
+	
+	@Test
+	public void toDocument_should_work_with_valid_token() {
+		//given
+		RefreshToken token = generateRefreshToken();
+		RefreshTokenMongoConverter testedConverter = new RefreshTokenMongoConverter();
+		
+		//when
+		Document result = testedConverter.toDocument(token);
+		
+		//then
+		assertThat(result.get(FIELD_ID)).isEqualTo(token.getId());
+		assertThat(result.get(FIELD_TOKEN_HASH)).isEqualTo(token.getTokenHash());
+		assertThat(result.get(FIELD_FAMILY_ID)).isEqualTo(token.getFamilyId());
+		assertThat(testedConverter.fromDocument(result)).isEqualTo(token);
+	}
+	
+	private RefreshToken generateRefreshToken() {
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		return RefreshToken.Builder.createDefault()
+			.withRandomId()
+			.withTokenHash("hash")
+			.withUserId(UUID.randomUUID())
+			.withClientId(UUID.randomUUID())
+			.withFamilyId(UUID.randomUUID())
+			.withCreationDate(now.minusDays(1))
+			.withExpirationDate(now.plusDays(1))
+			.withUsedDate(now)
+			.build();
+	}
+}
@@ -0,0 +1,108 @@
+package yoan.shopping.authentication.repository.mongo;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.authentication.repository.mongo.RefreshTokenMongoRepository.REFRESH_TOKEN_COLLECTION;
+import static yoan.shopping.infra.db.Dbs.SHOPPING;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+
+import com.mongodb.client.MongoCollection;
+
+import yoan.shopping.authentication.repository.RefreshToken;
+import yoan.shopping.authentication.repository.RefreshTokenRepository;
+import yoan.shopping.test.fongo.FongoBackedTest;
+
+public class RefreshTokenMongoRepositoryTest extends FongoBackedTest {
+	
+	private final RefreshTokenMongoConverter converter = new RefreshTokenMongoConverter();
+	private final MongoCollection<Document> refreshTokenCollection = getFongoDbConnectionFactory().getCollection(SHOPPING, REFRESH_TOKEN_COLLECTION);
+	
+	@InjectMocks
+	RefreshTokenMongoRepository testedRepo;
+	
+	@Test
+	public void create_should_only_store_token_hash() {
+		//given
+		RefreshToken refreshToken = generateRefreshToken("token", UUID.randomUUID());
+		
+		//when
+		testedRepo.create(refreshToken);
+		
+		//then
+		Document result = refreshTokenCollection.find().filter(converter.filterByTokenHash(RefreshTokenRepository.hashToken("token"))).first();
+		assertThat(converter.fromDocument(result)).isEqualTo(refreshToken);
+		assertThat(result.values()).doesNotContain("token");
+	}
+	
+	@Test
+	public void redeem_should_mark_token_as_used() {
+		//given
+		RefreshToken refreshToken = generateRefreshToken("token", UUID.randomUUID());
+		testedRepo.create(refreshToken);
+		
+		//when
+		RefreshToken result = testedRepo.redeem("token", refreshToken.getClientId());
+		
+		//then
+		assertThat(result).isEqualTo(refreshToken);
+		Document storedToken = refreshTokenCollection.find().filter(converter.filterByTokenHash(refreshToken.getTokenHash())).first();
+		assertThat(converter.fromDocument(storedToken).isUsed()).isTrue();
+	}
+	
+	@Test
+	public void redeem_should_not_accept_token_of_another_client() {
+		//given
+		RefreshToken refreshToken = generateRefreshToken("token", UUID.randomUUID());
+		testedRepo.create(refreshToken);
+		
+		//when
+		RefreshToken result = testedRepo.redeem("token", UUID.randomUUID());
+		
+		//then
+		assertThat(result).isNull();
+		assertThat(testedRepo.redeem("token", refreshToken.getClientId())).isEqualTo(refreshToken);
+	}
+	
+	@Test
+	public void redeem_should_revoke_the_family_of_a_reused_token() {
+		//given
+		UUID familyId = UUID.randomUUID();
+		RefreshToken refreshToken = generateRefreshToken("token", familyId);
+		RefreshToken rotatedToken = generateRefreshToken("rotated token", familyId);
+		RefreshToken otherFamilyToken = generateRefreshToken("other token", UUID.randomUUID());
+		testedRepo.create(refreshToken);
+		testedRepo.create(otherFamilyToken);
+		testedRepo.redeem("token", refreshToken.getClientId());
+		testedRepo.create(rotatedToken);
+		
+		//when
+		RefreshToken result = testedRepo.redeem("token", refreshToken.getClientId());
+		
+		//then
+		assertThat(result).isNull();
+		List<Document> remainingTokens = refreshTokenCollection.find().into(new ArrayList<>());
+		assertThat(remainingTokens).hasSize(1);
+		assertThat(converter.fromDocument(remainingTokens.get(0))).isEqualTo(otherFamilyToken);
+	}
+	
+	private RefreshToken generateRefreshToken(String token, UUID familyId) {
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		return RefreshToken.Builder.createDefault()
+			.withRandomId()
+			.withTokenHash(RefreshTokenRepository.hashToken(token))
+			.withUserId(UUID.randomUUID())
+			.withClientId(UUID.randomUUID())
+			.withFamilyId(familyId)
+			.withCreationDate(now)
+			.withExpirationDate(now.plusDays(1))
+			.build();
+	}
+}
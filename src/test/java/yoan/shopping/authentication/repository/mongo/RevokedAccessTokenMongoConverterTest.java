@@ -0,0 +1,84 @@
+package yoan.shopping.authentication.repository.mongo;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.authentication.repository.mongo.RevokedAccessTokenMongoConverter.FIELD_EXPIRATION;
+import static yoan.shopping.authentication.repository.mongo.RevokedAccessTokenMongoConverter.FIELD_REVOKED;
+import static yoan.shopping.infra.db.mongo.MongoDocumentConverter.FIELD_ID;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import yoan.shopping.authentication.repository.RevokedAccessToken;
+import yoan.shopping.infra.util.helper.DateHelper;
+
+public class RevokedAccessTokenMongoConverterTest {
+	@Test
+	public void fromDocument_should_return_null_with_null_document() {
+		//given
+		Document nullDoc = null;
+		RevokedAccessTokenMongoConverter testedConverter = new RevokedAccessTokenMongoConverter();
+		
+		//when
+		RevokedAccessToken result = testedConverter.fromDocument(nullDoc);
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
+	@Test
+	public void fromDocument_should_work_with_valid_doc() {
+		//given
+		RevokedAccessToken expectedToken = generateRevokedAccessToken();
+		RevokedAccessTokenMongoConverter testedConverter = new RevokedAccessTokenMongoConverter();
+		Document doc = new Document(FIELD_ID, expectedToken.getId())
+							.append(FIELD_EXPIRATION, DateHelper.toDate(expectedToken.getExpirationDate()))
+							.append(FIELD_REVOKED, DateHelper.toDate(expectedToken.getRevocationDate()));
+		//when
+		RevokedAccessToken result = testedConverter.fromDocument(doc);
+		
+		//then
+		assertThat(result).isEqualTo(expectedToken);
+	}
+	
+	@Test
+	public void toDocument_should_return_empty_doc_with_null_token() {
+		//given
+		RevokedAccessToken nullToken = null;
+		RevokedAccessTokenMongoConverter testedConverter = new RevokedAccessTokenMongoConverter();
+		
+		//when
+		Document result = testedConverter.toDocument(nullToken);
+		
+		//then
+		assertThat(result).isEqualTo(new Document());
+	}
+	
+	@Test
+	public void toDocument_should_work_with_valid_token() {
+		//given
+		RevokedAccessToken revokedToken = generateRevokedAccessToken();
+		RevokedAccessTokenMongoConverter testedConverter = new RevokedAccessTokenMongoConverter();
+		
+		//when
+		Document result = testedConverter.toDocument(revokedToken);
+		
+		//then
+		assertThat(result).isNotNull();
+		assertThat(result.get(FIELD_ID, UUID.class)).isEqualTo(revokedToken.getId());
+		assertThat(DateHelper.toLocalDateTime(result.getDate(FIELD_EXPIRATION))).isEqualTo(revokedToken.getExpirationDate());
+		assertThat(DateHelper.toLocalDateTime(result.getDate(FIELD_REVOKED))).isEqualTo(revokedToken.getRevocationDate());
+	}
+	
+	private RevokedAccessToken generateRevokedAccessToken() {
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		return RevokedAccessToken.Builder.createDefault()
+			.withId(UUID.randomUUID())
+			.withExpirationDate(now.plusMinutes(10))
+			.withRevocationDate(now)
+			.build();
+	}
+}
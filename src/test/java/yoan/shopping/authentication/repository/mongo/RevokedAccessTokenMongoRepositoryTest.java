@@ -0,0 +1,98 @@
+package yoan.shopping.authentication.repository.mongo;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.authentication.repository.mongo.RevokedAccessTokenMongoRepository.REVOKED_ACCESS_TOKEN_COLLECTION;
+import static yoan.shopping.infra.db.Dbs.SHOPPING;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+
+import com.mongodb.client.MongoCollection;
+
+import yoan.shopping.authentication.repository.RevokedAccessToken;
+import yoan.shopping.test.fongo.FongoBackedTest;
+
+public class RevokedAccessTokenMongoRepositoryTest extends FongoBackedTest {
+	
+	private final RevokedAccessTokenMongoConverter converter = new RevokedAccessTokenMongoConverter();
+	private final MongoCollection<Document> revokedTokenCollection = getFongoDbConnectionFactory().getCollection(SHOPPING, REVOKED_ACCESS_TOKEN_COLLECTION);
+	
+	@InjectMocks
+	RevokedAccessTokenMongoRepository testedRepo;
+	
+	@Test
+	public void revoke_should_work() {
+		//given
+		RevokedAccessToken revokedToken = generateRevokedAccessToken(LocalDateTime.now());
+		
+		//when
+		testedRepo.revoke(revokedToken);
+		
+		//then
+		Document result = revokedTokenCollection.find().filter(converter.filterById(revokedToken.getId())).first();
+		RevokedAccessToken found = converter.fromDocument(result);
+		assertThat(found).isEqualTo(revokedToken);
+	}
+	
+	@Test
+	public void revoke_should_be_idempotent() {
+		//given
+		RevokedAccessToken revokedToken = generateRevokedAccessToken(LocalDateTime.now());
+		testedRepo.revoke(revokedToken);
+		
+		//when
+		testedRepo.revoke(revokedToken);
+		
+		//then
+		List<Document> result = revokedTokenCollection.find().filter(converter.filterById(revokedToken.getId())).into(new ArrayList<>());
+		assertThat(result).hasSize(1);
+	}
+	
+	@Test
+	public void findRevokedSince_should_return_all_revocations_without_date() {
+		//given
+		LocalDateTime now = LocalDateTime.now();
+		RevokedAccessToken older = generateRevokedAccessToken(now.minusMinutes(5));
+		RevokedAccessToken newer = generateRevokedAccessToken(now);
+		testedRepo.revoke(newer);
+		testedRepo.revoke(older);
+		
+		//when
+		List<RevokedAccessToken> result = testedRepo.findRevokedSince(null);
+		
+		//then
+		assertThat(result).containsExactly(older, newer);
+	}
+	
+	@Test
+	public void findRevokedSince_should_only_return_revocations_since_date() {
+		//given
+		LocalDateTime now = LocalDateTime.now();
+		RevokedAccessToken older = generateRevokedAccessToken(now.minusMinutes(5));
+		RevokedAccessToken newer = generateRevokedAccessToken(now);
+		testedRepo.revoke(older);
+		testedRepo.revoke(newer);
+		
+		//when
+		List<RevokedAccessToken> result = testedRepo.findRevokedSince(now.minusMinutes(1));
+		
+		//then
+		assertThat(result).containsExactly(newer);
+	}
+	
+	private RevokedAccessToken generateRevokedAccessToken(LocalDateTime revocationDate) {
+		LocalDateTime truncatedDate = revocationDate.truncatedTo(ChronoUnit.MILLIS);
+		return RevokedAccessToken.Builder.createDefault()
+			.withId(UUID.randomUUID())
+			.withExpirationDate(truncatedDate.plusMinutes(10))
+			.withRevocationDate(truncatedDate)
+			.build();
+	}
+}
@@ -27,10 +27,14 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.inject.util.Providers;
+
+import yoan.shopping.authentication.jwt.JwtAccessTokenCodec;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository;
 import yoan.shopping.client.app.ClientApp;
 import yoan.shopping.client.app.repository.ClientAppRepository;
+import yoan.shopping.infra.config.api.Config;
 import yoan.shopping.infra.rest.error.WebApiException;
 import yoan.shopping.test.OauthMockRequestBuilder;
 import yoan.shopping.test.TestHelper;
@@ -49,7 +53,8 @@ public class AuthorizationResourceTest {
 	
 	private AuthorizationResource getAuthorizationResource(User connectedUser) {
 		when(mockedClientAppRepo.getById(ClientApp.DEFAULT_ID)).thenReturn(ClientApp.DEFAULT);
-		AuthorizationResource testedResource = new AuthorizationResource(connectedUser, mockedAuthorizationCodeRepo, mockedAccessTokenRepo, mockedClientAppRepo);
+		when(mockedClientAppRepo.getRegisteredRedirectURI(any())).thenCallRealMethod();
+		AuthorizationResource testedResource = new AuthorizationResource(Providers.of(connectedUser), mockedAuthorizationCodeRepo, mockedAccessTokenRepo, mockedClientAppRepo, new JwtAccessTokenCodec(Config.DEFAULT));
 		return spy(testedResource);
 	}
 	
@@ -88,6 +93,29 @@ public class AuthorizationResourceTest {
 		}
 	}
 	
+	@Test(expected = WebApiException.class)
+	public void authorize_should_reject_another_redirect_URI_than_the_registered_one() throws OAuthSystemException {
+		//given
+		AuthorizationResource testedResource = getAuthorizationResource(TestHelper.generateRandomUser());
+		String otherRedirectURI = "http://localhost:9090";
+		HttpServletRequest authCodeRequest = new OauthMockRequestBuilder()
+			.withRedirectUri(otherRedirectURI)
+			.withHttpMethod(OAuth.HttpMethod.GET)
+			.withClientId(ClientApp.DEFAULT_ID.toString())
+			.withOauthResponseType(ResponseType.CODE.toString())
+			.build();
+		
+		//when
+		try {
+			testedResource.authorize(authCodeRequest);
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, WARNING, API_RESPONSE, OAuthResourceErrorMessage.INVALID_REDIRECT_URI.getDevReadableMessage(otherRedirectURI));
+			verify(testedResource, never()).generateAuthorizationCode();
+			throw wae;
+		}
+	}
+	
 	@Test
 	public void authorize_should_handle_invalid_authz_request() throws OAuthSystemException {
 		//given
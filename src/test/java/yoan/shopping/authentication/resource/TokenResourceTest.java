@@ -6,17 +6,22 @@ import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.INVALID_AUTHZ_CODE;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.INVALID_CLIENT_SECRET;
+import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.INVALID_REFRESH_TOKEN;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.MISSING_CLIENT_SECRET;
 import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.UNKNOWN_CLIENT;
+import static yoan.shopping.authentication.resource.OAuthResourceErrorMessage.UNKNOWN_CLIENT_OWNER;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.rest.error.Level.WARNING;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.CommonErrorCode.TOO_MANY_REQUESTS;
 
+import java.util.Map;
 import java.util.UUID;
 
 import javax.servlet.http.HttpServletRequest;
@@ -25,16 +30,28 @@ import javax.ws.rs.core.Response;
 import org.apache.oltu.oauth2.common.OAuth;
 import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
 import org.apache.oltu.oauth2.common.message.types.GrantType;
+import org.apache.oltu.oauth2.common.utils.JSONUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import yoan.shopping.authentication.jwt.JwtAccessTokenCodec;
 import yoan.shopping.authentication.repository.OAuth2AccessTokenRepository;
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCodeRepository;
+import yoan.shopping.authentication.repository.RefreshToken;
+import yoan.shopping.authentication.repository.RefreshTokenRepository;
 import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.ClientAppPrincipal;
 import yoan.shopping.client.app.repository.ClientAppRepository;
+import yoan.shopping.client.app.repository.ClientSecretVerifier;
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.ratelimit.RateLimitKey.Dimension;
+import yoan.shopping.infra.ratelimit.RateLimiter;
 import yoan.shopping.infra.rest.error.WebApiException;
+import yoan.shopping.infra.security.LoginAttemptTracker;
+import yoan.shopping.infra.util.error.RetryLaterException;
 import yoan.shopping.test.OauthMockRequestBuilder;
 import yoan.shopping.test.TestHelper;
 import yoan.shopping.user.SecuredUser;
@@ -51,14 +68,24 @@ public class TokenResourceTest {
 	ClientAppRepository mockedClientAppRepo;
 	@Mock
 	SecuredUserRepository mockedUserRepo;
+	@Mock
+	RefreshTokenRepository mockedRefreshTokenRepo;
 	
 	private static final String FORM_URLENCODED_CONTENT_TYPE = "application/x-www-form-urlencoded";
 	private static final String VALID_REDIRECT_URI = "http://www.google.fr";
 	
+	private final LoginAttemptTracker loginAttemptTracker = new LoginAttemptTracker(Config.DEFAULT);
+	private final JwtAccessTokenCodec accessTokenCodec = new JwtAccessTokenCodec(Config.DEFAULT);
+	
 	private TokenResource getTokenResource(SecuredUser connectedUser) {
+		return getTokenResource(connectedUser, new RateLimiter(Config.DEFAULT));
+	}
+	
+	private TokenResource getTokenResource(SecuredUser connectedUser, RateLimiter rateLimiter) {
 		when(mockedClientAppRepo.getById(ClientApp.DEFAULT_ID)).thenReturn(ClientApp.DEFAULT);
 		when(mockedClientAppRepo.hashSecret(eq(ClientApp.DEFAULT.getSecret()), any())).thenReturn(ClientApp.DEFAULT.getSecret());
-		TokenResource testedResource = new TokenResource(mockedAuthorizationCodeRepo, mockedAccessTokenRepo, mockedClientAppRepo, mockedUserRepo);
+		TokenResource testedResource = new TokenResource(mockedAuthorizationCodeRepo, mockedAccessTokenRepo, mockedClientAppRepo, mockedUserRepo, accessTokenCodec, mockedRefreshTokenRepo,
+			new ClientSecretVerifier(mockedClientAppRepo, Config.DEFAULT), loginAttemptTracker, rateLimiter, Config.DEFAULT);
 		return spy(testedResource);
 	}
 	
@@ -75,7 +102,7 @@ public class TokenResourceTest {
 		assertThat(response).isNotNull();
 		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST.getStatusCode());
 		assertThat(response.getEntity()).isNotNull();
-		verify(testedResource, never()).handleTokenRequest(any());
+		verify(testedResource, never()).handleTokenRequest(any(), any(), any());
 	}
 	
 	@Test(expected = WebApiException.class)
@@ -217,7 +244,8 @@ public class TokenResourceTest {
 		//given
 		TokenResource testedResource = getTokenResource(TestHelper.generateRandomSecuredUser());
 		String validAuthzCode = "valid";
-		when(mockedAuthorizationCodeRepo.getUserIdByAuthorizationCode(validAuthzCode)).thenReturn(User.DEFAULT_ID);
+		when(mockedAuthorizationCodeRepo.redeem(validAuthzCode)).thenReturn(User.DEFAULT_ID);
+		when(mockedUserRepo.getById(User.DEFAULT_ID)).thenReturn(SecuredUser.Builder.createDefault().build());
 		HttpServletRequest requestWithUnknownClientId = new OauthMockRequestBuilder()
 			.withHttpMethod(OAuth.HttpMethod.POST)
 			.withClientId(ClientApp.DEFAULT_ID.toString())
@@ -237,6 +265,34 @@ public class TokenResourceTest {
 		assertThat(response.getEntity()).isNotNull();
 	}
 	
+	@Test
+	public void authorize_should_exchange_an_authz_code_only_once() throws OAuthSystemException {
+		//given
+		TokenResource testedResource = getTokenResource(TestHelper.generateRandomSecuredUser());
+		String validAuthzCode = "valid";
+		when(mockedAuthorizationCodeRepo.redeem(validAuthzCode)).thenReturn(User.DEFAULT_ID).thenReturn(null);
+		when(mockedUserRepo.getById(User.DEFAULT_ID)).thenReturn(SecuredUser.Builder.createDefault().build());
+		OauthMockRequestBuilder requestBuilder = new OauthMockRequestBuilder()
+			.withHttpMethod(OAuth.HttpMethod.POST)
+			.withClientId(ClientApp.DEFAULT_ID.toString())
+			.withClientSecret(ClientApp.DEFAULT.getSecret())
+			.withGrantType(GrantType.AUTHORIZATION_CODE.toString())
+			.withRedirectUri(VALID_REDIRECT_URI)
+			.withAccessGrant(validAuthzCode)
+			.withContentType(FORM_URLENCODED_CONTENT_TYPE);
+		testedResource.authorize(requestBuilder.build());
+		
+		//when
+		Response response = testedResource.authorize(requestBuilder.build());
+
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST.getStatusCode());
+		assertThat((String) response.getEntity()).contains(INVALID_AUTHZ_CODE.getDevReadableMessage(validAuthzCode));
+		verify(mockedAuthorizationCodeRepo, never()).getUserIdByAuthorizationCode(any());
+		verify(testedResource, times(1)).generateAccessToken(any());
+	}
+	
 	@Test
 	public void authorize_should_handle_valid_password_request() throws OAuthSystemException {
 		//given
@@ -249,7 +305,7 @@ public class TokenResourceTest {
 			
 		TokenResource testedResource = getTokenResource(securedUser);
 		when(mockedUserRepo.getByEmail(securedUser.getEmail())).thenReturn(securedUser);
-		when(mockedUserRepo.hashPassword(password, "salt")).thenReturn(securedUser.getPassword());
+		when(mockedUserRepo.checkPassword(securedUser, password)).thenReturn(true);
 		HttpServletRequest requestWithUnknownClientId = new OauthMockRequestBuilder()
 			.withHttpMethod(OAuth.HttpMethod.POST)
 			.withClientId(ClientApp.DEFAULT_ID.toString())
@@ -269,4 +325,231 @@ public class TokenResourceTest {
 		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
 		assertThat(response.getEntity()).isNotNull();
 	}
+	
+	@Test(expected = RetryLaterException.class)
+	public void authorize_should_lock_out_email_after_too_many_failed_passwords() throws OAuthSystemException {
+		//given
+		SecuredUser securedUser = TestHelper.generateRandomSecuredUser();
+		TokenResource testedResource = getTokenResource(securedUser);
+		when(mockedUserRepo.getByEmail(securedUser.getEmail())).thenReturn(securedUser);
+		when(mockedUserRepo.checkPassword(securedUser, "wrong password")).thenReturn(false);
+		for (int i = 0; i < Config.DEFAULT.getLoginMaxFailuresByEmail(); i++) {
+			testedResource.authorize(getPasswordRequest(securedUser.getEmail(), "wrong password"));
+		}
+		
+		//when
+		try {
+			testedResource.authorize(getPasswordRequest(securedUser.getEmail(), "wrong password"));
+		} catch(RetryLaterException rle) {
+			//then
+			assertThat(rle.getRetryAfterInSeconds()).isEqualTo(Config.DEFAULT.getLoginLockoutInSeconds());
+			verify(mockedUserRepo, times(Config.DEFAULT.getLoginMaxFailuresByEmail())).getByEmail(securedUser.getEmail());
+			throw rle;
+		}
+	}
+	
+	private static HttpServletRequest getPasswordRequest(String email, String password) {
+		return new OauthMockRequestBuilder()
+			.withHttpMethod(OAuth.HttpMethod.POST)
+			.withClientId(ClientApp.DEFAULT_ID.toString())
+			.withClientSecret(ClientApp.DEFAULT.getSecret())
+			.withGrantType(GrantType.PASSWORD.toString())
+			.withOauthUsername(email)
+			.withOauthPassword(password)
+			.withContentType(FORM_URLENCODED_CONTENT_TYPE)
+			.build();
+	}
+	
+	@Test
+	public void authorize_should_issue_refresh_token_with_new_family() throws OAuthSystemException {
+		//given
+		String password = "password";
+		SecuredUser securedUser = SecuredUser.Builder.createFrom(TestHelper.generateRandomUser())
+				.withSalt("salt")
+				.withRawPassword(password)
+				.build();
+		TokenResource testedResource = getTokenResource(securedUser);
+		when(mockedUserRepo.getByEmail(securedUser.getEmail())).thenReturn(securedUser);
+		when(mockedUserRepo.checkPassword(securedUser, password)).thenReturn(true);
+		HttpServletRequest passwordRequest = new OauthMockRequestBuilder()
+			.withHttpMethod(OAuth.HttpMethod.POST)
+			.withClientId(ClientApp.DEFAULT_ID.toString())
+			.withClientSecret(ClientApp.DEFAULT.getSecret())
+			.withGrantType(GrantType.PASSWORD.toString())
+			.withOauthUsername(securedUser.getEmail())
+			.withOauthPassword(password)
+			.withContentType(FORM_URLENCODED_CONTENT_TYPE)
+			.build();
+		ArgumentCaptor<RefreshToken> refreshTokenCaptor = ArgumentCaptor.forClass(RefreshToken.class);
+		
+		//when
+		Response response = testedResource.authorize(passwordRequest);
+		
+		//then
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		assertThat((String) response.getEntity()).contains(OAuth.OAUTH_REFRESH_TOKEN);
+		verify(mockedRefreshTokenRepo).create(refreshTokenCaptor.capture());
+		RefreshToken createdToken = refreshTokenCaptor.getValue();
+		assertThat(createdToken.getUserId()).isEqualTo(securedUser.getId());
+		assertThat(createdToken.getClientId()).isEqualTo(ClientApp.DEFAULT_ID);
+		assertThat(createdToken.getFamilyId()).isNotEqualTo(RefreshToken.DEFAULT_FAMILY_ID);
+		assertThat(createdToken.getExpirationDate()).isEqualTo(createdToken.getCreationDate().plusDays(Config.DEFAULT.getRefreshTokenTtlInDays()));
+	}
+	
+	@Test
+	public void authorize_should_rotate_valid_refresh_token() throws OAuthSystemException {
+		//given
+		SecuredUser securedUser = TestHelper.generateRandomSecuredUser();
+		TokenResource testedResource = getTokenResource(securedUser);
+		String refreshToken = "refresh token";
+		RefreshToken redeemedToken = RefreshToken.Builder.createDefault().withRandomId().withUserId(securedUser.getId()).build();
+		when(mockedRefreshTokenRepo.redeem(refreshToken, ClientApp.DEFAULT_ID)).thenReturn(redeemedToken);
+		when(mockedUserRepo.getById(securedUser.getId())).thenReturn(securedUser);
+		HttpServletRequest refreshRequest = new OauthMockRequestBuilder()
+			.withHttpMethod(OAuth.HttpMethod.POST)
+			.withClientId(ClientApp.DEFAULT_ID.toString())
+			.withClientSecret(ClientApp.DEFAULT.getSecret())
+			.withGrantType(GrantType.REFRESH_TOKEN.toString())
+			.withOauthRefreshToken(refreshToken)
+			.withContentType(FORM_URLENCODED_CONTENT_TYPE)
+			.build();
+		ArgumentCaptor<RefreshToken> refreshTokenCaptor = ArgumentCaptor.forClass(RefreshToken.class);
+		
+		//when
+		Response response = testedResource.authorize(refreshRequest);
+		
+		//then
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		verify(mockedUserRepo, never()).checkPassword(any(), any());
+		verify(mockedRefreshTokenRepo).create(refreshTokenCaptor.capture());
+		RefreshToken rotatedToken = refreshTokenCaptor.getValue();
+		assertThat(rotatedToken.getFamilyId()).isEqualTo(redeemedToken.getFamilyId());
+		assertThat(rotatedToken.getTokenHash()).isNotEqualTo(RefreshTokenRepository.hashToken(refreshToken));
+	}
+	
+	@Test
+	public void authorize_should_fail_with_invalid_refresh_token() throws OAuthSystemException {
+		//given
+		TokenResource testedResource = getTokenResource(TestHelper.generateRandomSecuredUser());
+		HttpServletRequest refreshRequest = new OauthMockRequestBuilder()
+			.withHttpMethod(OAuth.HttpMethod.POST)
+			.withClientId(ClientApp.DEFAULT_ID.toString())
+			.withClientSecret(ClientApp.DEFAULT.getSecret())
+			.withGrantType(GrantType.REFRESH_TOKEN.toString())
+			.withOauthRefreshToken("used refresh token")
+			.withContentType(FORM_URLENCODED_CONTENT_TYPE)
+			.build();
+		
+		//when
+		Response response = testedResource.authorize(refreshRequest);
+		
+		//then
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST.getStatusCode());
+		assertThat((String) response.getEntity()).contains(INVALID_REFRESH_TOKEN.getDevReadableMessage());
+		verify(testedResource, never()).generateAccessToken(any());
+		verify(mockedRefreshTokenRepo, never()).create(any());
+	}
+	
+	@Test
+	public void authorize_should_issue_app_scoped_token_with_client_credentials() throws OAuthSystemException {
+		//given
+		SecuredUser owner = SecuredUser.Builder.createDefault().build();
+		TokenResource testedResource = getTokenResource(owner);
+		when(mockedUserRepo.getById(ClientApp.DEFAULT.getOwnerId())).thenReturn(owner);
+		
+		//when
+		Response response = testedResource.authorize(buildClientCredentialsRequest(ClientApp.DEFAULT.getSecret()));
+		
+		//then
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		Map<String, Object> tokenResponse = JSONUtils.parseJSON((String) response.getEntity());
+		assertThat(tokenResponse.get(OAuth.OAUTH_SCOPE)).isEqualTo(ClientAppPrincipal.APP_SCOPE);
+		assertThat(tokenResponse.containsKey(OAuth.OAUTH_REFRESH_TOKEN)).isFalse();
+		String accessToken = (String) tokenResponse.get(OAuth.OAUTH_ACCESS_TOKEN);
+		//the app never gets the principal of its owner
+		assertThat(accessTokenCodec.decode(accessToken).getPrincipal()).isEqualTo(new ClientAppPrincipal(ClientApp.DEFAULT_ID));
+		verify(mockedAccessTokenRepo).create(accessToken, owner.getId(), ClientApp.DEFAULT_ID);
+		verify(testedResource, never()).generateAccessToken(any());
+		verify(mockedRefreshTokenRepo, never()).create(any());
+	}
+	
+	@Test
+	public void authorize_should_not_read_recently_authenticated_client_again() throws OAuthSystemException {
+		//given
+		SecuredUser owner = SecuredUser.Builder.createDefault().build();
+		TokenResource testedResource = getTokenResource(owner);
+		when(mockedUserRepo.getById(ClientApp.DEFAULT.getOwnerId())).thenReturn(owner);
+		testedResource.authorize(buildClientCredentialsRequest(ClientApp.DEFAULT.getSecret()));
+		
+		//when
+		Response response = testedResource.authorize(buildClientCredentialsRequest(ClientApp.DEFAULT.getSecret()));
+		
+		//then
+		assertThat(response.getStatus()).isEqualTo(OK.getStatusCode());
+		verify(mockedClientAppRepo, times(1)).getById(ClientApp.DEFAULT_ID);
+		verify(mockedClientAppRepo, times(1)).hashSecret(any(), any());
+	}
+	
+	@Test(expected = RetryLaterException.class)
+	public void authorize_should_throttle_client_sending_too_many_requests() throws OAuthSystemException {
+		//given
+		SecuredUser owner = SecuredUser.Builder.createDefault().build();
+		RateLimiter rateLimiter = spy(new RateLimiter(Config.Builder.createDefault().withRateLimitRequestsPerMinute(1).build()));
+		TokenResource testedResource = getTokenResource(owner, rateLimiter);
+		when(mockedUserRepo.getById(ClientApp.DEFAULT.getOwnerId())).thenReturn(owner);
+		testedResource.authorize(buildClientCredentialsRequest(ClientApp.DEFAULT.getSecret()));
+		
+		//when
+		try {
+			testedResource.authorize(buildClientCredentialsRequest(ClientApp.DEFAULT.getSecret()));
+		} catch(RetryLaterException rle) {
+		//then
+			assertThat(rle.getErrorCode()).isEqualTo(TOO_MANY_REQUESTS);
+			assertThat(rle.getRetryAfterInSeconds()).isGreaterThan(0);
+			verify(rateLimiter).release(any(), eq(Dimension.IP), any());
+			verify(testedResource, times(1)).generateClientAccessToken(ClientApp.DEFAULT, owner);
+			throw rle;
+		}
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void authorize_should_reject_client_credentials_with_invalid_secret() throws OAuthSystemException {
+		//given
+		TokenResource testedResource = getTokenResource(TestHelper.generateRandomSecuredUser());
+		String expectedMessage = INVALID_CLIENT_SECRET.getDevReadableMessage(ClientApp.DEFAULT_ID);
+		
+		//when
+		try {
+			testedResource.authorize(buildClientCredentialsRequest("invalid secret"));
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, WARNING, API_RESPONSE, expectedMessage);
+			verify(testedResource, never()).generateClientAccessToken(any(), any());
+			throw wae;
+		}
+	}
+	
+	@Test
+	public void authorize_should_reject_client_credentials_without_client_owner() throws OAuthSystemException {
+		//given
+		TokenResource testedResource = getTokenResource(TestHelper.generateRandomSecuredUser());
+		
+		//when
+		Response response = testedResource.authorize(buildClientCredentialsRequest(ClientApp.DEFAULT.getSecret()));
+		
+		//then
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST.getStatusCode());
+		assertThat((String) response.getEntity()).contains(UNKNOWN_CLIENT_OWNER.getDevReadableMessage(ClientApp.DEFAULT_ID));
+		verify(testedResource, never()).generateClientAccessToken(any(), any());
+	}
+	
+	private static HttpServletRequest buildClientCredentialsRequest(String clientSecret) {
+		return new OauthMockRequestBuilder()
+			.withHttpMethod(OAuth.HttpMethod.POST)
+			.withClientId(ClientApp.DEFAULT_ID.toString())
+			.withClientSecret(clientSecret)
+			.withGrantType(GrantType.CLIENT_CREDENTIALS.toString())
+			.withContentType(FORM_URLENCODED_CONTENT_TYPE)
+			.build();
+	}
 }
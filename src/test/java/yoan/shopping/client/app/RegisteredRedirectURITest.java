@@ -0,0 +1,43 @@
+package yoan.shopping.client.app;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+public class RegisteredRedirectURITest {
+	
+	private final RegisteredRedirectURI testedRedirectURI = new RegisteredRedirectURI(URI.create("http://localhost:8080/callback"));
+	
+	@Test(expected = NullPointerException.class)
+	public void new_should_fail_without_redirect_uri() {
+		new RegisteredRedirectURI(null);
+	}
+	
+	@Test
+	public void matches_should_accept_registered_redirect_uri() {
+		//when
+		boolean sameString = testedRedirectURI.matches("http://localhost:8080/callback");
+		boolean writtenDifferently = testedRedirectURI.matches("HTTP://LOCALHOST:8080/callback");
+		
+		//then
+		assertThat(sameString).isTrue();
+		assertThat(writtenDifferently).isTrue();
+	}
+	
+	@Test
+	public void matches_should_reject_other_redirect_uri() {
+		//when
+		boolean otherPath = testedRedirectURI.matches("http://localhost:8080/other");
+		boolean otherPort = testedRedirectURI.matches("http://localhost:9090/callback");
+		boolean unreadable = testedRedirectURI.matches("http:/bad  ");
+		boolean missing = testedRedirectURI.matches(null);
+		
+		//then
+		assertThat(otherPath).isFalse();
+		assertThat(otherPort).isFalse();
+		assertThat(unreadable).isFalse();
+		assertThat(missing).isFalse();
+	}
+}
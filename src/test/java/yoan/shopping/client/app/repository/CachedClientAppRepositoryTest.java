@@ -0,0 +1,180 @@
+package yoan.shopping.client.app.repository;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.RegisteredRedirectURI;
+import yoan.shopping.client.app.repository.fake.ClientAppFakeRepository;
+
+public class CachedClientAppRepositoryTest {
+	
+	private final ClientAppRepository delegate = spy(new ClientAppFakeRepository());
+	private final ManualTicker ticker = new ManualTicker();
+	private final CachedClientAppRepository testedRepo = new CachedClientAppRepository(delegate, 60, ticker);
+	
+	@Test
+	public void getById_should_read_client_app_once() {
+		//given
+		ClientApp clientApp = givenStoredClientApp();
+		
+		//when
+		ClientApp firstRead = testedRepo.getById(clientApp.getId());
+		ClientApp secondRead = testedRepo.getById(clientApp.getId());
+		
+		//then
+		assertThat(firstRead).isSameAs(clientApp);
+		assertThat(secondRead).isSameAs(clientApp);
+		verify(delegate, times(1)).processGetById(clientApp.getId());
+		assertThat(testedRepo.getSize()).isEqualTo(1);
+	}
+	
+	@Test
+	public void getById_should_not_keep_unknown_client() {
+		//given
+		UUID unknownId = UUID.randomUUID();
+		
+		//when
+		testedRepo.getById(unknownId);
+		ClientApp result = testedRepo.getById(unknownId);
+		
+		//then
+		assertThat(result).isNull();
+		verify(delegate, times(2)).processGetById(unknownId);
+		assertThat(testedRepo.getSize()).isEqualTo(0);
+	}
+	
+	@Test
+	public void getById_should_read_client_app_again_after_ttl() {
+		//given
+		ClientApp clientApp = givenStoredClientApp();
+		testedRepo.getById(clientApp.getId());
+		
+		//when
+		ticker.advance(61, TimeUnit.SECONDS);
+		testedRepo.getById(clientApp.getId());
+		
+		//then
+		verify(delegate, times(2)).processGetById(clientApp.getId());
+	}
+	
+	@Test
+	public void getById_should_not_keep_client_app_read_during_an_eviction() {
+		//given
+		ClientApp clientApp = ClientApp.Builder.createDefault().withRandomId().build();
+		doAnswer(invocation -> {
+			testedRepo.invalidate(clientApp.getId());
+			return clientApp;
+		}).when(delegate).processGetById(clientApp.getId());
+		
+		//when
+		ClientApp result = testedRepo.getById(clientApp.getId());
+		
+		//then
+		assertThat(result).isSameAs(clientApp);
+		assertThat(testedRepo.getSize()).isEqualTo(0);
+	}
+	
+	@Test
+	public void update_should_evict_client_app() {
+		//given
+		ClientApp clientApp = givenStoredClientApp();
+		testedRepo.getById(clientApp.getId());
+		ClientApp askedUpdate = ClientApp.Builder.createFrom(clientApp).withName("new name").build();
+		doReturn(true).when(delegate).processUpdate(any());
+		
+		//when
+		testedRepo.update(askedUpdate);
+		testedRepo.getById(clientApp.getId());
+		
+		//then
+		verify(delegate).processUpdate(any());
+		verify(delegate, times(2)).processGetById(clientApp.getId());
+	}
+	
+	@Test
+	public void changeSecret_should_evict_client_app_and_tell_listeners() {
+		//given
+		ClientApp clientApp = givenStoredClientApp();
+		testedRepo.getById(clientApp.getId());
+		List<UUID> changedClientIds = new CopyOnWriteArrayList<>();
+		testedRepo.addSecretChangeListener(changedClientIds::add);
+		
+		//when
+		testedRepo.changeSecret(clientApp.getId(), "new secret");
+		
+		//then
+		verify(delegate).processChangeSecret(any());
+		assertThat(testedRepo.getSize()).isEqualTo(0);
+		assertThat(changedClientIds).containsExactly(clientApp.getId());
+	}
+	
+	@Test
+	public void deleteById_should_evict_client_app() {
+		//given
+		ClientApp clientApp = givenStoredClientApp();
+		testedRepo.getById(clientApp.getId());
+		
+		//when
+		testedRepo.deleteById(clientApp.getId());
+		
+		//then
+		verify(delegate).processDeleteById(clientApp.getId());
+		assertThat(testedRepo.getSize()).isEqualTo(0);
+	}
+	
+	@Test
+	public void getRegisteredRedirectURI_should_parse_cached_redirect_uri_once() {
+		//given
+		ClientApp clientApp = givenStoredClientApp();
+		ClientApp cachedClientApp = testedRepo.getById(clientApp.getId());
+		ClientApp otherClientApp = ClientApp.Builder.createDefault().withRandomId().withRedirectURI(URI.create("http://other.com/callback")).build();
+		
+		//when
+		RegisteredRedirectURI firstResult = testedRepo.getRegisteredRedirectURI(cachedClientApp);
+		RegisteredRedirectURI secondResult = testedRepo.getRegisteredRedirectURI(cachedClientApp);
+		RegisteredRedirectURI otherResult = testedRepo.getRegisteredRedirectURI(otherClientApp);
+		
+		//then
+		assertThat(firstResult).isSameAs(secondResult);
+		assertThat(firstResult.getRedirectURI()).isEqualTo(clientApp.getRedirectURI());
+		assertThat(otherResult.getRedirectURI()).isEqualTo(otherClientApp.getRedirectURI());
+	}
+	
+	private ClientApp givenStoredClientApp() {
+		ClientApp clientApp = ClientApp.Builder.createDefault().withRandomId().build();
+		doReturn(clientApp).when(delegate).processGetById(clientApp.getId());
+		return clientApp;
+	}
+	
+	/**
+	 * Ticker moved by hand
+	 */
+	private static class ManualTicker extends Ticker {
+		private long nanos = 0;
+		
+		@Override
+		public long read() {
+			return nanos;
+		}
+		
+		private void advance(long duration, TimeUnit unit) {
+			nanos += unit.toNanos(duration);
+		}
+	}
+}
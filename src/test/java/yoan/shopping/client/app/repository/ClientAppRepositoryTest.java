@@ -228,7 +228,7 @@ public class ClientAppRepositoryTest {
 			assertApplicationException(ae, INFO, NOT_FOUND, "Client app not found");
 			throw ae;
 		} finally {
-			verify(testedRepo, never()).processUpdate(any());
+			verify(testedRepo).processUpdate(any());
 		}
 	}
 	
@@ -0,0 +1,153 @@
+package yoan.shopping.client.app.repository;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.client.app.repository.fake.ClientAppFakeRepository;
+
+public class ClientSecretVerifierTest {
+	
+	private static final String SECRET = "secret";
+	
+	private final ClientAppRepository clientAppRepository = spy(new ClientAppFakeRepository());
+	private final ManualTicker ticker = new ManualTicker();
+	private final ClientSecretVerifier testedVerifier = new ClientSecretVerifier(clientAppRepository, 60, ticker);
+	
+	@Test
+	public void verify_should_check_secret() {
+		//given
+		ClientApp clientApp = generateClientApp(SECRET);
+		
+		//when
+		boolean matching = testedVerifier.verify(clientApp, SECRET);
+		boolean wrongSecret = testedVerifier.verify(clientApp, "wrong secret");
+		boolean blankSecret = testedVerifier.verify(clientApp, " ");
+		
+		//then
+		assertThat(matching).isTrue();
+		assertThat(wrongSecret).isFalse();
+		assertThat(blankSecret).isFalse();
+	}
+	
+	@Test
+	public void verify_should_not_hash_a_recently_verified_secret_again() {
+		//given
+		ClientApp clientApp = generateClientApp(SECRET);
+		testedVerifier.verify(clientApp, SECRET);
+		
+		//when
+		boolean result = testedVerifier.verify(clientApp, SECRET);
+		
+		//then
+		assertThat(result).isTrue();
+		verify(clientAppRepository, times(2)).hashSecret(any(), any());
+		assertThat(testedVerifier.getVerifiedClient(clientApp.getId(), SECRET)).isEqualTo(clientApp);
+	}
+	
+	@Test
+	public void verify_should_not_cache_a_wrong_secret() {
+		//given
+		ClientApp clientApp = generateClientApp(SECRET);
+		
+		//when
+		testedVerifier.verify(clientApp, "wrong secret");
+		
+		//then
+		assertThat(testedVerifier.getVerifiedClient(clientApp.getId(), "wrong secret")).isNull();
+		assertThat(testedVerifier.getSize()).isEqualTo(0);
+	}
+	
+	@Test
+	public void verify_should_check_again_when_the_stored_secret_changed_elsewhere() {
+		//given
+		ClientApp clientApp = generateClientApp(SECRET);
+		testedVerifier.verify(clientApp, SECRET);
+		ClientApp changedClientApp = ClientApp.Builder.createFrom(clientApp).withSecret(clientAppRepository.hashSecret("new secret", clientApp.getSalt())).build();
+		
+		//when
+		boolean result = testedVerifier.verify(changedClientApp, SECRET);
+		
+		//then
+		assertThat(result).isFalse();
+	}
+	
+	@Test
+	public void getVerifiedClient_should_forget_secret_after_ttl() {
+		//given
+		ClientApp clientApp = generateClientApp(SECRET);
+		testedVerifier.verify(clientApp, SECRET);
+		
+		//when
+		ticker.advance(61, TimeUnit.SECONDS);
+		
+		//then
+		assertThat(testedVerifier.getVerifiedClient(clientApp.getId(), SECRET)).isNull();
+	}
+	
+	@Test
+	public void getVerifiedClient_should_forget_secret_once_changed() {
+		//given
+		ClientApp clientApp = generateClientApp(SECRET);
+		ClientApp otherClientApp = generateClientApp(SECRET);
+		doReturn(clientApp).when(clientAppRepository).processGetById(clientApp.getId());
+		testedVerifier.verify(clientApp, SECRET);
+		testedVerifier.verify(otherClientApp, SECRET);
+		
+		//when
+		clientAppRepository.changeSecret(clientApp.getId(), "new secret");
+		
+		//then
+		assertThat(testedVerifier.getVerifiedClient(clientApp.getId(), SECRET)).isNull();
+		assertThat(testedVerifier.getVerifiedClient(otherClientApp.getId(), SECRET)).isEqualTo(otherClientApp);
+	}
+	
+	@Test
+	public void getVerifiedClient_should_forget_deleted_client() {
+		//given
+		ClientApp clientApp = generateClientApp(SECRET);
+		testedVerifier.verify(clientApp, SECRET);
+		
+		//when
+		clientAppRepository.deleteById(clientApp.getId());
+		
+		//then
+		assertThat(testedVerifier.getVerifiedClient(clientApp.getId(), SECRET)).isNull();
+	}
+	
+	private ClientApp generateClientApp(String secret) {
+		String salt = UUID.randomUUID().toString();
+		return ClientApp.Builder.createDefault()
+			.withRandomId()
+			.withSalt(salt)
+			.withSecret(clientAppRepository.hashSecret(secret, salt))
+			.build();
+	}
+	
+	/**
+	 * Ticker moved by hand
+	 */
+	private static class ManualTicker extends Ticker {
+		private long nanos = 0;
+		
+		@Override
+		public long read() {
+			return nanos;
+		}
+		
+		private void advance(long duration, TimeUnit unit) {
+			nanos += unit.toNanos(duration);
+		}
+	}
+}
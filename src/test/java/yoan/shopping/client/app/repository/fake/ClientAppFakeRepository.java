@@ -25,10 +25,14 @@ public class ClientAppFakeRepository extends ClientAppRepository {
 	protected void processChangeSecret(ClientApp clientAppToUpdate) { }
 
 	@Override
-	protected void processDeleteById(UUID clientId) { }
+	protected boolean processDeleteById(UUID clientId) {
+		return false;
+	}
 
 	@Override
-	protected void processUpdate(ClientApp clientAppToUpdate) { }
+	protected boolean processUpdate(ClientApp clientAppToUpdate) {
+		return false;
+	}
 
 	@Override
 	protected ImmutableList<ClientApp> processGetByOwner(UUID ownerId) {
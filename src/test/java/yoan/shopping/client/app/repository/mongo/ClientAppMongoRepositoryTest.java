@@ -132,10 +132,10 @@ public class ClientAppMongoRepositoryTest extends FongoBackedTest {
 		UUID notExistingClientAppId = UUID.randomUUID();
 
 		//when
-		testedRepo.deleteById(notExistingClientAppId);
+		boolean deleted = testedRepo.deleteById(notExistingClientAppId);
 		
 		//then
-		//should not have failed
+		assertThat(deleted).isFalse();
 	}
 	
 	@Test
@@ -145,9 +145,10 @@ public class ClientAppMongoRepositoryTest extends FongoBackedTest {
 		testedRepo.create(existingClientApp, "secret");
 
 		//when
-		testedRepo.deleteById(existingClientApp.getId());
+		boolean deleted = testedRepo.deleteById(existingClientApp.getId());
 		
 		//then
+		assertThat(deleted).isTrue();
 		ClientApp result = testedRepo.getById(existingClientApp.getId());
 		assertThat(result).isNull();
 	}
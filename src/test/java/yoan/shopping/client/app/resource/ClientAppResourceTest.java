@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableList;
 
 import yoan.shopping.client.app.ClientApp;
 import yoan.shopping.client.app.repository.ClientAppRepository;
+import yoan.shopping.client.app.repository.fake.ClientAppFakeRepository;
 import yoan.shopping.client.app.representation.ClientAppRepresentation;
 import yoan.shopping.client.app.representation.ClientAppWriteRepresentation;
 import yoan.shopping.infra.rest.Link;
@@ -44,8 +45,12 @@ public class ClientAppResourceTest {
 	@Mock
 	ClientAppRepository mockedClientAppRepo;
 
-	private ClientAppResource getClientAppResource(User connectedUser) {
-		ClientAppResource testedResource = new ClientAppResource(connectedUser, mockedClientAppRepo);
+	private ClientAppResource getClientAppResource() {
+		return getClientAppResource(mockedClientAppRepo);
+	}
+	
+	private ClientAppResource getClientAppResource(ClientAppRepository clientAppRepo) {
+		ClientAppResource testedResource = new ClientAppResource(clientAppRepo);
 		return spy(testedResource);
 	}
 	
@@ -54,7 +59,7 @@ public class ClientAppResourceTest {
 		//given
 		String expectedURL = "http://test";
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo(expectedURL);
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
 		//when
@@ -71,8 +76,7 @@ public class ClientAppResourceTest {
 		//given
 		String expectedURL = "http://test";
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo(expectedURL);
-		User connectedUser = TestHelper.generateRandomUser();
-		ClientAppResource testedResource = getClientAppResource(connectedUser);
+		ClientAppResource testedResource = getClientAppResource();
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
 		//when
@@ -94,7 +98,7 @@ public class ClientAppResourceTest {
 		UUID expectedOwnerId = UUID.randomUUID();
 		@SuppressWarnings("deprecation")
 		ClientAppWriteRepresentation representation = new ClientAppWriteRepresentation(expectedName, expectedOwnerId, expectedRedirectURI.toString());
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -116,7 +120,7 @@ public class ClientAppResourceTest {
 	public void getById_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = "Invalid Param named appId : invalid ID";
 		
 		//when
@@ -133,7 +137,7 @@ public class ClientAppResourceTest {
 	public void getById_should_return_404_with_unknown_user_Id() {
 		//given
 		String unknownId = UUID.randomUUID().toString();
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = "Client application not found";
 		
 		//when
@@ -150,7 +154,7 @@ public class ClientAppResourceTest {
 	public void getById_should_work_with_existing_user_Id() {
 		//given
 		UUID existingId = UUID.randomUUID();
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		ClientApp existingClientApp = ClientApp.Builder.createDefault().withId(existingId).build();
@@ -175,7 +179,7 @@ public class ClientAppResourceTest {
 		//given
 		UUID unknownId = UUID.randomUUID();
 		when(mockedClientAppRepo.getByOwner(unknownId)).thenReturn(ImmutableList.of());
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = CLIENT_APPS_NOT_FOUND.getDevReadableMessage(unknownId.toString());
 		
 		//when
@@ -192,7 +196,7 @@ public class ClientAppResourceTest {
 	public void getByOwnerId_should_work_with_existing_list_Id() {
 		//given
 		UUID existingOwnerId = UUID.randomUUID();
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		ClientApp existingClientApp = ClientApp.Builder.createDefault().withRandomId().withOwnerId(existingOwnerId).build();
@@ -230,9 +234,13 @@ public class ClientAppResourceTest {
 		URI expectedRedirectURI = TestHelper.TEST_URI;
 		@SuppressWarnings("deprecation")
 		ClientAppWriteRepresentation representation = new ClientAppWriteRepresentation(expectedName, UUID.randomUUID(), expectedRedirectURI.toString());
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
-		ClientApp existingApp = ClientApp.Builder.createDefault().withId(expectedId).build();
-		when(mockedClientAppRepo.getById(expectedId)).thenReturn(existingApp);
+		ClientAppRepository clientAppRepo = new ClientAppFakeRepository() {
+			@Override
+			protected boolean processUpdate(ClientApp clientAppToUpdate) {
+				return true;
+			}
+		};
+		ClientAppResource testedResource = getClientAppResource(clientAppRepo);
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -250,7 +258,7 @@ public class ClientAppResourceTest {
 		String invalidAppId = "invalid";
 		@SuppressWarnings("deprecation")
 		ClientAppWriteRepresentation representation = new ClientAppWriteRepresentation("name", UUID.randomUUID(), TestHelper.TEST_URI.toString());
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = "Invalid Param named appId : invalid";
 		
 		//when
@@ -269,7 +277,7 @@ public class ClientAppResourceTest {
 		String unknownAppId = UUID.randomUUID().toString();
 		@SuppressWarnings("deprecation")
 		ClientAppWriteRepresentation representation = new ClientAppWriteRepresentation("name", UUID.randomUUID(), TestHelper.TEST_URI.toString());
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = "Client app not found";
 		
 		//when
@@ -286,7 +294,7 @@ public class ClientAppResourceTest {
 	public void changeSecretKey_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = "Invalid Param named appId : invalid ID";
 		
 		//when
@@ -303,7 +311,7 @@ public class ClientAppResourceTest {
 	public void changeSecretKey_should_return_404_with_unknown_client_app() {
 		//given
 		UUID unknownId = UUID.randomUUID();
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = "Client app not found";
 		
 		//when
@@ -320,7 +328,7 @@ public class ClientAppResourceTest {
 	public void deleteById_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = "Invalid Param named appId : invalid ID";
 		
 		//when
@@ -337,7 +345,7 @@ public class ClientAppResourceTest {
 	public void deleteById_should_return_404_with_unknown_client_app_Id() {
 		//given
 		String unknownId = UUID.randomUUID().toString();
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
+		ClientAppResource testedResource = getClientAppResource();
 		String expectedMessage = "Client application not found";
 		
 		//when
@@ -354,9 +362,13 @@ public class ClientAppResourceTest {
 	public void deleteById_should_work_with_existing_user_Id() {
 		//given
 		UUID existingId = UUID.randomUUID();
-		ClientAppResource testedResource = getClientAppResource(TestHelper.generateRandomUser());
-		ClientApp existingApp = ClientApp.Builder.createDefault().withId(existingId).build();
-		when(mockedClientAppRepo.getById(existingId)).thenReturn(existingApp);
+		ClientAppRepository clientAppRepo = new ClientAppFakeRepository() {
+			@Override
+			protected boolean processDeleteById(UUID clientId) {
+				return true;
+			}
+		};
+		ClientAppResource testedResource = getClientAppResource(clientAppRepo);
 		
 		//when
 		Response response = testedResource.deleteById(existingId.toString());
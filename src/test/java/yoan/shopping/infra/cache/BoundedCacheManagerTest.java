@@ -0,0 +1,69 @@
+package yoan.shopping.infra.cache;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.apache.shiro.cache.Cache;
+import org.apache.shiro.cache.CacheException;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import yoan.shopping.infra.config.api.Config;
+
+public class BoundedCacheManagerTest {
+
+	@Test
+	public void getCache_should_return_same_cache_by_name() {
+		//given
+		BoundedCacheManager testedManager = new BoundedCacheManager(Config.DEFAULT);
+
+		//when
+		Cache<String, String> first = testedManager.getCache("test");
+		Cache<String, String> second = testedManager.getCache("test");
+
+		//then
+		assertThat(first).isSameAs(second);
+		assertThat(testedManager.getCaches()).hasSize(1);
+	}
+
+	@Test(expected = CacheException.class)
+	public void getCache_should_fail_without_name() {
+		new BoundedCacheManager(Config.DEFAULT).getCache(null);
+	}
+
+	@Test
+	public void getSettings_should_apply_overrides_by_name() {
+		//given
+		Config config = Config.Builder.createDefault()
+			.withCacheMaximumSize(1_000)
+			.withCacheExpiryInSeconds(600)
+			.withCacheMaximumSizesByName(ImmutableMap.of("small", 10))
+			.withCacheExpiriesInSecondsByName(ImmutableMap.of("short", 30))
+			.build();
+		BoundedCacheManager testedManager = new BoundedCacheManager(config);
+
+		//when
+		BoundedCacheSettings smallSettings = testedManager.getSettings("small");
+		BoundedCacheSettings shortSettings = testedManager.getSettings("short");
+		BoundedCacheSettings defaultSettings = testedManager.getSettings("other");
+
+		//then
+		assertThat(smallSettings).isEqualTo(new BoundedCacheSettings(10, 600));
+		assertThat(shortSettings).isEqualTo(new BoundedCacheSettings(1_000, 30));
+		assertThat(defaultSettings).isEqualTo(new BoundedCacheSettings(1_000, 600));
+	}
+
+	@Test
+	public void getCaches_should_be_ordered_by_name() {
+		//given
+		BoundedCacheManager testedManager = new BoundedCacheManager(Config.DEFAULT);
+		testedManager.getCache("b");
+		testedManager.getCache("a");
+
+		//when
+		String firstName = testedManager.getCaches().get(0).getName();
+
+		//then
+		assertThat(firstName).isEqualTo("a");
+	}
+}
@@ -0,0 +1,173 @@
+package yoan.shopping.infra.cache;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+	private final AtomicLong time = new AtomicLong(0);
+
+	private BoundedCache<String, String> getBoundedCache(int maximumSize, long expiryInSeconds) {
+		return new BoundedCache<>("test", new BoundedCacheSettings(maximumSize, expiryInSeconds), time::get);
+	}
+
+	private void advance(long duration, TimeUnit unit) {
+		time.addAndGet(unit.toNanos(duration));
+	}
+
+	@Test
+	public void get_should_return_put_value() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(10, 60);
+		testedCache.put("key", "value");
+
+		//when
+		String result = testedCache.get("key");
+
+		//then
+		assertThat(result).isEqualTo("value");
+		assertThat(testedCache.getHitCount()).isEqualTo(1);
+		assertThat(testedCache.getMissCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void put_should_return_previous_value() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(10, 60);
+		testedCache.put("key", "old");
+
+		//when
+		String previous = testedCache.put("key", "new");
+
+		//then
+		assertThat(previous).isEqualTo("old");
+		assertThat(testedCache.get("key")).isEqualTo("new");
+		assertThat(testedCache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void get_should_expire_entry_after_write() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(10, 60);
+		testedCache.put("key", "value");
+
+		//when
+		advance(59, TimeUnit.SECONDS);
+		String beforeExpiry = testedCache.get("key");
+		advance(1, TimeUnit.SECONDS);
+		String afterExpiry = testedCache.get("key");
+
+		//then
+		assertThat(beforeExpiry).isEqualTo("value");
+		assertThat(afterExpiry).isNull();
+		assertThat(testedCache.size()).isEqualTo(0);
+		assertThat(testedCache.getExpirationCount()).isEqualTo(1);
+		assertThat(testedCache.keys()).isEmpty();
+	}
+
+	@Test
+	public void put_should_stay_within_maximum_size() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(100, 60);
+
+		//when
+		for (int i = 0; i < 1_000; i++) {
+			testedCache.put("key" + i, "value");
+		}
+
+		//then
+		assertThat(testedCache.size()).isEqualTo(100);
+		assertThat(testedCache.getEvictionCount()).isEqualTo(900);
+	}
+
+	@Test
+	public void put_should_keep_frequently_used_entries_during_a_scan() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(100, 60);
+		for (int i = 0; i < 50; i++) {
+			testedCache.put("hot" + i, "value");
+		}
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 50; i++) {
+				testedCache.get("hot" + i);
+			}
+		}
+
+		//when
+		for (int i = 0; i < 500; i++) {
+			testedCache.put("scan" + i, "value");
+		}
+
+		//then
+		for (int i = 0; i < 50; i++) {
+			assertThat(testedCache.get("hot" + i)).isEqualTo("value");
+		}
+		assertThat(testedCache.size()).isLessThanOrEqualTo(100);
+	}
+
+	@Test
+	public void put_should_record_load_time_after_a_miss() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(10, 60);
+		testedCache.get("key");
+		advance(5, TimeUnit.MILLISECONDS);
+
+		//when
+		testedCache.put("key", "value");
+		testedCache.put("other key", "value");
+
+		//then
+		assertThat(testedCache.getLoadCount()).isEqualTo(1);
+		assertThat(testedCache.getAverageLoadTimeInNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+	}
+
+	@Test
+	public void remove_should_forget_entry() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(10, 60);
+		testedCache.put("key", "value");
+
+		//when
+		String removed = testedCache.remove("key");
+
+		//then
+		assertThat(removed).isEqualTo("value");
+		assertThat(testedCache.get("key")).isNull();
+		assertThat(testedCache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void clear_should_forget_all_entries() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(10, 60);
+		testedCache.put("key", "value");
+		testedCache.put("other key", "other value");
+
+		//when
+		testedCache.clear();
+
+		//then
+		assertThat(testedCache.size()).isEqualTo(0);
+		assertThat(testedCache.values()).isEmpty();
+	}
+
+	@Test
+	public void getHitRate_should_share_hits_among_lookups() {
+		//given
+		BoundedCache<String, String> testedCache = getBoundedCache(10, 60);
+		testedCache.put("key", "value");
+
+		//when
+		testedCache.get("key");
+		testedCache.get("key");
+		testedCache.get("key");
+		testedCache.get("missing");
+
+		//then
+		assertThat(testedCache.getHitRate()).isEqualTo(0.75);
+	}
+}
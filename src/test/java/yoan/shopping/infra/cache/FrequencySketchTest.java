@@ -0,0 +1,54 @@
+package yoan.shopping.infra.cache;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class FrequencySketchTest {
+
+	@Test
+	public void frequency_should_count_increments() {
+		//given
+		FrequencySketch testedSketch = new FrequencySketch(100);
+
+		//when
+		for (int i = 0; i < 5; i++) {
+			testedSketch.increment("key");
+		}
+
+		//then
+		assertThat(testedSketch.frequency("key")).isEqualTo(5);
+		assertThat(testedSketch.frequency("other key")).isEqualTo(0);
+	}
+
+	@Test
+	public void frequency_should_be_capped() {
+		//given
+		FrequencySketch testedSketch = new FrequencySketch(100);
+
+		//when
+		for (int i = 0; i < 20; i++) {
+			testedSketch.increment("key");
+		}
+
+		//then
+		assertThat(testedSketch.frequency("key")).isEqualTo(FrequencySketch.MAX_FREQUENCY);
+	}
+
+	@Test
+	public void increment_should_halve_frequencies_once_sample_is_full() {
+		//given
+		FrequencySketch testedSketch = new FrequencySketch(10);
+		for (int i = 0; i < 8; i++) {
+			testedSketch.increment("old key");
+		}
+
+		//when
+		for (int i = 0; i < 100; i++) {
+			testedSketch.increment("new key" + i);
+		}
+
+		//then
+		assertThat(testedSketch.frequency("old key")).isLessThan(8);
+	}
+}
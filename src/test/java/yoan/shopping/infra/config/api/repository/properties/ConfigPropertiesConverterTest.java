@@ -10,14 +10,22 @@ import static yoan.shopping.infra.config.api.repository.properties.ConfigPropert
 import static yoan.shopping.infra.config.api.repository.properties.ConfigPropertiesConverter.*;
 
 import java.util.Properties;
+import java.util.UUID;
 
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import yoan.shopping.authentication.realm.AccessTokenValidationMode;
+import yoan.shopping.authentication.repository.TokenStorageMode;
 import yoan.shopping.infra.config.api.Config;
 
 
 public class ConfigPropertiesConverterTest {
 
+	private static final UUID ADMIN_USER_ID = UUID.randomUUID();
+
 	@Test
 	public void fromProperties_should_work() {
 		//given
@@ -41,6 +49,45 @@ public class ConfigPropertiesConverterTest {
 		properties.setProperty(MONGO_PORT_FIELD, config.getMongoPort().toString());
 		properties.setProperty(MONGO_USER_FIELD, config.getMongoUser());
 		properties.setProperty(MONGO_PASS_FIELD, config.getMongoPass());
+		properties.setProperty(MONGO_SLOW_QUERY_THRESHOLD_FIELD, config.getMongoSlowQueryThresholdInMillis().toString());
+		properties.setProperty(MONGO_CIRCUIT_BREAKER_WINDOW_FIELD, config.getMongoCircuitBreakerWindowInSeconds().toString());
+		properties.setProperty(MONGO_CIRCUIT_BREAKER_MINIMUM_CALLS_FIELD, config.getMongoCircuitBreakerMinimumCalls().toString());
+		properties.setProperty(MONGO_CIRCUIT_BREAKER_FAILURE_RATE_FIELD, config.getMongoCircuitBreakerFailureRateInPercent().toString());
+		properties.setProperty(MONGO_CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD_FIELD, config.getMongoCircuitBreakerSlowCallThresholdInMillis().toString());
+		properties.setProperty(MONGO_CIRCUIT_BREAKER_SLOW_CALL_RATE_FIELD, config.getMongoCircuitBreakerSlowCallRateInPercent().toString());
+		properties.setProperty(MONGO_CIRCUIT_BREAKER_OPEN_DURATION_FIELD, config.getMongoCircuitBreakerOpenDurationInSeconds().toString());
+		properties.setProperty(MONGO_CIRCUIT_BREAKER_HALF_OPEN_PROBES_FIELD, config.getMongoCircuitBreakerHalfOpenProbes().toString());
+		properties.setProperty(REQUEST_DEADLINE_FIELD, config.getRequestDeadlineInMillis().toString());
+		properties.setProperty(REQUEST_DEADLINES_BY_ROUTE_FIELD, "/rest/auth:3000, /rest/api/admin:30000");
+		properties.setProperty(ACCESS_TOKEN_VALIDATION_MODE_FIELD, "jwt");
+		properties.setProperty(JWT_SIGNING_KEYS_FIELD, "key-2016:c2VjcmV0LTIwMTY=, key-2017:c2VjcmV0LTIwMTc=");
+		properties.setProperty(JWT_ACTIVE_KEY_ID_FIELD, config.getJwtActiveKeyId());
+		properties.setProperty(REVOCATION_MEMORY_BUDGET_FIELD, config.getRevocationMemoryBudgetInBytes().toString());
+		properties.setProperty(REVOCATION_REFRESH_PERIOD_FIELD, config.getRevocationRefreshPeriodInSeconds().toString());
+		properties.setProperty(CACHE_MAXIMUM_SIZE_FIELD, config.getCacheMaximumSize().toString());
+		properties.setProperty(CACHE_MAXIMUM_SIZES_BY_NAME_FIELD, "userAuthentication:500");
+		properties.setProperty(CACHE_EXPIRY_FIELD, config.getCacheExpiryInSeconds().toString());
+		properties.setProperty(CACHE_EXPIRIES_BY_NAME_FIELD, "userAuthentication:60, invalidAccessTokens:10");
+		properties.setProperty(PASSWORD_HASH_ITERATIONS_FIELD, config.getPasswordHashIterations().toString());
+		properties.setProperty(PASSWORD_HASH_THREADS_FIELD, config.getPasswordHashThreads().toString());
+		properties.setProperty(PASSWORD_HASH_QUEUE_CAPACITY_FIELD, config.getPasswordHashQueueCapacity().toString());
+		properties.setProperty(REFRESH_TOKEN_TTL_FIELD, config.getRefreshTokenTtlInDays().toString());
+		properties.setProperty(CLIENT_SECRET_CACHE_TTL_FIELD, config.getClientSecretCacheTtlInSeconds().toString());
+		properties.setProperty(CLIENT_APP_CACHE_TTL_FIELD, config.getClientAppCacheTtlInSeconds().toString());
+		properties.setProperty(TOKEN_STORAGE_MODE_FIELD, "in_memory");
+		properties.setProperty(TOKEN_STORAGE_MAX_ENTRIES_FIELD, config.getTokenStorageMaxEntries().toString());
+		properties.setProperty(TOKEN_STORAGE_SNAPSHOT_DIRECTORY_FIELD, "/var/lib/shopping/tokens");
+		properties.setProperty(TOKEN_STORAGE_SNAPSHOT_PERIOD_FIELD, config.getTokenStorageSnapshotPeriodInSeconds().toString());
+		properties.setProperty(RATE_LIMIT_FIELD, config.getRateLimitRequestsPerMinute().toString());
+		properties.setProperty(RATE_LIMITS_BY_ROUTE_FIELD, "/rest/auth:120, /rest/auth/token:60");
+		properties.setProperty(RATE_LIMIT_MAX_KEYS_FIELD, config.getRateLimitMaxKeys().toString());
+		properties.setProperty(LOGIN_FAILURE_WINDOW_FIELD, config.getLoginFailureWindowInSeconds().toString());
+		properties.setProperty(LOGIN_MAX_FAILURES_BY_EMAIL_FIELD, config.getLoginMaxFailuresByEmail().toString());
+		properties.setProperty(LOGIN_MAX_FAILURES_BY_IP_FIELD, config.getLoginMaxFailuresByIp().toString());
+		properties.setProperty(LOGIN_LOCKOUT_FIELD, config.getLoginLockoutInSeconds().toString());
+		properties.setProperty(LOGIN_MAX_LOCKOUT_FIELD, config.getLoginMaxLockoutInSeconds().toString());
+		properties.setProperty(LOGIN_MAX_TRACKED_KEYS_FIELD, config.getLoginMaxTrackedKeys().toString());
+		properties.setProperty(ADMIN_USER_IDS_FIELD, ADMIN_USER_ID.toString());
 		properties.setProperty(SWAGGER_BASE_PATH_FIELD, config.getSwaggerBasePath());
 		return properties;
 	}
@@ -49,6 +96,45 @@ public class ConfigPropertiesConverterTest {
 		return Config.Builder.createDefault()
 				.withMongoUser("user")
 				.withMongoPass("pass")
+				.withMongoSlowQueryThresholdInMillis(250)
+				.withMongoCircuitBreakerWindowInSeconds(20)
+				.withMongoCircuitBreakerMinimumCalls(50)
+				.withMongoCircuitBreakerFailureRateInPercent(40)
+				.withMongoCircuitBreakerSlowCallThresholdInMillis(3000)
+				.withMongoCircuitBreakerSlowCallRateInPercent(90)
+				.withMongoCircuitBreakerOpenDurationInSeconds(30)
+				.withMongoCircuitBreakerHalfOpenProbes(5)
+				.withRequestDeadlineInMillis(5_000)
+				.withRequestDeadlinesInMillisByRoute(ImmutableMap.of("/rest/auth", 3_000, "/rest/api/admin", 30_000))
+				.withAccessTokenValidationMode(AccessTokenValidationMode.JWT)
+				.withJwtSigningKeysById(ImmutableMap.of("key-2016", "c2VjcmV0LTIwMTY=", "key-2017", "c2VjcmV0LTIwMTc="))
+				.withJwtActiveKeyId("key-2017")
+				.withRevocationMemoryBudgetInBytes(65_536)
+				.withRevocationRefreshPeriodInSeconds(2)
+				.withCacheMaximumSize(2_000)
+				.withCacheMaximumSizesByName(ImmutableMap.of("userAuthentication", 500))
+				.withCacheExpiryInSeconds(120)
+				.withCacheExpiriesInSecondsByName(ImmutableMap.of("userAuthentication", 60, "invalidAccessTokens", 10))
+				.withPasswordHashIterations(20_000)
+				.withPasswordHashThreads(2)
+				.withPasswordHashQueueCapacity(16)
+				.withRefreshTokenTtlInDays(7)
+				.withClientSecretCacheTtlInSeconds(60)
+				.withClientAppCacheTtlInSeconds(30)
+				.withTokenStorageMode(TokenStorageMode.IN_MEMORY)
+				.withTokenStorageMaxEntries(1_000)
+				.withTokenStorageSnapshotDirectory("/var/lib/shopping/tokens")
+				.withTokenStorageSnapshotPeriodInSeconds(30)
+				.withRateLimitRequestsPerMinute(1_200)
+				.withRateLimitRequestsPerMinuteByRoute(ImmutableMap.of("/rest/auth", 120, "/rest/auth/token", 60))
+				.withRateLimitMaxKeys(50_000)
+				.withLoginFailureWindowInSeconds(600)
+				.withLoginMaxFailuresByEmail(10)
+				.withLoginMaxFailuresByIp(100)
+				.withLoginLockoutInSeconds(60)
+				.withLoginMaxLockoutInSeconds(7_200)
+				.withLoginMaxTrackedKeys(50_000)
+				.withAdminUserIds(ImmutableSet.of(ADMIN_USER_ID))
 				.build();
 	}
 }
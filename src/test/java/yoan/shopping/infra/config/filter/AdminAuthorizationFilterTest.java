@@ -0,0 +1,87 @@
+package yoan.shopping.infra.config.filter;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.User;
+
+public class AdminAuthorizationFilterTest {
+
+	private final User adminUser = TestHelper.generateRandomUser();
+	private final AdminAuthorizationFilter testedFilter = new AdminAuthorizationFilter(Config.Builder.createDefault().withAdminUserIds(ImmutableSet.of(adminUser.getId())).build());
+
+	@After
+	public void unbindSubject() {
+		ThreadContext.unbindSubject();
+	}
+
+	@Test
+	public void isAccessAllowed_should_allow_admin_user() {
+		//given
+		bindConnectedUser(adminUser);
+
+		//when
+		boolean result = testedFilter.isAccessAllowed(mock(HttpServletRequest.class), mock(HttpServletResponse.class), null);
+
+		//then
+		assertThat(result).isTrue();
+	}
+
+	@Test
+	public void isAccessAllowed_should_refuse_other_user() {
+		//given
+		bindConnectedUser(TestHelper.generateRandomUser());
+
+		//when
+		boolean result = testedFilter.isAccessAllowed(mock(HttpServletRequest.class), mock(HttpServletResponse.class), null);
+
+		//then
+		assertThat(result).isFalse();
+	}
+
+	@Test
+	public void isAccessAllowed_should_refuse_everyone_without_admin_configured() {
+		//given
+		bindConnectedUser(adminUser);
+		AdminAuthorizationFilter filterWithoutAdmin = new AdminAuthorizationFilter(Config.DEFAULT);
+
+		//when
+		boolean result = filterWithoutAdmin.isAccessAllowed(mock(HttpServletRequest.class), mock(HttpServletResponse.class), null);
+
+		//then
+		assertThat(result).isFalse();
+	}
+
+	@Test
+	public void onAccessDenied_should_send_forbidden() {
+		//given
+		HttpServletResponse response = mock(HttpServletResponse.class);
+
+		//when
+		boolean result = testedFilter.onAccessDenied(mock(HttpServletRequest.class), response);
+
+		//then
+		assertThat(result).isFalse();
+		verify(response).setStatus(403);
+	}
+
+	private static void bindConnectedUser(User connectedUser) {
+		Subject subject = mock(Subject.class);
+		when(subject.getPrincipal()).thenReturn(connectedUser);
+		ThreadContext.bind(subject);
+	}
+}
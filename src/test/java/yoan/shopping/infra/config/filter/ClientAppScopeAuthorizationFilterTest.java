@@ -0,0 +1,119 @@
+package yoan.shopping.infra.config.filter;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Test;
+
+import yoan.shopping.client.app.ClientAppPrincipal;
+import yoan.shopping.test.TestHelper;
+
+public class ClientAppScopeAuthorizationFilterTest {
+
+	private final ClientAppPrincipal clientApp = new ClientAppPrincipal(UUID.randomUUID());
+	private final ClientAppScopeAuthorizationFilter testedFilter = new ClientAppScopeAuthorizationFilter();
+
+	@After
+	public void unbindSubject() {
+		ThreadContext.unbindSubject();
+	}
+
+	@Test
+	public void isAccessAllowed_should_allow_user() {
+		//given
+		bindPrincipal(TestHelper.generateRandomUser());
+
+		//when
+		boolean result = testedFilter.isAccessAllowed(givenRequest("DELETE", "/rest/api/list/" + UUID.randomUUID()), mock(HttpServletResponse.class), null);
+
+		//then
+		assertThat(result).isTrue();
+	}
+
+	@Test
+	public void isAccessAllowed_should_allow_client_app_reading_its_own_registration() {
+		//given
+		bindPrincipal(clientApp);
+
+		//when
+		boolean result = testedFilter.isAccessAllowed(givenRequest("GET", "/rest/api/client/app/" + clientApp.getClientId()), mock(HttpServletResponse.class), null);
+
+		//then
+		assertThat(result).isTrue();
+	}
+
+	@Test
+	public void isAccessAllowed_should_refuse_client_app_on_user_resource() {
+		//given
+		bindPrincipal(clientApp);
+
+		//when
+		boolean result = testedFilter.isAccessAllowed(givenRequest("GET", "/rest/api/list/user/" + UUID.randomUUID()), mock(HttpServletResponse.class), null);
+
+		//then
+		assertThat(result).isFalse();
+	}
+
+	@Test
+	public void isAccessAllowed_should_refuse_client_app_reading_another_app() {
+		//given
+		bindPrincipal(clientApp);
+
+		//when
+		boolean result = testedFilter.isAccessAllowed(givenRequest("GET", "/rest/api/client/app/" + UUID.randomUUID()), mock(HttpServletResponse.class), null);
+
+		//then
+		assertThat(result).isFalse();
+	}
+
+	@Test
+	public void isAccessAllowed_should_refuse_client_app_changing_its_own_registration() {
+		//given
+		bindPrincipal(clientApp);
+
+		//when
+		boolean result = testedFilter.isAccessAllowed(givenRequest("DELETE", "/rest/api/client/app/" + clientApp.getClientId()), mock(HttpServletResponse.class), null);
+
+		//then
+		assertThat(result).isFalse();
+	}
+
+	@Test
+	public void onAccessDenied_should_send_forbidden_with_insufficient_scope() {
+		//given
+		HttpServletResponse response = mock(HttpServletResponse.class);
+
+		//when
+		boolean result = testedFilter.onAccessDenied(mock(HttpServletRequest.class), response);
+
+		//then
+		assertThat(result).isFalse();
+		verify(response).setStatus(403);
+		verify(response).setHeader(Oauth2AccessTokenAuthenticatingFilter.AUTHENTICATE_HEADER, ClientAppScopeAuthorizationFilter.INSUFFICIENT_SCOPE_CHALLENGE);
+		assertThat(ClientAppScopeAuthorizationFilter.INSUFFICIENT_SCOPE_CHALLENGE).contains("insufficient_scope");
+	}
+
+	private static HttpServletRequest givenRequest(String method, String path) {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getMethod()).thenReturn(method);
+		when(request.getContextPath()).thenReturn("");
+		when(request.getRequestURI()).thenReturn(path);
+		return request;
+	}
+
+	private static void bindPrincipal(Object principal) {
+		Subject subject = mock(Subject.class);
+		when(subject.getPrincipal()).thenReturn(principal);
+		ThreadContext.bind(subject);
+	}
+}
@@ -0,0 +1,129 @@
+package yoan.shopping.infra.config.filter;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static yoan.shopping.infra.config.filter.RateLimitFilter.IP_DECISION_ATTRIBUTE;
+import static yoan.shopping.infra.config.filter.RateLimitFilter.RATE_LIMIT_LIMIT_HEADER;
+import static yoan.shopping.infra.config.filter.RateLimitFilter.RATE_LIMIT_REMAINING_HEADER;
+import static yoan.shopping.infra.config.filter.RateLimitFilter.RETRY_AFTER_HEADER;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.ratelimit.RateLimitDecision;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+
+public class IpRateLimitFilterTest {
+
+	private final Config config = Config.Builder.createDefault()
+		.withRateLimitRequestsPerMinute(2)
+		.withRateLimitRequestsPerMinuteByRoute(ImmutableMap.of("/rest/auth/token", 1, "/rest/public", 0))
+		.build();
+	private final RateLimiter rateLimiter = new RateLimiter(config);
+	private final IpRateLimitFilter testedFilter = new IpRateLimitFilter(rateLimiter);
+
+	@Test
+	public void doFilter_should_let_request_through_with_the_ip_decision() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/api/user", "10.0.0.1", null);
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		FilterChain chain = mock(FilterChain.class);
+
+		//when
+		testedFilter.doFilter(request, response, chain);
+
+		//then
+		verify(chain).doFilter(request, response);
+		verify(request).setAttribute(eq(IP_DECISION_ATTRIBUTE), any(RateLimitDecision.class));
+		//the user filter completes the allowed request
+		verify(response, never()).setHeader(eq(RATE_LIMIT_LIMIT_HEADER), any());
+		assertThat(rateLimiter.getAllowedCount(RateLimiter.DEFAULT_ROUTE)).isEqualTo(0);
+	}
+
+	@Test
+	public void doFilter_should_reject_request_over_the_route_limit() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/auth/token", "10.0.0.1", null);
+		testedFilter.doFilter(request, mock(HttpServletResponse.class), mock(FilterChain.class));
+		HttpServletResponse response = mockResponse();
+		FilterChain chain = mock(FilterChain.class);
+
+		//when
+		testedFilter.doFilter(request, response, chain);
+
+		//then
+		verify(chain, never()).doFilter(any(), any());
+		verify(response).setStatus(429);
+		verify(response).setHeader(RETRY_AFTER_HEADER, "60");
+		verify(response).setHeader(RATE_LIMIT_REMAINING_HEADER, "0");
+		verify(response.getOutputStream()).write(any(byte[].class));
+		assertThat(rateLimiter.getThrottledCount("/rest/auth/token")).isEqualTo(1);
+	}
+
+	@Test
+	public void doFilter_should_not_charge_the_unauthenticated_client_id() throws IOException, ServletException {
+		//given
+		testedFilter.doFilter(mockRequest("/rest/auth/token", "10.0.0.1", "client"), mock(HttpServletResponse.class), mock(FilterChain.class));
+		HttpServletRequest request = mockRequest("/rest/auth/token", "10.0.0.2", "client");
+		HttpServletResponse response = mockResponse();
+		FilterChain chain = mock(FilterChain.class);
+
+		//when
+		testedFilter.doFilter(request, response, chain);
+
+		//then
+		verify(chain).doFilter(request, response);
+		verify(response, never()).setStatus(429);
+	}
+
+	@Test
+	public void doFilter_should_not_limit_unlimited_route() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/public/doc", "10.0.0.1", null);
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		FilterChain chain = mock(FilterChain.class);
+
+		//when
+		for (int i = 0; i < 5; i++) {
+			testedFilter.doFilter(request, response, chain);
+		}
+
+		//then
+		verify(chain, times(5)).doFilter(request, response);
+		verify(request, never()).setAttribute(eq(IP_DECISION_ATTRIBUTE), any());
+		verify(response, never()).setHeader(eq(RATE_LIMIT_LIMIT_HEADER), any());
+		assertThat(rateLimiter.getSize()).isEqualTo(0);
+	}
+
+	static HttpServletRequest mockRequest(String path, String ip, String clientId) {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getContextPath()).thenReturn("/shopping");
+		when(request.getRequestURI()).thenReturn("/shopping" + path);
+		when(request.getRemoteAddr()).thenReturn(ip);
+		when(request.getParameter("client_id")).thenReturn(clientId);
+		return request;
+	}
+
+	static HttpServletResponse mockResponse() throws IOException {
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		ServletOutputStream outputStream = mock(ServletOutputStream.class);
+		when(response.getOutputStream()).thenReturn(outputStream);
+		return response;
+	}
+}
@@ -1,13 +1,21 @@
 package yoan.shopping.infra.config.filter;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.shiro.subject.Subject;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import yoan.shopping.authentication.realm.Oauth2ShiroAccessToken;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.User;
+
 public class Oauth2AccessTokenAuthenticatingFilterTest {
 	@Mock
 	HttpServletRequest request;
@@ -40,4 +48,78 @@ public class Oauth2AccessTokenAuthenticatingFilterTest {
 		//then
 		assertThat(result).isNull();
 	}
+	
+	@Test
+	public void extractAccessToken_should_ignore_scheme_case_and_extra_spaces() {
+		//given
+		String expectedAccessToken = "2d685f0f8b076a2eb161ca6da9ad250e";
+		String validHeader = "bEARER   " + expectedAccessToken + " ";
+		
+		//when
+		String result = Oauth2AccessTokenAuthenticatingFilter.extractAccessToken(validHeader);
+		
+		//then
+		assertThat(result).isEqualTo(expectedAccessToken);
+	}
+	
+	@Test
+	public void extractAccessToken_should_return_null_with_other_scheme() {
+		//when
+		String basicResult = Oauth2AccessTokenAuthenticatingFilter.extractAccessToken("Basic dXNlckBtYWlsLmNvbTpwYXNzd29yZA==");
+		String noSeparatorResult = Oauth2AccessTokenAuthenticatingFilter.extractAccessToken("Bearer2d685f0f8b076a2eb161ca6da9ad250e");
+		String schemeOnlyResult = Oauth2AccessTokenAuthenticatingFilter.extractAccessToken("Bearer");
+		
+		//then
+		assertThat(basicResult).isNull();
+		assertThat(noSeparatorResult).isNull();
+		assertThat(schemeOnlyResult).isNull();
+	}
+	
+	@Test
+	public void isLoginAttempt_should_match_scheme_whatever_the_case() {
+		//given
+		Oauth2AccessTokenAuthenticatingFilter testedFilter = new Oauth2AccessTokenAuthenticatingFilter();
+		
+		//when
+		boolean bearerResult = testedFilter.isLoginAttempt("bearer token");
+		boolean basicResult = testedFilter.isLoginAttempt("Basic token");
+		boolean shortResult = testedFilter.isLoginAttempt("Bear");
+		
+		//then
+		assertThat(bearerResult).isTrue();
+		assertThat(basicResult).isFalse();
+		assertThat(shortResult).isFalse();
+	}
+	
+	@Test
+	public void sendChallenge_should_send_the_precomputed_challenge() {
+		//given
+		Oauth2AccessTokenAuthenticatingFilter testedFilter = new Oauth2AccessTokenAuthenticatingFilter();
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		
+		//when
+		testedFilter.sendChallenge(response);
+		
+		//then
+		verify(response).setStatus(401);
+		verify(response).setHeader("WWW-Authenticate", Oauth2AccessTokenAuthenticatingFilter.CHALLENGE);
+		assertThat(Oauth2AccessTokenAuthenticatingFilter.CHALLENGE).startsWith("Bearer ").contains("realm=\"ShoppingAPI\"").contains("invalid_token");
+	}
+	
+	@Test
+	public void onLoginSuccess_should_hand_the_user_over_to_the_request_scope() throws Exception {
+		//given
+		Oauth2AccessTokenAuthenticatingFilter testedFilter = new Oauth2AccessTokenAuthenticatingFilter();
+		User connectedUser = TestHelper.generateRandomUser();
+		Subject subject = mock(Subject.class);
+		when(subject.getPrincipal()).thenReturn(connectedUser);
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		
+		//when
+		boolean result = testedFilter.onLoginSuccess(new Oauth2ShiroAccessToken("token", "host"), subject, request, mock(HttpServletResponse.class));
+		
+		//then
+		assertThat(result).isTrue();
+		verify(request).setAttribute(RequestScopeFilter.CONNECTED_USER_ATTRIBUTE, connectedUser);
+	}
 }
@@ -0,0 +1,199 @@
+package yoan.shopping.infra.config.filter;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static yoan.shopping.infra.rest.error.Level.WARNING;
+import static yoan.shopping.infra.util.error.CommonErrorCode.TOO_MANY_REQUESTS;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import yoan.shopping.infra.security.LoginAttemptTracker;
+import yoan.shopping.infra.security.PasswordHasher;
+import yoan.shopping.infra.util.deadline.DeadlineExceededException;
+import yoan.shopping.infra.util.error.RepositoryErrorCode;
+import yoan.shopping.infra.util.error.RetryLaterException;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.User;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PasswordBasicAuthenticatingFilterTest {
+	@Mock
+	HttpServletRequest request;
+	@Mock
+	HttpServletResponse response;
+	@Mock
+	PasswordHasher mockedPasswordHasher;
+	@Mock
+	LoginAttemptTracker mockedLoginAttemptTracker;
+	@InjectMocks
+	PasswordBasicAuthenticatingFilter testedFilter;
+	
+	@After
+	public void unbindSubject() {
+		ThreadContext.unbindSubject();
+	}
+	
+	@Test
+	public void onAccessDenied_should_reject_login_while_password_hashing_is_saturated() throws Exception {
+		//given
+		when(request.getHeader("Authorization")).thenReturn("Basic dXNlckBtYWlsLmNvbTpwYXNzd29yZA==");
+		when(mockedPasswordHasher.isSaturated()).thenReturn(true);
+		
+		//when
+		boolean result = testedFilter.onAccessDenied(request, response);
+		
+		//then
+		assertThat(result).isFalse();
+		verify(response).setStatus(429);
+		verify(response).setHeader("Retry-After", "1");
+	}
+	
+	@Test
+	public void onAccessDenied_should_reject_locked_out_login() throws Exception {
+		//given
+		when(request.getHeader("Authorization")).thenReturn("Basic dXNlckBtYWlsLmNvbTpwYXNzd29yZA==");
+		when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+		when(mockedLoginAttemptTracker.getLockoutInSeconds("user@mail.com", "10.0.0.1")).thenReturn(30L);
+		
+		//when
+		boolean result = testedFilter.onAccessDenied(request, response);
+		
+		//then
+		assertThat(result).isFalse();
+		verify(response).setStatus(429);
+		verify(response).setHeader("Retry-After", "30");
+	}
+	
+	@Test
+	public void onLoginFailure_should_record_failed_login() {
+		//given
+		when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+		UsernamePasswordToken token = new UsernamePasswordToken("user@mail.com", "password");
+		
+		//when
+		boolean result = testedFilter.onLoginFailure(token, new AuthenticationException(), request, response);
+		
+		//then
+		assertThat(result).isFalse();
+		verify(mockedLoginAttemptTracker).recordFailure("user@mail.com", "10.0.0.1");
+		verify(mockedLoginAttemptTracker, never()).recordSuccess(any());
+	}
+	
+	@Test
+	public void onAccessDenied_should_answer_429_without_recording_failure_when_hashing_rejects_the_login() throws Exception {
+		//given
+		givenRequestAttributes();
+		when(request.getHeader("Authorization")).thenReturn("Basic dXNlckBtYWlsLmNvbTpwYXNzd29yZA==");
+		when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+		Subject subject = mock(Subject.class);
+		RetryLaterException saturated = new RetryLaterException(WARNING, TOO_MANY_REQUESTS, "saturated", 2);
+		//as thrown by Shiro when the credentials matcher fails
+		doThrow(new AuthenticationException("login failed", saturated)).when(subject).login(any(AuthenticationToken.class));
+		ThreadContext.bind(subject);
+		
+		//when
+		boolean result = testedFilter.onAccessDenied(request, response);
+		
+		//then
+		assertThat(result).isFalse();
+		verify(response).setStatus(429);
+		verify(response).setHeader("Retry-After", "2");
+		verify(response, never()).setStatus(401);
+		verify(mockedLoginAttemptTracker, never()).recordFailure(any(), any());
+	}
+	
+	@Test
+	public void onLoginFailure_should_answer_503_without_recording_failure_while_database_is_unavailable() {
+		//given
+		givenRequestAttributes();
+		UsernamePasswordToken token = new UsernamePasswordToken("user@mail.com", "password");
+		RetryLaterException unavailable = new RetryLaterException(WARNING, RepositoryErrorCode.UNAVAILABLE, "unavailable", 10);
+		
+		//when
+		boolean result = testedFilter.onLoginFailure(token, new AuthenticationException("login failed", unavailable), request, response);
+		
+		//then
+		assertThat(result).isFalse();
+		verify(response).setStatus(503);
+		verify(response).setHeader("Retry-After", "10");
+		assertThat(testedFilter.sendChallenge(request, response)).isFalse();
+		verify(response, never()).setStatus(401);
+		verify(mockedLoginAttemptTracker, never()).recordFailure(any(), any());
+	}
+	
+	@Test
+	public void onLoginFailure_should_answer_504_without_recording_failure_once_deadline_is_spent() {
+		//given
+		givenRequestAttributes();
+		UsernamePasswordToken token = new UsernamePasswordToken("user@mail.com", "password");
+		
+		//when
+		boolean result = testedFilter.onLoginFailure(token, new AuthenticationException("login failed", new DeadlineExceededException(100, "hash")), request, response);
+		
+		//then
+		assertThat(result).isFalse();
+		verify(response).setStatus(504);
+		verify(response).setHeader("Retry-After", "1");
+		verify(mockedLoginAttemptTracker, never()).recordFailure(any(), any());
+	}
+	
+	@Test
+	public void onLoginFailure_should_not_record_failure_for_unexpected_error() {
+		//given
+		UsernamePasswordToken token = new UsernamePasswordToken("user@mail.com", "password");
+		
+		//when
+		boolean result = testedFilter.onLoginFailure(token, new AuthenticationException("login failed", new IllegalStateException()), request, response);
+		
+		//then
+		assertThat(result).isFalse();
+		verify(mockedLoginAttemptTracker, never()).recordFailure(any(), any());
+	}
+	
+	@Test
+	public void onLoginSuccess_should_hand_the_user_over_to_the_request_scope() throws Exception {
+		//given
+		User connectedUser = TestHelper.generateRandomUser();
+		Subject subject = mock(Subject.class);
+		when(subject.getPrincipal()).thenReturn(connectedUser);
+		UsernamePasswordToken token = new UsernamePasswordToken(connectedUser.getEmail(), "password");
+		
+		//when
+		boolean result = testedFilter.onLoginSuccess(token, subject, request, response);
+		
+		//then
+		assertThat(result).isTrue();
+		verify(mockedLoginAttemptTracker).recordSuccess(connectedUser.getEmail());
+		verify(request).setAttribute(RequestScopeFilter.CONNECTED_USER_ATTRIBUTE, connectedUser);
+	}
+	
+	private void givenRequestAttributes() {
+		Map<String, Object> attributes = new HashMap<>();
+		doAnswer(invocation -> attributes.put((String) invocation.getArguments()[0], invocation.getArguments()[1]))
+			.when(request).setAttribute(anyString(), any());
+		when(request.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.getArguments()[0]));
+	}
+}
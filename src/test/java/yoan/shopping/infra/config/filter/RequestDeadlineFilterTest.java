@@ -0,0 +1,138 @@
+package yoan.shopping.infra.config.filter;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static yoan.shopping.infra.config.filter.RequestDeadlineFilter.DEFAULT_ROUTE;
+import static yoan.shopping.infra.config.filter.RequestDeadlineFilter.REQUEST_TIMEOUT_HEADER;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.util.deadline.RequestDeadline;
+import yoan.shopping.infra.util.deadline.RequestDeadlineMetrics;
+
+public class RequestDeadlineFilterTest {
+
+	private final Config config = Config.Builder.createDefault()
+		.withRequestDeadlineInMillis(10_000)
+		.withRequestDeadlinesInMillisByRoute(ImmutableMap.of("/rest/auth", 3_000, "/rest/auth/token", 1_000))
+		.build();
+	private final RequestDeadlineMetrics metrics = new RequestDeadlineMetrics();
+	private final RequestDeadlineFilter testedFilter = new RequestDeadlineFilter(config, metrics);
+
+	@Test
+	public void doFilter_should_use_longest_matching_route() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/auth/token", null);
+
+		//when
+		RequestDeadline deadline = filterAndCaptureDeadline(request);
+
+		//then
+		assertThat(deadline.getRoute()).isEqualTo("/rest/auth/token");
+		assertThat(deadline.getBudgetInMillis()).isEqualTo(1_000);
+	}
+
+	@Test
+	public void doFilter_should_use_default_budget_without_matching_route() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/api/user", null);
+
+		//when
+		RequestDeadline deadline = filterAndCaptureDeadline(request);
+
+		//then
+		assertThat(deadline.getRoute()).isEqualTo(DEFAULT_ROUTE);
+		assertThat(deadline.getBudgetInMillis()).isEqualTo(10_000);
+	}
+
+	@Test
+	public void doFilter_should_let_client_shorten_the_budget() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/api/user", "500");
+
+		//when
+		RequestDeadline deadline = filterAndCaptureDeadline(request);
+
+		//then
+		assertThat(deadline.getBudgetInMillis()).isEqualTo(500);
+	}
+
+	@Test
+	public void doFilter_should_not_let_client_extend_the_budget() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/auth", "60000");
+
+		//when
+		RequestDeadline deadline = filterAndCaptureDeadline(request);
+
+		//then
+		assertThat(deadline.getBudgetInMillis()).isEqualTo(3_000);
+	}
+
+	@Test
+	public void doFilter_should_ignore_invalid_client_timeout() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/api/user", "soon");
+
+		//when
+		RequestDeadline deadline = filterAndCaptureDeadline(request);
+
+		//then
+		assertThat(deadline.getBudgetInMillis()).isEqualTo(10_000);
+	}
+
+	@Test
+	public void doFilter_should_clear_deadline_and_count_exceeded_request() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequest("/rest/auth/token", null);
+		FilterChain chain = mock(FilterChain.class);
+		doAnswer(invocation -> {
+			RequestDeadline.current().exceeded("processGetById");
+			return null;
+		}).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+		//when
+		testedFilter.doFilter(request, mock(HttpServletResponse.class), chain);
+
+		//then
+		assertThat(RequestDeadline.current()).isNull();
+		assertThat(metrics.getRequestCount("/rest/auth/token")).isEqualTo(1);
+		assertThat(metrics.getExceededCount("/rest/auth/token")).isEqualTo(1);
+	}
+
+	private RequestDeadline filterAndCaptureDeadline(HttpServletRequest request) throws IOException, ServletException {
+		AtomicReference<RequestDeadline> captured = new AtomicReference<>();
+		FilterChain chain = mock(FilterChain.class);
+		doAnswer(invocation -> {
+			captured.set(RequestDeadline.current());
+			return null;
+		}).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+		testedFilter.doFilter(request, mock(HttpServletResponse.class), chain);
+		assertThat(RequestDeadline.current()).isNull();
+		return captured.get();
+	}
+
+	private static HttpServletRequest mockRequest(String path, String clientTimeout) {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getContextPath()).thenReturn("/shopping");
+		when(request.getRequestURI()).thenReturn("/shopping" + path);
+		when(request.getHeader(REQUEST_TIMEOUT_HEADER)).thenReturn(clientTimeout);
+		return request;
+	}
+}
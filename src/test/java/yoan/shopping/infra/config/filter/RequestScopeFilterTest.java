@@ -2,9 +2,12 @@ package yoan.shopping.infra.config.filter;
 
 import static javax.ws.rs.core.Response.Status.UNAUTHORIZED;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static yoan.shopping.infra.util.error.CommonErrorMessage.INVALID;
 
@@ -24,6 +27,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import yoan.shopping.client.app.ClientAppPrincipal;
 import yoan.shopping.test.AbstractShiroTest;
 import yoan.shopping.test.FakeEnumeration;
 import yoan.shopping.user.User;
@@ -81,4 +85,36 @@ public class RequestScopeFilterTest extends AbstractShiroTest {
 		verify(request).setAttribute(any(), eq(User.DEFAULT));
 		verify(response).sendError(UNAUTHORIZED.getStatusCode(), expectedMsg);
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void doFilter_should_keep_user_handed_over_by_authenticating_filter() throws IOException, ServletException {
+		//given
+		Subject mockedSubject = mock(Subject.class);
+		setSubject(mockedSubject);
+		when(request.getAttribute(RequestScopeFilter.CONNECTED_USER_ATTRIBUTE)).thenReturn(EXISTING_USER);
+		
+		//when
+		testedFilter.doFilter(request, response, filterChain);
+		
+		//then
+		verify(filterChain).doFilter(request, response);
+		verify(request, never()).setAttribute(any(), any());
+		verifyZeroInteractions(mockedSubject);
+	}
+	
+	@Test
+	public void doFilter_should_let_client_app_through_without_user() throws IOException, ServletException {
+		//given
+		Subject mockedSubject = mock(Subject.class);
+		setSubject(mockedSubject);
+		when(request.getAttribute(RequestScopeFilter.CONNECTED_CLIENT_APP_ATTRIBUTE)).thenReturn(new ClientAppPrincipal(UUID.randomUUID()));
+		
+		//when
+		testedFilter.doFilter(request, response, filterChain);
+		
+		//then
+		verify(filterChain).doFilter(request, response);
+		verify(request, never()).setAttribute(any(), any());
+		verify(response, never()).sendError(anyInt(), any());
+	}
+}
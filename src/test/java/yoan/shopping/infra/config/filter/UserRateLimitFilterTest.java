@@ -0,0 +1,139 @@
+package yoan.shopping.infra.config.filter;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static yoan.shopping.infra.config.filter.IpRateLimitFilterTest.mockRequest;
+import static yoan.shopping.infra.config.filter.IpRateLimitFilterTest.mockResponse;
+import static yoan.shopping.infra.config.filter.RateLimitFilter.IP_DECISION_ATTRIBUTE;
+import static yoan.shopping.infra.config.filter.RateLimitFilter.RATE_LIMIT_LIMIT_HEADER;
+import static yoan.shopping.infra.config.filter.RateLimitFilter.RATE_LIMIT_REMAINING_HEADER;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.ratelimit.RateLimitKey.Dimension;
+import yoan.shopping.infra.ratelimit.RateLimiter;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.User;
+
+public class UserRateLimitFilterTest {
+
+	private final Config config = Config.Builder.createDefault()
+		.withRateLimitRequestsPerMinute(2)
+		.withRateLimitRequestsPerMinuteByRoute(ImmutableMap.of("/rest/public", 0))
+		.build();
+	private final RateLimiter rateLimiter = new RateLimiter(config);
+	private final IpRateLimitFilter ipFilter = new IpRateLimitFilter(rateLimiter);
+	private final UserRateLimitFilter testedFilter = new UserRateLimitFilter(rateLimiter);
+
+	@After
+	public void unbindSubject() {
+		ThreadContext.unbindSubject();
+	}
+
+	@Test
+	public void doFilter_should_let_request_through_with_rate_limit_headers() throws IOException, ServletException {
+		//given
+		HttpServletRequest request = mockRequestWithAttributes("/rest/api/user", "10.0.0.1");
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		FilterChain chain = mock(FilterChain.class);
+
+		//when
+		ipFilter.doFilter(request, response, (req, resp) -> testedFilter.doFilter(req, resp, chain));
+
+		//then
+		verify(chain).doFilter(request, response);
+		verify(response).setHeader(RATE_LIMIT_LIMIT_HEADER, "2");
+		verify(response).setHeader(RATE_LIMIT_REMAINING_HEADER, "1");
+		assertThat(rateLimiter.getAllowedCount(RateLimiter.DEFAULT_ROUTE)).isEqualTo(1);
+	}
+
+	@Test
+	public void doFilter_should_limit_the_connected_user_across_ips() throws IOException, ServletException {
+		//given
+		bindConnectedUser(TestHelper.generateRandomUser());
+		for (int i = 0; i < 2; i++) {
+			ipFilter.doFilter(mockRequestWithAttributes("/rest/api/user", "10.0.0." + i), mock(HttpServletResponse.class), (req, resp) -> testedFilter.doFilter(req, resp, mock(FilterChain.class)));
+		}
+		HttpServletResponse response = mockResponse();
+		FilterChain chain = mock(FilterChain.class);
+
+		//when
+		ipFilter.doFilter(mockRequestWithAttributes("/rest/api/user", "10.0.0.3"), response, (req, resp) -> testedFilter.doFilter(req, resp, chain));
+
+		//then
+		verify(chain, never()).doFilter(any(), any());
+		verify(response).setStatus(429);
+		assertThat(rateLimiter.getThrottledCount(RateLimiter.DEFAULT_ROUTE)).isEqualTo(1);
+	}
+
+	@Test
+	public void doFilter_should_give_back_the_ip_token_of_a_rejected_user() throws IOException, ServletException {
+		//given
+		User connectedUser = TestHelper.generateRandomUser();
+		rateLimiter.tryAcquire(RateLimiter.DEFAULT_ROUTE, Dimension.USER, connectedUser.getId().toString());
+		rateLimiter.tryAcquire(RateLimiter.DEFAULT_ROUTE, Dimension.USER, connectedUser.getId().toString());
+		bindConnectedUser(connectedUser);
+		ipFilter.doFilter(mockRequestWithAttributes("/rest/api/user", "10.0.0.1"), mockResponse(), (req, resp) -> testedFilter.doFilter(req, resp, mock(FilterChain.class)));
+		ThreadContext.unbindSubject();
+		HttpServletRequest request = mockRequestWithAttributes("/rest/api/user", "10.0.0.1");
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		FilterChain chain = mock(FilterChain.class);
+
+		//when
+		ipFilter.doFilter(request, response, (req, resp) -> testedFilter.doFilter(req, resp, chain));
+
+		//then
+		verify(chain).doFilter(request, response);
+		verify(response).setHeader(RATE_LIMIT_REMAINING_HEADER, "1");
+	}
+
+	@Test
+	public void doFilter_should_let_request_through_without_ip_decision() throws IOException, ServletException {
+		//given
+		bindConnectedUser(TestHelper.generateRandomUser());
+		HttpServletRequest request = mockRequestWithAttributes("/rest/public/doc", "10.0.0.1");
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		FilterChain chain = mock(FilterChain.class);
+
+		//when
+		testedFilter.doFilter(request, response, chain);
+
+		//then
+		verify(chain).doFilter(request, response);
+		verify(response, never()).setHeader(any(), any());
+		assertThat(rateLimiter.getSize()).isEqualTo(0);
+	}
+
+	private static void bindConnectedUser(User connectedUser) {
+		Subject subject = mock(Subject.class);
+		when(subject.getPrincipal()).thenReturn(connectedUser);
+		ThreadContext.bind(subject);
+	}
+
+	private static HttpServletRequest mockRequestWithAttributes(String path, String ip) {
+		HttpServletRequest request = mockRequest(path, ip, null);
+		doAnswer(invocation -> {
+			when(request.getAttribute(IP_DECISION_ATTRIBUTE)).thenReturn(invocation.getArguments()[1]);
+			return null;
+		}).when(request).setAttribute(any(), any());
+		return request;
+	}
+}
@@ -3,10 +3,12 @@ package yoan.shopping.infra.db.mongo;
 import static org.fest.assertions.api.Assertions.assertThat;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreakerSettings;
 
 import com.mongodb.MongoCredential;
 
@@ -43,4 +45,30 @@ public class MongoDbConnectionFactoryTest {
 		assertThat(result).isNotEmpty();
 		assertThat(result).hasSize(1);
 	}
+	
+	@Test
+	public void getCircuitBreakerSettings_should_read_the_thresholds_from_config() {
+		//given
+		Config config = Config.Builder.createDefault()
+				.withMongoCircuitBreakerWindowInSeconds(20)
+				.withMongoCircuitBreakerMinimumCalls(50)
+				.withMongoCircuitBreakerFailureRateInPercent(40)
+				.withMongoCircuitBreakerSlowCallThresholdInMillis(3_000)
+				.withMongoCircuitBreakerSlowCallRateInPercent(90)
+				.withMongoCircuitBreakerOpenDurationInSeconds(30)
+				.withMongoCircuitBreakerHalfOpenProbes(5)
+				.build();
+		
+		//when
+		MongoCircuitBreakerSettings result = MongoDbConnectionFactory.getCircuitBreakerSettings(config);
+		
+		//then
+		assertThat(result.getWindowInSeconds()).isEqualTo(20);
+		assertThat(result.getMinimumCalls()).isEqualTo(50);
+		assertThat(result.getFailureRateThreshold()).isEqualTo(0.4);
+		assertThat(result.getSlowCallThresholdInNanos()).isEqualTo(TimeUnit.SECONDS.toNanos(3));
+		assertThat(result.getSlowCallRateThreshold()).isEqualTo(0.9);
+		assertThat(result.getOpenDurationInNanos()).isEqualTo(TimeUnit.SECONDS.toNanos(30));
+		assertThat(result.getHalfOpenProbes()).isEqualTo(5);
+	}
 }
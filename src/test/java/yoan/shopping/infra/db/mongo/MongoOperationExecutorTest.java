@@ -0,0 +1,320 @@
+package yoan.shopping.infra.db.mongo;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.infra.rest.error.Level.ERROR;
+import static yoan.shopping.infra.util.error.CommonErrorCode.APPLICATION_ERROR;
+import static yoan.shopping.list.repository.ShoppingListRepositoryErrorMessage.PROBLEM_READ_LIST;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
+
+import yoan.shopping.infra.db.mongo.metrics.MongoCallerContext;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker.State;
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreakerSettings;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryMetrics;
+import yoan.shopping.infra.db.mongo.resilience.MongoRetryPolicy;
+import yoan.shopping.infra.util.deadline.DeadlineExceededException;
+import yoan.shopping.infra.util.deadline.RequestDeadline;
+import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.error.CommonErrorCode;
+import yoan.shopping.infra.util.error.RepositoryErrorCode;
+import yoan.shopping.infra.util.error.RetryLaterException;
+import yoan.shopping.test.TestHelper;
+
+public class MongoOperationExecutorTest {
+
+	private final MongoRetryMetrics retryMetrics = new MongoRetryMetrics();
+	private final MongoCircuitBreaker circuitBreaker = new MongoCircuitBreaker(new MongoCircuitBreakerSettings(10, 100, 0.5, 2_000, 0.8, 10, 1));
+	private final MongoOperationExecutor testedExecutor = new MongoOperationExecutor("TestRepository", LoggerFactory.getLogger(MongoOperationExecutorTest.class), new MongoRetryPolicy(3, 0, 0), retryMetrics, circuitBreaker);
+
+	@Test
+	public void execute_should_expose_caller_during_operation_only() {
+		//given
+		String expectedCaller = "TestRepository.processGetById";
+
+		//when
+		String result = testedExecutor.execute("processGetById", PROBLEM_READ_LIST, MongoCallerContext::getCaller);
+
+		//then
+		assertThat(result).isEqualTo(expectedCaller);
+		assertThat(MongoCallerContext.getCaller()).isNull();
+	}
+
+	@Test
+	public void execute_should_restore_previous_caller_after_nested_operation() {
+		//given
+		String outerCaller = "OuterRepository.processCreate";
+		MongoCallerContext.setCaller(outerCaller);
+
+		//when
+		try {
+			testedExecutor.run("processGetById", PROBLEM_READ_LIST, () -> { });
+
+			//then
+			assertThat(MongoCallerContext.getCaller()).isEqualTo(outerCaller);
+		} finally {
+			MongoCallerContext.setCaller(null);
+		}
+	}
+
+	@Test(expected = ApplicationException.class)
+	public void execute_should_convert_mongo_exception() {
+		//given
+		String mongoMessage = "mongo failure";
+
+		//when
+		try {
+			testedExecutor.run("processGetById", PROBLEM_READ_LIST, () -> { throw new MongoException(mongoMessage); });
+		} catch (ApplicationException ae) {
+		//then
+			TestHelper.assertApplicationException(ae, ERROR, APPLICATION_ERROR, PROBLEM_READ_LIST.getDevReadableMessage(mongoMessage));
+			assertThat(MongoCallerContext.getCaller()).isNull();
+			throw ae;
+		}
+	}
+
+	@Test
+	public void executeIdempotent_should_retry_transient_error() {
+		//given
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<String> failingOnce = () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new MongoSocketReadException("socket closed", new ServerAddress());
+			}
+			return "result";
+		};
+
+		//when
+		String result = testedExecutor.executeIdempotent("processGetById", PROBLEM_READ_LIST, failingOnce);
+
+		//then
+		assertThat(result).isEqualTo("result");
+		assertThat(attempts.get()).isEqualTo(2);
+		assertThat(retryMetrics.getRetryCount("TestRepository.processGetById")).isEqualTo(1);
+		assertThat(retryMetrics.getRecoveryCount("TestRepository.processGetById")).isEqualTo(1);
+	}
+
+	@Test(expected = ApplicationException.class)
+	public void executeIdempotent_should_stop_after_max_attempts() {
+		//given
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<String> alwaysFailing = () -> {
+			attempts.incrementAndGet();
+			throw new MongoSocketReadException("socket closed", new ServerAddress());
+		};
+
+		//when
+		try {
+			testedExecutor.executeIdempotent("processGetById", PROBLEM_READ_LIST, alwaysFailing);
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(attempts.get()).isEqualTo(3);
+			assertThat(retryMetrics.getRetryCount("TestRepository.processGetById")).isEqualTo(2);
+			assertThat(retryMetrics.getExhaustionCount("TestRepository.processGetById")).isEqualTo(1);
+			throw ae;
+		}
+	}
+
+	@Test(expected = ApplicationException.class)
+	public void executeIdempotent_should_not_retry_permanent_error() {
+		//given
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<String> alwaysFailing = () -> {
+			attempts.incrementAndGet();
+			throw new MongoException("permanent");
+		};
+
+		//when
+		try {
+			testedExecutor.executeIdempotent("processGetById", PROBLEM_READ_LIST, alwaysFailing);
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(attempts.get()).isEqualTo(1);
+			assertThat(retryMetrics.getCallers()).isEmpty();
+			throw ae;
+		}
+	}
+
+	@Test(expected = ApplicationException.class)
+	public void run_should_not_retry_transient_error() {
+		//given
+		AtomicInteger attempts = new AtomicInteger();
+
+		//when
+		try {
+			testedExecutor.run("processCreate", PROBLEM_READ_LIST, () -> {
+				attempts.incrementAndGet();
+				throw new MongoSocketReadException("socket closed", new ServerAddress());
+			});
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(attempts.get()).isEqualTo(1);
+			throw ae;
+		}
+	}
+
+	@Test(expected = RetryLaterException.class)
+	public void executeIdempotent_should_fail_fast_once_circuit_is_open() {
+		//given
+		MongoCircuitBreaker sensitiveCircuitBreaker = new MongoCircuitBreaker(new MongoCircuitBreakerSettings(10, 2, 0.5, 2_000, 0.8, 10, 1));
+		MongoOperationExecutor executor = new MongoOperationExecutor("TestRepository", LoggerFactory.getLogger(MongoOperationExecutorTest.class), new MongoRetryPolicy(3, 0, 0), retryMetrics, sensitiveCircuitBreaker);
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<String> alwaysFailing = () -> {
+			attempts.incrementAndGet();
+			throw new MongoSocketReadException("socket closed", new ServerAddress());
+		};
+
+		//when
+		try {
+			executor.executeIdempotent("processGetById", PROBLEM_READ_LIST, alwaysFailing);
+		} catch (RetryLaterException rle) {
+		//then
+			assertThat(attempts.get()).isEqualTo(2);
+			assertThat(sensitiveCircuitBreaker.getState()).isEqualTo(State.OPEN);
+			assertThat(rle.getErrorCode()).isEqualTo(RepositoryErrorCode.UNAVAILABLE);
+			assertThat(rle.getRetryAfterInSeconds()).isGreaterThanOrEqualTo(1);
+			assertThat(MongoCallerContext.getCaller()).isNull();
+			throw rle;
+		}
+	}
+
+	@Test
+	public void execute_should_not_count_permanent_errors_against_the_circuit() {
+		//given
+		Runnable duplicateInsert = () -> { throw new MongoException("duplicate"); };
+
+		//when
+		for (int i = 0; i < 5; i++) {
+			try {
+				testedExecutor.run("processCreate", PROBLEM_READ_LIST, duplicateInsert);
+			} catch (ApplicationException ae) {
+				//expected
+			}
+		}
+
+		//then
+		assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+		assertThat(circuitBreaker.getWindowSnapshot().getFailures()).isEqualTo(0);
+	}
+
+	@Test(expected = DeadlineExceededException.class)
+	public void execute_should_not_start_operation_once_deadline_is_spent() throws InterruptedException {
+		//given
+		RequestDeadline deadline = RequestDeadline.start("default", 1);
+		Thread.sleep(5);
+		AtomicInteger attempts = new AtomicInteger();
+
+		//when
+		try {
+			testedExecutor.executeIdempotent("processGetById", PROBLEM_READ_LIST, attempts::incrementAndGet);
+		} catch (DeadlineExceededException dee) {
+		//then
+			assertThat(attempts.get()).isEqualTo(0);
+			assertThat(deadline.isExceeded()).isTrue();
+			assertThat(dee.getErrorCode()).isEqualTo(CommonErrorCode.DEADLINE_EXCEEDED);
+			throw dee;
+		} finally {
+			RequestDeadline.clear();
+		}
+	}
+
+	@Test(expected = DeadlineExceededException.class)
+	public void execute_should_convert_server_timeout_into_deadline_exceeded() {
+		//given
+		RequestDeadline.start("default", 60_000);
+
+		//when
+		try {
+			testedExecutor.executeIdempotent("processGetById", PROBLEM_READ_LIST, () -> { throw new MongoExecutionTimeoutException(50, "operation exceeded time limit"); });
+		} catch (DeadlineExceededException dee) {
+		//then
+			assertThat(circuitBreaker.getWindowSnapshot().getFailures()).isEqualTo(0);
+			throw dee;
+		} finally {
+			RequestDeadline.clear();
+		}
+	}
+
+	@Test(expected = DeadlineExceededException.class)
+	public void executeIdempotent_should_not_retry_beyond_the_deadline() {
+		//given
+		//no jitter, the retry always waits longer than the deadline
+		MongoRetryPolicy slowRetryPolicy = new MongoRetryPolicy(3, 60_000, 60_000) {
+			@Override
+			public long getBackoffDelayInMillis(int failedAttempt) {
+				return 60_000;
+			}
+		};
+		MongoOperationExecutor executor = new MongoOperationExecutor("TestRepository", LoggerFactory.getLogger(MongoOperationExecutorTest.class), slowRetryPolicy, retryMetrics, circuitBreaker);
+		RequestDeadline.start("default", 1_000);
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<String> alwaysFailing = () -> {
+			attempts.incrementAndGet();
+			throw new MongoSocketReadException("socket closed", new ServerAddress());
+		};
+
+		//when
+		try {
+			executor.executeIdempotent("processGetById", PROBLEM_READ_LIST, alwaysFailing);
+		} catch (DeadlineExceededException dee) {
+		//then
+			assertThat(attempts.get()).isEqualTo(1);
+			throw dee;
+		} finally {
+			RequestDeadline.clear();
+		}
+	}
+
+	@Test
+	public void withRemainingTime_should_leave_count_unbounded_without_deadline() {
+		//when
+		CountOptions result = testedExecutor.withRemainingTime(new CountOptions());
+
+		//then
+		assertThat(result.getMaxTime(TimeUnit.MILLISECONDS)).isEqualTo(0);
+	}
+
+	@Test
+	public void withRemainingTime_should_bound_count_by_remaining_budget() {
+		//given
+		RequestDeadline.start("default", 60_000);
+
+		//when
+		try {
+			CountOptions result = testedExecutor.withRemainingTime(new CountOptions());
+
+		//then
+			assertThat(result.getMaxTime(TimeUnit.MILLISECONDS)).isGreaterThan(0).isLessThanOrEqualTo(60_000);
+		} finally {
+			RequestDeadline.clear();
+		}
+	}
+
+	@Test
+	public void withRemainingTime_should_bound_find_and_delete_by_remaining_budget() {
+		//given
+		RequestDeadline.start("default", 60_000);
+
+		//when
+		try {
+			FindOneAndDeleteOptions result = testedExecutor.withRemainingTime(new FindOneAndDeleteOptions());
+
+		//then
+			assertThat(result.getMaxTime(TimeUnit.MILLISECONDS)).isGreaterThan(0).isLessThanOrEqualTo(60_000);
+		} finally {
+			RequestDeadline.clear();
+		}
+	}
+}
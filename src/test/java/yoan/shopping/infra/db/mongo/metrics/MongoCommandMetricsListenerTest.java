@@ -0,0 +1,123 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.infra.db.mongo.metrics.MongoCommandKey.UNKNOWN;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+public class MongoCommandMetricsListenerTest {
+
+	private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+	@After
+	public void clearCaller() {
+		MongoCallerContext.setCaller(null);
+	}
+
+	@Test
+	public void commandSucceeded_should_record_latency_by_collection_command_and_caller() {
+		//given
+		MongoCommandMetrics metrics = new MongoCommandMetrics();
+		MongoCommandMetricsListener testedListener = new MongoCommandMetricsListener(metrics);
+		MongoCallerContext.setCaller("ShoppingListMongoRepository.processGetByOwner");
+		BsonDocument command = new BsonDocument("find", new BsonString("list"));
+		BsonDocument response = new BsonDocument("cursor", new BsonDocument("firstBatch", new BsonArray(ImmutableList.of(new BsonDocument(), new BsonDocument()))));
+
+		//when
+		testedListener.commandStarted(new CommandStartedEvent(1, CONNECTION, "shopping", "find", command));
+		testedListener.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "find", response, 2_000_000));
+
+		//then
+		MongoCommandStats stats = metrics.getStats(new MongoCommandKey("list", "find", "ShoppingListMongoRepository.processGetByOwner"));
+		assertThat(stats.getCount()).isEqualTo(1);
+		assertThat(stats.getFailureCount()).isEqualTo(0);
+		assertThat(stats.getMaxLatencyInMicros()).isGreaterThanOrEqualTo(2_000).isLessThanOrEqualTo(2_002);
+		assertThat(stats.getMaxReplyDocuments()).isEqualTo(2);
+		assertThat(metrics.getAllStats()).hasSize(1);
+	}
+
+	@Test
+	public void commandFailed_should_record_failure() {
+		//given
+		MongoCommandMetrics metrics = new MongoCommandMetrics();
+		MongoCommandMetricsListener testedListener = new MongoCommandMetricsListener(metrics);
+		MongoCallerContext.setCaller("UserMongoRepository.processCreate");
+		BsonDocument command = new BsonDocument("insert", new BsonString("users"));
+
+		//when
+		testedListener.commandStarted(new CommandStartedEvent(2, CONNECTION, "shopping", "insert", command));
+		testedListener.commandFailed(new CommandFailedEvent(2, CONNECTION, "insert", 1_000_000, new MongoException("failure")));
+
+		//then
+		MongoCommandStats stats = metrics.getStats(new MongoCommandKey("users", "insert", "UserMongoRepository.processCreate"));
+		assertThat(stats.getCount()).isEqualTo(1);
+		assertThat(stats.getFailureCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void commandSucceeded_should_record_unknown_key_without_started_command() {
+		//given
+		MongoCommandMetrics metrics = new MongoCommandMetrics();
+		MongoCommandMetricsListener testedListener = new MongoCommandMetricsListener(metrics);
+
+		//when
+		testedListener.commandSucceeded(new CommandSucceededEvent(3, CONNECTION, "find", new BsonDocument(), 1_000));
+
+		//then
+		assertThat(metrics.getStats(new MongoCommandKey(UNKNOWN, "find", UNKNOWN)).getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void extractCollection_should_use_collection_field_for_getMore() {
+		//given
+		BsonDocument command = new BsonDocument("getMore", new BsonInt64(123)).append("collection", new BsonString("clientApps"));
+		CommandStartedEvent event = new CommandStartedEvent(4, CONNECTION, "shopping", "getMore", command);
+
+		//when
+		String result = MongoCommandMetricsListener.extractCollection(event);
+
+		//then
+		assertThat(result).isEqualTo("clientApps");
+	}
+
+	@Test
+	public void extractCollection_should_return_unknown_for_server_command() {
+		//given
+		BsonDocument command = new BsonDocument("isMaster", new BsonInt32(1));
+		CommandStartedEvent event = new CommandStartedEvent(5, CONNECTION, "admin", "isMaster", command);
+
+		//when
+		String result = MongoCommandMetricsListener.extractCollection(event);
+
+		//then
+		assertThat(result).isEqualTo(UNKNOWN);
+	}
+
+	@Test
+	public void countReplyDocuments_should_use_affected_count_for_writes() {
+		//given
+		BsonDocument response = new BsonDocument("ok", new BsonInt32(1)).append("n", new BsonInt32(3));
+
+		//when
+		long result = MongoCommandMetricsListener.countReplyDocuments(response);
+
+		//then
+		assertThat(result).isEqualTo(3);
+	}
+}
@@ -0,0 +1,65 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class MongoCommandMetricsTest {
+
+	@Test
+	public void getAllStats_should_be_ordered_by_collection_command_and_caller() {
+		//given
+		MongoCommandMetrics testedMetrics = new MongoCommandMetrics();
+		MongoCommandKey usersFind = new MongoCommandKey("users", "find", "UserMongoRepository.processGetById");
+		MongoCommandKey listUpdate = new MongoCommandKey("list", "update", "ShoppingListMongoRepository.processUpdate");
+		MongoCommandKey listFind = new MongoCommandKey("list", "find", "ShoppingListMongoRepository.processGetById");
+		testedMetrics.recordSuccess(usersFind, 10, 1);
+		testedMetrics.recordSuccess(listUpdate, 10, 1);
+		testedMetrics.recordFailure(listFind, 10);
+
+		//when
+		ImmutableList<MongoCommandStats> result = testedMetrics.getAllStats();
+
+		//then
+		assertThat(result).hasSize(3);
+		assertThat(result.get(0).getKey()).isEqualTo(listFind);
+		assertThat(result.get(1).getKey()).isEqualTo(listUpdate);
+		assertThat(result.get(2).getKey()).isEqualTo(usersFind);
+	}
+
+	@Test
+	public void recordSuccess_should_compute_percentiles() {
+		//given
+		MongoCommandMetrics testedMetrics = new MongoCommandMetrics();
+		MongoCommandKey key = new MongoCommandKey("list", "find", "ShoppingListMongoRepository.processGetByOwner");
+
+		//when
+		for (int latency = 1; latency <= 1000; latency++) {
+			testedMetrics.recordSuccess(key, latency, 0);
+		}
+
+		//then
+		MongoCommandStats stats = testedMetrics.getStats(key);
+		assertThat(stats.getCount()).isEqualTo(1000);
+		assertThat(stats.getLatencyPercentileInMicros(50)).isEqualTo(500);
+		assertThat(stats.getLatencyPercentileInMicros(99)).isEqualTo(990);
+		assertThat(stats.getMaxLatencyInMicros()).isEqualTo(1000);
+	}
+
+	@Test
+	public void recordSuccess_should_clamp_too_high_latency() {
+		//given
+		MongoCommandMetrics testedMetrics = new MongoCommandMetrics();
+		MongoCommandKey key = new MongoCommandKey("list", "find", "ShoppingListMongoRepository.processGetByOwner");
+
+		//when
+		testedMetrics.recordSuccess(key, Long.MAX_VALUE, Long.MAX_VALUE);
+
+		//then
+		MongoCommandStats stats = testedMetrics.getStats(key);
+		assertThat(stats.getCount()).isEqualTo(1);
+		assertThat(stats.getMaxLatencyInMicros()).isGreaterThanOrEqualTo(MongoCommandStats.MAX_TRACKABLE_LATENCY_IN_MICROS);
+	}
+}
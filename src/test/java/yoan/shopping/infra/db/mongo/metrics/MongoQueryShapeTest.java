@@ -0,0 +1,146 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class MongoQueryShapeTest {
+
+	@Test
+	public void extractQuery_should_copy_find_filter_and_sort() {
+		//given
+		BsonDocument filter = new BsonDocument("ownerId", new BsonString("owner"));
+		BsonDocument sort = new BsonDocument("name", new BsonInt32(1));
+		BsonDocument command = new BsonDocument("find", new BsonString("list")).append("filter", filter).append("sort", sort);
+
+		//when
+		BsonDocument result = MongoQueryShape.extractQuery("find", command);
+
+		//then
+		assertThat(result.get("filter")).isEqualTo(filter);
+		assertThat(result.get("sort")).isEqualTo(sort);
+		filter.put("ownerId", new BsonString("changed"));
+		assertThat(result.getDocument("filter").getString("ownerId").getValue()).isEqualTo("owner");
+	}
+
+	@Test
+	public void selectQuery_should_share_find_filter_without_copy() {
+		//given
+		BsonDocument filter = new BsonDocument("ownerId", new BsonString("owner"));
+		BsonDocument command = new BsonDocument("find", new BsonString("list")).append("filter", filter);
+
+		//when
+		BsonDocument result = MongoQueryShape.selectQuery("find", command);
+
+		//then
+		assertThat(result.get("filter")).isSameAs(filter);
+		assertThat(result.containsKey("sort")).isFalse();
+	}
+
+	@Test
+	public void copy_should_detach_query_from_command() {
+		//given
+		BsonDocument filter = new BsonDocument("ownerId", new BsonString("owner"));
+		BsonDocument selectedQuery = MongoQueryShape.selectQuery("find", new BsonDocument("find", new BsonString("list")).append("filter", filter));
+
+		//when
+		BsonDocument result = MongoQueryShape.copy(selectedQuery);
+
+		//then
+		filter.put("ownerId", new BsonString("changed"));
+		assertThat(result.getDocument("filter").getString("ownerId").getValue()).isEqualTo("owner");
+	}
+
+	@Test
+	public void extractQuery_should_use_first_update_filter() {
+		//given
+		BsonDocument q = new BsonDocument("_id", new BsonString("id"));
+		BsonDocument update = new BsonDocument("q", q).append("u", new BsonDocument("name", new BsonString("name")));
+		BsonDocument command = new BsonDocument("update", new BsonString("list")).append("updates", new BsonArray(ImmutableList.of(update)));
+
+		//when
+		BsonDocument result = MongoQueryShape.extractQuery("update", command);
+
+		//then
+		assertThat(result.get("filter")).isEqualTo(q);
+		assertThat(result.containsKey("u")).isFalse();
+	}
+
+	@Test
+	public void extractQuery_should_return_null_for_insert() {
+		//given
+		BsonDocument command = new BsonDocument("insert", new BsonString("list"));
+
+		//when
+		BsonDocument result = MongoQueryShape.extractQuery("insert", command);
+
+		//then
+		assertThat(result).isNull();
+	}
+
+	@Test
+	public void redact_should_keep_structure_and_hide_values() {
+		//given
+		BsonArray emails = new BsonArray(ImmutableList.of(new BsonString("a@b.c"), new BsonString("d@e.f")));
+		BsonDocument filter = new BsonDocument("email", new BsonDocument("$in", emails)).append("age", new BsonDocument("$gt", new BsonInt32(18)));
+		BsonDocument query = new BsonDocument("filter", filter).append("sort", new BsonDocument("name", new BsonInt32(-1)));
+
+		//when
+		BsonDocument result = MongoQueryShape.redact(query);
+
+		//then
+		String json = result.toJson();
+		assertThat(json).contains("email").contains("$in").contains("$gt").contains("name");
+		assertThat(json).doesNotContain("a@b.c").doesNotContain("18");
+		assertThat(result.getDocument("filter").getDocument("email").getArray("$in")).hasSize(1);
+		assertThat(result.getDocument("sort").getInt32("name").getValue()).isEqualTo(-1);
+	}
+
+	@Test
+	public void toExplainCommand_should_explain_find_for_filter_queries() {
+		//given
+		BsonDocument query = new BsonDocument("filter", new BsonDocument("ownerId", new BsonString("owner")));
+
+		//when
+		BsonDocument result = MongoQueryShape.toExplainCommand("list", query);
+
+		//then
+		assertThat(result.getDocument("explain").getString("find").getValue()).isEqualTo("list");
+		assertThat(result.getDocument("explain").get("filter")).isEqualTo(query.get("filter"));
+		assertThat(result.getString("verbosity").getValue()).isEqualTo("queryPlanner");
+	}
+
+	@Test
+	public void findWinningPlan_and_isCollectionScan_should_detect_nested_collscan() {
+		//given
+		BsonDocument collscan = new BsonDocument("stage", new BsonString("COLLSCAN"));
+		BsonDocument winningPlan = new BsonDocument("stage", new BsonString("FETCH")).append("inputStage", collscan);
+		BsonDocument explainResult = new BsonDocument("queryPlanner", new BsonDocument("winningPlan", winningPlan));
+
+		//when
+		BsonDocument result = MongoQueryShape.findWinningPlan(explainResult);
+
+		//then
+		assertThat(result).isEqualTo(winningPlan);
+		assertThat(MongoQueryShape.isCollectionScan(result)).isTrue();
+	}
+
+	@Test
+	public void isCollectionScan_should_return_false_for_index_scan() {
+		//given
+		BsonDocument ixscan = new BsonDocument("stage", new BsonString("IXSCAN"));
+		BsonDocument winningPlan = new BsonDocument("stage", new BsonString("FETCH")).append("inputStage", ixscan);
+
+		//when
+		boolean result = MongoQueryShape.isCollectionScan(winningPlan);
+
+		//then
+		assertThat(result).isFalse();
+	}
+}
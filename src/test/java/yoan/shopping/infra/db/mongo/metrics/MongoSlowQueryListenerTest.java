@@ -0,0 +1,93 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.RateLimiter;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+public class MongoSlowQueryListenerTest {
+
+	private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+	private final MongoSlowQueryLog slowQueryLog = new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class), MoreExecutors.directExecutor(), RateLimiter.create(1000));
+	private final MongoSlowQueryListener testedListener = new MongoSlowQueryListener(slowQueryLog);
+
+	@After
+	public void clearCaller() {
+		MongoCallerContext.setCaller(null);
+	}
+
+	@Test
+	public void commandSucceeded_should_record_slow_query_with_caller() {
+		//given
+		MongoCallerContext.setCaller("ShoppingListMongoRepository.processGetByOwner");
+		BsonDocument command = new BsonDocument("find", new BsonString("list")).append("filter", new BsonDocument("ownerId", new BsonString("owner")));
+
+		//when
+		testedListener.commandStarted(new CommandStartedEvent(1, CONNECTION, "shopping", "find", command));
+		testedListener.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "find", new BsonDocument(), 150_000_000));
+
+		//then
+		assertThat(slowQueryLog.getSlowQueries()).hasSize(1);
+		MongoSlowQuery slowQuery = slowQueryLog.getSlowQueries().get(0);
+		assertThat(slowQuery.getKey()).isEqualTo(new MongoCommandKey("list", "find", "ShoppingListMongoRepository.processGetByOwner"));
+		assertThat(slowQuery.getDatabaseName()).isEqualTo("shopping");
+		assertThat(slowQuery.getDurationInMicros()).isEqualTo(150_000);
+		assertThat(slowQuery.getRedactedQuery()).contains("ownerId").doesNotContain("owner\"");
+	}
+
+	@Test
+	public void commandSucceeded_should_ignore_fast_query() {
+		//given
+		BsonDocument command = new BsonDocument("find", new BsonString("list"));
+
+		//when
+		testedListener.commandStarted(new CommandStartedEvent(2, CONNECTION, "shopping", "find", command));
+		testedListener.commandSucceeded(new CommandSucceededEvent(2, CONNECTION, "find", new BsonDocument(), 1_000_000));
+
+		//then
+		assertThat(slowQueryLog.getSlowQueries()).isEmpty();
+	}
+
+	@Test
+	public void commandSucceeded_should_record_query_as_it_was_started() {
+		//given
+		BsonDocument filter = new BsonDocument("ownerId", new BsonString("owner"));
+		BsonDocument command = new BsonDocument("find", new BsonString("list")).append("filter", filter);
+		testedListener.commandStarted(new CommandStartedEvent(4, CONNECTION, "shopping", "find", command));
+		testedListener.commandSucceeded(new CommandSucceededEvent(4, CONNECTION, "find", new BsonDocument(), 150_000_000));
+
+		//when
+		filter.put("name", new BsonString("changed"));
+
+		//then
+		MongoSlowQuery slowQuery = slowQueryLog.getSlowQueries().get(0);
+		assertThat(slowQuery.getRedactedQuery()).contains("ownerId").doesNotContain("name");
+	}
+
+	@Test
+	public void commandSucceeded_should_ignore_explain_commands() {
+		//given
+		MongoCallerContext.setCaller(MongoQueryExplainer.EXPLAIN_CALLER);
+		BsonDocument command = new BsonDocument("explain", new BsonDocument("find", new BsonString("list")));
+
+		//when
+		testedListener.commandStarted(new CommandStartedEvent(3, CONNECTION, "shopping", "explain", command));
+		testedListener.commandSucceeded(new CommandSucceededEvent(3, CONNECTION, "explain", new BsonDocument(), 150_000_000));
+
+		//then
+		assertThat(slowQueryLog.getSlowQueries()).isEmpty();
+	}
+}
@@ -0,0 +1,112 @@
+package yoan.shopping.infra.db.mongo.metrics;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.RateLimiter;
+
+public class MongoSlowQueryLogTest {
+
+	private static final Executor SAME_THREAD = MoreExecutors.directExecutor();
+	private static final MongoCommandKey KEY = new MongoCommandKey("list", "find", "ShoppingListMongoRepository.processGetByOwner");
+
+	@Test
+	public void isSlow_should_compare_with_threshold() {
+		//given
+		MongoSlowQueryLog testedLog = new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class), SAME_THREAD, RateLimiter.create(1000));
+
+		//when
+		boolean fastResult = testedLog.isSlow(99_999);
+		boolean slowResult = testedLog.isSlow(100_000);
+
+		//then
+		assertThat(fastResult).isFalse();
+		assertThat(slowResult).isTrue();
+	}
+
+	@Test
+	public void record_should_explain_and_detect_collection_scan() {
+		//given
+		MongoQueryExplainer mockedExplainer = mock(MongoQueryExplainer.class);
+		when(mockedExplainer.explain(any(MongoSlowQuery.class))).thenReturn(new BsonDocument("stage", new BsonString("COLLSCAN")));
+		MongoSlowQueryLog testedLog = new MongoSlowQueryLog(100, mockedExplainer, SAME_THREAD, RateLimiter.create(1000));
+		MongoSlowQuery slowQuery = new MongoSlowQuery(LocalDateTime.now(), "shopping", KEY, 200_000, generateQuery());
+
+		//when
+		testedLog.record(slowQuery);
+
+		//then
+		assertThat(testedLog.getSlowQueries()).containsExactly(slowQuery);
+		assertThat(slowQuery.isCollectionScan()).isTrue();
+		assertThat(slowQuery.getWinningPlan()).contains("COLLSCAN");
+		assertThat(slowQuery.getQueryToExplain()).isNull();
+	}
+
+	@Test
+	public void record_should_explain_same_query_shape_only_once() {
+		//given
+		MongoQueryExplainer mockedExplainer = mock(MongoQueryExplainer.class);
+		when(mockedExplainer.explain(any(MongoSlowQuery.class))).thenReturn(new BsonDocument("stage", new BsonString("IXSCAN")));
+		MongoSlowQueryLog testedLog = new MongoSlowQueryLog(100, mockedExplainer, SAME_THREAD, RateLimiter.create(1000));
+		MongoSlowQuery firstQuery = new MongoSlowQuery(LocalDateTime.now(), "shopping", KEY, 200_000, generateQuery());
+		MongoSlowQuery secondQuery = new MongoSlowQuery(LocalDateTime.now(), "shopping", KEY, 300_000, generateQuery());
+
+		//when
+		testedLog.record(firstQuery);
+		testedLog.record(secondQuery);
+
+		//then
+		verify(mockedExplainer, times(1)).explain(any(MongoSlowQuery.class));
+		assertThat(firstQuery.isCollectionScan()).isFalse();
+		assertThat(secondQuery.isCollectionScan()).isNull();
+		assertThat(secondQuery.getQueryToExplain()).isNull();
+	}
+
+	@Test
+	public void record_should_not_explain_query_without_query_part() {
+		//given
+		MongoQueryExplainer mockedExplainer = mock(MongoQueryExplainer.class);
+		MongoSlowQueryLog testedLog = new MongoSlowQueryLog(100, mockedExplainer, SAME_THREAD, RateLimiter.create(1000));
+		MongoCommandKey insertKey = new MongoCommandKey("list", "insert", "ShoppingListMongoRepository.processCreate");
+
+		//when
+		testedLog.record(new MongoSlowQuery(LocalDateTime.now(), "shopping", insertKey, 200_000, null));
+
+		//then
+		verify(mockedExplainer, never()).explain(any(MongoSlowQuery.class));
+		assertThat(testedLog.getSlowQueries()).hasSize(1);
+	}
+
+	@Test
+	public void getSlowQueries_should_be_bounded() {
+		//given
+		MongoSlowQueryLog testedLog = new MongoSlowQueryLog(100, mock(MongoQueryExplainer.class), SAME_THREAD, RateLimiter.create(1000));
+
+		//when
+		for (int i = 0; i < MongoSlowQueryLog.CAPACITY + 10; i++) {
+			testedLog.record(new MongoSlowQuery(LocalDateTime.now(), "shopping", KEY, 200_000, null));
+		}
+
+		//then
+		ImmutableList<MongoSlowQuery> result = testedLog.getSlowQueries();
+		assertThat(result).hasSize(MongoSlowQueryLog.CAPACITY);
+	}
+
+	private BsonDocument generateQuery() {
+		return new BsonDocument("filter", new BsonDocument("ownerId", new BsonString("owner")));
+	}
+}
@@ -0,0 +1,212 @@
+package yoan.shopping.infra.db.mongo.resilience;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+
+import yoan.shopping.infra.db.mongo.resilience.MongoCircuitBreaker.State;
+
+public class MongoCircuitBreakerTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+	private static final long SLOW = TimeUnit.SECONDS.toNanos(3);
+
+	/** window 10s, 4 calls minimum, 50% failures, 2s slow calls, 80% slow calls, open 10s, 2 probes */
+	private final MongoCircuitBreakerSettings settings = new MongoCircuitBreakerSettings(10, 4, 0.5, 2_000, 0.8, 10, 2);
+	private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+	private final MongoCircuitBreaker testedBreaker = new MongoCircuitBreaker(settings, clock::get);
+
+	private static MongoException socketError() {
+		return new MongoSocketReadException("socket closed", new ServerAddress());
+	}
+
+	private void advanceSeconds(long seconds) {
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+	}
+
+	@Test
+	public void tryAcquirePermission_should_accept_while_closed() {
+		//when
+		boolean permitted = testedBreaker.tryAcquirePermission();
+
+		//then
+		assertThat(permitted).isTrue();
+		assertThat(testedBreaker.getState()).isEqualTo(State.CLOSED);
+	}
+
+	@Test
+	public void record_should_not_open_below_minimum_calls() {
+		//when
+		for (int i = 0; i < 3; i++) {
+			testedBreaker.recordFailure(socketError(), FAST);
+		}
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.CLOSED);
+	}
+
+	@Test
+	public void record_should_open_on_failure_rate() {
+		//when
+		testedBreaker.recordSuccess(FAST);
+		testedBreaker.recordSuccess(FAST);
+		testedBreaker.recordFailure(socketError(), FAST);
+		testedBreaker.recordFailure(socketError(), FAST);
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.OPEN);
+		assertThat(testedBreaker.tryAcquirePermission()).isFalse();
+		assertThat(testedBreaker.getRejectedCount()).isEqualTo(1);
+		assertThat(testedBreaker.getOpeningCount()).isEqualTo(1);
+		assertThat(testedBreaker.getRetryAfterInSeconds()).isEqualTo(10);
+	}
+
+	@Test
+	public void record_should_open_on_slow_call_rate() {
+		//when
+		for (int i = 0; i < 4; i++) {
+			testedBreaker.recordSuccess(SLOW);
+		}
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.OPEN);
+	}
+
+	@Test
+	public void record_should_ignore_permanent_errors() {
+		//when
+		for (int i = 0; i < 10; i++) {
+			testedBreaker.recordFailure(new MongoException("duplicate key"), FAST);
+		}
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.CLOSED);
+		assertThat(testedBreaker.getWindowSnapshot().getCalls()).isEqualTo(10);
+		assertThat(testedBreaker.getWindowSnapshot().getFailures()).isEqualTo(0);
+	}
+
+	@Test
+	public void record_should_forget_failures_outside_the_window() {
+		//given
+		testedBreaker.recordFailure(socketError(), FAST);
+		testedBreaker.recordFailure(socketError(), FAST);
+		testedBreaker.recordFailure(socketError(), FAST);
+		advanceSeconds(11);
+
+		//when
+		testedBreaker.recordFailure(socketError(), FAST);
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.CLOSED);
+		assertThat(testedBreaker.getWindowSnapshot().getCalls()).isEqualTo(1);
+	}
+
+	@Test
+	public void tryAcquirePermission_should_let_limited_probes_through_after_open_duration() {
+		//given
+		openCircuit();
+		advanceSeconds(10);
+
+		//when
+		boolean firstProbe = testedBreaker.tryAcquirePermission();
+		boolean secondProbe = testedBreaker.tryAcquirePermission();
+		boolean thirdCall = testedBreaker.tryAcquirePermission();
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.HALF_OPEN);
+		assertThat(firstProbe).isTrue();
+		assertThat(secondProbe).isTrue();
+		assertThat(thirdCall).isFalse();
+	}
+
+	@Test
+	public void record_should_close_after_successful_probes() {
+		//given
+		openCircuit();
+		advanceSeconds(10);
+		testedBreaker.tryAcquirePermission();
+		testedBreaker.tryAcquirePermission();
+
+		//when
+		testedBreaker.recordSuccess(FAST);
+		testedBreaker.recordSuccess(FAST);
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.CLOSED);
+		assertThat(testedBreaker.getWindowSnapshot().getCalls()).isEqualTo(0);
+	}
+
+	@Test
+	public void record_should_reopen_on_failed_probe() {
+		//given
+		openCircuit();
+		advanceSeconds(10);
+		testedBreaker.tryAcquirePermission();
+
+		//when
+		testedBreaker.recordFailure(socketError(), FAST);
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.OPEN);
+		assertThat(testedBreaker.getOpeningCount()).isEqualTo(2);
+		assertThat(testedBreaker.tryAcquirePermission()).isFalse();
+	}
+
+	@Test
+	public void record_should_count_concurrent_calls_without_losing_any() throws InterruptedException {
+		//given
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		//when
+		for (int i = 0; i < 8; i++) {
+			executor.submit(() -> {
+				for (int j = 0; j < 1_000; j++) {
+					testedBreaker.recordSuccess(FAST);
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.CLOSED);
+		assertThat(testedBreaker.getWindowSnapshot().getCalls()).isEqualTo(8_000);
+	}
+
+	@Test
+	public void record_should_open_once_on_concurrent_failures() throws InterruptedException {
+		//given
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		//when
+		for (int i = 0; i < 8; i++) {
+			executor.submit(() -> {
+				for (int j = 0; j < 100; j++) {
+					testedBreaker.recordFailure(socketError(), FAST);
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		//then
+		assertThat(testedBreaker.getState()).isEqualTo(State.OPEN);
+		assertThat(testedBreaker.getOpeningCount()).isEqualTo(1);
+	}
+
+	private void openCircuit() {
+		for (int i = 0; i < 4; i++) {
+			testedBreaker.recordFailure(socketError(), FAST);
+		}
+		assertThat(testedBreaker.getState()).isEqualTo(State.OPEN);
+	}
+}
@@ -0,0 +1,90 @@
+package yoan.shopping.infra.db.mongo.resilience;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.Test;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoNotPrimaryException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+
+public class MongoRetryPolicyTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_attempt() {
+		new MongoRetryPolicy(0, 50, 1_000);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_with_max_delay_lower_than_base_delay() {
+		new MongoRetryPolicy(3, 50, 10);
+	}
+
+	@Test
+	public void isTransient_should_accept_network_and_primary_change_errors() {
+		//given
+		MongoRetryPolicy testedPolicy = MongoRetryPolicy.DEFAULT;
+		ServerAddress server = new ServerAddress();
+
+		//when
+		boolean socketError = testedPolicy.isTransient(new MongoSocketReadException("socket closed", server));
+		boolean notPrimary = testedPolicy.isTransient(new MongoNotPrimaryException(server));
+		boolean steppedDown = testedPolicy.isTransient(new MongoCommandException(new BsonDocument("code", new BsonInt32(189)), server));
+
+		//then
+		assertThat(socketError).isTrue();
+		assertThat(notPrimary).isTrue();
+		assertThat(steppedDown).isTrue();
+	}
+
+	@Test
+	public void isTransient_should_reject_permanent_errors_and_timeouts() {
+		//given
+		MongoRetryPolicy testedPolicy = MongoRetryPolicy.DEFAULT;
+
+		//when
+		boolean genericError = testedPolicy.isTransient(new MongoException("permanent"));
+		boolean timeout = testedPolicy.isTransient(new MongoExecutionTimeoutException(50, "operation exceeded time limit"));
+		boolean duplicateKey = testedPolicy.isTransient(new MongoCommandException(new BsonDocument("code", new BsonInt32(11000)), new ServerAddress()));
+
+		//then
+		assertThat(genericError).isFalse();
+		assertThat(timeout).isFalse();
+		assertThat(duplicateKey).isFalse();
+	}
+
+	@Test
+	public void getBackoffDelayInMillis_should_stay_within_exponential_cap() {
+		//given
+		MongoRetryPolicy testedPolicy = new MongoRetryPolicy(10, 50, 300);
+
+		//when
+		for (int i = 0; i < 100; i++) {
+			long firstDelay = testedPolicy.getBackoffDelayInMillis(1);
+			long secondDelay = testedPolicy.getBackoffDelayInMillis(2);
+			long lateDelay = testedPolicy.getBackoffDelayInMillis(8);
+
+		//then
+			assertThat(firstDelay).isGreaterThanOrEqualTo(0).isLessThanOrEqualTo(50);
+			assertThat(secondDelay).isGreaterThanOrEqualTo(0).isLessThanOrEqualTo(100);
+			assertThat(lateDelay).isGreaterThanOrEqualTo(0).isLessThanOrEqualTo(300);
+		}
+	}
+
+	@Test
+	public void getBackoffDelayInMillis_should_be_zero_without_base_delay() {
+		//given
+		MongoRetryPolicy testedPolicy = MongoRetryPolicy.NO_RETRY;
+
+		//when
+		long delay = testedPolicy.getBackoffDelayInMillis(1);
+
+		//then
+		assertThat(delay).isEqualTo(0);
+	}
+}
@@ -0,0 +1,214 @@
+package yoan.shopping.infra.ratelimit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.infra.ratelimit.RateLimiter.DEFAULT_ROUTE;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+
+import yoan.shopping.infra.ratelimit.RateLimitKey.Dimension;
+
+public class RateLimiterTest {
+
+	private final ManualTicker ticker = new ManualTicker();
+	private final RateLimiter testedLimiter = new RateLimiter(2, ImmutableMap.of("/rest/auth", 1, "/rest/auth/token", 3, "/rest/public", 0), 1_000, ticker);
+
+	@Test
+	public void getRoute_should_use_longest_matching_route() {
+		//when
+		String tokenRoute = testedLimiter.getRoute("/rest/auth/token");
+		String authRoute = testedLimiter.getRoute("/rest/auth/authorization");
+		String otherRoute = testedLimiter.getRoute("/rest/api/user");
+
+		//then
+		assertThat(tokenRoute).isEqualTo("/rest/auth/token");
+		assertThat(authRoute).isEqualTo("/rest/auth");
+		assertThat(otherRoute).isEqualTo(DEFAULT_ROUTE);
+		assertThat(testedLimiter.getRequestsPerMinute(tokenRoute)).isEqualTo(3);
+		assertThat(testedLimiter.getRequestsPerMinute(otherRoute)).isEqualTo(2);
+	}
+
+	@Test
+	public void tryAcquire_should_limit_each_key_separately() {
+		//given
+		testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.1");
+
+		//when
+		RateLimitDecision sameIp = testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.1");
+		RateLimitDecision otherIp = testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.2");
+		RateLimitDecision otherRoute = testedLimiter.tryAcquire(DEFAULT_ROUTE, Dimension.IP, "10.0.0.1");
+		RateLimitDecision otherDimension = testedLimiter.tryAcquire("/rest/auth", Dimension.CLIENT, "10.0.0.1");
+
+		//then
+		assertThat(sameIp.isAllowed()).isFalse();
+		assertThat(otherIp.isAllowed()).isTrue();
+		assertThat(otherRoute.isAllowed()).isTrue();
+		assertThat(otherDimension.isAllowed()).isTrue();
+	}
+
+	@Test
+	public void release_should_give_back_the_token_of_the_key() {
+		//given
+		testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.1");
+
+		//when
+		testedLimiter.release("/rest/auth", Dimension.IP, "10.0.0.1");
+
+		//then
+		assertThat(testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.1").isAllowed()).isTrue();
+	}
+
+	@Test
+	public void release_should_ignore_unknown_key() {
+		//when
+		testedLimiter.release("/rest/auth", Dimension.IP, "10.0.0.1");
+
+		//then
+		assertThat(testedLimiter.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void tryAcquire_should_not_track_unlimited_route() {
+		//when
+		RateLimitDecision result = testedLimiter.tryAcquire("/rest/public", Dimension.IP, "10.0.0.1");
+
+		//then
+		assertThat(result.isAllowed()).isTrue();
+		assertThat(result.isUnlimited()).isTrue();
+		assertThat(testedLimiter.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void tryAcquire_should_let_new_keys_through_untracked_once_full() {
+		//given
+		RateLimiter smallLimiter = new RateLimiter(1, ImmutableMap.of(), RateLimiter.STRIPE_COUNT, ticker);
+
+		//when
+		int untracked = 0;
+		for (int i = 0; i < 100; i++) {
+			if (smallLimiter.tryAcquire(DEFAULT_ROUTE, Dimension.IP, "10.0.0." + i).isUnlimited()) {
+				untracked++;
+			}
+		}
+
+		//then
+		assertThat(smallLimiter.getSize()).isLessThanOrEqualTo(RateLimiter.STRIPE_COUNT);
+		assertThat(untracked).isGreaterThan(0);
+		assertThat(smallLimiter.getUntrackedCount()).isEqualTo(untracked);
+	}
+
+	@Test
+	public void tryAcquire_should_make_room_by_evicting_idle_keys() {
+		//given
+		RateLimiter smallLimiter = new RateLimiter(1, ImmutableMap.of(), RateLimiter.STRIPE_COUNT, ticker);
+		for (int i = 0; i < 100; i++) {
+			smallLimiter.tryAcquire(DEFAULT_ROUTE, Dimension.IP, "10.0.0." + i);
+		}
+		long untrackedBefore = smallLimiter.getUntrackedCount();
+
+		//when
+		ticker.advance(1, TimeUnit.MINUTES);
+		RateLimitDecision result = smallLimiter.tryAcquire(DEFAULT_ROUTE, Dimension.IP, "10.0.1.1");
+
+		//then
+		assertThat(result.isUnlimited()).isFalse();
+		assertThat(smallLimiter.getUntrackedCount()).isEqualTo(untrackedBefore);
+		assertThat(smallLimiter.getEvictedCount()).isGreaterThan(0);
+	}
+
+	@Test
+	public void sweep_should_forget_full_buckets_only() {
+		//given
+		testedLimiter.tryAcquire(DEFAULT_ROUTE, Dimension.IP, "10.0.0.1");
+		ticker.advance(30, TimeUnit.SECONDS);
+		testedLimiter.tryAcquire(DEFAULT_ROUTE, Dimension.IP, "10.0.0.2");
+
+		//when
+		ticker.advance(1, TimeUnit.SECONDS);
+		int result = testedLimiter.sweep();
+
+		//then
+		assertThat(result).isEqualTo(1);
+		assertThat(testedLimiter.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void tryAcquire_should_get_a_new_bucket_after_a_sweep() {
+		//given
+		testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.1");
+		ticker.advance(1, TimeUnit.MINUTES);
+		testedLimiter.sweep();
+
+		//when
+		RateLimitDecision result = testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.1");
+
+		//then
+		assertThat(result.isAllowed()).isTrue();
+		assertThat(testedLimiter.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void tryAcquire_should_not_allow_more_than_the_limit_concurrently() throws InterruptedException {
+		//given
+		RateLimiter limiter = new RateLimiter(1_000, ImmutableMap.of(), 1_000, ticker);
+		ExecutorService requesters = Executors.newFixedThreadPool(4);
+		AtomicInteger allowed = new AtomicInteger();
+
+		//when
+		for (int thread = 0; thread < 4; thread++) {
+			requesters.submit(() -> {
+				for (int i = 0; i < 500; i++) {
+					if (limiter.tryAcquire(DEFAULT_ROUTE, Dimension.USER, "user").isAllowed()) {
+						allowed.incrementAndGet();
+					}
+				}
+			});
+		}
+		requesters.shutdown();
+		requesters.awaitTermination(10, TimeUnit.SECONDS);
+
+		//then
+		assertThat(allowed.get()).isEqualTo(1_000);
+	}
+
+	@Test
+	public void getMostThrottledKeys_should_order_by_throttled_requests() {
+		//given
+		for (int i = 0; i < 4; i++) {
+			testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.1");
+			testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.2");
+		}
+		testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.2");
+		testedLimiter.tryAcquire("/rest/auth", Dimension.IP, "10.0.0.3");
+
+		//when
+		ImmutableMap<RateLimitKey, Long> result = testedLimiter.getMostThrottledKeys(10);
+
+		//then
+		assertThat(result.keySet()).containsExactly(new RateLimitKey("/rest/auth", Dimension.IP, "10.0.0.2"), new RateLimitKey("/rest/auth", Dimension.IP, "10.0.0.1"));
+		assertThat(result.values()).containsExactly(4L, 3L);
+	}
+
+	/**
+	 * Ticker moved by hand
+	 */
+	private static class ManualTicker extends Ticker {
+		private long nanos = 0;
+
+		@Override
+		public long read() {
+			return nanos;
+		}
+
+		private void advance(long duration, TimeUnit unit) {
+			nanos += unit.toNanos(duration);
+		}
+	}
+}
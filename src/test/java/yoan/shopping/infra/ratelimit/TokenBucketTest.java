@@ -0,0 +1,108 @@
+package yoan.shopping.infra.ratelimit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+	private static final long START = 1_000;
+	private final TokenBucket testedBucket = new TokenBucket(60, START);
+
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_requests() {
+		new TokenBucket(0, START);
+	}
+
+	@Test
+	public void tryAcquire_should_allow_a_full_bucket_at_once() {
+		//given
+		RateLimitDecision lastAllowed = null;
+		for (int i = 0; i < 60; i++) {
+			lastAllowed = testedBucket.tryAcquire(START);
+		}
+
+		//when
+		RateLimitDecision result = testedBucket.tryAcquire(START);
+
+		//then
+		assertThat(lastAllowed.isAllowed()).isTrue();
+		assertThat(lastAllowed.getRemaining()).isEqualTo(0);
+		assertThat(result.isAllowed()).isFalse();
+		assertThat(result.getRetryAfterInSeconds()).isEqualTo(1);
+		assertThat(result.getResetInSeconds()).isEqualTo(60);
+		assertThat(testedBucket.getThrottledCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void tryAcquire_should_refill_a_token_per_interval() {
+		//given
+		for (int i = 0; i < 60; i++) {
+			testedBucket.tryAcquire(START);
+		}
+
+		//when
+		RateLimitDecision result = testedBucket.tryAcquire(START + TimeUnit.SECONDS.toNanos(1));
+
+		//then
+		assertThat(result.isAllowed()).isTrue();
+		assertThat(result.getRemaining()).isEqualTo(0);
+	}
+
+	@Test
+	public void tryAcquire_should_count_remaining_tokens() {
+		//when
+		RateLimitDecision result = testedBucket.tryAcquire(START);
+
+		//then
+		assertThat(result.isAllowed()).isTrue();
+		assertThat(result.getLimit()).isEqualTo(60);
+		assertThat(result.getRemaining()).isEqualTo(59);
+		assertThat(result.getResetInSeconds()).isEqualTo(1);
+	}
+
+	@Test
+	public void release_should_give_back_a_taken_token() {
+		//given
+		for (int i = 0; i < 60; i++) {
+			testedBucket.tryAcquire(START);
+		}
+
+		//when
+		testedBucket.release(START);
+
+		//then
+		RateLimitDecision result = testedBucket.tryAcquire(START);
+		assertThat(result.isAllowed()).isTrue();
+		assertThat(result.getRemaining()).isEqualTo(0);
+	}
+
+	@Test
+	public void release_should_not_overfill_a_full_bucket() {
+		//given
+		testedBucket.release(START);
+
+		//when
+		RateLimitDecision result = testedBucket.tryAcquire(START);
+
+		//then
+		assertThat(result.getRemaining()).isEqualTo(59);
+	}
+
+	@Test
+	public void evictIfIdle_should_only_evict_a_full_bucket() {
+		//given
+		testedBucket.tryAcquire(START);
+
+		//when
+		boolean busyResult = testedBucket.evictIfIdle(START);
+		boolean idleResult = testedBucket.evictIfIdle(START + TimeUnit.SECONDS.toNanos(1));
+
+		//then
+		assertThat(busyResult).isFalse();
+		assertThat(idleResult).isTrue();
+		assertThat(testedBucket.tryAcquire(START + TimeUnit.SECONDS.toNanos(2))).isNull();
+	}
+}
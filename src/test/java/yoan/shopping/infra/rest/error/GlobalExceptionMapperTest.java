@@ -2,11 +2,14 @@ package yoan.shopping.infra.rest.error;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
+import static javax.ws.rs.core.Response.Status.GATEWAY_TIMEOUT;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
+import static yoan.shopping.infra.rest.error.Level.WARNING;
 import static yoan.shopping.infra.util.error.CommonErrorCode.APPLICATION_ERROR;
 
 import javax.servlet.http.HttpServletRequest;
@@ -20,8 +23,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import yoan.shopping.infra.util.deadline.DeadlineExceededException;
 import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.error.CommonErrorCode;
+import yoan.shopping.infra.util.error.CommonErrorMessage;
 import yoan.shopping.infra.util.error.RepositoryErrorCode;
+import yoan.shopping.infra.util.error.RetryLaterException;
 import yoan.shopping.test.TestHelper;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -133,4 +140,46 @@ public class GlobalExceptionMapperTest {
 		//then
 		TestHelper.assertErrorResponse(response, NOT_FOUND, ERROR, APPLICATION_ERROR.getCode(), expectedMessage);
 	}
+
+	@Test
+	public void toResponse_should_handle_RetryLaterException_with_Retry_After_header() {
+		//given
+		String expectedMessage = "Database temporarily unavailable, retry in 7 seconds";
+		RetryLaterException retryLaterException = new RetryLaterException(WARNING, RepositoryErrorCode.UNAVAILABLE, expectedMessage, 7);
+		
+		//when
+		Response response = tested.toResponse(retryLaterException);
+		
+		//then
+		TestHelper.assertErrorResponse(response, SERVICE_UNAVAILABLE, WARNING, RepositoryErrorCode.UNAVAILABLE.getCode(), expectedMessage);
+		assertThat(response.getHeaderString("Retry-After")).isEqualTo("7");
+	}
+	
+	@Test
+	public void toResponse_should_handle_too_many_requests_with_status_429() {
+		//given
+		String expectedMessage = "Password hashing saturated, retry in 1 seconds";
+		RetryLaterException retryLaterException = new RetryLaterException(WARNING, CommonErrorCode.TOO_MANY_REQUESTS, expectedMessage, 1);
+		
+		//when
+		Response response = tested.toResponse(retryLaterException);
+		
+		//then
+		TestHelper.assertErrorResponse(response, ExtendedStatus.TOO_MANY_REQUESTS, WARNING, CommonErrorCode.TOO_MANY_REQUESTS.getCode(), expectedMessage);
+		assertThat(response.getStatus()).isEqualTo(429);
+		assertThat(response.getHeaderString("Retry-After")).isEqualTo("1");
+	}
+	
+	@Test
+	public void toResponse_should_handle_DeadlineExceededException() {
+		//given
+		DeadlineExceededException deadlineException = new DeadlineExceededException(3000, "processGetById");
+		String expectedMessage = CommonErrorMessage.DEADLINE_EXCEEDED.getDevReadableMessage(3000, "processGetById");
+		
+		//when
+		Response response = tested.toResponse(deadlineException);
+		
+		//then
+		TestHelper.assertErrorResponse(response, GATEWAY_TIMEOUT, WARNING, CommonErrorCode.DEADLINE_EXCEEDED.getCode(), expectedMessage);
+	}
 }
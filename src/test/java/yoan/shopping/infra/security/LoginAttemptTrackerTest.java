@@ -0,0 +1,238 @@
+package yoan.shopping.infra.security;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.infra.rest.error.Level.WARNING;
+import static yoan.shopping.infra.security.LoginAttemptTrackerErrorMessage.LOGIN_LOCKED_OUT;
+import static yoan.shopping.infra.util.error.CommonErrorCode.TOO_MANY_REQUESTS;
+import static yoan.shopping.test.TestHelper.assertApplicationException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+import yoan.shopping.infra.config.api.Config;
+import yoan.shopping.infra.util.error.RetryLaterException;
+
+public class LoginAttemptTrackerTest {
+
+	private static final String EMAIL = "user@mail.com";
+	private static final String IP = "10.0.0.1";
+
+	private final Config config = Config.Builder.createDefault()
+		.withLoginFailureWindowInSeconds(60)
+		.withLoginMaxFailuresByEmail(3)
+		.withLoginMaxFailuresByIp(5)
+		.withLoginLockoutInSeconds(10)
+		.withLoginMaxLockoutInSeconds(30)
+		.build();
+	private final ManualTicker ticker = new ManualTicker();
+	private final LoginAttemptTracker testedTracker = new LoginAttemptTracker(config, ticker);
+
+	@Test
+	public void getLockoutInSeconds_should_return_0_for_unknown_keys() {
+		//when
+		long result = testedTracker.getLockoutInSeconds(EMAIL, IP);
+
+		//then
+		assertThat(result).isEqualTo(0);
+		assertThat(testedTracker.getTrackedKeyCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void recordFailure_should_keep_a_single_failure_in_the_sketch_only() {
+		//when
+		testedTracker.recordFailure(EMAIL, IP);
+
+		//then
+		assertThat(testedTracker.getTrackedKeyCount()).isEqualTo(0);
+		assertThat(testedTracker.getLockoutInSeconds(EMAIL, IP)).isEqualTo(0);
+	}
+
+	@Test
+	public void recordFailure_should_lock_out_email_at_max_failures() {
+		//given
+		testedTracker.recordFailure(EMAIL, "10.0.0.1");
+		testedTracker.recordFailure(EMAIL, "10.0.0.2");
+
+		//when
+		testedTracker.recordFailure(EMAIL, "10.0.0.3");
+
+		//then
+		assertThat(testedTracker.getLockoutInSeconds(EMAIL, null)).isEqualTo(10);
+		assertThat(testedTracker.getLockoutInSeconds("other@mail.com", "10.0.0.1")).isEqualTo(0);
+		assertThat(testedTracker.getLockoutCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void recordFailure_should_lock_out_ip_at_max_failures() {
+		//given
+		for (int i = 0; i < 4; i++) {
+			testedTracker.recordFailure("user" + i + "@mail.com", IP);
+		}
+
+		//when
+		testedTracker.recordFailure("user4@mail.com", IP);
+
+		//then
+		assertThat(testedTracker.getLockoutInSeconds("other@mail.com", IP)).isEqualTo(10);
+		assertThat(testedTracker.getLockoutInSeconds("other@mail.com", "10.0.0.2")).isEqualTo(0);
+	}
+
+	@Test
+	public void recordFailure_should_match_emails_whatever_the_case() {
+		//given
+		testedTracker.recordFailure(EMAIL, null);
+		testedTracker.recordFailure(" User@Mail.com", null);
+
+		//when
+		testedTracker.recordFailure("USER@MAIL.COM", null);
+
+		//then
+		assertThat(testedTracker.getLockoutInSeconds(EMAIL, null)).isEqualTo(10);
+	}
+
+	@Test
+	public void recordFailure_should_double_the_lockout_up_to_the_max() {
+		//given
+		lockOut(EMAIL);
+
+		//when
+		ticker.advance(10, TimeUnit.SECONDS);
+		testedTracker.recordFailure(EMAIL, null);
+		long secondLockout = testedTracker.getLockoutInSeconds(EMAIL, null);
+		ticker.advance(20, TimeUnit.SECONDS);
+		testedTracker.recordFailure(EMAIL, null);
+		long thirdLockout = testedTracker.getLockoutInSeconds(EMAIL, null);
+
+		//then
+		assertThat(secondLockout).isEqualTo(20);
+		assertThat(thirdLockout).isEqualTo(30);
+	}
+
+	@Test
+	public void recordFailure_should_not_extend_a_running_lockout() {
+		//given
+		lockOut(EMAIL);
+
+		//when
+		ticker.advance(5, TimeUnit.SECONDS);
+		testedTracker.recordFailure(EMAIL, null);
+
+		//then
+		assertThat(testedTracker.getLockoutInSeconds(EMAIL, null)).isEqualTo(5);
+	}
+
+	@Test
+	public void recordFailure_should_forget_failures_out_of_the_sliding_window() {
+		//given
+		testedTracker.recordFailure(EMAIL, null);
+		testedTracker.recordFailure(EMAIL, null);
+
+		//when
+		ticker.advance(2, TimeUnit.MINUTES);
+		testedTracker.recordFailure(EMAIL, null);
+
+		//then
+		assertThat(testedTracker.getLockoutInSeconds(EMAIL, null)).isEqualTo(0);
+	}
+
+	@Test
+	public void recordFailure_should_count_part_of_the_previous_window() {
+		//given
+		ticker.advance(50, TimeUnit.SECONDS);
+		testedTracker.recordFailure(EMAIL, null);
+		testedTracker.recordFailure(EMAIL, null);
+
+		//when
+		ticker.advance(15, TimeUnit.SECONDS);
+		testedTracker.recordFailure(EMAIL, null);
+
+		//then
+		assertThat(testedTracker.getLockoutInSeconds(EMAIL, null)).isEqualTo(10);
+	}
+
+	@Test
+	public void recordSuccess_should_forget_email_failures_only() {
+		//given
+		testedTracker.recordFailure(EMAIL, IP);
+		testedTracker.recordFailure(EMAIL, IP);
+
+		//when
+		testedTracker.recordSuccess(EMAIL);
+
+		//then
+		assertThat(testedTracker.getTrackedKeyCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void recordFailure_should_not_track_more_keys_than_the_max() {
+		//given
+		Config smallConfig = Config.Builder.createFrom(config).withLoginMaxTrackedKeys(10).build();
+		LoginAttemptTracker smallTracker = new LoginAttemptTracker(smallConfig, ticker);
+
+		//when
+		for (int i = 0; i < 100; i++) {
+			smallTracker.recordFailure("user" + i + "@mail.com", null);
+			smallTracker.recordFailure("user" + i + "@mail.com", null);
+		}
+
+		//then
+		assertThat(smallTracker.getTrackedKeyCount()).isLessThanOrEqualTo(10);
+		assertThat(smallTracker.getMaxTrackedKeys()).isEqualTo(10);
+	}
+
+	@Test(expected = RetryLaterException.class)
+	public void checkAllowed_should_fail_while_locked_out() {
+		//given
+		lockOut(EMAIL);
+		String expectedMessage = LOGIN_LOCKED_OUT.getDevReadableMessage(10L);
+
+		//when
+		try {
+			testedTracker.checkAllowed(EMAIL, IP);
+		} catch(RetryLaterException rle) {
+			//then
+			assertApplicationException(rle, WARNING, TOO_MANY_REQUESTS, expectedMessage);
+			assertThat(rle.getRetryAfterInSeconds()).isEqualTo(10);
+			assertThat(testedTracker.getRejectedCount()).isEqualTo(1);
+			throw rle;
+		}
+	}
+
+	@Test
+	public void checkAllowed_should_let_login_through_once_the_lockout_is_over() {
+		//given
+		lockOut(EMAIL);
+		ticker.advance(10, TimeUnit.SECONDS);
+
+		//when
+		testedTracker.checkAllowed(EMAIL, IP);
+
+		//then
+		assertThat(testedTracker.getRejectedCount()).isEqualTo(0);
+	}
+
+	private void lockOut(String email) {
+		for (int i = 0; i < 3; i++) {
+			testedTracker.recordFailure(email, null);
+		}
+	}
+
+	/**
+	 * Ticker moved by hand
+	 */
+	private static class ManualTicker extends Ticker {
+		private long nanos = 0;
+
+		@Override
+		public long read() {
+			return nanos;
+		}
+
+		private void advance(long duration, TimeUnit unit) {
+			nanos += unit.toNanos(duration);
+		}
+	}
+}
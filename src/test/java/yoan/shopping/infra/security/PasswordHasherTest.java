@@ -0,0 +1,217 @@
+package yoan.shopping.infra.security;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import yoan.shopping.infra.util.deadline.DeadlineExceededException;
+import yoan.shopping.infra.util.deadline.RequestDeadline;
+import yoan.shopping.infra.util.error.CommonErrorCode;
+import yoan.shopping.infra.util.error.RetryLaterException;
+import yoan.shopping.infra.util.helper.SecurityHelper;
+
+public class PasswordHasherTest {
+
+	private final PasswordHasher testedHasher = new PasswordHasher(1_000, 2, 4);
+
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_iteration() {
+		new PasswordHasher(0, 2, 4);
+	}
+
+	@Test
+	public void hash_should_encode_algorithm_and_cost() {
+		//when
+		String result = testedHasher.hash("password", "salt");
+
+		//then
+		assertThat(result).startsWith(PasswordHasher.PBKDF2_PREFIX + "1000$");
+		assertThat(testedHasher.getHashCount()).isEqualTo(1);
+		assertThat(testedHasher.getMaxHashTimeInNanos()).isGreaterThan(0);
+	}
+
+	@Test
+	public void hash_should_depend_on_salt() {
+		//when
+		String hash1 = testedHasher.hash("password", "salt1");
+		String hash2 = testedHasher.hash("password", "salt2");
+		String hash3 = testedHasher.hash("password", "salt1");
+
+		//then
+		assertThat(hash1).isNotEqualTo(hash2);
+		assertThat(hash1).isEqualTo(hash3);
+	}
+
+	@Test
+	public void matches_should_check_hash() {
+		//given
+		String storedHash = testedHasher.hash("password", "salt");
+
+		//when
+		boolean matching = testedHasher.matches("password", "salt", storedHash);
+		boolean wrongPassword = testedHasher.matches("wrong password", "salt", storedHash);
+		boolean wrongSalt = testedHasher.matches("password", "other salt", storedHash);
+
+		//then
+		assertThat(matching).isTrue();
+		assertThat(wrongPassword).isFalse();
+		assertThat(wrongSalt).isFalse();
+	}
+
+	@Test
+	public void matches_should_check_legacy_hash_inline() {
+		//given
+		String legacyHash = SecurityHelper.hash("password", "salt");
+
+		//when
+		boolean matching = testedHasher.matches("password", "salt", legacyHash);
+		boolean wrongPassword = testedHasher.matches("wrong password", "salt", legacyHash);
+
+		//then
+		assertThat(matching).isTrue();
+		assertThat(wrongPassword).isFalse();
+		assertThat(testedHasher.getLegacyMatchCount()).isEqualTo(1);
+		assertThat(testedHasher.getHashCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void matches_should_check_hash_with_former_cost() {
+		//given
+		String formerHash = new PasswordHasher(500, 1, 1).hash("password", "salt");
+
+		//when
+		boolean matching = testedHasher.matches("password", "salt", formerHash);
+
+		//then
+		assertThat(matching).isTrue();
+		assertThat(testedHasher.needsRehash(formerHash)).isTrue();
+	}
+
+	@Test
+	public void matches_should_reject_missing_or_unreadable_hash() {
+		//when
+		boolean missingHash = testedHasher.matches("password", "salt", null);
+		boolean missingPassword = testedHasher.matches(null, "salt", testedHasher.hash("password", "salt"));
+		boolean unreadableHash = testedHasher.matches("password", "salt", PasswordHasher.PBKDF2_PREFIX + "abc");
+
+		//then
+		assertThat(missingHash).isFalse();
+		assertThat(missingPassword).isFalse();
+		assertThat(unreadableHash).isFalse();
+	}
+
+	@Test
+	public void matches_should_reject_malformed_pbkdf2_hash() {
+		//when
+		boolean badBase64 = testedHasher.matches("password", "salt", PasswordHasher.PBKDF2_PREFIX + "1000$not*base64");
+		boolean tooManyIterations = testedHasher.matches("password", "salt", PasswordHasher.PBKDF2_PREFIX + "99999999999$AAAA");
+		boolean noIteration = testedHasher.matches("password", "salt", PasswordHasher.PBKDF2_PREFIX + "0$AAAA");
+		boolean emptyHash = testedHasher.matches("password", "salt", PasswordHasher.PBKDF2_PREFIX + "1000$");
+
+		//then
+		assertThat(badBase64).isFalse();
+		assertThat(tooManyIterations).isFalse();
+		assertThat(noIteration).isFalse();
+		assertThat(emptyHash).isFalse();
+	}
+
+	@Test
+	public void needsRehash_should_only_keep_hash_with_current_cost() {
+		//given
+		String currentHash = testedHasher.hash("password", "salt");
+		String legacyHash = SecurityHelper.hash("password", "salt");
+		String strongerHash = new PasswordHasher(2_000, 1, 1).hash("password", "salt");
+
+		//when
+		boolean current = testedHasher.needsRehash(currentHash);
+		boolean legacy = testedHasher.needsRehash(legacyHash);
+		boolean stronger = testedHasher.needsRehash(strongerHash);
+
+		//then
+		assertThat(current).isFalse();
+		assertThat(legacy).isTrue();
+		assertThat(stronger).isTrue();
+	}
+
+	@Test(expected = RetryLaterException.class)
+	public void hash_should_fail_fast_once_queue_is_full() throws InterruptedException {
+		//given
+		CountDownLatch release = new CountDownLatch(1);
+		PasswordHasher blockingHasher = new BlockingPasswordHasher(release);
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		callers.submit(() -> blockingHasher.hash("password", "salt"));
+		callers.submit(() -> blockingHasher.hash("password", "salt"));
+		waitForSaturation(blockingHasher);
+
+		//when
+		try {
+			blockingHasher.hash("password", "salt");
+		} catch (RetryLaterException rle) {
+		//then
+			assertThat(rle.getErrorCode()).isEqualTo(CommonErrorCode.TOO_MANY_REQUESTS);
+			assertThat(rle.getRetryAfterInSeconds()).isEqualTo(1);
+			assertThat(blockingHasher.isSaturated()).isTrue();
+			assertThat(blockingHasher.getRejectedCount()).isEqualTo(1);
+			throw rle;
+		} finally {
+			release.countDown();
+			callers.shutdown();
+			callers.awaitTermination(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test(expected = DeadlineExceededException.class)
+	public void hash_should_stop_waiting_once_deadline_is_spent() {
+		//given
+		CountDownLatch release = new CountDownLatch(1);
+		PasswordHasher blockingHasher = new BlockingPasswordHasher(release);
+		RequestDeadline deadline = RequestDeadline.start("default", 20);
+
+		//when
+		try {
+			blockingHasher.hash("password", "salt");
+		} catch (DeadlineExceededException dee) {
+		//then
+			assertThat(deadline.isExceeded()).isTrue();
+			throw dee;
+		} finally {
+			RequestDeadline.clear();
+			release.countDown();
+		}
+	}
+
+	private static void waitForSaturation(PasswordHasher hasher) throws InterruptedException {
+		long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!hasher.isSaturated() && System.nanoTime() < timeout) {
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * One thread and one queued hash, each hash waits for the release
+	 */
+	private static class BlockingPasswordHasher extends PasswordHasher {
+		private final CountDownLatch release;
+
+		private BlockingPasswordHasher(CountDownLatch release) {
+			super(1_000, 1, 1);
+			this.release = release;
+		}
+
+		@Override
+		protected byte[] computeHash(String password, String salt, int hashIterations) throws GeneralSecurityException {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+			return super.computeHash(password, salt, hashIterations);
+		}
+	}
+}
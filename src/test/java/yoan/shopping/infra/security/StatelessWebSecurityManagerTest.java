@@ -0,0 +1,59 @@
+package yoan.shopping.infra.security;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.realm.SimpleAccountRealm;
+import org.apache.shiro.subject.support.DisabledSessionException;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.web.subject.WebSubject;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class StatelessWebSecurityManagerTest {
+	
+	private final StatelessWebSecurityManager testedSecurityManager = getSecurityManager();
+	private final HttpServletRequest request = mock(HttpServletRequest.class);
+	private final HttpServletResponse response = mock(HttpServletResponse.class);
+	
+	private static StatelessWebSecurityManager getSecurityManager() {
+		SimpleAccountRealm realm = new SimpleAccountRealm();
+		realm.addAccount("user@mail.com", "password");
+		return new StatelessWebSecurityManager(ImmutableList.of(realm));
+	}
+	
+	@Test
+	public void login_should_authenticate_without_session() {
+		//given
+		Subject subject = new WebSubject.Builder(testedSecurityManager, request, response).buildWebSubject();
+		
+		//when
+		subject.login(new UsernamePasswordToken("user@mail.com", "password"));
+		
+		//then
+		assertThat(subject.isAuthenticated()).isTrue();
+		assertThat(subject.getPrincipal()).isEqualTo("user@mail.com");
+		assertThat(subject.getSession(false)).isNull();
+		verify(request, never()).getSession();
+		verify(request, never()).getSession(false);
+		verify(request, never()).getCookies();
+		verifyZeroInteractions(response);
+	}
+	
+	@Test(expected = DisabledSessionException.class)
+	public void getSession_should_fail_as_session_creation_is_disabled() {
+		//given
+		Subject subject = new WebSubject.Builder(testedSecurityManager, request, response).buildWebSubject();
+		
+		//when
+		subject.getSession();
+	}
+}
@@ -0,0 +1,35 @@
+package yoan.shopping.infra.security;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.DisabledSessionException;
+import org.apache.shiro.web.mgt.DefaultWebSecurityManager;
+import org.apache.shiro.web.subject.support.DefaultWebSubjectContext;
+import org.junit.Test;
+
+public class StatelessWebSubjectFactoryTest {
+	
+	private final StatelessWebSubjectFactory testedFactory = new StatelessWebSubjectFactory();
+	
+	@Test(expected = DisabledSessionException.class)
+	public void createSubject_should_disable_session_creation() {
+		//given
+		DefaultWebSubjectContext context = new DefaultWebSubjectContext();
+		context.setSecurityManager(new DefaultWebSecurityManager());
+		context.setServletRequest(mock(HttpServletRequest.class));
+		context.setServletResponse(mock(HttpServletResponse.class));
+		context.setSessionCreationEnabled(true);
+		
+		//when
+		Subject result = testedFactory.createSubject(context);
+		
+		//then
+		assertThat(result.getSession(false)).isNull();
+		result.getSession();
+	}
+}
@@ -0,0 +1,92 @@
+package yoan.shopping.infra.security;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.realm.Realm;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import yoan.shopping.authentication.realm.Oauth2ShiroAccessToken;
+
+public class TokenTypeRealmAuthenticatorTest {
+	
+	private final Realm passwordRealm = mock(Realm.class);
+	private final Realm accessTokenRealm = mock(Realm.class);
+	private final TokenTypeRealmAuthenticator testedAuthenticator = new TokenTypeRealmAuthenticator();
+	
+	@Before
+	public void setUpRealms() {
+		when(passwordRealm.supports(any())).thenAnswer(invocation -> invocation.getArguments()[0] instanceof UsernamePasswordToken);
+		when(accessTokenRealm.supports(any())).thenAnswer(invocation -> invocation.getArguments()[0] instanceof Oauth2ShiroAccessToken);
+		testedAuthenticator.setRealms(ImmutableList.of(passwordRealm, accessTokenRealm));
+	}
+	
+	@Test
+	public void authenticate_should_only_use_the_realm_of_the_token_type() {
+		//given
+		Oauth2ShiroAccessToken token = new Oauth2ShiroAccessToken("token", "host");
+		AuthenticationInfo expectedInfo = new SimpleAuthenticationInfo("user", "token", "accessTokenRealm");
+		when(accessTokenRealm.getAuthenticationInfo(token)).thenReturn(expectedInfo);
+		
+		//when
+		AuthenticationInfo result = testedAuthenticator.authenticate(token);
+		
+		//then
+		assertThat(result).isEqualTo(expectedInfo);
+		verify(passwordRealm, never()).getAuthenticationInfo(any());
+	}
+	
+	@Test
+	public void authenticate_should_look_the_realm_up_once_by_token_type() {
+		//given
+		Oauth2ShiroAccessToken token = new Oauth2ShiroAccessToken("token", "host");
+		when(accessTokenRealm.getAuthenticationInfo(token)).thenReturn(new SimpleAuthenticationInfo("user", "token", "accessTokenRealm"));
+		testedAuthenticator.authenticate(token);
+		
+		//when
+		testedAuthenticator.authenticate(token);
+		
+		//then
+		verify(passwordRealm, times(1)).supports(any());
+		verify(accessTokenRealm, times(2)).getAuthenticationInfo(token);
+	}
+	
+	@Test(expected = AuthenticationException.class)
+	public void authenticate_should_fail_with_unsupported_token_type() {
+		//given
+		AuthenticationToken token = new BearerToken();
+		
+		//when
+		testedAuthenticator.authenticate(token);
+	}
+	
+	/**
+	 * Token supported by no realm
+	 */
+	private static class BearerToken implements AuthenticationToken {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		public Object getPrincipal() {
+			return null;
+		}
+		
+		@Override
+		public Object getCredentials() {
+			return "token";
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package yoan.shopping.infra.util;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class CountMinSketchTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_width() {
+		new CountMinSketch(0, 4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_depth() {
+		new CountMinSketch(100, 0);
+	}
+
+	@Test
+	public void estimate_should_return_0_when_empty() {
+		//given
+		CountMinSketch testedSketch = new CountMinSketch(100, 4);
+
+		//when
+		int result = testedSketch.estimate("key");
+
+		//then
+		assertThat(result).isEqualTo(0);
+	}
+
+	@Test
+	public void add_should_return_the_new_estimate() {
+		//given
+		CountMinSketch testedSketch = new CountMinSketch(1_000, 4);
+		testedSketch.add("key");
+
+		//when
+		int result = testedSketch.add("key");
+
+		//then
+		assertThat(result).isEqualTo(2);
+		assertThat(testedSketch.estimate("key")).isEqualTo(2);
+	}
+
+	@Test
+	public void estimate_should_never_be_below_the_real_count() {
+		//given
+		CountMinSketch testedSketch = new CountMinSketch(64, 4);
+		for (int i = 0; i < 1_000; i++) {
+			testedSketch.add("key" + (i % 100));
+		}
+
+		//when
+		for (int i = 0; i < 100; i++) {
+			int result = testedSketch.estimate("key" + i);
+
+		//then
+			assertThat(result).isGreaterThanOrEqualTo(10);
+		}
+	}
+
+	@Test
+	public void getSizeInBytes_should_not_depend_on_the_keys() {
+		//given
+		CountMinSketch testedSketch = new CountMinSketch(1_000, 4);
+
+		//when
+		for (int i = 0; i < 10_000; i++) {
+			testedSketch.add("key" + i);
+		}
+
+		//then
+		assertThat(testedSketch.getSizeInBytes()).isEqualTo(16_000);
+	}
+}
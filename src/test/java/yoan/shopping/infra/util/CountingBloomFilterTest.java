@@ -0,0 +1,107 @@
+package yoan.shopping.infra.util;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class CountingBloomFilterTest {
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_counter() {
+		new CountingBloomFilter(0, 7);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_hash() {
+		new CountingBloomFilter(100, 0);
+	}
+	
+	@Test
+	public void mightContain_should_return_false_when_empty() {
+		//given
+		CountingBloomFilter testedFilter = new CountingBloomFilter(100, 7);
+		
+		//when
+		boolean result = testedFilter.mightContain(UUID.randomUUID());
+		
+		//then
+		assertThat(result).isFalse();
+	}
+	
+	@Test
+	public void mightContain_should_never_miss_added_element() {
+		//given
+		CountingBloomFilter testedFilter = new CountingBloomFilter(1_000, 7);
+		UUID[] elements = new UUID[100];
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = UUID.randomUUID();
+			testedFilter.add(elements[i]);
+		}
+		
+		//when
+		for (UUID element : elements) {
+			boolean result = testedFilter.mightContain(element);
+			
+		//then
+			assertThat(result).isTrue();
+		}
+	}
+	
+	@Test
+	public void remove_should_forget_element() {
+		//given
+		CountingBloomFilter testedFilter = new CountingBloomFilter(1_000, 7);
+		UUID removed = UUID.randomUUID();
+		UUID kept = UUID.randomUUID();
+		testedFilter.add(removed);
+		testedFilter.add(kept);
+		
+		//when
+		testedFilter.remove(removed);
+		
+		//then
+		assertThat(testedFilter.mightContain(removed)).isFalse();
+		assertThat(testedFilter.mightContain(kept)).isTrue();
+	}
+	
+	@Test
+	public void remove_should_keep_saturated_counters() {
+		//given
+		CountingBloomFilter testedFilter = new CountingBloomFilter(1, 1);
+		UUID kept = UUID.randomUUID();
+		for (int i = 0; i < 300; i++) {
+			testedFilter.add(UUID.randomUUID());
+		}
+		testedFilter.add(kept);
+		
+		//when
+		for (int i = 0; i < 300; i++) {
+			testedFilter.remove(UUID.randomUUID());
+		}
+		
+		//then
+		assertThat(testedFilter.mightContain(kept)).isTrue();
+	}
+	
+	@Test
+	public void mightContain_should_have_few_false_positives_with_ten_counters_by_element() {
+		//given
+		CountingBloomFilter testedFilter = new CountingBloomFilter(10_000, 7);
+		for (int i = 0; i < 1_000; i++) {
+			testedFilter.add(UUID.randomUUID());
+		}
+		int falsePositives = 0;
+		
+		//when
+		for (int i = 0; i < 10_000; i++) {
+			if (testedFilter.mightContain(UUID.randomUUID())) {
+				falsePositives++;
+			}
+		}
+		
+		//then
+		assertThat(falsePositives).isLessThan(300);
+	}
+}
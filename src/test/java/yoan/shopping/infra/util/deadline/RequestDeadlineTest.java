@@ -0,0 +1,85 @@
+package yoan.shopping.infra.util.deadline;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.infra.rest.error.Level.WARNING;
+import static yoan.shopping.infra.util.error.CommonErrorCode.DEADLINE_EXCEEDED;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+import yoan.shopping.infra.util.error.CommonErrorMessage;
+import yoan.shopping.test.TestHelper;
+
+public class RequestDeadlineTest {
+
+	private final AtomicLong clock = new AtomicLong(0);
+
+	@After
+	public void clearDeadline() {
+		RequestDeadline.clear();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void new_should_fail_without_budget() {
+		new RequestDeadline("default", 0, clock::get);
+	}
+
+	@Test
+	public void getRemainingInMillis_should_decrease_with_time() {
+		//given
+		RequestDeadline testedDeadline = new RequestDeadline("default", 100, clock::get);
+
+		//when
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(30));
+
+		//then
+		assertThat(testedDeadline.getRemainingInMillis()).isEqualTo(70);
+		assertThat(testedDeadline.isExpired()).isFalse();
+	}
+
+	@Test
+	public void isExpired_should_be_true_once_budget_is_spent() {
+		//given
+		RequestDeadline testedDeadline = new RequestDeadline("default", 100, clock::get);
+
+		//when
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+		//then
+		assertThat(testedDeadline.isExpired()).isTrue();
+		assertThat(testedDeadline.getRemainingInMillis()).isEqualTo(0);
+	}
+
+	@Test
+	public void exceeded_should_flag_the_request() {
+		//given
+		RequestDeadline testedDeadline = new RequestDeadline("default", 100, clock::get);
+		String expectedMessage = CommonErrorMessage.DEADLINE_EXCEEDED.getDevReadableMessage(100, "processGetById");
+
+		//when
+		DeadlineExceededException result = testedDeadline.exceeded("processGetById");
+
+		//then
+		assertThat(testedDeadline.isExceeded()).isTrue();
+		TestHelper.assertApplicationException(result, WARNING, DEADLINE_EXCEEDED, expectedMessage);
+	}
+
+	@Test
+	public void start_should_expose_deadline_to_current_thread_only() throws InterruptedException {
+		//given
+		RequestDeadline started = RequestDeadline.start("/rest/auth", 3_000);
+		AtomicLong otherThreadHasDeadline = new AtomicLong(-1);
+
+		//when
+		Thread otherThread = new Thread(() -> otherThreadHasDeadline.set(RequestDeadline.current() == null ? 0 : 1));
+		otherThread.start();
+		otherThread.join();
+
+		//then
+		assertThat(RequestDeadline.current()).isSameAs(started);
+		assertThat(otherThreadHasDeadline.get()).isEqualTo(0);
+	}
+}
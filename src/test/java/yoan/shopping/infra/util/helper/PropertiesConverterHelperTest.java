@@ -5,7 +5,10 @@ import static yoan.shopping.infra.rest.error.Level.ERROR;
 import static yoan.shopping.infra.util.error.CommonErrorCode.APPLICATION_ERROR;
 import static yoan.shopping.test.TestHelper.assertApplicationException;
 
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
 
 import org.junit.Test;
 
@@ -231,4 +234,88 @@ public class PropertiesConverterHelperTest {
 		//then
 		assertThat(result).isEqualTo(expected);
 	}
+	
+	@Test
+	public void getOptionnalIntegerProperty_should_return_default_value_if_properties_does_not_contain_field() {
+		//given
+		Properties properties = new Properties();
+		String notPresentField = "notPresentField";
+		int expected = 42;
+		
+		//when
+		Integer result = PropertiesConverterHelper.getOptionnalIntegerProperty(properties, notPresentField, expected);
+
+		//then
+		assertThat(result).isEqualTo(expected);
+	}
+	
+	@Test
+	public void getOptionnalIntegerMapProperty_should_return_empty_map_if_properties_does_not_contain_field() {
+		//given
+		Properties properties = new Properties();
+		String notPresentField = "notPresentField";
+		
+		//when
+		Map<String, Integer> result = PropertiesConverterHelper.getOptionnalIntegerMapProperty(properties, notPresentField);
+
+		//then
+		assertThat(result).isEmpty();
+	}
+	
+	@Test
+	public void getOptionnalIntegerMapProperty_should_skip_invalid_entries() {
+		//given
+		Properties properties = new Properties();
+		String fieldName = "field";
+		properties.setProperty(fieldName, "/rest/auth:3000, invalid, /rest/api:abc,/rest/api/admin:30000");
+		
+		//when
+		Map<String, Integer> result = PropertiesConverterHelper.getOptionnalIntegerMapProperty(properties, fieldName);
+
+		//then
+		assertThat(result).hasSize(2);
+		assertThat(result.get("/rest/auth")).isEqualTo(3000);
+		assertThat(result.get("/rest/api/admin")).isEqualTo(30000);
+	}
+	
+	@Test
+	public void getOptionnalMapProperty_should_skip_invalid_entries() {
+		//given
+		Properties properties = new Properties();
+		String fieldName = "field";
+		properties.setProperty(fieldName, "key-2016:c2VjcmV0, invalid, empty: ,key-2017:b3RoZXI=");
+		
+		//when
+		Map<String, String> result = PropertiesConverterHelper.getOptionnalMapProperty(properties, fieldName);
+
+		//then
+		assertThat(result).hasSize(2);
+		assertThat(result.get("key-2016")).isEqualTo("c2VjcmV0");
+		assertThat(result.get("key-2017")).isEqualTo("b3RoZXI=");
+	}
+	
+	@Test
+	public void getOptionnalUUIDSetProperty_should_skip_invalid_entries() {
+		//given
+		Properties properties = new Properties();
+		String fieldName = "field";
+		UUID firstId = UUID.randomUUID();
+		UUID secondId = UUID.randomUUID();
+		properties.setProperty(fieldName, firstId + ", invalid, ," + secondId);
+		
+		//when
+		Set<UUID> result = PropertiesConverterHelper.getOptionnalUUIDSetProperty(properties, fieldName);
+
+		//then
+		assertThat(result).containsOnly(firstId, secondId);
+	}
+	
+	@Test
+	public void getOptionnalUUIDSetProperty_should_return_empty_set_if_missing() {
+		//when
+		Set<UUID> result = PropertiesConverterHelper.getOptionnalUUIDSetProperty(new Properties(), "field");
+
+		//then
+		assertThat(result).isEmpty();
+	}
 }
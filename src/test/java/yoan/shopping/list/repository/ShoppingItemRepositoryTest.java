@@ -2,11 +2,15 @@ package yoan.shopping.list.repository;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static yoan.shopping.infra.rest.error.Level.INFO;
+import static yoan.shopping.infra.util.error.RepositoryErrorCode.CONFLICT;
 import static yoan.shopping.infra.util.error.RepositoryErrorCode.NOT_FOUND;
+import static yoan.shopping.list.ItemState.BOUGHT;
+import static yoan.shopping.list.repository.ShoppingItemRepositoryErrorMessage.PROBLEM_UPDATE_ITEM_QUANTITY_TOO_LOW;
 import static yoan.shopping.test.TestHelper.assertApplicationException;
 
 import java.util.UUID;
@@ -34,10 +38,10 @@ public class ShoppingItemRepositoryTest {
 		ShoppingItem nullShoppingItem = null;
 
 		//when
-		testedRepo.create(listId, nullShoppingItem);
+		testedRepo.create(listId, UUID.randomUUID(), nullShoppingItem);
 		
 		//then
-		verify(testedRepo, never()).processCreate(any(), any());
+		verify(testedRepo, never()).processCreate(any(), any(), any());
 	}
 	
 	@Test
@@ -47,10 +51,10 @@ public class ShoppingItemRepositoryTest {
 		ShoppingItem shoppingItem = TestHelper.generateRandomShoppingItem();
 
 		//when
-		testedRepo.create(nullListId, shoppingItem);
+		testedRepo.create(nullListId, UUID.randomUUID(), shoppingItem);
 		
 		//then
-		verify(testedRepo, never()).processCreate(any(), any());
+		verify(testedRepo, never()).processCreate(any(), any(), any());
 	}
 	
 	@Test
@@ -60,11 +64,11 @@ public class ShoppingItemRepositoryTest {
 		UUID nullId = null;
 		
 		//when
-		ShoppingItem result = testedRepo.getById(listId, nullId);
+		ShoppingItem result = testedRepo.getById(listId, UUID.randomUUID(), nullId);
 		
 		//then
 		assertThat(result).isNull();
-		verify(testedRepo, never()).processGetById(any(), any());
+		verify(testedRepo, never()).processGetById(any(), any(), any());
 	}
 	
 	@Test
@@ -74,11 +78,11 @@ public class ShoppingItemRepositoryTest {
 		UUID itemId = UUID.randomUUID();
 		
 		//when
-		ShoppingItem result = testedRepo.getById(nullListId, itemId);
+		ShoppingItem result = testedRepo.getById(nullListId, UUID.randomUUID(), itemId);
 		
 		//then
 		assertThat(result).isNull();
-		verify(testedRepo, never()).processGetById(any(), any());
+		verify(testedRepo, never()).processGetById(any(), any(), any());
 	}
 	
 	@Test
@@ -88,10 +92,10 @@ public class ShoppingItemRepositoryTest {
 		ShoppingItem nullShoppingItem = null;
 
 		//when
-		testedRepo.update(listId, nullShoppingItem);
+		testedRepo.update(listId, UUID.randomUUID(), nullShoppingItem);
 		
 		//then
-		verify(testedRepo, never()).processUpdate(any(), any());
+		verify(testedRepo, never()).processUpdate(any(), any(), any());
 	}
 	
 	@Test
@@ -101,10 +105,10 @@ public class ShoppingItemRepositoryTest {
 		ShoppingItem shoppingItem = TestHelper.generateRandomShoppingItem();
 
 		//when
-		testedRepo.update(nullListId, shoppingItem);
+		testedRepo.update(nullListId, UUID.randomUUID(), shoppingItem);
 		
 		//then
-		verify(testedRepo, never()).processUpdate(any(), any());
+		verify(testedRepo, never()).processUpdate(any(), any(), any());
 	}
 	
 	@Test(expected = ApplicationException.class)
@@ -116,13 +120,13 @@ public class ShoppingItemRepositoryTest {
 
 		//when
 		try {
-			testedRepo.update(listId, notExistingShoppingItem);
+			testedRepo.update(listId, UUID.randomUUID(), notExistingShoppingItem);
 		} catch (ApplicationException ae) {
 		//then
 			assertApplicationException(ae, INFO, NOT_FOUND, expectedErrorMessage);
 			throw ae;
 		} finally {
-			verify(testedRepo, never()).processUpdate(any(), any());
+			verify(testedRepo).processUpdate(any(), any(), any());
 		}
 	}
 	
@@ -135,13 +139,89 @@ public class ShoppingItemRepositoryTest {
 
 		//when
 		try {
-			testedRepo.update(notExistingListId, shoppingItem);
+			testedRepo.update(notExistingListId, UUID.randomUUID(), shoppingItem);
 		} catch (ApplicationException ae) {
 		//then
 			assertApplicationException(ae, INFO, NOT_FOUND, expectedErrorMessage);
 			throw ae;
 		} finally {
-			verify(testedRepo, never()).processUpdate(any(), any());
+			verify(testedRepo).processUpdate(any(), any(), any());
+		}
+	}
+	
+	@Test
+	public void changeState_should_do_nothing_with_null_state() {
+		//when
+		testedRepo.changeState(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), null);
+		
+		//then
+		verify(testedRepo, never()).processChangeState(any(), any(), any(), any());
+	}
+	
+	@Test
+	public void changeState_should_do_nothing_with_null_owner_Id() {
+		//when
+		testedRepo.changeState(UUID.randomUUID(), null, UUID.randomUUID(), BOUGHT);
+		
+		//then
+		verify(testedRepo, never()).processChangeState(any(), any(), any(), any());
+	}
+	
+	@Test(expected = ApplicationException.class)
+	public void changeState_should_fail_with_not_existing_item() {
+		//given
+		String expectedErrorMessage = CommonErrorMessage.NOT_FOUND.getDevReadableMessage("Item");
+
+		//when
+		try {
+			testedRepo.changeState(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), BOUGHT);
+		} catch (ApplicationException ae) {
+		//then
+			assertApplicationException(ae, INFO, NOT_FOUND, expectedErrorMessage);
+			throw ae;
+		}
+	}
+	
+	@Test
+	public void incrementQuantity_should_do_nothing_with_null_item_Id() {
+		//when
+		testedRepo.incrementQuantity(UUID.randomUUID(), UUID.randomUUID(), null, 1);
+		
+		//then
+		verify(testedRepo, never()).processIncrementQuantity(any(), any(), any(), anyInt());
+	}
+	
+	@Test(expected = ApplicationException.class)
+	public void incrementQuantity_should_fail_with_not_existing_item() {
+		//given
+		String expectedErrorMessage = CommonErrorMessage.NOT_FOUND.getDevReadableMessage("Item");
+
+		//when
+		try {
+			testedRepo.incrementQuantity(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), 1);
+		} catch (ApplicationException ae) {
+		//then
+			assertApplicationException(ae, INFO, NOT_FOUND, expectedErrorMessage);
+			throw ae;
+		}
+	}
+	
+	@Test(expected = ApplicationException.class)
+	public void incrementQuantity_should_fail_with_conflict_when_quantity_is_too_low() {
+		//given
+		UUID listId = UUID.randomUUID();
+		UUID ownerId = UUID.randomUUID();
+		ShoppingItem existingItem = TestHelper.generateRandomShoppingItem();
+		doReturn(existingItem).when(testedRepo).processGetById(listId, ownerId, existingItem.getId());
+		String expectedErrorMessage = PROBLEM_UPDATE_ITEM_QUANTITY_TOO_LOW.getDevReadableMessage(existingItem.getId(), 5);
+
+		//when
+		try {
+			testedRepo.incrementQuantity(listId, ownerId, existingItem.getId(), -5);
+		} catch (ApplicationException ae) {
+		//then
+			assertApplicationException(ae, INFO, CONFLICT, expectedErrorMessage);
+			throw ae;
 		}
 	}
 	
@@ -152,10 +232,10 @@ public class ShoppingItemRepositoryTest {
 		UUID nullId = null;
 
 		//when
-		testedRepo.deleteById(listId, nullId);
+		testedRepo.deleteById(listId, UUID.randomUUID(), nullId);
 		
 		//then
-		verify(testedRepo, never()).processDeleteById(any(), any());
+		verify(testedRepo, never()).processDeleteById(any(), any(), any());
 	}
 	
 	@Test
@@ -164,10 +244,48 @@ public class ShoppingItemRepositoryTest {
 		UUID nullListId = null;
 		UUID itemId = UUID.randomUUID();
 		//when
-		testedRepo.deleteById(nullListId, itemId);
+		testedRepo.deleteById(nullListId, UUID.randomUUID(), itemId);
+		
+		//then
+		verify(testedRepo, never()).processDeleteById(any(), any(), any());
+	}
+	
+	@Test
+	public void create_should_do_nothing_with_null_ownerId() {
+		//given
+		UUID nullOwnerId = null;
+		ShoppingItem shoppingItem = TestHelper.generateRandomShoppingItem();
+
+		//when
+		testedRepo.create(UUID.randomUUID(), nullOwnerId, shoppingItem);
+		
+		//then
+		verify(testedRepo, never()).processCreate(any(), any(), any());
+	}
+	
+	@Test
+	public void getById_should_return_null_with_null_ownerId() {
+		//given
+		UUID nullOwnerId = null;
+		
+		//when
+		ShoppingItem result = testedRepo.getById(UUID.randomUUID(), nullOwnerId, UUID.randomUUID());
+		
+		//then
+		assertThat(result).isNull();
+		verify(testedRepo, never()).processGetById(any(), any(), any());
+	}
+	
+	@Test
+	public void deleteById_should_do_nothing_with_null_ownerId() {
+		//given
+		UUID nullOwnerId = null;
+
+		//when
+		testedRepo.deleteById(UUID.randomUUID(), nullOwnerId, UUID.randomUUID());
 		
 		//then
-		verify(testedRepo, never()).processDeleteById(any(), any());
+		verify(testedRepo, never()).processDeleteById(any(), any(), any());
 	}
 	
 	@Test(expected = ApplicationException.class)
@@ -179,7 +297,7 @@ public class ShoppingItemRepositoryTest {
 
 		//when
 		try {
-			testedRepo.findItem(listId, notExistingShoppingItemId);
+			testedRepo.findItem(listId, UUID.randomUUID(), notExistingShoppingItemId);
 		} catch (ApplicationException ae) {
 		//then
 			assertApplicationException(ae, INFO, NOT_FOUND, expectedErrorMessage);
@@ -191,11 +309,12 @@ public class ShoppingItemRepositoryTest {
 	public void findList_should_work_with_existing_list() {
 		//given
 		UUID listId = UUID.randomUUID();
+		UUID ownerId = UUID.randomUUID();
 		ShoppingItem existingItem = TestHelper.generateRandomShoppingItem();
-		doReturn(existingItem).when(testedRepo).getById(listId, existingItem.getId());
+		doReturn(existingItem).when(testedRepo).getById(listId, ownerId, existingItem.getId());
 
 		//when
-		ShoppingItem result = testedRepo.findItem(listId, existingItem.getId());
+		ShoppingItem result = testedRepo.findItem(listId, ownerId, existingItem.getId());
 		
 		//then
 		assertThat(result).isEqualTo(existingItem);
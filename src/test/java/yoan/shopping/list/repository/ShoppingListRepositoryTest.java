@@ -48,11 +48,24 @@ public class ShoppingListRepositoryTest {
 		UUID nullId = null;
 
 		//when
-		ShoppingList result = testedRepo.getById(nullId);
+		ShoppingList result = testedRepo.getById(nullId, UUID.randomUUID());
 		
 		//then
 		assertThat(result).isNull();
-		verify(testedRepo, never()).processGetById(any());
+		verify(testedRepo, never()).processGetById(any(), any());
+	}
+	
+	@Test
+	public void getById_should_return_null_with_null_owner_Id() {
+		//given
+		UUID nullOwnerId = null;
+
+		//when
+		ShoppingList result = testedRepo.getById(UUID.randomUUID(), nullOwnerId);
+		
+		//then
+		assertThat(result).isNull();
+		verify(testedRepo, never()).processGetById(any(), any());
 	}
 	
 	@Test
@@ -66,7 +79,7 @@ public class ShoppingListRepositoryTest {
 		//then
 		assertThat(result).isNotNull();
 		assertThat(result).isEmpty();
-		verify(testedRepo, never()).processGetById(any());
+		verify(testedRepo, never()).processGetByOwner(any());
 	}
 	
 	@Test
@@ -95,7 +108,7 @@ public class ShoppingListRepositoryTest {
 			assertApplicationException(ae, INFO, NOT_FOUND, expectedErrorMessage);
 			throw ae;
 		} finally {
-			verify(testedRepo, never()).processUpdate(any());
+			verify(testedRepo).processUpdate(any());
 		}
 	}
 	
@@ -105,10 +118,22 @@ public class ShoppingListRepositoryTest {
 		UUID nullId = null;
 
 		//when
-		testedRepo.deleteById(nullId);
+		testedRepo.deleteById(nullId, UUID.randomUUID());
+		
+		//then
+		verify(testedRepo, never()).processDeleteById(any(), any());
+	}
+	
+	@Test
+	public void deleteById_should_do_nothing_with_null_owner_Id() {
+		//given
+		UUID nullOwnerId = null;
+
+		//when
+		testedRepo.deleteById(UUID.randomUUID(), nullOwnerId);
 		
 		//then
-		verify(testedRepo, never()).processDeleteById(any());
+		verify(testedRepo, never()).processDeleteById(any(), any());
 	}
 	
 	@Test(expected = ApplicationException.class)
@@ -119,7 +144,7 @@ public class ShoppingListRepositoryTest {
 
 		//when
 		try {
-			testedRepo.findList(notExistingShoppingListId);
+			testedRepo.findList(notExistingShoppingListId, UUID.randomUUID());
 		} catch (ApplicationException ae) {
 		//then
 			assertApplicationException(ae, INFO, NOT_FOUND, expectedErrorMessage);
@@ -131,10 +156,10 @@ public class ShoppingListRepositoryTest {
 	public void findList_should_work_with_existing_list() {
 		//given
 		ShoppingList existingList = TestHelper.generateRandomShoppingList();
-		doReturn(existingList).when(testedRepo).getById(existingList.getId());
+		doReturn(existingList).when(testedRepo).getById(existingList.getId(), existingList.getOwnerId());
 
 		//when
-		ShoppingList result = testedRepo.findList(existingList.getId());
+		ShoppingList result = testedRepo.findList(existingList.getId(), existingList.getOwnerId());
 		
 		//then
 		assertThat(result).isEqualTo(existingList);
@@ -2,6 +2,7 @@ package yoan.shopping.list.repository.fake;
 
 import java.util.UUID;
 
+import yoan.shopping.list.ItemState;
 import yoan.shopping.list.ShoppingItem;
 import yoan.shopping.list.repository.ShoppingItemRepository;
 
@@ -13,14 +14,28 @@ import yoan.shopping.list.repository.ShoppingItemRepository;
 public class ShoppingItemFakeRepository extends ShoppingItemRepository {
 
 	@Override
-	protected void processCreate(UUID listId, ShoppingItem itemToCreate) { }
+	protected void processCreate(UUID listId, UUID ownerId, ShoppingItem itemToCreate) { }
 
 	@Override
-	protected ShoppingItem processGetById(UUID listId, UUID itemId) { return null; }
+	protected ShoppingItem processGetById(UUID listId, UUID ownerId, UUID itemId) { return null; }
 
 	@Override
-	protected void processUpdate(UUID listId, ShoppingItem itemToUpdate) { }
+	protected boolean processUpdate(UUID listId, UUID ownerId, ShoppingItem itemToUpdate) {
+		return false;
+	}
 
 	@Override
-	protected void processDeleteById(UUID listId, UUID itemId) { }
+	protected boolean processChangeState(UUID listId, UUID ownerId, UUID itemId, ItemState state) {
+		return false;
+	}
+
+	@Override
+	protected boolean processIncrementQuantity(UUID listId, UUID ownerId, UUID itemId, int increment) {
+		return false;
+	}
+
+	@Override
+	protected boolean processDeleteById(UUID listId, UUID ownerId, UUID itemId) {
+		return false;
+	}
 }
\ No newline at end of file
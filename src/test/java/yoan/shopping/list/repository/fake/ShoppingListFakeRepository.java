@@ -18,13 +18,17 @@ public class ShoppingListFakeRepository extends ShoppingListRepository {
 	protected void processCreate(ShoppingList listToCreate) { }
 
 	@Override
-	protected ShoppingList processGetById(UUID listId) { return null; }
+	protected ShoppingList processGetById(UUID listId, UUID ownerId) { return null; }
 
 	@Override
-	protected void processUpdate(ShoppingList listToUpdate) { }
+	protected boolean processUpdate(ShoppingList listToUpdate) {
+		return false;
+	}
 
 	@Override
-	protected void processDeleteById(UUID listId) { }
+	protected boolean processDeleteById(UUID listId, UUID ownerId) {
+		return false;
+	}
 
 	@Override
 	protected ImmutableList<ShoppingList> processGetByOwner(UUID ownerId) { return ImmutableList.<ShoppingList>of(); }
@@ -6,6 +6,7 @@ import static yoan.shopping.infra.db.mongo.MongoDocumentConverter.FIELD_ID;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorMessage.NOT_FOUND;
 import static yoan.shopping.infra.util.error.RepositoryErrorCode.ALREADY_EXISTING;
+import static yoan.shopping.list.ItemState.BOUGHT;
 import static yoan.shopping.list.repository.ShoppingItemRepositoryErrorMessage.PROBLEM_CREATION_ITEM_ALREADY_EXISTS;
 import static yoan.shopping.list.repository.mongo.ShoppingListMongoRepository.LIST_COLLECTION;
 
@@ -13,7 +14,6 @@ import java.util.UUID;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 
@@ -21,6 +21,7 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 
 import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.error.RepositoryErrorCode;
 import yoan.shopping.list.ShoppingItem;
 import yoan.shopping.list.ShoppingList;
 import yoan.shopping.test.TestHelper;
@@ -43,7 +44,7 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		ShoppingItem expectedShoppingItem = TestHelper.generateRandomShoppingItem();
 
 		//when
-		testedRepo.create(existingList.getId(), expectedShoppingItem);
+		testedRepo.create(existingList.getId(), existingList.getOwnerId(), expectedShoppingItem);
 		
 		//then
 		Bson filter = Filters.eq(FIELD_ID, existingList.getId());
@@ -63,12 +64,12 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		ShoppingList existingList = TestHelper.generateRandomShoppingList();
 		ShoppingItem alreadyExistingShoppingItem = existingList.getItemList().get(0);
 		listRepo.create(existingList);
-		existingList = listRepo.getById(existingList.getId());
+		existingList = listRepo.getById(existingList.getId(), existingList.getOwnerId());
 		String expectedMessage = PROBLEM_CREATION_ITEM_ALREADY_EXISTS.getDevReadableMessage(alreadyExistingShoppingItem.getId());
 		
 		//when
 		try {
-			testedRepo.create(existingList.getId(), alreadyExistingShoppingItem);
+			testedRepo.create(existingList.getId(), existingList.getOwnerId(), alreadyExistingShoppingItem);
 		} catch (ApplicationException ae) {
 		//then
 			TestHelper.assertApplicationException(ae, INFO, ALREADY_EXISTING, expectedMessage);
@@ -93,7 +94,7 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		
 		//when
 		try {
-			testedRepo.create(unknownListId, item);
+			testedRepo.create(unknownListId, UUID.randomUUID(), item);
 		} catch (ApplicationException ae) {
 		//then
 			assertThat(ae.getMessage()).contains( NOT_FOUND.getDevReadableMessage("List"));
@@ -116,7 +117,7 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		UUID notExistingShoppingItemId = UUID.randomUUID();
 
 		//when
-		ShoppingItem result = testedRepo.getById(existingList.getId(), notExistingShoppingItemId);
+		ShoppingItem result = testedRepo.getById(existingList.getId(), existingList.getOwnerId(), notExistingShoppingItemId);
 		
 		//then
 		assertThat(result).isNull();
@@ -131,7 +132,7 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 
 		//when
 		try {
-			testedRepo.getById(notExistingShoppingListId, notExistingShoppingItemId);
+			testedRepo.getById(notExistingShoppingListId, UUID.randomUUID(), notExistingShoppingItemId);
 		} catch (ApplicationException ae) {
 		//then
 			assertThat(ae.getMessage()).contains( NOT_FOUND.getDevReadableMessage("List"));
@@ -139,6 +140,24 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		}
 	}
 	
+	@Test(expected = ApplicationException.class)
+	public void getById_should_fail_with_list_of_another_owner() {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList otherOwnerList = TestHelper.generateRandomShoppingList();
+		listRepo.create(otherOwnerList);
+		ShoppingItem otherOwnerItem = otherOwnerList.getItemList().get(0);
+
+		//when
+		try {
+			testedRepo.getById(otherOwnerList.getId(), UUID.randomUUID(), otherOwnerItem.getId());
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(ae.getMessage()).contains(NOT_FOUND.getDevReadableMessage("List"));
+			throw ae;
+		}
+	}
+	
 	@Test
 	public void getById_should_work_with_existing_item_id() {
 		//given
@@ -148,7 +167,7 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		ShoppingItem expectedShoppingItem = existingList.getItemList().get(0);
 
 		//when
-		ShoppingItem result = testedRepo.getById(existingList.getId(), expectedShoppingItem.getId());
+		ShoppingItem result = testedRepo.getById(existingList.getId(), existingList.getOwnerId(), expectedShoppingItem.getId());
 		
 		//then
 		assertThat(result).isNotNull();
@@ -156,22 +175,21 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 	}
 	
 	@Test
-	@Ignore // passe avec embed mongo mais pas avec Fongo :(
 	public void update_should_work_with_existing_item() {
 		//given
 		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
 		ShoppingList existingList = TestHelper.generateRandomShoppingList();
 		listRepo.create(existingList);
-		existingList = listRepo.getById(existingList.getId());
+		existingList = listRepo.getById(existingList.getId(), existingList.getOwnerId());
 		ShoppingItem originalShoppingItem = existingList.getItemList().get(0);
 		String modifiedName = "new " + originalShoppingItem.getName();
 		ShoppingItem modifiedShoppingItem = ShoppingItem.Builder.createFrom(originalShoppingItem).withName(modifiedName).build();
 
 		//when
-		testedRepo.update(existingList.getId(), modifiedShoppingItem);
+		testedRepo.update(existingList.getId(), existingList.getOwnerId(), modifiedShoppingItem);
 		
 		//then
-		ShoppingItem result = testedRepo.getById(existingList.getId(),originalShoppingItem.getId());
+		ShoppingItem result = testedRepo.getById(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId());
 		assertThat(result).isNotNull();
 		assertThat(result.getName()).isEqualTo(modifiedName);
 		assertThat(result).isEqualTo(modifiedShoppingItem);
@@ -181,6 +199,144 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		assertThat(result.getLastUpdate().isAfter(originalShoppingItem.getLastUpdate())).isTrue();
 	}
 	
+	@Test(expected = ApplicationException.class)
+	public void update_should_fail_with_not_existing_item() {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList existingList = TestHelper.generateRandomShoppingList();
+		listRepo.create(existingList);
+		ShoppingItem notExistingItem = TestHelper.generateRandomShoppingItem();
+
+		//when
+		try {
+			testedRepo.update(existingList.getId(), existingList.getOwnerId(), notExistingItem);
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(ae.getMessage()).contains(NOT_FOUND.getDevReadableMessage("Item"));
+			ShoppingList list = listRepo.getById(existingList.getId(), existingList.getOwnerId());
+			assertThat(list.getItemList()).isEqualTo(existingList.getItemList());
+			throw ae;
+		}
+	}
+	
+	@Test
+	public void changeState_should_only_change_the_item_state() throws InterruptedException {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList existingList = TestHelper.generateRandomShoppingList();
+		listRepo.create(existingList); Thread.sleep(1);
+		existingList = listRepo.getById(existingList.getId(), existingList.getOwnerId());
+		ShoppingItem originalShoppingItem = existingList.getItemList().get(0);
+
+		//when
+		testedRepo.changeState(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId(), BOUGHT);
+		
+		//then
+		ShoppingItem result = testedRepo.getById(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId());
+		assertThat(result.getState()).isEqualTo(BOUGHT);
+		assertThat(result.getName()).isEqualTo(originalShoppingItem.getName());
+		assertThat(result.getQuantity()).isEqualTo(originalShoppingItem.getQuantity());
+		assertThat(result.getCreationDate()).isEqualTo(originalShoppingItem.getCreationDate());
+		assertThat(result.getLastUpdate().isAfter(originalShoppingItem.getLastUpdate())).isTrue();
+		ShoppingList list = listRepo.getById(existingList.getId(), existingList.getOwnerId());
+		assertThat(list.getLastUpdate().isAfter(existingList.getLastUpdate())).isTrue();
+	}
+	
+	@Test(expected = ApplicationException.class)
+	public void changeState_should_fail_with_item_of_another_owner() {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList otherOwnerList = TestHelper.generateRandomShoppingList();
+		listRepo.create(otherOwnerList);
+		ShoppingItem otherOwnerItem = otherOwnerList.getItemList().get(0);
+
+		//when
+		try {
+			testedRepo.changeState(otherOwnerList.getId(), UUID.randomUUID(), otherOwnerItem.getId(), BOUGHT);
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(ae.getMessage()).contains(NOT_FOUND.getDevReadableMessage("Item"));
+			ShoppingItem result = testedRepo.getById(otherOwnerList.getId(), otherOwnerList.getOwnerId(), otherOwnerItem.getId());
+			assertThat(result.getState()).isEqualTo(otherOwnerItem.getState());
+			throw ae;
+		}
+	}
+	
+	@Test
+	public void incrementQuantity_should_add_up_the_increments() {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList existingList = TestHelper.generateRandomShoppingList();
+		listRepo.create(existingList);
+		ShoppingItem originalShoppingItem = existingList.getItemList().get(0);
+
+		//when
+		testedRepo.incrementQuantity(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId(), 3);
+		testedRepo.incrementQuantity(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId(), 2);
+		testedRepo.incrementQuantity(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId(), -1);
+		
+		//then
+		ShoppingItem result = testedRepo.getById(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId());
+		assertThat(result.getQuantity()).isEqualTo(originalShoppingItem.getQuantity() + 4);
+		assertThat(result.getName()).isEqualTo(originalShoppingItem.getName());
+		assertThat(result.getState()).isEqualTo(originalShoppingItem.getState());
+	}
+	
+	@Test(expected = ApplicationException.class)
+	public void incrementQuantity_should_fail_with_not_existing_item() {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList existingList = TestHelper.generateRandomShoppingList();
+		listRepo.create(existingList);
+
+		//when
+		try {
+			testedRepo.incrementQuantity(existingList.getId(), existingList.getOwnerId(), UUID.randomUUID(), 1);
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(ae.getMessage()).contains(NOT_FOUND.getDevReadableMessage("Item"));
+			ShoppingList list = listRepo.getById(existingList.getId(), existingList.getOwnerId());
+			assertThat(list.getItemList()).isEqualTo(existingList.getItemList());
+			throw ae;
+		}
+	}
+	
+	@Test(expected = ApplicationException.class)
+	public void incrementQuantity_should_not_remove_more_than_the_item_quantity() {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList existingList = TestHelper.generateRandomShoppingList();
+		listRepo.create(existingList);
+		ShoppingItem originalShoppingItem = existingList.getItemList().get(0);
+
+		//when
+		try {
+			testedRepo.incrementQuantity(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId(), -(originalShoppingItem.getQuantity() + 1));
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(ae.getErrorCode()).isEqualTo(RepositoryErrorCode.CONFLICT);
+			ShoppingItem result = testedRepo.getById(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId());
+			assertThat(result.getQuantity()).isEqualTo(originalShoppingItem.getQuantity());
+			throw ae;
+		}
+	}
+	
+	@Test
+	public void incrementQuantity_should_remove_the_whole_item_quantity() {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList existingList = TestHelper.generateRandomShoppingList();
+		listRepo.create(existingList);
+		ShoppingItem originalShoppingItem = existingList.getItemList().get(0);
+
+		//when
+		testedRepo.incrementQuantity(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId(), -originalShoppingItem.getQuantity());
+		
+		//then
+		ShoppingItem result = testedRepo.getById(existingList.getId(), existingList.getOwnerId(), originalShoppingItem.getId());
+		assertThat(result.getQuantity()).isEqualTo(0);
+	}
+	
 	@Test
 	public void deleteById_should_not_fail_with_not_existing_item_id() {
 		//given
@@ -190,10 +346,10 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		UUID notExistingShoppingItemId = UUID.randomUUID();
 
 		//when
-		testedRepo.deleteById(existingList.getId(), notExistingShoppingItemId);
+		boolean deleted = testedRepo.deleteById(existingList.getId(), existingList.getOwnerId(), notExistingShoppingItemId);
 		
 		//then
-		//should not have failed
+		assertThat(deleted).isFalse();
 	}
 	
 	@Test
@@ -204,10 +360,27 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		UUID notExistingShoppingItemId = UUID.randomUUID();
 
 		//when
-		testedRepo.deleteById(notExistingShoppingListId, notExistingShoppingItemId);
+		boolean deleted = testedRepo.deleteById(notExistingShoppingListId, UUID.randomUUID(), notExistingShoppingItemId);
+		
+		//then
+		assertThat(deleted).isFalse();
+	}
+	
+	@Test
+	public void deleteById_should_not_delete_item_of_another_owner() {
+		//given
+		ShoppingItemMongoRepository testedRepo = new ShoppingItemMongoRepository(connectionFactory, listRepo);
+		ShoppingList otherOwnerList = TestHelper.generateRandomShoppingList();
+		listRepo.create(otherOwnerList);
+		ShoppingItem otherOwnerItem = otherOwnerList.getItemList().get(0);
+
+		//when
+		boolean deleted = testedRepo.deleteById(otherOwnerList.getId(), UUID.randomUUID(), otherOwnerItem.getId());
 		
 		//then
-		//should not have failed
+		assertThat(deleted).isFalse();
+		ShoppingItem result = testedRepo.getById(otherOwnerList.getId(), otherOwnerList.getOwnerId(), otherOwnerItem.getId());
+		assertThat(result).isEqualTo(otherOwnerItem);
 	}
 	
 	@Test
@@ -219,14 +392,15 @@ public class ShoppingItemMongoRepositoryTest extends FongoBackedTest {
 		ShoppingItem existingShoppingItem = existingList.getItemList().get(0);
 
 		//when
-		testedRepo.deleteById(existingList.getId(), existingShoppingItem.getId());
+		boolean deleted = testedRepo.deleteById(existingList.getId(), existingList.getOwnerId(), existingShoppingItem.getId());
 		
 		//then
-		ShoppingList list = listRepo.getById(existingList.getId());
+		assertThat(deleted).isTrue();
+		ShoppingList list = listRepo.getById(existingList.getId(), existingList.getOwnerId());
 		assertThat(list).isNotNull();
 		//last update date should have been updated
 		assertThat(list.getLastUpdate().isAfter(existingList.getLastUpdate())).isTrue();
-		ShoppingItem result = testedRepo.getById(existingList.getId(), existingShoppingItem.getId());
+		ShoppingItem result = testedRepo.getById(existingList.getId(), existingList.getOwnerId(), existingShoppingItem.getId());
 		assertThat(result).isNull();
 	}
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package yoan.shopping.list.repository.mongo;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static yoan.shopping.infra.db.Dbs.SHOPPING;
 import static yoan.shopping.infra.db.mongo.MongoDocumentConverter.FIELD_ID;
+import static yoan.shopping.infra.util.error.CommonErrorMessage.NOT_FOUND;
 import static yoan.shopping.list.repository.ShoppingListRepositoryErrorMessage.PROBLEM_CREATION_LIST;
+import static yoan.shopping.list.repository.mongo.ShoppingListMongoConverter.FIELD_OWNER_ID;
 import static yoan.shopping.list.repository.mongo.ShoppingListMongoRepository.LIST_COLLECTION;
 
 import java.util.List;
@@ -22,6 +24,7 @@ import yoan.shopping.test.fongo.FongoBackedTest;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.mongodb.Block;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 
@@ -77,7 +80,7 @@ public class ShoppingListMongoRepositoryTest extends FongoBackedTest {
 		UUID notExistingShoppingListId = UUID.randomUUID();
 
 		//when
-		ShoppingList result = testedRepo.getById(notExistingShoppingListId);
+		ShoppingList result = testedRepo.getById(notExistingShoppingListId, UUID.randomUUID());
 		
 		//then
 		assertThat(result).isNull();
@@ -90,19 +93,32 @@ public class ShoppingListMongoRepositoryTest extends FongoBackedTest {
 		testedRepo.create(expectedShoppingList);
 
 		//when
-		ShoppingList result = testedRepo.getById(expectedShoppingList.getId());
+		ShoppingList result = testedRepo.getById(expectedShoppingList.getId(), expectedShoppingList.getOwnerId());
 		
 		//then
 		assertThat(result).isNotNull();
 		assertThat(result).isEqualTo(expectedShoppingList);
 	}
 	
+	@Test
+	public void getById_should_return_null_with_list_of_another_owner() {
+		//given
+		ShoppingList otherOwnerList = TestHelper.generateRandomShoppingList();
+		testedRepo.create(otherOwnerList);
+
+		//when
+		ShoppingList result = testedRepo.getById(otherOwnerList.getId(), UUID.randomUUID());
+		
+		//then
+		assertThat(result).isNull();
+	}
+	
 	@Test
 	public void update_should_work_with_existing_list() throws InterruptedException {
 		//given
 		ShoppingList originalShoppingList = TestHelper.generateRandomShoppingList();
 		testedRepo.create(originalShoppingList);
-		originalShoppingList = testedRepo.getById(originalShoppingList.getId());
+		originalShoppingList = testedRepo.getById(originalShoppingList.getId(), originalShoppingList.getOwnerId());
 		String modifiedName = "new " + originalShoppingList.getName();
 		ShoppingList modifiedShoppingList = ShoppingList.Builder.createFrom(originalShoppingList).withName(modifiedName).build();
 		Thread.sleep(1);
@@ -111,7 +127,7 @@ public class ShoppingListMongoRepositoryTest extends FongoBackedTest {
 		testedRepo.update(modifiedShoppingList);
 		
 		//then
-		ShoppingList result = testedRepo.getById(originalShoppingList.getId());
+		ShoppingList result = testedRepo.getById(originalShoppingList.getId(), originalShoppingList.getOwnerId());
 		assertThat(result).isNotNull();
 		assertThat(result.getName()).isEqualTo(modifiedName);
 		assertThat(result).isEqualTo(modifiedShoppingList);
@@ -126,7 +142,7 @@ public class ShoppingListMongoRepositoryTest extends FongoBackedTest {
 		//given
 		ShoppingList originalShoppingList = TestHelper.generateRandomShoppingList();
 		testedRepo.create(originalShoppingList);
-		originalShoppingList = testedRepo.getById(originalShoppingList.getId());
+		originalShoppingList = testedRepo.getById(originalShoppingList.getId(), originalShoppingList.getOwnerId());
 		List<ShoppingItem> modifiedList = Lists.newArrayList(originalShoppingList.getItemList());
 		ShoppingItem modifiedItem = modifiedList.get(0);
 		modifiedItem = ShoppingItem.Builder.createFrom(modifiedItem).withName("new " + modifiedItem.getName()).build();
@@ -138,7 +154,7 @@ public class ShoppingListMongoRepositoryTest extends FongoBackedTest {
 		testedRepo.update(modifiedShoppingList);
 		
 		//then
-		ShoppingList result = testedRepo.getById(originalShoppingList.getId());
+		ShoppingList result = testedRepo.getById(originalShoppingList.getId(), originalShoppingList.getOwnerId());
 		assertThat(result).isNotNull();
 		assertThat(result.getItemList().get(0)).isEqualTo(modifiedItem);
 		assertThat(result).isEqualTo(modifiedShoppingList);
@@ -148,16 +164,37 @@ public class ShoppingListMongoRepositoryTest extends FongoBackedTest {
 		assertThat(result.getLastUpdate().isAfter(originalShoppingList.getLastUpdate())).isTrue();
 	}
 	
+	@Test(expected = ApplicationException.class)
+	public void update_should_fail_with_list_of_another_owner() {
+		//given
+		ShoppingList otherOwnerList = TestHelper.generateRandomShoppingList();
+		testedRepo.create(otherOwnerList);
+		otherOwnerList = testedRepo.getById(otherOwnerList.getId(), otherOwnerList.getOwnerId());
+		ShoppingList modifiedShoppingList = ShoppingList.Builder.createFrom(otherOwnerList).withOwnerId(UUID.randomUUID()).withName("new name").build();
+		
+		//when
+		try {
+			testedRepo.update(modifiedShoppingList);
+		} catch (ApplicationException ae) {
+		//then
+			assertThat(ae.getMessage()).isEqualTo(NOT_FOUND.getDevReadableMessage("List"));
+			throw ae;
+		} finally {
+			ShoppingList result = testedRepo.getById(otherOwnerList.getId(), otherOwnerList.getOwnerId());
+			assertThat(result).isEqualTo(otherOwnerList);
+		}
+	}
+	
 	@Test
 	public void deleteById_should_not_fail_with_not_existing_list_id() {
 		//given
 		UUID notExistingShoppingListId = UUID.randomUUID();
 
 		//when
-		testedRepo.deleteById(notExistingShoppingListId);
+		boolean deleted = testedRepo.deleteById(notExistingShoppingListId, UUID.randomUUID());
 		
 		//then
-		//should not have failed
+		assertThat(deleted).isFalse();
 	}
 	
 	@Test
@@ -167,13 +204,29 @@ public class ShoppingListMongoRepositoryTest extends FongoBackedTest {
 		testedRepo.create(existingShoppingList);
 
 		//when
-		testedRepo.deleteById(existingShoppingList.getId());
+		boolean deleted = testedRepo.deleteById(existingShoppingList.getId(), existingShoppingList.getOwnerId());
 		
 		//then
-		ShoppingList result = testedRepo.getById(existingShoppingList.getId());
+		assertThat(deleted).isTrue();
+		ShoppingList result = testedRepo.getById(existingShoppingList.getId(), existingShoppingList.getOwnerId());
 		assertThat(result).isNull();
 	}
 	
+	@Test
+	public void deleteById_should_not_delete_list_of_another_owner() {
+		//given
+		ShoppingList otherOwnerList = TestHelper.generateRandomShoppingList();
+		testedRepo.create(otherOwnerList);
+
+		//when
+		boolean deleted = testedRepo.deleteById(otherOwnerList.getId(), UUID.randomUUID());
+		
+		//then
+		assertThat(deleted).isFalse();
+		ShoppingList result = testedRepo.getById(otherOwnerList.getId(), otherOwnerList.getOwnerId());
+		assertThat(result).isNotNull();
+	}
+	
 	@Test
 	public void getByOwner_should_return_empty_list_if_no_list_found() {
 		//given
@@ -207,4 +260,17 @@ public class ShoppingListMongoRepositoryTest extends FongoBackedTest {
 		assertThat(result).hasSize(2);
 		assertThat(result).containsExactly(expectedShoppingList1, expectedShoppingList2);
 	}
+	
+	@Test
+	public void new_should_index_lists_by_owner_then_id() {
+		//given
+		Document expectedIndexKey = new Document(FIELD_OWNER_ID, 1).append(FIELD_ID, 1);
+
+		//when
+		List<Document> indexKeys = Lists.newArrayList();
+		listCollection.listIndexes().forEach((Block<Document>) index -> indexKeys.add((Document) index.get("key")));
+		
+		//then
+		assertThat(indexKeys).contains(expectedIndexKey);
+	}
 }
\ No newline at end of file
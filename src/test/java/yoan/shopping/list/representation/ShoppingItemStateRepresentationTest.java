@@ -0,0 +1,77 @@
+package yoan.shopping.list.representation;
+
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static yoan.shopping.infra.rest.error.Level.ERROR;
+import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.CommonErrorMessage.INVALID;
+import static yoan.shopping.list.ItemState.BOUGHT;
+
+import org.junit.Test;
+
+import yoan.shopping.infra.rest.error.WebApiException;
+import yoan.shopping.list.ItemState;
+import yoan.shopping.test.TestHelper;
+
+public class ShoppingItemStateRepresentationTest {
+	
+	@Test(expected = WebApiException.class)
+	public void toItemState_should_fail_without_representation() {
+		//given
+		ShoppingItemStateRepresentation nullRepresentation = null;
+		String expectedMessage = INVALID.getDevReadableMessage("item state");
+		
+		//when
+		try {
+			ShoppingItemStateRepresentation.toItemState(nullRepresentation);
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, ERROR, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void toItemState_should_fail_without_item_state() {
+		//given
+		ShoppingItemStateRepresentation missingStateRepresentation = new ShoppingItemStateRepresentation();
+		String expectedMessage = INVALID.getDevReadableMessage("item state");
+		
+		//when
+		try {
+			ShoppingItemStateRepresentation.toItemState(missingStateRepresentation);
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, ERROR, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void toItemState_should_fail_with_unknow_item_state() {
+		//given
+		ShoppingItemStateRepresentation invalidRepresentation = new ShoppingItemStateRepresentation("unknown");
+		String expectedMessage = INVALID.getDevReadableMessage("item state");
+		
+		//when
+		try {
+			ShoppingItemStateRepresentation.toItemState(invalidRepresentation);
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, ERROR, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
+	@Test
+	public void toItemState_should_work() {
+		//given
+		ShoppingItemStateRepresentation representation = new ShoppingItemStateRepresentation(BOUGHT.name());
+		
+		//when
+		ItemState result = ShoppingItemStateRepresentation.toItemState(representation);
+		
+		//then
+		assertThat(result).isEqualTo(BOUGHT);
+	}
+}
@@ -8,8 +8,11 @@ import static javax.ws.rs.core.Response.Status.OK;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
+import static yoan.shopping.infra.rest.error.Level.ERROR;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.CommonErrorMessage.INVALID;
+import static yoan.shopping.list.ItemState.BOUGHT;
 import static yoan.shopping.list.ItemState.TO_BUY;
 import static yoan.shopping.list.resource.ShoppingItemResourceErrorMessage.ITEM_NOT_FOUND;
 
@@ -24,15 +27,21 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.inject.util.Providers;
+
 import yoan.shopping.infra.rest.Link;
 import yoan.shopping.infra.rest.RestRepresentation;
 import yoan.shopping.infra.rest.error.WebApiException;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.infra.util.error.ErrorMessage;
 import yoan.shopping.infra.util.error.RepositoryErrorCode;
+import yoan.shopping.list.ItemState;
 import yoan.shopping.list.ShoppingItem;
 import yoan.shopping.list.repository.ShoppingItemRepository;
+import yoan.shopping.list.repository.fake.ShoppingItemFakeRepository;
+import yoan.shopping.list.representation.ShoppingItemQuantityRepresentation;
 import yoan.shopping.list.representation.ShoppingItemRepresentation;
+import yoan.shopping.list.representation.ShoppingItemStateRepresentation;
 import yoan.shopping.list.representation.ShoppingItemWriteRepresentation;
 import yoan.shopping.test.TestHelper;
 import yoan.shopping.user.User;
@@ -44,7 +53,11 @@ public class ShoppingItemResourceTest {
 	ShoppingItemRepository mockeItemRepo;
 	
 	private ShoppingItemResource getShoppingItemResource(User connectedUser) {
-		ShoppingItemResource testedResource = new ShoppingItemResource(connectedUser, mockeItemRepo);
+		return getShoppingItemResource(connectedUser, mockeItemRepo);
+	}
+	
+	private ShoppingItemResource getShoppingItemResource(User connectedUser, ShoppingItemRepository itemRepo) {
+		ShoppingItemResource testedResource = new ShoppingItemResource(Providers.of(connectedUser), itemRepo);
 		return spy(testedResource);
 	}
 	
@@ -220,11 +233,12 @@ public class ShoppingItemResourceTest {
 		//given
 		UUID listId = UUID.randomUUID();
 		UUID existingId = UUID.randomUUID();
-		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
+		User connectedUser = TestHelper.generateRandomUser();
+		ShoppingItemResource testedResource = getShoppingItemResource(connectedUser);
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		ShoppingItem existingShoppingItem = ShoppingItem.Builder.createDefault().withId(existingId).build();
-		when(mockeItemRepo.getById(listId, existingId)).thenReturn(existingShoppingItem);
+		when(mockeItemRepo.getById(listId, connectedUser.getId(), existingId)).thenReturn(existingShoppingItem);
 		
 		//when
 		Response response = testedResource.getById(listId.toString(), existingId.toString());
@@ -251,9 +265,13 @@ public class ShoppingItemResourceTest {
 		
 		@SuppressWarnings("deprecation")
 		ShoppingItemWriteRepresentation representation = new ShoppingItemWriteRepresentation(expectedID, expectedName, expectedQuantity, expectedState);
-		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
-		ShoppingItem existingShoppingItem = ShoppingItem.Builder.createDefault().withId(expectedID).build();
-		when(mockeItemRepo.getById(listId, expectedID)).thenReturn(existingShoppingItem);
+		ShoppingItemRepository itemRepo = new ShoppingItemFakeRepository() {
+			@Override
+			protected boolean processUpdate(UUID listId, UUID ownerId, ShoppingItem itemToUpdate) {
+				return true;
+			}
+		};
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser(), itemRepo);
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -323,6 +341,181 @@ public class ShoppingItemResourceTest {
 		}
 	}
 	
+	@Test
+	public void changeState_should_work_with_existing_item() {
+		//given
+		UUID listId = UUID.randomUUID();
+		UUID itemId = UUID.randomUUID();
+		ShoppingItemStateRepresentation representation = new ShoppingItemStateRepresentation(BOUGHT.name());
+		ShoppingItemRepository itemRepo = new ShoppingItemFakeRepository() {
+			@Override
+			protected boolean processChangeState(UUID listId, UUID ownerId, UUID itemId, ItemState state) {
+				return true;
+			}
+		};
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser(), itemRepo);
+		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
+		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
+		
+		//when
+		Response response = testedResource.changeState(listId.toString(), itemId.toString(), representation);
+		
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(NO_CONTENT.getStatusCode());
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void changeState_should_return_400_with_invalid_state() {
+		//given
+		String listIdStr = UUID.randomUUID().toString();
+		String itemIdStr = UUID.randomUUID().toString();
+		ShoppingItemStateRepresentation invalidRepresentation = new ShoppingItemStateRepresentation("unknown");
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
+		String expectedMessage = INVALID.getDevReadableMessage("item state");
+		
+		//when
+		try {
+			testedResource.changeState(listIdStr, itemIdStr, invalidRepresentation);
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, ERROR, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void changeState_should_return_400_with_invalid_item_Id() {
+		//given
+		String listIdStr = UUID.randomUUID().toString();
+		String invalidId = "invalid ID";
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
+		String expectedMessage = "Invalid Param named itemId : invalid ID";
+		
+		//when
+		try {
+			testedResource.changeState(listIdStr, invalidId, new ShoppingItemStateRepresentation(BOUGHT.name()));
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, INFO, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
+	@Test(expected = ApplicationException.class)
+	public void changeState_should_return_404_with_unknown_item() {
+		//given
+		String listIdStr = UUID.randomUUID().toString();
+		String itemIdStr = UUID.randomUUID().toString();
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser(), new ShoppingItemFakeRepository());
+		String expectedMessage = "Item not found";
+		
+		//when
+		try {
+			testedResource.changeState(listIdStr, itemIdStr, new ShoppingItemStateRepresentation(BOUGHT.name()));
+		} catch(ApplicationException ae) {
+		//then
+			TestHelper.assertApplicationException(ae, INFO, RepositoryErrorCode.NOT_FOUND, expectedMessage);
+			throw ae;
+		}
+	}
+	
+	@Test
+	public void incrementQuantity_should_work_with_existing_item() {
+		//given
+		UUID listId = UUID.randomUUID();
+		UUID itemId = UUID.randomUUID();
+		ShoppingItemQuantityRepresentation representation = new ShoppingItemQuantityRepresentation(2);
+		ShoppingItemRepository itemRepo = new ShoppingItemFakeRepository() {
+			@Override
+			protected boolean processIncrementQuantity(UUID listId, UUID ownerId, UUID itemId, int increment) {
+				return true;
+			}
+		};
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser(), itemRepo);
+		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
+		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
+		
+		//when
+		Response response = testedResource.incrementQuantity(listId.toString(), itemId.toString(), representation);
+		
+		//then
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(NO_CONTENT.getStatusCode());
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void incrementQuantity_should_return_400_without_quantity() {
+		//given
+		String listIdStr = UUID.randomUUID().toString();
+		String itemIdStr = UUID.randomUUID().toString();
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
+		String expectedMessage = INVALID.getDevReadableMessage("item quantity");
+		
+		//when
+		try {
+			testedResource.incrementQuantity(listIdStr, itemIdStr, null);
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, ERROR, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void incrementQuantity_should_return_400_without_increment() {
+		//given
+		String listIdStr = UUID.randomUUID().toString();
+		String itemIdStr = UUID.randomUUID().toString();
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
+		String expectedMessage = INVALID.getDevReadableMessage("item quantity");
+		
+		//when
+		try {
+			testedResource.incrementQuantity(listIdStr, itemIdStr, new ShoppingItemQuantityRepresentation());
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, ERROR, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void incrementQuantity_should_return_400_with_zero_increment() {
+		//given
+		String listIdStr = UUID.randomUUID().toString();
+		String itemIdStr = UUID.randomUUID().toString();
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
+		String expectedMessage = INVALID.getDevReadableMessage("item quantity");
+		
+		//when
+		try {
+			testedResource.incrementQuantity(listIdStr, itemIdStr, new ShoppingItemQuantityRepresentation(0));
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, ERROR, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
+	@Test(expected = WebApiException.class)
+	public void incrementQuantity_should_return_400_with_invalid_list_Id() {
+		//given
+		String invalidListId = "invalid ID";
+		String itemIdStr = UUID.randomUUID().toString();
+		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
+		String expectedMessage = "Invalid Param named listId : invalid ID";
+		
+		//when
+		try {
+			testedResource.incrementQuantity(invalidListId, itemIdStr, new ShoppingItemQuantityRepresentation(1));
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, BAD_REQUEST, INFO, API_RESPONSE, expectedMessage);
+			throw wae;
+		}
+	}
+	
 	@Test(expected = WebApiException.class)
 	public void deleteById_should_return_400_with_invalid_item_Id() {
 		//given
@@ -382,9 +575,9 @@ public class ShoppingItemResourceTest {
 		//given
 		UUID listId = UUID.randomUUID();
 		UUID existingId = UUID.randomUUID();
-		ShoppingItemResource testedResource = getShoppingItemResource(TestHelper.generateRandomUser());
-		ShoppingItem existingShoppingItem = ShoppingItem.Builder.createDefault().withId(existingId).build();
-		when(mockeItemRepo.getById(listId, existingId)).thenReturn(existingShoppingItem);
+		User connectedUser = TestHelper.generateRandomUser();
+		ShoppingItemResource testedResource = getShoppingItemResource(connectedUser);
+		when(mockeItemRepo.deleteById(listId, connectedUser.getId(), existingId)).thenReturn(true);
 		
 		//when
 		Response response = testedResource.deleteById(listId.toString(), existingId.toString());
@@ -2,6 +2,7 @@ package yoan.shopping.list.resource;
 
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.FORBIDDEN;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
@@ -12,6 +13,7 @@ import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
 import static yoan.shopping.list.resource.ShoppingListResourceErrorMessage.LISTS_NOT_FOUND;
 import static yoan.shopping.list.resource.ShoppingListResourceErrorMessage.LIST_NOT_FOUND;
+import static yoan.shopping.list.resource.ShoppingListResourceErrorMessage.NOT_LIST_OWNER;
 
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +28,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.inject.util.Providers;
 
 import yoan.shopping.infra.rest.Link;
 import yoan.shopping.infra.rest.RestRepresentation;
@@ -35,6 +38,7 @@ import yoan.shopping.infra.util.error.ErrorMessage;
 import yoan.shopping.infra.util.error.RepositoryErrorCode;
 import yoan.shopping.list.ShoppingList;
 import yoan.shopping.list.repository.ShoppingListRepository;
+import yoan.shopping.list.repository.fake.ShoppingListFakeRepository;
 import yoan.shopping.list.representation.ShoppingItemRepresentation;
 import yoan.shopping.list.representation.ShoppingListRepresentation;
 import yoan.shopping.list.representation.ShoppingListWriteRepresentation;
@@ -47,8 +51,14 @@ public class ShoppingListResourceTest {
 	@Mock
 	ShoppingListRepository mockeListRepo;
 	
-	private ShoppingListResource getShoppingListResource(User connectedUser) {
-		ShoppingListResource testedResource = new ShoppingListResource(connectedUser, mockeListRepo);
+	private final User connectedUser = TestHelper.generateRandomUser();
+	
+	private ShoppingListResource getShoppingListResource() {
+		return getShoppingListResource(mockeListRepo);
+	}
+	
+	private ShoppingListResource getShoppingListResource(ShoppingListRepository listRepo) {
+		ShoppingListResource testedResource = new ShoppingListResource(Providers.of(connectedUser), listRepo);
 		return spy(testedResource);
 	}
 	
@@ -57,7 +67,7 @@ public class ShoppingListResourceTest {
 		//given
 		String expectedURL = "http://test";
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo(expectedURL);
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
 		//when
@@ -74,8 +84,7 @@ public class ShoppingListResourceTest {
 		//given
 		String expectedURL = "http://test";
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo(expectedURL);
-		User connectedUser = TestHelper.generateRandomUser();
-		ShoppingListResource testedResource = getShoppingListResource(connectedUser);
+		ShoppingListResource testedResource = getShoppingListResource();
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
 		//when
@@ -93,10 +102,10 @@ public class ShoppingListResourceTest {
 	public void create_should_work_with_valid_input_representation() {
 		//given
 		String expectedName = "name";
-		UUID expectedOwnerId = UUID.randomUUID();
+		UUID expectedOwnerId = connectedUser.getId();
 		@SuppressWarnings("deprecation")
 		ShoppingListWriteRepresentation representation = new ShoppingListWriteRepresentation(expectedName, expectedOwnerId, Lists.newArrayList());
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -113,11 +122,28 @@ public class ShoppingListResourceTest {
 		assertThat(listRepresentation.getOwnerId()).isEqualTo(expectedOwnerId);
 	}
 	
+	@Test(expected = WebApiException.class)
+	public void create_should_return_403_with_list_of_another_user() {
+		//given
+		@SuppressWarnings("deprecation")
+		ShoppingListWriteRepresentation representation = new ShoppingListWriteRepresentation("name", UUID.randomUUID(), Lists.newArrayList());
+		ShoppingListResource testedResource = getShoppingListResource();
+		
+		//when
+		try {
+			testedResource.create(representation);
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, FORBIDDEN, INFO, API_RESPONSE, NOT_LIST_OWNER);
+			throw wae;
+		}
+	}
+	
 	@Test(expected = WebApiException.class)
 	public void getById_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		String expectedMessage = "Invalid Param named listId : invalid ID";
 		
 		//when
@@ -134,7 +160,7 @@ public class ShoppingListResourceTest {
 	public void getById_should_return_404_with_unknown_list_Id() {
 		//given
 		String unknownId = UUID.randomUUID().toString();
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		ErrorMessage expectedMessage = ShoppingListResourceErrorMessage.LIST_NOT_FOUND;
 		
 		//when
@@ -147,15 +173,32 @@ public class ShoppingListResourceTest {
 		}
 	}
 	
+	@Test(expected = WebApiException.class)
+	public void getById_should_return_404_with_list_of_another_user() {
+		//given
+		ShoppingList otherUserList = TestHelper.generateRandomShoppingList();
+		when(mockeListRepo.getById(otherUserList.getId(), otherUserList.getOwnerId())).thenReturn(otherUserList);
+		ShoppingListResource testedResource = getShoppingListResource();
+		
+		//when
+		try {
+			testedResource.getById(otherUserList.getId().toString());
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, NOT_FOUND, INFO, API_RESPONSE, LIST_NOT_FOUND);
+			throw wae;
+		}
+	}
+	
 	@Test
 	public void getById_should_work_with_existing_list_Id() {
 		//given
 		UUID existingId = UUID.randomUUID();
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
-		ShoppingList existingShoppingList = ShoppingList.Builder.createDefault().withId(existingId).build();
-		when(mockeListRepo.getById(existingId)).thenReturn(existingShoppingList);
+		ShoppingList existingShoppingList = ShoppingList.Builder.createDefault().withId(existingId).withOwnerId(connectedUser.getId()).build();
+		when(mockeListRepo.getById(existingId, connectedUser.getId())).thenReturn(existingShoppingList);
 		
 		//when
 		Response response = testedResource.getById(existingId.toString());
@@ -176,12 +219,16 @@ public class ShoppingListResourceTest {
 		//given
 		UUID expectedID = UUID.randomUUID();
 		String expectedName = "name";
-		UUID expectedOwnerId = UUID.randomUUID();
+		UUID expectedOwnerId = connectedUser.getId();
 		@SuppressWarnings("deprecation")
 		ShoppingListWriteRepresentation representation = new ShoppingListWriteRepresentation(expectedName, expectedOwnerId, Lists.newArrayList());
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
-		ShoppingList existingShoppingList = ShoppingList.Builder.createDefault().withId(expectedID).build();
-		when(mockeListRepo.getById(expectedID)).thenReturn(existingShoppingList);
+		ShoppingListRepository listRepo = new ShoppingListFakeRepository() {
+			@Override
+			protected boolean processUpdate(ShoppingList listToUpdate) {
+				return true;
+			}
+		};
+		ShoppingListResource testedResource = getShoppingListResource(listRepo);
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -193,13 +240,31 @@ public class ShoppingListResourceTest {
 		assertThat(response.getStatus()).isEqualTo(NO_CONTENT.getStatusCode());
 	}
 	
+	@Test(expected = WebApiException.class)
+	public void update_should_return_403_with_list_of_another_user() {
+		//given
+		String listId = UUID.randomUUID().toString();
+		@SuppressWarnings("deprecation")
+		ShoppingListWriteRepresentation representation = new ShoppingListWriteRepresentation("name", UUID.randomUUID(), Lists.newArrayList());
+		ShoppingListResource testedResource = getShoppingListResource();
+		
+		//when
+		try {
+			testedResource.update(listId, representation);
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, FORBIDDEN, INFO, API_RESPONSE, NOT_LIST_OWNER);
+			throw wae;
+		}
+	}
+	
 	@Test(expected = WebApiException.class)
 	public void update_should_return_400_with_input_representation_with_invalid_id() {
 		//given
 		String invalidListId = "invalid";
 		@SuppressWarnings("deprecation")
 		ShoppingListWriteRepresentation representation = new ShoppingListWriteRepresentation("name", UUID.randomUUID(), Lists.newArrayList());
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		String expectedMessage = "Invalid Param named listId : invalid";
 		
 		//when
@@ -217,8 +282,8 @@ public class ShoppingListResourceTest {
 		//given
 		String unknownListId = UUID.randomUUID().toString();
 		@SuppressWarnings("deprecation")
-		ShoppingListWriteRepresentation representation = new ShoppingListWriteRepresentation("name", UUID.randomUUID(), Lists.newArrayList());
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListWriteRepresentation representation = new ShoppingListWriteRepresentation("name", connectedUser.getId(), Lists.newArrayList());
+		ShoppingListResource testedResource = getShoppingListResource();
 		String expectedMessage = "List not found";
 		
 		//when
@@ -235,7 +300,7 @@ public class ShoppingListResourceTest {
 	public void deleteById_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		String expectedMessage = "Invalid Param named listId : invalid ID";
 		
 		//when
@@ -252,7 +317,7 @@ public class ShoppingListResourceTest {
 	public void deleteById_should_return_404_with_unknown_list_Id() {
 		//given
 		String unknownId = UUID.randomUUID().toString();
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		ErrorMessage expectedMessage = LIST_NOT_FOUND;
 		
 		//when
@@ -269,9 +334,8 @@ public class ShoppingListResourceTest {
 	public void deleteById_should_work_with_existing_list_Id() {
 		//given
 		UUID existingId = UUID.randomUUID();
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
-		ShoppingList existingShoppingList = ShoppingList.Builder.createDefault().withId(existingId).build();
-		when(mockeListRepo.getById(existingId)).thenReturn(existingShoppingList);
+		ShoppingListResource testedResource = getShoppingListResource();
+		when(mockeListRepo.deleteById(existingId, connectedUser.getId())).thenReturn(true);
 		
 		//when
 		Response response = testedResource.deleteById(existingId.toString());
@@ -285,7 +349,7 @@ public class ShoppingListResourceTest {
 	public void getByOwnerId_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		String expectedMessage = "Invalid Param named ownerId : invalid ID";
 		
 		//when
@@ -301,9 +365,9 @@ public class ShoppingListResourceTest {
 	@Test(expected = WebApiException.class)
 	public void getByOwnerId_should_return_404_with_unknown_owner_Id() {
 		//given
-		UUID unknownId = UUID.randomUUID();
+		UUID unknownId = connectedUser.getId();
 		when(mockeListRepo.getByOwner(unknownId)).thenReturn(ImmutableList.of());
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		ShoppingListResource testedResource = getShoppingListResource();
 		String expectedMessage = LISTS_NOT_FOUND.getDevReadableMessage(unknownId.toString());
 		
 		//when
@@ -316,11 +380,27 @@ public class ShoppingListResourceTest {
 		}
 	}
 	
+	@Test(expected = WebApiException.class)
+	public void getByOwnerId_should_return_403_with_another_owner_Id() {
+		//given
+		UUID otherOwnerId = UUID.randomUUID();
+		ShoppingListResource testedResource = getShoppingListResource();
+		
+		//when
+		try {
+			testedResource.getByOwnerId(otherOwnerId.toString());
+		} catch(WebApiException wae) {
+		//then
+			TestHelper.assertWebApiException(wae, FORBIDDEN, INFO, API_RESPONSE, NOT_LIST_OWNER);
+			throw wae;
+		}
+	}
+	
 	@Test
 	public void getByOwnerId_should_work_with_existing_list_Id() {
 		//given
-		UUID existingOwnerId = UUID.randomUUID();
-		ShoppingListResource testedResource = getShoppingListResource(TestHelper.generateRandomUser());
+		UUID existingOwnerId = connectedUser.getId();
+		ShoppingListResource testedResource = getShoppingListResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		ShoppingList existingShoppingList = ShoppingList.Builder.createDefault().withRandomId().withOwnerId(existingOwnerId).build();
@@ -5,6 +5,8 @@ import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.ws.rs.core.Response;
@@ -12,6 +14,8 @@ import javax.ws.rs.core.UriInfo;
 
 import org.junit.Test;
 
+import com.google.inject.util.Providers;
+
 import yoan.shopping.infra.rest.Link;
 import yoan.shopping.root.repository.fake.BuildInfoFakeRepository;
 import yoan.shopping.root.representation.RootRepresentation;
@@ -57,9 +61,28 @@ public class RootResourceTest {
 		assertThat(representation.getConnectedUserId()).isEqualTo(connectedUser.getId());
 		assertThat(representation.getLinks()).contains(Link.self(expectedURL));
 	}
-	
+
+	@Test
+	public void root_should_return_the_user_of_each_request() {
+		//given
+		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
+		User firstUser = TestHelper.generateRandomUser();
+		User secondUser = TestHelper.generateRandomUser();
+		Iterator<User> connectedUsers = Arrays.asList(firstUser, secondUser).iterator();
+		RootResource testedResource = spy(new RootResource(connectedUsers::next, new BuildInfoFakeRepository()));
+		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
+
+		//when
+		RootRepresentation firstRepresentation = (RootRepresentation) testedResource.root().getEntity();
+		RootRepresentation secondRepresentation = (RootRepresentation) testedResource.root().getEntity();
+
+		//then
+		assertThat(firstRepresentation.getConnectedUserId()).isEqualTo(firstUser.getId());
+		assertThat(secondRepresentation.getConnectedUserId()).isEqualTo(secondUser.getId());
+	}
+
 	private RootResource getRootResource(User connectedUser) {
-		RootResource testedResource = new RootResource(connectedUser, new BuildInfoFakeRepository());
+		RootResource testedResource = new RootResource(Providers.of(connectedUser), new BuildInfoFakeRepository());
 		return spy(testedResource);
 	}
 }
@@ -0,0 +1,39 @@
+package yoan.shopping.test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock moved by hand
+ * Test purpose only
+ * @author yoan
+ */
+public class ManualClock extends Clock {
+	private volatile Instant now;
+	
+	public ManualClock(Instant now) {
+		this.now = now;
+	}
+	
+	public void advance(Duration duration) {
+		now = now.plus(duration);
+	}
+	
+	@Override
+	public Instant instant() {
+		return now;
+	}
+	
+	@Override
+	public ZoneId getZone() {
+		return ZoneOffset.UTC;
+	}
+	
+	@Override
+	public Clock withZone(ZoneId zone) {
+		return this;
+	}
+}
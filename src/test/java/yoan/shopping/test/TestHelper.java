@@ -18,6 +18,7 @@ import java.util.UUID;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.Response.StatusType;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
@@ -28,9 +29,11 @@ import com.google.common.collect.ImmutableList;
 import yoan.shopping.authentication.repository.OAuth2AccessToken;
 import yoan.shopping.authentication.repository.OAuth2AuthorizationCode;
 import yoan.shopping.client.app.ClientApp;
+import yoan.shopping.infra.config.api.Config;
 import yoan.shopping.infra.rest.error.ErrorRepresentation;
 import yoan.shopping.infra.rest.error.Level;
 import yoan.shopping.infra.rest.error.WebApiException;
+import yoan.shopping.infra.security.PasswordHasher;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.infra.util.error.ErrorCode;
 import yoan.shopping.infra.util.error.ErrorMessage;
@@ -70,7 +73,7 @@ public class TestHelper {
 		assertWebApiException(wae, expectedStatus, expectedLevel, expectedErrorCode, expectedMessage.getDevReadableMessage());
 	}
 	
-	public static void assertErrorResponse(Response errorResponse, Status expectedStatus, Level expectedLevel, String expectedErrorCode, String expectedMessage) {
+	public static void assertErrorResponse(Response errorResponse, StatusType expectedStatus, Level expectedLevel, String expectedErrorCode, String expectedMessage) {
 		assertThat(errorResponse).isNotNull();
 		assertThat(errorResponse.getStatus()).isEqualTo(expectedStatus.getStatusCode());
 		ErrorRepresentation payload = (ErrorRepresentation) errorResponse.getEntity();
@@ -101,6 +104,14 @@ public class TestHelper {
 		return mockedUriInfo;
 	}
 	
+	/**
+	 * Password hasher with a low cost, to keep the tests fast
+	 * @return password hasher
+	 */
+	public static PasswordHasher createFastPasswordHasher() {
+		return new PasswordHasher(Config.Builder.createFrom(Config.DEFAULT).withPasswordHashIterations(1_000).build());
+	}
+	
 	public static User generateRandomUser() {
 		return User.Builder.createDefault()
 						   .withRandomId()
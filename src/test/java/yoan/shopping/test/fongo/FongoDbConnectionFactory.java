@@ -5,6 +5,9 @@ package yoan.shopping.test.fongo;
 
 import static java.util.Objects.requireNonNull;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
 import org.bson.Document;
 
 import yoan.shopping.infra.config.api.Config;
@@ -12,6 +15,8 @@ import yoan.shopping.infra.db.Dbs;
 import yoan.shopping.infra.db.mongo.MongoDbConnectionFactory;
 
 import com.github.fakemongo.Fongo;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
@@ -33,10 +38,34 @@ public class FongoDbConnectionFactory extends MongoDbConnectionFactory {
 	}
 	
 	public MongoCollection<Document> getCollection(Dbs db, String collectionName) {
-		return getDB(db).getCollection(collectionName);
+		return withIndexDrop(getDB(db).getCollection(collectionName), db, collectionName);
 	}
 	
 	public <TDOC> MongoCollection<TDOC> getCollection(Dbs db, String collectionName, Class<TDOC> documentClass) {
-		return getDB(db).getCollection(collectionName, documentClass);
+		return withIndexDrop(getDB(db).getCollection(collectionName, documentClass), db, collectionName);
+	}
+	
+	/**
+	 * Fongo only implements the index drop in its legacy API : the drops are sent there, the rest to the collection
+	 */
+	@SuppressWarnings("unchecked")
+	private <TDOC> MongoCollection<TDOC> withIndexDrop(MongoCollection<TDOC> collection, Dbs db, String collectionName) {
+		DBCollection legacyCollection = fongo.getDB(db.getDbName()).getCollection(collectionName);
+		return (MongoCollection<TDOC>) Proxy.newProxyInstance(MongoCollection.class.getClassLoader(), new Class<?>[] { MongoCollection.class }, (proxy, method, args) -> {
+			if ("dropIndex".equals(method.getName())) {
+				if (args[0] instanceof String) {
+					legacyCollection.dropIndex((String) args[0]);
+				} else {
+					legacyCollection.dropIndex(new BasicDBObject((Document) args[0]));
+				}
+				return null;
+			}
+			try {
+				Object result = method.invoke(collection, args);
+				return result instanceof MongoCollection ? withIndexDrop((MongoCollection<?>) result, db, collectionName) : result;
+			} catch (InvocationTargetException ite) {
+				throw ite.getCause();
+			}
+		});
 	}
 }
@@ -6,14 +6,13 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
+import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.RepositoryErrorCode.ALREADY_EXISTING;
 import static yoan.shopping.user.repository.UserRepositoryErrorCode.UNSECURE_PASSWORD;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_PASSWORD_VALIDITY;
 
-import java.util.UUID;
-
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
@@ -23,27 +22,23 @@ import yoan.shopping.infra.rest.error.WebApiException;
 import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.test.TestHelper;
 import yoan.shopping.user.repository.SecuredUserRepository;
-import yoan.shopping.user.repository.UserRepository;
 
 @RunWith(MockitoJUnitRunner.class)
 public class UserCreationHelperTest {
-	@Mock
-	UserRepository mockedUserRepo;
-	
 	@Mock
 	SecuredUserRepository mockedSecuredUserRepo;
 	
 	@Test(expected = WebApiException.class)
-	public void ensureUserNotExists_should_fail_with_409_if_user_exist() {
+	public void createUser_should_fail_with_409_if_user_exist() {
 		//given
-		UUID userId = UUID.randomUUID();
 		String alreadyExistingEmail = "already@exist.com";
-		when(mockedUserRepo.checkUserExistsByIdOrEmail(any(), eq(alreadyExistingEmail))).thenReturn(true);
+		User user = User.Builder.createFrom(TestHelper.generateRandomUser()).withEmail(alreadyExistingEmail).build();
+		doThrow(new ApplicationException(INFO, ALREADY_EXISTING, "duplicate key")).when(mockedSecuredUserRepo).create(any(), eq("password"));
 		String expectedMessage = "User with email : " + alreadyExistingEmail + " already exists";
 		
 		//when
 		try {
-			UserCreationHelper.ensureUserNotExists(mockedUserRepo, userId, alreadyExistingEmail);
+			UserCreationHelper.createUser(mockedSecuredUserRepo, user, "password");
 		} catch(WebApiException wae) {
 		//then
 			TestHelper.assertWebApiException(wae, CONFLICT, ERROR, API_RESPONSE, expectedMessage);
@@ -52,18 +47,15 @@ public class UserCreationHelperTest {
 	}
 	
 	@Test
-	public void ensureUserNotExists_should_not_fail_if_user_does_not_exist() {
+	public void createUser_should_create_user_without_checking_existence_first() {
 		//given
-		UUID userId = UUID.randomUUID();
-		String email = "does_not@exist.com";
-		when(mockedUserRepo.checkUserExistsByIdOrEmail(any(), eq(email))).thenReturn(false);
+		User user = TestHelper.generateRandomUser();
 		
 		//when
-		UserCreationHelper.ensureUserNotExists(mockedUserRepo, userId, email);
+		UserCreationHelper.createUser(mockedSecuredUserRepo, user, "password");
 
 		//then
-		//should not fail
-		verify(mockedUserRepo).checkUserExistsByIdOrEmail(userId, email);
+		verify(mockedSecuredUserRepo).create(user, "password");
 	}
 	
 	@Test(expected = WebApiException.class)
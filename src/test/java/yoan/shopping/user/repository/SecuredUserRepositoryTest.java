@@ -2,6 +2,7 @@ package yoan.shopping.user.repository;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
@@ -15,10 +16,14 @@ import java.util.UUID;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.helper.SecurityHelper;
+import yoan.shopping.test.TestHelper;
+import yoan.shopping.user.SecuredUser;
 import yoan.shopping.user.User;
 import yoan.shopping.user.repository.fake.SecuredUserFakeRepository;
 
@@ -29,7 +34,7 @@ public class SecuredUserRepositoryTest {
 	SecuredUserRepository testedRepo = getTestedRepository();
 	
 	protected SecuredUserRepository getTestedRepository() {
-		return new SecuredUserFakeRepository();
+		return new SecuredUserFakeRepository(TestHelper.createFastPasswordHasher());
 	}
 	
 	@Test
@@ -128,6 +133,59 @@ public class SecuredUserRepositoryTest {
 		assertThat(hash2).isNotEqualTo(hash3);
 	}
 	
+	@Test
+	public void checkPassword_should_upgrade_legacy_hash() {
+		//given
+		String password = "password";
+		SecuredUser legacyUser = SecuredUser.Builder.createFrom(TestHelper.generateRandomUser())
+			.withSalt("salt")
+			.withPassword(SecurityHelper.hash(password, "salt"))
+			.build();
+		
+		//when
+		boolean result = testedRepo.checkPassword(legacyUser, password);
+		
+		//then
+		assertThat(result).isTrue();
+		ArgumentCaptor<SecuredUser> upgradedUser = ArgumentCaptor.forClass(SecuredUser.class);
+		verify(testedRepo).processUpgradePasswordHash(upgradedUser.capture(), eq(legacyUser.getPassword()));
+		assertThat(upgradedUser.getValue().getPassword()).isEqualTo(testedRepo.hashPassword(password, "salt"));
+		assertThat(upgradedUser.getValue().getSalt()).isEqualTo("salt");
+	}
+	
+	@Test
+	public void checkPassword_should_not_upgrade_current_hash() {
+		//given
+		String password = "password";
+		SecuredUser user = SecuredUser.Builder.createFrom(TestHelper.generateRandomUser())
+			.withSalt("salt")
+			.withPassword(testedRepo.hashPassword(password, "salt"))
+			.build();
+		
+		//when
+		boolean result = testedRepo.checkPassword(user, password);
+		
+		//then
+		assertThat(result).isTrue();
+		verify(testedRepo, never()).processUpgradePasswordHash(any(), any());
+	}
+	
+	@Test
+	public void checkPassword_should_reject_wrong_password_without_upgrade() {
+		//given
+		SecuredUser legacyUser = SecuredUser.Builder.createFrom(TestHelper.generateRandomUser())
+			.withSalt("salt")
+			.withPassword(SecurityHelper.hash("password", "salt"))
+			.build();
+		
+		//when
+		boolean result = testedRepo.checkPassword(legacyUser, "wrong password");
+		
+		//then
+		assertThat(result).isFalse();
+		verify(testedRepo, never()).processUpgradePasswordHash(any(), any());
+	}
+	
 	@Test
 	public void getById_should_return_null_with_null_Id() {
 		//given
@@ -2,14 +2,14 @@ package yoan.shopping.user.repository;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.RepositoryErrorCode.NOT_FOUND;
 import static yoan.shopping.test.TestHelper.assertApplicationException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.Test;
@@ -78,7 +78,7 @@ public class UserRepositoryTest {
 			assertApplicationException(ae, INFO, NOT_FOUND, "User not found");
 			throw ae;
 		} finally {
-			verify(testedRepo, never()).processUpdate(any());
+			verify(testedRepo).processUpdate(any());
 		}
 	}
 	
@@ -121,46 +121,16 @@ public class UserRepositoryTest {
 	}
 	
 	@Test
-	public void checkUserExistsByIdOrEmail_should_return_true_with_null_Id_and_existing_email() {
+	public void deleteById_should_notify_change_listeners() {
 		//given
-		UUID nullId = null;
-		String existingEmail = "mail@mail.com";
-		when(testedRepo.countByIdOrEmail(any(), eq(existingEmail))).thenReturn(Long.valueOf(1));
-
-		//when
-		boolean result = testedRepo.checkUserExistsByIdOrEmail(nullId, existingEmail);
-		
-		//then
-		assertThat(result).isTrue();
-		verify(testedRepo).countByIdOrEmail(any(), eq(existingEmail));
-	}
-	
-	@Test
-	public void checkUserExistsByIdOrEmail_should_return_true_with_null_email_and_existing_id() {
-		//given
-		UUID existingId = UUID.randomUUID();
-		String nullEmail = null;
-		when(testedRepo.countByIdOrEmail(eq(existingId), any())).thenReturn(Long.valueOf(1));
-
-		//when
-		boolean result = testedRepo.checkUserExistsByIdOrEmail(existingId, nullEmail);
-		
-		//then
-		assertThat(result).isTrue();
-		verify(testedRepo).countByIdOrEmail(eq(existingId), any());
-	}
-	
-	@Test
-	public void checkUserExistsByIdOrEmail_should_return_false_with_null_id_and_blank_email() {
-		//given
-		UUID nullId = null;
-		String blankEmail = "  ";
+		UUID deletedId = UUID.randomUUID();
+		List<UUID> notifiedIds = new ArrayList<>();
+		testedRepo.addChangeListener(notifiedIds::add);
 
 		//when
-		boolean result = testedRepo.checkUserExistsByIdOrEmail(nullId, blankEmail);
+		testedRepo.deleteById(deletedId);
 		
 		//then
-		assertThat(result).isFalse();
-		verify(testedRepo, never()).countByIdOrEmail(any(), any());
+		assertThat(notifiedIds).containsExactly(deletedId);
 	}
 }
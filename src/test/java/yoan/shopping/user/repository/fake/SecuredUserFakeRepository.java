@@ -5,6 +5,7 @@ package yoan.shopping.user.repository.fake;
 
 import java.util.UUID;
 
+import yoan.shopping.infra.security.PasswordHasher;
 import yoan.shopping.user.SecuredUser;
 import yoan.shopping.user.repository.SecuredUserRepository;
 
@@ -14,6 +15,10 @@ import yoan.shopping.user.repository.SecuredUserRepository;
  * @author yoan
  */
 public class SecuredUserFakeRepository extends SecuredUserRepository {
+	public SecuredUserFakeRepository(PasswordHasher passwordHasher) {
+		super(passwordHasher);
+	}
+	
 	@Override
 	protected void processCreate(SecuredUser userToCreate) { }
 
@@ -25,6 +30,9 @@ public class SecuredUserFakeRepository extends SecuredUserRepository {
 	@Override
 	protected void processChangePassword(SecuredUser userToUpdate) { }
 
+	@Override
+	protected void processUpgradePasswordHash(SecuredUser userToUpdate, String previousHash) { }
+
 	@Override
 	protected SecuredUser processGetByEmail(String userEmail) {
 		return null;
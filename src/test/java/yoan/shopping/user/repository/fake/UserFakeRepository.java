@@ -21,18 +21,17 @@ public class UserFakeRepository extends UserRepository {
 	}
 
 	@Override
-	protected void processUpdate(User userToUpdate) { }
+	protected boolean processUpdate(User userToUpdate) {
+		return false;
+	}
 
 	@Override
-	protected void processDeleteById(UUID userId) { }
+	protected boolean processDeleteById(UUID userId) {
+		return false;
+	}
 
 	@Override
 	protected User processGetByEmail(String email) {
 		return null;
 	}
-
-	@Override
-	protected long countByIdOrEmail(UUID userId, String email) {
-		return 0;
-	}
 }
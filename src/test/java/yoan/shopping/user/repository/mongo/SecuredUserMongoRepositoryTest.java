@@ -2,17 +2,30 @@ package yoan.shopping.user.repository.mongo;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static yoan.shopping.infra.db.Dbs.SHOPPING;
+import static yoan.shopping.infra.rest.error.Level.INFO;
+import static yoan.shopping.infra.util.error.RepositoryErrorCode.ALREADY_EXISTING;
+import static yoan.shopping.test.TestHelper.assertApplicationException;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_CREATION_USER;
+import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_CREATION_USER_ALREADY_EXISTS;
+import static yoan.shopping.user.repository.mongo.UserMongoConverter.FIELD_EMAIL;
 import static yoan.shopping.user.repository.mongo.UserMongoRepository.USER_COLLECTION;
 
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.junit.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 
+import yoan.shopping.infra.security.PasswordHasher;
 import yoan.shopping.infra.util.error.ApplicationException;
+import yoan.shopping.infra.util.helper.SecurityHelper;
 import yoan.shopping.test.TestHelper;
 import yoan.shopping.test.fongo.FongoBackedTest;
 import yoan.shopping.user.SecuredUser;
@@ -26,6 +39,8 @@ public class SecuredUserMongoRepositoryTest extends FongoBackedTest {
 	private final SecuredUserMongoConverter converter = new SecuredUserMongoConverter();
 	private final MongoCollection<Document> userCollection = getFongoDbConnectionFactory().getCollection(SHOPPING, USER_COLLECTION);
 	
+	@Spy
+	PasswordHasher passwordHasher = TestHelper.createFastPasswordHasher();
 	@InjectMocks
 	SecuredUserMongoRepository testedRepo;
 	
@@ -95,6 +110,62 @@ public class SecuredUserMongoRepositoryTest extends FongoBackedTest {
 		}
 	}
 	
+	@Test(expected = ApplicationException.class)
+	public void create_should_fail_with_already_used_email() {
+		//given
+		User alreadyExistingUser = TestHelper.generateRandomUser();
+		testedRepo.create(alreadyExistingUser, "password");
+		User userWithSameEmail = User.Builder.createFrom(TestHelper.generateRandomUser()).withEmail(alreadyExistingUser.getEmail()).build();
+		String expectedMessage = PROBLEM_CREATION_USER_ALREADY_EXISTS.getDevReadableMessage(alreadyExistingUser.getEmail());
+		
+		//when
+		try {
+			testedRepo.create(userWithSameEmail, "password");
+		} catch (ApplicationException ae) {
+		//then
+			assertApplicationException(ae, INFO, ALREADY_EXISTING, expectedMessage);
+			throw ae;
+		} finally {
+			assertThat(testedRepo.getById(userWithSameEmail.getId())).isNull();
+		}
+	}
+	
+	@Test
+	public void create_should_accept_only_one_of_concurrent_registrations_with_same_email() throws InterruptedException {
+		//given
+		String email = TestHelper.generateRandomUser().getEmail();
+		int nbRegistrations = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService registrations = Executors.newFixedThreadPool(nbRegistrations);
+		AtomicInteger created = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		
+		//when
+		for (int i = 0; i < nbRegistrations; i++) {
+			User user = User.Builder.createFrom(TestHelper.generateRandomUser()).withEmail(email).build();
+			registrations.submit(() -> {
+				try {
+					start.await();
+					testedRepo.create(user, "password");
+					created.incrementAndGet();
+				} catch (ApplicationException ae) {
+					if (ae.getErrorCode() == ALREADY_EXISTING) {
+						rejected.incrementAndGet();
+					}
+				}
+				return null;
+			});
+		}
+		start.countDown();
+		registrations.shutdown();
+		registrations.awaitTermination(10, TimeUnit.SECONDS);
+		
+		//then
+		assertThat(created.get()).isEqualTo(1);
+		assertThat(rejected.get()).isEqualTo(nbRegistrations - 1);
+		assertThat(userCollection.count(Filters.eq(FIELD_EMAIL, email))).isEqualTo(1);
+	}
+	
 	@Test
 	public void getById_should_return_null_with_not_existing_user_id() {
 		//given
@@ -149,6 +220,48 @@ public class SecuredUserMongoRepositoryTest extends FongoBackedTest {
 		assertThat(result.getLastUpdate().isAfter(originalSecuredUser.getLastUpdate())).isTrue();
 	}
 	
+	@Test
+	public void checkPassword_should_store_upgraded_hash_of_legacy_user() {
+		//given
+		String password = "password";
+		SecuredUser legacyUser = SecuredUser.Builder.createFrom(TestHelper.generateRandomUser())
+			.withSalt("salt")
+			.withPassword(SecurityHelper.hash(password, "salt"))
+			.build();
+		userCollection.insertOne(converter.toDocument(legacyUser));
+		SecuredUser storedUser = testedRepo.getById(legacyUser.getId());
+		
+		//when
+		boolean result = testedRepo.checkPassword(storedUser, password);
+		
+		//then
+		assertThat(result).isTrue();
+		SecuredUser upgradedUser = testedRepo.getById(legacyUser.getId());
+		assertThat(upgradedUser.getPassword()).startsWith(PasswordHasher.PBKDF2_PREFIX);
+		assertThat(upgradedUser.getLastUpdate()).isEqualTo(storedUser.getLastUpdate());
+		assertThat(testedRepo.checkPassword(upgradedUser, password)).isTrue();
+	}
+	
+	@Test
+	public void checkPassword_should_not_overwrite_a_password_changed_meanwhile() {
+		//given
+		String password = "password";
+		SecuredUser legacyUser = SecuredUser.Builder.createFrom(TestHelper.generateRandomUser())
+			.withSalt("salt")
+			.withPassword(SecurityHelper.hash(password, "salt"))
+			.build();
+		userCollection.insertOne(converter.toDocument(legacyUser));
+		testedRepo.changePassword(legacyUser.getId(), "new password");
+		SecuredUser changedUser = testedRepo.getById(legacyUser.getId());
+		
+		//when
+		testedRepo.checkPassword(legacyUser, password);
+		
+		//then
+		SecuredUser result = testedRepo.getById(legacyUser.getId());
+		assertThat(result.getPassword()).isEqualTo(changedUser.getPassword());
+	}
+	
 	@Test
 	public void getByEmail_should_return_null_with_not_existing_user_email() {
 		//given
@@ -9,7 +9,6 @@ import java.util.UUID;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 
@@ -149,10 +148,10 @@ public class UserMongoRepositoryTest extends FongoBackedTest {
 		UUID notExistingUserId = UUID.randomUUID();
 
 		//when
-		testedRepo.deleteById(notExistingUserId);
+		boolean deleted = testedRepo.deleteById(notExistingUserId);
 		
 		//then
-		//should not have failed
+		assertThat(deleted).isFalse();
 	}
 	
 	@Test
@@ -162,25 +161,11 @@ public class UserMongoRepositoryTest extends FongoBackedTest {
 		testedRepo.create(existingUser);
 
 		//when
-		testedRepo.deleteById(existingUser.getId());
+		boolean deleted = testedRepo.deleteById(existingUser.getId());
 		
 		//then
+		assertThat(deleted).isTrue();
 		User result = testedRepo.getById(existingUser.getId());
 		assertThat(result).isNull();
 	}
-	
-	@Test
-	@Ignore //does not work because there is a bug with fongo parsing uuid when uusing count
-	public void countByIdOrEmail_should_work_with_existing_user_id_and_blank_email() {
-		//given
-		String blankEmail = "re  ";
-		User existingUser = TestHelper.generateRandomUser();
-		testedRepo.create(existingUser);
-
-		//when
-		long result = testedRepo.countByIdOrEmail(existingUser.getId(), blankEmail);
-		
-		//then
-		assertThat(result).isEqualTo(1);
-	}
 }
@@ -10,7 +10,9 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
+import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.RepositoryErrorCode.ALREADY_EXISTING;
 import static yoan.shopping.user.repository.UserRepositoryErrorCode.UNSECURE_PASSWORD;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_PASSWORD_VALIDITY;
 
@@ -33,16 +35,12 @@ import yoan.shopping.infra.util.error.ApplicationException;
 import yoan.shopping.test.TestHelper;
 import yoan.shopping.user.User;
 import yoan.shopping.user.repository.SecuredUserRepository;
-import yoan.shopping.user.repository.UserRepository;
 import yoan.shopping.user.representation.SecuredUserWriteRepresentation;
 import yoan.shopping.user.representation.UserRepresentation;
 
 @RunWith(MockitoJUnitRunner.class)
 public class RegisterUserResourceTest {
 
-	@Mock
-	UserRepository mockedUserRepo;
-	
 	@Mock
 	SecuredUserRepository mockedSecuredUserRepo;
 	
@@ -113,7 +111,7 @@ public class RegisterUserResourceTest {
 		String alreadyExistingEmail = "already@exist.com";
 		@SuppressWarnings("deprecation")
 		SecuredUserWriteRepresentation representation = new SecuredUserWriteRepresentation("name", alreadyExistingEmail, "password");
-		when(mockedUserRepo.checkUserExistsByIdOrEmail(any(), eq(alreadyExistingEmail))).thenReturn(true);
+		doThrow(new ApplicationException(INFO, ALREADY_EXISTING, "duplicate key")).when(mockedSecuredUserRepo).create(any(), eq("password"));
 		String expectedMessage = "User with email : " + alreadyExistingEmail + " already exists";
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
@@ -15,6 +15,7 @@ import static org.mockito.Mockito.when;
 import static yoan.shopping.infra.rest.error.Level.ERROR;
 import static yoan.shopping.infra.rest.error.Level.INFO;
 import static yoan.shopping.infra.util.error.CommonErrorCode.API_RESPONSE;
+import static yoan.shopping.infra.util.error.RepositoryErrorCode.ALREADY_EXISTING;
 import static yoan.shopping.user.repository.UserRepositoryErrorCode.UNSECURE_PASSWORD;
 import static yoan.shopping.user.repository.UserRepositoryErrorMessage.PROBLEM_PASSWORD_VALIDITY;
 
@@ -38,6 +39,7 @@ import yoan.shopping.test.TestHelper;
 import yoan.shopping.user.User;
 import yoan.shopping.user.repository.SecuredUserRepository;
 import yoan.shopping.user.repository.UserRepository;
+import yoan.shopping.user.repository.fake.UserFakeRepository;
 import yoan.shopping.user.representation.SecuredUserWriteRepresentation;
 import yoan.shopping.user.representation.UserRepresentation;
 import yoan.shopping.user.representation.UserWriteRepresentation;
@@ -51,8 +53,12 @@ public class UserResourceTest {
 	@Mock
 	SecuredUserRepository mockedSecuredUserRepo;
 	
-	private UserResource getUserResource(User connectedUser) {
-		UserResource testedResource = new UserResource(connectedUser, mockedUserRepo, mockedSecuredUserRepo);
+	private UserResource getUserResource() {
+		return getUserResource(mockedUserRepo);
+	}
+	
+	private UserResource getUserResource(UserRepository userRepo) {
+		UserResource testedResource = new UserResource(userRepo, mockedSecuredUserRepo);
 		return spy(testedResource);
 	}
 	
@@ -61,7 +67,7 @@ public class UserResourceTest {
 		//given
 		String expectedURL = "http://test";
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo(expectedURL);
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
 		//when
@@ -78,8 +84,7 @@ public class UserResourceTest {
 		//given
 		String expectedURL = "http://test";
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo(expectedURL);
-		User connectedUser = TestHelper.generateRandomUser();
-		UserResource testedResource = getUserResource(connectedUser);
+		UserResource testedResource = getUserResource();
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
 		//when
@@ -100,7 +105,7 @@ public class UserResourceTest {
 		String expectedMail = "mail";
 		@SuppressWarnings("deprecation")
 		SecuredUserWriteRepresentation representation = new SecuredUserWriteRepresentation(expectedName, expectedMail, "password");
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -123,9 +128,9 @@ public class UserResourceTest {
 		String alreadyExistingEmail = "already@exist.com";
 		@SuppressWarnings("deprecation")
 		SecuredUserWriteRepresentation representation = new SecuredUserWriteRepresentation("name", alreadyExistingEmail, "password");
-		when(mockedUserRepo.checkUserExistsByIdOrEmail(any(), eq(alreadyExistingEmail))).thenReturn(true);
+		doThrow(new ApplicationException(INFO, ALREADY_EXISTING, "duplicate key")).when(mockedSecuredUserRepo).create(any(), eq("password"));
 		String expectedMessage = "User with email : " + alreadyExistingEmail + " already exists";
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -147,7 +152,7 @@ public class UserResourceTest {
 		SecuredUserWriteRepresentation representation = new SecuredUserWriteRepresentation("name", "test@mail.com", invalidPassword);
 		String expectedMessage = PROBLEM_PASSWORD_VALIDITY.getDevReadableMessage();
 		doThrow(new ApplicationException(ERROR, UNSECURE_PASSWORD, expectedMessage)).when(mockedSecuredUserRepo).create(any(), eq(invalidPassword));
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -165,7 +170,7 @@ public class UserResourceTest {
 	public void getById_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "Invalid Param named userId : invalid ID";
 		
 		//when
@@ -182,7 +187,7 @@ public class UserResourceTest {
 	public void getById_should_return_404_with_unknown_user_Id() {
 		//given
 		String unknownId = UUID.randomUUID().toString();
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "User not found";
 		
 		//when
@@ -199,7 +204,7 @@ public class UserResourceTest {
 	public void getById_should_work_with_existing_user_Id() {
 		//given
 		UUID existingId = UUID.randomUUID();
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		User existingUser = User.Builder.createDefault().withId(existingId).build();
@@ -226,9 +231,13 @@ public class UserResourceTest {
 		String expectedMail = "mail";
 		@SuppressWarnings("deprecation")
 		UserWriteRepresentation representation = new UserWriteRepresentation(expectedName, expectedMail);
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
-		User existingUser = User.Builder.createDefault().withId(expectedID).build();
-		when(mockedUserRepo.getById(expectedID)).thenReturn(existingUser);
+		UserRepository userRepo = new UserFakeRepository() {
+			@Override
+			protected boolean processUpdate(User userToUpdate) {
+				return true;
+			}
+		};
+		UserResource testedResource = getUserResource(userRepo);
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		
@@ -245,7 +254,7 @@ public class UserResourceTest {
 		//given
 		@SuppressWarnings("deprecation")
 		UserWriteRepresentation representationWithoutId = new UserWriteRepresentation("name", "mail");
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "Invalid Param named userId : null";
 		
 		//when
@@ -264,7 +273,7 @@ public class UserResourceTest {
 		String invalidId = "invalid";
 		@SuppressWarnings("deprecation")
 		UserWriteRepresentation representationWithoutId = new UserWriteRepresentation("name", "mail");
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "Invalid Param named userId : invalid";
 		
 		//when
@@ -283,7 +292,7 @@ public class UserResourceTest {
 		String unknownUserId = UUID.randomUUID().toString();
 		@SuppressWarnings("deprecation")
 		UserWriteRepresentation representation = new UserWriteRepresentation("name", "mail");
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "User not found";
 		
 		//when
@@ -300,7 +309,7 @@ public class UserResourceTest {
 	public void changePassword_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "Invalid Param named userId : invalid ID";
 		
 		//when
@@ -317,7 +326,7 @@ public class UserResourceTest {
 	public void changePassword_should_return_404_with_unknown_user() {
 		//given
 		User user = TestHelper.generateRandomUser();
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "User not found";
 		
 		//when
@@ -334,7 +343,7 @@ public class UserResourceTest {
 	public void deleteById_should_return_400_with_invalid_Id() {
 		//given
 		String invalidId = "invalid ID";
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "Invalid Param named userId : invalid ID";
 		
 		//when
@@ -351,7 +360,7 @@ public class UserResourceTest {
 	public void deleteById_should_return_404_with_unknown_user_Id() {
 		//given
 		String unknownId = UUID.randomUUID().toString();
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "User not found";
 		
 		//when
@@ -368,9 +377,13 @@ public class UserResourceTest {
 	public void deleteById_should_work_with_existing_user_Id() {
 		//given
 		UUID existingId = UUID.randomUUID();
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
-		User existingUser = User.Builder.createDefault().withId(existingId).build();
-		when(mockedUserRepo.getById(existingId)).thenReturn(existingUser);
+		UserRepository userRepo = new UserFakeRepository() {
+			@Override
+			protected boolean processDeleteById(UUID userId) {
+				return true;
+			}
+		};
+		UserResource testedResource = getUserResource(userRepo);
 		
 		//when
 		Response response = testedResource.deleteById(existingId.toString());
@@ -384,7 +397,7 @@ public class UserResourceTest {
 	public void getByEmail_should_return_400_with_invalid_email() {
 		//given
 		String invalidEmail = "invalid email";
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "Invalid Param named userEmail is not a valid email adress : invalid email";
 		
 		//when
@@ -401,7 +414,7 @@ public class UserResourceTest {
 	public void getByEmail_should_return_404_with_unknown_user_email() {
 		//given
 		String unknownEmail = "unknown@unknown.com";
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		String expectedMessage = "User not found";
 		
 		//when
@@ -418,7 +431,7 @@ public class UserResourceTest {
 	public void getByEmail_should_work_with_existing_user_email() {
 		//given
 		String existingEmail = "existing@existing.com";
-		UserResource testedResource = getUserResource(TestHelper.generateRandomUser());
+		UserResource testedResource = getUserResource();
 		UriInfo mockedUriInfo = TestHelper.mockUriInfo("http://test");
 		when(testedResource.getUriInfo()).thenReturn(mockedUriInfo);
 		User existingUser = User.Builder.createDefault().withRandomId().withEmail(existingEmail).build();